@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -24,4 +25,12 @@ public class MaterializationController {
   public void runFull() {
     materializationService.runFullRematerialization();
   }
+
+  @PostMapping("/workspaces/{workspaceId}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  @PreAuthorize("@workspaceAccessService.isCurrentWorkspace(#workspaceId)"
+      + " and @workspaceAccessService.isAdminOrOwner()")
+  public void runWorkspace(@PathVariable("workspaceId") long workspaceId) {
+    materializationService.runWorkspaceRematerialization(workspaceId);
+  }
 }
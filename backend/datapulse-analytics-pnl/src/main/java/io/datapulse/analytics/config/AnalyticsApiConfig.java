@@ -4,6 +4,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-@EnableConfigurationProperties({AnalyticsProperties.class, AnalyticsQueryProperties.class})
+@EnableConfigurationProperties({AnalyticsProperties.class, AnalyticsQueryProperties.class,
+    AnalyticsQueryCacheProperties.class, TrendRollupProperties.class})
 public class AnalyticsApiConfig {
 }
@@ -1,19 +1,33 @@
 package io.datapulse.analytics.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+/**
+ * @param reconciliationCron schedule of the full re-materialization that reconciles what the
+ *                           change feed misses; FullRematerializationScheduler also accepts the
+ *                           former {@code daily-rematerialization-cron} key
+ * @param changeFeedOverlap how far behind its cursor each incremental run re-reads the canonical
+ *                          change feed, so rows committed late with an earlier
+ *                          {@code updated_at} are still picked up; also applied to the P&L slice
+ *                          cursor. Must exceed the longest canonical write transaction.
+ */
 @ConfigurationProperties(prefix = "datapulse.materialization")
 public record AnalyticsProperties(
-    String dailyRematerializationCron,
+    String reconciliationCron,
     boolean incrementalEnabled,
     String fullRematerializationTimeout,
     boolean optimizeFinalAfterFull,
-    int batchSize
+    int batchSize,
+    int transferQueueBatches,
+    int maxConcurrentNodes,
+    Duration changeFeedOverlap
 ) {
 
   public AnalyticsProperties {
-    if (dailyRematerializationCron == null) {
-      dailyRematerializationCron = "0 0 2 * * *";
+    if (reconciliationCron == null) {
+      reconciliationCron = "0 0 2 * * *";
     }
     if (fullRematerializationTimeout == null) {
       fullRematerializationTimeout = "2h";
@@ -21,5 +35,14 @@ public record AnalyticsProperties(
     if (batchSize <= 0) {
       batchSize = 5000;
     }
+    if (transferQueueBatches <= 0) {
+      transferQueueBatches = 2;
+    }
+    if (maxConcurrentNodes <= 0) {
+      maxConcurrentNodes = 4;
+    }
+    if (changeFeedOverlap == null) {
+      changeFeedOverlap = Duration.ofMinutes(5);
+    }
   }
 }
@@ -0,0 +1,216 @@
+package io.datapulse.analytics.config;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.datapulse.analytics.persistence.CachedRead;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Result cache of the ClickHouse read repositories, consulted by
+ * {@link ClickHouseCircuitBreakerAspect} for methods annotated with {@link CachedRead}.
+ * <ul>
+ *   <li>Key: repository method, its arguments (workspace, filter, sort, page; strings trimmed and
+ *       blank strings taken as {@code null}, as the repositories do) and the
+ *       {@code materialization_watermark} version of every table the method reads. A finished
+ *       materialization bumps the version, so older entries are simply never hit again and age
+ *       out; nothing is invalidated explicitly.</li>
+ *   <li>Versions: one grouped query, re-read at most every {@code version-refresh-interval}.
+ *       When it fails or the breaker is open, the last snapshot stays in use and cached answers
+ *       keep serving.</li>
+ *   <li>Coalescing: concurrent identical requests share one ClickHouse query; the first caller
+ *       runs it on its own thread, the others wait for its result. Failures are not cached.</li>
+ *   <li>Bound: {@code maximum-size} entries, {@code expire-after-write} as a safety net.</li>
+ * </ul>
+ * Metrics: {@code analytics.query_cache.requests} (result=hit|miss|coalesced), gauge
+ * {@code analytics.query_cache.entries}.
+ */
+@Slf4j
+@Component
+public class AnalyticsQueryCache {
+
+  private static final String REQUESTS = "analytics.query_cache.requests";
+
+  private static final String VERSIONS_SQL = """
+      SELECT table_name, max(ver) AS ver
+      FROM materialization_watermark
+      GROUP BY table_name
+      """;
+
+  private record Key(String method, List<Object> args, List<Long> versions) {}
+
+  private final ClickHouseReadJdbc jdbc;
+  private final CircuitBreaker circuitBreaker;
+  private final AnalyticsQueryCacheProperties properties;
+  private final MetricsFacade metrics;
+  private final AsyncCache<Key, Object> results;
+
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private volatile Map<String, Long> versions = Map.of();
+  private volatile long versionsReadAtNanos;
+  private volatile boolean versionsRead;
+
+  public AnalyticsQueryCache(ClickHouseReadJdbc jdbc,
+                             CircuitBreaker analyticsClickhouseCircuitBreaker,
+                             AnalyticsQueryCacheProperties properties,
+                             MetricsFacade metrics) {
+    this.jdbc = jdbc;
+    this.circuitBreaker = analyticsClickhouseCircuitBreaker;
+    this.properties = properties;
+    this.metrics = metrics;
+    this.results = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.expireAfterWrite())
+        .buildAsync();
+    metrics.gauge("analytics.query_cache.entries", () -> results.synchronous().estimatedSize());
+  }
+
+  /**
+   * Returns the cached result of {@code method} for {@code args}, or runs {@code loader} and
+   * caches its result. {@code List} results are copied per caller, so callers may not see each
+   * other's modifications.
+   *
+   * @param method identity of the repository method, including its parameter types
+   * @param tables ClickHouse tables the method reads ({@link CachedRead#tables()})
+   */
+  public Object get(String method, Object[] args, String[] tables, Callable<Object> loader)
+      throws Exception {
+    if (!properties.enabled()) {
+      return loader.call();
+    }
+
+    Key key = new Key(method, normalizeArgs(args), versionsOf(tables));
+    CompletableFuture<Object> own = new CompletableFuture<>();
+    CompletableFuture<Object> existing = results.asMap().putIfAbsent(key, own);
+    if (existing != null) {
+      metrics.incrementCounter(REQUESTS, "result", existing.isDone() ? "hit" : "coalesced");
+      return copyOf(await(existing));
+    }
+
+    metrics.incrementCounter(REQUESTS, "result", "miss");
+    try {
+      Object result = loader.call();
+      own.complete(result);
+      return copyOf(result);
+    } catch (Exception | Error e) {
+      results.asMap().remove(key, own);
+      own.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private List<Long> versionsOf(String[] tables) {
+    Map<String, Long> snapshot = currentVersions();
+    List<Long> result = new ArrayList<>(tables.length);
+    for (String table : tables) {
+      result.add(snapshot.getOrDefault(table, 0L));
+    }
+    return result;
+  }
+
+  /**
+   * The latest version snapshot; re-read by one caller at a time once it is older than the
+   * refresh interval, while the others keep using the current one.
+   */
+  private Map<String, Long> currentVersions() {
+    if (isFresh() || !refreshLock.tryLock()) {
+      return versions;
+    }
+    try {
+      if (isFresh()) {
+        return versions;
+      }
+      try {
+        versions = circuitBreaker.executeSupplier(this::readVersions);
+      } catch (CallNotPermittedException e) {
+        log.debug("ClickHouse circuit breaker OPEN, keeping watermark versions: tables={}",
+            versions.size());
+      } catch (RuntimeException e) {
+        log.warn("Watermark versions refresh failed, keeping the last snapshot: tables={}, "
+            + "error={}", versions.size(), e.getMessage());
+      }
+      versionsReadAtNanos = System.nanoTime();
+      versionsRead = true;
+      return versions;
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  private boolean isFresh() {
+    return versionsRead
+        && System.nanoTime() - versionsReadAtNanos < properties.versionRefreshInterval().toNanos();
+  }
+
+  private Map<String, Long> readVersions() {
+    return jdbc.ch().query(VERSIONS_SQL,
+            (rs, rowNum) -> Map.entry(rs.getString("table_name"), rs.getLong("ver")))
+        .stream()
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  private static List<Object> normalizeArgs(Object[] args) {
+    List<Object> normalized = new ArrayList<>(args.length);
+    for (Object arg : args) {
+      normalized.add(normalize(arg));
+    }
+    return normalized;
+  }
+
+  /**
+   * Filters are records; they are flattened into their (normalized) components, so e.g.
+   * {@code search=" abc"} and {@code search="abc"} share an entry.
+   */
+  private static Object normalize(Object arg) {
+    if (arg instanceof String s) {
+      return s.isBlank() ? null : s.trim();
+    }
+    if (arg instanceof Record record) {
+      RecordComponent[] components = record.getClass().getRecordComponents();
+      List<Object> values = new ArrayList<>(components.length + 1);
+      values.add(record.getClass());
+      for (RecordComponent component : components) {
+        try {
+          values.add(normalize(component.getAccessor().invoke(record)));
+        } catch (ReflectiveOperationException e) {
+          throw new IllegalStateException(
+              "Cannot read cache key component: record=%s, component=%s"
+                  .formatted(record.getClass().getSimpleName(), component.getName()), e);
+        }
+      }
+      return values;
+    }
+    return arg;
+  }
+
+  private static Object copyOf(Object result) {
+    return result instanceof List<?> list ? new ArrayList<>(list) : result;
+  }
+
+  private static Object await(CompletableFuture<Object> future) throws Exception {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Exception cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package io.datapulse.analytics.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Result cache of the ClickHouse read repositories ({@link AnalyticsQueryCache}).
+ *
+ * @param enabled                {@code false} sends every read to ClickHouse, as before the cache
+ *                               existed
+ * @param maximumSize            memory bound: cached results across all workspaces and methods
+ * @param versionRefreshInterval how often the {@code materialization_watermark} versions are
+ *                               re-read; bounds how long a finished materialization stays unseen
+ * @param expireAfterWrite       safety bound for entries whose version never changes
+ */
+@ConfigurationProperties(prefix = "datapulse.analytics.query-cache")
+public record AnalyticsQueryCacheProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10000") long maximumSize,
+    @DefaultValue("PT5S") Duration versionRefreshInterval,
+    @DefaultValue("PT30M") Duration expireAfterWrite
+) {}
@@ -1,6 +1,7 @@
 package io.datapulse.analytics.config;
 
 import io.datapulse.analytics.domain.AnalyticsUnavailableException;
+import io.datapulse.analytics.persistence.CachedRead;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
@@ -8,8 +9,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 
+/**
+ * Guards the ClickHouse read repositories with {@code analyticsClickhouseCircuitBreaker}.
+ * Methods annotated with {@link CachedRead} are looked up in {@link AnalyticsQueryCache} first;
+ * only a miss goes through the breaker, so cached answers keep serving while it is open.
+ */
 @Slf4j
 @Aspect
 @Component
@@ -17,12 +24,29 @@ import org.springframework.stereotype.Component;
 public class ClickHouseCircuitBreakerAspect {
 
   private final CircuitBreaker analyticsClickhouseCircuitBreaker;
+  private final AnalyticsQueryCache queryCache;
 
   @Around("execution(public * io.datapulse.analytics.persistence.PnlReadRepository.*(..)) || "
       + "execution(public * io.datapulse.analytics.persistence.InventoryReadRepository.*(..)) || "
       + "execution(public * io.datapulse.analytics.persistence.ReturnsReadRepository.*(..)) || "
       + "execution(public * io.datapulse.analytics.persistence.DataQualityReadRepository.*(..))")
   public Object wrapWithCircuitBreaker(ProceedingJoinPoint joinPoint) throws Throwable {
+    CachedRead cachedRead = ((MethodSignature) joinPoint.getSignature()).getMethod()
+        .getAnnotation(CachedRead.class);
+    try {
+      if (cachedRead == null) {
+        return callThroughBreaker(joinPoint);
+      }
+      return queryCache.get(joinPoint.getSignature().toLongString(), joinPoint.getArgs(),
+          cachedRead.tables(), () -> callThroughBreaker(joinPoint));
+    } catch (CallNotPermittedException e) {
+      log.warn("ClickHouse circuit breaker OPEN, rejecting call: method={}",
+          joinPoint.getSignature().toShortString());
+      throw new AnalyticsUnavailableException();
+    }
+  }
+
+  private Object callThroughBreaker(ProceedingJoinPoint joinPoint) throws Exception {
     try {
       return analyticsClickhouseCircuitBreaker.executeCheckedSupplier(() -> {
         try {
@@ -34,10 +58,10 @@ public class ClickHouseCircuitBreakerAspect {
           throw new RuntimeException(t);
         }
       });
-    } catch (CallNotPermittedException e) {
-      log.warn("ClickHouse circuit breaker OPEN, rejecting call: method={}",
-          joinPoint.getSignature().toShortString());
-      throw new AnalyticsUnavailableException();
+    } catch (Exception | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new RuntimeException(t);
     }
   }
 }
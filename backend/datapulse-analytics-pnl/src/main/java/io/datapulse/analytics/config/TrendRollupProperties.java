@@ -0,0 +1,15 @@
+package io.datapulse.analytics.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Trend rollups ({@code mart_pnl_trend}, {@code mart_returns_trend}).
+ *
+ * @param enabled {@code false} answers trend requests from the row-level marts and facts, as
+ *                before the rollups existed; the rollups are still materialized
+ */
+@ConfigurationProperties(prefix = "datapulse.analytics.trend-rollups")
+public record TrendRollupProperties(
+    @DefaultValue("true") boolean enabled
+) {}
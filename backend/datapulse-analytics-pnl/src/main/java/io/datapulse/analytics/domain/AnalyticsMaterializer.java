@@ -1,19 +1,57 @@
 package io.datapulse.analytics.domain;
 
+import java.time.Instant;
+import java.util.Set;
+
 public interface AnalyticsMaterializer {
 
     void materializeFull();
 
+    /**
+     * Full rebuild as part of a full re-materialization that started at {@code runStartedAt},
+     * before any table of the run read its sources. A materializer that keeps a change cursor
+     * over tables rebuilt earlier in the run moves it to this point, not to its own start:
+     * changes written while the upstream tables were rebuilt are then picked up by the next
+     * incremental run.
+     */
+    default void materializeFull(Instant runStartedAt) {
+        materializeFull();
+    }
+
     void materializeIncremental(long jobExecutionId);
 
+    /**
+     * Rebuilds only the rows of {@code workspaceId} and swaps them in by partition
+     * (see {@code MaterializationJdbc#workspaceMaterializeWithReplace}); other workspaces keep
+     * being served from their untouched partitions.
+     */
+    void materializeWorkspace(long workspaceId);
+
     String tableName();
 
     MaterializationPhase phase();
 
     /**
-     * Execution order within the same phase. Lower values run first.
-     * Override when a materializer depends on another materializer's output
-     * within the same phase (e.g. MartProductPnl depends on MartPostingPnl).
+     * ClickHouse tables this materializer reads. It runs after the materializers that write them
+     * and is skipped when one of them fails (see {@link MaterializationGraph}). Empty for
+     * materializers that read only PostgreSQL.
+     */
+    default Set<String> sourceTables() {
+        return Set.of();
+    }
+
+    /**
+     * {@code true} when the materializer keeps its own {@code materialization_watermark} row
+     * (e.g. as a change cursor). Otherwise {@link MaterializationService} bumps the row after
+     * every successful run, which moves the table's version for the read cache.
+     */
+    default boolean ownsWatermark() {
+        return false;
+    }
+
+    /**
+     * Submission order within the same phase when several materializers are ready at once.
+     * Lower values go first. Dependencies are declared with {@link #sourceTables()}.
      */
     default int order() {
         return 0;
@@ -0,0 +1,108 @@
+package io.datapulse.analytics.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of the materializers: a materializer depends on the materializers that write
+ * the tables it declares in {@link AnalyticsMaterializer#sourceTables()}. Source tables without a
+ * materializer (e.g. fact_advertising, written by ETL) add no edge.
+ *
+ * <p>Nodes are kept in phase / {@link AnalyticsMaterializer#order()} order, which is also the
+ * order a sequential run would take. Fails fast on duplicate tables and on cycles.</p>
+ */
+final class MaterializationGraph {
+
+  private final List<AnalyticsMaterializer> nodes;
+  private final Map<String, Set<String>> upstream;
+  private final Map<String, Set<String>> downstream;
+
+  private MaterializationGraph(List<AnalyticsMaterializer> nodes,
+                               Map<String, Set<String>> upstream,
+                               Map<String, Set<String>> downstream) {
+    this.nodes = nodes;
+    this.upstream = upstream;
+    this.downstream = downstream;
+  }
+
+  static MaterializationGraph of(List<AnalyticsMaterializer> materializers) {
+    List<AnalyticsMaterializer> nodes = materializers.stream()
+        .sorted(Comparator.comparingInt((AnalyticsMaterializer m) -> m.phase().ordinal())
+            .thenComparingInt(AnalyticsMaterializer::order))
+        .toList();
+
+    Map<String, AnalyticsMaterializer> byTable = new LinkedHashMap<>();
+    for (AnalyticsMaterializer node : nodes) {
+      if (byTable.put(node.tableName(), node) != null) {
+        throw new IllegalStateException(
+            "Duplicate materializer for table=%s".formatted(node.tableName()));
+      }
+    }
+
+    Map<String, Set<String>> upstream = new HashMap<>();
+    Map<String, Set<String>> downstream = new HashMap<>();
+    for (AnalyticsMaterializer node : nodes) {
+      upstream.put(node.tableName(), new LinkedHashSet<>());
+      downstream.put(node.tableName(), new LinkedHashSet<>());
+    }
+    for (AnalyticsMaterializer node : nodes) {
+      for (String source : node.sourceTables()) {
+        if (byTable.containsKey(source) && !source.equals(node.tableName())) {
+          upstream.get(node.tableName()).add(source);
+          downstream.get(source).add(node.tableName());
+        }
+      }
+    }
+
+    MaterializationGraph graph = new MaterializationGraph(nodes, upstream, downstream);
+    graph.requireAcyclic();
+    return graph;
+  }
+
+  List<AnalyticsMaterializer> nodes() {
+    return nodes;
+  }
+
+  Set<String> upstreamOf(String table) {
+    return upstream.get(table);
+  }
+
+  private void requireAcyclic() {
+    Map<String, Integer> remaining = new HashMap<>();
+    List<String> ready = new ArrayList<>();
+    for (AnalyticsMaterializer node : nodes) {
+      int count = upstream.get(node.tableName()).size();
+      remaining.put(node.tableName(), count);
+      if (count == 0) {
+        ready.add(node.tableName());
+      }
+    }
+
+    int visited = 0;
+    while (!ready.isEmpty()) {
+      String table = ready.remove(ready.size() - 1);
+      visited++;
+      for (String next : downstream.get(table)) {
+        if (remaining.merge(next, -1, Integer::sum) == 0) {
+          ready.add(next);
+        }
+      }
+    }
+
+    if (visited != nodes.size()) {
+      List<String> cyclic = remaining.entrySet().stream()
+          .filter(e -> e.getValue() > 0)
+          .map(Map.Entry::getKey)
+          .sorted()
+          .toList();
+      throw new IllegalStateException(
+          "Materializer dependencies contain a cycle: tables=%s".formatted(cyclic));
+    }
+  }
+}
@@ -1,63 +1,112 @@
 package io.datapulse.analytics.domain;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
 import io.datapulse.platform.etl.PostIngestMaterializationResult;
+import io.datapulse.platform.observability.MetricsFacade;
 import lombok.extern.slf4j.Slf4j;
-
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+/**
+ * Runs the materializers as a dependency graph ({@link MaterializationGraph}).
+ *
+ * <p>A materializer is submitted to {@code analyticsMaterializationExecutor} as soon as every
+ * materializer it reads from has succeeded. Every node holds one of {@code max-concurrent-nodes}
+ * permits while it runs, shared by all runs of the service (full, workspace and the incremental
+ * runs of concurrent jobs), so the cap bounds the load on ClickHouse as a whole, including a node
+ * the saturated executor leaves to the scheduling thread. When a materializer fails, only the
+ * materializers downstream of it are skipped; independent ones keep running. Each run is timed
+ * per table ({@code analytics.materialization.node.duration}).</p>
+ *
+ * <p>After a table succeeds its {@code materialization_watermark} row is bumped (unless the
+ * materializer {@link AnalyticsMaterializer#ownsWatermark() owns it}); the new version is what
+ * moves cached reads of the table to fresh results.</p>
+ */
 @Slf4j
 @Service
 public class MaterializationService {
 
-    private final List<AnalyticsMaterializer> orderedMaterializers;
+    private static final String NODE_TIMER = "analytics.materialization.node.duration";
+
+    private final MaterializationGraph graph;
+    private final int maxConcurrentNodes;
+    private final Semaphore nodePermits;
+    private final MetricsFacade metrics;
+    private final Executor nodeExecutor;
+    private final MaterializationJdbc jdbc;
 
-    public MaterializationService(List<AnalyticsMaterializer> materializers) {
-        this.orderedMaterializers = materializers.stream()
-                .sorted(Comparator.comparingInt((AnalyticsMaterializer m) -> m.phase().ordinal())
-                    .thenComparingInt(AnalyticsMaterializer::order))
-                .toList();
+    public MaterializationService(List<AnalyticsMaterializer> materializers,
+                                  AnalyticsProperties properties,
+                                  MetricsFacade metrics,
+                                  @Qualifier("analyticsMaterializationExecutor")
+                                  Executor nodeExecutor,
+                                  MaterializationJdbc jdbc) {
+        this.graph = MaterializationGraph.of(materializers);
+        this.maxConcurrentNodes = properties.maxConcurrentNodes();
+        this.nodePermits = new Semaphore(maxConcurrentNodes);
+        this.metrics = metrics;
+        this.nodeExecutor = nodeExecutor;
+        this.jdbc = jdbc;
     }
 
     public void runFullRematerialization() {
-        log.info("Full re-materialization started: tables={}", orderedMaterializers.size());
-
-        int successCount = 0;
-        for (AnalyticsMaterializer materializer : orderedMaterializers) {
-            String table = materializer.tableName();
-            try {
-                log.info("Materializing table: table={}, phase={}", table, materializer.phase());
-                materializer.materializeFull();
-                successCount++;
-                log.info("Materialized table: table={}", table);
-            } catch (Exception e) {
-                log.error("Materialization failed: table={}", table, e);
-                throw new IllegalStateException(
-                        "Full re-materialization aborted at table=%s".formatted(table), e);
-            }
+        log.info("Full re-materialization started: tables={}, maxConcurrentNodes={}",
+                graph.nodes().size(), maxConcurrentNodes);
+
+        Instant runStartedAt = Instant.now();
+        GraphRun run = runGraph("full", m -> m.materializeFull(runStartedAt));
+        if (run.hasFailures()) {
+            throw new IllegalStateException(
+                    "Full re-materialization failed: failed=%s, skipped=%s"
+                            .formatted(run.failed(), run.skipped()), run.firstFailure());
+        }
+
+        log.info("Full re-materialization completed: succeeded={}", run.succeeded().size());
+    }
+
+    /**
+     * Rebuilds one workspace in every table; other workspaces are not rewritten. Fails after the
+     * run when any table failed or was skipped.
+     */
+    public void runWorkspaceRematerialization(long workspaceId) {
+        log.info("Workspace re-materialization started: workspaceId={}, tables={}",
+                workspaceId, graph.nodes().size());
+
+        GraphRun run = runGraph("workspace", m -> m.materializeWorkspace(workspaceId));
+        if (run.hasFailures()) {
+            throw new IllegalStateException(
+                    "Workspace re-materialization failed: workspaceId=%d, failed=%s, skipped=%s"
+                            .formatted(workspaceId, run.failed(), run.skipped()),
+                    run.firstFailure());
         }
 
-        log.info("Full re-materialization completed: succeeded={}", successCount);
+        log.info("Workspace re-materialization completed: workspaceId={}", workspaceId);
     }
 
     public PostIngestMaterializationResult runIncrementalMaterialization(long jobExecutionId) {
         log.info("Incremental materialization started: jobExecutionId={}", jobExecutionId);
 
-        List<String> failedTables = new ArrayList<>();
-        for (AnalyticsMaterializer materializer : orderedMaterializers) {
-            String table = materializer.tableName();
-            try {
-                materializer.materializeIncremental(jobExecutionId);
-            } catch (Exception e) {
-                log.error("Incremental materialization failed: table={}, jobExecutionId={}",
-                        table, jobExecutionId, e);
-                failedTables.add(table);
-            }
-        }
+        GraphRun run = runGraph("incremental", m -> m.materializeIncremental(jobExecutionId));
 
+        List<String> failedTables = new ArrayList<>(run.failed());
+        failedTables.addAll(run.skipped());
         log.info("Incremental materialization completed: jobExecutionId={}, failedTables={}",
                 jobExecutionId, failedTables.size());
         if (failedTables.isEmpty()) {
@@ -65,4 +114,209 @@ public class MaterializationService {
         }
         return PostIngestMaterializationResult.partialFailure(failedTables);
     }
+
+    /**
+     * Schedules the graph from the calling thread: submits every ready node that gets a permit,
+     * then waits for the next completion and repeats. With nothing of its own in flight the run
+     * waits for a permit instead, which another run releases.
+     */
+    private GraphRun runGraph(String mode, Consumer<AnalyticsMaterializer> action) {
+        List<AnalyticsMaterializer> pending = new ArrayList<>(graph.nodes());
+        Set<String> succeeded = new HashSet<>();
+        Set<String> notMaterialized = new HashSet<>();
+        GraphRun run = new GraphRun();
+        BlockingQueue<NodeOutcome> completed = new LinkedBlockingQueue<>();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        long started = System.nanoTime();
+        int inFlight = 0;
+
+        while (true) {
+            boolean progressed = true;
+            while (progressed) {
+                progressed = false;
+                Iterator<AnalyticsMaterializer> it = pending.iterator();
+                while (it.hasNext()) {
+                    AnalyticsMaterializer node = it.next();
+                    Set<String> upstream = graph.upstreamOf(node.tableName());
+                    String blocker = upstream.stream()
+                            .filter(notMaterialized::contains)
+                            .findFirst()
+                            .orElse(null);
+                    if (blocker != null) {
+                        log.warn("Skipping materialization, upstream not materialized: "
+                                + "table={}, upstream={}, mode={}", node.tableName(), blocker, mode);
+                        it.remove();
+                        notMaterialized.add(node.tableName());
+                        run.skipped().add(node.tableName());
+                        progressed = true;
+                    } else if (succeeded.containsAll(upstream) && acquirePermit(inFlight)) {
+                        it.remove();
+                        inFlight++;
+                        submit(node, mode, action, completed, mdc);
+                    }
+                }
+            }
+
+            if (inFlight == 0) {
+                break;
+            }
+
+            NodeOutcome outcome = takeCompleted(completed);
+            inFlight--;
+            if (outcome.failure() == null) {
+                succeeded.add(outcome.table());
+                run.succeeded().add(outcome.table());
+            } else {
+                notMaterialized.add(outcome.table());
+                run.failed().add(outcome.table());
+                run.recordFailure(outcome.failure());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Materialization graph stalled: pending=%s"
+                    .formatted(pending.stream().map(AnalyticsMaterializer::tableName).toList()));
+        }
+
+        log.info("Materialization graph finished: mode={}, succeeded={}, failed={}, skipped={}, "
+                        + "durationMs={}", mode, run.succeeded().size(), run.failed(),
+                run.skipped(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return run;
+    }
+
+    private void submit(AnalyticsMaterializer node, String mode,
+                        Consumer<AnalyticsMaterializer> action,
+                        BlockingQueue<NodeOutcome> completed, Map<String, String> mdc) {
+        try {
+            nodeExecutor.execute(() -> {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                try {
+                    completed.add(runWithPermit(node, mode, action));
+                } finally {
+                    MDC.clear();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.info("Materialization executor saturated, running on the scheduling thread: "
+                    + "table={}", node.tableName());
+            completed.add(runWithPermit(node, mode, action));
+        }
+    }
+
+    private boolean acquirePermit(int inFlight) {
+        if (nodePermits.tryAcquire()) {
+            return true;
+        }
+        if (inFlight > 0) {
+            return false;
+        }
+        try {
+            nodePermits.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Materialization graph interrupted", e);
+        }
+    }
+
+    /**
+     * Releases the node's permit before its completion is reported, so the next node of any run
+     * can take it right away.
+     */
+    private NodeOutcome runWithPermit(AnalyticsMaterializer node, String mode,
+                                      Consumer<AnalyticsMaterializer> action) {
+        try {
+            return runNode(node, mode, action);
+        } finally {
+            nodePermits.release();
+        }
+    }
+
+    private NodeOutcome runNode(AnalyticsMaterializer node, String mode,
+                                Consumer<AnalyticsMaterializer> action) {
+        String table = node.tableName();
+        MDC.put("materialization_table", table);
+        long started = System.nanoTime();
+        Throwable failure = null;
+        try {
+            log.info("Materializing table: table={}, phase={}, mode={}", table, node.phase(), mode);
+            action.accept(node);
+        } catch (Throwable e) {
+            // Also an Error: the node must complete, or the scheduler would wait for it forever
+            failure = e;
+            log.error("Materialization failed: table={}, mode={}", table, mode, e);
+        } finally {
+            MDC.remove("materialization_table");
+        }
+        if (failure == null && !node.ownsWatermark()) {
+            bumpWatermark(table);
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - started);
+        metrics.recordDuration(NODE_TIMER, duration,
+                "table", table, "mode", mode, "outcome", failure == null ? "success" : "failure");
+        log.info("Materialized table: table={}, mode={}, durationMs={}, failed={}",
+                table, mode, duration.toMillis(), failure != null);
+        return new NodeOutcome(table, failure);
+    }
+
+    /**
+     * A failed bump leaves cached reads on the old version until the next run; the table itself
+     * is materialized, so the node still succeeds.
+     */
+    private void bumpWatermark(String table) {
+        try {
+            jdbc.updateWatermark(table, Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Watermark update failed: table={}", table, e);
+        }
+    }
+
+    private static NodeOutcome takeCompleted(BlockingQueue<NodeOutcome> completed) {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Materialization graph interrupted", e);
+        }
+    }
+
+    private record NodeOutcome(String table, Throwable failure) {
+    }
+
+    private static final class GraphRun {
+
+        private final List<String> succeeded = new ArrayList<>();
+        private final List<String> failed = new ArrayList<>();
+        private final List<String> skipped = new ArrayList<>();
+        private Throwable firstFailure;
+
+        List<String> succeeded() {
+            return succeeded;
+        }
+
+        List<String> failed() {
+            return failed;
+        }
+
+        List<String> skipped() {
+            return skipped;
+        }
+
+        Throwable firstFailure() {
+            return firstFailure;
+        }
+
+        void recordFailure(Throwable failure) {
+            if (firstFailure == null) {
+                firstFailure = failure;
+            }
+        }
+
+        boolean hasFailures() {
+            return !failed.isEmpty() || !skipped.isEmpty();
+        }
+    }
 }
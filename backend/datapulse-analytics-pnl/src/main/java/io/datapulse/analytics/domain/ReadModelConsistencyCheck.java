@@ -0,0 +1,106 @@
+package io.datapulse.analytics.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.platform.observability.MetricsFacade;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Verifies that the marts hold one version of each row, which is what lets the read
+ * repositories query them without FINAL. Per table and workspace, compares the plain row count
+ * with the count under FINAL; a difference means a write left duplicates behind (e.g. an
+ * interrupted partition replace).
+ *
+ * <p>Report only: mismatches are logged and published as gauge
+ * {@code analytics.read_model.duplicate_rows} (per table). Repair is a workspace
+ * re-materialization.</p>
+ */
+@Slf4j
+@Service
+public class ReadModelConsistencyCheck {
+
+  static final List<String> TABLES = List.of(
+      "mart_posting_pnl",
+      "mart_product_pnl",
+      "mart_inventory_analysis",
+      "mart_returns_analysis",
+      "mart_pnl_trend",
+      "mart_returns_trend");
+
+  private static final String COUNT_SQL = """
+      SELECT workspace_id, count() AS row_count
+      FROM %s%s
+      GROUP BY workspace_id
+      """;
+
+  public record Mismatch(String table, long workspaceId, long plainRows, long finalRows) {
+  }
+
+  private final MaterializationJdbc jdbc;
+  private final Map<String, AtomicLong> duplicateRows = new ConcurrentHashMap<>();
+
+  public ReadModelConsistencyCheck(MaterializationJdbc jdbc, MetricsFacade metrics) {
+    this.jdbc = jdbc;
+    for (String table : TABLES) {
+      AtomicLong value = new AtomicLong();
+      duplicateRows.put(table, value);
+      metrics.gauge("analytics.read_model.duplicate_rows", value::get, "table", table);
+    }
+  }
+
+  /**
+   * Checks every mart; a table that cannot be read is logged and skipped.
+   */
+  public List<Mismatch> check() {
+    List<Mismatch> mismatches = new ArrayList<>();
+    for (String table : TABLES) {
+      try {
+        List<Mismatch> found = checkTable(table);
+        duplicateRows.get(table).set(found.stream()
+            .mapToLong(m -> m.plainRows() - m.finalRows())
+            .sum());
+        mismatches.addAll(found);
+      } catch (RuntimeException e) {
+        log.warn("Read model consistency check failed: table={}", table, e);
+      }
+    }
+
+    for (Mismatch m : mismatches) {
+      log.error("Read model holds duplicate rows, re-materialize the workspace: table={}, "
+              + "workspaceId={}, plainRows={}, finalRows={}",
+          m.table(), m.workspaceId(), m.plainRows(), m.finalRows());
+    }
+    log.info("Read model consistency check completed: tables={}, mismatches={}",
+        TABLES.size(), mismatches.size());
+    return mismatches;
+  }
+
+  private List<Mismatch> checkTable(String table) {
+    Map<Long, Long> plain = countByWorkspace(table, "");
+    Map<Long, Long> deduplicated = countByWorkspace(table, " FINAL");
+
+    List<Mismatch> mismatches = new ArrayList<>();
+    plain.forEach((workspaceId, plainRows) -> {
+      long finalRows = deduplicated.getOrDefault(workspaceId, 0L);
+      if (plainRows != finalRows) {
+        mismatches.add(new Mismatch(table, workspaceId, plainRows, finalRows));
+      }
+    });
+    return mismatches;
+  }
+
+  private Map<Long, Long> countByWorkspace(String table, String modifier) {
+    Map<Long, Long> counts = new HashMap<>();
+    jdbc.ch().query(COUNT_SQL.formatted(table, modifier),
+            (rs, rowNum) -> Map.entry(rs.getLong("workspace_id"), rs.getLong("row_count")))
+        .forEach(e -> counts.put(e.getKey(), e.getValue()));
+    return counts;
+  }
+}
@@ -5,6 +5,7 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +29,8 @@ public class DimAdvertisingCampaignMaterializer implements AnalyticsMaterializer
 
   private static final String TABLE = "dim_advertising_campaign";
 
+  private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
   private static final String PG_QUERY = """
       SELECT cac.workspace_id,
              cac.connection_id,
@@ -43,10 +46,14 @@ public class DimAdvertisingCampaignMaterializer implements AnalyticsMaterializer
              cac.created_at_external AS created_at
       FROM canonical_advertising_campaign cac
       JOIN marketplace_connection mc ON cac.connection_id = mc.id
+      /*WORKSPACE*/
       ORDER BY cac.id
       LIMIT :limit OFFSET :offset
       """;
 
+  private static final String PG_WORKSPACE_QUERY = PG_QUERY.replace(
+    WORKSPACE_MARKER, "WHERE cac.workspace_id = :workspaceId");
+
   private static final String CH_INSERT = """
       INSERT INTO %s
       (workspace_id, connection_id, source_platform, campaign_id, name, campaign_type,
@@ -62,41 +69,62 @@ public class DimAdvertisingCampaignMaterializer implements AnalyticsMaterializer
     long ver = Instant.now().toEpochMilli();
     final int[] total = {0};
 
-    jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-      String chInsert = CH_INSERT.formatted(staging);
-      int offset = 0;
-
-      while (true) {
-        List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-            Map.of("limit", properties.batchSize(), "offset", offset));
-        if (rows.isEmpty()) {
-          break;
-        }
-
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-          ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-          ps.setInt(2, ((Number) row.get("connection_id")).intValue());
-          ps.setString(3, (String) row.get("source_platform"));
-          ps.setLong(4, Long.parseLong((String) row.get("campaign_id")));
-          ps.setString(5, (String) row.get("name"));
-          ps.setString(6, (String) row.get("campaign_type"));
-          ps.setString(7, (String) row.get("status"));
-          setNullableString(ps, 8, row.get("placement"));
-          setNullableDecimal(ps, 9, row.get("daily_budget"));
-          setNullableTimestamp(ps, 10, row.get("start_time"));
-          setNullableTimestamp(ps, 11, row.get("end_time"));
-          setNullableTimestamp(ps, 12, row.get("created_at"));
-          ps.setLong(13, ver);
-        });
-
-        total[0] += rows.size();
-        offset += properties.batchSize();
-      }
-    });
+    jdbc.fullMaterializeWithSwap(TABLE,
+        staging -> total[0] = populate(staging, PG_QUERY, Map.of(), ver));
 
     log.info("Materialized dim_advertising_campaign: rows={}", total[0]);
   }
 
+  @Override
+  public void materializeWorkspace(long workspaceId) {
+    long ver = Instant.now().toEpochMilli();
+    final int[] total = {0};
+
+    jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+        staging -> total[0] = populate(staging, PG_WORKSPACE_QUERY,
+            Map.of("workspaceId", workspaceId), ver));
+
+    log.info("Materialized dim_advertising_campaign: workspaceId={}, rows={}",
+        workspaceId, total[0]);
+  }
+
+  private int populate(String target, String pgQuery, Map<String, Object> params, long ver) {
+    int total = 0;
+    String chInsert = CH_INSERT.formatted(target);
+    int offset = 0;
+
+    while (true) {
+      Map<String, Object> page = new HashMap<>(params);
+      page.put("limit", properties.batchSize());
+      page.put("offset", offset);
+      List<Map<String, Object>> rows = jdbc.pg().queryForList(pgQuery, page);
+      if (rows.isEmpty()) {
+        break;
+      }
+
+      jdbc.chBatchInsert(chInsert, rows, (ps, row) -> {
+        ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
+        ps.setInt(2, ((Number) row.get("connection_id")).intValue());
+        ps.setString(3, (String) row.get("source_platform"));
+        ps.setLong(4, Long.parseLong((String) row.get("campaign_id")));
+        ps.setString(5, (String) row.get("name"));
+        ps.setString(6, (String) row.get("campaign_type"));
+        ps.setString(7, (String) row.get("status"));
+        setNullableString(ps, 8, row.get("placement"));
+        setNullableDecimal(ps, 9, row.get("daily_budget"));
+        setNullableTimestamp(ps, 10, row.get("start_time"));
+        setNullableTimestamp(ps, 11, row.get("end_time"));
+        setNullableTimestamp(ps, 12, row.get("created_at"));
+        ps.setLong(13, ver);
+      });
+
+      total += rows.size();
+      offset += properties.batchSize();
+    }
+
+    return total;
+  }
+
   @Override
   public void materializeIncremental(long jobExecutionId) {
     materializeFull();
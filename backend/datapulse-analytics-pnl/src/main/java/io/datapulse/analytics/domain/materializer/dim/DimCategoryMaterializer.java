@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.dim;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,8 @@ public class DimCategoryMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "dim_category";
 
+    private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
     private static final String PG_QUERY = """
             SELECT c.workspace_id,
                    c.id                       AS category_id,
@@ -29,10 +32,14 @@ public class DimCategoryMaterializer implements AnalyticsMaterializer {
                    c.parent_category_id,
                    c.marketplace_type
             FROM category c
+            /*WORKSPACE*/
             ORDER BY c.id
             LIMIT :limit OFFSET :offset
             """;
 
+    private static final String PG_WORKSPACE_QUERY = PG_QUERY.replace(
+        WORKSPACE_MARKER, "WHERE c.workspace_id = :workspaceId");
+
     private static final String CH_INSERT = """
             INSERT INTO %s
             (workspace_id, category_id, connection_id, external_category_id, name,
@@ -48,39 +55,59 @@ public class DimCategoryMaterializer implements AnalyticsMaterializer {
         long ver = Instant.now().toEpochMilli();
         final int[] total = {0};
 
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> total[0] = populate(staging, PG_QUERY, Map.of(), ver));
 
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                    Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
+        log.info("Materialized dim_category: rows={}", total[0]);
+    }
+
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        long ver = Instant.now().toEpochMilli();
+        final int[] total = {0};
 
-                jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-                    ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-                    ps.setLong(2, ((Number) row.get("category_id")).longValue());
-                    ps.setInt(3, ((Number) row.get("connection_id")).intValue());
-                    ps.setString(4, (String) row.get("external_category_id"));
-                    ps.setString(5, (String) row.get("name"));
-                    Number parentId = (Number) row.get("parent_category_id");
-                    if (parentId != null) {
-                        ps.setLong(6, parentId.longValue());
-                    } else {
-                        ps.setNull(6, java.sql.Types.BIGINT);
-                    }
-                    ps.setString(7, (String) row.get("marketplace_type"));
-                    ps.setLong(8, ver);
-                });
-
-                total[0] += rows.size();
-                offset += properties.batchSize();
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> total[0] = populate(staging, PG_WORKSPACE_QUERY,
+                        Map.of("workspaceId", workspaceId), ver));
+
+        log.info("Materialized dim_category: workspaceId={}, rows={}", workspaceId, total[0]);
+    }
+
+    private int populate(String target, String pgQuery, Map<String, Object> params, long ver) {
+        int total = 0;
+        String chInsert = CH_INSERT.formatted(target);
+        int offset = 0;
+
+        while (true) {
+            Map<String, Object> page = new HashMap<>(params);
+            page.put("limit", properties.batchSize());
+            page.put("offset", offset);
+            List<Map<String, Object>> rows = jdbc.pg().queryForList(pgQuery, page);
+            if (rows.isEmpty()) {
+                break;
             }
-        });
 
-        log.info("Materialized dim_category: rows={}", total[0]);
+            jdbc.chBatchInsert(chInsert, rows, (ps, row) -> {
+                ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
+                ps.setLong(2, ((Number) row.get("category_id")).longValue());
+                ps.setInt(3, ((Number) row.get("connection_id")).intValue());
+                ps.setString(4, (String) row.get("external_category_id"));
+                ps.setString(5, (String) row.get("name"));
+                Number parentId = (Number) row.get("parent_category_id");
+                if (parentId != null) {
+                    ps.setLong(6, parentId.longValue());
+                } else {
+                    ps.setNull(6, java.sql.Types.BIGINT);
+                }
+                ps.setString(7, (String) row.get("marketplace_type"));
+                ps.setLong(8, ver);
+            });
+
+            total += rows.size();
+            offset += properties.batchSize();
+        }
+
+        return total;
     }
 
     @Override
@@ -104,7 +131,7 @@ public class DimCategoryMaterializer implements AnalyticsMaterializer {
             return;
         }
 
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
+        jdbc.chBatchInsert(chInsert, rows, (ps, row) -> {
             ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
             ps.setLong(2, ((Number) row.get("category_id")).longValue());
             ps.setInt(3, ((Number) row.get("connection_id")).intValue());
@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.dim;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,8 @@ public class DimProductMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "dim_product";
 
+    private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
     private static final String PG_QUERY = """
             SELECT mc.workspace_id,
                    mo.id              AS product_id,
@@ -38,10 +41,14 @@ public class DimProductMaterializer implements AnalyticsMaterializer {
             JOIN product_master pm ON ss.product_master_id = pm.id
             JOIN marketplace_connection mc ON mo.marketplace_connection_id = mc.id
             LEFT JOIN category c ON mo.category_id = c.id
+            /*WORKSPACE*/
             ORDER BY mo.id
             LIMIT :limit OFFSET :offset
             """;
 
+    private static final String PG_WORKSPACE_QUERY = PG_QUERY.replace(
+        WORKSPACE_MARKER, "WHERE mc.workspace_id = :workspaceId");
+
     private static final String CH_INSERT = """
             INSERT INTO %s
             (workspace_id, product_id, connection_id, source_platform, seller_sku_id,
@@ -58,41 +65,61 @@ public class DimProductMaterializer implements AnalyticsMaterializer {
         long ver = Instant.now().toEpochMilli();
         final int[] total = {0};
 
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
-
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                    Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-                    ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-                    ps.setLong(2, ((Number) row.get("product_id")).longValue());
-                    ps.setInt(3, ((Number) row.get("connection_id")).intValue());
-                    ps.setString(4, (String) row.get("source_platform"));
-                    ps.setLong(5, ((Number) row.get("seller_sku_id")).longValue());
-                    ps.setLong(6, ((Number) row.get("product_master_id")).longValue());
-                    ps.setString(7, (String) row.get("sku_code"));
-                    ps.setString(8, (String) row.get("marketplace_sku"));
-                    ps.setString(9, (String) row.get("product_name"));
-                    ps.setString(10, (String) row.get("brand"));
-                    ps.setString(11, (String) row.get("category"));
-                    ps.setString(12, (String) row.get("status"));
-                    ps.setLong(13, ver);
-                });
-
-                total[0] += rows.size();
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> total[0] = populate(staging, PG_QUERY, Map.of(), ver));
 
         log.info("Materialized dim_product: rows={}", total[0]);
     }
 
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        long ver = Instant.now().toEpochMilli();
+        final int[] total = {0};
+
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> total[0] = populate(staging, PG_WORKSPACE_QUERY,
+                        Map.of("workspaceId", workspaceId), ver));
+
+        log.info("Materialized dim_product: workspaceId={}, rows={}", workspaceId, total[0]);
+    }
+
+    private int populate(String target, String pgQuery, Map<String, Object> params, long ver) {
+        int total = 0;
+        String chInsert = CH_INSERT.formatted(target);
+        int offset = 0;
+
+        while (true) {
+            Map<String, Object> page = new HashMap<>(params);
+            page.put("limit", properties.batchSize());
+            page.put("offset", offset);
+            List<Map<String, Object>> rows = jdbc.pg().queryForList(pgQuery, page);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            jdbc.chBatchInsert(chInsert, rows, (ps, row) -> {
+                ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
+                ps.setLong(2, ((Number) row.get("product_id")).longValue());
+                ps.setInt(3, ((Number) row.get("connection_id")).intValue());
+                ps.setString(4, (String) row.get("source_platform"));
+                ps.setLong(5, ((Number) row.get("seller_sku_id")).longValue());
+                ps.setLong(6, ((Number) row.get("product_master_id")).longValue());
+                ps.setString(7, (String) row.get("sku_code"));
+                ps.setString(8, (String) row.get("marketplace_sku"));
+                ps.setString(9, (String) row.get("product_name"));
+                ps.setString(10, (String) row.get("brand"));
+                ps.setString(11, (String) row.get("category"));
+                ps.setString(12, (String) row.get("status"));
+                ps.setLong(13, ver);
+            });
+
+            total += rows.size();
+            offset += properties.batchSize();
+        }
+
+        return total;
+    }
+
     @Override
     public void materializeIncremental(long jobExecutionId) {
         long ver = Instant.now().toEpochMilli();
@@ -126,7 +153,7 @@ public class DimProductMaterializer implements AnalyticsMaterializer {
             return;
         }
 
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
+        jdbc.chBatchInsert(chInsert, rows, (ps, row) -> {
             ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
             ps.setLong(2, ((Number) row.get("product_id")).longValue());
             ps.setInt(3, ((Number) row.get("connection_id")).intValue());
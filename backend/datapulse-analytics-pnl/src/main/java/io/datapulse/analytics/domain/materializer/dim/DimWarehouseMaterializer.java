@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.dim;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,8 @@ public class DimWarehouseMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "dim_warehouse";
 
+    private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
     private static final String PG_QUERY = """
             SELECT w.workspace_id,
                    w.id                    AS warehouse_id,
@@ -28,10 +31,14 @@ public class DimWarehouseMaterializer implements AnalyticsMaterializer {
                    w.warehouse_type,
                    w.marketplace_type
             FROM warehouse w
+            /*WORKSPACE*/
             ORDER BY w.id
             LIMIT :limit OFFSET :offset
             """;
 
+    private static final String PG_WORKSPACE_QUERY = PG_QUERY.replace(
+        WORKSPACE_MARKER, "WHERE w.workspace_id = :workspaceId");
+
     private static final String CH_INSERT = """
             INSERT INTO %s
             (workspace_id, warehouse_id, external_warehouse_id, name, warehouse_type,
@@ -47,35 +54,55 @@ public class DimWarehouseMaterializer implements AnalyticsMaterializer {
         long ver = Instant.now().toEpochMilli();
         final int[] total = {0};
 
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
-
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                    Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-                    ps.setLong(1, ((Number) row.get("workspace_id")).longValue());
-                    ps.setInt(2, ((Number) row.get("warehouse_id")).intValue());
-                    ps.setString(3, (String) row.get("external_warehouse_id"));
-                    ps.setString(4, (String) row.get("name"));
-                    ps.setString(5, (String) row.get("warehouse_type"));
-                    ps.setString(6, (String) row.get("marketplace_type"));
-                    ps.setLong(7, ver);
-                });
-
-                total[0] += rows.size();
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> total[0] = populate(staging, PG_QUERY, Map.of(), ver));
 
         log.info("Materialized dim_warehouse: rows={}", total[0]);
     }
 
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        long ver = Instant.now().toEpochMilli();
+        final int[] total = {0};
+
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> total[0] = populate(staging, PG_WORKSPACE_QUERY,
+                        Map.of("workspaceId", workspaceId), ver));
+
+        log.info("Materialized dim_warehouse: workspaceId={}, rows={}", workspaceId, total[0]);
+    }
+
+    private int populate(String target, String pgQuery, Map<String, Object> params, long ver) {
+        int total = 0;
+        String chInsert = CH_INSERT.formatted(target);
+        int offset = 0;
+
+        while (true) {
+            Map<String, Object> page = new HashMap<>(params);
+            page.put("limit", properties.batchSize());
+            page.put("offset", offset);
+            List<Map<String, Object>> rows = jdbc.pg().queryForList(pgQuery, page);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            jdbc.chBatchInsert(chInsert, rows, (ps, row) -> {
+                ps.setLong(1, ((Number) row.get("workspace_id")).longValue());
+                ps.setInt(2, ((Number) row.get("warehouse_id")).intValue());
+                ps.setString(3, (String) row.get("external_warehouse_id"));
+                ps.setString(4, (String) row.get("name"));
+                ps.setString(5, (String) row.get("warehouse_type"));
+                ps.setString(6, (String) row.get("marketplace_type"));
+                ps.setLong(7, ver);
+            });
+
+            total += rows.size();
+            offset += properties.batchSize();
+        }
+
+        return total;
+    }
+
     @Override
     public void materializeIncremental(long jobExecutionId) {
         long ver = Instant.now().toEpochMilli();
@@ -96,7 +123,7 @@ public class DimWarehouseMaterializer implements AnalyticsMaterializer {
             return;
         }
 
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
+        jdbc.chBatchInsert(chInsert, rows, (ps, row) -> {
             ps.setLong(1, ((Number) row.get("workspace_id")).longValue());
             ps.setInt(2, ((Number) row.get("warehouse_id")).intValue());
             ps.setString(3, (String) row.get("external_warehouse_id"));
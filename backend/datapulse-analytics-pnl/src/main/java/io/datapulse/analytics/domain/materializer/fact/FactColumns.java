@@ -0,0 +1,65 @@
+package io.datapulse.analytics.domain.materializer.fact;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Typed {@link ResultSet} reads for the row mappers of the fact materializers.
+ */
+final class FactColumns {
+
+    /** Scale of every {@code Decimal(18, 2)} money column. */
+    static final int MONEY_SCALE = 2;
+
+    private FactColumns() {
+    }
+
+    static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * Calendar date of a PostgreSQL {@code date} or {@code timestamp} value; the driver returns
+     * the former as {@code java.sql.Date}, the latter as {@code Timestamp} (read in the JVM zone).
+     */
+    static LocalDate localDate(ResultSet rs, String column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        if (value instanceof Timestamp ts) {
+            return ts.toLocalDateTime().toLocalDate();
+        }
+        throw new IllegalStateException("Unexpected date type: " + value.getClass().getName());
+    }
+
+    /**
+     * ReplacingMergeTree version of a fact row: the canonical row's {@code updated_at} in epoch
+     * millis. Every canonical write bumps it, so a row re-sent by an overlapping or concurrent run
+     * never replaces a later state of itself, whichever run inserts last.
+     */
+    static long ver(ResultSet rs) throws SQLException {
+        return rs.getTimestamp("updated_at").getTime();
+    }
+
+    static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp ts = rs.getTimestamp(column);
+        return ts != null ? ts.toInstant() : null;
+    }
+}
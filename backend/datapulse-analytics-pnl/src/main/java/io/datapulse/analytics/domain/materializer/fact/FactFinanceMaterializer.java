@@ -1,16 +1,23 @@
 package io.datapulse.analytics.domain.materializer.fact;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.Date;
-import java.sql.Timestamp;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
-import io.datapulse.analytics.config.AnalyticsProperties;
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.persistence.FactChangeFeed;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.KeysetQuery;
 import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,136 +30,166 @@ public class FactFinanceMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "fact_finance";
 
-    private static final String PG_QUERY = """
+    private static final String PG_SELECT = """
             SELECT workspace_id, id, connection_id, source_platform, entry_type,
                    posting_id, order_id, seller_sku_id, warehouse_id,
                    revenue_amount, marketplace_commission_amount, acquiring_commission_amount,
                    logistics_cost_amount, storage_cost_amount, penalties_amount,
                    acceptance_cost_amount, marketing_cost_amount, other_marketplace_charges_amount,
                    compensation_amount, refund_amount, net_payout,
-                   entry_date, attribution_level, fulfillment_type, job_execution_id
+                   entry_date, attribution_level, fulfillment_type, job_execution_id,
+                   updated_at
             FROM canonical_finance_entry
+            """;
+
+    private static final String PG_QUERY = PG_SELECT + """
+            WHERE id > :afterKey
             ORDER BY id
-            LIMIT :limit OFFSET :offset
+            LIMIT :limit
             """;
 
-    private static final String PG_INCREMENTAL_QUERY = """
-            SELECT workspace_id, id, connection_id, source_platform, entry_type,
-                   posting_id, order_id, seller_sku_id, warehouse_id,
-                   revenue_amount, marketplace_commission_amount, acquiring_commission_amount,
-                   logistics_cost_amount, storage_cost_amount, penalties_amount,
-                   acceptance_cost_amount, marketing_cost_amount, other_marketplace_charges_amount,
-                   compensation_amount, refund_amount, net_payout,
-                   entry_date, attribution_level, fulfillment_type, job_execution_id
-            FROM canonical_finance_entry
-            WHERE job_execution_id = :jobExecutionId
+    private static final String PG_CHANGES_QUERY = PG_SELECT + """
+            WHERE (updated_at, id) > (:afterUpdatedAt, :afterKey)
+            ORDER BY updated_at, id
+            LIMIT :limit
             """;
 
-    private static final String CH_INSERT = """
-            INSERT INTO %s
-            (workspace_id, connection_id, source_platform, entry_id, posting_id, order_id,
-             seller_sku_id, warehouse_id, finance_date, entry_type, attribution_level,
-             fulfillment_type,
-             revenue_amount, marketplace_commission_amount, acquiring_commission_amount,
-             logistics_cost_amount, storage_cost_amount, penalties_amount,
-             marketing_cost_amount, acceptance_cost_amount, other_marketplace_charges_amount,
-             compensation_amount, refund_amount, net_payout,
-             job_execution_id, ver, materialized_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    private static final String PG_WORKSPACE_QUERY = PG_SELECT + """
+            WHERE workspace_id = :workspaceId
+              AND id > :afterKey
+            ORDER BY id
+            LIMIT :limit
             """;
 
+    private static final List<String> CH_COLUMNS = List.of(
+            "workspace_id", "connection_id", "source_platform", "entry_id", "posting_id",
+            "order_id", "seller_sku_id", "warehouse_id", "finance_date", "entry_type",
+            "attribution_level", "fulfillment_type", "revenue_amount",
+            "marketplace_commission_amount", "acquiring_commission_amount",
+            "logistics_cost_amount", "storage_cost_amount", "penalties_amount",
+            "marketing_cost_amount", "acceptance_cost_amount", "other_marketplace_charges_amount",
+            "compensation_amount", "refund_amount", "net_payout", "job_execution_id", "ver",
+            "materialized_at");
+
+    /** Money columns between {@code fulfillment_type} and {@code job_execution_id}, in order. */
+    private static final List<String> MONEY_COLUMNS = List.of(
+            "revenue_amount", "marketplace_commission_amount", "acquiring_commission_amount",
+            "logistics_cost_amount", "storage_cost_amount", "penalties_amount",
+            "marketing_cost_amount", "acceptance_cost_amount", "other_marketplace_charges_amount",
+            "compensation_amount", "refund_amount", "net_payout");
+
     private final MaterializationJdbc jdbc;
-    private final AnalyticsProperties properties;
+    private final PgToClickHouseTransfer transfer;
+    private final FactChangeFeed changeFeed;
 
     @Override
     public void materializeFull() {
-        long ver = Instant.now().toEpochMilli();
-        Timestamp materializedAt = Timestamp.from(Instant.now());
-
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
+        Instant materializedAt = Instant.now();
+        Instant changesFrom = changeFeed.databaseNow();
 
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                        Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                insertBatch(rows, ver, materializedAt, chInsert);
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> transferRows(PG_QUERY, Map.of(), materializedAt, staging));
 
+        changeFeed.reset(TABLE, changesFrom);
+        jdbc.updateWatermark(TABLE, Instant.now());
         log.info("Materialized {}", TABLE);
     }
 
     @Override
     public void materializeIncremental(long jobExecutionId) {
-        long ver = Instant.now().toEpochMilli();
-        Timestamp materializedAt = Timestamp.from(Instant.now());
-        String chInsert = CH_INSERT.formatted(TABLE);
+        Instant materializedAt = Instant.now();
 
-        List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_INCREMENTAL_QUERY,
-                Map.of("jobExecutionId", jobExecutionId));
+        OptionalLong rows = changeFeed.transferChanges(TABLE,
+                new ChangeFeedQuery<>(PG_CHANGES_QUERY, FactFinanceMaterializer::mapRow, "id"),
+                CH_COLUMNS, (row, out) -> encode(row, materializedAt, out));
         if (rows.isEmpty()) {
+            materializeFull();
+            return;
+        }
+        if (rows.getAsLong() == 0) {
             return;
         }
 
-        insertBatch(rows, ver, materializedAt, chInsert);
-        log.info("Incremental fact_finance: jobExecutionId={}, rows={}", jobExecutionId, rows.size());
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Incremental fact_finance: jobExecutionId={}, rows={}", jobExecutionId,
+                rows.getAsLong());
     }
 
-    private void insertBatch(List<Map<String, Object>> rows, long ver,
-            Timestamp materializedAt, String chInsert) {
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-            ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-            ps.setInt(2, ((Number) row.get("connection_id")).intValue());
-            ps.setString(3, (String) row.get("source_platform"));
-            ps.setLong(4, ((Number) row.get("id")).longValue());
-            ps.setString(5, (String) row.get("posting_id"));
-            ps.setString(6, (String) row.get("order_id"));
-
-            Number sellerSkuId = (Number) row.get("seller_sku_id");
-            if (sellerSkuId != null) {
-                ps.setLong(7, sellerSkuId.longValue());
-            } else {
-                ps.setNull(7, java.sql.Types.BIGINT);
-            }
-
-            Number warehouseId = (Number) row.get("warehouse_id");
-            if (warehouseId != null) {
-                ps.setInt(8, warehouseId.intValue());
-            } else {
-                ps.setNull(8, java.sql.Types.INTEGER);
-            }
-
-            Timestamp entryDate = (Timestamp) row.get("entry_date");
-            ps.setDate(9, Date.valueOf(entryDate.toLocalDateTime().toLocalDate()));
-            ps.setString(10, (String) row.get("entry_type"));
-            ps.setString(11, (String) row.get("attribution_level"));
-            ps.setString(12, (String) row.get("fulfillment_type"));
-
-            ps.setBigDecimal(13, (BigDecimal) row.get("revenue_amount"));
-            ps.setBigDecimal(14, (BigDecimal) row.get("marketplace_commission_amount"));
-            ps.setBigDecimal(15, (BigDecimal) row.get("acquiring_commission_amount"));
-            ps.setBigDecimal(16, (BigDecimal) row.get("logistics_cost_amount"));
-            ps.setBigDecimal(17, (BigDecimal) row.get("storage_cost_amount"));
-            ps.setBigDecimal(18, (BigDecimal) row.get("penalties_amount"));
-            ps.setBigDecimal(19, (BigDecimal) row.get("marketing_cost_amount"));
-            ps.setBigDecimal(20, (BigDecimal) row.get("acceptance_cost_amount"));
-            ps.setBigDecimal(21, (BigDecimal) row.get("other_marketplace_charges_amount"));
-            ps.setBigDecimal(22, (BigDecimal) row.get("compensation_amount"));
-            ps.setBigDecimal(23, (BigDecimal) row.get("refund_amount"));
-
-            BigDecimal netPayout = (BigDecimal) row.get("net_payout");
-            ps.setBigDecimal(24, netPayout != null ? netPayout : BigDecimal.ZERO);
-
-            ps.setLong(25, ((Number) row.get("job_execution_id")).longValue());
-            ps.setLong(26, ver);
-            ps.setTimestamp(27, materializedAt);
-        });
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        Instant materializedAt = Instant.now();
+
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> transferRows(PG_WORKSPACE_QUERY, Map.of("workspaceId", workspaceId),
+                        materializedAt, staging));
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Materialized {}: workspaceId={}", TABLE, workspaceId);
+    }
+
+    private long transferRows(String sql, Map<String, Object> params,
+            Instant materializedAt, String table) {
+        return transfer.transfer(
+                new KeysetQuery<>(sql, FactFinanceMaterializer::mapRow, FinanceRow::id),
+                params, table, CH_COLUMNS, (row, out) -> encode(row, materializedAt, out));
+    }
+
+    /**
+     * {@code money} holds the {@link #MONEY_COLUMNS} values, in order.
+     */
+    record FinanceRow(long workspaceId, long id, long connectionId, String sourcePlatform,
+                      String postingId, String orderId, Long sellerSkuId, Long warehouseId,
+                      LocalDate entryDate, String entryType, String attributionLevel,
+                      String fulfillmentType, BigDecimal[] money, long jobExecutionId,
+                      long ver) {
+    }
+
+    static FinanceRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        BigDecimal[] money = new BigDecimal[MONEY_COLUMNS.size()];
+        for (int i = 0; i < money.length; i++) {
+            money[i] = rs.getBigDecimal(MONEY_COLUMNS.get(i));
+        }
+        return new FinanceRow(
+                rs.getLong("workspace_id"),
+                rs.getLong("id"),
+                rs.getLong("connection_id"),
+                rs.getString("source_platform"),
+                rs.getString("posting_id"),
+                rs.getString("order_id"),
+                FactColumns.nullableLong(rs, "seller_sku_id"),
+                FactColumns.nullableLong(rs, "warehouse_id"),
+                FactColumns.localDate(rs, "entry_date"),
+                rs.getString("entry_type"),
+                rs.getString("attribution_level"),
+                rs.getString("fulfillment_type"),
+                money,
+                rs.getLong("job_execution_id"),
+                FactColumns.ver(rs));
+    }
+
+    /**
+     * {@code net_payout} may be NULL in PostgreSQL and is written as 0.
+     */
+    static void encode(FinanceRow row, Instant materializedAt, RowBinaryWriter out)
+            throws IOException {
+        out.writeUInt32(row.workspaceId());
+        out.writeUInt32(row.connectionId());
+        out.writeString(row.sourcePlatform());
+        out.writeUInt64(row.id());
+        out.writeNullableString(row.postingId());
+        out.writeNullableString(row.orderId());
+        out.writeNullableUInt64(row.sellerSkuId());
+        out.writeNullableUInt32(row.warehouseId());
+        out.writeDate(row.entryDate());
+        out.writeString(row.entryType());
+        out.writeString(row.attributionLevel());
+        out.writeNullableString(row.fulfillmentType());
+        for (BigDecimal amount : row.money()) {
+            out.writeDecimal64(amount, FactColumns.MONEY_SCALE);
+        }
+        out.writeUInt64(row.jobExecutionId());
+        out.writeUInt64(row.ver());
+        out.writeDateTime(materializedAt);
     }
 
     @Override
@@ -164,4 +201,9 @@ public class FactFinanceMaterializer implements AnalyticsMaterializer {
     public MaterializationPhase phase() {
         return MaterializationPhase.FACT;
     }
+
+    @Override
+    public boolean ownsWatermark() {
+        return true;
+    }
 }
@@ -1,15 +1,22 @@
 package io.datapulse.analytics.domain.materializer.fact;
 
-import java.sql.Date;
-import java.sql.Timestamp;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
-import io.datapulse.analytics.config.AnalyticsProperties;
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.persistence.FactChangeFeed;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.KeysetQuery;
 import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,104 +29,131 @@ public class FactInventorySnapshotMaterializer implements AnalyticsMaterializer
 
     private static final String TABLE = "fact_inventory_snapshot";
 
-    private static final String PG_QUERY = """
-            SELECT mc.workspace_id,
+    private static final String PG_SELECT = """
+            SELECT csc.id                   AS stock_id,
+                   mc.workspace_id,
                    mo.marketplace_connection_id AS connection_id,
                    mc.marketplace_type          AS source_platform,
                    csc.marketplace_offer_id     AS product_id,
                    csc.warehouse_id,
                    csc.available,
                    csc.reserved,
-                   csc.captured_at
+                   csc.captured_at,
+                   csc.updated_at
             FROM canonical_stock_current csc
             JOIN marketplace_offer mo ON csc.marketplace_offer_id = mo.id
             JOIN marketplace_connection mc ON mo.marketplace_connection_id = mc.id
+            """;
+
+    private static final String PG_QUERY = PG_SELECT + """
+            WHERE csc.id > :afterKey
             ORDER BY csc.id
-            LIMIT :limit OFFSET :offset
+            LIMIT :limit
+            """;
+
+    private static final String PG_CHANGES_QUERY = PG_SELECT + """
+            WHERE (csc.updated_at, csc.id) > (:afterUpdatedAt, :afterKey)
+            ORDER BY csc.updated_at, csc.id
+            LIMIT :limit
             """;
 
-    private static final String CH_INSERT = """
-            INSERT INTO %s
-            (workspace_id, connection_id, source_platform, product_id, warehouse_id,
-             available, reserved, captured_at, captured_date, ver)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    private static final String PG_WORKSPACE_QUERY = PG_SELECT + """
+            WHERE mc.workspace_id = :workspaceId
+              AND csc.id > :afterKey
+            ORDER BY csc.id
+            LIMIT :limit
             """;
 
+    private static final List<String> CH_COLUMNS = List.of(
+            "workspace_id", "connection_id", "source_platform", "product_id", "warehouse_id",
+            "available", "reserved", "captured_at", "captured_date", "ver");
+
     private final MaterializationJdbc jdbc;
-    private final AnalyticsProperties properties;
+    private final PgToClickHouseTransfer transfer;
+    private final FactChangeFeed changeFeed;
 
     @Override
     public void materializeFull() {
-        long ver = Instant.now().toEpochMilli();
+        Instant changesFrom = changeFeed.databaseNow();
 
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
-
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                        Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                insertBatch(rows, ver, chInsert);
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> transferRows(PG_QUERY, Map.of(), staging));
 
+        changeFeed.reset(TABLE, changesFrom);
+        jdbc.updateWatermark(TABLE, Instant.now());
         log.info("Materialized {}", TABLE);
     }
 
     @Override
     public void materializeIncremental(long jobExecutionId) {
-        long ver = Instant.now().toEpochMilli();
-        String chInsert = CH_INSERT.formatted(TABLE);
-
-        List<Map<String, Object>> rows = jdbc.pg().queryForList("""
-                SELECT mc.workspace_id,
-                       mo.marketplace_connection_id AS connection_id,
-                       mc.marketplace_type          AS source_platform,
-                       csc.marketplace_offer_id     AS product_id,
-                       csc.warehouse_id,
-                       csc.available,
-                       csc.reserved,
-                       csc.captured_at
-                FROM canonical_stock_current csc
-                JOIN marketplace_offer mo ON csc.marketplace_offer_id = mo.id
-                JOIN marketplace_connection mc ON mo.marketplace_connection_id = mc.id
-                WHERE csc.job_execution_id = :jobExecutionId
-                """, Map.of("jobExecutionId", jobExecutionId));
-
+        OptionalLong rows = changeFeed.transferChanges(TABLE,
+                new ChangeFeedQuery<>(PG_CHANGES_QUERY, FactInventorySnapshotMaterializer::mapRow,
+                        "stock_id"),
+                CH_COLUMNS, (row, out) -> encode(row, out));
         if (rows.isEmpty()) {
+            materializeFull();
             return;
         }
+        if (rows.getAsLong() == 0) {
+            return;
+        }
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Incremental fact_inventory_snapshot: jobExecutionId={}, rows={}", jobExecutionId,
+                rows.getAsLong());
+    }
+
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> transferRows(PG_WORKSPACE_QUERY, Map.of("workspaceId", workspaceId),
+                        staging));
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Materialized {}: workspaceId={}", TABLE, workspaceId);
+    }
+
+    private long transferRows(String sql, Map<String, Object> params, String table) {
+        return transfer.transfer(
+                new KeysetQuery<>(sql, FactInventorySnapshotMaterializer::mapRow,
+                        StockRow::stockId),
+                params, table, CH_COLUMNS, (row, out) -> encode(row, out));
+    }
+
+    /**
+     * {@code stockId} is the keyset key only; it is not written to ClickHouse.
+     */
+    record StockRow(long stockId, long workspaceId, long connectionId, String sourcePlatform,
+                    long productId, long warehouseId, int available, Integer reserved,
+                    Instant capturedAt, LocalDate capturedDate, long ver) {
+    }
 
-        insertBatch(rows, ver, chInsert);
-        log.info("Incremental fact_inventory_snapshot: jobExecutionId={}, rows={}", jobExecutionId, rows.size());
+    static StockRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new StockRow(
+                rs.getLong("stock_id"),
+                rs.getLong("workspace_id"),
+                rs.getLong("connection_id"),
+                rs.getString("source_platform"),
+                rs.getLong("product_id"),
+                rs.getLong("warehouse_id"),
+                rs.getInt("available"),
+                FactColumns.nullableInt(rs, "reserved"),
+                FactColumns.instant(rs, "captured_at"),
+                FactColumns.localDate(rs, "captured_at"),
+                FactColumns.ver(rs));
     }
 
-    private void insertBatch(List<Map<String, Object>> rows, long ver, String chInsert) {
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-            ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-            ps.setInt(2, ((Number) row.get("connection_id")).intValue());
-            ps.setString(3, (String) row.get("source_platform"));
-            ps.setLong(4, ((Number) row.get("product_id")).longValue());
-            ps.setInt(5, ((Number) row.get("warehouse_id")).intValue());
-            ps.setInt(6, ((Number) row.get("available")).intValue());
-
-            Number reserved = (Number) row.get("reserved");
-            if (reserved != null) {
-                ps.setInt(7, reserved.intValue());
-            } else {
-                ps.setNull(7, java.sql.Types.INTEGER);
-            }
-
-            Timestamp ts = (Timestamp) row.get("captured_at");
-            ps.setTimestamp(8, ts);
-            ps.setDate(9, Date.valueOf(ts.toLocalDateTime().toLocalDate()));
-            ps.setLong(10, ver);
-        });
+    static void encode(StockRow row, RowBinaryWriter out) throws IOException {
+        out.writeUInt32(row.workspaceId());
+        out.writeUInt32(row.connectionId());
+        out.writeString(row.sourcePlatform());
+        out.writeUInt64(row.productId());
+        out.writeUInt32(row.warehouseId());
+        out.writeInt32(row.available());
+        out.writeNullableInt32(row.reserved());
+        out.writeDateTime(row.capturedAt());
+        out.writeDate(row.capturedDate());
+        out.writeUInt64(row.ver());
     }
 
     @Override
@@ -131,4 +165,9 @@ public class FactInventorySnapshotMaterializer implements AnalyticsMaterializer
     public MaterializationPhase phase() {
         return MaterializationPhase.FACT;
     }
+
+    @Override
+    public boolean ownsWatermark() {
+        return true;
+    }
 }
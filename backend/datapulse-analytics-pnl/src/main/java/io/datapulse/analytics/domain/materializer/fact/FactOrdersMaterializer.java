@@ -1,16 +1,23 @@
 package io.datapulse.analytics.domain.materializer.fact;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.Date;
-import java.sql.Timestamp;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
-import io.datapulse.analytics.config.AnalyticsProperties;
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.persistence.FactChangeFeed;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.KeysetQuery;
 import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,7 +30,7 @@ public class FactOrdersMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "fact_orders";
 
-    private static final String PG_QUERY = """
+    private static final String PG_SELECT = """
             SELECT co.workspace_id,
                    co.id               AS order_id_pk,
                    co.connection_id,
@@ -38,116 +45,131 @@ public class FactOrdersMaterializer implements AnalyticsMaterializer {
                    co.status,
                    co.fulfillment_type,
                    co.region,
-                   co.job_execution_id
+                   co.job_execution_id,
+                   co.updated_at
             FROM canonical_order co
             LEFT JOIN marketplace_offer mo ON co.marketplace_offer_id = mo.id
+            """;
+
+    private static final String PG_QUERY = PG_SELECT + """
+            WHERE co.id > :afterKey
             ORDER BY co.id
-            LIMIT :limit OFFSET :offset
+            LIMIT :limit
+            """;
+
+    private static final String PG_CHANGES_QUERY = PG_SELECT + """
+            WHERE (co.updated_at, co.id) > (:afterUpdatedAt, :afterKey)
+            ORDER BY co.updated_at, co.id
+            LIMIT :limit
             """;
 
-    private static final String CH_INSERT = """
-            INSERT INTO %s
-            (workspace_id, order_id_pk, connection_id, source_platform, external_order_id,
-             seller_sku_id, product_id, quantity, price_per_unit, total_amount,
-             order_date, status, fulfillment_type, region, job_execution_id, ver)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    private static final String PG_WORKSPACE_QUERY = PG_SELECT + """
+            WHERE co.workspace_id = :workspaceId
+              AND co.id > :afterKey
+            ORDER BY co.id
+            LIMIT :limit
             """;
 
+    private static final List<String> CH_COLUMNS = List.of(
+            "workspace_id", "order_id_pk", "connection_id", "source_platform", "external_order_id",
+            "seller_sku_id", "product_id", "quantity", "price_per_unit", "total_amount",
+            "order_date", "status", "fulfillment_type", "region", "job_execution_id", "ver");
+
     private final MaterializationJdbc jdbc;
-    private final AnalyticsProperties properties;
+    private final PgToClickHouseTransfer transfer;
+    private final FactChangeFeed changeFeed;
 
     @Override
     public void materializeFull() {
-        long ver = Instant.now().toEpochMilli();
+        Instant changesFrom = changeFeed.databaseNow();
 
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
-
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                        Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                insertBatch(rows, ver, chInsert);
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> transferRows(PG_QUERY, Map.of(), staging));
 
+        changeFeed.reset(TABLE, changesFrom);
+        jdbc.updateWatermark(TABLE, Instant.now());
         log.info("Materialized {}", TABLE);
     }
 
     @Override
     public void materializeIncremental(long jobExecutionId) {
-        long ver = Instant.now().toEpochMilli();
-        String chInsert = CH_INSERT.formatted(TABLE);
-
-        List<Map<String, Object>> rows = jdbc.pg().queryForList("""
-                SELECT co.workspace_id,
-                       co.id               AS order_id_pk,
-                       co.connection_id,
-                       co.source_platform,
-                       co.external_order_id,
-                       mo.seller_sku_id,
-                       co.marketplace_offer_id AS product_id,
-                       co.quantity,
-                       co.price_per_unit,
-                       COALESCE(co.total_amount, co.price_per_unit * co.quantity) AS total_amount,
-                       co.order_date,
-                       co.status,
-                       co.fulfillment_type,
-                       co.region,
-                       co.job_execution_id
-                FROM canonical_order co
-                LEFT JOIN marketplace_offer mo ON co.marketplace_offer_id = mo.id
-                WHERE co.job_execution_id = :jobExecutionId
-                """, Map.of("jobExecutionId", jobExecutionId));
-
+        OptionalLong rows = changeFeed.transferChanges(TABLE,
+                new ChangeFeedQuery<>(PG_CHANGES_QUERY, FactOrdersMaterializer::mapRow,
+                        "order_id_pk"),
+                CH_COLUMNS, (row, out) -> encode(row, out));
         if (rows.isEmpty()) {
+            materializeFull();
             return;
         }
+        if (rows.getAsLong() == 0) {
+            return;
+        }
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Incremental fact_orders: jobExecutionId={}, rows={}", jobExecutionId,
+                rows.getAsLong());
+    }
+
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> transferRows(PG_WORKSPACE_QUERY, Map.of("workspaceId", workspaceId),
+                        staging));
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Materialized {}: workspaceId={}", TABLE, workspaceId);
+    }
+
+    private long transferRows(String sql, Map<String, Object> params, String table) {
+        return transfer.transfer(
+                new KeysetQuery<>(sql, FactOrdersMaterializer::mapRow, OrderRow::orderIdPk),
+                params, table, CH_COLUMNS, (row, out) -> encode(row, out));
+    }
+
+    record OrderRow(long workspaceId, long orderIdPk, long connectionId, String sourcePlatform,
+                    String externalOrderId, Long sellerSkuId, Long productId, int quantity,
+                    BigDecimal pricePerUnit, BigDecimal totalAmount, LocalDate orderDate,
+                    String status, String fulfillmentType, String region, long jobExecutionId,
+                    long ver) {
+    }
 
-        insertBatch(rows, ver, chInsert);
-        log.info("Incremental fact_orders: jobExecutionId={}, rows={}", jobExecutionId, rows.size());
+    static OrderRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new OrderRow(
+                rs.getLong("workspace_id"),
+                rs.getLong("order_id_pk"),
+                rs.getLong("connection_id"),
+                rs.getString("source_platform"),
+                rs.getString("external_order_id"),
+                FactColumns.nullableLong(rs, "seller_sku_id"),
+                FactColumns.nullableLong(rs, "product_id"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("price_per_unit"),
+                rs.getBigDecimal("total_amount"),
+                FactColumns.localDate(rs, "order_date"),
+                rs.getString("status"),
+                rs.getString("fulfillment_type"),
+                rs.getString("region"),
+                rs.getLong("job_execution_id"),
+                FactColumns.ver(rs));
     }
 
-    private void insertBatch(List<Map<String, Object>> rows, long ver, String chInsert) {
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-            ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-            ps.setLong(2, ((Number) row.get("order_id_pk")).longValue());
-            ps.setInt(3, ((Number) row.get("connection_id")).intValue());
-            ps.setString(4, (String) row.get("source_platform"));
-            ps.setString(5, (String) row.get("external_order_id"));
-
-            Number sellerSkuId = (Number) row.get("seller_sku_id");
-            if (sellerSkuId != null) {
-                ps.setLong(6, sellerSkuId.longValue());
-            } else {
-                ps.setNull(6, java.sql.Types.BIGINT);
-            }
-
-            Number productId = (Number) row.get("product_id");
-            if (productId != null) {
-                ps.setLong(7, productId.longValue());
-            } else {
-                ps.setNull(7, java.sql.Types.BIGINT);
-            }
-
-            ps.setInt(8, ((Number) row.get("quantity")).intValue());
-            ps.setBigDecimal(9, (BigDecimal) row.get("price_per_unit"));
-            ps.setBigDecimal(10, (BigDecimal) row.get("total_amount"));
-
-            Timestamp orderDate = (Timestamp) row.get("order_date");
-            ps.setDate(11, Date.valueOf(orderDate.toLocalDateTime().toLocalDate()));
-
-            ps.setString(12, (String) row.get("status"));
-            ps.setString(13, (String) row.get("fulfillment_type"));
-            ps.setString(14, (String) row.get("region"));
-            ps.setLong(15, ((Number) row.get("job_execution_id")).longValue());
-            ps.setLong(16, ver);
-        });
+    static void encode(OrderRow row, RowBinaryWriter out) throws IOException {
+        out.writeUInt32(row.workspaceId());
+        out.writeUInt64(row.orderIdPk());
+        out.writeUInt32(row.connectionId());
+        out.writeString(row.sourcePlatform());
+        out.writeString(row.externalOrderId());
+        out.writeNullableUInt64(row.sellerSkuId());
+        out.writeNullableUInt64(row.productId());
+        out.writeInt32(row.quantity());
+        out.writeDecimal64(row.pricePerUnit(), FactColumns.MONEY_SCALE);
+        out.writeDecimal64(row.totalAmount(), FactColumns.MONEY_SCALE);
+        out.writeDate(row.orderDate());
+        out.writeString(row.status());
+        out.writeNullableString(row.fulfillmentType());
+        out.writeNullableString(row.region());
+        out.writeUInt64(row.jobExecutionId());
+        out.writeUInt64(row.ver());
     }
 
     @Override
@@ -159,4 +181,9 @@ public class FactOrdersMaterializer implements AnalyticsMaterializer {
     public MaterializationPhase phase() {
         return MaterializationPhase.FACT;
     }
+
+    @Override
+    public boolean ownsWatermark() {
+        return true;
+    }
 }
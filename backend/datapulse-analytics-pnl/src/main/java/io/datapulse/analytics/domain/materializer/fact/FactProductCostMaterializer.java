@@ -1,17 +1,23 @@
 package io.datapulse.analytics.domain.materializer.fact;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.Date;
-import java.sql.Timestamp;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
-import io.datapulse.analytics.config.AnalyticsProperties;
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.persistence.FactChangeFeed;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.KeysetQuery;
 import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,121 +30,116 @@ public class FactProductCostMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "fact_product_cost";
 
-    private static final String PG_QUERY = """
+    private static final String PG_SELECT = """
             SELECT cp.workspace_id,
                    cp.id            AS cost_id,
                    cp.seller_sku_id,
                    cp.cost_price,
                    cp.currency,
                    cp.valid_from,
-                   cp.valid_to
+                   cp.valid_to,
+                   cp.updated_at
             FROM cost_profile cp
+            """;
+
+    private static final String PG_QUERY = PG_SELECT + """
+            WHERE cp.id > :afterKey
             ORDER BY cp.id
-            LIMIT :limit OFFSET :offset
+            LIMIT :limit
             """;
 
-    private static final String CH_INSERT = """
-            INSERT INTO %s
-            (workspace_id, cost_id, seller_sku_id, cost_price, currency, valid_from, valid_to, ver)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+    private static final String PG_CHANGES_QUERY = PG_SELECT + """
+            WHERE (cp.updated_at, cp.id) > (:afterUpdatedAt, :afterKey)
+            ORDER BY cp.updated_at, cp.id
+            LIMIT :limit
             """;
 
+    private static final String PG_WORKSPACE_QUERY = PG_SELECT + """
+            WHERE cp.workspace_id = :workspaceId
+              AND cp.id > :afterKey
+            ORDER BY cp.id
+            LIMIT :limit
+            """;
+
+    private static final List<String> CH_COLUMNS = List.of(
+            "workspace_id", "cost_id", "seller_sku_id", "cost_price", "currency", "valid_from",
+            "valid_to", "ver");
+
     private final MaterializationJdbc jdbc;
-    private final AnalyticsProperties properties;
+    private final PgToClickHouseTransfer transfer;
+    private final FactChangeFeed changeFeed;
 
     @Override
     public void materializeFull() {
-        long ver = Instant.now().toEpochMilli();
-
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
+        Instant changesFrom = changeFeed.databaseNow();
 
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                        Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                insertBatch(rows, ver, chInsert);
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> transferRows(PG_QUERY, Map.of(), staging));
 
+        changeFeed.reset(TABLE, changesFrom);
         jdbc.updateWatermark(TABLE, Instant.now());
         log.info("Materialized {}", TABLE);
     }
 
     @Override
     public void materializeIncremental(long jobExecutionId) {
-        Instant watermark = jdbc.getWatermark(TABLE);
-        if (watermark == null) {
+        OptionalLong rows = changeFeed.transferChanges(TABLE,
+                new ChangeFeedQuery<>(PG_CHANGES_QUERY, FactProductCostMaterializer::mapRow,
+                        "cost_id"),
+                CH_COLUMNS, (row, out) -> encode(row, out));
+        if (rows.isEmpty()) {
             materializeFull();
             return;
         }
-
-        long ver = Instant.now().toEpochMilli();
-        String chInsert = CH_INSERT.formatted(TABLE);
-
-        List<Map<String, Object>> rows = jdbc.pg().queryForList("""
-                SELECT cp.workspace_id,
-                       cp.id            AS cost_id,
-                       cp.seller_sku_id,
-                       cp.cost_price,
-                       cp.currency,
-                       cp.valid_from,
-                       cp.valid_to
-                FROM cost_profile cp
-                WHERE cp.updated_at > :watermark
-                """, Map.of("watermark", Timestamp.from(watermark)));
-
-        if (rows.isEmpty()) {
+        if (rows.getAsLong() == 0) {
             return;
         }
 
-        insertBatch(rows, ver, chInsert);
         jdbc.updateWatermark(TABLE, Instant.now());
-        log.info("Incremental fact_product_cost: rows={}", rows.size());
+        log.info("Incremental fact_product_cost: rows={}", rows.getAsLong());
+    }
+
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> transferRows(PG_WORKSPACE_QUERY, Map.of("workspaceId", workspaceId),
+                        staging));
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Materialized {}: workspaceId={}", TABLE, workspaceId);
     }
 
-    private void insertBatch(List<Map<String, Object>> rows, long ver, String chInsert) {
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-            ps.setLong(1, ((Number) row.get("workspace_id")).longValue());
-            ps.setLong(2, ((Number) row.get("cost_id")).longValue());
-            ps.setLong(3, ((Number) row.get("seller_sku_id")).longValue());
-            ps.setBigDecimal(4, (BigDecimal) row.get("cost_price"));
-            ps.setString(5, (String) row.get("currency"));
-
-            LocalDate validFrom = toLocalDate(row.get("valid_from"));
-            ps.setDate(6, Date.valueOf(validFrom));
-
-            LocalDate validTo = toLocalDate(row.get("valid_to"));
-            if (validTo != null) {
-                ps.setDate(7, Date.valueOf(validTo));
-            } else {
-                ps.setNull(7, java.sql.Types.DATE);
-            }
-
-            ps.setLong(8, ver);
-        });
+    private long transferRows(String sql, Map<String, Object> params, String table) {
+        return transfer.transfer(
+                new KeysetQuery<>(sql, FactProductCostMaterializer::mapRow, CostRow::costId),
+                params, table, CH_COLUMNS, (row, out) -> encode(row, out));
     }
 
-    // queryForList maps PostgreSQL date columns to java.sql.Date, not LocalDate.
-    private static LocalDate toLocalDate(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof LocalDate localDate) {
-            return localDate;
-        }
-        if (value instanceof Date sqlDate) {
-            return sqlDate.toLocalDate();
-        }
-        if (value instanceof Timestamp ts) {
-            return ts.toLocalDateTime().toLocalDate();
-        }
-        throw new IllegalStateException("Unexpected date type: " + value.getClass().getName());
+    record CostRow(long workspaceId, long costId, long sellerSkuId, BigDecimal costPrice,
+                   String currency, LocalDate validFrom, LocalDate validTo, long ver) {
+    }
+
+    static CostRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new CostRow(
+                rs.getLong("workspace_id"),
+                rs.getLong("cost_id"),
+                rs.getLong("seller_sku_id"),
+                rs.getBigDecimal("cost_price"),
+                rs.getString("currency"),
+                FactColumns.localDate(rs, "valid_from"),
+                FactColumns.localDate(rs, "valid_to"),
+                FactColumns.ver(rs));
+    }
+
+    static void encode(CostRow row, RowBinaryWriter out) throws IOException {
+        out.writeUInt64(row.workspaceId());
+        out.writeUInt64(row.costId());
+        out.writeUInt64(row.sellerSkuId());
+        out.writeDecimal64(row.costPrice(), FactColumns.MONEY_SCALE);
+        out.writeString(row.currency());
+        out.writeDate(row.validFrom());
+        out.writeNullableDate(row.validTo());
+        out.writeUInt64(row.ver());
     }
 
     @Override
@@ -150,4 +151,12 @@ public class FactProductCostMaterializer implements AnalyticsMaterializer {
     public MaterializationPhase phase() {
         return MaterializationPhase.FACT;
     }
+
+    /**
+     * The watermark only moves when the change feed transferred rows, not on every sync.
+     */
+    @Override
+    public boolean ownsWatermark() {
+        return true;
+    }
 }
@@ -1,16 +1,23 @@
 package io.datapulse.analytics.domain.materializer.fact;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.Date;
-import java.sql.Timestamp;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
-import io.datapulse.analytics.config.AnalyticsProperties;
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.persistence.FactChangeFeed;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.KeysetQuery;
 import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,7 +30,7 @@ public class FactReturnsMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "fact_returns";
 
-    private static final String PG_QUERY = """
+    private static final String PG_SELECT = """
             SELECT cr.workspace_id,
                    cr.id                AS return_id,
                    cr.connection_id,
@@ -36,120 +43,126 @@ public class FactReturnsMaterializer implements AnalyticsMaterializer {
                    cr.return_amount,
                    cr.return_reason,
                    cr.return_date,
-                   cr.job_execution_id
+                   cr.job_execution_id,
+                   cr.updated_at
             FROM canonical_return cr
             LEFT JOIN canonical_order co ON cr.canonical_order_id = co.id
+            """;
+
+    private static final String PG_QUERY = PG_SELECT + """
+            WHERE cr.id > :afterKey
             ORDER BY cr.id
-            LIMIT :limit OFFSET :offset
+            LIMIT :limit
+            """;
+
+    private static final String PG_CHANGES_QUERY = PG_SELECT + """
+            WHERE (cr.updated_at, cr.id) > (:afterUpdatedAt, :afterKey)
+            ORDER BY cr.updated_at, cr.id
+            LIMIT :limit
             """;
 
-    private static final String CH_INSERT = """
-            INSERT INTO %s
-            (workspace_id, return_id, connection_id, source_platform, fulfillment_type,
-             external_return_id,
-             seller_sku_id, product_id, quantity, return_amount, return_reason,
-             return_date, job_execution_id, ver)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    private static final String PG_WORKSPACE_QUERY = PG_SELECT + """
+            WHERE cr.workspace_id = :workspaceId
+              AND cr.id > :afterKey
+            ORDER BY cr.id
+            LIMIT :limit
             """;
 
+    private static final List<String> CH_COLUMNS = List.of(
+            "workspace_id", "return_id", "connection_id", "source_platform", "fulfillment_type",
+            "external_return_id", "seller_sku_id", "product_id", "quantity", "return_amount",
+            "return_reason", "return_date", "job_execution_id", "ver");
+
     private final MaterializationJdbc jdbc;
-    private final AnalyticsProperties properties;
+    private final PgToClickHouseTransfer transfer;
+    private final FactChangeFeed changeFeed;
 
     @Override
     public void materializeFull() {
-        long ver = Instant.now().toEpochMilli();
+        Instant changesFrom = changeFeed.databaseNow();
 
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
-
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                        Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                insertBatch(rows, ver, chInsert);
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> transferRows(PG_QUERY, Map.of(), staging));
 
+        changeFeed.reset(TABLE, changesFrom);
+        jdbc.updateWatermark(TABLE, Instant.now());
         log.info("Materialized {}", TABLE);
     }
 
     @Override
     public void materializeIncremental(long jobExecutionId) {
-        long ver = Instant.now().toEpochMilli();
-        String chInsert = CH_INSERT.formatted(TABLE);
-
-        List<Map<String, Object>> rows = jdbc.pg().queryForList("""
-                SELECT cr.workspace_id,
-                       cr.id                AS return_id,
-                       cr.connection_id,
-                       cr.source_platform,
-                       COALESCE(cr.fulfillment_type, co.fulfillment_type) AS fulfillment_type,
-                       cr.external_return_id,
-                       cr.seller_sku_id,
-                       cr.marketplace_offer_id AS product_id,
-                       cr.quantity,
-                       cr.return_amount,
-                       cr.return_reason,
-                       cr.return_date,
-                       cr.job_execution_id
-                FROM canonical_return cr
-                LEFT JOIN canonical_order co ON cr.canonical_order_id = co.id
-                WHERE cr.job_execution_id = :jobExecutionId
-                """, Map.of("jobExecutionId", jobExecutionId));
-
+        OptionalLong rows = changeFeed.transferChanges(TABLE,
+                new ChangeFeedQuery<>(PG_CHANGES_QUERY, FactReturnsMaterializer::mapRow,
+                        "return_id"),
+                CH_COLUMNS, (row, out) -> encode(row, out));
         if (rows.isEmpty()) {
+            materializeFull();
             return;
         }
+        if (rows.getAsLong() == 0) {
+            return;
+        }
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Incremental fact_returns: jobExecutionId={}, rows={}", jobExecutionId,
+                rows.getAsLong());
+    }
+
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> transferRows(PG_WORKSPACE_QUERY, Map.of("workspaceId", workspaceId),
+                        staging));
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Materialized {}: workspaceId={}", TABLE, workspaceId);
+    }
+
+    private long transferRows(String sql, Map<String, Object> params, String table) {
+        return transfer.transfer(
+                new KeysetQuery<>(sql, FactReturnsMaterializer::mapRow, ReturnRow::returnId),
+                params, table, CH_COLUMNS, (row, out) -> encode(row, out));
+    }
+
+    record ReturnRow(long workspaceId, long returnId, long connectionId, String sourcePlatform,
+                     String fulfillmentType, String externalReturnId, Long sellerSkuId,
+                     Long productId, int quantity, BigDecimal returnAmount, String returnReason,
+                     LocalDate returnDate, long jobExecutionId, long ver) {
+    }
 
-        insertBatch(rows, ver, chInsert);
-        log.info("Incremental fact_returns: jobExecutionId={}, rows={}", jobExecutionId, rows.size());
+    static ReturnRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ReturnRow(
+                rs.getLong("workspace_id"),
+                rs.getLong("return_id"),
+                rs.getLong("connection_id"),
+                rs.getString("source_platform"),
+                rs.getString("fulfillment_type"),
+                rs.getString("external_return_id"),
+                FactColumns.nullableLong(rs, "seller_sku_id"),
+                FactColumns.nullableLong(rs, "product_id"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("return_amount"),
+                rs.getString("return_reason"),
+                FactColumns.localDate(rs, "return_date"),
+                rs.getLong("job_execution_id"),
+                FactColumns.ver(rs));
     }
 
-    private void insertBatch(List<Map<String, Object>> rows, long ver, String chInsert) {
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-            ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-            ps.setLong(2, ((Number) row.get("return_id")).longValue());
-            ps.setInt(3, ((Number) row.get("connection_id")).intValue());
-            ps.setString(4, (String) row.get("source_platform"));
-            ps.setString(5, (String) row.get("fulfillment_type"));
-            ps.setString(6, (String) row.get("external_return_id"));
-
-            Number sellerSkuId = (Number) row.get("seller_sku_id");
-            if (sellerSkuId != null) {
-                ps.setLong(7, sellerSkuId.longValue());
-            } else {
-                ps.setNull(7, java.sql.Types.BIGINT);
-            }
-
-            Number productId = (Number) row.get("product_id");
-            if (productId != null) {
-                ps.setLong(8, productId.longValue());
-            } else {
-                ps.setNull(8, java.sql.Types.BIGINT);
-            }
-
-            ps.setInt(9, ((Number) row.get("quantity")).intValue());
-
-            BigDecimal returnAmount = (BigDecimal) row.get("return_amount");
-            if (returnAmount != null) {
-                ps.setBigDecimal(10, returnAmount);
-            } else {
-                ps.setNull(10, java.sql.Types.DECIMAL);
-            }
-
-            ps.setString(11, (String) row.get("return_reason"));
-
-            Timestamp returnDate = (Timestamp) row.get("return_date");
-            ps.setDate(12, Date.valueOf(returnDate.toLocalDateTime().toLocalDate()));
-
-            ps.setLong(13, ((Number) row.get("job_execution_id")).longValue());
-            ps.setLong(14, ver);
-        });
+    static void encode(ReturnRow row, RowBinaryWriter out) throws IOException {
+        out.writeUInt32(row.workspaceId());
+        out.writeUInt64(row.returnId());
+        out.writeUInt32(row.connectionId());
+        out.writeString(row.sourcePlatform());
+        out.writeNullableString(row.fulfillmentType());
+        out.writeString(row.externalReturnId());
+        out.writeNullableUInt64(row.sellerSkuId());
+        out.writeNullableUInt64(row.productId());
+        out.writeInt32(row.quantity());
+        out.writeNullableDecimal64(row.returnAmount(), FactColumns.MONEY_SCALE);
+        out.writeNullableString(row.returnReason());
+        out.writeDate(row.returnDate());
+        out.writeUInt64(row.jobExecutionId());
+        out.writeUInt64(row.ver());
     }
 
     @Override
@@ -161,4 +174,9 @@ public class FactReturnsMaterializer implements AnalyticsMaterializer {
     public MaterializationPhase phase() {
         return MaterializationPhase.FACT;
     }
+
+    @Override
+    public boolean ownsWatermark() {
+        return true;
+    }
 }
@@ -1,16 +1,23 @@
 package io.datapulse.analytics.domain.materializer.fact;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.sql.Date;
-import java.sql.Timestamp;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 
-import io.datapulse.analytics.config.AnalyticsProperties;
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.persistence.FactChangeFeed;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.KeysetQuery;
 import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,7 +30,7 @@ public class FactSalesMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "fact_sales";
 
-    private static final String PG_QUERY = """
+    private static final String PG_SELECT = """
             SELECT cs.workspace_id,
                    cs.id              AS sale_id,
                    cs.connection_id,
@@ -36,113 +43,125 @@ public class FactSalesMaterializer implements AnalyticsMaterializer {
                    cs.quantity,
                    cs.sale_amount,
                    cs.sale_date,
-                   cs.job_execution_id
+                   cs.job_execution_id,
+                   cs.updated_at
             FROM canonical_sale cs
             LEFT JOIN canonical_order co ON cs.canonical_order_id = co.id
+            """;
+
+    private static final String PG_QUERY = PG_SELECT + """
+            WHERE cs.id > :afterKey
             ORDER BY cs.id
-            LIMIT :limit OFFSET :offset
+            LIMIT :limit
+            """;
+
+    private static final String PG_CHANGES_QUERY = PG_SELECT + """
+            WHERE (cs.updated_at, cs.id) > (:afterUpdatedAt, :afterKey)
+            ORDER BY cs.updated_at, cs.id
+            LIMIT :limit
             """;
 
-    private static final String CH_INSERT = """
-            INSERT INTO %s
-            (workspace_id, sale_id, connection_id, source_platform, fulfillment_type,
-             posting_id, order_id,
-             seller_sku_id, product_id, quantity, sale_amount, sale_date,
-             job_execution_id, ver)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    private static final String PG_WORKSPACE_QUERY = PG_SELECT + """
+            WHERE cs.workspace_id = :workspaceId
+              AND cs.id > :afterKey
+            ORDER BY cs.id
+            LIMIT :limit
             """;
 
+    private static final List<String> CH_COLUMNS = List.of(
+            "workspace_id", "sale_id", "connection_id", "source_platform", "fulfillment_type",
+            "posting_id", "order_id", "seller_sku_id", "product_id", "quantity", "sale_amount",
+            "sale_date", "job_execution_id", "ver");
+
     private final MaterializationJdbc jdbc;
-    private final AnalyticsProperties properties;
+    private final PgToClickHouseTransfer transfer;
+    private final FactChangeFeed changeFeed;
 
     @Override
     public void materializeFull() {
-        long ver = Instant.now().toEpochMilli();
+        Instant changesFrom = changeFeed.databaseNow();
 
-        jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            String chInsert = CH_INSERT.formatted(staging);
-            int offset = 0;
-
-            while (true) {
-                List<Map<String, Object>> rows = jdbc.pg().queryForList(PG_QUERY,
-                        Map.of("limit", properties.batchSize(), "offset", offset));
-                if (rows.isEmpty()) {
-                    break;
-                }
-
-                insertBatch(rows, ver, chInsert);
-                offset += properties.batchSize();
-            }
-        });
+        jdbc.fullMaterializeWithSwap(TABLE,
+                staging -> transferRows(PG_QUERY, Map.of(), staging));
 
+        changeFeed.reset(TABLE, changesFrom);
+        jdbc.updateWatermark(TABLE, Instant.now());
         log.info("Materialized {}", TABLE);
     }
 
     @Override
     public void materializeIncremental(long jobExecutionId) {
-        long ver = Instant.now().toEpochMilli();
-        String chInsert = CH_INSERT.formatted(TABLE);
-
-        List<Map<String, Object>> rows = jdbc.pg().queryForList("""
-                SELECT cs.workspace_id,
-                       cs.id              AS sale_id,
-                       cs.connection_id,
-                       cs.source_platform,
-                       cs.fulfillment_type,
-                       cs.posting_id,
-                       co.external_order_id AS order_id,
-                       cs.seller_sku_id,
-                       cs.marketplace_offer_id AS product_id,
-                       cs.quantity,
-                       cs.sale_amount,
-                       cs.sale_date,
-                       cs.job_execution_id
-                FROM canonical_sale cs
-                LEFT JOIN canonical_order co ON cs.canonical_order_id = co.id
-                WHERE cs.job_execution_id = :jobExecutionId
-                """, Map.of("jobExecutionId", jobExecutionId));
-
+        OptionalLong rows = changeFeed.transferChanges(TABLE,
+                new ChangeFeedQuery<>(PG_CHANGES_QUERY, FactSalesMaterializer::mapRow, "sale_id"),
+                CH_COLUMNS, (row, out) -> encode(row, out));
         if (rows.isEmpty()) {
+            materializeFull();
             return;
         }
+        if (rows.getAsLong() == 0) {
+            return;
+        }
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Incremental fact_sales: jobExecutionId={}, rows={}", jobExecutionId,
+                rows.getAsLong());
+    }
+
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+                staging -> transferRows(PG_WORKSPACE_QUERY, Map.of("workspaceId", workspaceId),
+                        staging));
+
+        jdbc.updateWatermark(TABLE, Instant.now());
+        log.info("Materialized {}: workspaceId={}", TABLE, workspaceId);
+    }
+
+    private long transferRows(String sql, Map<String, Object> params, String table) {
+        return transfer.transfer(
+                new KeysetQuery<>(sql, FactSalesMaterializer::mapRow, SaleRow::saleId),
+                params, table, CH_COLUMNS, (row, out) -> encode(row, out));
+    }
+
+    record SaleRow(long workspaceId, long saleId, long connectionId, String sourcePlatform,
+                   String fulfillmentType, String postingId, String orderId, Long sellerSkuId,
+                   Long productId, int quantity, BigDecimal saleAmount, LocalDate saleDate,
+                   long jobExecutionId, long ver) {
+    }
 
-        insertBatch(rows, ver, chInsert);
-        log.info("Incremental fact_sales: jobExecutionId={}, rows={}", jobExecutionId, rows.size());
+    static SaleRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new SaleRow(
+                rs.getLong("workspace_id"),
+                rs.getLong("sale_id"),
+                rs.getLong("connection_id"),
+                rs.getString("source_platform"),
+                rs.getString("fulfillment_type"),
+                rs.getString("posting_id"),
+                rs.getString("order_id"),
+                FactColumns.nullableLong(rs, "seller_sku_id"),
+                FactColumns.nullableLong(rs, "product_id"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("sale_amount"),
+                FactColumns.localDate(rs, "sale_date"),
+                rs.getLong("job_execution_id"),
+                FactColumns.ver(rs));
     }
 
-    private void insertBatch(List<Map<String, Object>> rows, long ver, String chInsert) {
-        jdbc.ch().batchUpdate(chInsert, rows, rows.size(), (ps, row) -> {
-            ps.setInt(1, ((Number) row.get("workspace_id")).intValue());
-            ps.setLong(2, ((Number) row.get("sale_id")).longValue());
-            ps.setInt(3, ((Number) row.get("connection_id")).intValue());
-            ps.setString(4, (String) row.get("source_platform"));
-            ps.setString(5, (String) row.get("fulfillment_type"));
-            ps.setString(6, (String) row.get("posting_id"));
-            ps.setString(7, (String) row.get("order_id"));
-
-            Number sellerSkuId = (Number) row.get("seller_sku_id");
-            if (sellerSkuId != null) {
-                ps.setLong(8, sellerSkuId.longValue());
-            } else {
-                ps.setNull(8, java.sql.Types.BIGINT);
-            }
-
-            Number productId = (Number) row.get("product_id");
-            if (productId != null) {
-                ps.setLong(9, productId.longValue());
-            } else {
-                ps.setNull(9, java.sql.Types.BIGINT);
-            }
-
-            ps.setInt(10, ((Number) row.get("quantity")).intValue());
-            ps.setBigDecimal(11, (BigDecimal) row.get("sale_amount"));
-
-            Timestamp saleDate = (Timestamp) row.get("sale_date");
-            ps.setDate(12, Date.valueOf(saleDate.toLocalDateTime().toLocalDate()));
-
-            ps.setLong(13, ((Number) row.get("job_execution_id")).longValue());
-            ps.setLong(14, ver);
-        });
+    static void encode(SaleRow row, RowBinaryWriter out) throws IOException {
+        out.writeUInt32(row.workspaceId());
+        out.writeUInt64(row.saleId());
+        out.writeUInt32(row.connectionId());
+        out.writeString(row.sourcePlatform());
+        out.writeNullableString(row.fulfillmentType());
+        out.writeNullableString(row.postingId());
+        out.writeNullableString(row.orderId());
+        out.writeNullableUInt64(row.sellerSkuId());
+        out.writeNullableUInt64(row.productId());
+        out.writeInt32(row.quantity());
+        out.writeDecimal64(row.saleAmount(), FactColumns.MONEY_SCALE);
+        out.writeDate(row.saleDate());
+        out.writeUInt64(row.jobExecutionId());
+        out.writeUInt64(row.ver());
     }
 
     @Override
@@ -154,4 +173,9 @@ public class FactSalesMaterializer implements AnalyticsMaterializer {
     public MaterializationPhase phase() {
         return MaterializationPhase.FACT;
     }
+
+    @Override
+    public boolean ownsWatermark() {
+        return true;
+    }
 }
@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.mart;
 
 import java.time.Instant;
+import java.util.Set;
 
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
 import io.datapulse.analytics.domain.MaterializationPhase;
@@ -27,6 +28,8 @@ public class AdvertisingProductMartMaterializer implements AnalyticsMaterializer
 
   private static final String TABLE = "mart_advertising_product";
 
+  private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
   private static final String FULL_MATERIALIZE_SQL = """
       INSERT INTO %s
       SELECT
@@ -68,6 +71,7 @@ public class AdvertisingProductMartMaterializer implements AnalyticsMaterializer
       ) AS ff_rev
           ON fa.marketplace_sku = ff_rev.marketplace_sku
           AND toYYYYMM(fa.ad_date) = ff_rev.period
+      /*WORKSPACE*/
       GROUP BY
           fa.workspace_id, fa.source_platform, fa.marketplace_sku,
           period, ff_rev.total_revenue
@@ -81,13 +85,25 @@ public class AdvertisingProductMartMaterializer implements AnalyticsMaterializer
     long ver = Instant.now().toEpochMilli();
 
     jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-      jdbc.ch().execute(FULL_MATERIALIZE_SQL.formatted(staging, ver));
+      jdbc.chInsertSelect(FULL_MATERIALIZE_SQL.formatted(staging, ver));
     });
 
     Long count = jdbc.ch().queryForObject("SELECT count() FROM " + TABLE, Long.class);
     log.info("Materialized mart_advertising_product: rows={}", count);
   }
 
+  @Override
+  public void materializeWorkspace(long workspaceId) {
+    long ver = Instant.now().toEpochMilli();
+
+    jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId, staging -> {
+      jdbc.ch().execute(FULL_MATERIALIZE_SQL.formatted(staging, ver)
+          .replace(WORKSPACE_MARKER, "WHERE fa.workspace_id = " + workspaceId));
+    });
+
+    log.info("Materialized mart_advertising_product: workspaceId={}", workspaceId);
+  }
+
   @Override
   public void materializeIncremental(long jobExecutionId) {
     materializeFull();
@@ -98,6 +114,11 @@ public class AdvertisingProductMartMaterializer implements AnalyticsMaterializer
     return TABLE;
   }
 
+  @Override
+  public Set<String> sourceTables() {
+    return Set.of("fact_advertising", "fact_finance", "dim_product");
+  }
+
   @Override
   public MaterializationPhase phase() {
     return MaterializationPhase.MART;
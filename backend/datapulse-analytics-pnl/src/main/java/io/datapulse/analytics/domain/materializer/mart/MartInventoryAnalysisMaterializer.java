@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.mart;
 
 import java.time.Instant;
+import java.util.Set;
 
 import io.datapulse.analytics.config.AnalyticsQueryProperties;
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
@@ -17,6 +18,8 @@ public class MartInventoryAnalysisMaterializer implements AnalyticsMaterializer
 
   private static final String TABLE = "mart_inventory_analysis";
 
+  private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
   private static final String FULL_MATERIALIZE_SQL = """
       INSERT INTO %s
       SELECT
@@ -67,7 +70,7 @@ public class MartInventoryAnalysisMaterializer implements AnalyticsMaterializer
               max(captured_date) AS analysis_date,
               argMax(available, captured_at) AS available,
               argMax(reserved, captured_at) AS reserved
-          FROM fact_inventory_snapshot
+          FROM fact_inventory_snapshot /*WORKSPACE*/
           GROUP BY workspace_id, source_platform, product_id, warehouse_id
       ) inv
       LEFT JOIN dim_product AS dp
@@ -94,28 +97,43 @@ public class MartInventoryAnalysisMaterializer implements AnalyticsMaterializer
 
   @Override
   public void materializeFull() {
-    var inv = queryProperties.inventory();
     long ver = Instant.now().toEpochMilli();
 
     jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-      String sql = FULL_MATERIALIZE_SQL.formatted(
-          staging,
-          inv.leadTimeDays(),
-          inv.leadTimeDays() * 2,
-          inv.targetDaysOfCover(),
-          inv.targetDaysOfCover(),
-          inv.targetDaysOfCover(),
-          ver,
-          inv.velocityWindowDays(),
-          inv.velocityWindowDays()
-      );
-      jdbc.ch().execute(sql);
+      jdbc.chInsertSelect(fullSql(staging, ver));
     });
 
     Long count = jdbc.ch().queryForObject("SELECT count() FROM " + TABLE, Long.class);
     log.info("Materialized mart_inventory_analysis: rows={}", count);
   }
 
+  @Override
+  public void materializeWorkspace(long workspaceId) {
+    long ver = Instant.now().toEpochMilli();
+
+    jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId, staging -> {
+      jdbc.ch().execute(fullSql(staging, ver)
+          .replace(WORKSPACE_MARKER, "WHERE workspace_id = " + workspaceId));
+    });
+
+    log.info("Materialized mart_inventory_analysis: workspaceId={}", workspaceId);
+  }
+
+  private String fullSql(String target, long ver) {
+    var inv = queryProperties.inventory();
+    return FULL_MATERIALIZE_SQL.formatted(
+        target,
+        inv.leadTimeDays(),
+        inv.leadTimeDays() * 2,
+        inv.targetDaysOfCover(),
+        inv.targetDaysOfCover(),
+        inv.targetDaysOfCover(),
+        ver,
+        inv.velocityWindowDays(),
+        inv.velocityWindowDays()
+    );
+  }
+
   @Override
   public void materializeIncremental(long jobExecutionId) {
     materializeFull();
@@ -126,6 +144,12 @@ public class MartInventoryAnalysisMaterializer implements AnalyticsMaterializer
     return TABLE;
   }
 
+  @Override
+  public Set<String> sourceTables() {
+    return Set.of("fact_inventory_snapshot", "fact_sales", "fact_product_cost",
+        "dim_product");
+  }
+
   @Override
   public MaterializationPhase phase() {
     return MaterializationPhase.MART;
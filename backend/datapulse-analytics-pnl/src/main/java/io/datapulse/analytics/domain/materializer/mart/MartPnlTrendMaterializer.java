@@ -0,0 +1,183 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import java.time.Instant;
+import java.util.Set;
+
+import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Materializes mart_pnl_trend, the P&L trend rollup, per (workspace_id, source_platform, grain,
+ * bucket):
+ * <ul>
+ *   <li>DAY and WEEK from mart_posting_pnl, with the formulas of the row-level daily / weekly
+ *       trend (no advertising, full_pnl from the posting sums);</li>
+ *   <li>MONTH from mart_product_pnl, as the row-level monthly trend (with advertising).</li>
+ * </ul>
+ * Every measure is additive, so a trend over several buckets of a grain equals the trend over
+ * the rows behind them; {@code TrendRollupPlanner} picks the grain a request reads.
+ *
+ * <p>Partitioned by (workspace_id, source_platform). An incremental run rebuilds the rollup of
+ * every (workspace, platform) the job touched and swaps those partitions in; a week straddling
+ * two months is therefore never left half-updated.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MartPnlTrendMaterializer implements AnalyticsMaterializer {
+
+  private static final String TABLE = "mart_pnl_trend";
+  private static final String PARTITION_KEY = "workspace_id, source_platform";
+  private static final String SCOPE_MARKER = "/*SCOPE*/";
+
+  private static final String POSTING_GRAINS_SQL = """
+      INSERT INTO %s
+      SELECT
+          workspace_id,
+          source_platform,
+          grain,
+          bucket,
+          sum(revenue_amount) AS revenue_amount,
+          sum(marketplace_commission_amount) + sum(acquiring_commission_amount)
+              + sum(logistics_cost_amount) + sum(storage_cost_amount)
+              + sum(penalties_amount) + sum(marketing_cost_amount)
+              + sum(acceptance_cost_amount) + sum(other_marketplace_charges_amount)
+              AS costs_amount,
+          sum(net_cogs) AS net_cogs,
+          toDecimal64(0, 2) AS advertising_cost,
+          sum(revenue_amount)
+              + sum(marketplace_commission_amount) + sum(acquiring_commission_amount)
+              + sum(logistics_cost_amount) + sum(storage_cost_amount)
+              + sum(penalties_amount) + sum(marketing_cost_amount)
+              + sum(acceptance_cost_amount) + sum(other_marketplace_charges_amount)
+              + sum(compensation_amount) + sum(refund_amount)
+              - coalesce(sum(net_cogs), toDecimal64(0, 2)) AS full_pnl,
+          %d AS ver
+      FROM mart_posting_pnl
+      ARRAY JOIN
+          ['DAY', 'WEEK'] AS grain,
+          [finance_date, toStartOfWeek(finance_date)] AS bucket
+      WHERE 1 = 1 /*SCOPE*/
+      GROUP BY workspace_id, source_platform, grain, bucket
+      """;
+
+  private static final String MONTH_GRAIN_SQL = """
+      INSERT INTO %s
+      SELECT
+          workspace_id,
+          source_platform,
+          'MONTH' AS grain,
+          makeDate(intDiv(period, 100), modulo(period, 100), 1) AS bucket,
+          sum(revenue_amount) AS revenue_amount,
+          sum(marketplace_commission_amount) + sum(acquiring_commission_amount)
+              + sum(logistics_cost_amount) + sum(storage_cost_amount)
+              + sum(penalties_amount) + sum(marketing_cost_amount)
+              + sum(acceptance_cost_amount) + sum(other_marketplace_charges_amount)
+              AS costs_amount,
+          sum(net_cogs) AS net_cogs,
+          sum(advertising_cost) AS advertising_cost,
+          sum(full_pnl) AS full_pnl,
+          %d AS ver
+      FROM mart_product_pnl
+      WHERE 1 = 1 /*SCOPE*/
+      GROUP BY workspace_id, source_platform, period
+      """;
+
+  private final MaterializationJdbc jdbc;
+  private final PnlSliceResolver sliceResolver;
+
+  /**
+   * Rebuilds the rollup without moving the slice cursor: outside a full re-materialization the
+   * P&L marts it reads may be older than this run.
+   */
+  @Override
+  public void materializeFull() {
+    rebuild();
+  }
+
+  /**
+   * As the last P&L mart of a full re-materialization, moves the slice cursor to the start of the
+   * run: the P&L marts were rebuilt from facts read after it, and changes written since are
+   * resolved by the next incremental run.
+   */
+  @Override
+  public void materializeFull(Instant runStartedAt) {
+    rebuild();
+    sliceResolver.reset(runStartedAt);
+  }
+
+  private void rebuild() {
+    long ver = Instant.now().toEpochMilli();
+    jdbc.fullMaterializeWithSwap(TABLE, staging -> populate(staging, "", ver));
+    Long count = jdbc.ch().queryForObject("SELECT count() FROM " + TABLE, Long.class);
+    log.info("Materialized mart_pnl_trend: rows={}", count);
+  }
+
+  /**
+   * Rebuilds every (workspace, platform) with an affected P&L slice. The rollup of a tenant is
+   * small next to its marts, and the source reads are pruned to the tenant's partitions. As the
+   * last mart built from the slices, acknowledges them to the resolver.
+   */
+  @Override
+  public void materializeIncremental(long jobExecutionId) {
+    PnlSlices slices = sliceResolver.resolve(jobExecutionId);
+    if (slices.isEmpty()) {
+      log.info("Incremental mart_pnl_trend skipped, no affected slices: jobExecutionId={}",
+          jobExecutionId);
+      sliceResolver.acknowledge(jobExecutionId);
+      return;
+    }
+
+    long ver = Instant.now().toEpochMilli();
+    String scope = slices.scopePredicate("workspace_id", "source_platform");
+    jdbc.replacePartitions(TABLE, PARTITION_KEY, scope, jobExecutionId,
+        staging -> populate(staging, "AND " + scope, ver));
+    sliceResolver.acknowledge(jobExecutionId);
+    log.info("Incremental mart_pnl_trend: jobExecutionId={}, slices={}",
+        jobExecutionId, slices.slices().size());
+  }
+
+  @Override
+  public void materializeWorkspace(long workspaceId) {
+    long ver = Instant.now().toEpochMilli();
+    jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+        staging -> populate(staging, "AND workspace_id = " + workspaceId, ver));
+    log.info("Materialized mart_pnl_trend: workspaceId={}", workspaceId);
+  }
+
+  /**
+   * The full and incremental scopes span workspaces, hence inserts without the partition limit.
+   */
+  private void populate(String target, String scope, long ver) {
+    jdbc.chInsertSelect(postingGrainsSql(target, scope, ver));
+    jdbc.chInsertSelect(monthGrainSql(target, scope, ver));
+  }
+
+  static String postingGrainsSql(String target, String scope, long ver) {
+    return POSTING_GRAINS_SQL.formatted(target, ver).replace(SCOPE_MARKER, scope);
+  }
+
+  static String monthGrainSql(String target, String scope, long ver) {
+    return MONTH_GRAIN_SQL.formatted(target, ver).replace(SCOPE_MARKER, scope);
+  }
+
+  @Override
+  public String tableName() {
+    return TABLE;
+  }
+
+  @Override
+  public Set<String> sourceTables() {
+    return Set.of("mart_posting_pnl", "mart_product_pnl");
+  }
+
+  @Override
+  public MaterializationPhase phase() {
+    return MaterializationPhase.MART;
+  }
+}
@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.mart;
 
 import java.time.Instant;
+import java.util.Set;
 
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
@@ -23,7 +24,9 @@ import org.springframework.stereotype.Component;
 public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
 
   private static final String TABLE = "mart_posting_pnl";
-  private static final String INCR_MARKER = "/*INCR*/";
+  private static final String PARTITION_KEY = "workspace_id, source_platform";
+  private static final String SCOPE_MARKER = "/*SCOPE*/";
+  private static final String SLICE_MARKER = "/*SLICE*/";
 
   /**
    * Full materialization SQL: aggregates fact_finance POSTING-level entries
@@ -32,6 +35,10 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
    *
    * <p>The {@code INSERT INTO %s} placeholder is replaced with the target table
    * (staging during full re-materialization, live during incremental).</p>
+   *
+   * <p>Incremental runs replace the SLICE marker with a HAVING on the posting's home slice and
+   * the SCOPE marker with a (workspace_id, source_platform) filter on every joined
+   * sub-aggregate; in a full run both markers are plain comments.</p>
    */
   private static final String FULL_MATERIALIZE_SQL = """
       INSERT INTO %s
@@ -152,8 +159,8 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
           FROM fact_finance
           WHERE attribution_level = 'POSTING'
             AND posting_id IS NOT NULL
-            AND posting_id != ''
-          GROUP BY workspace_id, source_platform, posting_id /*INCR*/
+            AND posting_id != '' /*SCOPE*/
+          GROUP BY workspace_id, source_platform, posting_id /*SLICE*/
       ) pm
       -- Acquiring: order-level entries allocated pro-rata by revenue
       LEFT JOIN (
@@ -167,7 +174,7 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
           WHERE attribution_level = 'POSTING'
             AND posting_id IS NULL
             AND order_id IS NOT NULL
-            AND order_id != ''
+            AND order_id != '' /*SCOPE*/
           GROUP BY workspace_id, source_platform, order_id
       ) aq ON pm.order_id = aq.order_id
           AND pm.workspace_id = aq.workspace_id
@@ -185,7 +192,7 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
                      sum(revenue_amount) AS revenue_amount
               FROM fact_finance
               WHERE attribution_level = 'POSTING'
-                AND posting_id IS NOT NULL AND posting_id != ''
+                AND posting_id IS NOT NULL AND posting_id != '' /*SCOPE*/
               GROUP BY workspace_id, source_platform, posting_id
           )
           WHERE order_id IS NOT NULL AND order_id != ''
@@ -202,7 +209,7 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
               anyLast(seller_sku_id) AS sales_seller_sku_id
           FROM fact_sales
           WHERE posting_id IS NOT NULL AND posting_id != ''
-            AND seller_sku_id IS NOT NULL
+            AND seller_sku_id IS NOT NULL /*SCOPE*/
           GROUP BY workspace_id, source_platform, posting_id
       ) fs ON pm.posting_id = fs.posting_id
           AND pm.workspace_id = fs.workspace_id
@@ -212,7 +219,7 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
           SELECT workspace_id, source_platform, posting_id,
                  sum(quantity) AS quantity
           FROM fact_sales
-          WHERE posting_id IS NOT NULL AND posting_id != ''
+          WHERE posting_id IS NOT NULL AND posting_id != '' /*SCOPE*/
           GROUP BY workspace_id, source_platform, posting_id
       ) s ON pm.posting_id = s.posting_id
           AND pm.workspace_id = s.workspace_id
@@ -255,8 +262,8 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
               FROM fact_finance
               WHERE attribution_level = 'POSTING'
                 AND posting_id IS NOT NULL
-                AND posting_id != ''
-              GROUP BY workspace_id, source_platform, posting_id /*INCR*/
+                AND posting_id != '' /*SCOPE*/
+              GROUP BY workspace_id, source_platform, posting_id /*SLICE*/
           ) AS pm_c
           INNER JOIN fact_product_cost AS fpc_inner
               ON pm_c.workspace_id = fpc_inner.workspace_id
@@ -285,35 +292,88 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
       """;
 
   private final MaterializationJdbc jdbc;
+  private final PnlSliceResolver sliceResolver;
 
   @Override
   public void materializeFull() {
     long ver = Instant.now().toEpochMilli();
     jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-      String sql = FULL_MATERIALIZE_SQL.formatted(staging, ver);
-      jdbc.ch().execute(sql);
+      String sql = fullSql(staging, ver);
+      jdbc.chInsertSelect(sql);
     });
     Long count = jdbc.ch().queryForObject("SELECT count() FROM " + TABLE, Long.class);
     log.info("Materialized mart_posting_pnl: rows={}", count);
   }
 
+  /**
+   * Recomputes every posting whose home slice the job affected, carries the scope's other
+   * postings over from the live table and swaps each affected (workspace, platform) in as a
+   * whole partition. A posting that moved to another period has both homes affected, so its old
+   * row is neither carried over nor recomputed. The mart never holds two versions of a posting,
+   * so reads need no FINAL.
+   *
+   * <p>Runs of the same scope are serialized by an advisory lock per (workspace, platform):
+   * otherwise a run could carry over live rows that another run replaces meanwhile and swap
+   * them back in over that run's result.</p>
+   */
   @Override
   public void materializeIncremental(long jobExecutionId) {
+    PnlSlices slices = sliceResolver.resolve(jobExecutionId);
+    if (slices.isEmpty()) {
+      log.info("Incremental mart_posting_pnl skipped, no affected slices: jobExecutionId={}",
+          jobExecutionId);
+      return;
+    }
+
+    long ver = Instant.now().toEpochMilli();
+    jdbc.withAdvisoryLocks(slices.scopeLockNames(TABLE), () ->
+        jdbc.replacePartitions(TABLE, PARTITION_KEY,
+            slices.scopePredicate("workspace_id", "source_platform"), jobExecutionId, staging -> {
+              jdbc.chInsertSelect(incrementalSql(staging, slices, ver));
+              jdbc.chInsertSelect(carryOverSql(staging, slices));
+            }));
+    log.info("Incremental mart_posting_pnl: jobExecutionId={}, slices={}",
+        jobExecutionId, slices.slices().size());
+  }
+
+  /**
+   * Rebuilds one workspace: the full SQL with every SCOPE marker narrowed to the workspace,
+   * swapped in partition by partition.
+   */
+  @Override
+  public void materializeWorkspace(long workspaceId) {
     long ver = Instant.now().toEpochMilli();
+    jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+        staging -> jdbc.ch().execute(workspaceSql(staging, workspaceId, ver)));
+    log.info("Materialized mart_posting_pnl: workspaceId={}", workspaceId);
+  }
+
+  static String fullSql(String target, long ver) {
+    return FULL_MATERIALIZE_SQL.formatted(target, ver);
+  }
 
-    String affectedPostings = """
-        SELECT DISTINCT posting_id
-        FROM fact_finance
-        WHERE job_execution_id = %d
-          AND posting_id IS NOT NULL
-          AND posting_id != ''""".formatted(jobExecutionId);
+  static String incrementalSql(String target, PnlSlices slices, long ver) {
+    return fullSql(target, ver)
+        .replace(SLICE_MARKER, "HAVING " + homeSlicePredicate(slices))
+        .replace(SCOPE_MARKER, "AND " + slices.scopePredicate("workspace_id", "source_platform"));
+  }
+
+  /**
+   * Live postings of the affected scopes whose home slice is unaffected, copied as they are.
+   */
+  static String carryOverSql(String target, PnlSlices slices) {
+    return "INSERT INTO %s SELECT * FROM %s WHERE %s AND NOT (%s)".formatted(target, TABLE,
+        slices.scopePredicate("workspace_id", "source_platform"), homeSlicePredicate(slices));
+  }
 
-    String havingClause = " HAVING posting_id IN (%s)".formatted(affectedPostings);
-    String incrementalSql = FULL_MATERIALIZE_SQL.formatted(TABLE, ver)
-        .replace(INCR_MARKER, havingClause);
+  static String workspaceSql(String target, long workspaceId, long ver) {
+    return fullSql(target, ver)
+        .replace(SLICE_MARKER, "")
+        .replace(SCOPE_MARKER, "AND workspace_id = " + workspaceId);
+  }
 
-    jdbc.ch().execute(incrementalSql);
-    log.info("Incremental mart_posting_pnl: jobExecutionId={}", jobExecutionId);
+  private static String homeSlicePredicate(PnlSlices slices) {
+    return slices.predicate("workspace_id", "source_platform", "toYYYYMM(finance_date)");
   }
 
   @Override
@@ -321,6 +381,11 @@ public class MartPostingPnlMaterializer implements AnalyticsMaterializer {
     return TABLE;
   }
 
+  @Override
+  public Set<String> sourceTables() {
+    return Set.of("fact_finance", "fact_sales", "fact_product_cost", "dim_product");
+  }
+
   @Override
   public MaterializationPhase phase() {
     return MaterializationPhase.MART;
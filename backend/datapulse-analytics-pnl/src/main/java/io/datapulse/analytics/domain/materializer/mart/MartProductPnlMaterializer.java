@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.mart;
 
 import java.time.Instant;
+import java.util.Set;
 
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
@@ -29,6 +30,9 @@ import org.springframework.stereotype.Component;
  *
  * <p>Product labels (sku_code, product_name, marketplace_sku) are resolved here via dim_product
  * so read queries use only marts + facts.</p>
+ *
+ * <p>FINAL is applied per table: facts and dim_product are upserted and need it,
+ * mart_posting_pnl is replaced by whole partitions and is read as is.</p>
  */
 @Slf4j
 @Component
@@ -36,7 +40,17 @@ import org.springframework.stereotype.Component;
 public class MartProductPnlMaterializer implements AnalyticsMaterializer {
 
   private static final String TABLE = "mart_product_pnl";
+  private static final String PARTITION_KEY = "workspace_id, source_platform";
+  private static final String POSTING_SLICE_MARKER = "/*POSTING_SLICE*/";
+  private static final String FINANCE_SLICE_MARKER = "/*FINANCE_SLICE*/";
+  private static final String AD_SLICE_MARKER = "/*AD_SLICE*/";
 
+  /**
+   * Full materialization SQL. Incremental runs replace the *_SLICE markers with the affected
+   * (workspace_id, source_platform, period) slices on each source and on the advertising
+   * aggregate; every output row's key contains its slice, so the filtered query yields exactly
+   * the full rebuild's rows for those slices. In a full run the markers are plain comments.
+   */
   private static final String FULL_MATERIALIZE_SQL = """
       INSERT INTO %s
       SELECT
@@ -230,7 +244,7 @@ public class MartProductPnlMaterializer implements AnalyticsMaterializer {
                       net_payout,
                       gross_cogs,
                       cogs_status
-                  FROM mart_posting_pnl
+                  FROM mart_posting_pnl /*POSTING_SLICE*/
               ) AS posting_keys
               GROUP BY workspace_id, source_platform, seller_sku_id, product_id, period
           ) AS posting_rollup
@@ -280,8 +294,8 @@ public class MartProductPnlMaterializer implements AnalyticsMaterializer {
                   compensation_amount,
                   refund_amount,
                   net_payout
-              FROM fact_finance
-              WHERE attribution_level = 'PRODUCT'
+              FROM fact_finance FINAL
+              WHERE attribution_level = 'PRODUCT' /*FINANCE_SLICE*/
           ) AS ff_product
           GROUP BY workspace_id, source_platform, seller_sku_id_key, period
 
@@ -329,15 +343,15 @@ public class MartProductPnlMaterializer implements AnalyticsMaterializer {
                   compensation_amount,
                   refund_amount,
                   net_payout
-              FROM fact_finance
-              WHERE attribution_level = 'ACCOUNT'
+              FROM fact_finance FINAL
+              WHERE attribution_level = 'ACCOUNT' /*FINANCE_SLICE*/
           ) AS ff_account
           GROUP BY workspace_id, source_platform, period
       ) AS raw_union
       GROUP BY workspace_id, source_platform, seller_sku_id, period, attribution_level
       )
       ) AS base
-      LEFT JOIN dim_product AS p_by_id ON base.product_id = p_by_id.product_id
+      LEFT JOIN dim_product AS p_by_id FINAL ON base.product_id = p_by_id.product_id
           AND base.workspace_id = p_by_id.workspace_id
       LEFT JOIN (
           SELECT
@@ -346,7 +360,7 @@ public class MartProductPnlMaterializer implements AnalyticsMaterializer {
               anyLast(sku_code) AS sku_code,
               anyLast(marketplace_sku) AS marketplace_sku,
               anyLast(product_name) AS product_name
-          FROM dim_product
+          FROM dim_product FINAL
           GROUP BY workspace_id, seller_sku_id
       ) AS p_by_sku
           ON base.seller_sku_id = p_by_sku.seller_sku_id
@@ -358,34 +372,98 @@ public class MartProductPnlMaterializer implements AnalyticsMaterializer {
               dp.seller_sku_id,
               toYYYYMM(fa.ad_date) AS period,
               sum(fa.spend) AS ad_spend
-          FROM fact_advertising AS fa
-          INNER JOIN dim_product AS dp
+          FROM fact_advertising AS fa FINAL
+          INNER JOIN dim_product AS dp FINAL
               ON fa.marketplace_sku = dp.marketplace_sku
-              AND fa.workspace_id = dp.workspace_id
+              AND fa.workspace_id = dp.workspace_id /*AD_SLICE*/
           GROUP BY fa.workspace_id, fa.source_platform, dp.seller_sku_id, period
       ) AS ad_agg
           ON base.workspace_id = ad_agg.workspace_id
           AND base.source_platform = ad_agg.source_platform
           AND base.seller_sku_id = ad_agg.seller_sku_id
           AND base.period = ad_agg.period
-      SETTINGS final = 1
       """;
 
   private final MaterializationJdbc jdbc;
+  private final PnlSliceResolver sliceResolver;
 
   @Override
   public void materializeFull() {
     long ver = Instant.now().toEpochMilli();
     jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-      jdbc.ch().execute(FULL_MATERIALIZE_SQL.formatted(staging, ver));
+      jdbc.chInsertSelect(fullSql(staging, ver));
     });
     Long count = jdbc.ch().queryForObject("SELECT count() FROM " + TABLE, Long.class);
     log.info("Materialized mart_product_pnl: rows={}", count);
   }
 
+  /**
+   * Recomputes only the slices the job affected (resolved once per job, together with
+   * mart_posting_pnl), carries the other periods of their scopes over from the live table and
+   * swaps each affected (workspace, platform) in as a whole partition, which also drops product
+   * keys that no longer occur in the recomputed slices. Serialized per scope like
+   * {@link MartPostingPnlMaterializer#materializeIncremental}.
+   */
   @Override
   public void materializeIncremental(long jobExecutionId) {
-    materializeFull();
+    PnlSlices slices = sliceResolver.resolve(jobExecutionId);
+    if (slices.isEmpty()) {
+      log.info("Incremental mart_product_pnl skipped, no affected slices: jobExecutionId={}",
+          jobExecutionId);
+      return;
+    }
+
+    long ver = Instant.now().toEpochMilli();
+    jdbc.withAdvisoryLocks(slices.scopeLockNames(TABLE), () ->
+        jdbc.replacePartitions(TABLE, PARTITION_KEY,
+            slices.scopePredicate("workspace_id", "source_platform"), jobExecutionId, staging -> {
+              jdbc.chInsertSelect(incrementalSql(staging, slices, ver));
+              jdbc.chInsertSelect(carryOverSql(staging, slices));
+            }));
+    log.info("Incremental mart_product_pnl: jobExecutionId={}, slices={}",
+        jobExecutionId, slices.slices().size());
+  }
+
+  /**
+   * Rebuilds one workspace: the *_SLICE markers narrowed to the workspace, swapped in partition
+   * by partition. Reads mart_posting_pnl, so runs after its workspace rebuild.
+   */
+  @Override
+  public void materializeWorkspace(long workspaceId) {
+    long ver = Instant.now().toEpochMilli();
+    jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+        staging -> jdbc.ch().execute(workspaceSql(staging, workspaceId, ver)));
+    log.info("Materialized mart_product_pnl: workspaceId={}", workspaceId);
+  }
+
+  static String fullSql(String target, long ver) {
+    return FULL_MATERIALIZE_SQL.formatted(target, ver);
+  }
+
+  static String incrementalSql(String target, PnlSlices slices, long ver) {
+    String financeSlice = slices.predicate(
+        "workspace_id", "source_platform", "toYYYYMM(finance_date)");
+    return fullSql(target, ver)
+        .replace(POSTING_SLICE_MARKER, "WHERE " + financeSlice)
+        .replace(FINANCE_SLICE_MARKER, "AND " + financeSlice)
+        .replace(AD_SLICE_MARKER, "WHERE " + slices.predicate(
+            "fa.workspace_id", "fa.source_platform", "toYYYYMM(fa.ad_date)"));
+  }
+
+  /**
+   * Live rows of the affected scopes outside the recomputed slices, copied as they are.
+   */
+  static String carryOverSql(String target, PnlSlices slices) {
+    return "INSERT INTO %s SELECT * FROM %s WHERE %s AND NOT (%s)".formatted(target, TABLE,
+        slices.scopePredicate("workspace_id", "source_platform"),
+        slices.predicate("workspace_id", "source_platform", "period"));
+  }
+
+  static String workspaceSql(String target, long workspaceId, long ver) {
+    return fullSql(target, ver)
+        .replace(POSTING_SLICE_MARKER, "WHERE workspace_id = " + workspaceId)
+        .replace(FINANCE_SLICE_MARKER, "AND workspace_id = " + workspaceId)
+        .replace(AD_SLICE_MARKER, "WHERE fa.workspace_id = " + workspaceId);
   }
 
   @Override
@@ -393,6 +471,11 @@ public class MartProductPnlMaterializer implements AnalyticsMaterializer {
     return TABLE;
   }
 
+  @Override
+  public Set<String> sourceTables() {
+    return Set.of("mart_posting_pnl", "fact_finance", "fact_advertising", "dim_product");
+  }
+
   @Override
   public MaterializationPhase phase() {
     return MaterializationPhase.MART;
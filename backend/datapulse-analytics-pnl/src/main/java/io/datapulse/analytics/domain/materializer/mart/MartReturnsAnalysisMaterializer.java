@@ -1,6 +1,7 @@
 package io.datapulse.analytics.domain.materializer.mart;
 
 import java.time.Instant;
+import java.util.Set;
 
 import io.datapulse.analytics.domain.AnalyticsMaterializer;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
@@ -25,6 +26,8 @@ public class MartReturnsAnalysisMaterializer implements AnalyticsMaterializer {
 
     private static final String TABLE = "mart_returns_analysis";
 
+    private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
     private static final String FULL_MATERIALIZE_SQL = """
             INSERT INTO %s
             SELECT
@@ -58,7 +61,7 @@ public class MartReturnsAnalysisMaterializer implements AnalyticsMaterializer {
                     sum(ifNull(return_amount, toDecimal64(0, 2))) AS return_amount,
                     topK(1)(return_reason)[1] AS top_return_reason,
                     uniqExact(return_reason) AS distinct_reason_count
-                FROM fact_returns
+                FROM fact_returns /*WORKSPACE*/
                 GROUP BY workspace_id, source_platform, product_id, seller_sku_id, toYYYYMM(return_date)
             ) r
             LEFT JOIN (
@@ -70,7 +73,7 @@ public class MartReturnsAnalysisMaterializer implements AnalyticsMaterializer {
                     toYYYYMM(sale_date) AS period,
                     count() AS sale_count,
                     sum(quantity) AS sale_quantity
-                FROM fact_sales
+                FROM fact_sales /*WORKSPACE*/
                 GROUP BY workspace_id, source_platform, product_id, seller_sku_id, toYYYYMM(sale_date)
             ) s ON r.workspace_id = s.workspace_id
                 AND r.source_platform = s.source_platform
@@ -87,13 +90,25 @@ public class MartReturnsAnalysisMaterializer implements AnalyticsMaterializer {
         long ver = Instant.now().toEpochMilli();
 
         jdbc.fullMaterializeWithSwap(TABLE, staging -> {
-            jdbc.ch().execute(FULL_MATERIALIZE_SQL.formatted(staging, ver));
+            jdbc.chInsertSelect(FULL_MATERIALIZE_SQL.formatted(staging, ver));
         });
 
         Long count = jdbc.ch().queryForObject("SELECT count() FROM " + TABLE, Long.class);
         log.info("Materialized mart_returns_analysis: rows={}", count);
     }
 
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+        long ver = Instant.now().toEpochMilli();
+
+        jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId, staging -> {
+            jdbc.ch().execute(FULL_MATERIALIZE_SQL.formatted(staging, ver)
+                    .replace(WORKSPACE_MARKER, "WHERE workspace_id = " + workspaceId));
+        });
+
+        log.info("Materialized mart_returns_analysis: workspaceId={}", workspaceId);
+    }
+
     @Override
     public void materializeIncremental(long jobExecutionId) {
         materializeFull();
@@ -104,6 +119,11 @@ public class MartReturnsAnalysisMaterializer implements AnalyticsMaterializer {
         return TABLE;
     }
 
+    @Override
+    public Set<String> sourceTables() {
+        return Set.of("fact_returns", "fact_sales");
+    }
+
     @Override
     public MaterializationPhase phase() {
         return MaterializationPhase.MART;
@@ -0,0 +1,99 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import java.time.Instant;
+import java.util.Set;
+
+import io.datapulse.analytics.domain.AnalyticsMaterializer;
+import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Materializes mart_returns_trend, the returns trend rollup: returned and sold quantity per
+ * (workspace_id, source_platform, grain, bucket) at DAY, WEEK and MONTH grain, from
+ * fact_returns + fact_sales. The return rate is derived at read time from the summed
+ * quantities, so any set of buckets can be combined.
+ *
+ * <p>Like mart_returns_analysis, an incremental run rebuilds the whole table.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MartReturnsTrendMaterializer implements AnalyticsMaterializer {
+
+  private static final String TABLE = "mart_returns_trend";
+  private static final String WORKSPACE_MARKER = "/*WORKSPACE*/";
+
+  private static final String FULL_MATERIALIZE_SQL = """
+      INSERT INTO %s
+      SELECT
+          workspace_id,
+          source_platform,
+          grain,
+          bucket,
+          sum(return_quantity) AS return_quantity,
+          sum(sale_quantity) AS sale_quantity,
+          %d AS ver
+      FROM (
+          SELECT workspace_id, source_platform, return_date AS day,
+                 toInt64(quantity) AS return_quantity, toInt64(0) AS sale_quantity
+          FROM fact_returns /*WORKSPACE*/
+          UNION ALL
+          SELECT workspace_id, source_platform, sale_date AS day,
+                 toInt64(0) AS return_quantity, toInt64(quantity) AS sale_quantity
+          FROM fact_sales /*WORKSPACE*/
+      )
+      ARRAY JOIN
+          ['DAY', 'WEEK', 'MONTH'] AS grain,
+          [day, toStartOfWeek(day), toStartOfMonth(day)] AS bucket
+      GROUP BY workspace_id, source_platform, grain, bucket
+      SETTINGS final = 1
+      """;
+
+  private final MaterializationJdbc jdbc;
+
+  @Override
+  public void materializeFull() {
+    long ver = Instant.now().toEpochMilli();
+    jdbc.fullMaterializeWithSwap(TABLE,
+        staging -> jdbc.chInsertSelect(fullSql(staging, ver).replace(WORKSPACE_MARKER, "")));
+    Long count = jdbc.ch().queryForObject("SELECT count() FROM " + TABLE, Long.class);
+    log.info("Materialized mart_returns_trend: rows={}", count);
+  }
+
+  @Override
+  public void materializeWorkspace(long workspaceId) {
+    long ver = Instant.now().toEpochMilli();
+    jdbc.workspaceMaterializeWithReplace(TABLE, workspaceId,
+        staging -> jdbc.ch().execute(fullSql(staging, ver)
+            .replace(WORKSPACE_MARKER, "WHERE workspace_id = " + workspaceId)));
+    log.info("Materialized mart_returns_trend: workspaceId={}", workspaceId);
+  }
+
+  @Override
+  public void materializeIncremental(long jobExecutionId) {
+    materializeFull();
+  }
+
+  static String fullSql(String target, long ver) {
+    return FULL_MATERIALIZE_SQL.formatted(target, ver);
+  }
+
+  @Override
+  public String tableName() {
+    return TABLE;
+  }
+
+  @Override
+  public Set<String> sourceTables() {
+    return Set.of("fact_returns", "fact_sales");
+  }
+
+  @Override
+  public MaterializationPhase phase() {
+    return MaterializationPhase.MART;
+  }
+}
@@ -0,0 +1,201 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the P&L mart slices affected since the marts were last brought up to date, shared by
+ * {@link MartPostingPnlMaterializer}, {@link MartProductPnlMaterializer} and
+ * {@link MartPnlTrendMaterializer}.
+ *
+ * <p>Fact rows are found by {@code ver}: the fact materializers stream the canonical change feed,
+ * so a fact row with {@code ver} past the slice cursor (watermark {@code pnl_slices}, minus
+ * {@code change-feed-overlap}) changed since the last acknowledged run, whichever job or edit
+ * wrote it. fact_advertising is written by ETL directly and stays scoped to the job.</p>
+ *
+ * <p>A slice is affected when fact_finance or fact_advertising rows changed in it, when it holds
+ * mart rows of a SKU whose cost profile changed, or when it is the home period of an affected
+ * posting before or after the change. A posting is affected when its finance or sales rows
+ * changed, or finance rows of its order (order-level acquiring and the pro-rata revenue
+ * denominator). A posting's home period is {@code toYYYYMM(finance_date)} of its mart row, which
+ * moves when e.g. the first SALE_ACCRUAL arrives, so both the old and the new home are
+ * recomputed.</p>
+ *
+ * <p>The old home is only visible in mart_posting_pnl until the posting mart has been replaced,
+ * so the slices of a job are kept per {@code jobExecutionId} and reused by the marts that run
+ * after it; the last of them calls {@link #acknowledge}, which moves the cursor and drops them.
+ * The cursor moves to the highest fact {@code ver} present before the slices were read, never to
+ * the wall clock: a concurrent fact run may still be inserting rows older than the resolution
+ * time, and those rows stay past the cursor until a resolution sees them. The cursor never moves
+ * back. Concurrent runs of different jobs each keep their own resolution. A run that fails before
+ * acknowledging leaves its entry behind until {@link #STALE_AFTER}. Dim_product changes are
+ * picked up by the daily reconciliation.</p>
+ */
+@Slf4j
+@Component
+class PnlSliceResolver {
+
+  static final String WATERMARK_KEY = "pnl_slices";
+
+  /** Age after which the resolution of a run that never acknowledged is dropped. */
+  static final Duration STALE_AFTER = Duration.ofDays(1);
+
+  /** Highest {@code ver} of the fact tables the slices are resolved from by {@code ver}. */
+  private static final String MAX_FACT_VER_SQL = """
+      SELECT greatest(
+          (SELECT max(ver) FROM fact_finance),
+          (SELECT max(ver) FROM fact_sales),
+          (SELECT max(ver) FROM fact_product_cost))
+      """;
+
+  private static final String AFFECTED_SLICES_SQL = """
+      WITH
+          cost_changes AS (
+              SELECT DISTINCT workspace_id, seller_sku_id
+              FROM fact_product_cost
+              WHERE ver > %2$d
+          ),
+          job_orders AS (
+              SELECT DISTINCT workspace_id, source_platform, order_id
+              FROM fact_finance
+              WHERE ver > %2$d
+                AND order_id IS NOT NULL AND order_id != ''
+          ),
+          affected_postings AS (
+              SELECT workspace_id, source_platform, posting_id
+              FROM fact_finance
+              WHERE ver > %2$d
+                AND posting_id IS NOT NULL AND posting_id != ''
+              UNION DISTINCT
+              SELECT workspace_id, source_platform, posting_id
+              FROM fact_sales
+              WHERE ver > %2$d
+                AND posting_id IS NOT NULL AND posting_id != ''
+              UNION DISTINCT
+              SELECT workspace_id, source_platform, posting_id
+              FROM fact_finance
+              WHERE attribution_level = 'POSTING'
+                AND posting_id IS NOT NULL AND posting_id != ''
+                AND (workspace_id, source_platform, order_id) IN (SELECT * FROM job_orders)
+          )
+      SELECT DISTINCT workspace_id, source_platform, period
+      FROM (
+          -- changed rows (PRODUCT / ACCOUNT sources of the product mart)
+          SELECT workspace_id, source_platform, toYYYYMM(finance_date) AS period
+          FROM fact_finance
+          WHERE ver > %2$d
+          UNION ALL
+          SELECT workspace_id, source_platform, toYYYYMM(ad_date) AS period
+          FROM fact_advertising
+          WHERE job_execution_id = %1$d
+          UNION ALL
+          -- home period of affected postings after the change (same rule as mart_posting_pnl)
+          SELECT workspace_id, source_platform, toYYYYMM(home_date) AS period
+          FROM (
+              SELECT
+                  workspace_id,
+                  source_platform,
+                  coalesce(
+                      minIf(finance_date, entry_type = 'SALE_ACCRUAL'),
+                      min(finance_date)
+                  ) AS home_date
+              FROM fact_finance
+              WHERE attribution_level = 'POSTING'
+                AND (workspace_id, source_platform, posting_id)
+                    IN (SELECT * FROM affected_postings)
+              GROUP BY workspace_id, source_platform, posting_id
+          )
+          UNION ALL
+          -- home period of affected postings before the change
+          SELECT workspace_id, source_platform, toYYYYMM(finance_date) AS period
+          FROM mart_posting_pnl
+          WHERE (workspace_id, source_platform, posting_id) IN (SELECT * FROM affected_postings)
+          UNION ALL
+          -- mart rows costed with a changed cost profile
+          SELECT workspace_id, source_platform, toYYYYMM(finance_date) AS period
+          FROM mart_posting_pnl
+          WHERE (workspace_id, seller_sku_id) IN (SELECT * FROM cost_changes)
+          UNION ALL
+          SELECT workspace_id, source_platform, period
+          FROM mart_product_pnl
+          WHERE (workspace_id, seller_sku_id) IN (SELECT * FROM cost_changes)
+      )
+      ORDER BY workspace_id, source_platform, period
+      SETTINGS final = 1
+      """;
+
+  private final MaterializationJdbc jdbc;
+  private final Duration overlap;
+
+  private final Map<Long, Resolution> resolutions = new ConcurrentHashMap<>();
+
+  private record Resolution(PnlSlices slices, long resolvedVer, Instant resolvedAt) {
+  }
+
+  PnlSliceResolver(MaterializationJdbc jdbc, AnalyticsProperties properties) {
+    this.jdbc = jdbc;
+    this.overlap = properties.changeFeedOverlap();
+  }
+
+  PnlSlices resolve(long jobExecutionId) {
+    Resolution cached = resolutions.get(jobExecutionId);
+    if (cached != null) {
+      return cached.slices();
+    }
+
+    Instant resolvedAt = Instant.now();
+    resolutions.values().removeIf(r -> r.resolvedAt().isBefore(resolvedAt.minus(STALE_AFTER)));
+    Instant cursor = jdbc.getWatermark(WATERMARK_KEY);
+    long sinceVer = cursor == null ? 0 : cursor.minus(overlap).toEpochMilli();
+    Long maxVer = jdbc.ch().queryForObject(MAX_FACT_VER_SQL, Long.class);
+
+    List<PnlSlices.Slice> slices = jdbc.ch().query(
+        AFFECTED_SLICES_SQL.formatted(jobExecutionId, sinceVer),
+        (rs, rowNum) -> new PnlSlices.Slice(
+            rs.getLong("workspace_id"),
+            rs.getString("source_platform"),
+            rs.getInt("period")));
+    PnlSlices resolved = new PnlSlices(jobExecutionId, slices);
+    resolutions.put(jobExecutionId,
+        new Resolution(resolved, maxVer == null ? 0 : maxVer, resolvedAt));
+    log.info("Resolved P&L slices: jobExecutionId={}, sinceVer={}, slices={}",
+        jobExecutionId, sinceVer, slices.size());
+    return resolved;
+  }
+
+  /**
+   * Moves the slice cursor to {@code rebuiltFrom} after a full re-materialization: every change
+   * before it is already in the marts. {@code rebuiltFrom} is the start of the whole run, taken
+   * before the first P&L mart read its facts.
+   */
+  void reset(Instant rebuiltFrom) {
+    resolutions.clear();
+    jdbc.updateWatermark(WATERMARK_KEY, rebuiltFrom);
+  }
+
+  /**
+   * Moves the slice cursor to the highest fact {@code ver} the resolution of
+   * {@code jobExecutionId} covered, once every P&L mart has been rebuilt from it. A run that fails
+   * before this re-resolves the same changes next time.
+   */
+  void acknowledge(long jobExecutionId) {
+    Resolution resolved = resolutions.remove(jobExecutionId);
+    if (resolved == null) {
+      return;
+    }
+    Instant covered = Instant.ofEpochMilli(resolved.resolvedVer());
+    Instant cursor = jdbc.getWatermark(WATERMARK_KEY);
+    if (cursor == null || covered.isAfter(cursor)) {
+      jdbc.updateWatermark(WATERMARK_KEY, covered);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The (workspace_id, source_platform, period) slices of the P&L marts affected by one ingest
+ * job, rendered as ClickHouse tuple lists for {@code IN} predicates. {@code period} is
+ * {@code toYYYYMM} of the finance (or advertising) date. The marts are partitioned by the
+ * (workspace_id, source_platform) scope of a slice.
+ */
+record PnlSlices(long jobExecutionId, List<Slice> slices) {
+
+  record Slice(long workspaceId, String sourcePlatform, int period) {
+  }
+
+  boolean isEmpty() {
+    return slices.isEmpty();
+  }
+
+  /**
+   * {@code (ws, platform, period) IN (...)} over the given column expressions.
+   */
+  String predicate(String workspaceColumn, String platformColumn, String periodExpression) {
+    return "(%s, %s, %s) IN (%s)".formatted(
+        workspaceColumn, platformColumn, periodExpression,
+        slices.stream()
+            .map(s -> "(%d, %s, %d)".formatted(
+                s.workspaceId(), quote(s.sourcePlatform()), s.period()))
+            .collect(Collectors.joining(", ")));
+  }
+
+  /**
+   * {@code (ws, platform) IN (...)}: prunes joined sub-aggregates to the affected tenants
+   * without changing the rows that join to a slice.
+   */
+  String scopePredicate(String workspaceColumn, String platformColumn) {
+    return "(%s, %s) IN (%s)".formatted(
+        workspaceColumn, platformColumn,
+        slices.stream()
+            .map(s -> "(%d, %s)".formatted(s.workspaceId(), quote(s.sourcePlatform())))
+            .distinct()
+            .collect(Collectors.joining(", ")));
+  }
+
+  /**
+   * One lock name per affected (ws, platform) scope of {@code table}, e.g.
+   * {@code mart_posting_pnl:7:WB}.
+   */
+  List<String> scopeLockNames(String table) {
+    return slices.stream()
+        .map(s -> "%s:%d:%s".formatted(table, s.workspaceId(), s.sourcePlatform()))
+        .distinct()
+        .toList();
+  }
+
+  private static String quote(String value) {
+    return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+  }
+}
@@ -0,0 +1,22 @@
+package io.datapulse.analytics.persistence;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read repository method whose result may be served from
+ * {@link io.datapulse.analytics.config.AnalyticsQueryCache}. The result must depend only on the
+ * arguments and on the listed tables: the entry is dropped from use as soon as the
+ * {@code materialization_watermark} version of any of them changes.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedRead {
+
+  /**
+   * ClickHouse tables the query reads.
+   */
+  String[] tables();
+}
@@ -0,0 +1,123 @@
+package io.datapulse.analytics.persistence;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeCursor;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedResult;
+import io.datapulse.platform.clickhouse.RowBinaryEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Incremental path of the fact materializers: transfers the canonical rows changed since the
+ * fact table's cursor ({@code materialization_cursor}, PostgreSQL), in {@code (updated_at, id)}
+ * keyset order. Every canonical write bumps {@code updated_at}, so the feed also carries changes
+ * made outside ETL (e.g. cost profile edits), and it does not depend on which job wrote a row.
+ *
+ * <p>{@code updated_at} is the writing transaction's start time, so a row can commit after rows
+ * with a later timestamp. Each run therefore starts {@code change-feed-overlap} before the
+ * cursor; rows re-sent from the overlap replace themselves in the ReplacingMergeTree facts.</p>
+ *
+ * <p>A full re-materialization resets the cursor to its own start. Hard deletes are not in the
+ * feed and are only reconciled by a full re-materialization.</p>
+ */
+@Slf4j
+@Component
+public class FactChangeFeed {
+
+  private static final String FIND_CURSOR = """
+      SELECT cursor_updated_at, cursor_id
+      FROM materialization_cursor
+      WHERE table_name = :table
+      """;
+
+  private static final String SAVE_CURSOR = """
+      INSERT INTO materialization_cursor (table_name, cursor_updated_at, cursor_id, updated_at)
+      VALUES (:table, :updatedAt, :id, now())
+      ON CONFLICT (table_name) DO UPDATE SET
+          cursor_updated_at = EXCLUDED.cursor_updated_at,
+          cursor_id = EXCLUDED.cursor_id,
+          updated_at = now()
+      """;
+
+  private final MaterializationJdbc jdbc;
+  private final PgToClickHouseTransfer transfer;
+  private final Duration overlap;
+
+  public FactChangeFeed(MaterializationJdbc jdbc, PgToClickHouseTransfer transfer,
+                        AnalyticsProperties properties) {
+    this.jdbc = jdbc;
+    this.transfer = transfer;
+    this.overlap = properties.changeFeedOverlap();
+  }
+
+  /**
+   * PostgreSQL clock, the one {@code updated_at} is written with. Taken before a full
+   * re-materialization reads its source and passed to {@link #reset} afterwards.
+   */
+  public Instant databaseNow() {
+    return jdbc.pg().queryForObject("SELECT now()", Map.of(), OffsetDateTime.class).toInstant();
+  }
+
+  /**
+   * Restarts the feed of {@code table} at {@code changesFrom}: everything changed before it is
+   * already in ClickHouse.
+   */
+  public void reset(String table, Instant changesFrom) {
+    save(table, new ChangeCursor(changesFrom, 0));
+  }
+
+  /**
+   * Transfers the rows changed since the cursor of {@code table} and advances it past the last
+   * one.
+   *
+   * @return rows transferred; empty when the table has no cursor yet, in which case the caller
+   *     re-materializes it fully
+   */
+  public <T> OptionalLong transferChanges(String table, ChangeFeedQuery<T> query,
+                                          List<String> columns,
+                                          RowBinaryEncoder<? super T> encoder) {
+    Optional<ChangeCursor> cursor = find(table);
+    if (cursor.isEmpty()) {
+      log.info("No change feed cursor, full re-materialization required: table={}", table);
+      return OptionalLong.empty();
+    }
+
+    ChangeCursor from = new ChangeCursor(cursor.get().updatedAt().minus(overlap), 0);
+    ChangeFeedResult result = transfer.transferChanges(query, from, table, columns, encoder);
+    if (result.cursor() != null && isAfter(result.cursor(), cursor.get())) {
+      save(table, result.cursor());
+    }
+    return OptionalLong.of(result.rows());
+  }
+
+  private static boolean isAfter(ChangeCursor candidate, ChangeCursor current) {
+    int byTime = candidate.updatedAt().compareTo(current.updatedAt());
+    return byTime > 0 || (byTime == 0 && candidate.id() > current.id());
+  }
+
+  private Optional<ChangeCursor> find(String table) {
+    return jdbc.pg().query(FIND_CURSOR, Map.of("table", table),
+            (rs, rowNum) -> new ChangeCursor(
+                rs.getTimestamp("cursor_updated_at").toInstant(),
+                rs.getLong("cursor_id")))
+        .stream()
+        .findFirst();
+  }
+
+  private void save(String table, ChangeCursor cursor) {
+    jdbc.pg().update(SAVE_CURSOR, Map.of(
+        "table", table,
+        "updatedAt", Timestamp.from(cursor.updatedAt()),
+        "id", cursor.id()));
+  }
+}
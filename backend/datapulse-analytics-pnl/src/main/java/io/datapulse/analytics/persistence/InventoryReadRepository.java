@@ -23,8 +23,6 @@ public class InventoryReadRepository {
 
   private final ClickHouseReadJdbc jdbc;
 
-  private static final String SETTINGS_FINAL = "\nSETTINGS final = 1";
-
   private static final Map<String, String> SORT_WHITELIST = Map.of(
       "daysOfCover", "days_of_cover",
       "available", "available",
@@ -58,7 +56,7 @@ public class InventoryReadRepository {
           argMax(cost_price, ver) AS cost_price,
           argMax(frozen_capital, ver) AS frozen_capital,
           argMax(recommended_replenishment, ver) AS recommended_replenishment
-      FROM mart_inventory_analysis FINAL
+      FROM mart_inventory_analysis
       WHERE workspace_id = :workspaceId
       GROUP BY workspace_id, product_id, warehouse_id
       """;
@@ -96,9 +94,9 @@ public class InventoryReadRepository {
       FROM (
       """ + MART_INVENTORY_LATEST + """
       ) AS m
-      LEFT JOIN dim_product AS p
+      LEFT JOIN dim_product AS p FINAL
           ON m.product_id = p.product_id AND m.workspace_id = p.workspace_id
-      LEFT JOIN dim_warehouse AS w ON m.warehouse_id = w.warehouse_id
+      LEFT JOIN dim_warehouse AS w FINAL ON m.warehouse_id = w.warehouse_id
       WHERE m.stock_out_risk = 'CRITICAL'
       ORDER BY m.days_of_cover ASC NULLS FIRST, m.available ASC
       LIMIT 10
@@ -125,9 +123,9 @@ public class InventoryReadRepository {
       FROM (
       """ + MART_INVENTORY_LATEST + """
       ) AS m
-      LEFT JOIN dim_product AS p
+      LEFT JOIN dim_product AS p FINAL
           ON m.product_id = p.product_id AND m.workspace_id = p.workspace_id
-      LEFT JOIN dim_warehouse AS w ON m.warehouse_id = w.warehouse_id
+      LEFT JOIN dim_warehouse AS w FINAL ON m.warehouse_id = w.warehouse_id
       WHERE 1 = 1
       """;
 
@@ -162,10 +160,10 @@ public class InventoryReadRepository {
       SETTINGS final = 1
       """;
 
+  @CachedRead(tables = {"mart_inventory_analysis", "dim_product", "dim_warehouse"})
   public InventoryOverviewResponse findOverview(long workspaceId) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
     var sb = new StringBuilder(OVERVIEW_SQL);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().queryForObject(sb.toString(), params, (rs, rowNum) ->
         new InventoryOverviewResponse(
@@ -178,13 +176,14 @@ public class InventoryReadRepository {
         ));
   }
 
+  @CachedRead(tables = {"mart_inventory_analysis", "dim_product", "dim_warehouse"})
   public List<ProductInventoryResponse> findTopCritical(long workspaceId) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
     var sb = new StringBuilder(TOP_CRITICAL_SQL);
-    sb.append(SETTINGS_FINAL);
     return jdbc.ch().query(sb.toString(), params, this::mapProductInventory);
   }
 
+  @CachedRead(tables = {"mart_inventory_analysis", "dim_product", "dim_warehouse"})
   public List<ProductInventoryResponse> findByProduct(
       long workspaceId, InventoryFilter filter,
       String sortColumn, String sortDirection,
@@ -199,28 +198,28 @@ public class InventoryReadRepository {
     sb.append(" LIMIT :limit OFFSET :offset");
     params.addValue("limit", limit);
     params.addValue("offset", offset);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().query(sb.toString(), params, this::mapProductInventory);
   }
 
+  @CachedRead(tables = {"mart_inventory_analysis", "dim_product", "dim_warehouse"})
   public long countByProduct(long workspaceId, InventoryFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
     var sb = new StringBuilder("""
         SELECT count(*) FROM (
         """ + MART_INVENTORY_LATEST + """
         ) AS m
-        LEFT JOIN dim_product AS p
+        LEFT JOIN dim_product AS p FINAL
             ON m.product_id = p.product_id AND m.workspace_id = p.workspace_id
         WHERE 1 = 1
         """);
     appendProductFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     Long result = jdbc.ch().queryForObject(sb.toString(), params, Long.class);
     return result != null ? result : 0L;
   }
 
+  @CachedRead(tables = {"fact_inventory_snapshot", "dim_warehouse"})
   public List<StockHistoryResponse> findStockHistory(
       long workspaceId, long productId,
       LocalDate from, LocalDate to) {
@@ -240,6 +239,7 @@ public class InventoryReadRepository {
         ));
   }
 
+  @CachedRead(tables = {"fact_inventory_snapshot", "dim_warehouse"})
   public List<StockHistoryResponse> findAggregateStockHistory(
       long workspaceId, LocalDate from, LocalDate to) {
     var params = new MapSqlParameterSource()
@@ -1,13 +1,25 @@
 package io.datapulse.analytics.persistence;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Consumer;
 
+import io.datapulse.platform.clickhouse.ClickHouseBulkInserter;
+import io.datapulse.platform.clickhouse.ClickHouseStatements;
+import io.datapulse.platform.clickhouse.RowBinaryEncoder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -17,12 +29,15 @@ public class MaterializationJdbc {
 
   private final NamedParameterJdbcTemplate pg;
   private final JdbcTemplate ch;
+  private final ClickHouseBulkInserter bulkInserter;
 
   public MaterializationJdbc(
       NamedParameterJdbcTemplate pgJdbcTemplate,
-      @Qualifier("clickhouseJdbcTemplate") JdbcTemplate clickhouseJdbcTemplate) {
+      @Qualifier("clickhouseJdbcTemplate") JdbcTemplate clickhouseJdbcTemplate,
+      ClickHouseBulkInserter bulkInserter) {
     this.pg = pgJdbcTemplate;
     this.ch = clickhouseJdbcTemplate;
+    this.bulkInserter = bulkInserter;
   }
 
   public NamedParameterJdbcTemplate pg() {
@@ -33,6 +48,36 @@ public class MaterializationJdbc {
     return ch;
   }
 
+  /**
+   * RowBinary bulk insert of {@code rows} into ClickHouse {@code table}, without the
+   * per-insert partition limit; see {@link ClickHouseBulkInserter#insert}.
+   */
+  public <T> long chInsert(String table, List<String> columns, Iterable<? extends T> rows,
+                           RowBinaryEncoder<? super T> encoder) {
+    return bulkInserter.insert(table, columns, rows, encoder,
+        ClickHouseStatements.NO_PARTITION_LIMIT);
+  }
+
+  /**
+   * {@code INSERT ... SELECT} that may span every workspace (full re-materialization, incremental
+   * runs), without the per-insert partition limit. Tables are partitioned per workspace, so such
+   * an insert writes one partition per tenant; other statements through {@link #ch()} keep the
+   * limit.
+   */
+  public void chInsertSelect(String sql) {
+    ClickHouseStatements.execute(ch, sql, ClickHouseStatements.NO_PARTITION_LIMIT);
+  }
+
+  /**
+   * JDBC batch insert of {@code rows} that may span every workspace, without the per-insert
+   * partition limit; see {@link #chInsertSelect}.
+   */
+  public <T> void chBatchInsert(String sql, List<T> rows,
+                                ParameterizedPreparedStatementSetter<T> setter) {
+    ClickHouseStatements.batchUpdate(ch, sql, rows, setter,
+        ClickHouseStatements.NO_PARTITION_LIMIT);
+  }
+
   /**
    * Two-phase staging swap for full re-materialization.
    * Creates an empty staging table, populates it via the provided callback,
@@ -58,6 +103,211 @@ public class MaterializationJdbc {
     }
   }
 
+  /**
+   * Per-workspace counterpart of {@link #fullMaterializeWithSwap}: populates a staging table with
+   * the rows of one workspace, then swaps each of its partitions into the live table with
+   * {@code REPLACE PARTITION} and drops the workspace's live partitions that the rebuild no longer
+   * produced. Other workspaces' partitions are never touched.
+   *
+   * <p>Requires a partition key that starts with {@code workspace_id} (see
+   * {@code 0014-workspace-partitions.sql}); fails before touching the live table otherwise, or
+   * when staging contains rows of another workspace. Each partition is replaced atomically, the
+   * workspace as a whole is not.</p>
+   *
+   * @param table           live table name
+   * @param workspaceId     workspace to rebuild
+   * @param populateStaging callback that inserts the workspace's rows into the staging table name
+   *                        it receives
+   */
+  public void workspaceMaterializeWithReplace(String table, long workspaceId,
+                                              Consumer<String> populateStaging) {
+    requireWorkspacePartitioned(table);
+    String staging = table + "_staging_ws" + workspaceId;
+    ch.execute("DROP TABLE IF EXISTS " + staging);
+    ch.execute("CREATE TABLE " + staging + " AS " + table);
+    try {
+      populateStaging.accept(staging);
+
+      Long foreign = ch.queryForObject(
+          "SELECT count() FROM %s WHERE workspace_id != ?".formatted(staging),
+          Long.class, workspaceId);
+      if (foreign != null && foreign > 0) {
+        throw new IllegalStateException(
+            "Workspace staging contains other workspaces: table=%s, workspaceId=%d, rows=%d"
+                .formatted(table, workspaceId, foreign));
+      }
+
+      List<String> live = ch.queryForList(
+          "SELECT DISTINCT _partition_id FROM %s WHERE workspace_id = ?".formatted(table),
+          String.class, workspaceId);
+      int replaced = swapInPartitions(table, staging, live);
+      log.debug("Workspace partitions replaced: table={}, workspaceId={}, replaced={}",
+          table, workspaceId, replaced);
+    } catch (Exception e) {
+      log.warn("Workspace partition replace failed: table={}, workspaceId={}",
+          table, workspaceId, e);
+      throw e;
+    } finally {
+      ch.execute("DROP TABLE IF EXISTS " + staging);
+    }
+  }
+
+  /**
+   * Incremental counterpart of {@link #workspaceMaterializeWithReplace}: rebuilds the partitions
+   * matched by {@code partitionPredicate} as a whole. The staging table must receive their
+   * complete new content; each staged partition replaces the live one with
+   * {@code REPLACE PARTITION}, matched live partitions that came out empty are dropped. Readers see
+   * either the old or the new content of a partition, never both, so the table needs no
+   * {@code FINAL} to be free of duplicate keys.
+   *
+   * <p>{@code partitionPredicate} must be over {@code partitionKey} only, and the table must be
+   * partitioned by exactly that key; otherwise a partition could hold rows the rebuild does not
+   * produce. Fails before touching the live table when the key differs or when staging holds
+   * rows outside the predicate.</p>
+   *
+   * @param table              live table name
+   * @param partitionKey       expected partition key, e.g.
+   *                           {@code workspace_id, source_platform, toYYYYMM(finance_date)}
+   * @param partitionPredicate predicate selecting the partitions to rebuild
+   * @param jobExecutionId     job the rebuild belongs to; names the staging table
+   * @param populateStaging    callback that inserts the partitions' rows into the staging table
+   *                           name it receives
+   */
+  public void replacePartitions(String table, String partitionKey, String partitionPredicate,
+                                long jobExecutionId, Consumer<String> populateStaging) {
+    requirePartitionKey(table, partitionKey);
+    String staging = table + "_staging_job" + jobExecutionId;
+    ch.execute("DROP TABLE IF EXISTS " + staging);
+    ch.execute("CREATE TABLE " + staging + " AS " + table);
+    try {
+      populateStaging.accept(staging);
+
+      Long outside = ch.queryForObject(
+          "SELECT count() FROM %s WHERE NOT (%s)".formatted(staging, partitionPredicate),
+          Long.class);
+      if (outside != null && outside > 0) {
+        throw new IllegalStateException(
+            "Partition staging contains rows outside the rebuilt partitions: table=%s, rows=%d"
+                .formatted(table, outside));
+      }
+
+      List<String> live = ch.queryForList(
+          "SELECT DISTINCT _partition_id FROM %s WHERE %s".formatted(table, partitionPredicate),
+          String.class);
+      int replaced = swapInPartitions(table, staging, live);
+      log.debug("Partitions replaced: table={}, jobExecutionId={}, replaced={}, matched={}",
+          table, jobExecutionId, replaced, live.size());
+    } catch (Exception e) {
+      log.warn("Partition replace failed: table={}, jobExecutionId={}",
+          table, jobExecutionId, e);
+      throw e;
+    } finally {
+      ch.execute("DROP TABLE IF EXISTS " + staging);
+    }
+  }
+
+  /**
+   * Runs {@code action} while holding a PostgreSQL session advisory lock for each of
+   * {@code lockNames}, so actions sharing a name run one at a time across all instances. The
+   * locks are taken in key order, so two callers with overlapping names cannot deadlock, on one
+   * pooled connection kept for the duration of {@code action}; they are released when it returns
+   * or throws, and by PostgreSQL when the connection dies.
+   *
+   * @param lockNames names of the locks to hold, e.g. {@code mart_posting_pnl:7:WB}
+   * @param action    work to run under the locks
+   */
+  public void withAdvisoryLocks(Collection<String> lockNames, Runnable action) {
+    List<Long> keys = lockNames.stream()
+        .map(MaterializationJdbc::advisoryLockKey)
+        .distinct()
+        .sorted()
+        .toList();
+    pg.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+      List<Long> held = new ArrayList<>();
+      try {
+        for (Long key : keys) {
+          advisoryLock(connection, "SELECT pg_advisory_lock(?)", key);
+          held.add(key);
+        }
+        action.run();
+      } finally {
+        for (int i = held.size() - 1; i >= 0; i--) {
+          advisoryLock(connection, "SELECT pg_advisory_unlock(?)", held.get(i));
+        }
+      }
+      return null;
+    });
+  }
+
+  private static void advisoryLock(Connection connection, String sql, long key)
+      throws SQLException {
+    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+      ps.setLong(1, key);
+      ps.execute();
+    }
+  }
+
+  /**
+   * Stable 64-bit key of a lock name, the same on every instance.
+   */
+  static long advisoryLockKey(String lockName) {
+    return UUID.nameUUIDFromBytes(lockName.getBytes(StandardCharsets.UTF_8))
+        .getMostSignificantBits();
+  }
+
+  /**
+   * Replaces every partition of {@code staging} into {@code table} and drops the {@code live}
+   * partitions staging does not have. Returns the number of replaced partitions.
+   */
+  private int swapInPartitions(String table, String staging, List<String> live) {
+    List<String> staged = ch.queryForList(
+        "SELECT DISTINCT _partition_id FROM " + staging, String.class);
+    for (String partition : staged) {
+      ch.execute("ALTER TABLE %s REPLACE PARTITION ID '%s' FROM %s"
+          .formatted(table, partition, staging));
+    }
+    for (String partition : live) {
+      if (!staged.contains(partition)) {
+        ch.execute("ALTER TABLE %s DROP PARTITION ID '%s'".formatted(table, partition));
+      }
+    }
+    return staged.size();
+  }
+
+  private void requirePartitionKey(String table, String partitionKey) {
+    String actual = partitionKeyOf(table);
+    if (actual == null || !normalizeKey(actual).equals(normalizeKey(partitionKey))) {
+      throw new IllegalStateException(
+          "Unexpected partition key: table=%s, partitionKey=%s, expected=%s"
+              .formatted(table, actual, partitionKey));
+    }
+  }
+
+  private static String normalizeKey(String key) {
+    String compact = key.replaceAll("\\s", "");
+    if (compact.startsWith("(") && compact.endsWith(")")) {
+      return compact.substring(1, compact.length() - 1);
+    }
+    return compact;
+  }
+
+  private String partitionKeyOf(String table) {
+    List<String> keys = ch.queryForList("""
+        SELECT partition_key FROM system.tables
+        WHERE database = currentDatabase() AND name = ?
+        """, String.class, table);
+    return keys.isEmpty() ? null : keys.get(0);
+  }
+
+  private void requireWorkspacePartitioned(String table) {
+    String key = partitionKeyOf(table);
+    if (key == null || !key.replace("(", "").strip().startsWith("workspace_id")) {
+      throw new IllegalStateException(
+          "Table is not partitioned by workspace_id: table=%s, partitionKey=%s"
+              .formatted(table, key));
+    }
+  }
+
   public Instant getWatermark(String tableName) {
     List<Timestamp> results = ch.query(
         "SELECT last_materialized_at FROM materialization_watermark FINAL WHERE table_name = ?",
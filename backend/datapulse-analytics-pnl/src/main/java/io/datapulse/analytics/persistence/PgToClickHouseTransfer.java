@@ -0,0 +1,338 @@
+package io.datapulse.analytics.persistence;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.platform.clickhouse.RowBinaryEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * PostgreSQL → ClickHouse transfer of the fact materializers.
+ *
+ * <p>PostgreSQL is read in keyset pages ({@code WHERE <key> > :afterKey ORDER BY <key>
+ * LIMIT :limit}), so every page is an index range scan instead of an ever-growing
+ * {@code OFFSET}. Rows are mapped by a typed {@link RowMapper} into a pool of reused page
+ * buffers. Pages are read on the calling thread and handed through a bounded queue
+ * ({@code transfer-queue-batches}) to a consumer on {@code analyticsTransferExecutor} that
+ * inserts them via {@link MaterializationJdbc#chInsert}, so the next page is read while the
+ * previous one is being inserted.</p>
+ *
+ * <p>When no consumer thread is available the pages are read and inserted alternately on the
+ * calling thread.</p>
+ *
+ * <p>{@link #transferChanges} reads a change feed the same way, paging on the composite key
+ * {@code (updated_at, id)}.</p>
+ */
+@Slf4j
+@Component
+public class PgToClickHouseTransfer {
+
+  private static final long QUEUE_TIMEOUT_MS = 1_000;
+
+  /** Marks the end of the page stream; compared by identity. */
+  private static final List<Object> END = new ArrayList<>(0);
+
+  private final MaterializationJdbc jdbc;
+  private final AnalyticsProperties properties;
+  private final Executor transferExecutor;
+
+  public PgToClickHouseTransfer(MaterializationJdbc jdbc,
+                                AnalyticsProperties properties,
+                                @Qualifier("analyticsTransferExecutor") Executor transferExecutor) {
+    this.jdbc = jdbc;
+    this.properties = properties;
+    this.transferExecutor = transferExecutor;
+  }
+
+  /**
+   * Keyset-paginated PostgreSQL source. {@code sql} must filter on {@code > :afterKey}, order by
+   * the same column and end with {@code LIMIT :limit}; {@code key} returns that column of a
+   * mapped row.
+   */
+  public record KeysetQuery<T>(String sql, RowMapper<T> rowMapper, ToLongFunction<T> key) {
+  }
+
+  /**
+   * Position in a change feed: the {@code (updated_at, id)} of the last row transferred.
+   */
+  public record ChangeCursor(Instant updatedAt, long id) {
+  }
+
+  /**
+   * Change feed over a canonical table. {@code sql} must select the row's {@code updated_at}
+   * (under that label) and {@code idColumn}, filter on
+   * {@code (updated_at, id) > (:afterUpdatedAt, :afterKey)}, order by the same pair and end with
+   * {@code LIMIT :limit}.
+   */
+  public record ChangeFeedQuery<T>(String sql, RowMapper<T> rowMapper, String idColumn) {
+  }
+
+  /**
+   * @param cursor position after the last transferred row; {@code null} when nothing was
+   *               transferred
+   */
+  public record ChangeFeedResult(long rows, ChangeCursor cursor) {
+  }
+
+  /**
+   * Copies every row of {@code query} into ClickHouse {@code table}.
+   *
+   * @param params extra named parameters of the query ({@code afterKey}/{@code limit} are set
+   *               here)
+   * @return number of rows inserted
+   */
+  public <T> long transfer(KeysetQuery<T> query, Map<String, Object> params,
+                           String table, List<String> columns,
+                           RowBinaryEncoder<? super T> encoder) {
+    return pipeline(new KeysetReader<>(query, params, properties.batchSize()), table, columns,
+        encoder);
+  }
+
+  /**
+   * Copies the rows of {@code query} after {@code from} into ClickHouse {@code table}.
+   */
+  public <T> ChangeFeedResult transferChanges(ChangeFeedQuery<T> query, ChangeCursor from,
+                                              String table, List<String> columns,
+                                              RowBinaryEncoder<? super T> encoder) {
+    ChangeFeedReader<T> reader = new ChangeFeedReader<>(query, from, properties.batchSize());
+    long rows = pipeline(reader, table, columns, encoder);
+    return new ChangeFeedResult(rows, rows == 0 ? null : reader.last);
+  }
+
+  private <T> long pipeline(PageReader<T> reader, String table, List<String> columns,
+                            RowBinaryEncoder<? super T> encoder) {
+    int pageSize = properties.batchSize();
+    int queueBatches = properties.transferQueueBatches();
+
+    // Pages in flight: the queue, one being inserted and one being read
+    BlockingQueue<List<T>> free = new ArrayBlockingQueue<>(queueBatches + 2);
+    for (int i = 0; i < queueBatches + 2; i++) {
+      free.add(new ArrayList<>(pageSize));
+    }
+    BlockingQueue<List<T>> full = new ArrayBlockingQueue<>(queueBatches + 1);
+    AtomicLong inserted = new AtomicLong();
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+    CompletableFuture<Void> consumer;
+    try {
+      consumer = CompletableFuture.runAsync(
+          () -> drain(full, free, table, columns, encoder, inserted, mdc), transferExecutor);
+    } catch (RejectedExecutionException e) {
+      log.info("Transfer pipeline saturated, transferring sequentially: table={}", table);
+      return transferSequentially(reader, pageSize, free.poll(), table, columns, encoder);
+    }
+
+    RuntimeException readFailure = null;
+    try {
+      while (true) {
+        List<T> page = take(free, consumer, table);
+        reader.read(page);
+        // Once offered, the page belongs to the consumer, which clears it after the insert
+        int size = page.size();
+        if (size == 0) {
+          break;
+        }
+        offer(full, page, consumer, table);
+        if (size < pageSize) {
+          break;
+        }
+      }
+    } catch (RuntimeException e) {
+      readFailure = e;
+    }
+    try {
+      @SuppressWarnings("unchecked")
+      List<T> end = (List<T>) END;
+      offer(full, end, consumer, table);
+    } catch (RuntimeException e) {
+      readFailure = readFailure != null ? readFailure : e;
+    }
+
+    awaitConsumer(consumer, table);
+    if (readFailure != null) {
+      throw readFailure;
+    }
+    return inserted.get();
+  }
+
+  private <T> long transferSequentially(PageReader<T> reader, int pageSize, List<T> page,
+                                        String table, List<String> columns,
+                                        RowBinaryEncoder<? super T> encoder) {
+    long inserted = 0;
+    while (true) {
+      reader.read(page);
+      if (page.isEmpty()) {
+        return inserted;
+      }
+      inserted += jdbc.chInsert(table, columns, page, encoder);
+      if (page.size() < pageSize) {
+        return inserted;
+      }
+      page.clear();
+    }
+  }
+
+  /**
+   * Reads consecutive pages of a source; the position is kept between calls.
+   */
+  private interface PageReader<T> {
+
+    /**
+     * Fills {@code page} with the rows after the previous page; leaves it empty at the end.
+     */
+    void read(List<T> page);
+  }
+
+  private final class KeysetReader<T> implements PageReader<T> {
+
+    private final KeysetQuery<T> query;
+    private final Map<String, Object> params;
+    private final int pageSize;
+    private long afterKey;
+
+    KeysetReader(KeysetQuery<T> query, Map<String, Object> params, int pageSize) {
+      this.query = query;
+      this.params = params;
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public void read(List<T> page) {
+      Map<String, Object> pageParams = new HashMap<>(params);
+      pageParams.put("afterKey", afterKey);
+      pageParams.put("limit", pageSize);
+
+      RowMapper<T> mapper = query.rowMapper();
+      jdbc.pg().query(query.sql(), pageParams,
+          (RowCallbackHandler) (ResultSet rs) -> page.add(mapper.mapRow(rs, page.size())));
+      if (!page.isEmpty()) {
+        afterKey = query.key().applyAsLong(page.get(page.size() - 1));
+      }
+    }
+  }
+
+  private final class ChangeFeedReader<T> implements PageReader<T> {
+
+    private final ChangeFeedQuery<T> query;
+    private final int pageSize;
+    private ChangeCursor last;
+
+    ChangeFeedReader(ChangeFeedQuery<T> query, ChangeCursor from, int pageSize) {
+      this.query = query;
+      this.last = from;
+      this.pageSize = pageSize;
+    }
+
+    @Override
+    public void read(List<T> page) {
+      Map<String, Object> pageParams = new HashMap<>();
+      pageParams.put("afterUpdatedAt", Timestamp.from(last.updatedAt()));
+      pageParams.put("afterKey", last.id());
+      pageParams.put("limit", pageSize);
+
+      RowMapper<T> mapper = query.rowMapper();
+      jdbc.pg().query(query.sql(), pageParams, (RowCallbackHandler) (ResultSet rs) -> {
+        page.add(mapper.mapRow(rs, page.size()));
+        last = new ChangeCursor(rs.getTimestamp("updated_at").toInstant(),
+            rs.getLong(query.idColumn()));
+      });
+    }
+  }
+
+  private <T> void drain(BlockingQueue<List<T>> full, BlockingQueue<List<T>> free,
+                         String table, List<String> columns,
+                         RowBinaryEncoder<? super T> encoder, AtomicLong inserted,
+                         Map<String, String> mdc) {
+    if (mdc != null) {
+      MDC.setContextMap(mdc);
+    }
+    try {
+      while (true) {
+        List<T> page = full.take();
+        if (page == END) {
+          return;
+        }
+        inserted.addAndGet(jdbc.chInsert(table, columns, page, encoder));
+        page.clear();
+        free.add(page);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Transfer pipeline interrupted: table=%s".formatted(table), e);
+    } finally {
+      MDC.clear();
+    }
+  }
+
+  private static <T> List<T> take(BlockingQueue<List<T>> free, CompletableFuture<Void> consumer,
+                                  String table) {
+    try {
+      List<T> page;
+      while ((page = free.poll(QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) == null) {
+        checkConsumer(consumer, table);
+      }
+      return page;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Transfer pipeline interrupted: table=%s".formatted(table), e);
+    }
+  }
+
+  private static <T> void offer(BlockingQueue<List<T>> full, List<T> page,
+                                CompletableFuture<Void> consumer, String table) {
+    try {
+      while (!full.offer(page, QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        checkConsumer(consumer, table);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Transfer pipeline interrupted: table=%s".formatted(table), e);
+    }
+  }
+
+  private static void checkConsumer(CompletableFuture<Void> consumer, String table) {
+    if (consumer.isDone()) {
+      throw new IllegalStateException(
+          "Transfer pipeline consumer terminated: table=%s".formatted(table));
+    }
+  }
+
+  private static void awaitConsumer(CompletableFuture<Void> consumer, String table) {
+    try {
+      consumer.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(
+          "Transfer pipeline interrupted: table=%s".formatted(table), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException(
+          "Transfer pipeline consumer failed: table=%s".formatted(table), e.getCause());
+    }
+  }
+}
@@ -16,6 +16,8 @@ import io.datapulse.analytics.api.PostingPnlResponse;
 import io.datapulse.analytics.api.ProductPnlResponse;
 import io.datapulse.analytics.api.TrendGranularity;
 import io.datapulse.analytics.config.ClickHouseReadJdbc;
+import io.datapulse.analytics.config.TrendRollupProperties;
+import io.datapulse.analytics.persistence.TrendRollupPlanner.Grain;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Repository;
@@ -25,8 +27,7 @@ import org.springframework.stereotype.Repository;
 public class PnlReadRepository {
 
   private final ClickHouseReadJdbc jdbc;
-
-  private static final String SETTINGS_FINAL = "\nSETTINGS final = 1";
+  private final TrendRollupProperties trendRollups;
 
   private static final Map<String, String> PRODUCT_SORT_WHITELIST = Map.ofEntries(
       Map.entry("revenue_amount", "revenue_amount"),
@@ -118,7 +119,7 @@ public class PnlReadRepository {
           m.marketplace_pnl AS marketplace_pnl,
           m.full_pnl AS full_pnl
       FROM mart_product_pnl AS m
-      LEFT JOIN dim_product AS p_by_id
+      LEFT JOIN dim_product AS p_by_id FINAL
           ON m.product_id = p_by_id.product_id
           AND m.workspace_id = p_by_id.workspace_id
       LEFT JOIN (
@@ -127,7 +128,7 @@ public class PnlReadRepository {
                  anyLast(sku_code) AS sku_code,
                  anyLast(marketplace_sku) AS marketplace_sku,
                  anyLast(product_name) AS product_name
-          FROM dim_product
+          FROM dim_product FINAL
           GROUP BY workspace_id, seller_sku_id
       ) AS p_by_sku
           ON m.seller_sku_id = p_by_sku.seller_sku_id
@@ -185,7 +186,6 @@ public class PnlReadRepository {
       FROM mart_posting_pnl
       WHERE posting_id = :postingId
         AND workspace_id = :workspaceId
-      SETTINGS final = 1
       """;
 
   private static final String POSTING_DETAIL_SQL = """
@@ -213,6 +213,20 @@ public class PnlReadRepository {
       SETTINGS final = 1
       """;
 
+  private static final String TREND_ROLLUP_SQL = """
+      SELECT
+          %s AS period_label,
+          sum(revenue_amount) AS revenue_amount,
+          -sum(costs_amount) AS total_costs_amount,
+          sum(net_cogs) AS cogs_amount,
+          sum(advertising_cost) AS advertising_cost_amount,
+          sum(full_pnl) AS full_pnl
+      FROM mart_pnl_trend
+      WHERE workspace_id = :workspaceId
+        AND grain = :grain
+      """;
+
+  @CachedRead(tables = "mart_product_pnl")
   public PnlAggregatedRow findAggregatedSummary(long workspaceId, int period,
       PnlFilter filter) {
     var params = new MapSqlParameterSource()
@@ -221,13 +235,13 @@ public class PnlReadRepository {
 
     var sb = new StringBuilder(AGGREGATED_SUMMARY_SQL);
     appendSourcePlatformFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     List<PnlAggregatedRow> rows = jdbc.ch().query(sb.toString(), params,
         this::mapAggregatedRow);
     return rows.isEmpty() ? null : rows.get(0);
   }
 
+  @CachedRead(tables = "mart_posting_pnl")
   public BigDecimal findReconciliationResidual(long workspaceId, int period,
       PnlFilter filter) {
     var params = new MapSqlParameterSource()
@@ -236,11 +250,11 @@ public class PnlReadRepository {
 
     var sb = new StringBuilder(AGGREGATED_RESIDUAL_SQL);
     appendSourcePlatformFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().queryForObject(sb.toString(), params, BigDecimal.class);
   }
 
+  @CachedRead(tables = {"mart_product_pnl", "dim_product"})
   public List<ProductPnlResponse> findByProduct(long workspaceId, PnlFilter filter,
       String sortColumn, String sortDirection, int limit, long offset) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
@@ -253,17 +267,17 @@ public class PnlReadRepository {
     sb.append(" LIMIT :limit OFFSET :offset");
     params.addValue("limit", limit);
     params.addValue("offset", offset);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().query(sb.toString(), params, this::mapProductPnl);
   }
 
+  @CachedRead(tables = {"mart_product_pnl", "dim_product"})
   public long countByProduct(long workspaceId, PnlFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
     var sb = new StringBuilder("""
         SELECT count(*)
         FROM mart_product_pnl AS m
-        LEFT JOIN dim_product AS p_by_id
+        LEFT JOIN dim_product AS p_by_id FINAL
             ON m.product_id = p_by_id.product_id
             AND m.workspace_id = p_by_id.workspace_id
         LEFT JOIN (
@@ -272,7 +286,7 @@ public class PnlReadRepository {
                    anyLast(sku_code) AS sku_code,
                    anyLast(marketplace_sku) AS marketplace_sku,
                    anyLast(product_name) AS product_name
-            FROM dim_product
+            FROM dim_product FINAL
             GROUP BY workspace_id, seller_sku_id
         ) AS p_by_sku
             ON m.seller_sku_id = p_by_sku.seller_sku_id
@@ -280,12 +294,12 @@ public class PnlReadRepository {
         WHERE m.workspace_id = :workspaceId
           AND m.attribution_level = 'PRODUCT'""");
     appendProductFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     Long result = jdbc.ch().queryForObject(sb.toString(), params, Long.class);
     return result != null ? result : 0L;
   }
 
+  @CachedRead(tables = "mart_posting_pnl")
   public List<PostingPnlResponse> findByPosting(long workspaceId, PnlFilter filter,
       String sortColumn, String sortDirection, int limit, long offset) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
@@ -298,11 +312,11 @@ public class PnlReadRepository {
     sb.append(" LIMIT :limit OFFSET :offset");
     params.addValue("limit", limit);
     params.addValue("offset", offset);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().query(sb.toString(), params, this::mapPostingPnl);
   }
 
+  @CachedRead(tables = "mart_posting_pnl")
   public long countByPosting(long workspaceId, PnlFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
     var sb = new StringBuilder("""
@@ -310,12 +324,12 @@ public class PnlReadRepository {
         FROM mart_posting_pnl AS m
         WHERE m.workspace_id = :workspaceId""");
     appendPostingFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     Long result = jdbc.ch().queryForObject(sb.toString(), params, Long.class);
     return result != null ? result : 0L;
   }
 
+  @CachedRead(tables = {"mart_posting_pnl", "fact_finance"})
   public PostingPnlDetailResponse findPostingDetail(long workspaceId, String postingId) {
     var params = new MapSqlParameterSource()
         .addValue("workspaceId", workspaceId)
@@ -348,14 +362,61 @@ public class PnlReadRepository {
         entries);
   }
 
+  @CachedRead(tables = {"mart_pnl_trend", "mart_product_pnl", "mart_posting_pnl"})
   public List<PnlTrendResponse> findTrend(long workspaceId, PnlFilter filter,
       TrendGranularity granularity) {
+    if (trendRollups.enabled()) {
+      return findTrendFromRollup(workspaceId, filter, granularity);
+    }
     if (granularity == TrendGranularity.MONTHLY) {
       return findTrendFromProductMart(workspaceId, filter);
     }
     return findTrendFromPostingMart(workspaceId, filter, granularity);
   }
 
+  /**
+   * Reads mart_pnl_trend at the grain {@link TrendRollupPlanner} picks. The monthly trend covers
+   * whole months (its row-level query filters by period), so its range is widened to month
+   * boundaries and always resolves to the MONTH rollup, built from mart_product_pnl.
+   */
+  private List<PnlTrendResponse> findTrendFromRollup(long workspaceId, PnlFilter filter,
+      TrendGranularity granularity) {
+    LocalDate from = filter.from();
+    LocalDate to = filter.to();
+    if (granularity == TrendGranularity.MONTHLY) {
+      from = from != null ? Grain.MONTH.bucketStart(from) : null;
+      to = to != null ? Grain.MONTH.bucketEnd(to) : null;
+    }
+    Grain grain = TrendRollupPlanner.plan(granularity, from, to);
+
+    var params = new MapSqlParameterSource("workspaceId", workspaceId)
+        .addValue("grain", grain.name());
+    var sb = new StringBuilder(TREND_ROLLUP_SQL.formatted(trendLabel(granularity)));
+    if (from != null) {
+      sb.append(" AND bucket >= :dateFrom");
+      params.addValue("dateFrom", from);
+    }
+    if (to != null) {
+      sb.append(" AND bucket <= :dateTo");
+      params.addValue("dateTo", to);
+    }
+    appendSourcePlatformFilter(sb, params, filter);
+    sb.append(" GROUP BY period_label ORDER BY period_label");
+
+    return jdbc.ch().query(sb.toString(), params, this::mapTrendRow);
+  }
+
+  /**
+   * Same labels as the row-level queries: the day, the week's Sunday, {@code YYYYMM}.
+   */
+  private static String trendLabel(TrendGranularity granularity) {
+    return switch (granularity) {
+      case DAILY -> "toString(bucket)";
+      case WEEKLY -> "toString(toStartOfWeek(bucket))";
+      case MONTHLY -> "toString(toYYYYMM(bucket))";
+    };
+  }
+
   private List<PnlTrendResponse> findTrendFromProductMart(long workspaceId,
       PnlFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
@@ -379,7 +440,6 @@ public class PnlReadRepository {
     appendMonthlyTrendFilter(sb, params, filter);
     appendSourcePlatformFilter(sb, params, filter);
     sb.append(" GROUP BY period_label ORDER BY period_label");
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().query(sb.toString(), params, this::mapTrendRow);
   }
@@ -418,7 +478,6 @@ public class PnlReadRepository {
     appendDateTrendFilter(sb, params, filter);
     appendSourcePlatformFilter(sb, params, filter);
     sb.append(" GROUP BY period_label ORDER BY period_label");
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().query(sb.toString(), params, this::mapTrendRow);
   }
@@ -13,6 +13,8 @@ import io.datapulse.analytics.api.ReturnsFilter;
 import io.datapulse.analytics.api.ReturnsTrendResponse;
 import io.datapulse.analytics.api.TrendGranularity;
 import io.datapulse.analytics.config.ClickHouseReadJdbc;
+import io.datapulse.analytics.config.TrendRollupProperties;
+import io.datapulse.analytics.persistence.TrendRollupPlanner.Grain;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Repository;
@@ -22,6 +24,7 @@ import org.springframework.stereotype.Repository;
 public class ReturnsReadRepository {
 
   private final ClickHouseReadJdbc jdbc;
+  private final TrendRollupProperties trendRollups;
 
   private static final String SETTINGS_FINAL = "\nSETTINGS final = 1";
 
@@ -112,7 +115,7 @@ public class ReturnsReadRepository {
           m.top_return_reason AS top_return_reason,
           m.distinct_reason_count AS distinct_reason_count
       FROM mart_returns_analysis AS m
-      LEFT JOIN dim_product AS p_by_id
+      LEFT JOIN dim_product AS p_by_id FINAL
           ON m.product_id = p_by_id.product_id
           AND m.workspace_id = p_by_id.workspace_id
       LEFT JOIN (
@@ -121,7 +124,7 @@ public class ReturnsReadRepository {
                  anyLast(sku_code) AS sku_code,
                  anyLast(marketplace_sku) AS marketplace_sku,
                  anyLast(product_name) AS product_name
-          FROM dim_product
+          FROM dim_product FINAL
           GROUP BY workspace_id, seller_sku_id
       ) AS p_by_sku
           ON m.seller_sku_id = p_by_sku.seller_sku_id
@@ -162,6 +165,22 @@ public class ReturnsReadRepository {
       ORDER BY period_label
       """;
 
+  private static final String TREND_ROLLUP_SQL = """
+      SELECT
+          %s AS period_label,
+          sum(return_quantity) AS total_return_quantity,
+          sum(sale_quantity) AS total_sale_quantity,
+          if(total_sale_quantity > 0,
+             toDecimal64(total_return_quantity, 2) / total_sale_quantity * 100, NULL)
+              AS return_rate_pct
+      FROM mart_returns_trend
+      WHERE workspace_id = :workspaceId
+        AND grain = :grain
+      %s
+      GROUP BY period_label
+      ORDER BY period_label
+      """;
+
   public record SummaryRow(
       int totalReturnCount,
       int totalReturnQuantity,
@@ -188,11 +207,11 @@ public class ReturnsReadRepository {
       int productCount
   ) {}
 
+  @CachedRead(tables = "mart_returns_analysis")
   public SummaryRow findSummary(long workspaceId, ReturnsFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
     var sb = new StringBuilder(SUMMARY_SQL);
     appendFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().queryForObject(sb.toString(), params, (rs, rowNum) -> new SummaryRow(
         rs.getInt("total_return_count"),
@@ -206,13 +225,13 @@ public class ReturnsReadRepository {
     ));
   }
 
+  @CachedRead(tables = "mart_returns_analysis")
   public BigDecimal findReturnRateForPeriod(long workspaceId, int period,
       ReturnsFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId)
         .addValue("period", period);
     var sb = new StringBuilder(RETURN_RATE_SQL);
     appendPlatformFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().queryForObject(
         sb.toString(),
@@ -220,6 +239,7 @@ public class ReturnsReadRepository {
         (rs, rowNum) -> rs.getBigDecimal("return_rate_pct"));
   }
 
+  @CachedRead(tables = "fact_returns")
   public List<ReasonRow> findReasonBreakdown(long workspaceId, int period,
       ReturnsFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId)
@@ -237,6 +257,7 @@ public class ReturnsReadRepository {
             rs.getInt("product_count")));
   }
 
+  @CachedRead(tables = "fact_returns")
   public List<FullReasonRow> findReasons(long workspaceId, int period,
       ReturnsFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId)
@@ -255,6 +276,7 @@ public class ReturnsReadRepository {
             rs.getInt("product_count")));
   }
 
+  @CachedRead(tables = {"mart_returns_analysis", "dim_product"})
   public List<ProductReturnResponse> findByProduct(long workspaceId, ReturnsFilter filter,
       String sortColumn, String sortDirection, int limit, long offset) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
@@ -269,16 +291,16 @@ public class ReturnsReadRepository {
     sb.append(" LIMIT :limit OFFSET :offset");
     params.addValue("limit", limit);
     params.addValue("offset", offset);
-    sb.append(SETTINGS_FINAL);
 
     return jdbc.ch().query(sb.toString(), params, this::mapProductReturn);
   }
 
+  @CachedRead(tables = {"mart_returns_analysis", "dim_product"})
   public long countByProduct(long workspaceId, ReturnsFilter filter) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
     var sb = new StringBuilder("""
         SELECT count(*) FROM mart_returns_analysis AS m
-        LEFT JOIN dim_product AS p_by_id
+        LEFT JOIN dim_product AS p_by_id FINAL
             ON m.product_id = p_by_id.product_id
             AND m.workspace_id = p_by_id.workspace_id
         LEFT JOIN (
@@ -287,7 +309,7 @@ public class ReturnsReadRepository {
                    anyLast(sku_code) AS sku_code,
                    anyLast(marketplace_sku) AS marketplace_sku,
                    anyLast(product_name) AS product_name
-            FROM dim_product
+            FROM dim_product FINAL
             GROUP BY workspace_id, seller_sku_id
         ) AS p_by_sku
             ON m.seller_sku_id = p_by_sku.seller_sku_id
@@ -296,22 +318,32 @@ public class ReturnsReadRepository {
         """);
     appendFilter(sb, params, filter);
     appendSearchFilter(sb, params, filter);
-    sb.append(SETTINGS_FINAL);
 
     Long result = jdbc.ch().queryForObject(sb.toString(), params, Long.class);
     return result != null ? result : 0L;
   }
 
+  @CachedRead(tables = {"mart_returns_trend", "fact_returns", "fact_sales"})
   public List<ReturnsTrendResponse> findTrend(long workspaceId, ReturnsFilter filter,
       TrendGranularity granularity) {
     var params = new MapSqlParameterSource("workspaceId", workspaceId);
-    String periodExprReturns = periodExpr(granularity, "return_date");
-    String periodExprSales = periodExpr(granularity, "sale_date");
-    var sb = new StringBuilder(
-        TREND_SQL.formatted(
-            periodExprReturns, buildDateFilter("return_date", filter, params),
-            periodExprSales, buildDateFilter("sale_date", filter, params)));
-    sb.append(SETTINGS_FINAL);
+    StringBuilder sb;
+    if (trendRollups.enabled()) {
+      // The planner only picks WEEK / MONTH for a range on their bucket boundaries, so the date
+      // filter applies to bucket as is.
+      Grain grain = TrendRollupPlanner.plan(granularity, filter.from(), filter.to());
+      params.addValue("grain", grain.name());
+      sb = new StringBuilder(TREND_ROLLUP_SQL.formatted(
+          periodExpr(granularity, "bucket"), buildDateFilter("bucket", filter, params)));
+    } else {
+      String periodExprReturns = periodExpr(granularity, "return_date");
+      String periodExprSales = periodExpr(granularity, "sale_date");
+      sb = new StringBuilder(
+          TREND_SQL.formatted(
+              periodExprReturns, buildDateFilter("return_date", filter, params),
+              periodExprSales, buildDateFilter("sale_date", filter, params)));
+      sb.append(SETTINGS_FINAL);
+    }
 
     return jdbc.ch().query(sb.toString(), params, (rs, rowNum) -> new ReturnsTrendResponse(
         rs.getString("period_label"),
@@ -0,0 +1,74 @@
+package io.datapulse.analytics.persistence;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import io.datapulse.analytics.api.TrendGranularity;
+
+/**
+ * Picks the rollup grain a trend query reads ({@code mart_pnl_trend}, {@code mart_returns_trend}).
+ *
+ * <p>A grain can answer a request when every requested bucket is a union of whole rollup
+ * buckets: its buckets nest in the requested granularity (days in anything, weeks only in weeks,
+ * months only in months) and the date range starts and ends on its bucket boundaries. Of those
+ * the coarsest wins; DAY always qualifies. E.g. a weekly trend from a Wednesday is answered
+ * from days, from a Sunday to a Saturday from weeks.</p>
+ *
+ * <p>Weeks start on Sunday, as ClickHouse {@code toStartOfWeek} (mode 0) does.</p>
+ */
+public final class TrendRollupPlanner {
+
+  public enum Grain {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /** First day of the bucket holding {@code date}; the rollup's {@code bucket} value. */
+    public LocalDate bucketStart(LocalDate date) {
+      return switch (this) {
+        case DAY -> date;
+        case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+        case MONTH -> date.withDayOfMonth(1);
+      };
+    }
+
+    /** Last day of the bucket holding {@code date}. */
+    public LocalDate bucketEnd(LocalDate date) {
+      return switch (this) {
+        case DAY -> date;
+        case WEEK -> bucketStart(date).plusDays(6);
+        case MONTH -> date.withDayOfMonth(date.lengthOfMonth());
+      };
+    }
+
+    boolean nestsIn(TrendGranularity granularity) {
+      return switch (this) {
+        case DAY -> true;
+        case WEEK -> granularity == TrendGranularity.WEEKLY;
+        case MONTH -> granularity == TrendGranularity.MONTHLY;
+      };
+    }
+  }
+
+  private static final List<Grain> COARSEST_FIRST = List.of(Grain.MONTH, Grain.WEEK, Grain.DAY);
+
+  private TrendRollupPlanner() {
+  }
+
+  /**
+   * @param from first day of the range, inclusive; {@code null} for unbounded
+   * @param to   last day of the range, inclusive; {@code null} for unbounded
+   */
+  public static Grain plan(TrendGranularity granularity, LocalDate from, LocalDate to) {
+    for (Grain grain : COARSEST_FIRST) {
+      if (grain.nestsIn(granularity)
+          && (from == null || grain.bucketStart(from).equals(from))
+          && (to == null || grain.bucketEnd(to).equals(to))) {
+        return grain;
+      }
+    }
+    return Grain.DAY;
+  }
+}
@@ -7,6 +7,13 @@ import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Full re-materialization as a reconciliation pass: incremental runs follow the canonical change
+ * feed, so this only repairs what the feed cannot see (hard deletes such as
+ * {@code CostProfileService.deleteProfile}, dimension-only changes). Daily by default, so a
+ * deleted cost profile stops costing the marts by the next morning. {@code reconciliation-cron}
+ * falls back to the former {@code daily-rematerialization-cron} key.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -14,15 +21,16 @@ public class FullRematerializationScheduler {
 
   private final MaterializationService materializationService;
 
-  @Scheduled(cron = "${datapulse.materialization.daily-rematerialization-cron:0 0 2 * * *}")
+  @Scheduled(cron = "${datapulse.materialization.reconciliation-cron:"
+      + "${datapulse.materialization.daily-rematerialization-cron:0 0 2 * * *}}")
   @SchedulerLock(name = "analyticsFullRematerialization",
       lockAtMostFor = "PT2H", lockAtLeastFor = "PT5M")
-  public void runDaily() {
-    log.info("Daily full re-materialization triggered");
+  public void runReconciliation() {
+    log.info("Full re-materialization (reconciliation) triggered");
     try {
       materializationService.runFullRematerialization();
     } catch (Exception e) {
-      log.error("Daily full re-materialization failed", e);
+      log.error("Full re-materialization (reconciliation) failed", e);
     }
   }
 }
@@ -0,0 +1,28 @@
+package io.datapulse.analytics.scheduling;
+
+import io.datapulse.analytics.domain.ReadModelConsistencyCheck;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadModelConsistencyScheduler {
+
+  private final ReadModelConsistencyCheck consistencyCheck;
+
+  @Scheduled(cron = "${datapulse.materialization.read-model-check-cron:0 0 4 * * *}")
+  @SchedulerLock(name = "analyticsReadModelConsistencyCheck",
+      lockAtMostFor = "PT30M", lockAtLeastFor = "PT5M")
+  public void runDaily() {
+    log.info("Daily read model consistency check triggered");
+    try {
+      consistencyCheck.check();
+    } catch (Exception e) {
+      log.error("Daily read model consistency check failed", e);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package io.datapulse.analytics.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.datapulse.platform.observability.MetricsFacade;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@DisplayName("AnalyticsQueryCache")
+class AnalyticsQueryCacheTest {
+
+  private static final String METHOD = "PnlReadRepository.findByProduct(long,PnlFilter)";
+  private static final String[] TABLES = {"mart_product_pnl", "dim_product"};
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ClickHouseReadJdbc jdbc = mock(ClickHouseReadJdbc.class);
+  private final NamedParameterJdbcTemplate ch = mock(NamedParameterJdbcTemplate.class);
+  private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+  private final AtomicInteger loads = new AtomicInteger();
+
+  /** Current max(ver) per table, served by the versions query. */
+  private volatile Map<String, Long> versions = Map.of("mart_product_pnl", 1L);
+
+  record Filter(String search, Integer period) {}
+
+  @BeforeEach
+  void setUp() {
+    when(jdbc.ch()).thenReturn(ch);
+    when(ch.query(anyString(), any(RowMapper.class))).thenAnswer(invocation ->
+        List.copyOf(versions.entrySet()));
+  }
+
+  private AnalyticsQueryCache cache(boolean enabled) {
+    var properties = new AnalyticsQueryCacheProperties(enabled, 100, Duration.ZERO,
+        Duration.ofMinutes(30));
+    return new AnalyticsQueryCache(jdbc, circuitBreaker, properties,
+        new MetricsFacade(registry));
+  }
+
+  private Object load(AnalyticsQueryCache cache, Object... args) throws Exception {
+    return cache.get(METHOD, args, TABLES, () -> List.of("row-" + loads.incrementAndGet()));
+  }
+
+  private double requests(String result) {
+    return registry.get("analytics.query_cache.requests").tag("result", result).counter().count();
+  }
+
+  @Nested
+  @DisplayName("get")
+  class Get {
+
+    @Test
+    @DisplayName("should serve identical requests from the cache")
+    void should_hit_when_sameArgumentsAndVersions() throws Exception {
+      var cache = cache(true);
+
+      Object first = load(cache, 1L, new Filter("abc", 202604));
+      Object second = load(cache, 1L, new Filter("abc", 202604));
+
+      assertThat(second).isEqualTo(first).isEqualTo(List.of("row-1"));
+      assertThat(loads).hasValue(1);
+      assertThat(requests("hit")).isEqualTo(1);
+      assertThat(requests("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should share an entry between filters that differ only in blanks")
+    void should_hit_when_filterDiffersOnlyInWhitespace() throws Exception {
+      var cache = cache(true);
+
+      load(cache, 1L, new Filter(" abc ", 202604));
+      load(cache, 1L, new Filter("abc", 202604));
+      load(cache, 1L, new Filter("  ", 202604));
+      load(cache, 1L, new Filter(null, 202604));
+
+      assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("should keep workspaces and pages apart")
+    void should_miss_when_argumentsDiffer() throws Exception {
+      var cache = cache(true);
+
+      load(cache, 1L, new Filter("abc", 202604));
+      load(cache, 2L, new Filter("abc", 202604));
+      load(cache, 1L, new Filter("abc", 202605));
+
+      assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("should reload once a source table has a new watermark version")
+    void should_miss_when_sourceTableVersionChanges() throws Exception {
+      var cache = cache(true);
+      load(cache, 1L);
+
+      versions = Map.of("mart_product_pnl", 2L);
+
+      assertThat(load(cache, 1L)).isEqualTo(List.of("row-2"));
+    }
+
+    @Test
+    @DisplayName("should keep serving cached answers when the versions cannot be read")
+    void should_serveCached_when_versionRefreshFails() throws Exception {
+      var cache = cache(true);
+      load(cache, 1L);
+
+      when(ch.query(anyString(), any(RowMapper.class)))
+          .thenThrow(new IllegalStateException("ClickHouse down"));
+
+      assertThat(load(cache, 1L)).isEqualTo(List.of("row-1"));
+      assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("should keep serving cached answers while the breaker is open")
+    void should_serveCached_when_circuitBreakerOpen() throws Exception {
+      var cache = cache(true);
+      load(cache, 1L);
+
+      circuitBreaker.transitionToOpenState();
+
+      assertThat(load(cache, 1L)).isEqualTo(List.of("row-1"));
+    }
+
+    @Test
+    @DisplayName("should run one query for concurrent identical requests")
+    void should_coalesce_when_concurrentIdenticalRequests() throws Exception {
+      var cache = cache(true);
+      CountDownLatch loading = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+        Future<Object> leader = executor.submit(() -> cache.get(METHOD, new Object[]{1L}, TABLES,
+            () -> {
+              loading.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return List.of("row-" + loads.incrementAndGet());
+            }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Object> follower = executor.submit(() -> load(cache, 1L));
+        awaitCoalesced();
+        release.countDown();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(leader.get(5, TimeUnit.SECONDS));
+        assertThat(loads).hasValue(1);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    private void awaitCoalesced() throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (registry.find("analytics.query_cache.requests").tag("result", "coalesced")
+          .counter() == null) {
+        assertThat(System.nanoTime()).isLessThan(deadline);
+        Thread.sleep(10);
+      }
+    }
+
+    @Test
+    @DisplayName("should not cache a failed query")
+    void should_reload_when_previousLoadFailed() throws Exception {
+      var cache = cache(true);
+
+      assertThatThrownBy(() -> cache.get(METHOD, new Object[]{1L}, TABLES, () -> {
+        throw new IllegalStateException("timeout");
+      })).hasMessage("timeout");
+
+      assertThat(load(cache, 1L)).isEqualTo(List.of("row-1"));
+    }
+
+    @Test
+    @DisplayName("should give every caller its own copy of a list result")
+    void should_copyListResult_when_served() throws Exception {
+      var cache = cache(true);
+
+      @SuppressWarnings("unchecked")
+      List<Object> first = (List<Object>) load(cache, 1L);
+      first.add("mutated");
+
+      assertThat(load(cache, 1L)).isEqualTo(List.of("row-1"));
+    }
+
+    @Test
+    @DisplayName("should query every time when disabled")
+    void should_passThrough_when_disabled() throws Exception {
+      var cache = cache(false);
+
+      load(cache, 1L);
+      load(cache, 1L);
+
+      assertThat(loads).hasValue(2);
+    }
+  }
+}
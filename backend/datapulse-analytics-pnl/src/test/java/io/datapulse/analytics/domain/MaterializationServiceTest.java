@@ -3,55 +3,109 @@ package io.datapulse.analytics.domain;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
 import io.datapulse.platform.etl.PostIngestMaterializationResult;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.mockito.InOrder;
 
 @DisplayName("MaterializationService")
 class MaterializationServiceTest {
 
-  private AnalyticsMaterializer dimMaterializer() {
-    return stubMaterializer("dim_product", MaterializationPhase.DIMENSION);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+  private final List<Instant> runStarts = Collections.synchronizedList(new ArrayList<>());
+  private final MaterializationJdbc jdbc = mock(MaterializationJdbc.class);
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
   }
 
-  private AnalyticsMaterializer factMaterializer() {
-    return stubMaterializer("fact_finance", MaterializationPhase.FACT);
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
   }
 
-  private AnalyticsMaterializer martMaterializer() {
-    return stubMaterializer("mart_posting_pnl", MaterializationPhase.MART);
+  private MaterializationService service(int maxConcurrentNodes,
+                                         AnalyticsMaterializer... materializers) {
+    var properties = new AnalyticsProperties(null, false, null, false, 0, 0, maxConcurrentNodes,
+        null);
+    return new MaterializationService(List.of(materializers), properties,
+        new MetricsFacade(registry), executor, jdbc);
   }
 
-  private AnalyticsMaterializer stubMaterializer(String table, MaterializationPhase phase) {
-    return new AnalyticsMaterializer() {
-      boolean fullCalled;
-      boolean incrementalCalled;
-      long lastJobId;
-      RuntimeException failOnFull;
-      RuntimeException failOnIncremental;
+  private MaterializationService service(AnalyticsMaterializer... materializers) {
+    return service(4, materializers);
+  }
 
+  private AnalyticsMaterializer node(String table, MaterializationPhase phase, String... sources) {
+    return node(table, phase, null, sources);
+  }
+
+  /**
+   * Records "table:arg" for every run and the start of a full run; throws {@code failure} from
+   * every run mode when set.
+   */
+  private AnalyticsMaterializer node(String table, MaterializationPhase phase,
+                                     RuntimeException failure, String... sources) {
+    return new AnalyticsMaterializer() {
       @Override
       public void materializeFull() {
-        if (failOnFull != null) throw failOnFull;
-        fullCalled = true;
+        record("full");
+      }
+
+      @Override
+      public void materializeFull(Instant runStartedAt) {
+        runStarts.add(runStartedAt);
+        materializeFull();
       }
 
       @Override
       public void materializeIncremental(long jobExecutionId) {
-        if (failOnIncremental != null) throw failOnIncremental;
-        incrementalCalled = true;
-        lastJobId = jobExecutionId;
+        record(String.valueOf(jobExecutionId));
+      }
+
+      @Override
+      public void materializeWorkspace(long workspaceId) {
+        record(String.valueOf(workspaceId));
+      }
+
+      private void record(String arg) {
+        if (failure != null) {
+          throw failure;
+        }
+        calls.add(table + ":" + arg);
+      }
+
+      @Override
+      public Set<String> sourceTables() {
+        return Set.of(sources);
       }
 
       @Override
@@ -71,57 +125,233 @@ class MaterializationServiceTest {
   class RunFull {
 
     @Test
-    @DisplayName("should execute all materializers in phase order")
-    void should_executeAll_when_multiplePhasesPresent() {
-      var dim = dimMaterializer();
-      var fact = factMaterializer();
-      var mart = martMaterializer();
+    @DisplayName("should hand every table the same run start, taken before the run")
+    void should_passRunStart_when_fullRun() {
+      var fact = node("fact_finance", MaterializationPhase.FACT);
+      var mart = node("mart_pnl_trend", MaterializationPhase.MART, "fact_finance");
+      Instant before = Instant.now();
 
-      var service = new MaterializationService(List.of(mart, dim, fact));
-      service.runFullRematerialization();
+      service(fact, mart).runFullRematerialization();
 
-      // Stub materializers have fullCalled flag — but since we can't access
-      // private fields of anonymous class, we verify no exception was thrown
-      assertThatCode(service::runFullRematerialization).doesNotThrowAnyException();
+      assertThat(runStarts).hasSize(2).containsOnly(runStarts.get(0));
+      assertThat(runStarts.get(0)).isBetween(before, Instant.now());
+      assertThat(calls).containsExactly("fact_finance:full", "mart_pnl_trend:full");
     }
 
     @Test
-    @DisplayName("should abort and rethrow when a materializer fails")
-    void should_abort_when_materializerThrowsException() {
-      var dim = dimMaterializer();
-      var failing = new AnalyticsMaterializer() {
-        @Override
-        public void materializeFull() {
-          throw new RuntimeException("CH connection lost");
-        }
+    @DisplayName("should run a materializer only after the tables it reads")
+    void should_respectSourceTables_when_multiplePhasesPresent() {
+      var mart = node("mart_posting_pnl", MaterializationPhase.MART,
+          "fact_finance", "dim_product");
+      var dim = node("dim_product", MaterializationPhase.DIMENSION);
+      var fact = node("fact_finance", MaterializationPhase.FACT);
 
-        @Override
-        public void materializeIncremental(long jobExecutionId) { }
+      service(mart, dim, fact).runFullRematerialization();
 
-        @Override
-        public String tableName() {
-          return "fact_broken";
-        }
+      assertThat(calls).hasSize(3).endsWith("mart_posting_pnl:full");
+    }
 
-        @Override
-        public MaterializationPhase phase() {
-          return MaterializationPhase.FACT;
-        }
-      };
+    @Test
+    @DisplayName("should record the duration of every table")
+    void should_recordNodeTimer_when_tableMaterialized() {
+      service(node("dim_product", MaterializationPhase.DIMENSION)).runFullRematerialization();
 
-      var service = new MaterializationService(List.of(dim, failing));
+      assertThat(registry.get("analytics.materialization.node.duration")
+          .tags("table", "dim_product", "mode", "full", "outcome", "success")
+          .timer().count()).isEqualTo(1);
+    }
 
-      assertThatThrownBy(service::runFullRematerialization)
+    @Test
+    @DisplayName("should bump the watermark of succeeded tables only")
+    void should_bumpWatermark_when_tableSucceeds() {
+      var dim = node("dim_product", MaterializationPhase.DIMENSION);
+      var failing = node("fact_broken", MaterializationPhase.FACT,
+          new RuntimeException("CH connection lost"));
+
+      assertThatThrownBy(() -> service(dim, failing).runFullRematerialization())
+          .isInstanceOf(IllegalStateException.class);
+
+      verify(jdbc).updateWatermark(eq("dim_product"), any());
+      verify(jdbc, never()).updateWatermark(eq("fact_broken"), any());
+    }
+
+    @Test
+    @DisplayName("should leave the watermark to a materializer that owns it")
+    void should_notBumpWatermark_when_materializerOwnsIt() {
+      var owner = new DelegatingMaterializer(node("fact_product_cost", MaterializationPhase.FACT));
+
+      service(owner).runFullRematerialization();
+
+      verify(jdbc, never()).updateWatermark(anyString(), any());
+      assertThat(calls).containsExactly("fact_product_cost:full");
+    }
+
+    @Test
+    @DisplayName("should succeed when the watermark bump fails")
+    void should_succeed_when_watermarkBumpFails() {
+      doThrow(new RuntimeException("CH connection lost"))
+          .when(jdbc).updateWatermark(anyString(), any());
+
+      assertThatCode(() -> service(node("dim_product", MaterializationPhase.DIMENSION))
+          .runFullRematerialization()).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("should rethrow after the run when a materializer fails")
+    void should_fail_when_materializerThrowsException() {
+      var dim = node("dim_product", MaterializationPhase.DIMENSION);
+      var failing = node("fact_broken", MaterializationPhase.FACT,
+          new RuntimeException("CH connection lost"));
+
+      assertThatThrownBy(() -> service(dim, failing).runFullRematerialization())
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("fact_broken")
+          .hasRootCauseMessage("CH connection lost");
+      assertThat(calls).containsExactly("dim_product:full");
+    }
+
+    @Test
+    @DisplayName("should skip only the downstream of a failed materializer")
+    void should_skipDownstreamOnly_when_materializerFails() {
+      var failing = node("fact_finance", MaterializationPhase.FACT,
+          new RuntimeException("timeout"));
+      var returns = node("fact_returns", MaterializationPhase.FACT);
+      var posting = node("mart_posting_pnl", MaterializationPhase.MART, "fact_finance");
+      var product = node("mart_product_pnl", MaterializationPhase.MART, "mart_posting_pnl");
+      var returnsMart = node("mart_returns_analysis", MaterializationPhase.MART, "fact_returns");
+
+      assertThatThrownBy(() ->
+          service(failing, returns, posting, product, returnsMart).runFullRematerialization())
           .isInstanceOf(IllegalStateException.class)
-          .hasMessageContaining("fact_broken");
+          .hasMessageContaining("skipped=[mart_posting_pnl, mart_product_pnl]");
+      assertThat(calls)
+          .containsExactlyInAnyOrder("fact_returns:full", "mart_returns_analysis:full");
+    }
+
+    @Test
+    @DisplayName("should run independent materializers concurrently up to the cap")
+    void should_capConcurrency_when_independentNodes() throws InterruptedException {
+      AtomicInteger running = new AtomicInteger();
+      AtomicInteger peak = new AtomicInteger();
+      CountDownLatch bothStarted = new CountDownLatch(2);
+      List<AnalyticsMaterializer> nodes = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        String table = "dim_" + i;
+        nodes.add(new AnalyticsMaterializer() {
+          @Override
+          public void materializeFull() {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            bothStarted.countDown();
+            try {
+              bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+          }
+
+          @Override
+          public void materializeIncremental(long jobExecutionId) { }
+
+          @Override
+          public void materializeWorkspace(long workspaceId) { }
+
+          @Override
+          public String tableName() {
+            return table;
+          }
+
+          @Override
+          public MaterializationPhase phase() {
+            return MaterializationPhase.DIMENSION;
+          }
+        });
+      }
+
+      service(2, nodes.toArray(AnalyticsMaterializer[]::new)).runFullRematerialization();
+
+      assertThat(peak.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should share the cap between runs of different jobs")
+    void should_capConcurrencyAcrossRuns_when_jobsRunTogether() throws Exception {
+      AtomicInteger running = new AtomicInteger();
+      AtomicInteger peak = new AtomicInteger();
+      List<AnalyticsMaterializer> nodes = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        String table = "dim_" + i;
+        nodes.add(new AnalyticsMaterializer() {
+          @Override
+          public void materializeFull() { }
+
+          @Override
+          public void materializeIncremental(long jobExecutionId) {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+              Thread.sleep(50);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            calls.add(table + ":" + jobExecutionId);
+          }
+
+          @Override
+          public void materializeWorkspace(long workspaceId) { }
+
+          @Override
+          public String tableName() {
+            return table;
+          }
+
+          @Override
+          public MaterializationPhase phase() {
+            return MaterializationPhase.DIMENSION;
+          }
+        });
+      }
+      MaterializationService service = service(2, nodes.toArray(AnalyticsMaterializer[]::new));
+      ExecutorService jobs = Executors.newFixedThreadPool(2);
+      try {
+        var first = jobs.submit(() -> service.runIncrementalMaterialization(1L));
+        var second = jobs.submit(() -> service.runIncrementalMaterialization(2L));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).fullySucceeded()).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS).fullySucceeded()).isTrue();
+      } finally {
+        jobs.shutdownNow();
+      }
+
+      assertThat(peak.get()).isEqualTo(2);
+      assertThat(calls).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("should run on the scheduling thread when the executor rejects")
+    void should_runInline_when_executorRejects() {
+      executor.shutdown();
+
+      service(node("dim_product", MaterializationPhase.DIMENSION)).runFullRematerialization();
+
+      assertThat(calls).containsExactly("dim_product:full");
+    }
+
+    @Test
+    @DisplayName("should refuse materializers that read each other")
+    void should_fail_when_dependenciesContainCycle() {
+      var a = node("mart_a", MaterializationPhase.MART, "mart_b");
+      var b = node("mart_b", MaterializationPhase.MART, "mart_a");
+
+      assertThatThrownBy(() -> service(a, b))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("cycle");
     }
 
     @Test
     @DisplayName("should handle empty materializer list")
     void should_succeedSilently_when_noMaterializers() {
-      var service = new MaterializationService(List.of());
-
-      assertThatCode(service::runFullRematerialization).doesNotThrowAnyException();
+      assertThatCode(() -> service().runFullRematerialization()).doesNotThrowAnyException();
     }
   }
 
@@ -132,43 +362,101 @@ class MaterializationServiceTest {
     @Test
     @DisplayName("should pass jobExecutionId to all materializers")
     void should_passJobId_when_incrementalRun() {
-      var dim = dimMaterializer();
-      var fact = factMaterializer();
+      var dim = node("dim_product", MaterializationPhase.DIMENSION);
+      var fact = node("fact_finance", MaterializationPhase.FACT);
+
+      PostIngestMaterializationResult result =
+          service(fact, dim).runIncrementalMaterialization(42L);
 
-      var service = new MaterializationService(List.of(fact, dim));
-      PostIngestMaterializationResult result = service.runIncrementalMaterialization(42L);
       assertThat(result.fullySucceeded()).isTrue();
+      assertThat(calls).containsExactlyInAnyOrder("dim_product:42", "fact_finance:42");
     }
 
     @Test
-    @DisplayName("should continue other materializers when one fails")
+    @DisplayName("should continue independent materializers and report failed and skipped tables")
     void should_continueOthers_when_oneMaterializerFails() {
-      var failing = new AnalyticsMaterializer() {
-        @Override
-        public void materializeFull() { }
+      var failing = node("dim_broken", MaterializationPhase.DIMENSION,
+          new RuntimeException("timeout"));
+      var fact = node("fact_finance", MaterializationPhase.FACT);
+      var mart = node("mart_inventory_analysis", MaterializationPhase.MART, "dim_broken");
 
-        @Override
-        public void materializeIncremental(long jobExecutionId) {
-          throw new RuntimeException("timeout");
-        }
+      PostIngestMaterializationResult result =
+          service(failing, fact, mart).runIncrementalMaterialization(99L);
 
-        @Override
-        public String tableName() {
-          return "dim_broken";
-        }
+      assertThat(result.fullySucceeded()).isFalse();
+      assertThat(result.failedTables())
+          .containsExactly("dim_broken", "mart_inventory_analysis");
+      assertThat(calls).containsExactly("fact_finance:99");
+    }
+  }
 
-        @Override
-        public MaterializationPhase phase() {
-          return MaterializationPhase.DIMENSION;
-        }
-      };
-      var fact = factMaterializer();
+  @Nested
+  @DisplayName("runWorkspaceRematerialization")
+  class RunWorkspace {
 
-      var service = new MaterializationService(List.of(failing, fact));
+    @Test
+    @DisplayName("should rebuild the workspace after the tables each materializer reads")
+    void should_rebuildInDependencyOrder_when_workspaceRun() {
+      var mart = node("mart_posting_pnl", MaterializationPhase.MART,
+          "dim_product", "fact_finance");
+      var dim = node("dim_product", MaterializationPhase.DIMENSION);
+      var fact = node("fact_finance", MaterializationPhase.FACT);
 
-      PostIngestMaterializationResult result = service.runIncrementalMaterialization(99L);
-      assertThat(result.fullySucceeded()).isFalse();
-      assertThat(result.failedTables()).containsExactly("dim_broken");
+      service(mart, dim, fact).runWorkspaceRematerialization(7L);
+
+      assertThat(calls).hasSize(3).endsWith("mart_posting_pnl:7");
+    }
+
+    @Test
+    @DisplayName("should skip the downstream of a failing table and rethrow")
+    void should_fail_when_workspaceMaterializerFails() {
+      var dim = node("dim_product", MaterializationPhase.DIMENSION);
+      var failing = node("fact_broken", MaterializationPhase.FACT,
+          new IllegalStateException("Table is not partitioned by workspace_id"));
+      var mart = node("mart_posting_pnl", MaterializationPhase.MART, "fact_broken");
+
+      assertThatThrownBy(() -> service(dim, failing, mart).runWorkspaceRematerialization(7L))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("fact_broken")
+          .hasMessageContaining("skipped=[mart_posting_pnl]");
+      assertThat(calls).containsExactly("dim_product:7");
+    }
+  }
+
+  /**
+   * Owns its watermark, otherwise behaves like {@code delegate}.
+   */
+  private record DelegatingMaterializer(AnalyticsMaterializer delegate)
+      implements AnalyticsMaterializer {
+
+    @Override
+    public void materializeFull() {
+      delegate.materializeFull();
+    }
+
+    @Override
+    public void materializeIncremental(long jobExecutionId) {
+      delegate.materializeIncremental(jobExecutionId);
+    }
+
+    @Override
+    public void materializeWorkspace(long workspaceId) {
+      delegate.materializeWorkspace(workspaceId);
+    }
+
+    @Override
+    public String tableName() {
+      return delegate.tableName();
+    }
+
+    @Override
+    public MaterializationPhase phase() {
+      return delegate.phase();
+    }
+
+    @Override
+    public boolean ownsWatermark() {
+      return true;
     }
   }
 }
@@ -220,7 +220,6 @@ class PnlQueryServiceTest {
       row.setCompensationAmount(compensation);
       row.setRefundAmount(refund);
       row.setNetPayout(netPayout);
-      row.setGrossCogs(grossCogs);
       row.setNetCogs(netCogs);
       row.setAdvertisingCost(advertisingCost);
       row.setMarketplacePnl(marketplacePnl);
@@ -0,0 +1,97 @@
+package io.datapulse.analytics.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import io.datapulse.analytics.domain.ReadModelConsistencyCheck.Mismatch;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+@DisplayName("ReadModelConsistencyCheck")
+class ReadModelConsistencyCheckTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final MaterializationJdbc jdbc = mock(MaterializationJdbc.class);
+  private final JdbcTemplate ch = mock(JdbcTemplate.class);
+
+  private ReadModelConsistencyCheck check;
+
+  @BeforeEach
+  void setUp() {
+    when(jdbc.ch()).thenReturn(ch);
+    when(ch.query(anyString(), any(RowMapper.class))).thenReturn(List.of(Map.entry(7L, 10L)));
+    check = new ReadModelConsistencyCheck(jdbc, new MetricsFacade(registry));
+  }
+
+  private void stubCounts(String table, List<Map.Entry<Long, Long>> plain,
+                          List<Map.Entry<Long, Long>> deduplicated) {
+    when(ch.query(eq(sql(table, "")), any(RowMapper.class))).thenReturn(List.copyOf(plain));
+    when(ch.query(eq(sql(table, " FINAL")), any(RowMapper.class)))
+        .thenReturn(List.copyOf(deduplicated));
+  }
+
+  private static String sql(String table, String modifier) {
+    return """
+        SELECT workspace_id, count() AS row_count
+        FROM %s%s
+        GROUP BY workspace_id
+        """.formatted(table, modifier);
+  }
+
+  private double duplicateRows(String table) {
+    return registry.get("analytics.read_model.duplicate_rows").tag("table", table).gauge().value();
+  }
+
+  @Nested
+  @DisplayName("check")
+  class Check {
+
+    @Test
+    @DisplayName("should report nothing when every mart has one version per row")
+    void should_reportNothing_when_countsMatch() {
+      assertThat(check.check()).isEmpty();
+      assertThat(duplicateRows("mart_posting_pnl")).isZero();
+    }
+
+    @Test
+    @DisplayName("should report the workspace whose rows collapse under FINAL")
+    void should_reportMismatch_when_finalCountIsLower() {
+      stubCounts("mart_product_pnl",
+          List.of(Map.entry(7L, 10L), Map.entry(8L, 12L)),
+          List.of(Map.entry(7L, 10L), Map.entry(8L, 9L)));
+
+      List<Mismatch> mismatches = check.check();
+
+      assertThat(mismatches).containsExactly(new Mismatch("mart_product_pnl", 8L, 12L, 9L));
+      assertThat(duplicateRows("mart_product_pnl")).isEqualTo(3);
+      assertThat(duplicateRows("mart_posting_pnl")).isZero();
+    }
+
+    @Test
+    @DisplayName("should check the remaining marts when one cannot be read")
+    void should_continue_when_tableQueryFails() {
+      when(ch.query(eq(sql("mart_posting_pnl", "")), any(RowMapper.class)))
+          .thenThrow(new IllegalStateException("ClickHouse timeout"));
+      stubCounts("mart_returns_analysis",
+          List.of(Map.entry(7L, 5L)),
+          List.of(Map.entry(7L, 4L)));
+
+      assertThat(check.check())
+          .containsExactly(new Mismatch("mart_returns_analysis", 7L, 5L, 4L));
+    }
+  }
+}
@@ -23,7 +23,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +31,6 @@ class DimProductMaterializerTest {
 
   @Mock private MaterializationJdbc jdbc;
   @Mock private AnalyticsProperties properties;
-  @Mock private JdbcTemplate chTemplate;
   @Mock private NamedParameterJdbcTemplate pgTemplate;
 
   @InjectMocks
@@ -91,7 +89,6 @@ class DimProductMaterializerTest {
     @Test
     @DisplayName("should process rows in batches until empty result")
     void should_batchProcess_when_rowsExist() {
-      when(jdbc.ch()).thenReturn(chTemplate);
       when(jdbc.pg()).thenReturn(pgTemplate);
       when(properties.batchSize()).thenReturn(2);
 
@@ -108,7 +105,7 @@ class DimProductMaterializerTest {
 
       materializer.materializeFull();
 
-      verify(chTemplate).batchUpdate(anyString(), eq(List.of(row)), eq(1), any());
+      verify(jdbc).chBatchInsert(anyString(), eq(List.of(row)), any());
     }
   }
 
@@ -131,7 +128,6 @@ class DimProductMaterializerTest {
     @Test
     @DisplayName("should insert affected rows with correct jobExecutionId filter")
     void should_insertAffected_when_rowsMatchJob() {
-      when(jdbc.ch()).thenReturn(chTemplate);
       when(jdbc.pg()).thenReturn(pgTemplate);
 
       Map<String, Object> row = testProductRow();
@@ -141,7 +137,7 @@ class DimProductMaterializerTest {
 
       materializer.materializeIncremental(77L);
 
-      verify(chTemplate).batchUpdate(anyString(), eq(List.of(row)), eq(1), any());
+      verify(jdbc).chBatchInsert(anyString(), eq(List.of(row)), any());
     }
   }
 }
@@ -1,10 +1,29 @@
 package io.datapulse.analytics.domain.materializer.fact;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.OptionalLong;
 
 import io.datapulse.analytics.domain.MaterializationPhase;
-import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.FactChangeFeed;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -18,7 +37,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class FactReturnsMaterializerTest {
 
   @Mock private MaterializationJdbc jdbc;
-  @Mock private AnalyticsProperties properties;
+  @Mock private PgToClickHouseTransfer transfer;
+  @Mock private FactChangeFeed changeFeed;
 
   @InjectMocks
   private FactReturnsMaterializer materializer;
@@ -39,6 +59,33 @@ class FactReturnsMaterializerTest {
   @DisplayName("SQL queries")
   class SqlQueries {
 
+    @Test
+    @DisplayName("PG_QUERY should page by keyset on cr.id instead of OFFSET")
+    void should_pageByKeyset_when_pgQuery() throws Exception {
+      var field = FactReturnsMaterializer.class.getDeclaredField("PG_QUERY");
+      field.setAccessible(true);
+      String sql = (String) field.get(null);
+
+      assertThat(sql)
+          .contains("WHERE cr.id > :afterKey")
+          .contains("ORDER BY cr.id")
+          .doesNotContain("OFFSET");
+    }
+
+    @Test
+    @DisplayName("PG_CHANGES_QUERY should page the change feed on (cr.updated_at, cr.id)")
+    void should_pageByUpdatedAt_when_changesQuery() throws Exception {
+      var field = FactReturnsMaterializer.class.getDeclaredField("PG_CHANGES_QUERY");
+      field.setAccessible(true);
+      String sql = (String) field.get(null);
+
+      assertThat(sql)
+          .contains("cr.updated_at")
+          .contains("WHERE (cr.updated_at, cr.id) > (:afterUpdatedAt, :afterKey)")
+          .contains("ORDER BY cr.updated_at, cr.id")
+          .doesNotContain("job_execution_id = :jobExecutionId");
+    }
+
     @Test
     @DisplayName("PG_QUERY should use COALESCE for fulfillment_type with cr as primary source")
     void should_coalesceReturnFulfillmentType_when_pgQuery() throws Exception {
@@ -60,4 +107,97 @@ class FactReturnsMaterializerTest {
       assertThat(sql).contains("LEFT JOIN canonical_order co ON cr.canonical_order_id = co.id");
     }
   }
+
+  @Nested
+  @DisplayName("materializeIncremental")
+  class Incremental {
+
+    @Test
+    @DisplayName("should move the watermark when the change feed transferred rows")
+    void should_updateWatermark_when_changesTransferred() {
+      when(changeFeed.transferChanges(eq("fact_returns"), any(), any(), any()))
+          .thenReturn(OptionalLong.of(3));
+
+      materializer.materializeIncremental(42L);
+
+      verify(jdbc).updateWatermark(eq("fact_returns"), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("should keep the watermark when nothing changed")
+    void should_keepWatermark_when_noChanges() {
+      when(changeFeed.transferChanges(eq("fact_returns"), any(), any(), any()))
+          .thenReturn(OptionalLong.of(0));
+
+      materializer.materializeIncremental(42L);
+
+      verify(jdbc, never()).updateWatermark(anyString(), any());
+      verify(jdbc, never()).fullMaterializeWithSwap(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("should re-materialize fully and reset the feed when there is no cursor")
+    void should_materializeFull_when_noCursor() {
+      Instant changesFrom = Instant.parse("2025-02-01T00:00:00Z");
+      when(changeFeed.transferChanges(eq("fact_returns"), any(), any(), any()))
+          .thenReturn(OptionalLong.empty());
+      when(changeFeed.databaseNow()).thenReturn(changesFrom);
+
+      materializer.materializeIncremental(42L);
+
+      verify(jdbc).fullMaterializeWithSwap(eq("fact_returns"), any());
+      verify(changeFeed).reset("fact_returns", changesFrom);
+    }
+  }
+
+  @Nested
+  @DisplayName("row mapping")
+  class RowMapping {
+
+    @Test
+    @DisplayName("ver should be the canonical row's updated_at, not the run's clock")
+    void should_takeVerFromUpdatedAt_when_rowMapped() throws Exception {
+      Instant updatedAt = Instant.parse("2025-02-01T10:15:30.123Z");
+      ResultSet rs = mock(ResultSet.class);
+      when(rs.getTimestamp("updated_at")).thenReturn(Timestamp.from(updatedAt));
+
+      var row = FactReturnsMaterializer.mapRow(rs, 0);
+
+      assertThat(row.ver()).isEqualTo(updatedAt.toEpochMilli());
+    }
+  }
+
+  @Nested
+  @DisplayName("RowBinary encoding")
+  class Encoding {
+
+    @Test
+    @DisplayName("should encode columns in CH_COLUMNS order with nullable markers")
+    void should_encodeRow_when_optionalColumnsNull() throws Exception {
+      var row = new FactReturnsMaterializer.ReturnRow(
+          3L, 11L, 5L, "WB", null, "R1", null, 9L, 2, new BigDecimal("150.50"), null,
+          LocalDate.of(2025, 2, 1), 77L, 1000L);
+
+      ByteArrayOutputStream sink = new ByteArrayOutputStream();
+      RowBinaryWriter out = new RowBinaryWriter(sink, 64);
+      FactReturnsMaterializer.encode(row, out);
+      out.flush();
+
+      ByteBuffer expected = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN)
+          .putInt(3).putLong(11).putInt(5)
+          .put((byte) 2).put((byte) 'W').put((byte) 'B')
+          .put((byte) 1)
+          .put((byte) 2).put((byte) 'R').put((byte) '1')
+          .put((byte) 1)
+          .put((byte) 0).putLong(9)
+          .putInt(2)
+          .put((byte) 0).putLong(15050)
+          .put((byte) 1)
+          .putShort((short) LocalDate.of(2025, 2, 1).toEpochDay())
+          .putLong(77).putLong(1000);
+      byte[] expectedBytes = new byte[expected.position()];
+      expected.flip().get(expectedBytes);
+      assertThat(sink.toByteArray()).containsExactly(expectedBytes);
+    }
+  }
 }
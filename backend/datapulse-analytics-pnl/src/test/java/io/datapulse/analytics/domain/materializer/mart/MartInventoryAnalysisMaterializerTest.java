@@ -6,6 +6,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -86,7 +87,7 @@ class MartInventoryAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -111,7 +112,7 @@ class MartInventoryAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -138,7 +139,7 @@ class MartInventoryAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -164,7 +165,7 @@ class MartInventoryAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -189,7 +190,7 @@ class MartInventoryAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -220,4 +221,29 @@ class MartInventoryAnalysisMaterializerTest {
       verify(jdbc).fullMaterializeWithSwap(eq("mart_inventory_analysis"), any());
     }
   }
+
+  @Nested
+  @DisplayName("materializeWorkspace")
+  class Workspace {
+
+    @Test
+    @DisplayName("should replace the workspace's partitions with a workspace-filtered rebuild")
+    void should_filterByWorkspace_when_workspaceRun() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(2);
+        populate.accept(invocation.getArgument(0) + "_staging_ws7");
+        return null;
+      }).when(jdbc).workspaceMaterializeWithReplace(anyString(), eq(7L), any());
+
+      materializer.materializeWorkspace(7L);
+
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(chTemplate).execute(sqlCaptor.capture());
+      assertThat(sqlCaptor.getValue())
+          .contains("INSERT INTO mart_inventory_analysis_staging_ws7")
+          .contains("FROM fact_inventory_snapshot WHERE workspace_id = 7");
+      verify(jdbc, never()).fullMaterializeWithSwap(anyString(), any());
+    }
+  }
 }
@@ -0,0 +1,169 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MartPnlTrendMaterializer")
+class MartPnlTrendMaterializerTest {
+
+  @Mock private MaterializationJdbc jdbc;
+  @Mock private JdbcTemplate chTemplate;
+  @Mock private PnlSliceResolver sliceResolver;
+
+  @InjectMocks
+  private MartPnlTrendMaterializer materializer;
+
+  @Test
+  @DisplayName("should report table name as 'mart_pnl_trend'")
+  void should_returnTableName() {
+    assertThat(materializer.tableName()).isEqualTo("mart_pnl_trend");
+  }
+
+  @Test
+  @DisplayName("should run after both P&L marts")
+  void should_dependOnPnlMarts() {
+    assertThat(materializer.phase()).isEqualTo(MaterializationPhase.MART);
+    assertThat(materializer.sourceTables())
+        .containsExactlyInAnyOrder("mart_posting_pnl", "mart_product_pnl");
+  }
+
+  @Nested
+  @DisplayName("materializeFull")
+  class Full {
+
+    private void stubSwap() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(1);
+        populate.accept(invocation.getArgument(0) + "_staging");
+        return null;
+      }).when(jdbc).fullMaterializeWithSwap(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("should fill day and week grains from postings and months from products")
+    void should_insertEveryGrain_when_fullRun() {
+      stubSwap();
+      Instant runStartedAt = Instant.parse("2025-03-01T02:00:00Z");
+
+      materializer.materializeFull(runStartedAt);
+
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(jdbc, times(2)).chInsertSelect(sqlCaptor.capture());
+      List<String> sql = sqlCaptor.getAllValues();
+      assertThat(sql.get(0))
+          .startsWith("INSERT INTO mart_pnl_trend_staging")
+          .contains("FROM mart_posting_pnl", "['DAY', 'WEEK'] AS grain",
+              "toStartOfWeek(finance_date)")
+          .doesNotContain("/*SCOPE*/");
+      assertThat(sql.get(1))
+          .startsWith("INSERT INTO mart_pnl_trend_staging")
+          .contains("FROM mart_product_pnl", "'MONTH' AS grain", "sum(advertising_cost)")
+          .doesNotContain("/*SCOPE*/");
+      verify(sliceResolver).reset(runStartedAt);
+    }
+
+    @Test
+    @DisplayName("should keep the slice cursor when rebuilt outside a full re-materialization")
+    void should_keepSliceCursor_when_noRunStart() {
+      stubSwap();
+
+      materializer.materializeFull();
+
+      verify(sliceResolver, never()).reset(any());
+    }
+  }
+
+  @Nested
+  @DisplayName("materializeIncremental")
+  class Incremental {
+
+    private final PnlSlices slices = new PnlSlices(42L, List.of(
+        new PnlSlices.Slice(1, "WB", 202401),
+        new PnlSlices.Slice(1, "WB", 202402),
+        new PnlSlices.Slice(2, "OZON", 202402)));
+
+    private final String scope = "(workspace_id, source_platform) IN ((1, 'WB'), (2, 'OZON'))";
+
+    @Test
+    @DisplayName("should skip when the job affected no slices")
+    void should_skip_when_noAffectedSlices() {
+      when(sliceResolver.resolve(42L)).thenReturn(new PnlSlices(42L, List.of()));
+
+      materializer.materializeIncremental(42L);
+
+      verify(jdbc, never()).replacePartitions(anyString(), anyString(), anyString(), anyLong(),
+          any());
+      verify(sliceResolver).acknowledge(42L);
+    }
+
+    @Test
+    @DisplayName("should rebuild the affected workspaces and platforms and replace their partitions")
+    void should_replaceScopePartitions_when_slicesAffected() {
+      when(sliceResolver.resolve(42L)).thenReturn(slices);
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(4);
+        populate.accept("mart_pnl_trend_staging_job42");
+        return null;
+      }).when(jdbc).replacePartitions(anyString(), anyString(), anyString(), anyLong(), any());
+
+      materializer.materializeIncremental(42L);
+
+      verify(jdbc).replacePartitions(eq("mart_pnl_trend"), eq("workspace_id, source_platform"),
+          eq(scope), eq(42L), any());
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(jdbc, times(2)).chInsertSelect(sqlCaptor.capture());
+      assertThat(sqlCaptor.getAllValues()).allSatisfy(sql -> assertThat(sql)
+          .startsWith("INSERT INTO mart_pnl_trend_staging_job42")
+          .contains("WHERE 1 = 1 AND " + scope));
+      verify(sliceResolver).acknowledge(42L);
+    }
+  }
+
+  @Nested
+  @DisplayName("materializeWorkspace")
+  class Workspace {
+
+    @Test
+    @DisplayName("should narrow both sources to the workspace")
+    void should_scopeToWorkspace_when_workspaceRun() {
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(2);
+        populate.accept("mart_pnl_trend_staging_ws7");
+        return null;
+      }).when(jdbc).workspaceMaterializeWithReplace(anyString(), anyLong(), any());
+
+      materializer.materializeWorkspace(7L);
+
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(jdbc, times(2)).chInsertSelect(sqlCaptor.capture());
+      assertThat(sqlCaptor.getAllValues()).allSatisfy(sql -> assertThat(sql)
+          .contains("WHERE 1 = 1 AND workspace_id = 7"));
+    }
+  }
+}
@@ -1,17 +1,33 @@
 package io.datapulse.analytics.domain.materializer.mart;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.datapulse.analytics.domain.MaterializationPhase;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -28,6 +44,7 @@ class MartPostingPnlMaterializerTest {
 
   @Mock private MaterializationJdbc jdbc;
   @Mock private JdbcTemplate chTemplate;
+  @Mock private PnlSliceResolver sliceResolver;
 
   @InjectMocks
   private MartPostingPnlMaterializer materializer;
@@ -78,7 +95,7 @@ class MartPostingPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String executedSql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -119,7 +136,7 @@ class MartPostingPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -152,7 +169,7 @@ class MartPostingPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -179,7 +196,7 @@ class MartPostingPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -204,7 +221,7 @@ class MartPostingPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -219,18 +236,137 @@ class MartPostingPnlMaterializerTest {
   @DisplayName("materializeIncremental")
   class Incremental {
 
+    private final PnlSlices slices = new PnlSlices(42L, List.of(
+        new PnlSlices.Slice(1, "WB", 202401),
+        new PnlSlices.Slice(1, "WB", 202402),
+        new PnlSlices.Slice(2, "OZON", 202402)));
+
+    private final String homeSlice = "(workspace_id, source_platform, toYYYYMM(finance_date)) IN "
+        + "((1, 'WB', 202401), (1, 'WB', 202402), (2, 'OZON', 202402))";
+    private final String scope = "(workspace_id, source_platform) IN ((1, 'WB'), (2, 'OZON'))";
+
     @Test
-    @DisplayName("should filter by affected postings from job execution")
-    void should_filterByAffectedPostings_when_incrementalRun() {
-      when(jdbc.ch()).thenReturn(chTemplate);
+    @DisplayName("should skip when the job affected no slices")
+    void should_skip_when_noAffectedSlices() {
+      when(sliceResolver.resolve(42L)).thenReturn(new PnlSlices(42L, List.of()));
+
+      materializer.materializeIncremental(42L);
+
+      verify(jdbc, never()).ch();
+      verify(jdbc, never()).replacePartitions(anyString(), anyString(), anyString(), anyLong(),
+          any());
+    }
+
+    @Test
+    @DisplayName("should rebuild the affected slices, carry the rest over and replace the scopes")
+    void should_replaceSlicePartitions_when_slicesAffected() {
+      when(sliceResolver.resolve(42L)).thenReturn(slices);
+      doAnswer(invocation -> {
+        invocation.<Runnable>getArgument(1).run();
+        return null;
+      }).when(jdbc).withAdvisoryLocks(any(), any());
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(4);
+        populate.accept("mart_posting_pnl_staging_job42");
+        return null;
+      }).when(jdbc).replacePartitions(anyString(), anyString(), anyString(), anyLong(), any());
 
       materializer.materializeIncremental(42L);
 
+      verify(jdbc).withAdvisoryLocks(
+          eq(List.of("mart_posting_pnl:1:WB", "mart_posting_pnl:2:OZON")), any());
+      verify(jdbc).replacePartitions(eq("mart_posting_pnl"),
+          eq("workspace_id, source_platform"), eq(scope), eq(42L), any());
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate).execute(sqlCaptor.capture());
+      verify(jdbc, times(2)).chInsertSelect(sqlCaptor.capture());
+      assertThat(sqlCaptor.getAllValues().get(0))
+          .startsWith("INSERT INTO mart_posting_pnl_staging_job42")
+          .contains("HAVING " + homeSlice);
+      assertThat(sqlCaptor.getAllValues().get(1)).isEqualTo(
+          "INSERT INTO mart_posting_pnl_staging_job42 SELECT * FROM mart_posting_pnl WHERE "
+              + scope + " AND NOT (" + homeSlice + ")");
+      verify(jdbc, never()).fullMaterializeWithSwap(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("two jobs over the same scope should replace its partitions one at a time")
+    @SuppressWarnings("unchecked")
+    void should_serializeReplaces_when_interleavedJobsShareScope() throws Exception {
+      when(sliceResolver.resolve(42L)).thenReturn(
+          new PnlSlices(42L, List.of(new PnlSlices.Slice(1, "WB", 202401))));
+      when(sliceResolver.resolve(43L)).thenReturn(
+          new PnlSlices(43L, List.of(new PnlSlices.Slice(1, "WB", 202402))));
+      Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+      doAnswer(invocation -> {
+        List<ReentrantLock> held = ((Collection<String>) invocation.getArgument(0)).stream()
+            .sorted()
+            .map(name -> locks.computeIfAbsent(name, key -> new ReentrantLock()))
+            .toList();
+        held.forEach(ReentrantLock::lock);
+        try {
+          invocation.<Runnable>getArgument(1).run();
+        } finally {
+          held.forEach(ReentrantLock::unlock);
+        }
+        return null;
+      }).when(jdbc).withAdvisoryLocks(any(), any());
+
+      CountDownLatch firstReplacing = new CountDownLatch(1);
+      CountDownLatch releaseFirst = new CountDownLatch(1);
+      List<String> events = Collections.synchronizedList(new ArrayList<>());
+      doAnswer(invocation -> {
+        long job = invocation.getArgument(3);
+        events.add("start " + job);
+        if (job == 42L) {
+          firstReplacing.countDown();
+          assertThat(releaseFirst.await(5, SECONDS)).isTrue();
+        }
+        events.add("end " + job);
+        return null;
+      }).when(jdbc).replacePartitions(anyString(), anyString(), anyString(), anyLong(), any());
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+        Future<?> first = executor.submit(() -> materializer.materializeIncremental(42L));
+        assertThat(firstReplacing.await(5, SECONDS)).isTrue();
+        Future<?> second = executor.submit(() -> materializer.materializeIncremental(43L));
+        ReentrantLock scopeLock = locks.get("mart_posting_pnl:1:WB");
+        long deadline = System.nanoTime() + SECONDS.toNanos(5);
+        while (!scopeLock.hasQueuedThreads() && System.nanoTime() < deadline) {
+          Thread.sleep(10);
+        }
+        assertThat(scopeLock.hasQueuedThreads()).isTrue();
+        assertThat(events).containsExactly("start 42");
+
+        releaseFirst.countDown();
+        first.get(5, SECONDS);
+        second.get(5, SECONDS);
+      } finally {
+        executor.shutdownNow();
+      }
+
+      assertThat(events).containsExactly("start 42", "end 42", "start 43", "end 43");
+    }
 
-      String sql = sqlCaptor.getValue();
-      assertThat(sql).contains("job_execution_id = 42");
+    @Test
+    @DisplayName("incremental SQL should be the full rebuild SQL restricted to the slices")
+    void should_equalFullSqlPlusSlicePredicates_when_sqlGenerated() {
+      String incremental =
+          MartPostingPnlMaterializer.incrementalSql("mart_posting_pnl", slices, 7L);
+
+      assertThat(incremental).doesNotContain("/*SLICE*/", "/*SCOPE*/");
+      assertThat(countOf(incremental, "HAVING " + homeSlice)).isEqualTo(2);
+      assertThat(countOf(incremental, "AND " + scope)).isEqualTo(6);
+
+      String restored = incremental
+          .replace("HAVING " + homeSlice, "/*SLICE*/")
+          .replace("AND " + scope, "/*SCOPE*/");
+      assertThat(restored)
+          .isEqualTo(MartPostingPnlMaterializer.fullSql("mart_posting_pnl", 7L));
     }
   }
+
+  private static int countOf(String text, String fragment) {
+    return text.split(Pattern.quote(fragment), -1).length - 1;
+  }
 }
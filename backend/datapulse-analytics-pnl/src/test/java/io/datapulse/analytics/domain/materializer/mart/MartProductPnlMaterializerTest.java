@@ -2,15 +2,19 @@ package io.datapulse.analytics.domain.materializer.mart;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.datapulse.analytics.domain.MaterializationPhase;
 import io.datapulse.analytics.persistence.MaterializationJdbc;
+import java.util.List;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -28,6 +32,7 @@ class MartProductPnlMaterializerTest {
 
   @Mock private MaterializationJdbc jdbc;
   @Mock private JdbcTemplate chTemplate;
+  @Mock private PnlSliceResolver sliceResolver;
 
   @InjectMocks
   private MartProductPnlMaterializer materializer;
@@ -78,7 +83,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -103,7 +108,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -127,7 +132,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -153,7 +158,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -179,7 +184,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -207,7 +212,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -233,7 +238,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -257,7 +262,7 @@ class MartProductPnlMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -273,20 +278,78 @@ class MartProductPnlMaterializerTest {
   @DisplayName("materializeIncremental")
   class Incremental {
 
+    private final PnlSlices slices = new PnlSlices(42L, List.of(
+        new PnlSlices.Slice(1, "WB", 202401),
+        new PnlSlices.Slice(2, "OZON", 202402)));
+
+    private final String tuples = "((1, 'WB', 202401), (2, 'OZON', 202402))";
+    private final String financeSlice =
+        "(workspace_id, source_platform, toYYYYMM(finance_date)) IN " + tuples;
+    private final String adSlice =
+        "(fa.workspace_id, fa.source_platform, toYYYYMM(fa.ad_date)) IN " + tuples;
+
     @Test
-    @DisplayName("should delegate to materializeFull via fullMaterializeWithSwap")
-    void should_delegateToFull_when_incrementalRun() {
-      when(jdbc.ch()).thenReturn(chTemplate);
-      when(chTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+    @DisplayName("should skip when the job affected no slices")
+    void should_skip_when_noAffectedSlices() {
+      when(sliceResolver.resolve(42L)).thenReturn(new PnlSlices(42L, List.of()));
+
+      materializer.materializeIncremental(42L);
+
+      verify(jdbc, never()).ch();
+      verify(jdbc, never()).fullMaterializeWithSwap(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("should rebuild only the affected slices and replace their scope partitions")
+    void should_replaceSlicePartitions_when_slicesAffected() {
+      when(sliceResolver.resolve(42L)).thenReturn(slices);
       doAnswer(invocation -> {
-        Consumer<String> populate = invocation.getArgument(1);
-        populate.accept(invocation.getArgument(0) + "_staging");
+        invocation.<Runnable>getArgument(1).run();
         return null;
-      }).when(jdbc).fullMaterializeWithSwap(anyString(), any());
+      }).when(jdbc).withAdvisoryLocks(any(), any());
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(4);
+        populate.accept("mart_product_pnl_staging_job42");
+        return null;
+      }).when(jdbc).replacePartitions(anyString(), anyString(), anyString(), anyLong(), any());
 
       materializer.materializeIncremental(42L);
 
-      verify(jdbc).fullMaterializeWithSwap(eq("mart_product_pnl"), any());
+      String scope = "(workspace_id, source_platform) IN ((1, 'WB'), (2, 'OZON'))";
+      verify(jdbc).withAdvisoryLocks(
+          eq(List.of("mart_product_pnl:1:WB", "mart_product_pnl:2:OZON")), any());
+      verify(jdbc).replacePartitions(eq("mart_product_pnl"),
+          eq("workspace_id, source_platform"), eq(scope), eq(42L), any());
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(jdbc, times(2)).chInsertSelect(sqlCaptor.capture());
+      assertThat(sqlCaptor.getAllValues().get(0))
+          .startsWith("INSERT INTO mart_product_pnl_staging_job42")
+          .contains("FROM mart_posting_pnl WHERE " + financeSlice);
+      assertThat(sqlCaptor.getAllValues().get(1)).isEqualTo(
+          "INSERT INTO mart_product_pnl_staging_job42 SELECT * FROM mart_product_pnl WHERE "
+              + scope + " AND NOT ((workspace_id, source_platform, period) IN " + tuples + ")");
+      verify(jdbc, never()).fullMaterializeWithSwap(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("incremental SQL should be the full rebuild SQL restricted to the slices")
+    void should_equalFullSqlPlusSlicePredicates_when_sqlGenerated() {
+      String incremental =
+          MartProductPnlMaterializer.incrementalSql("mart_product_pnl", slices, 7L);
+
+      assertThat(incremental)
+          .doesNotContain("/*POSTING_SLICE*/", "/*FINANCE_SLICE*/", "/*AD_SLICE*/")
+          .contains("FROM mart_posting_pnl WHERE " + financeSlice)
+          .contains("WHERE attribution_level = 'PRODUCT' AND " + financeSlice)
+          .contains("WHERE attribution_level = 'ACCOUNT' AND " + financeSlice)
+          .contains("fa.workspace_id = dp.workspace_id WHERE " + adSlice);
+
+      String restored = incremental
+          .replace("WHERE " + financeSlice, "/*POSTING_SLICE*/")
+          .replace("AND " + financeSlice, "/*FINANCE_SLICE*/")
+          .replace("WHERE " + adSlice, "/*AD_SLICE*/");
+      assertThat(restored)
+          .isEqualTo(MartProductPnlMaterializer.fullSql("mart_product_pnl", 7L));
     }
   }
 }
@@ -78,7 +78,7 @@ class MartReturnsAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -103,7 +103,7 @@ class MartReturnsAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -129,7 +129,7 @@ class MartReturnsAnalysisMaterializerTest {
       materializer.materializeFull();
 
       ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
-      verify(chTemplate, atLeast(1)).execute(sqlCaptor.capture());
+      verify(jdbc, atLeast(1)).chInsertSelect(sqlCaptor.capture());
 
       String sql = sqlCaptor.getAllValues().stream()
           .filter(s -> s.contains("INSERT INTO"))
@@ -0,0 +1,115 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.datapulse.analytics.domain.MaterializationPhase;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MartReturnsTrendMaterializer")
+class MartReturnsTrendMaterializerTest {
+
+  @Mock private MaterializationJdbc jdbc;
+  @Mock private JdbcTemplate chTemplate;
+
+  @InjectMocks
+  private MartReturnsTrendMaterializer materializer;
+
+  @Test
+  @DisplayName("should report table name as 'mart_returns_trend'")
+  void should_returnTableName() {
+    assertThat(materializer.tableName()).isEqualTo("mart_returns_trend");
+    assertThat(materializer.phase()).isEqualTo(MaterializationPhase.MART);
+  }
+
+  @Nested
+  @DisplayName("materializeFull")
+  class Full {
+
+    @Test
+    @DisplayName("should roll returns and sales up to every grain in one pass")
+    void should_insertEveryGrain_when_fullRun() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(1);
+        populate.accept(invocation.getArgument(0) + "_staging");
+        return null;
+      }).when(jdbc).fullMaterializeWithSwap(anyString(), any());
+
+      materializer.materializeFull();
+
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(jdbc).chInsertSelect(sqlCaptor.capture());
+      assertThat(sqlCaptor.getValue())
+          .startsWith("INSERT INTO mart_returns_trend_staging")
+          .contains("FROM fact_returns", "FROM fact_sales",
+              "['DAY', 'WEEK', 'MONTH'] AS grain",
+              "[day, toStartOfWeek(day), toStartOfMonth(day)] AS bucket",
+              "SETTINGS final = 1")
+          .doesNotContain("/*WORKSPACE*/");
+    }
+  }
+
+  @Nested
+  @DisplayName("materializeWorkspace")
+  class Workspace {
+
+    @Test
+    @DisplayName("should narrow both facts to the workspace")
+    void should_scopeToWorkspace_when_workspaceRun() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(2);
+        populate.accept("mart_returns_trend_staging_ws7");
+        return null;
+      }).when(jdbc).workspaceMaterializeWithReplace(anyString(), anyLong(), any());
+
+      materializer.materializeWorkspace(7L);
+
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(chTemplate).execute(sqlCaptor.capture());
+      assertThat(sqlCaptor.getValue())
+          .contains("FROM fact_returns WHERE workspace_id = 7",
+              "FROM fact_sales WHERE workspace_id = 7");
+    }
+  }
+
+  @Nested
+  @DisplayName("materializeIncremental")
+  class Incremental {
+
+    @Test
+    @DisplayName("should delegate to full materialization via fullMaterializeWithSwap")
+    void should_delegateToFull_when_incrementalRun() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+      doAnswer(invocation -> {
+        Consumer<String> populate = invocation.getArgument(1);
+        populate.accept(invocation.getArgument(0) + "_staging");
+        return null;
+      }).when(jdbc).fullMaterializeWithSwap(anyString(), any());
+
+      materializer.materializeIncremental(99L);
+
+      verify(jdbc).fullMaterializeWithSwap(eq("mart_returns_trend"), any());
+    }
+  }
+}
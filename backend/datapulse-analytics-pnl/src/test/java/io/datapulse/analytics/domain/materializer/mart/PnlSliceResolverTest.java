@@ -0,0 +1,242 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PnlSliceResolver")
+class PnlSliceResolverTest {
+
+  @Mock private MaterializationJdbc jdbc;
+  @Mock private JdbcTemplate chTemplate;
+
+  private PnlSliceResolver resolver;
+
+  @BeforeEach
+  void setUp() {
+    resolver = new PnlSliceResolver(jdbc,
+        new AnalyticsProperties(null, false, null, false, 0, 0, 0, Duration.ofMinutes(5)));
+  }
+
+  @Nested
+  @DisplayName("resolve")
+  class Resolve {
+
+    @Test
+    @DisplayName("should read facts changed since the slice cursor minus the overlap")
+    void should_queryChangedSlices_when_resolving() {
+      when(jdbc.getWatermark("pnl_slices")).thenReturn(Instant.ofEpochMilli(1_000_000));
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.query(anyString(), any(RowMapper.class)))
+          .thenReturn(List.of(new PnlSlices.Slice(1, "WB", 202401)));
+
+      PnlSlices slices = resolver.resolve(42L);
+
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(chTemplate).query(sqlCaptor.capture(), any(RowMapper.class));
+      assertThat(sqlCaptor.getValue())
+          .contains("ver > 700000")
+          .contains("job_execution_id = 42")
+          .doesNotContain("%1$d", "%2$d")
+          .contains("FROM fact_product_cost")
+          .contains("FROM fact_advertising")
+          .contains("FROM fact_sales")
+          .contains("FROM mart_posting_pnl");
+      assertThat(slices.jobExecutionId()).isEqualTo(42L);
+      assertThat(slices.slices()).containsExactly(new PnlSlices.Slice(1, "WB", 202401));
+    }
+
+    @Test
+    @DisplayName("should reuse the slices of the same job for the second mart")
+    void should_reuseSlices_when_sameJob() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.query(anyString(), any(RowMapper.class)))
+          .thenReturn(List.of(new PnlSlices.Slice(1, "WB", 202401)));
+
+      PnlSlices first = resolver.resolve(42L);
+      PnlSlices second = resolver.resolve(42L);
+
+      assertThat(second).isSameAs(first);
+      verify(chTemplate, times(1)).query(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("should query again for another job")
+    void should_queryAgain_when_differentJob() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+
+      resolver.resolve(42L);
+      PnlSlices other = resolver.resolve(43L);
+
+      assertThat(other.jobExecutionId()).isEqualTo(43L);
+      assertThat(other.isEmpty()).isTrue();
+      verify(chTemplate, times(2)).query(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("should keep each job's slices when runs interleave")
+    void should_keepSlicesPerJob_when_runsInterleave() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.query(anyString(), any(RowMapper.class)))
+          .thenReturn(List.of(new PnlSlices.Slice(1, "WB", 202401)))
+          .thenReturn(List.of(new PnlSlices.Slice(2, "OZON", 202402)));
+
+      PnlSlices first = resolver.resolve(42L);
+      PnlSlices other = resolver.resolve(43L);
+
+      assertThat(resolver.resolve(42L)).isSameAs(first);
+      assertThat(resolver.resolve(43L)).isSameAs(other);
+      verify(chTemplate, times(2)).query(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("should read every fact row when there is no slice cursor")
+    void should_readEverything_when_noCursor() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+
+      resolver.resolve(42L);
+
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(chTemplate).query(sqlCaptor.capture(), any(RowMapper.class));
+      assertThat(sqlCaptor.getValue()).contains("ver > 0");
+    }
+  }
+
+  @Nested
+  @DisplayName("acknowledge")
+  class Acknowledge {
+
+    @Test
+    @DisplayName("should move the slice cursor to the highest fact ver seen before the slices")
+    void should_moveCursorToMaxVer_when_jobResolved() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(5_000_000L);
+      when(chTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+      when(jdbc.getWatermark("pnl_slices")).thenReturn(Instant.ofEpochMilli(1_000_000));
+
+      resolver.resolve(42L);
+      resolver.acknowledge(42L);
+
+      verify(jdbc).updateWatermark("pnl_slices", Instant.ofEpochMilli(5_000_000));
+    }
+
+    @Test
+    @DisplayName("should not pass rows a concurrent fact run inserts after the resolution")
+    void should_keepLateFactRowsPastCursor_when_factRunStillInFlight() {
+      // job 42 resolves while another job's fact run is still inserting rows with ver 4_000_000
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.queryForObject(anyString(), eq(Long.class)))
+          .thenReturn(3_000_000L)
+          .thenReturn(4_000_000L);
+      when(chTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+      when(jdbc.getWatermark("pnl_slices"))
+          .thenReturn(Instant.ofEpochMilli(1_000_000))
+          .thenReturn(Instant.ofEpochMilli(1_000_000))
+          .thenReturn(Instant.ofEpochMilli(3_000_000));
+
+      resolver.resolve(42L);
+      resolver.acknowledge(42L);
+      resolver.resolve(43L);
+
+      verify(jdbc).updateWatermark("pnl_slices", Instant.ofEpochMilli(3_000_000));
+      ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+      verify(chTemplate, times(2)).query(sqlCaptor.capture(), any(RowMapper.class));
+      assertThat(sqlCaptor.getAllValues().get(1)).contains("ver > 2700000");
+    }
+
+    @Test
+    @DisplayName("should never move the slice cursor back")
+    void should_keepCursor_when_resolvedVerBehindCursor() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(2_000_000L);
+      when(chTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+      when(jdbc.getWatermark("pnl_slices"))
+          .thenReturn(Instant.ofEpochMilli(1_000_000))
+          .thenReturn(Instant.ofEpochMilli(3_000_000));
+
+      resolver.resolve(42L);
+      resolver.acknowledge(42L);
+
+      verify(jdbc, never()).updateWatermark(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("should keep the cursor when another job's slices are cached")
+    void should_keepCursor_when_otherJob() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+
+      resolver.resolve(42L);
+      resolver.acknowledge(43L);
+
+      verify(jdbc, never()).updateWatermark(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("should drop the job's slices once acknowledged")
+    void should_dropSlices_when_acknowledged() {
+      when(jdbc.ch()).thenReturn(chTemplate);
+      when(chTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(5_000_000L);
+      when(chTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+
+      resolver.resolve(42L);
+      resolver.acknowledge(42L);
+      resolver.acknowledge(42L);
+      resolver.resolve(42L);
+
+      verify(jdbc, times(1)).updateWatermark(eq("pnl_slices"), any());
+      verify(chTemplate, times(2)).query(anyString(), any(RowMapper.class));
+    }
+  }
+
+  @Nested
+  @DisplayName("PnlSlices predicates")
+  class Predicates {
+
+    @Test
+    @DisplayName("should render slice tuples over the given column expressions")
+    void should_renderSliceTuples() {
+      PnlSlices slices = new PnlSlices(1L, List.of(
+          new PnlSlices.Slice(1, "WB", 202401),
+          new PnlSlices.Slice(1, "WB", 202402)));
+
+      assertThat(slices.predicate("ws", "mp", "p"))
+          .isEqualTo("(ws, mp, p) IN ((1, 'WB', 202401), (1, 'WB', 202402))");
+      assertThat(slices.scopePredicate("ws", "mp"))
+          .isEqualTo("(ws, mp) IN ((1, 'WB'))");
+    }
+
+    @Test
+    @DisplayName("should escape quotes in platform literals")
+    void should_escapeQuotes_when_platformContainsQuote() {
+      PnlSlices slices = new PnlSlices(1L, List.of(new PnlSlices.Slice(1, "W'B\\", 202401)));
+
+      assertThat(slices.scopePredicate("ws", "mp"))
+          .isEqualTo("(ws, mp) IN ((1, 'W\\'B\\\\'))");
+    }
+  }
+}
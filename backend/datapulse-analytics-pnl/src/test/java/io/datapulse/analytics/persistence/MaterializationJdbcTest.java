@@ -0,0 +1,257 @@
+package io.datapulse.analytics.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.datapulse.platform.clickhouse.ClickHouseBulkInserter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@DisplayName("MaterializationJdbc")
+class MaterializationJdbcTest {
+
+  private static final String STAGING = "fact_sales_staging_ws7";
+
+  private final NamedParameterJdbcTemplate pg = mock(NamedParameterJdbcTemplate.class);
+  private final JdbcTemplate ch = mock(JdbcTemplate.class);
+  private final MaterializationJdbc jdbc = new MaterializationJdbc(
+      pg, ch, mock(ClickHouseBulkInserter.class));
+  private final List<String> populated = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    when(ch.queryForList(anyString(), eq(String.class), eq("fact_sales")))
+        .thenReturn(List.of("workspace_id"));
+  }
+
+  @Nested
+  @DisplayName("workspaceMaterializeWithReplace")
+  class WorkspaceReplace {
+
+    @Test
+    @DisplayName("should replace the workspace partition from staging")
+    void should_replaceWorkspacePartition_when_workspaceRebuilt() {
+      when(ch.queryForObject(
+          "SELECT count() FROM %s WHERE workspace_id != ?".formatted(STAGING), Long.class, 7L))
+          .thenReturn(0L);
+      when(ch.queryForList("SELECT DISTINCT _partition_id FROM " + STAGING, String.class))
+          .thenReturn(List.of("7"));
+      when(ch.queryForList(
+          "SELECT DISTINCT _partition_id FROM fact_sales WHERE workspace_id = ?",
+          String.class, 7L))
+          .thenReturn(List.of("7"));
+
+      jdbc.workspaceMaterializeWithReplace("fact_sales", 7L, populated::add);
+
+      assertThat(populated).containsExactly(STAGING);
+      verify(ch).execute("ALTER TABLE fact_sales REPLACE PARTITION ID '7' FROM " + STAGING);
+      verify(ch, never()).execute(startsWith("ALTER TABLE fact_sales DROP PARTITION"));
+      // once before CREATE for a leftover staging table, once after the replace
+      verify(ch, times(2)).execute("DROP TABLE IF EXISTS " + STAGING);
+    }
+
+    @Test
+    @DisplayName("should replace staged slices and drop the workspace's stale ones")
+    void should_replaceAndDropStale_when_sliceMartRebuilt() {
+      String staging = "mart_product_pnl_staging_ws7";
+      when(ch.queryForList(anyString(), eq(String.class), eq("mart_product_pnl")))
+          .thenReturn(List.of("(workspace_id, source_platform, period)"));
+      when(ch.queryForObject(
+          "SELECT count() FROM %s WHERE workspace_id != ?".formatted(staging), Long.class, 7L))
+          .thenReturn(0L);
+      when(ch.queryForList("SELECT DISTINCT _partition_id FROM " + staging, String.class))
+          .thenReturn(List.of("7-WB-202401", "7-WB-202402"));
+      when(ch.queryForList(
+          "SELECT DISTINCT _partition_id FROM mart_product_pnl WHERE workspace_id = ?",
+          String.class, 7L))
+          .thenReturn(List.of("7-WB-202312", "7-WB-202401"));
+
+      jdbc.workspaceMaterializeWithReplace("mart_product_pnl", 7L, populated::add);
+
+      verify(ch).execute(
+          "ALTER TABLE mart_product_pnl REPLACE PARTITION ID '7-WB-202401' FROM " + staging);
+      verify(ch).execute(
+          "ALTER TABLE mart_product_pnl REPLACE PARTITION ID '7-WB-202402' FROM " + staging);
+      verify(ch).execute("ALTER TABLE mart_product_pnl DROP PARTITION ID '7-WB-202312'");
+      verify(ch, never()).execute("ALTER TABLE mart_product_pnl DROP PARTITION ID '7-WB-202401'");
+    }
+
+    @Test
+    @DisplayName("should not touch the live table when staging holds another workspace")
+    void should_fail_when_stagingContainsForeignRows() {
+      when(ch.queryForObject(
+          "SELECT count() FROM %s WHERE workspace_id != ?".formatted(STAGING), Long.class, 7L))
+          .thenReturn(3L);
+
+      assertThatThrownBy(
+          () -> jdbc.workspaceMaterializeWithReplace("fact_sales", 7L, populated::add))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("workspaceId=7");
+      verify(ch, never()).execute(startsWith("ALTER TABLE fact_sales"));
+      // once before CREATE for a leftover staging table, once after the replace
+      verify(ch, times(2)).execute("DROP TABLE IF EXISTS " + STAGING);
+    }
+
+    @Test
+    @DisplayName("should refuse a table that is not partitioned by workspace")
+    void should_fail_when_tableNotWorkspacePartitioned() {
+      when(ch.queryForList(anyString(), eq(String.class), eq("fact_advertising")))
+          .thenReturn(List.of("toYYYYMM(ad_date)"));
+
+      assertThatThrownBy(
+          () -> jdbc.workspaceMaterializeWithReplace("fact_advertising", 7L, populated::add))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("not partitioned by workspace_id");
+      assertThat(populated).isEmpty();
+    }
+  }
+
+  @Nested
+  @DisplayName("replacePartitions")
+  class ReplacePartitions {
+
+    private static final String TABLE = "mart_posting_pnl";
+    private static final String KEY = "workspace_id, source_platform, toYYYYMM(finance_date)";
+    private static final String PREDICATE = "(workspace_id = 7 AND source_platform = 'WB')";
+    private static final String JOB_STAGING = "mart_posting_pnl_staging_job42";
+
+    @BeforeEach
+    void stubPartitionKey() {
+      when(ch.queryForList(anyString(), eq(String.class), eq(TABLE)))
+          .thenReturn(List.of("(workspace_id, source_platform, toYYYYMM(finance_date))"));
+    }
+
+    @Test
+    @DisplayName("should replace the rebuilt slices and drop matched partitions left empty")
+    void should_replaceAndDropEmptied_when_slicesRebuilt() {
+      when(ch.queryForObject(
+          "SELECT count() FROM %s WHERE NOT (%s)".formatted(JOB_STAGING, PREDICATE), Long.class))
+          .thenReturn(0L);
+      when(ch.queryForList(
+          "SELECT DISTINCT _partition_id FROM %s WHERE %s".formatted(TABLE, PREDICATE),
+          String.class))
+          .thenReturn(List.of("7-WB-202603", "7-WB-202604"));
+      when(ch.queryForList("SELECT DISTINCT _partition_id FROM " + JOB_STAGING, String.class))
+          .thenReturn(List.of("7-WB-202604"));
+
+      jdbc.replacePartitions(TABLE, KEY, PREDICATE, 42L, populated::add);
+
+      assertThat(populated).containsExactly(JOB_STAGING);
+      verify(ch).execute(
+          "ALTER TABLE mart_posting_pnl REPLACE PARTITION ID '7-WB-202604' FROM " + JOB_STAGING);
+      verify(ch).execute("ALTER TABLE mart_posting_pnl DROP PARTITION ID '7-WB-202603'");
+      verify(ch, never()).execute("ALTER TABLE mart_posting_pnl DROP PARTITION ID '7-WB-202604'");
+      verify(ch, times(2)).execute("DROP TABLE IF EXISTS " + JOB_STAGING);
+    }
+
+    @Test
+    @DisplayName("should not touch the live table when staging holds rows of other slices")
+    void should_fail_when_stagingContainsRowsOutsidePredicate() {
+      when(ch.queryForObject(
+          "SELECT count() FROM %s WHERE NOT (%s)".formatted(JOB_STAGING, PREDICATE), Long.class))
+          .thenReturn(5L);
+
+      assertThatThrownBy(() -> jdbc.replacePartitions(TABLE, KEY, PREDICATE, 42L, populated::add))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("rows=5");
+      verify(ch, never()).execute(startsWith("ALTER TABLE mart_posting_pnl"));
+      verify(ch, times(2)).execute("DROP TABLE IF EXISTS " + JOB_STAGING);
+    }
+
+    @Test
+    @DisplayName("should refuse a table whose partitions do not match the slices")
+    void should_fail_when_partitionKeyDiffers() {
+      when(ch.queryForList(anyString(), eq(String.class), eq(TABLE)))
+          .thenReturn(List.of("(workspace_id, toYYYYMM(finance_date))"));
+
+      assertThatThrownBy(() -> jdbc.replacePartitions(TABLE, KEY, PREDICATE, 42L, populated::add))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("Unexpected partition key");
+      assertThat(populated).isEmpty();
+      verify(ch, never()).execute(startsWith("ALTER TABLE mart_posting_pnl"));
+    }
+  }
+
+  @Nested
+  @DisplayName("withAdvisoryLocks")
+  class AdvisoryLocks {
+
+    private final JdbcTemplate pgTemplate = mock(JdbcTemplate.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    @BeforeEach
+    void setUp() throws Exception {
+      when(pg.getJdbcTemplate()).thenReturn(pgTemplate);
+      when(pgTemplate.execute(any(ConnectionCallback.class))).thenAnswer(
+          invocation -> invocation.<ConnectionCallback<?>>getArgument(0)
+              .doInConnection(connection));
+      when(connection.prepareStatement(anyString())).thenReturn(statement);
+    }
+
+    @Test
+    @DisplayName("should lock each distinct name in key order and unlock in reverse")
+    void should_lockInKeyOrder_when_actionRuns() throws Exception {
+      long a = MaterializationJdbc.advisoryLockKey("mart_posting_pnl:1:WB");
+      long b = MaterializationJdbc.advisoryLockKey("mart_posting_pnl:2:OZON");
+      List<String> ran = new ArrayList<>();
+
+      jdbc.withAdvisoryLocks(
+          List.of("mart_posting_pnl:2:OZON", "mart_posting_pnl:1:WB", "mart_posting_pnl:1:WB"),
+          () -> ran.add("action"));
+
+      assertThat(ran).containsExactly("action");
+      InOrder order = inOrder(connection, statement);
+      order.verify(connection).prepareStatement("SELECT pg_advisory_lock(?)");
+      order.verify(statement).setLong(1, Math.min(a, b));
+      order.verify(connection).prepareStatement("SELECT pg_advisory_lock(?)");
+      order.verify(statement).setLong(1, Math.max(a, b));
+      order.verify(connection).prepareStatement("SELECT pg_advisory_unlock(?)");
+      order.verify(statement).setLong(1, Math.max(a, b));
+      order.verify(connection).prepareStatement("SELECT pg_advisory_unlock(?)");
+      order.verify(statement).setLong(1, Math.min(a, b));
+      verify(statement, times(4)).execute();
+    }
+
+    @Test
+    @DisplayName("should release the locks when the action fails")
+    void should_unlock_when_actionThrows() throws Exception {
+      assertThatThrownBy(() -> jdbc.withAdvisoryLocks(List.of("mart_product_pnl:7:WB"), () -> {
+        throw new IllegalStateException("boom");
+      })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+
+      verify(connection).prepareStatement("SELECT pg_advisory_unlock(?)");
+      verify(statement, times(2))
+          .setLong(1, MaterializationJdbc.advisoryLockKey("mart_product_pnl:7:WB"));
+    }
+
+    @Test
+    @DisplayName("lock keys should be stable across calls")
+    void should_deriveSameKey_when_sameName() {
+      assertThat(MaterializationJdbc.advisoryLockKey("mart_posting_pnl:1:WB"))
+          .isEqualTo(MaterializationJdbc.advisoryLockKey("mart_posting_pnl:1:WB"))
+          .isNotEqualTo(MaterializationJdbc.advisoryLockKey("mart_posting_pnl:1:OZON"));
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package io.datapulse.analytics.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeCursor;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedQuery;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.ChangeFeedResult;
+import io.datapulse.analytics.persistence.PgToClickHouseTransfer.KeysetQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@DisplayName("PgToClickHouseTransfer")
+class PgToClickHouseTransferTest {
+
+  private static final String SQL =
+      "SELECT id FROM t WHERE id > :afterKey ORDER BY id LIMIT :limit";
+
+  private final MaterializationJdbc jdbc = mock(MaterializationJdbc.class);
+  private final NamedParameterJdbcTemplate pg = mock(NamedParameterJdbcTemplate.class);
+  private final AnalyticsProperties properties =
+      new AnalyticsProperties(null, false, null, false, 2, 1, 0, null);
+
+  /** Source rows, served by key like a keyset page query. */
+  private final List<Long> source = List.of(1L, 2L, 5L, 8L, 9L);
+  private final List<Map<String, Object>> pageParams =
+      Collections.synchronizedList(new ArrayList<>());
+  private final List<Long> inserted = Collections.synchronizedList(new ArrayList<>());
+  private final long[] current = new long[1];
+
+  private final KeysetQuery<Long> query = new KeysetQuery<>(SQL, (rs, rowNum) -> current[0],
+      Long::longValue);
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+    when(jdbc.pg()).thenReturn(pg);
+    doAnswer(invocation -> {
+      Map<String, Object> params = invocation.getArgument(1);
+      pageParams.add(Map.copyOf(params));
+      RowCallbackHandler handler = invocation.getArgument(2);
+      long afterKey = (Long) params.get("afterKey");
+      int limit = (Integer) params.get("limit");
+      for (long id : source.stream().filter(id -> id > afterKey).limit(limit).toList()) {
+        current[0] = id;
+        handler.processRow(null);
+      }
+      return null;
+    }).when(pg).query(eq(SQL), anyMap(), any(RowCallbackHandler.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private void stubInsert() {
+    when(jdbc.chInsert(anyString(), anyList(), any(), any())).thenAnswer(invocation -> {
+      List<Long> rows = new ArrayList<>();
+      invocation.<Iterable<Long>>getArgument(2).forEach(rows::add);
+      inserted.addAll(rows);
+      return (long) rows.size();
+    });
+  }
+
+  @Nested
+  @DisplayName("pipelined")
+  class Pipelined {
+
+    @Test
+    @DisplayName("should insert every row once, paging by the last key instead of an offset")
+    void should_insertAllRows_when_severalPages() {
+      stubInsert();
+      var transfer = new PgToClickHouseTransfer(jdbc, properties, executor);
+
+      long rows = transfer.transfer(query, Map.of("jobExecutionId", 7L), "t", List.of("id"),
+          (row, out) -> out.writeUInt64(row));
+
+      assertThat(rows).isEqualTo(5);
+      assertThat(inserted).containsExactly(1L, 2L, 5L, 8L, 9L);
+      assertThat(pageParams).extracting(p -> p.get("afterKey")).containsExactly(0L, 2L, 8L);
+      assertThat(pageParams).allSatisfy(p -> assertThat(p).containsEntry("jobExecutionId", 7L));
+    }
+
+    @Test
+    @DisplayName("should read past a full page the consumer has already inserted and cleared")
+    void should_readNextPage_when_consumerRecycledFullPage() {
+      stubInsert();
+      var transfer = new PgToClickHouseTransfer(jdbc, properties, executor);
+
+      // The consumer inserts and clears a page as soon as it is offered; a producer that sized
+      // the page after handing it over saw 0 and stopped after the first page
+      for (int run = 0; run < 200; run++) {
+        inserted.clear();
+        long rows = transfer.transfer(query, Map.of(), "t", List.of("id"),
+            (row, out) -> out.writeUInt64(row));
+
+        assertThat(rows).as("run %d", run).isEqualTo(5);
+        assertThat(inserted).as("run %d", run).containsExactly(1L, 2L, 5L, 8L, 9L);
+      }
+    }
+
+    @Test
+    @DisplayName("should propagate an insert failure")
+    void should_propagateInsertFailure() {
+      when(jdbc.chInsert(anyString(), anyList(), any(), any()))
+          .thenThrow(new IllegalStateException("ClickHouse down"));
+      var transfer = new PgToClickHouseTransfer(jdbc, properties, executor);
+
+      assertThatThrownBy(() -> transfer.transfer(query, Map.of(), "t", List.of("id"),
+          (row, out) -> out.writeUInt64(row)))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessage("ClickHouse down");
+    }
+  }
+
+  @Nested
+  @DisplayName("sequential fallback")
+  class Sequential {
+
+    @Test
+    @DisplayName("should transfer on the calling thread when the executor rejects the consumer")
+    void should_transferSequentially_when_executorRejects() {
+      stubInsert();
+      var transfer = new PgToClickHouseTransfer(jdbc, properties, task -> {
+        throw new RejectedExecutionException("saturated");
+      });
+
+      long rows = transfer.transfer(query, Map.of(), "t", List.of("id"),
+          (row, out) -> out.writeUInt64(row));
+
+      assertThat(rows).isEqualTo(5);
+      assertThat(inserted).containsExactly(1L, 2L, 5L, 8L, 9L);
+    }
+  }
+
+  @Nested
+  @DisplayName("change feed")
+  class ChangeFeed {
+
+    private static final String CHANGES_SQL = "SELECT id, updated_at FROM t "
+        + "WHERE (updated_at, id) > (:afterUpdatedAt, :afterKey) ORDER BY updated_at, id "
+        + "LIMIT :limit";
+
+    /** (updated_at millis, id) in feed order: id 9 was updated before id 2. */
+    private final List<long[]> changes = List.of(
+        new long[] {1_000, 9}, new long[] {2_000, 2}, new long[] {2_000, 5});
+
+    @BeforeEach
+    void stubChanges() throws Exception {
+      ResultSet rs = mock(ResultSet.class);
+      long[] row = new long[2];
+      when(rs.getTimestamp("updated_at")).thenAnswer(i -> new Timestamp(row[0]));
+      when(rs.getLong("id")).thenAnswer(i -> row[1]);
+      doAnswer(invocation -> {
+        Map<String, Object> params = invocation.getArgument(1);
+        pageParams.add(Map.copyOf(params));
+        RowCallbackHandler handler = invocation.getArgument(2);
+        long afterUpdatedAt = ((Timestamp) params.get("afterUpdatedAt")).getTime();
+        long afterKey = (Long) params.get("afterKey");
+        int limit = (Integer) params.get("limit");
+        for (long[] change : changes.stream()
+            .filter(c -> c[0] > afterUpdatedAt || (c[0] == afterUpdatedAt && c[1] > afterKey))
+            .limit(limit)
+            .toList()) {
+          row[0] = change[0];
+          row[1] = change[1];
+          current[0] = change[1];
+          handler.processRow(rs);
+        }
+        return null;
+      }).when(pg).query(eq(CHANGES_SQL), anyMap(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("should page on (updated_at, id) and return the cursor of the last row")
+    void should_pageOnCompositeKey_when_transferringChanges() {
+      stubInsert();
+      var transfer = new PgToClickHouseTransfer(jdbc, properties, executor);
+
+      ChangeFeedResult result = transfer.transferChanges(
+          new ChangeFeedQuery<>(CHANGES_SQL, (rs, rowNum) -> current[0], "id"),
+          new ChangeCursor(Instant.ofEpochMilli(500), 0), "t", List.of("id"),
+          (row, out) -> out.writeUInt64(row));
+
+      assertThat(result.rows()).isEqualTo(3);
+      assertThat(result.cursor()).isEqualTo(new ChangeCursor(Instant.ofEpochMilli(2_000), 5));
+      assertThat(inserted).containsExactly(9L, 2L, 5L);
+      assertThat(pageParams).extracting(p -> p.get("afterKey")).containsExactly(0L, 2L);
+    }
+
+    @Test
+    @DisplayName("should return no cursor when nothing changed")
+    void should_returnNoCursor_when_noChanges() {
+      var transfer = new PgToClickHouseTransfer(jdbc, properties, executor);
+
+      ChangeFeedResult result = transfer.transferChanges(
+          new ChangeFeedQuery<>(CHANGES_SQL, (rs, rowNum) -> current[0], "id"),
+          new ChangeCursor(Instant.ofEpochMilli(2_000), 5), "t", List.of("id"),
+          (row, out) -> out.writeUInt64(row));
+
+      assertThat(result.rows()).isZero();
+      assertThat(result.cursor()).isNull();
+    }
+  }
+}
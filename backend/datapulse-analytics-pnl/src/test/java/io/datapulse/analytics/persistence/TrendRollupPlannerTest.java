@@ -0,0 +1,96 @@
+package io.datapulse.analytics.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import io.datapulse.analytics.api.TrendGranularity;
+import io.datapulse.analytics.persistence.TrendRollupPlanner.Grain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TrendRollupPlanner")
+class TrendRollupPlannerTest {
+
+  // 2026-03-01 is a Sunday
+  private static final LocalDate SUNDAY = LocalDate.of(2026, 3, 1);
+  private static final LocalDate SATURDAY = LocalDate.of(2026, 3, 28);
+
+  @Nested
+  @DisplayName("plan")
+  class Plan {
+
+    @Test
+    @DisplayName("should read days for a daily trend")
+    void should_pickDay_when_daily() {
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.DAILY, SUNDAY, SATURDAY))
+          .isEqualTo(Grain.DAY);
+    }
+
+    @Test
+    @DisplayName("should read weeks for a weekly trend from a Sunday to a Saturday")
+    void should_pickWeek_when_rangeOnWeekBoundaries() {
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.WEEKLY, SUNDAY, SATURDAY))
+          .isEqualTo(Grain.WEEK);
+    }
+
+    @Test
+    @DisplayName("should fall back to days for a weekly trend starting mid-week")
+    void should_pickDay_when_weeklyRangeStartsMidWeek() {
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.WEEKLY, SUNDAY.plusDays(3), SATURDAY))
+          .isEqualTo(Grain.DAY);
+    }
+
+    @Test
+    @DisplayName("should fall back to days for a weekly trend ending mid-week")
+    void should_pickDay_when_weeklyRangeEndsMidWeek() {
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.WEEKLY, SUNDAY, SATURDAY.minusDays(1)))
+          .isEqualTo(Grain.DAY);
+    }
+
+    @Test
+    @DisplayName("should read months for a monthly trend over whole months")
+    void should_pickMonth_when_rangeOnMonthBoundaries() {
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.MONTHLY,
+          LocalDate.of(2025, 4, 1), LocalDate.of(2026, 3, 31)))
+          .isEqualTo(Grain.MONTH);
+    }
+
+    @Test
+    @DisplayName("should never read weeks for a monthly trend")
+    void should_pickDay_when_monthlyRangeOnlyOnWeekBoundaries() {
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.MONTHLY, SUNDAY.plusDays(7), SATURDAY))
+          .isEqualTo(Grain.DAY);
+    }
+
+    @Test
+    @DisplayName("should read the coarsest grain for an unbounded range")
+    void should_pickCoarsest_when_rangeUnbounded() {
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.MONTHLY, null, null))
+          .isEqualTo(Grain.MONTH);
+      assertThat(TrendRollupPlanner.plan(TrendGranularity.WEEKLY, null, null))
+          .isEqualTo(Grain.WEEK);
+    }
+  }
+
+  @Nested
+  @DisplayName("Grain")
+  class Buckets {
+
+    @Test
+    @DisplayName("should start weeks on Sunday, as toStartOfWeek does")
+    void should_startWeekOnSunday() {
+      assertThat(Grain.WEEK.bucketStart(LocalDate.of(2026, 3, 4))).isEqualTo(SUNDAY);
+      assertThat(Grain.WEEK.bucketStart(SUNDAY)).isEqualTo(SUNDAY);
+      assertThat(Grain.WEEK.bucketEnd(SUNDAY)).isEqualTo(LocalDate.of(2026, 3, 7));
+    }
+
+    @Test
+    @DisplayName("should end months on their last day")
+    void should_endMonthOnLastDay() {
+      assertThat(Grain.MONTH.bucketEnd(LocalDate.of(2024, 2, 10)))
+          .isEqualTo(LocalDate.of(2024, 2, 29));
+    }
+  }
+}
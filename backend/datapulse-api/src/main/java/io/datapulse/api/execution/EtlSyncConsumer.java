@@ -24,9 +24,13 @@ import org.springframework.stereotype.Component;
  *   <li>ETL_SYNC_EXECUTE — published directly from outbox (manual or scheduled sync)</li>
  *   <li>ETL_SYNC_RETRY — published to {@code etl.sync.wait} with TTL, then DLX-forwarded here</li>
  *   <li>ETL_POST_INGEST_MATERIALIZE — deferred mart materialization after a successful DAG</li>
- *   <li>REMATERIALIZATION_REQUESTED — triggers ClickHouse re-materialization</li>
+ *   <li>REMATERIALIZATION_REQUESTED — triggers ClickHouse re-materialization: of one workspace
+ *       for {@code scope=WORKSPACE} with a {@code workspaceId}, of every table otherwise</li>
  * </ul>
  *
+ * <p>{@code datapulse.etl.sync-consumers} jobs run at once per instance; their DAG events share
+ * {@code etlExecutor} through {@link io.datapulse.etl.domain.FairShareEventScheduler}.
+ *
  * <p>Error handling: unhandled exceptions are caught and logged (poison pill pattern).
  * Business-level retries are managed by {@link IngestOrchestrator} via outbox.
  */
@@ -35,13 +39,16 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class EtlSyncConsumer {
 
+  private static final String WORKSPACE_SCOPE = "WORKSPACE";
+
   private final IngestOrchestrator ingestOrchestrator;
   private final PostIngestMaterializationMessageHandler postIngestMaterializationMessageHandler;
   private final IngestResultReporter ingestResultReporter;
   private final MaterializationService materializationService;
   private final ObjectMapper objectMapper;
 
-  @RabbitListener(queues = RabbitTopologyConfig.ETL_SYNC_QUEUE)
+  @RabbitListener(queues = RabbitTopologyConfig.ETL_SYNC_QUEUE,
+      concurrency = "${datapulse.etl.sync-consumers:1}")
   public void onMessage(Message message) {
     try {
       String eventType = extractHeader(message, "x-event-type");
@@ -86,11 +93,18 @@ public class EtlSyncConsumer {
       JsonNode payload = objectMapper.readTree(message.getBody());
       String scope = payload.path("scope").asText("FULL");
       String reason = payload.path("reason").asText("unknown");
-      log.info("Processing rematerialization request: scope={}, reason={}", scope, reason);
+      long workspaceId = payload.path("workspaceId").asLong();
+      log.info("Processing rematerialization request: scope={}, workspaceId={}, reason={}",
+          scope, workspaceId, reason);
 
-      materializationService.runFullRematerialization();
+      if (WORKSPACE_SCOPE.equals(scope) && workspaceId > 0) {
+        materializationService.runWorkspaceRematerialization(workspaceId);
+      } else {
+        materializationService.runFullRematerialization();
+      }
 
-      log.info("Rematerialization completed: scope={}, reason={}", scope, reason);
+      log.info("Rematerialization completed: scope={}, workspaceId={}, reason={}",
+          scope, workspaceId, reason);
     } catch (Exception e) {
       log.error("Rematerialization failed: messageId={}", 
           message.getMessageProperties().getMessageId(), e);
@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset datapulse:0041-raw-page-fingerprint
+
+CREATE TABLE raw_page_fingerprint (
+    connection_id   bigint       NOT NULL,
+    event_type      varchar(64)  NOT NULL,
+    source_id       varchar(128) NOT NULL,
+    page_identity   varchar(256) NOT NULL,
+    fingerprint     varchar(64)  NOT NULL,
+    record_count    int          NOT NULL,
+    job_item_id     bigint       NOT NULL,
+    updated_at      timestamptz  NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_raw_page_fingerprint PRIMARY KEY (connection_id, event_type, source_id, page_identity),
+    CONSTRAINT fk_raw_page_fingerprint_connection FOREIGN KEY (connection_id) REFERENCES marketplace_connection (id)
+);
+
+--rollback DROP TABLE raw_page_fingerprint;
@@ -0,0 +1,18 @@
+--liquibase formatted sql
+
+--changeset datapulse:0042-fact-sync-watermark
+
+CREATE TABLE fact_sync_watermark (
+    connection_id       bigint       NOT NULL,
+    event_type          varchar(64)  NOT NULL,
+    source_id           varchar(128) NOT NULL,
+    high_water_mark     timestamptz  NOT NULL,
+    last_settlement_at  timestamptz,
+    job_execution_id    bigint       NOT NULL,
+    updated_at          timestamptz  NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_fact_sync_watermark PRIMARY KEY (connection_id, event_type, source_id),
+    CONSTRAINT fk_fact_sync_watermark_connection FOREIGN KEY (connection_id) REFERENCES marketplace_connection (id)
+);
+
+--rollback DROP TABLE fact_sync_watermark;
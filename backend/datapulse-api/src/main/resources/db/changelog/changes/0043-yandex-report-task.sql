@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset datapulse:0043-yandex-report-task
+
+CREATE TABLE yandex_report_task (
+    connection_id       bigint        NOT NULL,
+    report_key          varchar(255)  NOT NULL,
+    report_id           varchar(255)  NOT NULL,
+    status              varchar(16)   NOT NULL,
+    file_url            text,
+    job_execution_id    bigint        NOT NULL,
+    created_at          timestamptz   NOT NULL DEFAULT now(),
+    updated_at          timestamptz   NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_yandex_report_task PRIMARY KEY (connection_id, report_key),
+    CONSTRAINT fk_yandex_report_task_connection FOREIGN KEY (connection_id) REFERENCES marketplace_connection (id)
+);
+
+--rollback DROP TABLE yandex_report_task;
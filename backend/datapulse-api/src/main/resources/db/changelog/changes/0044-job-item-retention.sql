@@ -0,0 +1,49 @@
+--liquibase formatted sql
+
+--changeset datapulse:0044-job-item-retention
+
+-- Event segment of raw/{connectionId}/{EVENT}/..., so retention can select by index instead of s3_key LIKE.
+-- Plain nullable column: adding it does not rewrite job_item. JobItemRepository sets it on insert,
+-- existing rows are backfilled below.
+ALTER TABLE job_item ADD COLUMN event_type varchar(64);
+
+CREATE TABLE retention_progress (
+    category            varchar(64)  NOT NULL,
+    cursor_captured_at  timestamptz  NOT NULL,
+    cursor_id           bigint       NOT NULL,
+    updated_at          timestamptz  NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_retention_progress PRIMARY KEY (category)
+);
+
+--rollback DROP TABLE retention_progress;
+--rollback ALTER TABLE job_item DROP COLUMN event_type;
+
+--changeset datapulse:0044-job-item-retention-backfill runInTransaction:false splitStatements:false
+
+-- Backfill in id ranges of 10000, each committed on its own: no long transaction and only
+-- short row locks on job_item. Runs outside a transaction block, which COMMIT in DO requires.
+DO $$
+DECLARE
+    last_id bigint := 0;
+    max_id  bigint;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM job_item;
+    WHILE last_id < max_id LOOP
+        UPDATE job_item
+        SET event_type = split_part(s3_key, '/', 3)
+        WHERE id > last_id AND id <= last_id + 10000
+          AND event_type IS NULL;
+        last_id := last_id + 10000;
+        COMMIT;
+    END LOOP;
+END $$;
+
+--rollback SELECT 1;
+
+--changeset datapulse:0044-job-item-retention-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_job_item_retention
+    ON job_item (event_type, captured_at, id) WHERE status = 'PROCESSED';
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_job_item_retention;
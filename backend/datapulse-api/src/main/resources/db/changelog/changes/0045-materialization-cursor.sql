@@ -0,0 +1,67 @@
+--liquibase formatted sql
+
+--changeset datapulse:0045-materialization-cursor
+
+-- Change feed of the fact materializers: last (updated_at, id) of each canonical source that has
+-- been transferred to its ClickHouse fact table. The (updated_at, id) indexes below back the
+-- keyset pages. Each is built concurrently in a changeset of its own, so the canonical tables
+-- stay writable while it builds.
+CREATE TABLE materialization_cursor (
+    table_name          varchar(64)  NOT NULL,
+    cursor_updated_at   timestamptz  NOT NULL,
+    cursor_id           bigint       NOT NULL,
+    updated_at          timestamptz  NOT NULL DEFAULT now(),
+
+    CONSTRAINT pk_materialization_cursor PRIMARY KEY (table_name)
+);
+
+--rollback DROP TABLE materialization_cursor;
+
+--changeset datapulse:0045-finance-change-feed-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_finance_change_feed
+    ON canonical_finance_entry (updated_at, id);
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_finance_change_feed;
+
+--changeset datapulse:0045-sale-change-feed-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_sale_change_feed
+    ON canonical_sale (updated_at, id);
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_sale_change_feed;
+
+--changeset datapulse:0045-order-change-feed-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_change_feed
+    ON canonical_order (updated_at, id);
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_order_change_feed;
+
+--changeset datapulse:0045-return-change-feed-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_return_change_feed
+    ON canonical_return (updated_at, id);
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_return_change_feed;
+
+--changeset datapulse:0045-stock-current-change-feed-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_stock_current_change_feed
+    ON canonical_stock_current (updated_at, id);
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_stock_current_change_feed;
+
+--changeset datapulse:0045-price-current-change-feed-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_price_current_change_feed
+    ON canonical_price_current (updated_at, id);
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_price_current_change_feed;
+
+--changeset datapulse:0045-cost-profile-change-feed-index runInTransaction:false
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cost_profile_change_feed
+    ON cost_profile (updated_at, id);
+
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_cost_profile_change_feed;
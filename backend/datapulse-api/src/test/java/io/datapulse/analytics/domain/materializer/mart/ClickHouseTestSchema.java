@@ -0,0 +1,54 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+
+/**
+ * ClickHouse container and read-model schema for the tests that run the marts against a real
+ * server.
+ */
+final class ClickHouseTestSchema {
+
+  /** Read-model migrations from datapulse-etl, applied the way ClickHouseMigrationRunner does. */
+  private static final String MIGRATIONS = "classpath:db/clickhouse/*.sql";
+
+  private ClickHouseTestSchema() {
+  }
+
+  static GenericContainer<?> container() {
+    return new GenericContainer<>("clickhouse/clickhouse-server:24.8")
+        .withEnv("CLICKHOUSE_SKIP_USER_SETUP", "1")
+        .withExposedPorts(8123)
+        .waitingFor(Wait.forHttp("/ping").forStatusCode(200));
+  }
+
+  /**
+   * Connects to {@code clickhouse} and applies every migration.
+   */
+  static JdbcTemplate migrate(GenericContainer<?> clickhouse) throws IOException {
+    JdbcTemplate ch = new JdbcTemplate(new DriverManagerDataSource(
+        "jdbc:clickhouse://%s:%d/default".formatted(clickhouse.getHost(), clickhouse.getMappedPort(8123)),
+        "default", ""));
+    Resource[] scripts = new PathMatchingResourcePatternResolver().getResources(MIGRATIONS);
+    Arrays.sort(scripts, Comparator.comparing(Resource::getFilename));
+    for (Resource script : scripts) {
+      for (String statement : script.getContentAsString(StandardCharsets.UTF_8).split(";")) {
+        boolean hasSql = statement.lines()
+            .anyMatch(line -> !line.isBlank() && !line.stripLeading().startsWith("--"));
+        if (hasSql) {
+          ch.execute(statement);
+        }
+      }
+    }
+    return ch;
+  }
+}
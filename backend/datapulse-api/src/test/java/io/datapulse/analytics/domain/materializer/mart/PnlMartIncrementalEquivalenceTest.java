@@ -0,0 +1,155 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.platform.clickhouse.ClickHouseBulkInserter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the P&L marts against a real ClickHouse: after a full build and a batch of fact changes,
+ * the incremental run must leave mart_posting_pnl and mart_product_pnl exactly as a full rebuild
+ * of the same facts does. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("P&L marts — incremental vs full rebuild (ClickHouse)")
+class PnlMartIncrementalEquivalenceTest {
+
+  private static final long BUILT_VER = 1_000;
+  private static final long CHANGED_VER = 2_000;
+
+  @Container
+  private static final GenericContainer<?> CLICKHOUSE = ClickHouseTestSchema.container();
+
+  private static JdbcTemplate ch;
+
+  private PnlSliceResolver resolver;
+  private MartPostingPnlMaterializer postingMart;
+  private MartProductPnlMaterializer productMart;
+
+  @BeforeAll
+  static void applyMigrations() throws IOException {
+    ch = ClickHouseTestSchema.migrate(CLICKHOUSE);
+  }
+
+  @BeforeEach
+  void setUp() {
+    for (String table : List.of("fact_finance", "fact_sales", "fact_product_cost",
+        "fact_advertising", "dim_product", "mart_posting_pnl", "mart_product_pnl")) {
+      ch.execute("TRUNCATE TABLE " + table);
+    }
+    MaterializationJdbc jdbc = new MaterializationJdbc(
+        mock(NamedParameterJdbcTemplate.class), ch, mock(ClickHouseBulkInserter.class));
+    resolver = new PnlSliceResolver(jdbc,
+        new AnalyticsProperties(null, true, null, false, 0, 0, 0, Duration.ZERO));
+    postingMart = new MartPostingPnlMaterializer(jdbc, resolver);
+    productMart = new MartProductPnlMaterializer(jdbc, resolver);
+  }
+
+  @Test
+  @DisplayName("incremental run should leave both marts equal to a full rebuild")
+  void should_equalFullRebuild_when_factsChangedAfterFullBuild() {
+    // ws 1 / WB: P1 and P3 are sold in January and February, P2 has only a logistics charge
+    finance(1, 1, "WB", "P1", "O1", 11, "2024-01-10", "SALE_ACCRUAL", "100.00", "80.00", BUILT_VER);
+    finance(2, 1, "WB", "P2", "O2", 12, "2024-01-20", "LOGISTICS", "0.00", "-5.00", BUILT_VER);
+    finance(3, 1, "WB", "P3", "O3", 11, "2024-02-05", "SALE_ACCRUAL", "50.00", "45.00", BUILT_VER);
+    // ws 2 / OZON: untouched by the job except for its cost profile
+    finance(4, 2, "OZON", "Q1", "O4", 21, "2024-01-15", "SALE_ACCRUAL", "70.00", "60.00",
+        BUILT_VER);
+    sale(1, 1, "WB", "P1", 11, 2, "2024-01-10");
+    sale(2, 1, "WB", "P3", 11, 1, "2024-02-05");
+    sale(3, 2, "OZON", "Q1", 21, 1, "2024-01-15");
+    cost(1, 1, 11, "10.00", BUILT_VER);
+    cost(2, 2, 21, "20.00", BUILT_VER);
+
+    postingMart.materializeFull();
+    productMart.materializeFull();
+    resolver.reset(Instant.ofEpochMilli(1_500));
+
+    // P2's first sale moves its home from January to February, P1's accrual is corrected and
+    // the ws 2 cost profile changes
+    finance(5, 1, "WB", "P2", "O2", 12, "2024-02-03", "SALE_ACCRUAL", "40.00", "35.00",
+        CHANGED_VER);
+    finance(1, 1, "WB", "P1", "O1", 11, "2024-01-10", "SALE_ACCRUAL", "120.00", "96.00",
+        CHANGED_VER);
+    cost(2, 2, 21, "25.00", CHANGED_VER);
+
+    postingMart.materializeIncremental(42L);
+    productMart.materializeIncremental(42L);
+    resolver.acknowledge(42L);
+    List<Map<String, Object>> incrementalPostings = postingRows();
+    List<Map<String, Object>> incrementalProducts = productRows();
+
+    postingMart.materializeFull();
+    productMart.materializeFull();
+
+    assertThat(incrementalPostings).isEqualTo(postingRows());
+    assertThat(incrementalProducts).isEqualTo(productRows());
+    assertThat(incrementalPostings)
+        .filteredOn(row -> "P2".equals(row.get("posting_id")))
+        .extracting(row -> row.get("finance_date").toString())
+        .containsExactly(LocalDate.of(2024, 2, 3).toString());
+  }
+
+  private static List<Map<String, Object>> postingRows() {
+    return ch.queryForList("""
+        SELECT * EXCEPT (ver) FROM mart_posting_pnl
+        ORDER BY workspace_id, source_platform, posting_id
+        """);
+  }
+
+  private static List<Map<String, Object>> productRows() {
+    return ch.queryForList("""
+        SELECT * EXCEPT (ver) FROM mart_product_pnl
+        ORDER BY workspace_id, source_platform, seller_sku_id, period, attribution_level
+        """);
+  }
+
+  private static void finance(long entryId, int workspaceId, String platform, String postingId,
+                              String orderId, long sellerSkuId, String date, String entryType,
+                              String revenue, String netPayout, long ver) {
+    ch.update("""
+        INSERT INTO fact_finance (workspace_id, connection_id, source_platform, entry_id,
+            posting_id, order_id, seller_sku_id, finance_date, entry_type, attribution_level,
+            revenue_amount, logistics_cost_amount, net_payout, ver)
+        VALUES (%d, 1, '%s', %d, '%s', '%s', %d, '%s', '%s', 'POSTING', %s, %s, %s, %d)
+        """.formatted(workspaceId, platform, entryId, postingId, orderId, sellerSkuId, date,
+        entryType, revenue, "LOGISTICS".equals(entryType) ? netPayout : "0", netPayout, ver));
+  }
+
+  private static void sale(long saleId, int workspaceId, String platform, String postingId,
+                           long sellerSkuId, int quantity, String date) {
+    ch.update("""
+        INSERT INTO fact_sales (workspace_id, sale_id, connection_id, source_platform, posting_id,
+            seller_sku_id, quantity, sale_date, ver)
+        VALUES (%d, %d, 1, '%s', '%s', %d, %d, '%s', %d)
+        """.formatted(workspaceId, saleId, platform, postingId, sellerSkuId, quantity, date,
+        BUILT_VER));
+  }
+
+  private static void cost(long costId, int workspaceId, long sellerSkuId, String price,
+                           long ver) {
+    ch.update("""
+        INSERT INTO fact_product_cost (workspace_id, cost_id, seller_sku_id, cost_price, currency,
+            valid_from, valid_to, ver)
+        VALUES (%d, %d, %d, %s, 'RUB', '2023-01-01', NULL, %d)
+        """.formatted(workspaceId, costId, sellerSkuId, price, ver));
+  }
+}
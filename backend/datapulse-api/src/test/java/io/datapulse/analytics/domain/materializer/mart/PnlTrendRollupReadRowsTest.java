@@ -0,0 +1,115 @@
+package io.datapulse.analytics.domain.materializer.mart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import io.datapulse.analytics.api.PnlFilter;
+import io.datapulse.analytics.api.PnlTrendResponse;
+import io.datapulse.analytics.api.TrendGranularity;
+import io.datapulse.analytics.config.AnalyticsProperties;
+import io.datapulse.analytics.config.ClickHouseReadJdbc;
+import io.datapulse.analytics.config.TrendRollupProperties;
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.analytics.persistence.PnlReadRepository;
+import io.datapulse.platform.clickhouse.ClickHouseBulkInserter;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * One-year P&L trend of a tenant with 200 postings a day, read row-level from mart_posting_pnl
+ * and from mart_pnl_trend: both return the same trend, and the rollup reads a fraction of the
+ * rows ({@code read_rows} in {@code system.query_log}). Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("P&L trend — rollup vs row-level reads (ClickHouse)")
+class PnlTrendRollupReadRowsTest {
+
+  private static final long WORKSPACE_ID = 1;
+  private static final int POSTINGS_PER_DAY = 200;
+
+  @Container
+  private static final GenericContainer<?> CLICKHOUSE = ClickHouseTestSchema.container();
+
+  private static JdbcTemplate ch;
+  private static PnlReadRepository rollupReads;
+  private static PnlReadRepository rowLevelReads;
+
+  @BeforeAll
+  static void buildTrend() throws IOException {
+    ch = ClickHouseTestSchema.migrate(CLICKHOUSE);
+    ch.execute("""
+        INSERT INTO mart_posting_pnl (workspace_id, source_platform, posting_id, finance_date,
+            revenue_amount, logistics_cost_amount, ver)
+        SELECT %d, 'WB', concat('P', toString(number)),
+            toDate('2025-01-01') + intDiv(number, %d),
+            toDecimal64(100 + number %% 900, 2), toDecimal64(-(number %% 50), 2), 1
+        FROM numbers(%d)
+        """.formatted(WORKSPACE_ID, POSTINGS_PER_DAY, 365 * POSTINGS_PER_DAY));
+
+    MaterializationJdbc jdbc = new MaterializationJdbc(
+        mock(NamedParameterJdbcTemplate.class), ch, mock(ClickHouseBulkInserter.class));
+    var resolver = new PnlSliceResolver(jdbc,
+        new AnalyticsProperties(null, true, null, false, 0, 0, 0, Duration.ZERO));
+    new MartPnlTrendMaterializer(jdbc, resolver).materializeWorkspace(WORKSPACE_ID);
+
+    var readJdbc = new ClickHouseReadJdbc(ch);
+    rollupReads = new PnlReadRepository(readJdbc, new TrendRollupProperties(true));
+    rowLevelReads = new PnlReadRepository(readJdbc, new TrendRollupProperties(false));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @CsvSource({
+      "DAILY, 2025-01-01, 2025-12-31",
+      // Sunday to Saturday, as the week picker sends it
+      "WEEKLY, 2024-12-29, 2026-01-03"
+  })
+  @DisplayName("should return the row-level trend while reading a fraction of the rows")
+  void should_readFewerRows_when_trendServedFromRollup(TrendGranularity granularity,
+                                                      LocalDate from, LocalDate to) {
+    var filter = new PnlFilter(from, to, null, null, null, null);
+
+    List<PnlTrendResponse> rowLevel = rowLevelReads.findTrend(WORKSPACE_ID, filter, granularity);
+    long rowLevelRead = lastReadRows("mart_posting_pnl");
+    List<PnlTrendResponse> rollup = rollupReads.findTrend(WORKSPACE_ID, filter, granularity);
+    long rollupRead = lastReadRows("mart_pnl_trend");
+
+    assertThat(rollup).isNotEmpty()
+        .usingRecursiveFieldByFieldElementComparator(RecursiveComparisonConfiguration.builder()
+            .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+            .build())
+        .containsExactlyElementsOf(rowLevel);
+    assertThat(rowLevelRead).isEqualTo(365L * POSTINGS_PER_DAY);
+    assertThat(rollupRead * 50).isLessThan(rowLevelRead);
+  }
+
+  /**
+   * {@code read_rows} of the last finished SELECT from {@code table}.
+   */
+  private static long lastReadRows(String table) {
+    ch.execute("SYSTEM FLUSH LOGS");
+    return ch.queryForObject("""
+        SELECT read_rows
+        FROM system.query_log
+        WHERE type = 'QueryFinish'
+          AND query_kind = 'Select'
+          AND query LIKE ?
+          AND query NOT LIKE '%system.query_log%'
+        ORDER BY event_time_microseconds DESC
+        LIMIT 1
+        """, Long.class, "%FROM " + table + "%");
+  }
+}
@@ -0,0 +1,171 @@
+package io.datapulse.test.persistence;
+
+import static io.datapulse.test.builder.TestConnectionBuilder.aConnection;
+import static io.datapulse.test.builder.TestSecretReferenceBuilder.aSecretReference;
+import static io.datapulse.test.builder.TestTenantBuilder.aTenant;
+import static io.datapulse.test.builder.TestUserBuilder.aUser;
+import static io.datapulse.test.builder.TestWorkspaceBuilder.aWorkspace;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.datapulse.etl.config.CanonicalWriteProperties;
+import io.datapulse.etl.persistence.JobExecutionRepository;
+import io.datapulse.etl.persistence.canonical.CanonicalBulkWriter;
+import io.datapulse.etl.persistence.canonical.CanonicalOrderEntity;
+import io.datapulse.etl.persistence.canonical.CanonicalOrderUpsertRepository;
+import io.datapulse.integration.persistence.MarketplaceConnectionRepository;
+import io.datapulse.integration.persistence.SecretReferenceRepository;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.datapulse.tenancy.persistence.AppUserRepository;
+import io.datapulse.tenancy.persistence.TenantRepository;
+import io.datapulse.tenancy.persistence.WorkspaceRepository;
+import io.datapulse.test.AbstractIntegrationTest;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class CanonicalBulkWriterCopyMergeIntegrationTest extends AbstractIntegrationTest {
+
+  private static final OffsetDateTime ORDER_DATE =
+      OffsetDateTime.of(2026, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+  private static final OffsetDateTime STALE = OffsetDateTime.parse("2020-01-01T00:00:00Z");
+
+  @Autowired
+  private JobExecutionRepository jobExecutionRepository;
+
+  @Autowired
+  private MarketplaceConnectionRepository connectionRepository;
+
+  @Autowired
+  private SecretReferenceRepository secretRefRepository;
+
+  @Autowired
+  private TenantRepository tenantRepository;
+
+  @Autowired
+  private WorkspaceRepository workspaceRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private MetricsFacade metrics;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  private CanonicalOrderUpsertRepository orderRepository;
+  private Long workspaceId;
+  private Long connectionId;
+  private long jobId;
+
+  @BeforeEach
+  void setUp() {
+    var writer = new CanonicalBulkWriter(jdbc,
+        new CanonicalWriteProperties(Set.of("canonical_order")), metrics);
+    orderRepository = new CanonicalOrderUpsertRepository(jdbc, writer);
+
+    var user = appUserRepository.save(aUser().build());
+    var tenant = tenantRepository.save(aTenant().withOwnerUserId(user.getId()).build());
+    var ws = workspaceRepository.save(
+        aWorkspace().withTenant(tenant).withOwnerUserId(user.getId()).build());
+    workspaceId = ws.getId();
+    var secret = secretRefRepository.save(
+        aSecretReference().withWorkspaceId(workspaceId).build());
+    var conn = connectionRepository.save(
+        aConnection().withWorkspaceId(workspaceId)
+            .withSecretReferenceId(secret.getId()).build());
+    connectionId = conn.getId();
+    jobId = jobExecutionRepository.insert(connectionId, "SALES_FACT");
+  }
+
+  @Nested
+  @DisplayName("COPY merge")
+  class CopyMerge {
+
+    @Test
+    @DisplayName("the last duplicate of a key in one batch wins")
+    void should_keepLastDuplicate_when_batchRepeatsKey() {
+      orderRepository.batchUpsert(List.of(
+          order("ord-1", "NEW"),
+          order("ord-2", "NEW"),
+          order("ord-1", "DELIVERED")));
+
+      assertThat(status("ord-1")).isEqualTo("DELIVERED");
+      assertThat(status("ord-2")).isEqualTo("NEW");
+      assertThat(jdbc.queryForObject(
+          "SELECT count(*) FROM canonical_order WHERE workspace_id = ?",
+          Long.class, workspaceId)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("an unchanged row keeps its updated_at, a changed one is bumped")
+    void should_keepUpdatedAt_when_rowUnchanged() {
+      orderRepository.batchUpsert(List.of(order("ord-1", "NEW"), order("ord-2", "NEW")));
+      jdbc.update("UPDATE canonical_order SET updated_at = ? WHERE workspace_id = ?",
+          STALE, workspaceId);
+
+      orderRepository.batchUpsert(List.of(order("ord-1", "NEW"), order("ord-2", "DELIVERED")));
+
+      assertThat(updatedAt("ord-1").toInstant()).isEqualTo(STALE.toInstant());
+      assertThat(updatedAt("ord-2").toInstant()).isAfter(STALE.toInstant());
+      assertThat(status("ord-2")).isEqualTo("DELIVERED");
+    }
+
+    @Test
+    @DisplayName("the staging table is created once per session and emptied between batches")
+    void should_reuseStagingTable_when_sameSessionWritesAgain() {
+      orderRepository.batchUpsert(List.of(order("ord-1", "NEW"), order("ord-2", "NEW")));
+      Long firstOid = stagingTableOid();
+
+      orderRepository.batchUpsert(List.of(order("ord-3", "NEW")));
+
+      assertThat(stagingTableOid()).isEqualTo(firstOid);
+      assertThat(jdbc.queryForObject(
+          "SELECT count(*) FROM copy_stage_canonical_order", Long.class)).isEqualTo(1L);
+      assertThat(jdbc.queryForObject(
+          "SELECT count(*) FROM canonical_order WHERE workspace_id = ?",
+          Long.class, workspaceId)).isEqualTo(3L);
+    }
+  }
+
+  private Long stagingTableOid() {
+    return jdbc.queryForObject(
+        "SELECT 'copy_stage_canonical_order'::regclass::oid::bigint", Long.class);
+  }
+
+  private String status(String externalOrderId) {
+    return jdbc.queryForObject(
+        "SELECT status FROM canonical_order WHERE workspace_id = ? AND external_order_id = ?",
+        String.class, workspaceId, externalOrderId);
+  }
+
+  private OffsetDateTime updatedAt(String externalOrderId) {
+    return jdbc.queryForObject(
+        "SELECT updated_at FROM canonical_order WHERE workspace_id = ? AND external_order_id = ?",
+        OffsetDateTime.class, workspaceId, externalOrderId);
+  }
+
+  private CanonicalOrderEntity order(String externalOrderId, String status) {
+    var entity = new CanonicalOrderEntity();
+    entity.setWorkspaceId(workspaceId);
+    entity.setConnectionId(connectionId);
+    entity.setSourcePlatform("WB");
+    entity.setExternalOrderId(externalOrderId);
+    entity.setOrderDate(ORDER_DATE);
+    entity.setQuantity(1);
+    entity.setPricePerUnit(new BigDecimal("100.00"));
+    entity.setTotalAmount(new BigDecimal("100.00"));
+    entity.setCurrency("RUB");
+    entity.setStatus(status);
+    entity.setJobExecutionId(jobId);
+    return entity;
+  }
+}
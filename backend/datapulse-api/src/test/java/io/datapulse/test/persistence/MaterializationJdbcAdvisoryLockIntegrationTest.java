@@ -0,0 +1,115 @@
+package io.datapulse.test.persistence;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.datapulse.analytics.persistence.MaterializationJdbc;
+import io.datapulse.test.AbstractIntegrationTest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class MaterializationJdbcAdvisoryLockIntegrationTest extends AbstractIntegrationTest {
+
+  @Autowired
+  private MaterializationJdbc materializationJdbc;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Nested
+  @DisplayName("withAdvisoryLocks")
+  class WithAdvisoryLocks {
+
+    @Test
+    @DisplayName("interleaved jobs over a shared scope run one after the other")
+    void should_serialize_when_jobsShareScope() throws Exception {
+      CountDownLatch firstInside = new CountDownLatch(1);
+      CountDownLatch releaseFirst = new CountDownLatch(1);
+
+      Future<?> first = executor.submit(() -> materializationJdbc.withAdvisoryLocks(
+          List.of("mart_posting_pnl:1:WB", "mart_posting_pnl:2:OZON"), () -> {
+            events.add("start 42");
+            firstInside.countDown();
+            awaitQuietly(releaseFirst);
+            events.add("end 42");
+          }));
+      assertThat(firstInside.await(10, SECONDS)).isTrue();
+
+      Future<?> second = executor.submit(() -> materializationJdbc.withAdvisoryLocks(
+          List.of("mart_posting_pnl:2:OZON"), () -> {
+            events.add("start 43");
+            events.add("end 43");
+          }));
+      awaitWaitingAdvisoryLock();
+      assertThat(events).containsExactly("start 42");
+
+      releaseFirst.countDown();
+      first.get(10, SECONDS);
+      second.get(10, SECONDS);
+
+      assertThat(events).containsExactly("start 42", "end 42", "start 43", "end 43");
+    }
+
+    @Test
+    @DisplayName("jobs over disjoint scopes run concurrently")
+    void should_notBlock_when_scopesDisjoint() throws Exception {
+      CountDownLatch releaseFirst = new CountDownLatch(1);
+      CountDownLatch firstInside = new CountDownLatch(1);
+
+      Future<?> first = executor.submit(() -> materializationJdbc.withAdvisoryLocks(
+          List.of("mart_posting_pnl:1:WB"), () -> {
+            firstInside.countDown();
+            awaitQuietly(releaseFirst);
+          }));
+      assertThat(firstInside.await(10, SECONDS)).isTrue();
+
+      executor.submit(() -> materializationJdbc.withAdvisoryLocks(
+          List.of("mart_posting_pnl:2:OZON"), () -> events.add("second"))).get(10, SECONDS);
+
+      assertThat(events).containsExactly("second");
+      releaseFirst.countDown();
+      first.get(10, SECONDS);
+    }
+  }
+
+  private void awaitWaitingAdvisoryLock() throws InterruptedException {
+    long deadline = System.nanoTime() + SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline) {
+      Long waiting = jdbc.queryForObject(
+          "SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' AND NOT granted",
+          Long.class);
+      if (waiting != null && waiting > 0) {
+        return;
+      }
+      Thread.sleep(20);
+    }
+    throw new AssertionError("No job is waiting for the advisory lock");
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
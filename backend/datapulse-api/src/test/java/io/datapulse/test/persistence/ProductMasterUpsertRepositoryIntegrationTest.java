@@ -0,0 +1,122 @@
+package io.datapulse.test.persistence;
+
+import static io.datapulse.test.builder.TestConnectionBuilder.aConnection;
+import static io.datapulse.test.builder.TestSecretReferenceBuilder.aSecretReference;
+import static io.datapulse.test.builder.TestTenantBuilder.aTenant;
+import static io.datapulse.test.builder.TestUserBuilder.aUser;
+import static io.datapulse.test.builder.TestWorkspaceBuilder.aWorkspace;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.datapulse.etl.persistence.JobExecutionRepository;
+import io.datapulse.etl.persistence.canonical.ProductMasterEntity;
+import io.datapulse.etl.persistence.canonical.ProductMasterUpsertRepository;
+import io.datapulse.etl.persistence.canonical.ProductMasterUpsertRepository.BrandUpdate;
+import io.datapulse.integration.persistence.MarketplaceConnectionRepository;
+import io.datapulse.integration.persistence.SecretReferenceRepository;
+import io.datapulse.tenancy.persistence.AppUserRepository;
+import io.datapulse.tenancy.persistence.TenantRepository;
+import io.datapulse.tenancy.persistence.WorkspaceRepository;
+import io.datapulse.test.AbstractIntegrationTest;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ProductMasterUpsertRepositoryIntegrationTest extends AbstractIntegrationTest {
+
+  @Autowired
+  private ProductMasterUpsertRepository productMasterRepository;
+
+  @Autowired
+  private JobExecutionRepository jobExecutionRepository;
+
+  @Autowired
+  private MarketplaceConnectionRepository connectionRepository;
+
+  @Autowired
+  private SecretReferenceRepository secretRefRepository;
+
+  @Autowired
+  private TenantRepository tenantRepository;
+
+  @Autowired
+  private WorkspaceRepository workspaceRepository;
+
+  @Autowired
+  private AppUserRepository appUserRepository;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  private Long workspaceId;
+  private Long connectionId;
+
+  @BeforeEach
+  void setUp() {
+    var user = appUserRepository.save(aUser().build());
+    var tenant = tenantRepository.save(aTenant().withOwnerUserId(user.getId()).build());
+    var ws = workspaceRepository.save(
+        aWorkspace().withTenant(tenant).withOwnerUserId(user.getId()).build());
+    workspaceId = ws.getId();
+    var secret = secretRefRepository.save(
+        aSecretReference().withWorkspaceId(workspaceId).build());
+    var conn = connectionRepository.save(
+        aConnection().withWorkspaceId(workspaceId)
+            .withSecretReferenceId(secret.getId()).build());
+    connectionId = conn.getId();
+  }
+
+  @Nested
+  @DisplayName("batchUpsert")
+  class BatchUpsert {
+
+    @Test
+    @DisplayName("info page changed, attributes page unchanged: the brand survives")
+    void should_keepBrand_when_catalogRowHasNoBrand() {
+      long firstJob = jobExecutionRepository.insert(connectionId, "PRODUCT_DICT");
+      productMasterRepository.batchUpsert(List.of(productMaster("ext-001", "Kettle", firstJob)));
+      productMasterRepository.batchUpdateBrand(workspaceId,
+          List.of(new BrandUpdate("ext-001", "Acme")));
+
+      long secondJob = jobExecutionRepository.insert(connectionId, "PRODUCT_DICT");
+      productMasterRepository.batchUpsert(
+          List.of(productMaster("ext-001", "Kettle 1.7 l", secondJob)));
+
+      Map<String, Object> row = jdbc.queryForMap(
+          "SELECT name, brand FROM product_master WHERE workspace_id = ? AND external_code = ?",
+          workspaceId, "ext-001");
+      assertThat(row).containsEntry("name", "Kettle 1.7 l").containsEntry("brand", "Acme");
+    }
+
+    @Test
+    @DisplayName("a catalog brand replaces the stored one")
+    void should_replaceBrand_when_catalogRowHasBrand() {
+      long jobId = jobExecutionRepository.insert(connectionId, "PRODUCT_DICT");
+      ProductMasterEntity first = productMaster("ext-002", "Mug", jobId);
+      first.setBrand("Old");
+      productMasterRepository.batchUpsert(List.of(first));
+
+      ProductMasterEntity second = productMaster("ext-002", "Mug", jobId);
+      second.setBrand("New");
+      productMasterRepository.batchUpsert(List.of(second));
+
+      String brand = jdbc.queryForObject(
+          "SELECT brand FROM product_master WHERE workspace_id = ? AND external_code = ?",
+          String.class, workspaceId, "ext-002");
+      assertThat(brand).isEqualTo("New");
+    }
+  }
+
+  private ProductMasterEntity productMaster(String externalCode, String name, long jobId) {
+    var entity = new ProductMasterEntity();
+    entity.setWorkspaceId(workspaceId);
+    entity.setExternalCode(externalCode);
+    entity.setName(name);
+    entity.setJobExecutionId(jobId);
+    return entity;
+  }
+}
@@ -0,0 +1,38 @@
+package io.datapulse.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the stock JMH command line with the GC profiler always
+ * on, so every run reports allocation rate ({@code gc.alloc.rate.norm}) next to throughput and
+ * the SampleTime percentiles.
+ *
+ * <pre>
+ * mvn -Pbenchmarks -pl datapulse-benchmarks -am package -DskipTests
+ * java -jar datapulse-benchmarks/target/benchmarks.jar                       # everything
+ * java -jar datapulse-benchmarks/target/benchmarks.jar Normalizer -p rows=100000
+ * java -jar datapulse-benchmarks/target/benchmarks.jar RawPageReader -rf json -rff result.json
+ * </pre>
+ *
+ * <p>Fixtures are generated in memory from fixed seeds ({@code ProviderPages}); no MinIO,
+ * database or network is needed, except by the insert benchmarks of
+ * {@code ClickHouseBulkInsertBenchmark}, which take a ClickHouse server as {@code -p url=…}.</p>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,145 @@
+package io.datapulse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.datapulse.benchmarks.fixture.BatchRotation;
+import io.datapulse.benchmarks.fixture.BenchmarkFixtures;
+import io.datapulse.benchmarks.fixture.ProviderPages;
+import io.datapulse.etl.adapter.ozon.OzonNormalizer;
+import io.datapulse.etl.adapter.ozon.dto.OzonFbsPosting;
+import io.datapulse.etl.adapter.wb.WbNormalizer;
+import io.datapulse.etl.adapter.wb.dto.WbFinanceRow;
+import io.datapulse.etl.adapter.wb.dto.WbSaleItem;
+import io.datapulse.etl.domain.CanonicalEntityMapper;
+import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
+import io.datapulse.etl.domain.normalized.NormalizedOrderItem;
+import io.datapulse.etl.domain.normalized.NormalizedSaleItem;
+import io.datapulse.etl.persistence.canonical.CanonicalFinanceEntryEntity;
+import io.datapulse.etl.persistence.canonical.CanonicalOrderEntity;
+import io.datapulse.etl.persistence.canonical.CanonicalSaleEntity;
+import io.datapulse.integration.domain.MarketplaceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Normalized record → canonical entity, one batch of {@link RawPageReaderBenchmark#BATCH_SIZE}
+ * per operation; the step between the normalizers and the canonical batch upserts.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CanonicalEntityMapperBenchmark {
+
+    private static final Long SELLER_SKU_ID = 42L;
+    private static final Long WAREHOUSE_ID = 7L;
+    private static final String ATTRIBUTION_LEVEL = "POSTING";
+
+    private static final CanonicalEntityMapper MAPPER = new CanonicalEntityMapper();
+    private static final WbNormalizer WB = new WbNormalizer(ProviderPages.MAPPER);
+    private static final OzonNormalizer OZON = new OzonNormalizer(ProviderPages.MAPPER);
+    private static final IngestContext WB_CONTEXT = BenchmarkFixtures.context(MarketplaceType.WB);
+    private static final IngestContext OZON_CONTEXT =
+            BenchmarkFixtures.context(MarketplaceType.OZON);
+
+    @State(Scope.Benchmark)
+    public static class FinanceItems {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        private BatchRotation<NormalizedFinanceItem> batches;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = new BatchRotation<>(
+                    ProviderPages.records(ProviderPages.wbFinance(rows), WbFinanceRow.class).stream()
+                            .map(WB::normalizeFinance)
+                            .toList(),
+                    RawPageReaderBenchmark.BATCH_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SaleItems {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        private BatchRotation<NormalizedSaleItem> batches;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = new BatchRotation<>(
+                    ProviderPages.records(ProviderPages.wbSales(rows), WbSaleItem.class).stream()
+                            .map(WB::normalizeSale)
+                            .toList(),
+                    RawPageReaderBenchmark.BATCH_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OrderItems {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        private BatchRotation<NormalizedOrderItem> batches;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = new BatchRotation<>(
+                    ProviderPages.records(ProviderPages.ozonFbsPostings(rows), OzonFbsPosting.class)
+                            .stream()
+                            .flatMap(posting -> posting.products().stream()
+                                    .map(product -> OZON.normalizeFbsPosting(posting, product)))
+                            .toList(),
+                    RawPageReaderBenchmark.BATCH_SIZE);
+        }
+    }
+
+    @Benchmark
+    public List<CanonicalFinanceEntryEntity> financeEntries(FinanceItems fixture) {
+        List<NormalizedFinanceItem> batch = fixture.batches.next();
+        List<CanonicalFinanceEntryEntity> result = new ArrayList<>(batch.size());
+        for (NormalizedFinanceItem item : batch) {
+            result.add(MAPPER.toFinanceEntry(item, WB_CONTEXT, SELLER_SKU_ID, WAREHOUSE_ID,
+                    ATTRIBUTION_LEVEL));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<CanonicalSaleEntity> sales(SaleItems fixture) {
+        List<NormalizedSaleItem> batch = fixture.batches.next();
+        List<CanonicalSaleEntity> result = new ArrayList<>(batch.size());
+        for (NormalizedSaleItem item : batch) {
+            result.add(MAPPER.toSale(item, WB_CONTEXT));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<CanonicalOrderEntity> orders(OrderItems fixture) {
+        List<NormalizedOrderItem> batch = fixture.batches.next();
+        List<CanonicalOrderEntity> result = new ArrayList<>(batch.size());
+        for (NormalizedOrderItem item : batch) {
+            result.add(MAPPER.toOrder(item, OZON_CONTEXT));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,227 @@
+package io.datapulse.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import com.clickhouse.client.api.Client;
+import io.datapulse.platform.clickhouse.ClickHouseBulkInserter;
+import io.datapulse.platform.clickhouse.ClickHouseBulkProperties;
+import io.datapulse.platform.clickhouse.ClickHouseClientConfig;
+import io.datapulse.platform.clickhouse.RowBinaryWriter;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JDBC batch vs RowBinary bulk insert of fact-shaped rows. One operation writes all {@code rows}
+ * rows, so rows/sec is {@code rows} times ops/s and bytes per row is {@code gc.alloc.rate.norm}
+ * divided by {@code rows}.
+ *
+ * <p>{@code rowBinaryEncode} only encodes into a null stream and needs nothing else. The insert
+ * benchmarks need a ClickHouse server and create their own {@code bench_bulk_insert} table:</p>
+ *
+ * <pre>
+ * java -jar datapulse-benchmarks/target/benchmarks.jar ClickHouseBulkInsert \
+ *     -p url=jdbc:clickhouse://localhost:8123/datapulse [-p username=…] [-p password=…]
+ * </pre>
+ *
+ * <p>The JDBC driver serializes on the benchmark thread; the HTTP client streams the RowBinary
+ * body on its own threads, so the allocation figure of {@code rowBinaryInsert} covers the
+ * benchmark thread's share only.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ClickHouseBulkInsertBenchmark {
+
+    private static final String TABLE = "bench_bulk_insert";
+    private static final List<String> COLUMNS = List.of(
+            "workspace_id", "connection_id", "source_platform", "entry_id", "seller_sku_id",
+            "marketplace_sku", "finance_date", "amount", "commission", "reason", "ver");
+    private static final int JDBC_BATCH_SIZE = 5000;
+    private static final int BUFFER_SIZE = 65536;
+
+    record BenchRow(long workspaceId, long connectionId, String sourcePlatform, long entryId,
+                    Long sellerSkuId, String marketplaceSku, LocalDate financeDate,
+                    BigDecimal amount, BigDecimal commission, String reason) {
+    }
+
+    /**
+     * Rows shaped like {@code fact_finance}: a nullable SKU on every tenth row, a nullable
+     * Cyrillic reason on every fourth.
+     */
+    @State(Scope.Benchmark)
+    public static class Rows {
+
+        @Param({"200000"})
+        private int rows;
+
+        private List<BenchRow> data;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = new ArrayList<>(rows);
+            LocalDate start = LocalDate.of(2025, 1, 1);
+            for (int i = 0; i < rows; i++) {
+                data.add(new BenchRow(1 + i % 7, 10 + i % 3, i % 2 == 0 ? "WB" : "OZON", i,
+                        i % 10 == 0 ? null : (long) i % 5000, "SKU-" + (i % 5000),
+                        start.plusDays(i % 365), BigDecimal.valueOf(i % 100_000, 2),
+                        BigDecimal.valueOf(-(i % 5_000), 2), i % 4 == 0 ? "Брак" : null));
+            }
+        }
+    }
+
+    /**
+     * Target table on the server given by {@code -p url}, emptied before every iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({""})
+        private String url;
+
+        @Param({"default"})
+        private String username;
+
+        @Param({""})
+        private String password;
+
+        private Client client;
+        private ClickHouseBulkInserter inserter;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            if (url.isBlank()) {
+                throw new IllegalStateException(
+                        "Insert benchmarks need a server: -p url=jdbc:clickhouse://host:8123/db");
+            }
+            client = new ClickHouseClientConfig().clickhouseClient(url, username, password);
+            inserter = new ClickHouseBulkInserter(client,
+                    new ClickHouseBulkProperties(false, true, BUFFER_SIZE, Duration.ofMinutes(10)),
+                    new MetricsFacade(new SimpleMeterRegistry()));
+            execute("DROP TABLE IF EXISTS " + TABLE);
+            execute("""
+                    CREATE TABLE %s (
+                        workspace_id UInt32, connection_id UInt32,
+                        source_platform LowCardinality(String), entry_id UInt64,
+                        seller_sku_id Nullable(UInt64), marketplace_sku String, finance_date Date,
+                        amount Decimal(18, 2), commission Decimal(18, 2), reason Nullable(String),
+                        ver UInt64
+                    ) ENGINE = MergeTree ORDER BY (workspace_id, entry_id)
+                    """.formatted(TABLE));
+        }
+
+        @Setup(Level.Iteration)
+        public void truncate() throws SQLException {
+            execute("TRUNCATE TABLE " + TABLE);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            execute("DROP TABLE IF EXISTS " + TABLE);
+            client.close();
+        }
+
+        Connection connect() throws SQLException {
+            Properties properties = new Properties();
+            properties.setProperty("user", username);
+            properties.setProperty("password", password);
+            return DriverManager.getConnection(url, properties);
+        }
+
+        private void execute(String sql) throws SQLException {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @Benchmark
+    public int jdbcBatch(Rows rows, Server server) throws SQLException {
+        String sql = "INSERT INTO %s (%s) VALUES (%s)".formatted(TABLE, String.join(", ", COLUMNS),
+                String.join(", ", COLUMNS.stream().map(c -> "?").toList()));
+        int sent = 0;
+        try (Connection connection = server.connect();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (BenchRow row : rows.data) {
+                ps.setLong(1, row.workspaceId());
+                ps.setLong(2, row.connectionId());
+                ps.setString(3, row.sourcePlatform());
+                ps.setLong(4, row.entryId());
+                ps.setObject(5, row.sellerSkuId());
+                ps.setString(6, row.marketplaceSku());
+                ps.setDate(7, Date.valueOf(row.financeDate()));
+                ps.setBigDecimal(8, row.amount());
+                ps.setBigDecimal(9, row.commission());
+                ps.setString(10, row.reason());
+                ps.setLong(11, 1L);
+                ps.addBatch();
+                if (++pending == JDBC_BATCH_SIZE) {
+                    sent += ps.executeBatch().length;
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                sent += ps.executeBatch().length;
+            }
+        }
+        return sent;
+    }
+
+    @Benchmark
+    public long rowBinaryInsert(Rows rows, Server server) {
+        return server.inserter.insert(TABLE, COLUMNS, rows.data,
+                ClickHouseBulkInsertBenchmark::encode);
+    }
+
+    @Benchmark
+    public void rowBinaryEncode(Rows rows) throws IOException {
+        RowBinaryWriter writer = new RowBinaryWriter(OutputStream.nullOutputStream(), BUFFER_SIZE);
+        for (BenchRow row : rows.data) {
+            encode(row, writer);
+        }
+        writer.flush();
+    }
+
+    private static void encode(BenchRow row, RowBinaryWriter out) throws IOException {
+        out.writeUInt32(row.workspaceId());
+        out.writeUInt32(row.connectionId());
+        out.writeString(row.sourcePlatform());
+        out.writeUInt64(row.entryId());
+        out.writeNullableUInt64(row.sellerSkuId());
+        out.writeString(row.marketplaceSku());
+        out.writeDate(row.financeDate());
+        out.writeDecimal64(row.amount(), 2);
+        out.writeDecimal64(row.commission(), 2);
+        out.writeNullableString(row.reason());
+        out.writeUInt64(1L);
+    }
+}
@@ -0,0 +1,150 @@
+package io.datapulse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.datapulse.benchmarks.fixture.BatchRotation;
+import io.datapulse.benchmarks.fixture.ProviderPages;
+import io.datapulse.etl.adapter.ozon.OzonNormalizer;
+import io.datapulse.etl.adapter.ozon.dto.OzonFboPosting;
+import io.datapulse.etl.adapter.ozon.dto.OzonFbsPosting;
+import io.datapulse.etl.adapter.wb.WbNormalizer;
+import io.datapulse.etl.adapter.wb.dto.WbFinanceRow;
+import io.datapulse.etl.adapter.wb.dto.WbSaleItem;
+import io.datapulse.etl.adapter.yandex.YandexNormalizer;
+import io.datapulse.etl.adapter.yandex.dto.YandexOrder;
+import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
+import io.datapulse.etl.domain.normalized.NormalizedOrderItem;
+import io.datapulse.etl.domain.normalized.NormalizedSaleItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Provider DTO → normalized record, one batch of {@link RawPageReaderBenchmark#BATCH_SIZE} DTOs
+ * per operation, the unit the event sources hand over after {@code RawPageReader}. {@code rows}
+ * is the size of the decoded fixture the batches rotate through, so the larger runs are not
+ * served from a warm cache.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class NormalizerBenchmark {
+
+    private static final WbNormalizer WB = new WbNormalizer(ProviderPages.MAPPER);
+    private static final OzonNormalizer OZON = new OzonNormalizer(ProviderPages.MAPPER);
+    private static final YandexNormalizer YANDEX = new YandexNormalizer();
+
+    @State(Scope.Benchmark)
+    public static class WbFinanceRows {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        private BatchRotation<WbFinanceRow> batches;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = new BatchRotation<>(
+                    ProviderPages.records(ProviderPages.wbFinance(rows), WbFinanceRow.class),
+                    RawPageReaderBenchmark.BATCH_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WbSales {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        private BatchRotation<WbSaleItem> batches;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = new BatchRotation<>(
+                    ProviderPages.records(ProviderPages.wbSales(rows), WbSaleItem.class),
+                    RawPageReaderBenchmark.BATCH_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OzonFbsPostings {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        private BatchRotation<OzonFbsPosting> batches;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = new BatchRotation<>(
+                    ProviderPages.records(ProviderPages.ozonFbsPostings(rows), OzonFbsPosting.class),
+                    RawPageReaderBenchmark.BATCH_SIZE);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class YandexOrders {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        private BatchRotation<YandexOrder> batches;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            batches = new BatchRotation<>(
+                    ProviderPages.records(ProviderPages.yandexOrders(rows), YandexOrder.class),
+                    RawPageReaderBenchmark.BATCH_SIZE);
+        }
+    }
+
+    @Benchmark
+    public List<NormalizedFinanceItem> wbFinance(WbFinanceRows fixture) {
+        List<WbFinanceRow> batch = fixture.batches.next();
+        List<NormalizedFinanceItem> result = new ArrayList<>(batch.size());
+        for (WbFinanceRow row : batch) {
+            result.add(WB.normalizeFinance(row));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<NormalizedSaleItem> wbSales(WbSales fixture) {
+        List<WbSaleItem> batch = fixture.batches.next();
+        List<NormalizedSaleItem> result = new ArrayList<>(batch.size());
+        for (WbSaleItem item : batch) {
+            result.add(WB.normalizeSale(item));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<NormalizedOrderItem> ozonFbsPostings(OzonFbsPostings fixture) {
+        List<OzonFbsPosting> batch = fixture.batches.next();
+        List<NormalizedOrderItem> result = new ArrayList<>(batch.size() * 2);
+        for (OzonFbsPosting posting : batch) {
+            for (OzonFboPosting.OzonPostingProduct product : posting.products()) {
+                result.add(OZON.normalizeFbsPosting(posting, product));
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<NormalizedOrderItem> yandexOrders(YandexOrders fixture) {
+        return YANDEX.normalizeOrders(fixture.batches.next());
+    }
+}
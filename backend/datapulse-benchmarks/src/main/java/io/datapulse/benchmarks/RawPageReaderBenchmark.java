@@ -0,0 +1,118 @@
+package io.datapulse.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import io.datapulse.benchmarks.fixture.BenchmarkFixtures;
+import io.datapulse.benchmarks.fixture.InMemoryMinioClient;
+import io.datapulse.benchmarks.fixture.ProviderPages;
+import io.datapulse.etl.adapter.ozon.OzonFinanceTokenReader;
+import io.datapulse.etl.adapter.ozon.dto.OzonFinanceTransaction;
+import io.datapulse.etl.adapter.wb.WbFinanceTokenReader;
+import io.datapulse.etl.adapter.wb.dto.WbFinanceRow;
+import io.datapulse.etl.domain.RawPageReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decoding one captured page end to end: S3 stream (in memory), optional gunzip, Jackson
+ * streaming, then either DTO binding ({@code readBatched}) or the finance token readers
+ * ({@code readTokens}). One operation is one whole page of {@code rows} records, delivered in
+ * batches of {@link #BATCH_SIZE}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class RawPageReaderBenchmark {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String PAGE_KEY = "page.json";
+    private static final WbFinanceTokenReader WB_FINANCE_TOKENS = new WbFinanceTokenReader();
+    private static final OzonFinanceTokenReader OZON_FINANCE_TOKENS = new OzonFinanceTokenReader();
+
+    /**
+     * WB {@code reportDetailByPeriod} page. At 1M rows it is ~1.3 GB uncompressed, well past the
+     * 100k rows WB returns per request.
+     */
+    @State(Scope.Benchmark)
+    public static class WbFinancePage {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        @Param({"identity", "gzip"})
+        private String encoding;
+
+        private RawPageReader reader;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            reader = readerOf(ProviderPages.wbFinance(rows), encoding);
+        }
+    }
+
+    /**
+     * Ozon {@code finance/transaction/list} page.
+     */
+    @State(Scope.Benchmark)
+    public static class OzonFinancePage {
+
+        @Param({"1000", "100000", "1000000"})
+        private int rows;
+
+        @Param({"identity", "gzip"})
+        private String encoding;
+
+        private RawPageReader reader;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            reader = readerOf(ProviderPages.ozonFinance(rows), encoding);
+        }
+    }
+
+    @Benchmark
+    public void wbFinanceDto(WbFinancePage page, Blackhole blackhole) {
+        page.reader.readBatched(PAGE_KEY, WbFinanceRow.class, BATCH_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    public void wbFinanceTokens(WbFinancePage page, Blackhole blackhole) {
+        page.reader.readTokens(PAGE_KEY, WB_FINANCE_TOKENS, BATCH_SIZE, blackhole::consume);
+    }
+
+    @Benchmark
+    public int wbFinanceCount(WbFinancePage page) {
+        return page.reader.countRecords(PAGE_KEY);
+    }
+
+    @Benchmark
+    public void ozonFinanceDto(OzonFinancePage page, Blackhole blackhole) {
+        page.reader.readBatched(PAGE_KEY, OzonFinanceTransaction.class, BATCH_SIZE,
+                blackhole::consume);
+    }
+
+    @Benchmark
+    public void ozonFinanceTokens(OzonFinancePage page, Blackhole blackhole) {
+        page.reader.readTokens(PAGE_KEY, OZON_FINANCE_TOKENS, BATCH_SIZE, blackhole::consume);
+    }
+
+    private static RawPageReader readerOf(byte[] page, String encoding) {
+        InMemoryMinioClient minio = new InMemoryMinioClient();
+        minio.put(PAGE_KEY, "gzip".equals(encoding) ? ProviderPages.gzip(page) : page);
+        return BenchmarkFixtures.rawPageReader(minio);
+    }
+}
@@ -0,0 +1,116 @@
+package io.datapulse.benchmarks;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import io.datapulse.etl.adapter.util.OzonTimestampParser;
+import io.datapulse.etl.adapter.util.WbTimestampParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Provider timestamp parsing, one batch of {@link RawPageReaderBenchmark#BATCH_SIZE} values per
+ * operation, in each format the adapters see: Ozon finance {@code yyyy-MM-dd HH:mm:ss}, Ozon
+ * ISO 8601 with offset, and WB's date-only, local and offset ISO variants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TimestampParserBenchmark {
+
+    private static final DateTimeFormatter OZON_FINANCE_FMT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private String[] ozonFinance;
+    private String[] ozonIso;
+    private String[] wbDateOnly;
+    private String[] wbLocal;
+    private String[] wbOffset;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ozonFinance = new String[rows];
+        ozonIso = new String[rows];
+        wbDateOnly = new String[rows];
+        wbLocal = new String[rows];
+        wbOffset = new String[rows];
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            OffsetDateTime at = start.plusDays(i % 365)
+                    .atTime(i % 24, i % 60, (i * 7) % 60)
+                    .atOffset(ZoneOffset.UTC);
+            ozonFinance[i] = OZON_FINANCE_FMT.format(at);
+            ozonIso[i] = at.plusNanos((i % 1000) * 1_000_000L).toString();
+            wbDateOnly[i] = at.toLocalDate().toString();
+            wbLocal[i] = at.toLocalDateTime().withNano(0).toString();
+            wbOffset[i] = at.withOffsetSameInstant(ZoneOffset.ofHours(3)).toString();
+        }
+    }
+
+    @Benchmark
+    public void ozonFinance(Blackhole blackhole) {
+        int from = nextBatch();
+        for (int i = from; i < from + RawPageReaderBenchmark.BATCH_SIZE; i++) {
+            blackhole.consume(OzonTimestampParser.parseFinanceTimestamp(ozonFinance[i % rows]));
+        }
+    }
+
+    @Benchmark
+    public void ozonIso8601(Blackhole blackhole) {
+        int from = nextBatch();
+        for (int i = from; i < from + RawPageReaderBenchmark.BATCH_SIZE; i++) {
+            blackhole.consume(OzonTimestampParser.parseIso8601(ozonIso[i % rows]));
+        }
+    }
+
+    @Benchmark
+    public void wbDateOnly(Blackhole blackhole) {
+        int from = nextBatch();
+        for (int i = from; i < from + RawPageReaderBenchmark.BATCH_SIZE; i++) {
+            blackhole.consume(WbTimestampParser.parseFlexible(wbDateOnly[i % rows]));
+        }
+    }
+
+    @Benchmark
+    public void wbLocalDateTime(Blackhole blackhole) {
+        int from = nextBatch();
+        for (int i = from; i < from + RawPageReaderBenchmark.BATCH_SIZE; i++) {
+            blackhole.consume(WbTimestampParser.parseFlexible(wbLocal[i % rows]));
+        }
+    }
+
+    @Benchmark
+    public void wbOffsetDateTime(Blackhole blackhole) {
+        int from = nextBatch();
+        for (int i = from; i < from + RawPageReaderBenchmark.BATCH_SIZE; i++) {
+            blackhole.consume(WbTimestampParser.parseFlexible(wbOffset[i % rows]));
+        }
+    }
+
+    private int nextBatch() {
+        int from = next;
+        next = (from + RawPageReaderBenchmark.BATCH_SIZE) % rows;
+        return from;
+    }
+}
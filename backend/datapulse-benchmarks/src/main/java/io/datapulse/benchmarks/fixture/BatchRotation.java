@@ -0,0 +1,28 @@
+package io.datapulse.benchmarks.fixture;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Fixture split into consecutive batches, handed out round-robin so each benchmark operation
+ * works on the next batch rather than on the same cache-hot one.
+ */
+public final class BatchRotation<T> {
+
+    private final List<List<T>> batches;
+    private int next;
+
+    public BatchRotation(List<T> records, int batchSize) {
+        int count = (records.size() + batchSize - 1) / batchSize;
+        this.batches = IntStream.range(0, count)
+                .mapToObj(i -> records.subList(i * batchSize,
+                        Math.min(records.size(), (i + 1) * batchSize)))
+                .toList();
+    }
+
+    public List<T> next() {
+        List<T> batch = batches.get(next);
+        next = next + 1 < batches.size() ? next + 1 : 0;
+        return batch;
+    }
+}
@@ -0,0 +1,53 @@
+package io.datapulse.benchmarks.fixture;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+
+import io.datapulse.etl.config.IngestProperties;
+import io.datapulse.etl.config.S3Properties;
+import io.datapulse.etl.domain.EtlEventType;
+import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.RawPageReader;
+import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+/**
+ * Production components wired the way Spring would, minus the infrastructure they do not touch on
+ * the benchmarked paths.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String RAW_BUCKET = "benchmark-raw";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * {@link RawPageReader} over {@code minio}, with the application's default ingest settings.
+     */
+    public static RawPageReader rawPageReader(InMemoryMinioClient minio) {
+        return new RawPageReader(minio,
+                new S3Properties(null, null, null, RAW_BUCKET),
+                ProviderPages.MAPPER,
+                defaultIngestProperties(),
+                new MetricsFacade(new SimpleMeterRegistry()));
+    }
+
+    public static IngestContext context(MarketplaceType marketplace) {
+        OffsetDateTime now = OffsetDateTime.of(2025, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        return new IngestContext(
+                1L, 10L, 100L, marketplace, Map.of(), "FULL_SYNC", Set.of(EtlEventType.values()),
+                null, LocalDate.of(2025, 1, 1), now.toLocalDate(), now.minusDays(60), now, null);
+    }
+
+    private static IngestProperties defaultIngestProperties() {
+        return new Binder(new MapConfigurationPropertySource(Map.of()))
+                .bindOrCreate("datapulse.etl.ingest", IngestProperties.class);
+    }
+}
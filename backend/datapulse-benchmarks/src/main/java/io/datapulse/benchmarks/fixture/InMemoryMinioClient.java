@@ -0,0 +1,40 @@
+package io.datapulse.benchmarks.fixture;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import okhttp3.Headers;
+
+/**
+ * {@link MinioClient} serving raw pages from memory, so {@code RawPageReader} runs its real
+ * streaming path without a MinIO server. Only {@link #getObject} is supported.
+ */
+public class InMemoryMinioClient extends MinioClient {
+
+    private final Map<String, byte[]> objects = new HashMap<>();
+
+    public InMemoryMinioClient() {
+        super(MinioClient.builder()
+                .endpoint("http://localhost:9000")
+                .credentials("benchmark", "benchmark")
+                .build());
+    }
+
+    public void put(String key, byte[] content) {
+        objects.put(key, content);
+    }
+
+    @Override
+    public GetObjectResponse getObject(GetObjectArgs args) {
+        byte[] content = objects.get(args.object());
+        if (content == null) {
+            throw new IllegalArgumentException("No such object: " + args.object());
+        }
+        return new GetObjectResponse(Headers.of(), args.bucket(), null, args.object(),
+                new ByteArrayInputStream(content));
+    }
+}
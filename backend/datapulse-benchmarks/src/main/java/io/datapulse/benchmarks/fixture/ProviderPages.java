@@ -0,0 +1,403 @@
+package io.datapulse.benchmarks.fixture;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Deterministic synthetic provider pages, shaped like the JSON the adapters capture to S3.
+ *
+ * <p>Every page is generated from a fixed seed, so the same {@code rows} always yields the same
+ * bytes. Field values cycle through the operation types, SKUs and date formats real exports
+ * contain, so the normalizers take their production branches; only types that map to a known
+ * {@code FinanceEntryType} are used, to keep "unmapped type" warnings out of the timings.</p>
+ */
+public final class ProviderPages {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final long SEED = 20250301L;
+    private static final int SKU_COUNT = 5_000;
+    private static final LocalDate PERIOD_START = LocalDate.of(2025, 1, 1);
+    private static final DateTimeFormatter OZON_FINANCE_FMT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final List<String> WB_OPERATIONS = List.of(
+            "Продажа", "Продажа", "Продажа", "Логистика", "Логистика", "Возврат", "Хранение",
+            "Штраф", "Удержания", "Обработка товара", "Коррекция продаж");
+    private static final List<String> OZON_OPERATIONS = List.of(
+            "OperationAgentDeliveredToCustomer", "OperationAgentDeliveredToCustomer",
+            "ClientReturnAgentOperation", "MarketplaceRedistributionOfAcquiringOperation",
+            "MarketplaceServiceItemCrossdocking", "OperationMarketplaceServiceStorage");
+    private static final List<String> OZON_SERVICES = List.of(
+            "MarketplaceServiceItemDirectFlowLogistic", "MarketplaceServiceItemDelivToCustomer",
+            "MarketplaceServiceItemReturnFlowLogistic");
+    private static final List<String> OZON_POSTING_STATUSES = List.of(
+            "awaiting_packaging", "awaiting_deliver", "delivering", "delivered", "cancelled");
+    private static final List<String> YANDEX_PROGRAMS = List.of("FBY", "FBS", "DBS");
+    private static final List<String> REGIONS = List.of(
+            "Москва", "Санкт-Петербург", "Новосибирск", "Екатеринбург", "Казань");
+
+    private static final JsonFactory JSON = MAPPER.getFactory();
+
+    private ProviderPages() {
+    }
+
+    /**
+     * WB {@code reportDetailByPeriod} v5 page: a root array of composite finance rows.
+     */
+    public static byte[] wbFinance(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        return write(json -> {
+            json.writeStartArray();
+            for (int i = 0; i < rows; i++) {
+                String operation = WB_OPERATIONS.get(i % WB_OPERATIONS.size());
+                boolean sale = operation.startsWith("Продажа") || operation.equals("Возврат");
+                LocalDate day = day(i);
+                json.writeStartObject();
+                json.writeNumberField("realizationreport_id", 300_000_000L + i / 10_000);
+                json.writeNumberField("rrd_id", 1_000_000_000L + i);
+                json.writeStringField("rr_dt", day.toString());
+                json.writeStringField("date_from", day.withDayOfMonth(1).toString());
+                json.writeStringField("date_to", day.toString());
+                json.writeStringField("create_dt", day + "T03:00:00");
+                json.writeStringField("order_dt", day.minusDays(3) + "T12:34:56");
+                json.writeStringField("sale_dt", i % 7 == 0 ? "" : day + "T15:01:02");
+                json.writeStringField("srid", "d." + Long.toHexString(random.nextLong()));
+                json.writeNumberField("nm_id", 100_000_000L + sku(i));
+                json.writeStringField("sa_name", "ART-" + sku(i));
+                json.writeStringField("barcode", "46" + (10_000_000_000L + sku(i)));
+                json.writeStringField("doc_type_name", operation.equals("Возврат") ? "Возврат" : "Продажа");
+                json.writeStringField("supplier_oper_name", operation);
+                json.writeNumberField("quantity", sale ? 1 : 0);
+                json.writeNumberField("retail_price", sale ? money(random, 300, 9000) : BigDecimal.ZERO);
+                json.writeNumberField("retail_amount", sale ? money(random, 300, 9000) : BigDecimal.ZERO);
+                json.writeNumberField("retail_price_withdisc_rub",
+                        sale ? money(random, 250, 8000) : BigDecimal.ZERO);
+                json.writeNumberField("ppvz_for_pay", sale ? money(random, 200, 7000) : BigDecimal.ZERO);
+                json.writeNumberField("ppvz_vw", money(random, 0, 500));
+                json.writeNumberField("ppvz_vw_nds", money(random, 0, 100));
+                json.writeNumberField("ppvz_sales_commission", sale ? money(random, 20, 900) : BigDecimal.ZERO);
+                json.writeNumberField("delivery_rub", operation.equals("Логистика") ? money(random, 30, 300) : BigDecimal.ZERO);
+                json.writeNumberField("penalty", operation.equals("Штраф") ? money(random, 100, 1000) : BigDecimal.ZERO);
+                json.writeNumberField("storage_fee", operation.equals("Хранение") ? money(random, 1, 50) : BigDecimal.ZERO);
+                json.writeNumberField("deduction", operation.equals("Удержания") ? money(random, 10, 500) : BigDecimal.ZERO);
+                json.writeNumberField("additional_payment", BigDecimal.ZERO);
+                json.writeNumberField("rebill_logistic_cost", BigDecimal.ZERO);
+                json.writeNumberField("acquiring_fee", sale ? money(random, 1, 120) : BigDecimal.ZERO);
+                json.writeNumberField("acquiring_percent", new BigDecimal("1.5"));
+                json.writeNumberField("acceptance", operation.equals("Обработка товара") ? money(random, 5, 60) : BigDecimal.ZERO);
+                json.writeNumberField("ppvz_spp_prc", new BigDecimal("25"));
+                json.writeNumberField("ppvz_office_id", 100 + i % 40);
+                json.writeStringField("office_name", "Коледино");
+                json.writeNumberField("gi_id", 20_000_000L + i / 50);
+                json.writeNumberField("shk_id", 30_000_000_000L + i);
+                json.writeNumberField("assembly_id", 0);
+                json.writeStringField("order_uid", Long.toHexString(random.nextLong()));
+                json.writeStringField("sticker_id", "");
+                json.writeStringField("site_country", "Россия");
+                json.writeNumberField("delivery_amount", operation.equals("Логистика") ? 1 : 0);
+                json.writeNumberField("return_amount", operation.equals("Возврат") ? 1 : 0);
+                json.writeNumberField("dlv_prc", new BigDecimal("1.8"));
+                json.writeBooleanField("srv_dbs", i % 25 == 0);
+                json.writeBooleanField("is_legal_entity", false);
+                json.writeStringField("trbx_id", "");
+                json.writeNumberField("installment_cofinancing_amount", BigDecimal.ZERO);
+                json.writeNumberField("cashback_amount", BigDecimal.ZERO);
+                json.writeNumberField("cashback_discount", BigDecimal.ZERO);
+                json.writeNumberField("cashback_commission_change", BigDecimal.ZERO);
+                json.writeNumberField("seller_promo_discount", i % 9 == 0 ? money(random, 10, 300) : BigDecimal.ZERO);
+                json.writeNumberField("loyalty_discount", BigDecimal.ZERO);
+                json.writeStringField("currency_name", "RUB");
+                json.writeStringField("delivery_method", "FBW");
+                json.writeNumberField("report_type", 1);
+                json.writeNumberField("payment_schedule", 0);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        });
+    }
+
+    /**
+     * Ozon {@code /v3/finance/transaction/list} page: {@code {"result":{"operations":[…]}}}.
+     */
+    public static byte[] ozonFinance(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        return write(json -> {
+            json.writeStartObject();
+            json.writeObjectFieldStart("result");
+            json.writeArrayFieldStart("operations");
+            for (int i = 0; i < rows; i++) {
+                String operation = OZON_OPERATIONS.get(i % OZON_OPERATIONS.size());
+                boolean sale = i % OZON_OPERATIONS.size() < 3;
+                LocalDateTime at = day(i).atTime(i % 24, i % 60, (i * 7) % 60);
+                json.writeStartObject();
+                json.writeNumberField("operation_id", 20_000_000_000L + i);
+                json.writeStringField("operation_type", operation);
+                json.writeStringField("operation_date", OZON_FINANCE_FMT.format(at));
+                json.writeStringField("operation_type_name", "Доставка покупателю");
+                json.writeNumberField("delivery_charge", 0);
+                json.writeNumberField("return_delivery_charge", 0);
+                json.writeNumberField("accruals_for_sale", sale ? money(random, 300, 9000) : BigDecimal.ZERO);
+                json.writeNumberField("sale_commission", sale ? money(random, -900, -20) : BigDecimal.ZERO);
+                json.writeNumberField("amount", money(random, -500, 8000));
+                json.writeStringField("type", sale ? "orders" : "services");
+                json.writeObjectFieldStart("posting");
+                json.writeStringField("delivery_schema", i % 2 == 0 ? "FBO" : "FBS");
+                json.writeStringField("order_date", OZON_FINANCE_FMT.format(at.minusDays(2)));
+                json.writeStringField("posting_number", postingNumber(i));
+                json.writeNumberField("warehouse_id", 1_020_000_000_000L + i % 12);
+                json.writeEndObject();
+                json.writeArrayFieldStart("items");
+                json.writeStartObject();
+                json.writeStringField("name", "Товар " + sku(i));
+                json.writeNumberField("sku", 1_500_000_000L + sku(i));
+                json.writeEndObject();
+                json.writeEndArray();
+                json.writeArrayFieldStart("services");
+                if (sale) {
+                    for (String service : OZON_SERVICES) {
+                        json.writeStartObject();
+                        json.writeStringField("name", service);
+                        json.writeNumberField("price", money(random, -150, -5));
+                        json.writeEndObject();
+                    }
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndObject();
+        });
+    }
+
+    /**
+     * Ozon {@code /v3/posting/fbs/list} page: {@code {"result":{"postings":[…],"has_next":…}}}.
+     */
+    public static byte[] ozonFbsPostings(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        return write(json -> {
+            json.writeStartObject();
+            json.writeObjectFieldStart("result");
+            json.writeArrayFieldStart("postings");
+            for (int i = 0; i < rows; i++) {
+                String created = day(i).atTime(i % 24, i % 60, 5).atOffset(ZoneOffset.UTC).toString();
+                json.writeStartObject();
+                json.writeStringField("posting_number", postingNumber(i));
+                json.writeNumberField("order_id", 40_000_000_000L + i);
+                json.writeStringField("order_number", "0" + (400_000_000L + i));
+                json.writeStringField("status", OZON_POSTING_STATUSES.get(i % OZON_POSTING_STATUSES.size()));
+                json.writeStringField("in_process_at", created);
+                json.writeStringField("created_at", created);
+                json.writeStringField("shipment_date", day(i + 2) + "T10:00:00Z");
+                json.writeArrayFieldStart("products");
+                int products = 1 + i % 3;
+                for (int p = 0; p < products; p++) {
+                    json.writeStartObject();
+                    json.writeNumberField("sku", 1_500_000_000L + sku(i + p));
+                    json.writeStringField("offer_id", "ART-" + sku(i + p));
+                    json.writeStringField("name", "Товар " + sku(i + p));
+                    json.writeNumberField("quantity", 1 + p);
+                    json.writeStringField("price", money(random, 300, 9000).toPlainString());
+                    json.writeStringField("currency_code", "RUB");
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeObjectFieldStart("analytics_data");
+                json.writeStringField("region", REGIONS.get(i % REGIONS.size()));
+                json.writeStringField("city", REGIONS.get(i % REGIONS.size()));
+                json.writeStringField("delivery_type", "PVZ");
+                json.writeStringField("warehouse_name", "Хоругвино");
+                json.writeNumberField("warehouse_id", 1_020_000_000_000L + i % 12);
+                json.writeEndObject();
+                json.writeObjectFieldStart("delivery_method");
+                json.writeNumberField("id", 21_000_000_000L + i % 4);
+                json.writeStringField("name", "Ozon Логистика самостоятельно, Москва");
+                json.writeNumberField("warehouse_id", 1_020_000_000_000L + i % 12);
+                json.writeStringField("warehouse", "Склад Москва");
+                json.writeNumberField("tpl_provider_id", 24);
+                json.writeStringField("tpl_provider", "Ozon Логистика");
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeBooleanField("has_next", false);
+            json.writeEndObject();
+            json.writeEndObject();
+        });
+    }
+
+    /**
+     * Yandex {@code /campaigns/{id}/orders} page: {@code {"orders":[…],"paging":{…}}}.
+     */
+    public static byte[] yandexOrders(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        return write(json -> {
+            json.writeStartObject();
+            json.writeArrayFieldStart("orders");
+            for (int i = 0; i < rows; i++) {
+                json.writeStartObject();
+                json.writeNumberField("id", 50_000_000L + i);
+                json.writeStringField("status", i % 10 == 0 ? "CANCELLED" : "DELIVERED");
+                json.writeStringField("substatus", i % 10 == 0 ? "USER_CHANGED_MIND" : "DELIVERY_SERVICE_DELIVERED");
+                json.writeStringField("creationDate", day(i).toString());
+                json.writeStringField("updatedAt", day(i + 1) + "T08:00:00+03:00");
+                json.writeStringField("paymentType", "PREPAID");
+                json.writeStringField("programType", YANDEX_PROGRAMS.get(i % YANDEX_PROGRAMS.size()));
+                json.writeNumberField("campaignId", 21_000_000L);
+                json.writeArrayFieldStart("items");
+                int items = 1 + i % 2;
+                for (int p = 0; p < items; p++) {
+                    BigDecimal price = money(random, 300, 9000);
+                    json.writeStartObject();
+                    json.writeStringField("offerId", "ART-" + sku(i + p));
+                    json.writeStringField("offerName", "Товар " + sku(i + p));
+                    json.writeNumberField("marketSku", 100_000_000_000L + sku(i + p));
+                    json.writeNumberField("count", 1 + p);
+                    json.writeArrayFieldStart("prices");
+                    writeYandexPrice(json, "BUYER", price, 1 + p);
+                    writeYandexPrice(json, "CASHBACK", money(random, 0, 100), 1 + p);
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeObjectFieldStart("delivery");
+                json.writeObjectFieldStart("region");
+                json.writeNumberField("id", 213);
+                json.writeStringField("name", REGIONS.get(i % REGIONS.size()));
+                json.writeEndObject();
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeObjectFieldStart("paging");
+            json.writeStringField("nextPageToken", "");
+            json.writeEndObject();
+            json.writeEndObject();
+        });
+    }
+
+    /**
+     * WB statistics {@code /api/v1/supplier/sales} page: a root array of sales.
+     */
+    public static byte[] wbSales(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        return write(json -> {
+            json.writeStartArray();
+            for (int i = 0; i < rows; i++) {
+                BigDecimal price = money(random, 300, 9000);
+                json.writeStartObject();
+                json.writeStringField("saleID", "S" + (9_000_000_000L + i));
+                json.writeStringField("srid", "d." + Long.toHexString(random.nextLong()));
+                json.writeStringField("gNumber", Long.toString(random.nextLong() & Long.MAX_VALUE));
+                json.writeNumberField("nmId", 100_000_000L + sku(i));
+                json.writeStringField("supplierArticle", "ART-" + sku(i));
+                json.writeStringField("barcode", "46" + (10_000_000_000L + sku(i)));
+                json.writeNumberField("totalPrice", price);
+                json.writeNumberField("discountPercent", 25);
+                json.writeNumberField("priceWithDisc", price.multiply(new BigDecimal("0.75")));
+                json.writeNumberField("spp", new BigDecimal("20"));
+                json.writeNumberField("forPay", price.multiply(new BigDecimal("0.6")));
+                json.writeNumberField("finishedPrice", price.multiply(new BigDecimal("0.6")));
+                json.writeStringField("date", day(i) + "T" + two(i % 24) + ":" + two(i % 60) + ":00");
+                json.writeStringField("lastChangeDate", day(i) + "T23:59:59");
+                json.writeStringField("regionName", REGIONS.get(i % REGIONS.size()));
+                json.writeStringField("warehouseName", "Коледино");
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        });
+    }
+
+    /**
+     * Binds the records of a page (the first JSON array in it) the way
+     * {@code RawPageReader#readBatched} does, for benchmarks that start after decoding.
+     */
+    public static <T> List<T> records(byte[] page, Class<T> recordType) {
+        try (JsonParser parser = JSON.createParser(page)) {
+            while (parser.nextToken() != JsonToken.START_ARRAY) {
+                if (parser.currentToken() == null) {
+                    throw new IllegalArgumentException("No JSON array in page");
+                }
+            }
+            List<T> records = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                records.add(MAPPER.readValue(parser, recordType));
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] gzip(byte[] page) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(page.length / 8);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024)) {
+            gzip.write(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeYandexPrice(JsonGenerator json, String type, BigDecimal costPerItem,
+                                         int count) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", type);
+        json.writeNumberField("costPerItem", costPerItem);
+        json.writeNumberField("total", costPerItem.multiply(BigDecimal.valueOf(count)));
+        json.writeEndObject();
+    }
+
+    private static LocalDate day(int i) {
+        return PERIOD_START.plusDays(i % 365);
+    }
+
+    private static int sku(int i) {
+        return i % SKU_COUNT;
+    }
+
+    private static String postingNumber(int i) {
+        return (10_000_000 + i / 3) + "-" + (1000 + i % 1000) + "-" + (1 + i % 3);
+    }
+
+    private static String two(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+
+    private static BigDecimal money(SplittableRandom random, int minRubles, int maxRubles) {
+        return BigDecimal.valueOf(random.nextLong(minRubles * 100L, maxRubles * 100L + 1), 2);
+    }
+
+    private static byte[] write(JsonWriter writer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = JSON.createGenerator(out)) {
+            writer.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+
+        void write(JsonGenerator json) throws IOException;
+    }
+}
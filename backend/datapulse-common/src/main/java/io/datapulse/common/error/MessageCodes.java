@@ -78,6 +78,7 @@ public final class MessageCodes {
     public static final String JOB_NOT_FOUND = "job.not.found";
     public static final String JOB_NOT_RETRYABLE = "job.not.retryable";
     public static final String JOB_ACTIVE_EXISTS = "job.active.exists";
+    public static final String JOB_REPLAY_INVALID_RANGE = "job.replay.invalid_range";
     public static final String COST_PROFILE_NOT_FOUND = "cost.profile.not_found";
     public static final String COST_PROFILE_INVALID = "cost.profile.invalid";
     public static final String COST_PROFILE_BULK_TOO_LARGE = "cost.profile.bulk.too.large";
@@ -2,14 +2,13 @@ package io.datapulse.etl.adapter.ozon;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import io.datapulse.etl.adapter.util.OffsetPagedCapture;
 import io.datapulse.etl.domain.CaptureContext;
-import io.datapulse.etl.domain.CaptureContextFactory;
 import io.datapulse.etl.domain.CaptureResult;
+import io.datapulse.etl.domain.DateWindowResume;
 import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -29,28 +28,21 @@ public class OzonFboOrdersReadAdapter {
 
   private final OzonApiCaller apiCaller;
   private final OffsetPagedCapture offsetPagedCapture;
+  private final OzonWindowedCapture windowedCapture;
 
+  /**
+   * @param resume per-window resume state; windows finished by the failed attempt are skipped
+   */
   public List<CaptureResult> captureAllPages(CaptureContext context,
       String clientId, String apiKey,
       OffsetDateTime since, OffsetDateTime to,
-      long startOffset) {
+      DateWindowResume resume) {
     List<OzonDateWindows.Window> windows = OzonDateWindows.split(since, to, MAX_WINDOW_DAYS);
 
-    if (windows.size() == 1) {
-      return captureSingleWindow(context, clientId, apiKey,
-          windows.get(0), startOffset, 1, 1);
-    }
-
-    List<CaptureResult> allResults = new ArrayList<>();
-    for (int i = 0; i < windows.size(); i++) {
-      long windowOffset = i == 0 ? startOffset : 0L;
-      CaptureContext windowCtx = i == 0
-          ? context
-          : CaptureContextFactory.withNewRequestId(context);
-      allResults.addAll(captureSingleWindow(windowCtx, clientId, apiKey,
-          windows.get(i), windowOffset, i + 1, windows.size()));
-    }
-    return allResults;
+    return windowedCapture.captureAll(context, windows, resume, "0",
+        (windowCtx, window, startPosition, windowIndex, windowCount) -> captureSingleWindow(
+            windowCtx, clientId, apiKey, window, OzonOffsetPaging.startOffset(startPosition),
+            windowIndex + 1, windowCount));
   }
 
   private List<CaptureResult> captureSingleWindow(CaptureContext context,
@@ -1,16 +1,13 @@
 package io.datapulse.etl.adapter.ozon;
 
-import java.math.BigDecimal;
-import java.time.OffsetDateTime;
 import java.util.regex.Pattern;
 
 import io.datapulse.etl.adapter.ozon.dto.OzonFinancePosting;
 import io.datapulse.etl.adapter.ozon.dto.OzonFinanceTransaction;
 import io.datapulse.etl.adapter.util.OzonTimestampParser;
 import io.datapulse.etl.domain.FinanceEntryType;
-import io.datapulse.etl.domain.FinanceEntryType.MeasureColumn;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
 import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 /**
@@ -22,9 +19,9 @@ import org.springframework.stereotype.Service;
  *
  * <p>For breakdown operations (SALE_ACCRUAL, RETURN_REVERSAL, STORNO_CORRECTION):
  * accruals_for_sale + sale_commission + services[] are decomposed into measure columns.
- * For standalone operations: {@code amount} routes to the primary measure column.</p>
+ * For standalone operations: {@code amount} routes to the primary measure column.
+ * The routing lives in {@link OzonFinanceRules}, shared with the token-stream path.</p>
  */
-@Slf4j
 @Service
 public class OzonFinanceNormalizer {
 
@@ -35,127 +32,37 @@ public class OzonFinanceNormalizer {
     private static final Pattern POSTING_FORMAT = Pattern.compile("^\\d+-\\d+-\\d+$");
 
     public NormalizedFinanceItem normalizeFinanceTransaction(OzonFinanceTransaction tx) {
-        FinanceEntryType entryType = FinanceEntryType.fromOzonOperationType(tx.operationType());
-        if (entryType == FinanceEntryType.OTHER && tx.operationType() != null) {
-            log.warn("Unmapped Ozon finance operation_type: type={}, operationId={}",
-                    tx.operationType(), tx.operationId());
-        }
-
-        OffsetDateTime entryDate = OzonTimestampParser.parseFinanceTimestamp(tx.operationDate());
-
-        String rawPosting = tx.posting() != null ? tx.posting().postingNumber() : null;
-        String warehouseExternalId = tx.posting() != null && tx.posting().warehouseId() != 0
-                ? String.valueOf(tx.posting().warehouseId())
-                : null;
-
-        PostingResolution resolved = resolvePostingAndOrder(rawPosting);
-
-        String marketplaceSku = null;
-        if (tx.items() != null && !tx.items().isEmpty()) {
-            marketplaceSku = String.valueOf(tx.items().get(0).sku());
-        }
-
-        String fulfillmentType = resolveOzonFulfillment(tx.posting());
-
-        MeasureAccumulator measures = entryType.hasOzonBreakdown()
-                ? buildBreakdownMeasures(entryType, tx)
-                : buildStandaloneMeasures(entryType, safe(tx.amount()));
-
-        return new NormalizedFinanceItem(
-                String.valueOf(tx.operationId()),
-                entryType,
-                resolved.postingId,
-                resolved.orderId,
-                null,
-                marketplaceSku,
-                warehouseExternalId,
-                fulfillmentType,
-                measures.revenue,
-                measures.marketplaceCommission,
-                measures.acquiring,
-                measures.logistics,
-                measures.storage,
-                measures.penalties,
-                measures.acceptance,
-                measures.marketing,
-                measures.other,
-                measures.compensation,
-                measures.refund,
-                safe(tx.amount()),
-                "RUB",
-                entryDate
-        );
-    }
-
-    /**
-     * Breakdown operations have accruals_for_sale, sale_commission and services[] populated.
-     * Route accruals to revenue or refund depending on entry_type, commission to marketplace_commission,
-     * and classify each service into the correct measure column.
-     */
-    private MeasureAccumulator buildBreakdownMeasures(FinanceEntryType entryType,
-                                                      OzonFinanceTransaction tx) {
-        var m = new MeasureAccumulator();
-        BigDecimal accruals = safe(tx.accrualsForSale());
-        BigDecimal commission = safe(tx.saleCommission());
-
-        switch (entryType) {
-            case SALE_ACCRUAL -> {
-                m.revenue = accruals;
-                m.marketplaceCommission = commission;
-            }
-            case RETURN_REVERSAL -> {
-                m.refund = accruals;
-                m.marketplaceCommission = commission;
-            }
-            case STORNO_CORRECTION -> {
-                m.refund = accruals;
-                m.marketplaceCommission = commission;
-            }
-            default -> m.revenue = accruals;
-        }
+        FinanceEntryType entryType =
+                OzonFinanceRules.entryType(tx.operationType(), tx.operationId());
 
+        FinanceRowBuffer row = new FinanceRowBuffer();
+        row.reset();
         if (tx.services() != null) {
             for (var service : tx.services()) {
-                BigDecimal price = safe(service.price());
-                addToMeasure(m, OzonServiceClassifier.classify(service.name()), price);
+                OzonFinanceRules.addService(row, service.name(), service.price());
             }
         }
-        return m;
-    }
+        OzonFinanceRules.applyOperation(row, entryType,
+                tx.accrualsForSale(), tx.saleCommission(), tx.amount());
 
-    /**
-     * Standalone operations (ACQUIRING, STORAGE, penalties, marketing, etc.)
-     * have no breakdown — route the full {@code amount} to the primary measure column.
-     */
-    private MeasureAccumulator buildStandaloneMeasures(FinanceEntryType entryType,
-                                                       BigDecimal amount) {
-        var m = new MeasureAccumulator();
-        addToMeasure(m, entryType.primaryMeasure(), amount);
-        return m;
-    }
+        OzonFinancePosting posting = tx.posting();
+        OzonFinanceRules.applyPosting(row,
+                posting != null ? posting.postingNumber() : null,
+                posting != null ? posting.warehouseId() : 0,
+                posting != null ? posting.deliverySchema() : null);
 
-    private static void addToMeasure(MeasureAccumulator m, MeasureColumn column, BigDecimal value) {
-        switch (column) {
-            case REVENUE -> m.revenue = m.revenue.add(value);
-            case REFUND -> m.refund = m.refund.add(value);
-            case MARKETPLACE_COMMISSION -> m.marketplaceCommission = m.marketplaceCommission.add(value);
-            case ACQUIRING -> m.acquiring = m.acquiring.add(value);
-            case LOGISTICS -> m.logistics = m.logistics.add(value);
-            case STORAGE -> m.storage = m.storage.add(value);
-            case PENALTIES -> m.penalties = m.penalties.add(value);
-            case ACCEPTANCE -> m.acceptance = m.acceptance.add(value);
-            case MARKETING -> m.marketing = m.marketing.add(value);
-            case COMPENSATION -> m.compensation = m.compensation.add(value);
-            case OTHER -> m.other = m.other.add(value);
+        String marketplaceSku = null;
+        if (tx.items() != null && !tx.items().isEmpty()) {
+            marketplaceSku = String.valueOf(tx.items().get(0).sku());
         }
-    }
 
-    private static String resolveOzonFulfillment(OzonFinancePosting posting) {
-        if (posting == null || posting.deliverySchema() == null
-                || posting.deliverySchema().isBlank()) {
-            return null;
-        }
-        return posting.deliverySchema().toUpperCase();
+        return row.externalEntryId(String.valueOf(tx.operationId()))
+                .entryType(entryType)
+                .providerEntryType(tx.operationType())
+                .marketplaceSku(marketplaceSku)
+                .currency("RUB")
+                .entryDate(OzonTimestampParser.parseFinanceTimestamp(tx.operationDate()))
+                .toItem();
     }
 
     /**
@@ -166,7 +73,7 @@ public class OzonFinanceNormalizer {
      *   <li>Standalone (empty or non-posting format like campaign IDs): both NULL</li>
      * </ul>
      */
-    private static PostingResolution resolvePostingAndOrder(String rawPosting) {
+    static PostingResolution resolvePostingAndOrder(String rawPosting) {
         if (rawPosting == null || rawPosting.isBlank()) {
             return new PostingResolution(null, null);
         }
@@ -180,24 +87,6 @@ public class OzonFinanceNormalizer {
         return new PostingResolution(null, null);
     }
 
-    private static BigDecimal safe(BigDecimal value) {
-        return value != null ? value : BigDecimal.ZERO;
-    }
-
-    private record PostingResolution(String postingId, String orderId) {
-    }
-
-    private static class MeasureAccumulator {
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal refund = BigDecimal.ZERO;
-        BigDecimal marketplaceCommission = BigDecimal.ZERO;
-        BigDecimal acquiring = BigDecimal.ZERO;
-        BigDecimal logistics = BigDecimal.ZERO;
-        BigDecimal storage = BigDecimal.ZERO;
-        BigDecimal penalties = BigDecimal.ZERO;
-        BigDecimal acceptance = BigDecimal.ZERO;
-        BigDecimal marketing = BigDecimal.ZERO;
-        BigDecimal other = BigDecimal.ZERO;
-        BigDecimal compensation = BigDecimal.ZERO;
+    record PostingResolution(String postingId, String orderId) {
     }
 }
@@ -8,8 +8,8 @@ import java.util.Map;
 
 import io.datapulse.etl.adapter.util.StreamingPageCapture;
 import io.datapulse.etl.domain.CaptureContext;
-import io.datapulse.etl.domain.CaptureContextFactory;
 import io.datapulse.etl.domain.CaptureResult;
+import io.datapulse.etl.domain.DateWindowResume;
 import io.datapulse.etl.domain.PageCaptureResult;
 import io.datapulse.etl.domain.cursor.JsonPathCursorExtractor;
 import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
@@ -22,7 +22,8 @@ import reactor.core.publisher.Flux;
 /**
  * Ozon Finance adapter with automatic date-window splitting.
  * The {@code /v3/finance/transaction/list} endpoint rejects date ranges exceeding 1 month,
- * so we split into 28-day windows.
+ * so we split into 28-day windows, captured concurrently by {@link OzonWindowedCapture}.
+ * Page numbers in S3 keys follow the API {@code page}, so a resumed window reuses its keys.
  */
 @Slf4j
 @Service
@@ -32,38 +33,29 @@ public class OzonFinanceReadAdapter {
   private static final String FINANCE_PATH = "/v3/finance/transaction/list";
   private static final int PAGE_SIZE = 1000;
   private static final int MAX_WINDOW_DAYS = 28;
+  private static final int FIRST_PAGE = 1;
 
   private static final JsonPathCursorExtractor PAGE_COUNT_EXTRACTOR =
       new JsonPathCursorExtractor("result.page_count");
 
   private final OzonApiCaller apiCaller;
   private final StreamingPageCapture pageCapture;
+  private final OzonWindowedCapture windowedCapture;
 
+  /**
+   * @param resume per-window resume state; windows finished by the failed attempt are skipped
+   */
   public List<CaptureResult> captureAllPages(CaptureContext context,
       String clientId, String apiKey,
       OffsetDateTime dateFrom, OffsetDateTime dateTo,
-      int startPageInclusive) {
+      DateWindowResume resume) {
     List<OzonDateWindows.Window> windows =
         OzonDateWindows.split(dateFrom, dateTo, MAX_WINDOW_DAYS);
 
-    if (windows.size() == 1) {
-      return captureSingleWindow(context, clientId, apiKey,
-          windows.get(0), startPageInclusive, 1, 1);
-    }
-
-    List<CaptureResult> allResults = new ArrayList<>();
-    for (int i = 0; i < windows.size(); i++) {
-      int windowStartPage = i == 0 ? startPageInclusive : 1;
-      CaptureContext windowCtx = i == 0
-          ? context
-          : CaptureContextFactory.withNewRequestId(context);
-      allResults.addAll(captureSingleWindow(windowCtx, clientId, apiKey,
-          windows.get(i), windowStartPage, i + 1, windows.size()));
-    }
-
-    log.info("Ozon finance capture completed: connectionId={}, windows={}, totalPages={}",
-        context.connectionId(), windows.size(), allResults.size());
-    return allResults;
+    return windowedCapture.captureAll(context, windows, resume, String.valueOf(FIRST_PAGE),
+        (windowCtx, window, startPosition, windowIndex, windowCount) -> captureSingleWindow(
+            windowCtx, clientId, apiKey, window, startPage(startPosition),
+            windowIndex + 1, windowCount));
   }
 
   private List<CaptureResult> captureSingleWindow(CaptureContext context,
@@ -71,9 +63,8 @@ public class OzonFinanceReadAdapter {
       OzonDateWindows.Window window, int startPageInclusive,
       int windowIndex, int totalWindows) {
     List<CaptureResult> results = new ArrayList<>();
-    int page = Math.max(1, startPageInclusive);
+    int page = Math.max(FIRST_PAGE, startPageInclusive);
     int totalPages = Integer.MAX_VALUE;
-    int pageNumber = 0;
 
     while (page <= totalPages) {
       int currentPage = page;
@@ -94,7 +85,7 @@ public class OzonFinanceReadAdapter {
           clientId, apiKey);
 
       PageCaptureResult captured = pageCapture.capture(
-          body, context, pageNumber, PAGE_COUNT_EXTRACTOR, null,
+          body, context, currentPage - FIRST_PAGE, PAGE_COUNT_EXTRACTOR, null,
           String.valueOf(currentPage));
       results.add(captured.captureResult());
 
@@ -104,7 +95,6 @@ public class OzonFinanceReadAdapter {
       }
 
       page++;
-      pageNumber++;
       log.debug("Ozon finance page captured: connectionId={}, window={}/{}, "
               + "page={}/{}, byteSize={}",
           context.connectionId(), windowIndex, totalWindows,
@@ -115,4 +105,16 @@ public class OzonFinanceReadAdapter {
         windowIndex, totalWindows, context.connectionId(), results.size());
     return results;
   }
+
+  private static int startPage(String startPosition) {
+    if (startPosition == null || startPosition.isBlank()) {
+      return FIRST_PAGE;
+    }
+    try {
+      return Math.max(FIRST_PAGE, Integer.parseInt(startPosition.trim()));
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring invalid finance page resume: raw={}", startPosition);
+      return FIRST_PAGE;
+    }
+  }
 }
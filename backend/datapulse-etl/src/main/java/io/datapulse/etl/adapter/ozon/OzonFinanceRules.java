@@ -0,0 +1,82 @@
+package io.datapulse.etl.adapter.ozon;
+
+import java.math.BigDecimal;
+
+import io.datapulse.etl.domain.FinanceEntryType;
+import io.datapulse.etl.domain.FinanceEntryType.MeasureColumn;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DD-4 measure rules of an Ozon finance transaction, written into a {@link FinanceRowBuffer}.
+ * Shared by {@link OzonFinanceNormalizer#normalizeFinanceTransaction} (DTO path) and
+ * {@link OzonFinanceTokenReader} (token-stream path). Signs are kept as Ozon sends them.
+ */
+@Slf4j
+final class OzonFinanceRules {
+
+    private OzonFinanceRules() {
+    }
+
+    static FinanceEntryType entryType(String operationType, long operationId) {
+        FinanceEntryType entryType = FinanceEntryType.fromOzonOperationType(operationType);
+        if (entryType == FinanceEntryType.OTHER && operationType != null) {
+            log.warn("Unmapped Ozon finance operation_type: type={}, operationId={}",
+                    operationType, operationId);
+        }
+        return entryType;
+    }
+
+    /**
+     * Adds one {@code services[]} price to the measure column of its service name. The token
+     * path may see services before {@code operation_type}, so they are added unconditionally;
+     * {@link #applyOperation} discards them for standalone operations.
+     */
+    static void addService(FinanceRowBuffer row, String name, BigDecimal price) {
+        row.addTo(OzonServiceClassifier.classify(name), safe(price));
+    }
+
+    /**
+     * Breakdown operations (SALE_ACCRUAL, RETURN_REVERSAL, STORNO_CORRECTION): accruals go to
+     * revenue or refund, commission to marketplace_commission, on top of the services already
+     * added. Standalone operations: the full {@code amount} goes to the primary measure column
+     * and nothing else. Net payout is {@code amount} either way.
+     */
+    static void applyOperation(FinanceRowBuffer row, FinanceEntryType entryType,
+                               BigDecimal accruals, BigDecimal commission, BigDecimal amount) {
+        if (entryType.hasOzonBreakdown()) {
+            switch (entryType) {
+                case SALE_ACCRUAL -> row.addTo(MeasureColumn.REVENUE, safe(accruals))
+                        .addTo(MeasureColumn.MARKETPLACE_COMMISSION, safe(commission));
+                case RETURN_REVERSAL, STORNO_CORRECTION ->
+                        row.addTo(MeasureColumn.REFUND, safe(accruals))
+                                .addTo(MeasureColumn.MARKETPLACE_COMMISSION, safe(commission));
+                default -> row.addTo(MeasureColumn.REVENUE, safe(accruals));
+            }
+        } else {
+            row.clearMeasures();
+            row.addTo(entryType.primaryMeasure(), safe(amount));
+        }
+        row.netPayout(safe(amount));
+    }
+
+    /**
+     * Posting and order ids, warehouse and fulfillment scheme of the transaction's
+     * {@code posting} object; all {@code null} without one.
+     */
+    static void applyPosting(FinanceRowBuffer row, String postingNumber, long warehouseId,
+                             String deliverySchema) {
+        OzonFinanceNormalizer.PostingResolution resolved =
+                OzonFinanceNormalizer.resolvePostingAndOrder(postingNumber);
+        row.postingId(resolved.postingId())
+                .orderId(resolved.orderId())
+                .warehouseExternalId(warehouseId != 0 ? String.valueOf(warehouseId) : null)
+                .fulfillmentType(deliverySchema != null && !deliverySchema.isBlank()
+                        ? deliverySchema.toUpperCase()
+                        : null);
+    }
+
+    private static BigDecimal safe(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,160 @@
+package io.datapulse.etl.adapter.ozon;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.datapulse.etl.adapter.util.JsonTokenValues;
+import io.datapulse.etl.adapter.util.OzonTimestampParser;
+import io.datapulse.etl.domain.FinanceEntryType;
+import io.datapulse.etl.domain.RecordTokenReader;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token-stream equivalent of {@link OzonFinanceNormalizer#normalizeFinanceTransaction}: reads a
+ * finance transaction into a {@link FinanceRowBuffer} without binding
+ * {@link io.datapulse.etl.adapter.ozon.dto.OzonFinanceTransaction} and its posting, items and
+ * services lists.
+ *
+ * <p>{@code services[]} may precede {@code operation_type} in the payload, so service prices are
+ * summed into the buffer's measure columns as they stream by; for standalone operations those
+ * sums are discarded and {@code amount} goes to the primary measure. Both paths route measures
+ * through {@link OzonFinanceRules}; {@code OzonFinanceTokenReaderTest} checks they produce
+ * identical rows.</p>
+ */
+@Component
+public class OzonFinanceTokenReader implements RecordTokenReader<FinanceRowBuffer> {
+
+    @Override
+    public FinanceRowBuffer newBuffer() {
+        return new FinanceRowBuffer();
+    }
+
+    @Override
+    public void read(JsonParser parser, FinanceRowBuffer row) throws IOException {
+        row.reset();
+        long operationId = 0;
+        String operationDate = null;
+        BigDecimal accruals = null;
+        BigDecimal commission = null;
+        BigDecimal amount = null;
+        PostingFields posting = null;
+        String firstSku = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "operation_id" -> operationId = JsonTokenValues.longValue(parser);
+                case "operation_type" -> row.providerEntryType(JsonTokenValues.text(parser));
+                case "operation_date" -> operationDate = JsonTokenValues.text(parser);
+                case "accruals_for_sale" -> accruals = JsonTokenValues.decimal(parser);
+                case "sale_commission" -> commission = JsonTokenValues.decimal(parser);
+                case "amount" -> amount = JsonTokenValues.decimal(parser);
+                case "posting" -> posting = readPosting(parser);
+                case "items" -> firstSku = readFirstSku(parser);
+                case "services" -> readServices(parser, row);
+                default -> parser.skipChildren();
+            }
+        }
+
+        FinanceEntryType entryType =
+                OzonFinanceRules.entryType(row.providerEntryType(), operationId);
+        OzonFinanceRules.applyOperation(row, entryType, accruals, commission, amount);
+        if (posting != null) {
+            OzonFinanceRules.applyPosting(row,
+                    posting.postingNumber, posting.warehouseId, posting.deliverySchema);
+        } else {
+            OzonFinanceRules.applyPosting(row, null, 0, null);
+        }
+
+        row.externalEntryId(String.valueOf(operationId))
+                .entryType(entryType)
+                .marketplaceSku(firstSku)
+                .currency("RUB")
+                .entryDate(OzonTimestampParser.parseFinanceTimestamp(operationDate));
+    }
+
+    private static PostingFields readPosting(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        var posting = new PostingFields();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "posting_number" -> posting.postingNumber = JsonTokenValues.text(parser);
+                case "delivery_schema" -> posting.deliverySchema = JsonTokenValues.text(parser);
+                case "warehouse_id" -> posting.warehouseId = JsonTokenValues.longValue(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return posting;
+    }
+
+    /**
+     * Returns {@code items[0].sku} as the DTO path does; the remaining items are skipped.
+     */
+    private static String readFirstSku(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String firstSku = null;
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (!first || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            first = false;
+            long sku = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("sku".equals(field)) {
+                    sku = JsonTokenValues.longValue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            firstSku = String.valueOf(sku);
+        }
+        return firstSku;
+    }
+
+    private static void readServices(JsonParser parser, FinanceRowBuffer row) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String name = null;
+            BigDecimal price = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name" -> name = JsonTokenValues.text(parser);
+                    case "price" -> price = JsonTokenValues.decimal(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            OzonFinanceRules.addService(row, name, price);
+        }
+    }
+
+    private static final class PostingFields {
+        private String postingNumber;
+        private String deliverySchema;
+        private long warehouseId;
+    }
+}
@@ -13,4 +13,18 @@ public final class OzonOffsetPaging {
   public static final int SMALL_PAGE_THRESHOLD_BYTES = 200;
 
   private OzonOffsetPaging() {}
+
+  /**
+   * Window resume position as a list {@code offset}. Invalid or missing → 0.
+   */
+  public static long startOffset(String position) {
+    if (position == null || position.isBlank()) {
+      return 0L;
+    }
+    try {
+      return Math.max(0L, Long.parseLong(position.trim()));
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
 }
@@ -0,0 +1,251 @@
+package io.datapulse.etl.adapter.ozon;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.datapulse.etl.config.CaptureWindowProperties;
+import io.datapulse.etl.domain.CaptureContext;
+import io.datapulse.etl.domain.CaptureContextFactory;
+import io.datapulse.etl.domain.CaptureResult;
+import io.datapulse.etl.domain.DateWindowResume;
+import io.datapulse.etl.domain.ResumableCaptureException;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Captures the date windows of an {@link OzonDateWindows} split concurrently
+ * ({@code datapulse.etl.capture-windows.concurrency}). The calling thread works through windows
+ * itself; up to {@code concurrency - 1} more workers run on {@code etlWindowExecutor}. All
+ * requests still pass the connection's {@code MarketplaceRateLimiter}, so concurrency only
+ * spends budget a sequential walk leaves unused.
+ *
+ * <p>Each window captures under {@link CaptureContextFactory#forWindow}, so its S3 keys depend
+ * only on the capture's request id, window index and page number — never on scheduling order.
+ * Page resume keys are rewritten to {@link DateWindowResume} tokens, which lets
+ * {@code SubSourceRunner} keep the first failed page of every window.</p>
+ *
+ * <p>A failing window does not stop the others. Once all windows ended, failures surface as one
+ * {@link ResumableCaptureException} whose token restarts each failed window from its last
+ * captured page and skips windows that completed.</p>
+ */
+@Slf4j
+@Service
+public class OzonWindowedCapture {
+
+  private final Executor windowExecutor;
+  private final CaptureWindowProperties properties;
+  private final MetricsFacade metrics;
+
+  public OzonWindowedCapture(@Qualifier("etlWindowExecutor") Executor windowExecutor,
+                             CaptureWindowProperties properties,
+                             MetricsFacade metrics) {
+    this.windowExecutor = windowExecutor;
+    this.properties = properties;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Captures one window; {@code startPosition} is the adapter's resume value for the window
+   * ({@code null} = from the beginning).
+   */
+  @FunctionalInterface
+  public interface WindowCapture {
+
+    List<CaptureResult> capture(CaptureContext windowContext, OzonDateWindows.Window window,
+                                String startPosition, int windowIndex, int windowCount);
+  }
+
+  /**
+   * @param initialPosition adapter's first-page position (finance {@code "1"}, offset
+   *                        {@code "0"}), used when a window fails before capturing any page
+   * @return captured pages in window order
+   */
+  public List<CaptureResult> captureAll(CaptureContext context,
+                                        List<OzonDateWindows.Window> windows,
+                                        DateWindowResume resume,
+                                        String initialPosition,
+                                        WindowCapture capture) {
+    int windowCount = windows.size();
+    if (windowCount == 1) {
+      return capture.capture(context, windows.get(0), resume.startFor(0), 0, 1);
+    }
+
+    List<WindowRun> runs = new ArrayList<>();
+    for (int i = 0; i < windowCount; i++) {
+      if (resume.skips(i)) {
+        log.info("Window completed in previous attempt, skipped: sourceId={}, window={}/{}",
+            context.sourceId(), i + 1, windowCount);
+        metrics.incrementCounter("etl.capture.window.skipped", "source_id", context.sourceId());
+        continue;
+      }
+      runs.add(new WindowRun(context, windows.get(i), i, windowCount, resume.startFor(i)));
+    }
+
+    runConcurrently(runs, capture);
+
+    List<CaptureResult> pages = new ArrayList<>();
+    List<WindowRun> failed = new ArrayList<>();
+    for (WindowRun run : runs) {
+      pages.addAll(run.pages);
+      if (run.failure != null) {
+        failed.add(run);
+      }
+    }
+
+    log.info("Windowed capture completed: sourceId={}, connectionId={}, windows={}, "
+            + "captured={}, skipped={}, failed={}, pages={}",
+        context.sourceId(), context.connectionId(), windowCount, runs.size() - failed.size(),
+        windowCount - runs.size(), failed.size(), pages.size());
+
+    if (!failed.isEmpty()) {
+      throw resumableFailure(context, failed, initialPosition, pages);
+    }
+    return pages;
+  }
+
+  private void runConcurrently(List<WindowRun> runs, WindowCapture capture) {
+    AtomicInteger next = new AtomicInteger();
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+    Runnable worker = () -> {
+      for (int i = next.getAndIncrement(); i < runs.size(); i = next.getAndIncrement()) {
+        runs.get(i).run(capture);
+      }
+    };
+
+    int extraWorkers = Math.min(Math.max(1, properties.concurrency()), runs.size()) - 1;
+    List<CompletableFuture<Void>> workers = new ArrayList<>(extraWorkers);
+    for (int w = 0; w < extraWorkers; w++) {
+      try {
+        workers.add(CompletableFuture.runAsync(withMdc(worker, mdc), windowExecutor));
+      } catch (RejectedExecutionException e) {
+        log.debug("Window executor saturated, capturing with {} workers", w + 1);
+        break;
+      }
+    }
+
+    worker.run();
+    try {
+      CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      throw new IllegalStateException("Window capture worker failed", e.getCause());
+    }
+  }
+
+  private ResumableCaptureException resumableFailure(CaptureContext context,
+                                                     List<WindowRun> failed,
+                                                     String initialPosition,
+                                                     List<CaptureResult> pages) {
+    String token = null;
+    for (WindowRun run : failed) {
+      token = DateWindowResume.merge(token, DateWindowResume.scopedToken(
+          run.index, run.windowCount, run.resumePosition(initialPosition)));
+    }
+    WindowRun first = failed.get(0);
+    return new ResumableCaptureException(
+        "Capture failed in %d of %d windows: sourceId=%s, first=%d/%d, error=%s".formatted(
+            failed.size(), first.windowCount, context.sourceId(), first.index + 1,
+            first.windowCount, first.failure.getMessage()),
+        first.failure, pages, token);
+  }
+
+  private static Runnable withMdc(Runnable task, Map<String, String> mdc) {
+    return () -> {
+      if (mdc != null) {
+        MDC.setContextMap(mdc);
+      }
+      try {
+        task.run();
+      } finally {
+        MDC.clear();
+      }
+    };
+  }
+
+  /**
+   * Position a page was requested with: finance {@code page} or list {@code offset}.
+   */
+  private static String positionOf(CaptureResult page) {
+    if (page.listResumeKey() != null && !page.listResumeKey().isBlank()) {
+      return page.listResumeKey().trim();
+    }
+    return page.listRequestOffset() != null ? String.valueOf(page.listRequestOffset()) : null;
+  }
+
+  /**
+   * One window's capture state. {@link #pages} is filled through the page listener, so pages
+   * captured before a failure are known even though the adapter call threw.
+   */
+  private final class WindowRun {
+
+    private final CaptureContext context;
+    private final OzonDateWindows.Window window;
+    private final int index;
+    private final int windowCount;
+    private final String startPosition;
+    private final List<CaptureResult> pages = Collections.synchronizedList(new ArrayList<>());
+    private volatile String lastPosition;
+    private RuntimeException failure;
+
+    private WindowRun(CaptureContext parent, OzonDateWindows.Window window, int index,
+                      int windowCount, String startPosition) {
+      CaptureContext windowContext = CaptureContextFactory.forWindow(parent, index);
+      this.context = windowContext.withPageListener(page -> {
+        lastPosition = positionOf(page);
+        CaptureResult scoped = scope(page);
+        pages.add(scoped);
+        parent.pageListener().onPageCaptured(scoped);
+      });
+      this.window = window;
+      this.index = index;
+      this.windowCount = windowCount;
+      this.startPosition = startPosition;
+    }
+
+    private void run(WindowCapture capture) {
+      Timer.Sample sample = metrics.startTimer();
+      String outcome = "success";
+      try {
+        capture.capture(context, window, startPosition, index, windowCount);
+      } catch (RuntimeException e) {
+        outcome = "failure";
+        failure = e;
+        log.warn("Window capture failed: sourceId={}, window={}/{}, pages={}, error={}",
+            context.sourceId(), index + 1, windowCount, pages.size(), e.getMessage());
+      } finally {
+        metrics.stopTimer(sample, "etl.capture.window.duration",
+            "source_id", context.sourceId(), "outcome", outcome);
+      }
+    }
+
+    private CaptureResult scope(CaptureResult page) {
+      String position = lastPosition;
+      if (position == null) {
+        return page;
+      }
+      return new CaptureResult(page.jobItemId(), page.s3Key(), page.contentSha256(),
+          page.byteSize(), null, DateWindowResume.scopedToken(index, windowCount, position));
+    }
+
+    /**
+     * Restart from the last captured page (re-capturing it is harmless, UPSERTs are idempotent),
+     * else from where this attempt started.
+     */
+    private String resumePosition(String initialPosition) {
+      if (lastPosition != null) {
+        return lastPosition;
+      }
+      return startPosition != null ? startPosition : initialPosition;
+    }
+  }
+}
@@ -11,6 +11,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+/**
+ * Presigned GET links to raw pages. Compressed pages are stored with
+ * {@code Content-Encoding: gzip} and {@code Content-Type: application/json}, which S3 returns on
+ * the presigned GET, so browsers and HTTP clients decompress transparently; legacy uncompressed
+ * objects are served as before.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
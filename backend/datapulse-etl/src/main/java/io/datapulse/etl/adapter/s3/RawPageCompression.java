@@ -0,0 +1,31 @@
+package io.datapulse.etl.adapter.s3;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+
+/**
+ * Storage encoding of raw pages in the raw bucket. Objects keep their {@code .json} key and
+ * {@code application/json} content type; compressed objects carry {@code Content-Encoding: gzip}.
+ *
+ * <p>Readers must not rely on configuration or metadata: {@link #isGzip} sniffs the gzip magic
+ * bytes, so objects written before compression was enabled stay readable.</p>
+ */
+public enum RawPageCompression {
+
+    NONE,
+    GZIP;
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    /**
+     * Peeks at the first two bytes without consuming them.
+     */
+    public static boolean isGzip(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        return first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2;
+    }
+}
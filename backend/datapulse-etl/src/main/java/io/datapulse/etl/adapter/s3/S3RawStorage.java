@@ -11,13 +11,17 @@ import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HexFormat;
+import java.util.Map;
 
 import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.etl.config.RetentionProperties;
 import io.datapulse.etl.config.S3Properties;
 import io.datapulse.etl.domain.CaptureContext;
 import io.datapulse.etl.domain.CaptureRequest;
 import io.datapulse.etl.domain.CaptureResult;
-import io.datapulse.etl.persistence.JobItemRepository;
+import io.datapulse.etl.domain.RetentionService;
+import io.datapulse.etl.adapter.util.TempFileWriteResult;
+import io.datapulse.etl.persistence.JobItemWriteBuffer;
 import io.datapulse.etl.persistence.JobItemRow;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
@@ -35,7 +39,8 @@ public class S3RawStorage {
     private final MinioClient minioClient;
     private final S3Properties s3Properties;
     private final EtlProperties etlProperties;
-    private final JobItemRepository jobItemRepository;
+    private final RetentionProperties retentionProperties;
+    private final JobItemWriteBuffer jobItemBuffer;
 
     /**
      * Accepts an already-written temp file (from {@link io.datapulse.etl.adapter.util.StreamingResponseWriter}).
@@ -58,30 +63,72 @@ public class S3RawStorage {
                                          CaptureContext context, int pageNumber,
                                          Long listRequestOffset,
                                          String listResumeKey) {
-        try {
-            String s3Key = buildS3Key(
-                    context.connectionId(), context.etlEvent().name(),
-                    context.sourceId(), context.requestId(), pageNumber
-            );
-
-            uploadToS3(s3Key, existingTempFile, byteSize);
+        return captureFromFile(new TempFileWriteResult(existingTempFile, sha256, byteSize),
+                context, pageNumber, listRequestOffset, listResumeKey);
+    }
 
-            long jobItemId = insertJobItemFromContext(context, s3Key, sha256, byteSize, pageNumber);
+    /**
+     * Uploads the gzip copy when {@link TempFileWriteResult#compressedPath()} is present, otherwise
+     * the plain file. job_item keeps the plain {@code byte_size} and {@code content_sha256}.
+     */
+    public CaptureResult captureFromFile(TempFileWriteResult writeResult,
+                                         CaptureContext context, int pageNumber,
+                                         Long listRequestOffset,
+                                         String listResumeKey) {
+        Path existingTempFile = writeResult.path();
+        String sha256 = writeResult.sha256();
+        long byteSize = writeResult.byteSize();
+        try {
+            String s3Key = buildS3Key(context, pageNumber);
 
-            log.info("Raw page captured: s3Key={}, byteSize={}, sha256={}",
-                    s3Key, byteSize, sha256);
+            if (writeResult.compressedPath() != null) {
+                uploadToS3(s3Key, writeResult.compressedPath(), writeResult.compressedSize(),
+                        RawPageCompression.GZIP);
+            } else {
+                uploadToS3(s3Key, existingTempFile, byteSize, RawPageCompression.NONE);
+            }
 
-            return new CaptureResult(jobItemId, s3Key, sha256, byteSize, listRequestOffset,
-                    listResumeKey);
+            return registerPage(context, s3Key, sha256, byteSize, pageNumber,
+                    listRequestOffset, listResumeKey);
         } catch (Exception e) {
             throw new IllegalStateException(
                     "Failed to capture from file: requestId=%s, page=%d"
                             .formatted(context.requestId(), pageNumber), e);
         } finally {
             deleteTempFileSilently(existingTempFile);
+            deleteTempFileSilently(writeResult.compressedPath());
         }
     }
 
+    /**
+     * Uploads a body of unknown length as multipart ({@code datapulse.etl.streaming-part-size}
+     * per part); used by {@link io.datapulse.etl.adapter.util.StreamingUploadWriter}.
+     */
+    public void uploadStream(String s3Key, InputStream stream,
+                             RawPageCompression compression) throws Exception {
+        putObject(s3Key, stream, -1L, etlProperties.streamingPartSize().toBytes(), compression);
+    }
+
+    /**
+     * Inserts job_item for a page already uploaded under {@code s3Key}.
+     */
+    public CaptureResult registerPage(CaptureContext context, String s3Key, String sha256,
+                                      long byteSize, int pageNumber,
+                                      Long listRequestOffset, String listResumeKey) {
+        long jobItemId = insertJobItemFromContext(context, s3Key, sha256, byteSize, pageNumber);
+
+        log.info("Raw page captured: s3Key={}, byteSize={}, sha256={}",
+                s3Key, byteSize, sha256);
+
+        return new CaptureResult(jobItemId, s3Key, sha256, byteSize, listRequestOffset,
+                listResumeKey);
+    }
+
+    public String buildS3Key(CaptureContext context, int pageNumber) {
+        return buildS3Key(context.connectionId(), context.etlEvent().name(),
+                context.sourceId(), context.requestId(), pageNumber);
+    }
+
     public CaptureResult capture(CaptureRequest request) {
         Path tempFile = null;
         try {
@@ -95,7 +142,7 @@ public class S3RawStorage {
                     request.sourceId(), request.requestId(), request.pageNumber()
             );
 
-            uploadToS3(s3Key, tempFile, byteSize);
+            uploadToS3(s3Key, tempFile, byteSize, RawPageCompression.NONE);
 
             long jobItemId = insertJobItem(request, s3Key, sha256, byteSize);
 
@@ -136,17 +183,38 @@ public class S3RawStorage {
         return HexFormat.of().formatHex(digest.digest());
     }
 
-    private void uploadToS3(String s3Key, Path tempFile, long byteSize) throws Exception {
+    private void uploadToS3(String s3Key, Path tempFile, long byteSize,
+                            RawPageCompression compression) throws Exception {
         try (InputStream fileStream = new BufferedInputStream(Files.newInputStream(tempFile), BUFFER_SIZE)) {
-            minioClient.putObject(PutObjectArgs.builder()
-                    .bucket(s3Properties.rawBucket())
-                    .object(s3Key)
-                    .stream(fileStream, byteSize, -1L)
-                    .contentType("application/json")
-                    .build());
+            putObject(s3Key, fileStream, byteSize, -1L, compression);
         }
     }
 
+    private void putObject(String s3Key, InputStream stream, long size, long partSize,
+                           RawPageCompression compression) throws Exception {
+        var args = PutObjectArgs.builder()
+                .bucket(s3Properties.rawBucket())
+                .object(s3Key)
+                .stream(stream, size, partSize)
+                .contentType("application/json");
+        if (compression == RawPageCompression.GZIP) {
+            args.headers(Map.of("Content-Encoding", "gzip"));
+        }
+        if (retentionProperties.lifecycleRules()) {
+            args.tags(Map.of(RetentionService.EVENT_TAG, eventOf(s3Key)));
+        }
+        minioClient.putObject(args.build());
+    }
+
+    /**
+     * Event segment of {@code raw/{connectionId}/{EVENT}/...}, matched by the bucket's
+     * lifecycle rules.
+     */
+    private static String eventOf(String s3Key) {
+        String[] parts = s3Key.split("/", 4);
+        return parts.length > 2 ? parts[2] : "";
+    }
+
     private long insertJobItem(CaptureRequest request, String s3Key, String sha256, long byteSize) {
         var row = JobItemRow.builder()
                 .jobExecutionId(request.jobExecutionId())
@@ -158,7 +226,7 @@ public class S3RawStorage {
                 .byteSize(byteSize)
                 .build();
 
-        return jobItemRepository.insert(row);
+        return jobItemBuffer.register(row);
     }
 
     private long insertJobItemFromContext(CaptureContext context, String s3Key,
@@ -173,7 +241,7 @@ public class S3RawStorage {
                 .byteSize(byteSize)
                 .build();
 
-        return jobItemRepository.insert(row);
+        return jobItemBuffer.register(row);
     }
 
     private String buildS3Key(long connectionId, String event, String sourceId,
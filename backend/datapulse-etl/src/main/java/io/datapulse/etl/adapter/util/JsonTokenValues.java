@@ -0,0 +1,74 @@
+package io.datapulse.etl.adapter.util;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Scalar reads for token-stream normalizers, coercing the way Jackson binds the provider DTOs:
+ * numeric strings are accepted for numbers, JSON null maps to {@code null} (or 0 for primitive
+ * DTO components), nested structures in scalar positions are skipped.
+ */
+public final class JsonTokenValues {
+
+    private JsonTokenValues() {
+    }
+
+    public static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+
+    public static BigDecimal decimal(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String value = parser.getText().trim();
+            return value.isEmpty() ? null : new BigDecimal(value);
+        }
+        if (token.isStructStart()) {
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    /**
+     * Primitive {@code long} DTO component: missing or null reads as 0.
+     */
+    public static long longValue(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return 0L;
+        }
+        return parser.getValueAsLong(0L);
+    }
+
+    public static Long boxedLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return longValue(parser);
+    }
+
+    public static Boolean bool(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            return token == JsonToken.VALUE_TRUE;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return Boolean.valueOf(parser.getText().trim());
+        }
+        if (token.isStructStart()) {
+            parser.skipChildren();
+        }
+        return null;
+    }
+}
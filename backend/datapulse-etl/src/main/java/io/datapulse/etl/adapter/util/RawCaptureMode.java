@@ -0,0 +1,18 @@
+package io.datapulse.etl.adapter.util;
+
+/**
+ * How {@link StreamingPageCapture} moves a response body to S3.
+ */
+public enum RawCaptureMode {
+
+    /**
+     * Body → temp file, cursor read back from the file, file uploaded. Three passes over disk.
+     */
+    TEMP_FILE,
+
+    /**
+     * Body teed into SHA-256, the cursor scanner and a multipart upload in one pass; disk is
+     * only used when the upload fails and the page is re-fetched via {@link #TEMP_FILE}.
+     */
+    STREAMING
+}
@@ -0,0 +1,20 @@
+package io.datapulse.etl.adapter.util;
+
+/**
+ * @param sha256       SHA-256 of the plain bytes
+ * @param byteSize     plain size in bytes; {@code 0} means an empty body and nothing uploaded
+ * @param uploadedSize bytes written to S3 (differs from {@code byteSize} when compressed)
+ * @param cursor       value of the page's {@link io.datapulse.etl.domain.cursor.CursorScanner},
+ *                     {@code null} when absent
+ */
+public record StreamedUploadResult(
+        String sha256,
+        long byteSize,
+        long uploadedSize,
+        String cursor
+) {
+
+    static StreamedUploadResult empty() {
+        return new StreamedUploadResult(null, 0, 0, null);
+    }
+}
@@ -8,7 +8,9 @@ import io.datapulse.etl.domain.CaptureContext;
 import io.datapulse.etl.domain.CaptureResult;
 import io.datapulse.etl.domain.PageCaptureResult;
 import io.datapulse.etl.adapter.s3.S3RawStorage;
+import io.datapulse.etl.config.EtlProperties;
 import io.datapulse.etl.domain.cursor.CursorExtractor;
+import io.datapulse.platform.observability.MetricsFacade;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -16,14 +18,18 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
 /**
- * Orchestrates the full page capture pipeline:
+ * Orchestrates the full page capture pipeline. With {@code datapulse.etl.capture-mode=STREAMING}
+ * (default) the body goes to S3 in a single pass via {@link StreamingUploadWriter} — digest,
+ * cursor and upload at once — and the temp-file pipeline below only runs when that upload fails:
  * <ol>
- *   <li>Stream {@code Flux<DataBuffer>} → temp file (64 KB, SHA-256)</li>
+ *   <li>Stream {@code Flux<DataBuffer>} → temp file (64 KB, SHA-256), plus a gzip copy when
+ *       raw compression is enabled</li>
  *   <li>Extract pagination cursor from temp file</li>
  *   <li>Upload temp file to S3 + insert job_item</li>
  *   <li>Delete temp file</li>
+ *   <li>Notify {@link CaptureContext#pageListener()} (pipelined normalize)</li>
  * </ol>
- * Memory footprint: 64 KB per page, regardless of response size.
+ * Memory footprint: 64 KB per page with temp files, one multipart part per page when streaming.
  */
 @Slf4j
 @Service
@@ -31,7 +37,10 @@ import reactor.core.publisher.Flux;
 public class StreamingPageCapture {
 
     private final StreamingResponseWriter responseWriter;
+    private final StreamingUploadWriter uploadWriter;
     private final S3RawStorage s3RawStorage;
+    private final EtlProperties etlProperties;
+    private final MetricsFacade metrics;
 
     public PageCaptureResult capture(Flux<DataBuffer> responseBody,
                                      CaptureContext context,
@@ -54,11 +63,68 @@ public class StreamingPageCapture {
                                      CursorExtractor cursorExtractor,
                                      Long listRequestOffset,
                                      String listResumeKey) {
+        PageCaptureResult page = etlProperties.captureMode() == RawCaptureMode.STREAMING
+                ? captureStreaming(responseBody, context, pageNumber, cursorExtractor,
+                        listRequestOffset, listResumeKey)
+                : captureViaTempFile(responseBody, context, pageNumber, cursorExtractor,
+                        listRequestOffset, listResumeKey);
+
+        context.pageListener().onPageCaptured(page.captureResult());
+        return page;
+    }
+
+    private PageCaptureResult captureStreaming(Flux<DataBuffer> responseBody,
+                                               CaptureContext context,
+                                               int pageNumber,
+                                               CursorExtractor cursorExtractor,
+                                               Long listRequestOffset,
+                                               String listResumeKey) {
+        String s3Key = s3RawStorage.buildS3Key(context, pageNumber);
+        StreamedUploadResult upload;
+        try {
+            upload = uploadWriter.writeToS3(responseBody, s3Key, cursorExtractor.newScanner(),
+                    context.requestId(), pageNumber);
+        } catch (StreamingUploadException e) {
+            // The body Flux is cold: re-subscribing re-issues the request through the rate limiter.
+            log.warn("Streaming upload failed, re-fetching page via temp file: requestId={}, page={}",
+                    context.requestId(), pageNumber, e);
+            metrics.incrementCounter("etl.raw_page.capture.fallbacks",
+                    "event", context.etlEvent().name());
+            return captureViaTempFile(responseBody, context, pageNumber, cursorExtractor,
+                    listRequestOffset, listResumeKey);
+        } catch (Exception e) {
+            throw new IllegalStateException(
+                    "Failed to capture page: requestId=%s, page=%d"
+                            .formatted(context.requestId(), pageNumber), e);
+        }
+
+        if (upload.byteSize() == 0) {
+            throw new EmptyResponseException(
+                    "Empty response body: requestId=%s, page=%d"
+                            .formatted(context.requestId(), pageNumber));
+        }
+
+        CaptureResult captureResult = s3RawStorage.registerPage(context, s3Key,
+                upload.sha256(), upload.byteSize(), pageNumber, listRequestOffset, listResumeKey);
+
+        log.debug("Page captured: requestId={}, page={}, cursor={}, byteSize={}",
+                context.requestId(), pageNumber, upload.cursor(), upload.byteSize());
+
+        return new PageCaptureResult(captureResult, upload.cursor());
+    }
+
+    private PageCaptureResult captureViaTempFile(Flux<DataBuffer> responseBody,
+                                                 CaptureContext context,
+                                                 int pageNumber,
+                                                 CursorExtractor cursorExtractor,
+                                                 Long listRequestOffset,
+                                                 String listResumeKey) {
         TempFileWriteResult writeResult = responseWriter.writeToTempFile(
                 responseBody, context.requestId(), pageNumber);
 
         if (writeResult.byteSize() == 0) {
             deleteTempFileSilently(writeResult.path());
+            deleteTempFileSilently(writeResult.compressedPath());
             throw new EmptyResponseException(
                     "Empty response body: requestId=%s, page=%d"
                             .formatted(context.requestId(), pageNumber));
@@ -68,8 +134,7 @@ public class StreamingPageCapture {
             String cursor = cursorExtractor.extract(writeResult.path()).orElse(null);
 
             CaptureResult captureResult = s3RawStorage.captureFromFile(
-                    writeResult.path(), writeResult.sha256(), writeResult.byteSize(),
-                    context, pageNumber, listRequestOffset, listResumeKey);
+                    writeResult, context, pageNumber, listRequestOffset, listResumeKey);
 
             log.debug("Page captured: requestId={}, page={}, cursor={}, byteSize={}",
                     context.requestId(), pageNumber, cursor, writeResult.byteSize());
@@ -77,6 +142,7 @@ public class StreamingPageCapture {
             return new PageCaptureResult(captureResult, cursor);
         } catch (Exception e) {
             deleteTempFileSilently(writeResult.path());
+            deleteTempFileSilently(writeResult.compressedPath());
             throw new IllegalStateException(
                     "Failed to capture page: requestId=%s, page=%d"
                             .formatted(context.requestId(), pageNumber), e);
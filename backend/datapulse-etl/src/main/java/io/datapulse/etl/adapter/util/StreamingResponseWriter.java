@@ -9,10 +9,15 @@ import java.nio.file.Path;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
 
+import io.datapulse.etl.adapter.s3.RawPageCompression;
 import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.platform.observability.MetricsFacade;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -28,6 +33,9 @@ import reactor.core.scheduler.Schedulers;
  * <p>
  * R-CAP-01 mitigation: every {@link DataBuffer} is released in {@code finally}
  * via {@link DataBufferUtils#release}.
+ * <p>
+ * With {@code datapulse.etl.raw-compression=GZIP} the same bytes are also teed into a gzip temp
+ * file, which is what gets uploaded; the plain file is kept for cursor extraction only.
  */
 @Slf4j
 @Service
@@ -37,16 +45,24 @@ public class StreamingResponseWriter {
     private static final int BUFFER_SIZE = 64 * 1024;
 
     private final EtlProperties etlProperties;
+    private final MetricsFacade metrics;
 
     public TempFileWriteResult writeToTempFile(Flux<DataBuffer> body,
                                                String requestId, int pageNumber) {
-        Path tempFile = createTempFile(requestId, pageNumber);
+        Path tempFile = createTempFile(requestId, pageNumber, ".json");
+        Path compressedFile = etlProperties.rawCompression() == RawPageCompression.GZIP
+                ? createTempFile(requestId, pageNumber, ".json.gz")
+                : null;
         MessageDigest digest = createSha256Digest();
         AtomicReference<IOException> writeError = new AtomicReference<>();
+        AtomicLong compressNanos = new AtomicLong();
 
         try (OutputStream out = new DigestOutputStream(
                 new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE),
-                digest)) {
+                digest);
+             OutputStream gzipOut = compressedFile != null
+                     ? new GZIPOutputStream(Files.newOutputStream(compressedFile), BUFFER_SIZE)
+                     : OutputStream.nullOutputStream()) {
 
             body.publishOn(Schedulers.boundedElastic())
                     .doOnNext(buffer -> {
@@ -55,6 +71,9 @@ public class StreamingResponseWriter {
                             byte[] bytes = new byte[readable];
                             buffer.read(bytes);
                             out.write(bytes);
+                            long started = System.nanoTime();
+                            gzipOut.write(bytes);
+                            compressNanos.addAndGet(System.nanoTime() - started);
                         } catch (IOException e) {
                             writeError.set(e);
                             throw new UncheckedIOException(e);
@@ -67,11 +86,13 @@ public class StreamingResponseWriter {
 
         } catch (IOException e) {
             deleteSilently(tempFile);
+            deleteSilently(compressedFile);
             throw new UncheckedIOException(
                     "Failed to write response to temp file: requestId=%s, page=%d"
                             .formatted(requestId, pageNumber), e);
         } catch (Exception e) {
             deleteSilently(tempFile);
+            deleteSilently(compressedFile);
             IOException ioErr = writeError.get();
             if (ioErr != null) {
                 throw new UncheckedIOException(
@@ -90,25 +111,49 @@ public class StreamingResponseWriter {
             log.debug("Response written to temp file: path={}, byteSize={}, sha256={}",
                     tempFile, byteSize, sha256);
 
-            return new TempFileWriteResult(tempFile, sha256, byteSize);
+            if (compressedFile == null) {
+                return new TempFileWriteResult(tempFile, sha256, byteSize);
+            }
+            long compressedSize = Files.size(compressedFile);
+            recordCompression(metrics, byteSize, compressedSize, compressNanos.get());
+            return new TempFileWriteResult(tempFile, sha256, byteSize,
+                    compressedFile, compressedSize);
         } catch (IOException e) {
             deleteSilently(tempFile);
+            deleteSilently(compressedFile);
             throw new UncheckedIOException("Failed to stat temp file", e);
         }
     }
 
-    private Path createTempFile(String requestId, int pageNumber) {
+    static void recordCompression(MetricsFacade metrics, long byteSize, long compressedSize,
+                                  long nanos) {
+        String codec = RawPageCompression.GZIP.name().toLowerCase();
+        metrics.incrementCounter("etl.raw_page.compression.input_bytes", byteSize, "codec", codec);
+        metrics.incrementCounter("etl.raw_page.compression.output_bytes", compressedSize,
+                "codec", codec);
+        metrics.recordDuration("etl.raw_page.compression.duration",
+                Duration.ofNanos(nanos), "codec", codec);
+        if (compressedSize > 0) {
+            metrics.recordSummary("etl.raw_page.compression.ratio",
+                    (double) byteSize / compressedSize, "codec", codec);
+        }
+    }
+
+    private Path createTempFile(String requestId, int pageNumber, String suffix) {
         try {
             Path tempDir = Path.of(etlProperties.tempDir());
             Files.createDirectories(tempDir);
             return Files.createTempFile(tempDir,
-                    "raw-%s-p%d-".formatted(requestId, pageNumber), ".json");
+                    "raw-%s-p%d-".formatted(requestId, pageNumber), suffix);
         } catch (IOException e) {
             throw new UncheckedIOException("Failed to create temp file", e);
         }
     }
 
     private static void deleteSilently(Path file) {
+        if (file == null) {
+            return;
+        }
         try {
             Files.deleteIfExists(file);
         } catch (IOException e) {
@@ -0,0 +1,13 @@
+package io.datapulse.etl.adapter.util;
+
+/**
+ * Thrown by {@link StreamingUploadWriter} when the S3 side of a streaming capture failed while
+ * the response body itself was fine, i.e. re-fetching the page through the temp-file path is
+ * worth a try.
+ */
+public class StreamingUploadException extends RuntimeException {
+
+  public StreamingUploadException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,95 @@
+package io.datapulse.etl.adapter.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import io.datapulse.etl.adapter.s3.RawPageCompression;
+import io.datapulse.etl.adapter.s3.S3RawStorage;
+import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.etl.domain.cursor.CursorScanner;
+import io.datapulse.platform.observability.MetricsFacade;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Single-pass counterpart of {@link StreamingResponseWriter}: tees the response body into the
+ * SHA-256 digest, the cursor scanner and an S3 multipart upload, without touching local disk.
+ * Memory footprint: one multipart part ({@code datapulse.etl.streaming-part-size}) per page.
+ * <p>
+ * An empty body is detected before the upload starts, so end-of-data pages cost no S3 call.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingUploadWriter {
+
+    private final EtlProperties etlProperties;
+    private final S3RawStorage s3RawStorage;
+    private final MetricsFacade metrics;
+
+    /**
+     * @throws StreamingUploadException when S3 failed but the body was fine so far; the body
+     *                                  {@link Flux} can be re-subscribed to fetch the page again
+     */
+    public StreamedUploadResult writeToS3(Flux<DataBuffer> body, String s3Key,
+                                          CursorScanner scanner,
+                                          String requestId, int pageNumber) {
+        RawPageCompression compression = etlProperties.rawCompression();
+        MessageDigest digest = createSha256Digest();
+
+        try (var in = new TeeingBodyInputStream(
+                body, digest, scanner, compression == RawPageCompression.GZIP)) {
+
+            if (!in.awaitFirstByte()) {
+                return StreamedUploadResult.empty();
+            }
+
+            try {
+                s3RawStorage.uploadStream(s3Key, in, compression);
+            } catch (Exception e) {
+                if (in.bodyFailure() != null) {
+                    throw new IllegalStateException(
+                            "Failed to stream response body: requestId=%s, page=%d"
+                                    .formatted(requestId, pageNumber), in.bodyFailure());
+                }
+                throw new StreamingUploadException(
+                        "Streaming upload failed: requestId=%s, page=%d, s3Key=%s"
+                                .formatted(requestId, pageNumber, s3Key), e);
+            }
+            if (!in.ended()) {
+                throw new IllegalStateException(
+                        "S3 client stopped reading before end of body: s3Key=%s".formatted(s3Key));
+            }
+
+            String cursor = scanner.finish().orElse(null);
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            if (compression == RawPageCompression.GZIP) {
+                StreamingResponseWriter.recordCompression(
+                        metrics, in.plainBytes(), in.servedBytes(), in.compressNanos());
+            }
+
+            log.debug("Response streamed to S3: s3Key={}, byteSize={}, uploadedSize={}, sha256={}",
+                    s3Key, in.plainBytes(), in.servedBytes(), sha256);
+
+            return new StreamedUploadResult(sha256, in.plainBytes(), in.servedBytes(), cursor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Failed to stream response to S3: requestId=%s, page=%d"
+                            .formatted(requestId, pageNumber), e);
+        }
+    }
+
+    private static MessageDigest createSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
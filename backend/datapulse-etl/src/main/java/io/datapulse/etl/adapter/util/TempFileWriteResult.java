@@ -2,8 +2,22 @@ package io.datapulse.etl.adapter.util;
 
 import java.nio.file.Path;
 
+/**
+ * @param path           plain JSON temp file (cursor extraction reads this one)
+ * @param sha256         SHA-256 of the plain bytes
+ * @param byteSize       plain size in bytes
+ * @param compressedPath gzip copy written in the same pass, {@code null} when compression is off
+ * @param compressedSize size of {@code compressedPath} in bytes, {@code 0} when absent
+ */
 public record TempFileWriteResult(
         Path path,
         String sha256,
-        long byteSize
-) {}
+        long byteSize,
+        Path compressedPath,
+        long compressedSize
+) {
+
+    public TempFileWriteResult(Path path, String sha256, long byteSize) {
+        this(path, sha256, byteSize, null, 0);
+    }
+}
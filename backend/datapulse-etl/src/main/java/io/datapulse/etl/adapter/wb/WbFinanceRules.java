@@ -0,0 +1,129 @@
+package io.datapulse.etl.adapter.wb;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.datapulse.etl.adapter.util.WbTimestampParser;
+import io.datapulse.etl.domain.FinanceEntryType;
+import io.datapulse.etl.domain.FinanceEntryType.MeasureColumn;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DD-7/DD-19 rules of a WB reportDetailByPeriod v5 row, written into a {@link FinanceRowBuffer}.
+ * Shared by {@link WbNormalizer#normalizeFinance} (DTO path) and {@link WbFinanceTokenReader}
+ * (token-stream path), so the sign and measure of every WB field are defined once.
+ */
+@Slf4j
+final class WbFinanceRules {
+
+    private static final String RETURN_DOC_TYPE = "Возврат";
+
+    private WbFinanceRules() {
+    }
+
+    /**
+     * WB fields that add to one measure column. WB reports debits as positive numbers; a debit
+     * field is negated into the canonical sign (positive = credit to seller).
+     */
+    enum Measure {
+        PPVZ_SALES_COMMISSION("ppvz_sales_commission", MeasureColumn.MARKETPLACE_COMMISSION, true),
+        CASHBACK_COMMISSION_CHANGE("cashback_commission_change",
+                MeasureColumn.MARKETPLACE_COMMISSION, false),
+        ACQUIRING_FEE("acquiring_fee", MeasureColumn.ACQUIRING, true),
+        DELIVERY_RUB("delivery_rub", MeasureColumn.LOGISTICS, true),
+        REBILL_LOGISTIC_COST("rebill_logistic_cost", MeasureColumn.LOGISTICS, true),
+        STORAGE_FEE("storage_fee", MeasureColumn.STORAGE, true),
+        PENALTY("penalty", MeasureColumn.PENALTIES, true),
+        ACCEPTANCE("acceptance", MeasureColumn.ACCEPTANCE, true),
+        SELLER_PROMO_DISCOUNT("seller_promo_discount", MeasureColumn.MARKETING, true),
+        DEDUCTION("deduction", MeasureColumn.OTHER, true),
+        CASHBACK_AMOUNT("cashback_amount", MeasureColumn.OTHER, true),
+        CASHBACK_DISCOUNT("cashback_discount", MeasureColumn.OTHER, true),
+        LOYALTY_DISCOUNT("loyalty_discount", MeasureColumn.OTHER, true),
+        INSTALLMENT_COFINANCING_AMOUNT("installment_cofinancing_amount",
+                MeasureColumn.OTHER, true),
+        ADDITIONAL_PAYMENT("additional_payment", MeasureColumn.COMPENSATION, false);
+
+        private static final Map<String, Measure> BY_FIELD = new HashMap<>();
+
+        static {
+            for (Measure measure : values()) {
+                BY_FIELD.put(measure.field, measure);
+            }
+        }
+
+        private final String field;
+        private final MeasureColumn column;
+        private final boolean debit;
+
+        Measure(String field, MeasureColumn column, boolean debit) {
+            this.field = field;
+            this.column = column;
+            this.debit = debit;
+        }
+
+        /**
+         * Adds {@code value} to the row's measure with the field's sign; {@code null} adds nothing.
+         */
+        void add(FinanceRowBuffer row, BigDecimal value) {
+            if (value != null) {
+                row.addTo(column, debit ? value.negate() : value);
+            }
+        }
+
+        /**
+         * The measure of JSON field {@code field}, or {@code null} when it is not one.
+         */
+        static Measure ofField(String field) {
+            return BY_FIELD.get(field);
+        }
+    }
+
+    /**
+     * {@code retail_price_withdisc_rub}: revenue, or a negative refund on a return document.
+     */
+    static void addRetailPrice(FinanceRowBuffer row, BigDecimal retailPrice, String docTypeName) {
+        if (retailPrice == null) {
+            return;
+        }
+        if (RETURN_DOC_TYPE.equals(docTypeName)) {
+            row.addTo(MeasureColumn.REFUND, retailPrice.negate());
+        } else {
+            row.addTo(MeasureColumn.REVENUE, retailPrice);
+        }
+    }
+
+    static FinanceEntryType entryType(String supplierOperName, long rrdId) {
+        FinanceEntryType entryType = FinanceEntryType.fromWbSupplierOperName(supplierOperName);
+        if (entryType == FinanceEntryType.OTHER && supplierOperName != null) {
+            log.warn("Unmapped WB finance supplier_oper_name: type={}, rrdId={}",
+                    supplierOperName, rrdId);
+        }
+        return entryType;
+    }
+
+    /**
+     * {@code sale_dt}, or {@code rr_dt} when the row has no sale date.
+     */
+    static OffsetDateTime entryDate(String saleDt, String rrDt) {
+        if (saleDt != null && !saleDt.isBlank()) {
+            return WbTimestampParser.parseFlexible(saleDt);
+        }
+        return WbTimestampParser.parseFlexible(rrDt);
+    }
+
+    static String warehouseExternalId(Long ppvzOfficeId) {
+        return ppvzOfficeId != null ? String.valueOf(ppvzOfficeId) : null;
+    }
+
+    static String fulfillmentType(Boolean srvDbs) {
+        return Boolean.TRUE.equals(srvDbs) ? "DBS" : "FBW";
+    }
+
+    static BigDecimal netPayout(BigDecimal ppvzForPay) {
+        return ppvzForPay != null ? ppvzForPay : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,80 @@
+package io.datapulse.etl.adapter.wb;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.datapulse.etl.adapter.util.JsonTokenValues;
+import io.datapulse.etl.domain.RecordTokenReader;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token-stream reader of reportDetailByPeriod v5 rows: writes the ~30 fields the finance entry
+ * needs straight into a {@link FinanceRowBuffer}, skipping the other 35 as tokens instead of
+ * binding them. Measure fields go through {@link WbFinanceRules.Measure} as they stream by, so
+ * the DD-7 sign rules are the ones {@link WbNormalizer#normalizeFinance} applies and no
+ * {@link io.datapulse.etl.adapter.wb.dto.WbFinanceRow} or normalized record is built per row.
+ */
+@Component
+public class WbFinanceTokenReader implements RecordTokenReader<FinanceRowBuffer> {
+
+    @Override
+    public FinanceRowBuffer newBuffer() {
+        return new FinanceRowBuffer();
+    }
+
+    @Override
+    public void read(JsonParser parser, FinanceRowBuffer row) throws IOException {
+        row.reset();
+        long rrdId = 0;
+        long nmId = 0;
+        String rrDt = null;
+        String saleDt = null;
+        String docTypeName = null;
+        Boolean srvDbs = null;
+        BigDecimal retailPriceWithdiscRub = null;
+        BigDecimal ppvzForPay = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "rrd_id" -> rrdId = JsonTokenValues.longValue(parser);
+                case "rr_dt" -> rrDt = JsonTokenValues.text(parser);
+                case "sale_dt" -> saleDt = JsonTokenValues.text(parser);
+                case "srid" -> row.postingId(JsonTokenValues.text(parser));
+                case "order_uid" -> row.orderId(JsonTokenValues.text(parser));
+                case "nm_id" -> nmId = JsonTokenValues.longValue(parser);
+                case "sa_name" -> row.sellerSku(JsonTokenValues.text(parser));
+                case "doc_type_name" -> docTypeName = JsonTokenValues.text(parser);
+                case "supplier_oper_name" -> row.providerEntryType(JsonTokenValues.text(parser));
+                case "retail_price_withdisc_rub" ->
+                        retailPriceWithdiscRub = JsonTokenValues.decimal(parser);
+                case "ppvz_for_pay" -> ppvzForPay = JsonTokenValues.decimal(parser);
+                case "currency_name" -> row.currency(JsonTokenValues.text(parser));
+                case "ppvz_office_id" -> row.warehouseExternalId(
+                        WbFinanceRules.warehouseExternalId(JsonTokenValues.boxedLong(parser)));
+                case "srv_dbs" -> srvDbs = JsonTokenValues.bool(parser);
+                default -> {
+                    WbFinanceRules.Measure measure = WbFinanceRules.Measure.ofField(field);
+                    if (measure != null) {
+                        measure.add(row, JsonTokenValues.decimal(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        // doc_type_name may follow the price in the payload, so the price is routed last.
+        WbFinanceRules.addRetailPrice(row, retailPriceWithdiscRub, docTypeName);
+        row.externalEntryId(String.valueOf(rrdId))
+                .entryType(WbFinanceRules.entryType(row.providerEntryType(), rrdId))
+                .marketplaceSku(String.valueOf(nmId))
+                .fulfillmentType(WbFinanceRules.fulfillmentType(srvDbs))
+                .netPayout(WbFinanceRules.netPayout(ppvzForPay))
+                .entryDate(WbFinanceRules.entryDate(saleDt, rrDt));
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Objects;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.datapulse.etl.adapter.util.WbTimestampParser;
+import io.datapulse.etl.adapter.wb.WbFinanceRules.Measure;
 import io.datapulse.etl.adapter.wb.dto.WbCatalogCard;
 import io.datapulse.etl.adapter.wb.dto.WbFinanceRow;
 import io.datapulse.etl.adapter.wb.dto.WbOffice;
@@ -17,7 +18,7 @@ import io.datapulse.etl.adapter.wb.dto.WbPromotionNomenclatureDto;
 import io.datapulse.etl.adapter.wb.dto.WbReturnItem;
 import io.datapulse.etl.adapter.wb.dto.WbSaleItem;
 import io.datapulse.etl.adapter.wb.dto.WbStockItem;
-import io.datapulse.etl.domain.FinanceEntryType;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
 import io.datapulse.etl.domain.normalized.NormalizedCatalogItem;
 import io.datapulse.etl.domain.normalized.NormalizedCategory;
 import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
@@ -135,66 +136,44 @@ public class WbNormalizer {
      * DD-9: Dual-format timestamp parsing.
      * DD-17: sale_dt fallback to rr_dt.
      * DD-19: WB v5 P&L fields mapped to canonical measures.
+     * The sign and measure of each field live in {@link WbFinanceRules}.
      *
      * <p>For WB_RETURN entries, revenue goes to refund_amount (negative = debit to seller)
      * and revenue_amount stays zero. For all other types, revenue populates revenue_amount.</p>
      */
     public NormalizedFinanceItem normalizeFinance(WbFinanceRow row) {
-        OffsetDateTime entryDate = resolveEntryDate(row);
-        FinanceEntryType entryType =
-                FinanceEntryType.fromWbSupplierOperName(row.supplierOperName());
-
-        if (entryType == FinanceEntryType.OTHER && row.supplierOperName() != null) {
-            log.warn("Unmapped WB finance supplier_oper_name: type={}, rrdId={}",
-                    row.supplierOperName(), row.rrdId());
-        }
-
-        boolean isReturn = "Возврат".equals(row.docTypeName());
-        BigDecimal retailPrice = safe(row.retailPriceWithdiscRub());
-        BigDecimal revenueAmount = isReturn ? BigDecimal.ZERO : retailPrice;
-        BigDecimal refundAmount = isReturn ? retailPrice.negate() : BigDecimal.ZERO;
-
-        BigDecimal marketplaceCommission = negate(safe(row.ppvzSalesCommission()))
-                .add(safe(row.cashbackCommissionChange()));
-
-        BigDecimal marketingCost = negate(safe(row.sellerPromoDiscount()));
-
-        BigDecimal otherCharges = negate(safe(row.deduction()))
-                .add(negate(safe(row.cashbackAmount())))
-                .add(negate(safe(row.cashbackDiscount())))
-                .add(negate(safe(row.loyaltyDiscount())))
-                .add(negate(safe(row.installmentCofinancingAmount())));
-
-        String warehouseExternalId = row.ppvzOfficeId() != null
-                ? String.valueOf(row.ppvzOfficeId())
-                : null;
-
-        String fulfillmentType = Boolean.TRUE.equals(row.srvDbs()) ? "DBS" : "FBW";
-
-        return new NormalizedFinanceItem(
-                String.valueOf(row.rrdId()),
-                entryType,
-                row.srid(),
-                row.orderUid(),
-                row.saName(),
-                String.valueOf(row.nmId()),
-                warehouseExternalId,
-                fulfillmentType,
-                revenueAmount,
-                marketplaceCommission,
-                negate(safe(row.acquiringFee())),
-                negate(safe(row.deliveryRub())).add(negate(safe(row.rebillLogisticCost()))),
-                negate(safe(row.storageFee())),
-                negate(safe(row.penalty())),
-                negate(safe(row.acceptance())),
-                marketingCost,
-                otherCharges,
-                safe(row.additionalPayment()),
-                refundAmount,
-                safe(row.ppvzForPay()),
-                row.currencyName(),
-                entryDate
-        );
+        FinanceRowBuffer buffer = new FinanceRowBuffer();
+        buffer.reset();
+        buffer.externalEntryId(String.valueOf(row.rrdId()))
+                .entryType(WbFinanceRules.entryType(row.supplierOperName(), row.rrdId()))
+                .providerEntryType(row.supplierOperName())
+                .postingId(row.srid())
+                .orderId(row.orderUid())
+                .sellerSku(row.saName())
+                .marketplaceSku(String.valueOf(row.nmId()))
+                .warehouseExternalId(WbFinanceRules.warehouseExternalId(row.ppvzOfficeId()))
+                .fulfillmentType(WbFinanceRules.fulfillmentType(row.srvDbs()))
+                .netPayout(WbFinanceRules.netPayout(row.ppvzForPay()))
+                .currency(row.currencyName())
+                .entryDate(WbFinanceRules.entryDate(row.saleDt(), row.rrDt()));
+
+        WbFinanceRules.addRetailPrice(buffer, row.retailPriceWithdiscRub(), row.docTypeName());
+        Measure.PPVZ_SALES_COMMISSION.add(buffer, row.ppvzSalesCommission());
+        Measure.CASHBACK_COMMISSION_CHANGE.add(buffer, row.cashbackCommissionChange());
+        Measure.ACQUIRING_FEE.add(buffer, row.acquiringFee());
+        Measure.DELIVERY_RUB.add(buffer, row.deliveryRub());
+        Measure.REBILL_LOGISTIC_COST.add(buffer, row.rebillLogisticCost());
+        Measure.STORAGE_FEE.add(buffer, row.storageFee());
+        Measure.PENALTY.add(buffer, row.penalty());
+        Measure.ACCEPTANCE.add(buffer, row.acceptance());
+        Measure.SELLER_PROMO_DISCOUNT.add(buffer, row.sellerPromoDiscount());
+        Measure.DEDUCTION.add(buffer, row.deduction());
+        Measure.CASHBACK_AMOUNT.add(buffer, row.cashbackAmount());
+        Measure.CASHBACK_DISCOUNT.add(buffer, row.cashbackDiscount());
+        Measure.LOYALTY_DISCOUNT.add(buffer, row.loyaltyDiscount());
+        Measure.INSTALLMENT_COFINANCING_AMOUNT.add(buffer, row.installmentCofinancingAmount());
+        Measure.ADDITIONAL_PAYMENT.add(buffer, row.additionalPayment());
+        return buffer.toItem();
     }
 
     public NormalizedWarehouse normalizeWarehouse(WbOffice office) {
@@ -288,14 +267,6 @@ public class WbNormalizer {
         }
     }
 
-    private OffsetDateTime resolveEntryDate(WbFinanceRow row) {
-        String saleDt = row.saleDt();
-        if (saleDt != null && !saleDt.isBlank()) {
-            return WbTimestampParser.parseFlexible(saleDt);
-        }
-        return WbTimestampParser.parseFlexible(row.rrDt());
-    }
-
     private static String extractFirstBarcode(WbCatalogCard card) {
         if (card.sizes() == null || card.sizes().isEmpty()) {
             return null;
@@ -306,12 +277,4 @@ public class WbNormalizer {
         }
         return firstSize.skus().get(0);
     }
-
-    private static BigDecimal safe(BigDecimal value) {
-        return value != null ? value : BigDecimal.ZERO;
-    }
-
-    private static BigDecimal negate(BigDecimal value) {
-        return value.negate();
-    }
 }
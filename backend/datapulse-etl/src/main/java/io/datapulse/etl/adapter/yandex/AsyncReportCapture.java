@@ -5,17 +5,38 @@ import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.etl.config.YandexReportProperties;
+import io.datapulse.etl.persistence.YandexReportTaskRepository;
+import io.datapulse.etl.persistence.YandexReportTaskRepository.ReportTask;
 import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
-import lombok.RequiredArgsConstructor;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -24,62 +45,127 @@ import reactor.core.publisher.Mono;
  * Async report capture pipeline: generate → poll → download → parse.
  * <p>
  * Yandex Market finance data is ONLY available through async reports (no synchronous API).
- * This utility encapsulates the full lifecycle:
+ * Each report is a small state machine whose steps run on {@code etlReportStepExecutor}:
  * <ol>
- *   <li>POST generate path → extract {@code reportId}</li>
- *   <li>Poll {@code GET /v2/reports/info/{reportId}} until DONE or FAILED</li>
+ *   <li>POST generate path → extract {@code reportId}, persist it in
+ *       {@code yandex_report_task}</li>
+ *   <li>Poll {@code GET /v2/reports/info/{reportId}} on a timer (delay doubles up to
+ *       {@code max-poll-interval}) until DONE or FAILED</li>
  *   <li>Download report file (external URL, no Api-Key)</li>
  *   <li>Parse JSON → {@code List<T>}</li>
  * </ol>
- * Not a Spring bean — instantiated manually by adapters that need async reports.
+ * {@code yandexReportScheduler} only times the delays between steps and hands each due step to
+ * {@code etlReportStepExecutor}; the HTTP calls block on the rate limiter and the response, which
+ * would stall every other report's timer on its few threads. That executor rejects instead of
+ * running a step on the caller, and a rejected step is handed back to the timer for
+ * {@code poll-interval}. No thread waits between polls, so a
+ * caller can start several reports and return its thread. At most
+ * {@code max-in-flight-per-connection} reports of a connection are generated or polled at once;
+ * the rest queue without a thread.
+ * <p>
+ * A report that is still generating (or ready but not yet downloaded) when the process stops or
+ * the capture times out is resumed by the next capture of the same {@code reportKey} within
+ * {@code resume-max-age}, instead of being requested again.
  */
 @Slf4j
-@RequiredArgsConstructor
+@Component
 public class AsyncReportCapture {
 
   private static final String REPORT_STATUS_PATH = "/v2/reports/info/%s";
-  private static final Duration INITIAL_WAIT = Duration.ofSeconds(5);
-  private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
-  private static final int MAX_POLL_ATTEMPTS = 60;
   private static final int DOWNLOAD_RETRIES = 1;
+  private static final Duration DOWNLOAD_RETRY_DELAY = Duration.ofSeconds(2);
 
   private final YandexApiCaller apiCaller;
   private final WebClient.Builder webClientBuilder;
   private final ObjectMapper objectMapper;
   private final EtlProperties etlProperties;
+  private final YandexReportProperties properties;
+  private final YandexReportTaskRepository taskRepository;
+  private final ScheduledExecutorService scheduler;
+  private final Executor stepExecutor;
+  private final MetricsFacade metrics;
+  private final Clock clock;
+
+  private final Map<Long, ConnectionSlots> slotsByConnection = new ConcurrentHashMap<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  public AsyncReportCapture(
+      YandexApiCaller apiCaller,
+      WebClient.Builder webClientBuilder,
+      ObjectMapper objectMapper,
+      EtlProperties etlProperties,
+      YandexReportProperties properties,
+      YandexReportTaskRepository taskRepository,
+      @Qualifier("yandexReportScheduler") ScheduledExecutorService scheduler,
+      @Qualifier("etlReportStepExecutor") Executor stepExecutor,
+      MetricsFacade metrics,
+      Clock clock) {
+    this.apiCaller = apiCaller;
+    this.webClientBuilder = webClientBuilder;
+    this.objectMapper = objectMapper;
+    this.etlProperties = etlProperties;
+    this.properties = properties;
+    this.taskRepository = taskRepository;
+    this.scheduler = scheduler;
+    this.stepExecutor = stepExecutor;
+    this.metrics = metrics;
+    this.clock = clock;
+    metrics.gauge("etl.yandex_report.in_flight", inFlight::get);
+  }
 
   /**
-   * Full async report lifecycle: generate → poll → download → parse.
+   * Starts (or resumes) the async report lifecycle and returns immediately.
    *
-   * @param generatePath  API path for report generation (e.g. {@code /v2/reports/.../generate})
-   * @param requestBody   request body for generation
-   * @param apiKey        Yandex Api-Key
-   * @param connectionId  connection ID for rate limiting
-   * @param rowType       target DTO class for deserialization
-   * @return parsed report rows
+   * @param request report to generate; {@link ReportRequest#reportKey()} identifies it for resume
+   * @param rowType target DTO class for deserialization
+   * @return parsed report rows, completed on an {@code etlReportStepExecutor} thread
    */
-  public <T> List<T> captureReport(
-      String generatePath,
-      Object requestBody,
-      String apiKey,
-      long connectionId,
-      Class<T> rowType) {
-
-    String reportId = generateReport(generatePath, requestBody, apiKey, connectionId);
-    log.info("Report generation requested: reportId={}, connectionId={}", reportId, connectionId);
+  public <T> CompletableFuture<List<T>> captureReport(ReportRequest request, Class<T> rowType) {
+    ReportRun<T> run = new ReportRun<>(request, rowType, metrics.startTimer());
+    run.start = () -> {
+      inFlight.incrementAndGet();
+      schedule(run, Duration.ZERO, () -> start(run));
+    };
+    run.result.whenComplete((rows, error) -> {
+      metrics.stopTimer(run.sample, "etl.yandex_report.duration",
+          "outcome", error == null ? "success" : "failure");
+      if (error != null) {
+        log.warn("Report capture failed: reportKey={}, reportId={}, connectionId={}, error={}",
+            request.reportKey(), run.reportId, request.connectionId(), error.getMessage());
+      }
+      release(run);
+    });
+    acquire(run);
+    return run.result;
+  }
 
-    String downloadUrl = pollUntilReady(reportId, apiKey, connectionId);
-    log.info("Report ready: reportId={}, connectionId={}", reportId, connectionId);
+  private void start(ReportRun<?> run) {
+    ReportRequest request = run.request;
+    run.deadline = clock.instant().plus(properties.pollTimeout());
 
-    Path tempFile = downloadReport(downloadUrl, reportId);
-    try {
-      List<T> rows = parseReport(tempFile, rowType, reportId);
-      log.info("Report parsed: reportId={}, rows={}, connectionId={}",
-          reportId, rows.size(), connectionId);
-      return rows;
-    } finally {
-      deleteSilently(tempFile);
+    Optional<ReportTask> task = taskRepository.findResumable(request.connectionId(),
+        request.reportKey(), OffsetDateTime.now(clock).minus(properties.resumeMaxAge()));
+    if (task.isPresent()) {
+      run.reportId = task.get().reportId();
+      metrics.incrementCounter("etl.yandex_report.resumed",
+          "status", task.get().status().toLowerCase());
+      log.info("Report resumed: reportId={}, status={}, reportKey={}, connectionId={}",
+          run.reportId, task.get().status(), request.reportKey(), request.connectionId());
+      if (task.get().isReady()) {
+        download(run, task.get().fileUrl(), 0);
+      } else {
+        poll(run);
+      }
+      return;
     }
+
+    run.reportId = generateReport(request.generatePath(), request.requestBody(),
+        request.apiKey(), request.connectionId());
+    taskRepository.saveGenerated(request.connectionId(), request.reportKey(), run.reportId,
+        request.jobExecutionId());
+    log.info("Report generation requested: reportId={}, connectionId={}",
+        run.reportId, request.connectionId());
+    schedule(run, properties.initialWait(), () -> poll(run));
   }
 
   private String generateReport(
@@ -104,69 +190,139 @@ public class AsyncReportCapture {
     }
   }
 
-  private String pollUntilReady(String reportId, String apiKey, long connectionId) {
-    sleep(INITIAL_WAIT);
-
-    for (int attempt = 0; attempt < MAX_POLL_ATTEMPTS; attempt++) {
-      String statusPath = REPORT_STATUS_PATH.formatted(reportId);
-      byte[] responseBytes = collectBytes(
-          apiCaller.get(statusPath, connectionId, RateLimitGroup.YANDEX_REPORTS, apiKey));
-
-      try {
-        JsonNode root = objectMapper.readTree(responseBytes);
-        JsonNode resultNode = root.path("result");
-        String status = resultNode.path("status").asText("UNKNOWN");
-
-        switch (status) {
-          case "DONE" -> {
-            String fileUrl = resultNode.path("file").asText(null);
-            if (fileUrl == null || fileUrl.isBlank()) {
-              throw new IllegalStateException(
-                  "Report DONE but no download URL: reportId=%s".formatted(reportId));
-            }
-            return fileUrl;
-          }
-          case "FAILED" ->
-              throw new IllegalStateException(
-                  "Report generation failed: reportId=%s".formatted(reportId));
-          case "PENDING", "GENERATING" -> {
-            log.debug("Report still generating: reportId={}, status={}, attempt={}/{}",
-                reportId, status, attempt + 1, MAX_POLL_ATTEMPTS);
-            sleep(POLL_INTERVAL);
-          }
-          default -> {
-            log.warn("Unknown report status: reportId={}, status={}", reportId, status);
-            sleep(POLL_INTERVAL);
-          }
+  private void poll(ReportRun<?> run) {
+    ReportRequest request = run.request;
+    String statusPath = REPORT_STATUS_PATH.formatted(run.reportId);
+    byte[] responseBytes = collectBytes(
+        apiCaller.get(statusPath, request.connectionId(), RateLimitGroup.YANDEX_REPORTS,
+            request.apiKey()));
+    run.polls++;
+    metrics.incrementCounter("etl.yandex_report.polls");
+
+    JsonNode resultNode;
+    try {
+      resultNode = objectMapper.readTree(responseBytes).path("result");
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          "Failed to parse report status response: reportId=%s".formatted(run.reportId), e);
+    }
+    String status = resultNode.path("status").asText("UNKNOWN");
+
+    switch (status) {
+      case "DONE" -> {
+        String fileUrl = resultNode.path("file").asText(null);
+        if (fileUrl == null || fileUrl.isBlank()) {
+          throw new IllegalStateException(
+              "Report DONE but no download URL: reportId=%s".formatted(run.reportId));
         }
-      } catch (IOException e) {
+        taskRepository.markReady(request.connectionId(), request.reportKey(), run.reportId,
+            fileUrl);
+        log.info("Report ready: reportId={}, polls={}, connectionId={}",
+            run.reportId, run.polls, request.connectionId());
+        download(run, fileUrl, 0);
+      }
+      case "FAILED" -> {
+        taskRepository.finish(request.connectionId(), request.reportKey(), run.reportId,
+            YandexReportTaskRepository.STATUS_FAILED);
         throw new IllegalStateException(
-            "Failed to parse report status response: reportId=%s".formatted(reportId), e);
+            "Report generation failed: reportId=%s".formatted(run.reportId));
+      }
+      default -> {
+        if ("PENDING".equals(status) || "GENERATING".equals(status)) {
+          log.debug("Report still generating: reportId={}, status={}, poll={}",
+              run.reportId, status, run.polls);
+        } else {
+          log.warn("Unknown report status: reportId={}, status={}", run.reportId, status);
+        }
+        Duration delay = run.nextPollDelay(properties);
+        if (clock.instant().plus(delay).isAfter(run.deadline)) {
+          // task stays GENERATING: the next capture of this key keeps polling the same report
+          throw new IllegalStateException("Report poll timeout after %d polls (%s): reportId=%s"
+              .formatted(run.polls, properties.pollTimeout(), run.reportId));
+        }
+        schedule(run, delay, () -> poll(run));
       }
     }
+  }
 
-    throw new IllegalStateException(
-        "Report poll timeout after %d attempts: reportId=%s"
-            .formatted(MAX_POLL_ATTEMPTS, reportId));
+  private void download(ReportRun<?> run, String fileUrl, int attempt) {
+    execute(run, () -> downloadAndParse(run, fileUrl, attempt));
   }
 
-  private Path downloadReport(String downloadUrl, String reportId) {
-    int retries = 0;
-    while (true) {
-      try {
-        return doDownload(downloadUrl, reportId);
-      } catch (Exception e) {
-        if (retries < DOWNLOAD_RETRIES) {
-          retries++;
-          log.warn("Report download failed, retrying ({}/{}): reportId={}, url={}",
-              retries, DOWNLOAD_RETRIES, reportId, downloadUrl, e);
-          sleep(Duration.ofSeconds(2));
-        } else {
-          throw new IllegalStateException(
-              "Report download failed after %d retries: reportId=%s"
-                  .formatted(DOWNLOAD_RETRIES, reportId), e);
-        }
+  private <T> void downloadAndParse(ReportRun<T> run, String fileUrl, int attempt) {
+    ReportRequest request = run.request;
+    Path tempFile;
+    try {
+      tempFile = doDownload(fileUrl, run.reportId);
+    } catch (Exception e) {
+      if (attempt < DOWNLOAD_RETRIES) {
+        log.warn("Report download failed, retrying ({}/{}): reportId={}, url={}",
+            attempt + 1, DOWNLOAD_RETRIES, run.reportId, fileUrl, e);
+        schedule(run, DOWNLOAD_RETRY_DELAY, () -> downloadAndParse(run, fileUrl, attempt + 1));
+        return;
       }
+      // an expired file URL of a resumed report must not be resumed again
+      taskRepository.finish(request.connectionId(), request.reportKey(), run.reportId,
+          YandexReportTaskRepository.STATUS_FAILED);
+      throw new IllegalStateException(
+          "Report download failed after %d retries: reportId=%s"
+              .formatted(DOWNLOAD_RETRIES, run.reportId), e);
+    }
+
+    try {
+      List<T> rows = parseReport(tempFile, run.rowType, run.reportId);
+      taskRepository.finish(request.connectionId(), request.reportKey(), run.reportId,
+          YandexReportTaskRepository.STATUS_CONSUMED);
+      log.info("Report parsed: reportId={}, rows={}, connectionId={}",
+          run.reportId, rows.size(), request.connectionId());
+      run.result.complete(rows);
+    } catch (RuntimeException e) {
+      taskRepository.finish(request.connectionId(), request.reportKey(), run.reportId,
+          YandexReportTaskRepository.STATUS_FAILED);
+      throw e;
+    } finally {
+      deleteSilently(tempFile);
+    }
+  }
+
+  /**
+   * Runs {@code step} on {@code etlReportStepExecutor} once {@code delay} has passed; the
+   * scheduler thread only hands it over.
+   */
+  private void schedule(ReportRun<?> run, Duration delay, Runnable step) {
+    if (delay.isZero()) {
+      execute(run, step);
+      return;
+    }
+    try {
+      scheduler.schedule(() -> execute(run, step), delay.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      run.result.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Hands {@code step} to {@code etlReportStepExecutor}; when it is saturated, the step goes back
+   * to the timer instead of running on this thread, which may be a scheduler thread.
+   */
+  private void execute(ReportRun<?> run, Runnable step) {
+    try {
+      stepExecutor.execute(() -> runStep(run, step));
+    } catch (RejectedExecutionException e) {
+      metrics.incrementCounter("etl.yandex_report.step_rejected");
+      log.debug("Report step executor saturated, rescheduling: reportId={}", run.reportId);
+      schedule(run, properties.pollInterval(), step);
+    }
+  }
+
+  private static void runStep(ReportRun<?> run, Runnable step) {
+    if (run.result.isDone()) {
+      return;
+    }
+    try {
+      step.run();
+    } catch (Exception e) {
+      run.result.completeExceptionally(e);
     }
   }
 
@@ -265,15 +421,6 @@ public class AsyncReportCapture {
     }
   }
 
-  private static void sleep(Duration duration) {
-    try {
-      Thread.sleep(duration.toMillis());
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new IllegalStateException("Report polling interrupted", e);
-    }
-  }
-
   private static String truncate(String str, int maxLength) {
     if (str == null) {
       return "<null>";
@@ -288,4 +435,99 @@ public class AsyncReportCapture {
       log.warn("Failed to delete temp file: path={}", file, e);
     }
   }
+
+  /**
+   * @param reportKey report type and period, unique per connection (e.g.
+   *                  {@code goods-realization:123:2024-05}); a report of the same key generated
+   *                  within {@code resume-max-age} and not yet consumed is resumed
+   */
+  public record ReportRequest(
+      String generatePath,
+      Object requestBody,
+      String reportKey,
+      String apiKey,
+      long connectionId,
+      long jobExecutionId) {}
+
+  private static final class ReportRun<T> {
+
+    private final ReportRequest request;
+    private final Class<T> rowType;
+    private final Timer.Sample sample;
+    private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+    private Runnable start;
+    // written and read by successive steps; each hand-off goes through an executor
+    private volatile String reportId;
+    private volatile Instant deadline;
+    private volatile Duration pollDelay;
+    private volatile int polls;
+
+    private ReportRun(ReportRequest request, Class<T> rowType, Timer.Sample sample) {
+      this.request = request;
+      this.rowType = rowType;
+      this.sample = sample;
+    }
+
+    private Duration nextPollDelay(YandexReportProperties properties) {
+      Duration delay = pollDelay == null ? properties.pollInterval() : pollDelay;
+      Duration doubled = delay.multipliedBy(2);
+      pollDelay = doubled.compareTo(properties.maxPollInterval()) > 0
+          ? properties.maxPollInterval() : doubled;
+      return delay;
+    }
+  }
+
+  /**
+   * Takes a slot of the report's connection, or queues the report without a thread when the
+   * connection is at {@code max-in-flight-per-connection}.
+   */
+  private void acquire(ReportRun<?> run) {
+    boolean[] admitted = new boolean[1];
+    slotsByConnection.compute(run.request.connectionId(), (id, slots) -> {
+      ConnectionSlots current = slots == null ? new ConnectionSlots() : slots;
+      if (current.running >= Math.max(1, properties.maxInFlightPerConnection())) {
+        current.waiting.add(run);
+      } else {
+        current.running++;
+        admitted[0] = true;
+      }
+      return current;
+    });
+    if (admitted[0]) {
+      run.start.run();
+    }
+  }
+
+  /**
+   * Hands the finished report's slot to the next queued report of its connection. A connection
+   * with nothing running is dropped from {@link #slotsByConnection}, so the map only holds
+   * connections with reports in flight.
+   */
+  private void release(ReportRun<?> finished) {
+    List<ReportRun<?>> next = new ArrayList<>(1);
+    slotsByConnection.computeIfPresent(finished.request.connectionId(), (id, slots) -> {
+      if (slots.waiting.remove(finished)) {
+        return slots;
+      }
+      inFlight.decrementAndGet();
+      ReportRun<?> queued = slots.waiting.poll();
+      if (queued != null) {
+        next.add(queued);
+        return slots;
+      }
+      slots.running--;
+      return slots.running == 0 ? null : slots;
+    });
+    next.forEach(run -> run.start.run());
+  }
+
+  /**
+   * Reports of one connection being generated or polled, and those queued behind them. Only
+   * read and written inside {@link #slotsByConnection} compute calls, which lock the entry.
+   */
+  private static final class ConnectionSlots {
+
+    private final Deque<ReportRun<?>> waiting = new ArrayDeque<>();
+    private int running;
+  }
 }
@@ -4,15 +4,14 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.datapulse.etl.adapter.yandex.dto.YandexRealizationReportRow;
 import io.datapulse.etl.adapter.yandex.dto.YandexServicesReportRow;
-import io.datapulse.etl.config.EtlProperties;
 import io.datapulse.etl.domain.CaptureContext;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
 /**
  * Orchestrates Yandex Market async finance reports:
@@ -20,11 +19,14 @@ import org.springframework.web.reactive.function.client.WebClient;
  *   <li>United Marketplace Services report — commission/logistics/service fees</li>
  *   <li>Goods Realization report — realization data with item-level financials</li>
  * </ol>
- * Both reports follow the async flow: generate → poll → download → parse.
+ * Both reports follow the async flow: generate → poll → download → parse
+ * ({@link AsyncReportCapture}); the returned futures complete once the report is parsed, so
+ * callers can request several reports at once without holding a thread.
  * Report structure may change without notice (F-6) — DTOs use lenient parsing.
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class YandexFinanceReportReadAdapter {
 
   private static final String SERVICES_REPORT_PATH =
@@ -34,80 +36,46 @@ public class YandexFinanceReportReadAdapter {
 
   private final AsyncReportCapture asyncReportCapture;
 
-  public YandexFinanceReportReadAdapter(
-      YandexApiCaller apiCaller,
-      WebClient.Builder webClientBuilder,
-      ObjectMapper objectMapper,
-      EtlProperties etlProperties) {
-    this.asyncReportCapture = new AsyncReportCapture(
-        apiCaller, webClientBuilder, objectMapper, etlProperties);
-  }
-
-  public List<YandexServicesReportRow> captureServicesReport(
-      String apiKey, long connectionId, long businessId,
+  public CompletableFuture<List<YandexServicesReportRow>> captureServicesReport(
+      String apiKey, CaptureContext context, long businessId,
       LocalDate dateFrom, LocalDate dateTo) {
     log.info("Yandex services report: requesting for businessId={}, period={}-{}, connectionId={}",
-        businessId, dateFrom, dateTo, connectionId);
+        businessId, dateFrom, dateTo, context.connectionId());
 
     Map<String, Object> body = Map.of(
         "businessId", businessId,
         "dateFrom", dateFrom.toString(),
         "dateTo", dateTo.toString());
+    String reportKey = "united-marketplace-services:%d:%s:%s"
+        .formatted(businessId, dateFrom, dateTo);
 
     return asyncReportCapture.captureReport(
-        SERVICES_REPORT_PATH, body, apiKey, connectionId,
+        request(SERVICES_REPORT_PATH, body, reportKey, apiKey, context),
         YandexServicesReportRow.class);
   }
 
-  public List<YandexRealizationReportRow> captureRealizationReport(
-      String apiKey, long connectionId, long businessId,
+  public CompletableFuture<List<YandexRealizationReportRow>> captureRealizationReport(
+      String apiKey, CaptureContext context, long businessId,
       int year, int month) {
     log.info("Yandex realization report: requesting for businessId={}, period={}-{}, connectionId={}",
-        businessId, year, month, connectionId);
+        businessId, year, month, context.connectionId());
 
     Map<String, Object> body = Map.of(
         "businessId", businessId,
         "year", year,
         "month", month);
+    String reportKey = "goods-realization:%d:%d-%02d".formatted(businessId, year, month);
 
     return asyncReportCapture.captureReport(
-        REALIZATION_REPORT_PATH, body, apiKey, connectionId,
+        request(REALIZATION_REPORT_PATH, body, reportKey, apiKey, context),
         YandexRealizationReportRow.class);
   }
 
-  /**
-   * Captures both finance reports for a given period.
-   * For initial load: called per month from EventSource.
-   * For incremental: covers current + previous month.
-   */
-  public void captureFinanceForPeriod(
-      CaptureContext context, String apiKey, long businessId,
-      LocalDate from, LocalDate to) {
-    long connectionId = context.connectionId();
-
-    log.info("Yandex finance capture: starting for businessId={}, period={}-{}, connectionId={}",
-        businessId, from, to, connectionId);
-
-    List<YandexServicesReportRow> servicesRows = captureServicesReport(
-        apiKey, connectionId, businessId, from, to);
-    log.info("Yandex services report captured: connectionId={}, rows={}",
-        connectionId, servicesRows.size());
-
-    List<MonthPeriod> months = splitIntoMonths(from, to);
-    List<YandexRealizationReportRow> allRealizationRows = new ArrayList<>();
-
-    for (MonthPeriod month : months) {
-      List<YandexRealizationReportRow> monthRows = captureRealizationReport(
-          apiKey, connectionId, businessId, month.year(), month.month());
-      allRealizationRows.addAll(monthRows);
-    }
-
-    log.info("Yandex realization report captured: connectionId={}, months={}, totalRows={}",
-        connectionId, months.size(), allRealizationRows.size());
-
-    // TODO: normalize finance rows through YandexNormalizer once real data format is verified
-    log.info("Yandex finance capture completed: connectionId={}, servicesRows={}, realizationRows={}",
-        connectionId, servicesRows.size(), allRealizationRows.size());
+  private static AsyncReportCapture.ReportRequest request(
+      String generatePath, Object body, String reportKey, String apiKey,
+      CaptureContext context) {
+    return new AsyncReportCapture.ReportRequest(generatePath, body, reportKey, apiKey,
+        context.connectionId(), context.jobExecutionId());
   }
 
   public static List<MonthPeriod> splitIntoMonths(LocalDate from, LocalDate to) {
@@ -10,11 +10,13 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.datapulse.etl.domain.JobMonitoringService;
+import jakarta.validation.Valid;
 import io.datapulse.platform.security.WorkspaceContext;
 import lombok.RequiredArgsConstructor;
 
@@ -53,4 +55,13 @@ public class JobController {
     public JobRetryResponse retryJob(@PathVariable("jobId") Long jobId) {
         return jobMonitoringService.retryJob(jobId, workspaceContext.getWorkspaceId());
     }
+
+    @PostMapping("/connections/{connectionId}/replay")
+    @ResponseStatus(HttpStatus.CREATED)
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_OWNER')")
+    public JobReplayResponse replay(@PathVariable("connectionId") Long connectionId,
+                                    @Valid @RequestBody ReplayRequest request) {
+        return jobMonitoringService.requestReplay(connectionId, workspaceContext.getWorkspaceId(),
+                request);
+    }
 }
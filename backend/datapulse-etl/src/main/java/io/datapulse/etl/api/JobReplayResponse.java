@@ -0,0 +1,7 @@
+package io.datapulse.etl.api;
+
+public record JobReplayResponse(
+        long jobId,
+        String message
+) {
+}
@@ -0,0 +1,19 @@
+package io.datapulse.etl.api;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+
+import io.datapulse.etl.domain.EtlEventType;
+
+/**
+ * Re-normalizes raw pages of the given events captured in {@code [from, to)}.
+ */
+public record ReplayRequest(
+        @NotEmpty Set<EtlEventType> domains,
+        @NotNull OffsetDateTime from,
+        @NotNull OffsetDateTime to
+) {
+}
@@ -0,0 +1,22 @@
+package io.datapulse.etl.config;
+
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Write path selection for canonical UPSERT repositories.
+ *
+ * @param copyTables canonical tables (e.g. {@code canonical_order}) written through
+ *                   {@link io.datapulse.etl.persistence.canonical.CanonicalBulkWriter}'s COPY
+ *                   staging path; all other tables keep the JDBC batch {@code INSERT ... ON CONFLICT}
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.canonical-write")
+public record CanonicalWriteProperties(
+        Set<String> copyTables
+) {
+
+    public CanonicalWriteProperties {
+        copyTables = copyTables != null ? Set.copyOf(copyTables) : Set.of();
+    }
+}
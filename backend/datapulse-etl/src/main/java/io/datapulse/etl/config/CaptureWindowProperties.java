@@ -0,0 +1,17 @@
+package io.datapulse.etl.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Date-window capture of Ozon endpoints with a maximum range per request
+ * ({@link io.datapulse.etl.adapter.ozon.OzonWindowedCapture}).
+ *
+ * @param concurrency windows of one sub-source captured at the same time; requests still go
+ *                    through the connection's rate limiter, so this only uses its spare budget.
+ *                    {@code 1} captures windows one after another
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.capture-windows")
+public record CaptureWindowProperties(
+        @DefaultValue("3") int concurrency
+) {}
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import io.datapulse.platform.clickhouse.ClickHouseStatements;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -142,7 +143,7 @@ public class ClickHouseMigrationRunner implements ApplicationRunner {
                 boolean hasExecutableContent = statement.lines()
                         .anyMatch(line -> !line.isBlank() && !line.stripLeading().startsWith("--"));
                 if (hasExecutableContent) {
-                    clickhouseJdbcTemplate.execute(statement);
+                    executeStatement(statement);
                 }
             }
         } catch (Exception e) {
@@ -158,6 +159,26 @@ public class ClickHouseMigrationRunner implements ApplicationRunner {
         log.info("Applied ClickHouse migration: script={}, checksum={}", scriptName, checksum);
     }
 
+    /**
+     * Repartitioning migrations copy every tenant with one {@code INSERT ... SELECT}, which writes
+     * one partition per workspace; only those statements run without the per-insert partition
+     * limit.
+     */
+    private void executeStatement(String statement) {
+        boolean insert = statement.lines()
+                .map(String::stripLeading)
+                .filter(line -> !line.isEmpty() && !line.startsWith("--"))
+                .findFirst()
+                .map(line -> line.regionMatches(true, 0, "INSERT", 0, "INSERT".length()))
+                .orElse(false);
+        if (insert) {
+            ClickHouseStatements.execute(
+                    clickhouseJdbcTemplate, statement, ClickHouseStatements.NO_PARTITION_LIMIT);
+        } else {
+            clickhouseJdbcTemplate.execute(statement);
+        }
+    }
+
     private static int extractVersion(String scriptName) {
         String prefix = scriptName.split("-", 2)[0];
         return Integer.parseInt(prefix);
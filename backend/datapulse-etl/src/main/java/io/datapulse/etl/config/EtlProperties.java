@@ -1,8 +1,23 @@
 package io.datapulse.etl.config;
 
+import io.datapulse.etl.adapter.s3.RawPageCompression;
+import io.datapulse.etl.adapter.util.RawCaptureMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
 
+/**
+ * @param tempDir        local directory for captured pages before upload
+ * @param rawCompression encoding of newly captured raw pages in S3; reads handle every encoding
+ * @param captureMode       {@code STREAMING} uploads pages in one pass, {@code tempDir} becomes a
+ *                          fallback for failed uploads only
+ * @param streamingPartSize multipart part size of streaming uploads (S3 minimum is 5 MB); also
+ *                          the per-page memory footprint of {@code STREAMING}
+ */
 @ConfigurationProperties(prefix = "datapulse.etl")
 public record EtlProperties(
-        String tempDir
+        String tempDir,
+        @DefaultValue("GZIP") RawPageCompression rawCompression,
+        @DefaultValue("STREAMING") RawCaptureMode captureMode,
+        @DefaultValue("5MB") DataSize streamingPartSize
 ) {}
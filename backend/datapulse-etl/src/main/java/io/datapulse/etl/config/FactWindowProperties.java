@@ -0,0 +1,21 @@
+package io.datapulse.etl.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-sub-source incremental fact windows
+ * ({@link io.datapulse.etl.domain.FactWindowPlanner}).
+ *
+ * @param enabled            {@code false} gives every fact sub-source the job-wide window from
+ *                           {@code last_success_at}, as before
+ * @param settlementInterval how often an INCREMENTAL run widens a sub-source back to
+ *                           {@code incremental-fact-lookback-days} to pick up late corrections
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.fact-window")
+public record FactWindowProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("P1D") Duration settlementInterval
+) {}
@@ -0,0 +1,41 @@
+package io.datapulse.etl.config;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Fair-share admission of DAG events onto {@code etlExecutor}
+ * ({@link io.datapulse.etl.domain.FairShareEventScheduler}).
+ *
+ * @param enabled                   {@code false} submits every event straight to
+ *                                  {@code etlExecutor} in arrival order, as before
+ * @param maxInFlightEvents         events of all jobs running at once on this instance
+ * @param maxInFlightPerConnection  events of one connection running at once
+ * @param maxInFlightBackfillEvents events of FULL_SYNC / MANUAL_SYNC jobs running at once; the
+ *                                  remaining slots stay free for INCREMENTAL jobs
+ * @param backfillCost              share charged to a workspace per backfill event, relative to
+ *                                  {@code 1} per incremental event
+ * @param workspaceWeights          per-workspace share multiplier (default {@code 1}); a workspace
+ *                                  with weight 2 gets twice the slots of a weight-1 workspace
+ *                                  under contention
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.fair-scheduler")
+public record FairSchedulerProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("8") int maxInFlightEvents,
+        @DefaultValue("3") int maxInFlightPerConnection,
+        @DefaultValue("6") int maxInFlightBackfillEvents,
+        @DefaultValue("4") int backfillCost,
+        Map<Long, Integer> workspaceWeights
+) {
+
+    public FairSchedulerProperties {
+        workspaceWeights = workspaceWeights != null ? Map.copyOf(workspaceWeights) : Map.of();
+    }
+
+    public int weightOf(long workspaceId) {
+        return Math.max(1, workspaceWeights.getOrDefault(workspaceId, 1));
+    }
+}
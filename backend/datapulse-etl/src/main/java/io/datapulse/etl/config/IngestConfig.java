@@ -1,17 +1,34 @@
 package io.datapulse.etl.config;
 
 import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-@EnableConfigurationProperties(IngestProperties.class)
+@EnableConfigurationProperties({IngestProperties.class, CanonicalWriteProperties.class,
+    SkuCacheProperties.class, NormalizerProperties.class, CaptureWindowProperties.class,
+    FairSchedulerProperties.class, FactWindowProperties.class, YandexReportProperties.class,
+    JobItemBufferProperties.class})
 public class IngestConfig {
 
   @Bean
   Clock ingestClock() {
     return Clock.systemDefaultZone();
   }
+
+  @Bean("yandexReportScheduler")
+  ScheduledExecutorService yandexReportScheduler(YandexReportProperties properties) {
+    AtomicInteger counter = new AtomicInteger();
+    return Executors.newScheduledThreadPool(Math.max(1, properties.schedulerThreads()), r -> {
+      Thread thread = new Thread(r);
+      thread.setName("yandex-report-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
 }
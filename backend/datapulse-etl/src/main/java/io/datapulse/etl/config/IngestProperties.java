@@ -48,7 +48,38 @@ public record IngestProperties(
          * this threshold. Mitigates silent ack + stuck job when the broker does not set redelivered.
          * Set to {@code PT0S} to disable (only {@code redelivered=true} reclaims).
          */
-        @DefaultValue("PT15M") Duration inProgressOrphanReclaimThreshold
+        @DefaultValue("PT15M") Duration inProgressOrphanReclaimThreshold,
+        /**
+         * Normalize/UPSERT captured pages while the adapter is still fetching later pages
+         * ({@link io.datapulse.etl.domain.SubSourceRunner#streamPages}). When {@code false}, every
+         * sub-source captures all pages first and processes them afterwards.
+         */
+        @DefaultValue("true") boolean capturePipelineEnabled,
+        /**
+         * Max captured-but-unprocessed pages buffered between capture and normalize. The capturing
+         * thread blocks once the queue is full; each page is drained in
+         * {@link #canonicalBatchSize} record batches.
+         */
+        @DefaultValue("4") int capturePipelineQueuePages,
+        /**
+         * Max sub-sources of one event running at the same time against a single
+         * {@link io.datapulse.integration.domain.ratelimit.RateLimitGroup}
+         * ({@link io.datapulse.etl.domain.SubSourceScheduler}). Sub-sources on different groups
+         * always run concurrently.
+         */
+        @DefaultValue("1") int subSourceConcurrencyPerRateLimitGroup,
+        /**
+         * Skip normalize/UPSERT of raw pages unchanged since the last successful sync for
+         * sub-sources that opt in via {@link io.datapulse.etl.domain.PageDedupScope}. Fingerprints
+         * are maintained either way, so the flag can be toggled safely.
+         */
+        @DefaultValue("true") boolean rawPageDedupEnabled,
+        /**
+         * Max captured pages of one sub-source read and normalized ahead of the oldest page not yet
+         * written during an offline replay ({@link io.datapulse.etl.domain.RawPageReplayService});
+         * pages are still written in capture order.
+         */
+        @DefaultValue("4") int replayPagesInFlight
 ) {
 
   /**
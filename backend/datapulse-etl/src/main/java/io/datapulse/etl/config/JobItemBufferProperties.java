@@ -0,0 +1,27 @@
+package io.datapulse.etl.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Write-behind buffer of job_item bookkeeping
+ * ({@link io.datapulse.etl.persistence.JobItemWriteBuffer}).
+ *
+ * @param enabled       {@code false} writes every job_item insert and status change immediately
+ * @param maxPending    buffered inserts + status changes that trigger a flush on the writing
+ *                      thread; also the size of the job_item id block reserved at once
+ * @param flushInterval period of the background flush, i.e. the longest a page's bookkeeping
+ *                      stays invisible to job monitoring
+ * @param maxAttempts   flushes a single operation may fail with a non-transient error (e.g. a
+ *                      constraint violation) before an insert is parked and a status change
+ *                      dropped
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.job-item-buffer")
+public record JobItemBufferProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("200") int maxPending,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("3") int maxAttempts
+) {}
@@ -0,0 +1,16 @@
+package io.datapulse.etl.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Normalization path for sources that have a token-stream reader
+ * ({@link io.datapulse.etl.domain.RecordTokenReader}) — currently WB and Ozon finance facts.
+ *
+ * @param tokenStreaming {@code true} normalizes raw pages straight from the JSON token stream into
+ *                       reused row buffers; {@code false} binds provider DTOs first, as before
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.normalizer")
+public record NormalizerProperties(
+        @DefaultValue("true") boolean tokenStreaming
+) {}
@@ -1,10 +1,31 @@
 package io.datapulse.etl.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
+/**
+ * Raw layer retention ({@link io.datapulse.etl.domain.RetentionService}).
+ *
+ * @param financeMonths   age after which FACT_FINANCE pages expire
+ * @param flowMonths      age after which flow event pages expire
+ * @param stateKeepCount  runs kept per connection for state events
+ * @param scanBatchSize   job_item rows selected per keyset page
+ * @param deleteBatchSize keys per multi-object delete request (S3 allows at most 1000)
+ * @param maxRunDuration  time budget of one run; an unfinished pass resumes from its persisted
+ *                        cursor on the next run. Keep below the scheduler lock's
+ *                        {@code lockAtMostFor}
+ * @param lifecycleRules  tag uploaded raw pages with their event and install bucket lifecycle
+ *                        rules expiring finance and flow pages in the store itself
+ */
 @ConfigurationProperties(prefix = "datapulse.etl.retention")
 public record RetentionProperties(
         int financeMonths,
         int flowMonths,
-        int stateKeepCount
+        int stateKeepCount,
+        @DefaultValue("5000") int scanBatchSize,
+        @DefaultValue("1000") int deleteBatchSize,
+        @DefaultValue("50m") Duration maxRunDuration,
+        @DefaultValue("false") boolean lifecycleRules
 ) {}
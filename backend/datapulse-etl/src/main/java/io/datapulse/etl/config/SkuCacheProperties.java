@@ -0,0 +1,24 @@
+package io.datapulse.etl.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Process-wide SKU/offer resolution cache
+ * ({@link io.datapulse.etl.persistence.canonical.SkuResolutionCache}).
+ *
+ * @param enabled    {@code false} loads every mapping from PostgreSQL on each request (still into
+ *                   compact tables), as before the cache existed
+ * @param maxEntries memory bound: total keys across all cached mappings; least recently used
+ *                   mappings are evicted beyond it, a single larger mapping is never cached
+ * @param maxAge     full reload interval; bounds staleness from writes made by other instances,
+ *                   local writes are patched in immediately
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.sku-cache")
+public record SkuCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2000000") long maxEntries,
+        @DefaultValue("PT30M") Duration maxAge
+) {}
@@ -0,0 +1,32 @@
+package io.datapulse.etl.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Yandex Market async reports ({@link io.datapulse.etl.adapter.yandex.AsyncReportCapture}).
+ *
+ * @param initialWait              delay between generation and the first status poll
+ * @param pollInterval             delay between status polls; doubles after every pending poll
+ * @param maxPollInterval          upper bound of the doubled poll delay
+ * @param pollTimeout              how long one capture polls before failing; the report itself
+ *                                 stays resumable, so a retried job keeps polling it
+ * @param maxInFlightPerConnection reports of one connection generated or polled at the same
+ *                                 time; further reports wait without holding a thread
+ * @param resumeMaxAge             a report generated earlier than this is requested again
+ *                                 instead of being resumed
+ * @param schedulerThreads         threads of {@code yandexReportScheduler}, which only time
+ *                                 the delays between report steps
+ */
+@ConfigurationProperties(prefix = "datapulse.etl.yandex-reports")
+public record YandexReportProperties(
+        @DefaultValue("5s") Duration initialWait,
+        @DefaultValue("5s") Duration pollInterval,
+        @DefaultValue("30s") Duration maxPollInterval,
+        @DefaultValue("10m") Duration pollTimeout,
+        @DefaultValue("4") int maxInFlightPerConnection,
+        @DefaultValue("3h") Duration resumeMaxAge,
+        @DefaultValue("2") int schedulerThreads
+) {}
@@ -0,0 +1,25 @@
+package io.datapulse.etl.domain;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link EventSource} whose pipeline waits on the marketplace rather than on its own work
+ * (e.g. Yandex async reports that take minutes to build).
+ *
+ * <p>{@link #executeAsync} only starts the work on the calling {@code etlExecutor} thread and
+ * returns; the thread goes back to the pool while the future is pending.
+ * {@link FairShareEventScheduler} parks such an event so its slot is not held either.</p>
+ */
+public interface AsyncEventSource extends EventSource {
+
+    /**
+     * Starts the pipeline; the future completes with one result per sub-source.
+     */
+    CompletableFuture<List<SubSourceResult>> executeAsync(IngestContext context);
+
+    @Override
+    default List<SubSourceResult> execute(IngestContext context) {
+        return executeAsync(context).join();
+    }
+}
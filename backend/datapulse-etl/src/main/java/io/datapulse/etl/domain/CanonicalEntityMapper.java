@@ -4,7 +4,7 @@ import io.datapulse.etl.domain.normalized.NormalizedCatalogItem;
 import io.datapulse.etl.domain.normalized.NormalizedCategory;
 import java.time.OffsetDateTime;
 
-import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
+import io.datapulse.etl.domain.normalized.FinanceEntryFields;
 import io.datapulse.etl.domain.normalized.NormalizedOrderItem;
 import io.datapulse.etl.domain.normalized.NormalizedPriceItem;
 import io.datapulse.etl.domain.normalized.NormalizedPromoCampaign;
@@ -179,7 +179,7 @@ public class CanonicalEntityMapper {
      * @param warehouseId      resolved FK to warehouse (nullable — non-warehouse ops)
      * @param attributionLevel computed: POSTING, PRODUCT, or ACCOUNT
      */
-    public CanonicalFinanceEntryEntity toFinanceEntry(NormalizedFinanceItem norm,
+    public CanonicalFinanceEntryEntity toFinanceEntry(FinanceEntryFields norm,
                                                       IngestContext ctx,
                                                       Long sellerSkuId,
                                                       Long warehouseId,
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import io.datapulse.etl.domain.normalized.FinanceEntryFields;
 import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
 import io.datapulse.etl.persistence.canonical.CanonicalFinanceEntryEntity;
 import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
@@ -16,6 +17,8 @@ import org.springframework.stereotype.Service;
 /**
  * Orchestrates the full canonical finance normalization pipeline:
  * NormalizedFinanceItem → resolve SKU → resolve warehouse → compute attribution → entity.
+ * Token-stream sources pass {@link io.datapulse.etl.domain.normalized.FinanceRowBuffer}s
+ * through the same path via {@link FinanceEntryFields}.
  *
  * <p>SKU resolution uses a per-batch cache to avoid redundant DB lookups
  * (the same SKU appears dozens of times in a typical finance batch).</p>
@@ -37,7 +40,7 @@ public class CanonicalFinanceNormalizer {
      * Normalizes a batch of NormalizedFinanceItems into canonical entities.
      * Uses a per-batch SKU cache for efficient lookups.
      */
-    public List<CanonicalFinanceEntryEntity> normalizeBatch(List<NormalizedFinanceItem> items,
+    public List<CanonicalFinanceEntryEntity> normalizeBatch(List<? extends FinanceEntryFields> items,
                                                             IngestContext ctx) {
         var skuCache = new HashMap<String, Optional<Long>>();
         var warehouseCache = new HashMap<String, Optional<Long>>();
@@ -54,7 +57,7 @@ public class CanonicalFinanceNormalizer {
         return normalize(raw, ctx, new HashMap<>(), new HashMap<>());
     }
 
-    private CanonicalFinanceEntryEntity normalize(NormalizedFinanceItem raw,
+    private CanonicalFinanceEntryEntity normalize(FinanceEntryFields raw,
                                                   IngestContext ctx,
                                                   Map<String, Optional<Long>> skuCache,
                                                   Map<String, Optional<Long>> warehouseCache) {
@@ -71,7 +74,7 @@ public class CanonicalFinanceNormalizer {
      * 2. Fallback: product_master lookup by sellerSku (vendorCode) + workspaceId
      * 3. Miss: NULL + log.warn
      */
-    private Long resolveSellerSkuId(NormalizedFinanceItem raw,
+    private Long resolveSellerSkuId(FinanceEntryFields raw,
                                     IngestContext ctx,
                                     Map<String, Optional<Long>> cache) {
         String cacheKey = buildSkuCacheKey(raw);
@@ -100,7 +103,7 @@ public class CanonicalFinanceNormalizer {
         return resolved.orElse(null);
     }
 
-    private Long resolveWarehouseId(NormalizedFinanceItem raw,
+    private Long resolveWarehouseId(FinanceEntryFields raw,
                                     IngestContext ctx,
                                     Map<String, Optional<Long>> cache) {
         String externalId = raw.warehouseExternalId();
@@ -124,7 +127,7 @@ public class CanonicalFinanceNormalizer {
      * ELIF seller_sku_id IS NOT NULL → PRODUCT
      * ELSE → ACCOUNT
      */
-    private static String computeAttribution(NormalizedFinanceItem raw, Long sellerSkuId) {
+    private static String computeAttribution(FinanceEntryFields raw, Long sellerSkuId) {
         if (raw.postingId() != null || raw.orderId() != null) {
             return ATTRIBUTION_POSTING;
         }
@@ -134,7 +137,7 @@ public class CanonicalFinanceNormalizer {
         return ATTRIBUTION_ACCOUNT;
     }
 
-    private static String buildSkuCacheKey(NormalizedFinanceItem raw) {
+    private static String buildSkuCacheKey(FinanceEntryFields raw) {
         if (raw.marketplaceSku() != null) {
             return "msku:" + raw.marketplaceSku();
         }
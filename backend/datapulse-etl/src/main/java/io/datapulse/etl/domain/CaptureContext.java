@@ -1,9 +1,25 @@
 package io.datapulse.etl.domain;
 
+/**
+ * @param pageListener notified for every captured page (see {@link CapturedPageListener});
+ *     {@link CapturedPageListener#NONE} when the caller processes pages after capture completes
+ */
 public record CaptureContext(
         long jobExecutionId,
         long connectionId,
         EtlEventType etlEvent,
         String sourceId,
-        String requestId
-) {}
+        String requestId,
+        CapturedPageListener pageListener
+) {
+
+    public CaptureContext(long jobExecutionId, long connectionId, EtlEventType etlEvent,
+                          String sourceId, String requestId) {
+        this(jobExecutionId, connectionId, etlEvent, sourceId, requestId, CapturedPageListener.NONE);
+    }
+
+    public CaptureContext withPageListener(CapturedPageListener listener) {
+        return new CaptureContext(jobExecutionId, connectionId, etlEvent, sourceId, requestId,
+                listener != null ? listener : CapturedPageListener.NONE);
+    }
+}
@@ -23,16 +23,19 @@ public final class CaptureContextFactory {
     }
 
     /**
-     * Creates a copy with a fresh {@code requestId} — used when a single adapter
-     * splits work into multiple date windows, each needing unique S3 paths.
+     * Copy for date window {@code windowIndex} of a windowed capture: {@code requestId} is
+     * derived from the parent's, so every window gets its own S3 prefix and the same window and
+     * page always map to the same key within a capture. The page listener is carried over so
+     * pipelined processing sees every window.
      */
-    public static CaptureContext withNewRequestId(CaptureContext ctx) {
+    public static CaptureContext forWindow(CaptureContext ctx, int windowIndex) {
         return new CaptureContext(
                 ctx.jobExecutionId(),
                 ctx.connectionId(),
                 ctx.etlEvent(),
                 ctx.sourceId(),
-                UUID.randomUUID().toString().substring(0, 8)
+                "%s-w%d".formatted(ctx.requestId(), windowIndex),
+                ctx.pageListener()
         );
     }
 }
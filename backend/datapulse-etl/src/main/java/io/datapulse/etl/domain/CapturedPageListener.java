@@ -0,0 +1,14 @@
+package io.datapulse.etl.domain;
+
+/**
+ * Callback invoked by {@link io.datapulse.etl.adapter.util.StreamingPageCapture} right after a
+ * page has been uploaded to S3 and its job_item inserted. Lets {@link SubSourceRunner} start
+ * normalizing a page while the adapter is still fetching the next ones.
+ */
+@FunctionalInterface
+public interface CapturedPageListener {
+
+    CapturedPageListener NONE = page -> {};
+
+    void onPageCaptured(CaptureResult page);
+}
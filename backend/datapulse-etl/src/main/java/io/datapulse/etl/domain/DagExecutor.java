@@ -5,11 +5,10 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 /**
@@ -26,19 +25,18 @@ import org.springframework.stereotype.Service;
  *   <li>One event failed on a level, others OK → barrier waits for all;
  *       next-level events run if their hard dependencies are satisfied</li>
  * </ul>
+ *
+ * <p>Events are not handed to {@code etlExecutor} directly: {@link FairShareEventScheduler}
+ * admits them against the events of all other running jobs. An event of an
+ * {@link AsyncEventSource} gives its worker thread back while it waits on the marketplace.</p>
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class DagExecutor {
 
     private final EventRunner eventRunner;
-    private final Executor etlExecutor;
-
-    public DagExecutor(EventRunner eventRunner,
-                       @Qualifier("etlExecutor") Executor etlExecutor) {
-        this.eventRunner = eventRunner;
-        this.etlExecutor = etlExecutor;
-    }
+    private final FairShareEventScheduler eventScheduler;
 
     /**
      * Executes the full DAG for the given context.
@@ -74,8 +72,8 @@ public class DagExecutor {
 
                 checkSoftDependencies(eventType, allResults);
 
-                CompletableFuture<EventResult> future = CompletableFuture.supplyAsync(
-                        () -> runWithMdc(eventType, context), etlExecutor);
+                CompletableFuture<EventResult> future = eventScheduler.submitAsync(
+                        context, eventType, () -> runWithMdc(eventType, context));
                 futures.add(future);
             }
 
@@ -96,13 +94,15 @@ public class DagExecutor {
 
     /**
      * Runs event with MDC context so parallel logs are filterable by event_type.
+     * The MDC covers the synchronous part; an {@link AsyncEventSource} finishes without it.
      */
-    private EventResult runWithMdc(EtlEventType eventType, IngestContext context) {
+    private CompletableFuture<EventResult> runWithMdc(EtlEventType eventType,
+                                                      IngestContext context) {
         MDC.put("event_type", eventType.name());
         MDC.put("connection_id", String.valueOf(context.connectionId()));
         MDC.put("job_execution_id", String.valueOf(context.jobExecutionId()));
         try {
-            return eventRunner.run(eventType, context);
+            return eventRunner.runAsync(eventType, context);
         } finally {
             MDC.remove("event_type");
             MDC.remove("connection_id");
@@ -0,0 +1,129 @@
+package io.datapulse.etl.domain;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resume state of a sub-source whose capture is split into date windows captured concurrently.
+ *
+ * <p>Token format: comma-separated {@code w<index>/<windowCount>:<position>} entries, one per
+ * window that did not finish (e.g. {@code w0/12:5,w7/12:1}); {@code position} is the adapter's
+ * own resume value (finance {@code page}, list {@code offset}). On resume, windows with an entry
+ * restart from their position, windows without one completed and are skipped. Windows at or
+ * beyond the recorded {@code windowCount} (the range grew since the failed run) always run.</p>
+ *
+ * <p>A plain token from before windowed capture resumes window 0 only, which is the
+ * pre-existing behaviour.</p>
+ */
+public final class DateWindowResume {
+
+    public static final DateWindowResume NONE = new DateWindowResume(null, Map.of(), 0);
+
+    private static final char PREFIX = 'w';
+
+    private final String legacyPosition;
+    private final Map<Integer, String> positions;
+    private final int windowCount;
+
+    private DateWindowResume(String legacyPosition, Map<Integer, String> positions,
+                             int windowCount) {
+        this.legacyPosition = legacyPosition;
+        this.positions = positions;
+        this.windowCount = windowCount;
+    }
+
+    public static DateWindowResume parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return NONE;
+        }
+        String trimmed = raw.trim();
+        if (!isScoped(trimmed)) {
+            return new DateWindowResume(trimmed, Map.of(), 0);
+        }
+        var positions = new TreeMap<Integer, String>();
+        int count = 0;
+        for (String entry : trimmed.split(",")) {
+            Entry parsed = Entry.parse(entry.trim());
+            if (parsed == null) {
+                return NONE;
+            }
+            positions.putIfAbsent(parsed.window, parsed.position);
+            count = Math.max(count, parsed.windowCount);
+        }
+        return new DateWindowResume(null, Collections.unmodifiableMap(positions), count);
+    }
+
+    /**
+     * Resume token for one page of window {@code window} out of {@code windowCount}.
+     */
+    public static String scopedToken(int window, int windowCount, String position) {
+        return "%c%d/%d:%s".formatted(PREFIX, window, windowCount, position);
+    }
+
+    public static boolean isScoped(String token) {
+        return token != null && !token.isEmpty() && token.charAt(0) == PREFIX
+                && Entry.parse(token.split(",")[0].trim()) != null;
+    }
+
+    /**
+     * Combines two window-scoped tokens, keeping the earliest recorded position per window
+     * ({@code current} wins). Returns {@code current} when either token is not window-scoped.
+     */
+    public static String merge(String current, String next) {
+        if (current == null) {
+            return next;
+        }
+        if (next == null || !isScoped(current) || !isScoped(next)) {
+            return current;
+        }
+        var merged = new StringBuilder(current);
+        DateWindowResume existing = parse(current);
+        for (String entry : next.split(",")) {
+            Entry parsed = Entry.parse(entry.trim());
+            if (parsed != null && !existing.positions.containsKey(parsed.window)) {
+                merged.append(',').append(entry.trim());
+            }
+        }
+        return merged.toString();
+    }
+
+    /**
+     * Whether window {@code window} finished in the failed run and can be skipped.
+     */
+    public boolean skips(int window) {
+        return !positions.isEmpty() && window < windowCount && !positions.containsKey(window);
+    }
+
+    /**
+     * Position to restart {@code window} from, or {@code null} to capture it from the beginning.
+     */
+    public String startFor(int window) {
+        if (legacyPosition != null) {
+            return window == 0 ? legacyPosition : null;
+        }
+        return positions.get(window);
+    }
+
+    private record Entry(int window, int windowCount, String position) {
+
+        private static Entry parse(String entry) {
+            int slash = entry.indexOf('/');
+            int colon = entry.indexOf(':');
+            if (entry.isEmpty() || entry.charAt(0) != PREFIX || slash < 2 || colon < slash + 2
+                    || colon == entry.length() - 1) {
+                return null;
+            }
+            try {
+                int window = Integer.parseInt(entry.substring(1, slash));
+                int count = Integer.parseInt(entry.substring(slash + 1, colon));
+                if (window < 0 || window >= count) {
+                    return null;
+                }
+                return new Entry(window, count, entry.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -48,6 +48,14 @@ public final class EtlSubSourceResume {
     }
   }
 
+  /**
+   * Per-window resume state of a windowed Ozon capture (see {@link DateWindowResume}).
+   */
+  public static DateWindowResume dateWindows(IngestContext ctx, EtlEventType event,
+                                             String sourceId) {
+    return DateWindowResume.parse(ctx.resumeSubSourceCursor(event, sourceId));
+  }
+
   /**
    * Product info batch index (0-based), matching {@link io.datapulse.etl.adapter.ozon.OzonProductInfoReadAdapter}
    * loop {@code pageNumber}. Invalid or missing → 0.
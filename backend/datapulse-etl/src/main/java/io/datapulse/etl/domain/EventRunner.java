@@ -1,7 +1,10 @@
 package io.datapulse.etl.domain;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import io.datapulse.etl.persistence.JobItemWriteBuffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,6 +22,7 @@ import org.springframework.stereotype.Service;
 public class EventRunner {
 
     private final EventSourceRegistry registry;
+    private final JobItemWriteBuffer jobItemBuffer;
 
     /**
      * Executes a single ETL event for the given context.
@@ -27,6 +31,14 @@ public class EventRunner {
      * (e.g. SUPPLY_FACT on Ozon), the event is gracefully skipped.
      */
     public EventResult run(EtlEventType eventType, IngestContext context) {
+        return runAsync(eventType, context).join();
+    }
+
+    /**
+     * Same as {@link #run}, but an {@link AsyncEventSource} returns as soon as its work is
+     * started; the future completes when it finishes. Never completes exceptionally.
+     */
+    public CompletableFuture<EventResult> runAsync(EtlEventType eventType, IngestContext context) {
         log.info("Event started: eventType={}, connectionId={}, jobExecutionId={}",
                 eventType, context.connectionId(), context.jobExecutionId());
 
@@ -35,22 +47,49 @@ public class EventRunner {
             if (source.isEmpty()) {
                 log.info("No EventSource registered for {}/{}, skipping: connectionId={}",
                         context.marketplace(), eventType, context.connectionId());
-                return EventResult.skipped(eventType,
-                        "No source for %s/%s".formatted(context.marketplace(), eventType));
+                return CompletableFuture.completedFuture(EventResult.skipped(eventType,
+                        "No source for %s/%s".formatted(context.marketplace(), eventType)));
+            }
+
+            if (source.get() instanceof AsyncEventSource asyncSource) {
+                return asyncSource.executeAsync(context)
+                        .thenApply(results -> finished(eventType, context, results))
+                        .exceptionally(e -> failed(eventType, context,
+                                e instanceof CompletionException && e.getCause() != null
+                                        ? e.getCause() : e));
             }
 
             List<SubSourceResult> results = source.get().execute(context);
+            return CompletableFuture.completedFuture(finished(eventType, context, results));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failed(eventType, context, e));
+        }
+    }
 
-            EventResult result = EventResult.fromSubSources(eventType, results);
+    /**
+     * Event boundary: the event's buffered job_item writes are committed before its result is
+     * handed on (and eventually checkpointed); a failed flush fails the event.
+     */
+    private EventResult finished(EtlEventType eventType, IngestContext context,
+                                 List<SubSourceResult> results) {
+        jobItemBuffer.flush();
+        EventResult result = EventResult.fromSubSources(eventType, results);
 
-            log.info("Event finished: eventType={}, status={}, connectionId={}",
-                    eventType, result.status(), context.connectionId());
-            return result;
-        } catch (Exception e) {
-            log.error("Event failed with unexpected error: eventType={}, connectionId={}, error={}",
-                    eventType, context.connectionId(), e.getMessage(), e);
-            return EventResult.failed(eventType, List.of(SubSourceResult.failed(
-                    eventType.name(), e.getMessage())));
+        log.info("Event finished: eventType={}, status={}, connectionId={}",
+                eventType, result.status(), context.connectionId());
+        return result;
+    }
+
+    private EventResult failed(EtlEventType eventType, IngestContext context, Throwable e) {
+        log.error("Event failed with unexpected error: eventType={}, connectionId={}, error={}",
+                eventType, context.connectionId(), e.getMessage(), e);
+        try {
+            jobItemBuffer.flush();
+        } catch (RuntimeException flushError) {
+            log.warn("job_item flush after failed event failed: eventType={}, error={}",
+                    eventType, flushError.getMessage());
         }
+        return EventResult.failed(eventType, List.of(SubSourceResult.failed(
+                eventType.name(), e.getMessage())));
     }
 }
@@ -0,0 +1,34 @@
+package io.datapulse.etl.domain;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Fact range one sub-source captures in this run ({@link FactWindowPlanner#plan}).
+ *
+ * @param since    start instant (Ozon {@code since}, finance {@code from})
+ * @param to       end instant; becomes the sub-source's high-water mark once it completes
+ * @param dateFrom {@code since} as a calendar day for date-filtered APIs (WB, Yandex)
+ * @param dateTo   end calendar day for date-filtered APIs
+ * @param mode     why the range starts where it does
+ * @param settles  whether the range spans the whole settlement lookback, so completing it also
+ *                 counts as a settlement sweep
+ */
+public record FactWindow(
+        OffsetDateTime since,
+        OffsetDateTime to,
+        LocalDate dateFrom,
+        LocalDate dateTo,
+        Mode mode,
+        boolean settles
+) {
+
+    public enum Mode {
+        /** Job-wide window: non-INCREMENTAL job, first run of the sub-source, or feature off. */
+        JOB,
+        /** From the sub-source's own high-water mark minus overlap. */
+        DELTA,
+        /** Periodic re-fetch of the whole incremental lookback for late corrections. */
+        SETTLEMENT
+    }
+}
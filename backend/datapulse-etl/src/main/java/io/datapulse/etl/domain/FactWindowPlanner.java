@@ -0,0 +1,116 @@
+package io.datapulse.etl.domain;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import io.datapulse.etl.config.FactWindowProperties;
+import io.datapulse.etl.config.IngestProperties;
+import io.datapulse.etl.persistence.FactSyncWatermarkRepository;
+import io.datapulse.etl.persistence.FactSyncWatermarkRepository.FactSyncWatermark;
+import io.datapulse.platform.observability.MetricsFacade;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Plans the fact range of each fact sub-source from its own high-water mark
+ * ({@code fact_sync_watermark}) instead of the job-wide window in {@link IngestContext}.
+ *
+ * <p>For INCREMENTAL jobs a sub-source with a mark fetches only from {@code mark - overlap}
+ * ({@code fact-sync-overlap}); one whose last settlement is older than
+ * {@code fact-window.settlement-interval} re-fetches the whole
+ * {@code incremental-fact-lookback-days} once to pick up late corrections (returns, finance
+ * adjustments, status changes of postings the delta filter does not see). Other jobs, and a
+ * sub-source's first run, use the job-wide window.</p>
+ *
+ * <p>The mark moves to {@link FactWindow#to()} only when the sub-source completed without errors
+ * ({@link #advance}); a failed or partial sub-source re-fetches the same range next time, so the
+ * range stays stable across DLX retries and resume tokens keep pointing at the same pages.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FactWindowPlanner {
+
+    private static final String INCREMENTAL_EVENT_TYPE = "INCREMENTAL";
+
+    private final FactSyncWatermarkRepository watermarkRepository;
+    private final FactWindowProperties properties;
+    private final IngestProperties ingestProperties;
+    private final MetricsFacade metrics;
+    private final Clock clock;
+
+    public FactWindow plan(IngestContext ctx, EtlEventType event, String sourceId) {
+        OffsetDateTime to = ctx.ozonFactTo();
+        OffsetDateTime settlementStart = to.minusDays(ingestProperties.incrementalFactLookbackDays());
+
+        FactWindow window;
+        if (!properties.enabled() || !INCREMENTAL_EVENT_TYPE.equals(ctx.eventType())) {
+            window = jobWindow(ctx, settlementStart);
+        } else {
+            Optional<FactSyncWatermark> mark = watermarkRepository.find(
+                    ctx.connectionId(), event.name(), sourceId);
+            if (mark.isEmpty()) {
+                window = jobWindow(ctx, settlementStart);
+            } else if (settlementDue(mark.get(), to)) {
+                window = window(settlementStart, to, ctx.wbFactDateTo(),
+                        FactWindow.Mode.SETTLEMENT, true);
+            } else {
+                OffsetDateTime since = mark.get().highWaterMark()
+                        .minus(ingestProperties.factSyncOverlap());
+                if (since.isBefore(settlementStart)) {
+                    since = settlementStart;
+                } else if (since.isAfter(to)) {
+                    since = to;
+                }
+                window = window(since, to, ctx.wbFactDateTo(), FactWindow.Mode.DELTA, false);
+            }
+        }
+
+        String mode = window.mode().name().toLowerCase();
+        metrics.incrementCounter("etl.fact_window.planned", "source_id", sourceId, "mode", mode);
+        metrics.recordSummary("etl.fact_window.hours",
+                Duration.between(window.since(), window.to()).toHours(),
+                "source_id", sourceId, "mode", mode);
+        log.info("Fact window planned: connectionId={}, sourceId={}, mode={}, since={}, to={}",
+                ctx.connectionId(), sourceId, window.mode(), window.since(), window.to());
+        return window;
+    }
+
+    /**
+     * Moves the sub-source's high-water mark to {@code window.to()} when {@code result} completed
+     * without errors. Returns {@code result} unchanged.
+     */
+    public SubSourceResult advance(IngestContext ctx, EtlEventType event, FactWindow window,
+                                   SubSourceResult result) {
+        if (!properties.enabled() || result.status() != EventResultStatus.COMPLETED) {
+            return result;
+        }
+        watermarkRepository.advance(ctx.connectionId(), event.name(), result.sourceId(),
+                window.to(), window.settles() ? window.to() : null, ctx.jobExecutionId());
+        return result;
+    }
+
+    private boolean settlementDue(FactSyncWatermark mark, OffsetDateTime to) {
+        return mark.lastSettlementAt() == null
+                || !mark.lastSettlementAt().plus(properties.settlementInterval()).isAfter(to);
+    }
+
+    private FactWindow jobWindow(IngestContext ctx, OffsetDateTime settlementStart) {
+        return new FactWindow(ctx.ozonFactSince(), ctx.ozonFactTo(), ctx.wbFactDateFrom(),
+                ctx.wbFactDateTo(), FactWindow.Mode.JOB,
+                !ctx.ozonFactSince().isAfter(settlementStart));
+    }
+
+    private FactWindow window(OffsetDateTime since, OffsetDateTime to, LocalDate dateTo,
+                              FactWindow.Mode mode, boolean settles) {
+        LocalDate dateFrom = since.atZoneSameInstant(clock.getZone()).toLocalDate();
+        if (dateFrom.isAfter(dateTo)) {
+            dateFrom = dateTo;
+        }
+        return new FactWindow(since, to, dateFrom, dateTo, mode, settles);
+    }
+}
@@ -0,0 +1,319 @@
+package io.datapulse.etl.domain;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.datapulse.etl.config.FairSchedulerProperties;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admits DAG events of all running jobs onto {@code etlExecutor} with weighted fair sharing
+ * between workspaces, so one seller's full resync cannot take every worker from the incremental
+ * syncs of other sellers.
+ *
+ * <p>Admission rules, evaluated whenever a slot frees up or an event arrives:
+ * <ul>
+ *   <li>At most {@code max-in-flight-events} events run at once, at most
+ *       {@code max-in-flight-per-connection} of them for the same connection.</li>
+ *   <li>Events of INCREMENTAL jobs are admitted before backfill events (FULL_SYNC,
+ *       MANUAL_SYNC), and backfills never hold more than {@code max-in-flight-backfill-events}
+ *       slots — short jobs overtake long ones instead of queueing behind them.</li>
+ *   <li>Within a class the workspace with the lowest virtual time goes first (stride scheduling).
+ *       Admitting an event advances its workspace by {@code cost / weight}; a workspace that
+ *       was idle re-enters at the current virtual time, so idling does not bank credit.</li>
+ * </ul>
+ *
+ * <p>An event whose pipeline returned a pending future ({@link AsyncEventSource}, waiting on a
+ * marketplace report) is <i>parked</i>: it no longer counts against {@code max-in-flight-events}
+ * or the backfill cap, since it holds no worker thread, but still counts against its connection
+ * and workspace until it finishes.</p>
+ *
+ * <p>Metrics: {@code etl.fair_scheduler.queue_depth}, {@code .in_flight} and {@code .parked}
+ * gauges, {@code .wait} timer per job class and {@code .dispatched} counter per workspace (its
+ * share of admitted events).</p>
+ */
+@Slf4j
+@Service
+public class FairShareEventScheduler {
+
+    private static final String INCREMENTAL_EVENT_TYPE = "INCREMENTAL";
+
+    private final Executor etlExecutor;
+    private final FairSchedulerProperties properties;
+    private final MetricsFacade metrics;
+
+    /** Keyed by workspace id; ordered so ties in virtual time resolve deterministically. */
+    private final Map<Long, Tenant> tenants = new TreeMap<>();
+    private final Map<Long, Integer> inFlightByConnection = new HashMap<>();
+    private int inFlight;
+    private int backfillInFlight;
+    private int queued;
+    private int parked;
+    private double virtualTime;
+
+    public FairShareEventScheduler(@Qualifier("etlExecutor") Executor etlExecutor,
+                                   FairSchedulerProperties properties,
+                                   MetricsFacade metrics) {
+        this.etlExecutor = etlExecutor;
+        this.properties = properties;
+        this.metrics = metrics;
+        metrics.gauge("etl.fair_scheduler.queue_depth", this::queuedCount);
+        metrics.gauge("etl.fair_scheduler.in_flight", this::inFlightCount);
+        metrics.gauge("etl.fair_scheduler.parked", this::parkedCount);
+    }
+
+    /**
+     * Queues one event of {@code context}'s job; the returned future completes with the event's
+     * result once it was admitted and ran.
+     */
+    public CompletableFuture<EventResult> submit(IngestContext context, EtlEventType eventType,
+                                                 Supplier<EventResult> event) {
+        return submitAsync(context, eventType,
+                () -> CompletableFuture.completedFuture(event.get()));
+    }
+
+    /**
+     * Like {@link #submit}, for an event that may return before it finished; the event is parked
+     * while its future is pending.
+     */
+    public CompletableFuture<EventResult> submitAsync(
+            IngestContext context, EtlEventType eventType,
+            Supplier<CompletableFuture<EventResult>> event) {
+        if (!properties.enabled()) {
+            return CompletableFuture.supplyAsync(event, etlExecutor)
+                    .thenCompose(Function.identity());
+        }
+        var pending = new PendingEvent(context.workspaceId(), context.connectionId(), eventType,
+                !INCREMENTAL_EVENT_TYPE.equals(context.eventType()), event, metrics.startTimer());
+        synchronized (this) {
+            Tenant tenant = tenants.computeIfAbsent(context.workspaceId(),
+                    id -> new Tenant(properties.weightOf(id)));
+            if (tenant.isIdle()) {
+                tenant.pass = Math.max(tenant.pass, virtualTime);
+            }
+            tenant.queueFor(pending.backfill).add(pending);
+            queued++;
+        }
+        dispatch();
+        return pending.result;
+    }
+
+    private void dispatch() {
+        while (true) {
+            PendingEvent next;
+            synchronized (this) {
+                next = pollNext();
+                if (next == null) {
+                    return;
+                }
+            }
+            start(next);
+        }
+    }
+
+    private void start(PendingEvent pending) {
+        metrics.stopTimer(pending.waitSample, "etl.fair_scheduler.wait",
+                "job_class", pending.jobClass());
+        metrics.incrementCounter("etl.fair_scheduler.dispatched",
+                "workspace_id", String.valueOf(pending.workspaceId), "job_class", pending.jobClass());
+        try {
+            CompletableFuture.supplyAsync(pending.event, etlExecutor)
+                    .thenCompose(result -> {
+                        if (!result.isDone()) {
+                            park(pending);
+                        }
+                        return result;
+                    })
+                    .whenComplete((result, error) -> {
+                        release(pending);
+                        if (error != null) {
+                            pending.result.completeExceptionally(error);
+                        } else {
+                            pending.result.complete(result);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            release(pending);
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Frees the global and backfill slots of an event that returned its thread but has not
+     * finished; connection and workspace accounting stay until {@link #release}.
+     */
+    private void park(PendingEvent pending) {
+        synchronized (this) {
+            inFlight--;
+            if (pending.backfill) {
+                backfillInFlight--;
+            }
+            pending.parked = true;
+            parked++;
+            log.debug("Event parked: workspaceId={}, connectionId={}, eventType={}, parked={}",
+                    pending.workspaceId, pending.connectionId, pending.eventType, parked);
+        }
+        dispatch();
+    }
+
+    private void release(PendingEvent pending) {
+        synchronized (this) {
+            if (pending.parked) {
+                parked--;
+            } else {
+                inFlight--;
+                if (pending.backfill) {
+                    backfillInFlight--;
+                }
+            }
+            inFlightByConnection.computeIfPresent(pending.connectionId,
+                    (id, count) -> count > 1 ? count - 1 : null);
+            Tenant tenant = tenants.get(pending.workspaceId);
+            tenant.running--;
+            if (tenant.isIdle() && tenant.pass <= virtualTime) {
+                tenants.remove(pending.workspaceId);
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Removes and admits the next event, or returns {@code null} when nothing can run now.
+     * Caller holds the monitor.
+     */
+    private PendingEvent pollNext() {
+        if (inFlight >= properties.maxInFlightEvents()) {
+            return null;
+        }
+        PendingEvent next = pollNext(false);
+        if (next == null && backfillInFlight < properties.maxInFlightBackfillEvents()) {
+            next = pollNext(true);
+        }
+        if (next == null) {
+            return null;
+        }
+
+        Tenant tenant = tenants.get(next.workspaceId);
+        virtualTime = Math.max(virtualTime, tenant.pass);
+        int cost = next.backfill ? Math.max(1, properties.backfillCost()) : 1;
+        tenant.pass += (double) cost / tenant.weight;
+        tenant.running++;
+        queued--;
+        inFlight++;
+        if (next.backfill) {
+            backfillInFlight++;
+        }
+        inFlightByConnection.merge(next.connectionId, 1, Integer::sum);
+
+        log.debug("Event admitted: workspaceId={}, connectionId={}, eventType={}, class={}, "
+                        + "inFlight={}, queued={}",
+                next.workspaceId, next.connectionId, next.eventType, next.jobClass(),
+                inFlight, queued);
+        return next;
+    }
+
+    private PendingEvent pollNext(boolean backfill) {
+        Tenant chosen = null;
+        Iterator<PendingEvent> chosenIterator = null;
+        PendingEvent chosenEvent = null;
+        for (Tenant tenant : tenants.values()) {
+            if (chosen != null && tenant.pass >= chosen.pass) {
+                continue;
+            }
+            Iterator<PendingEvent> it = tenant.queueFor(backfill).iterator();
+            while (it.hasNext()) {
+                PendingEvent candidate = it.next();
+                if (connectionHasCapacity(candidate.connectionId)) {
+                    chosen = tenant;
+                    chosenIterator = it;
+                    chosenEvent = candidate;
+                    break;
+                }
+            }
+        }
+        if (chosenIterator != null) {
+            chosenIterator.remove();
+        }
+        return chosenEvent;
+    }
+
+    private boolean connectionHasCapacity(long connectionId) {
+        return inFlightByConnection.getOrDefault(connectionId, 0)
+                < Math.max(1, properties.maxInFlightPerConnection());
+    }
+
+    private synchronized int queuedCount() {
+        return queued;
+    }
+
+    private synchronized int inFlightCount() {
+        return inFlight;
+    }
+
+    private synchronized int parkedCount() {
+        return parked;
+    }
+
+    private static final class Tenant {
+
+        private final int weight;
+        private final Deque<PendingEvent> incremental = new ArrayDeque<>();
+        private final Deque<PendingEvent> backfill = new ArrayDeque<>();
+        private double pass;
+        private int running;
+
+        private Tenant(int weight) {
+            this.weight = weight;
+        }
+
+        private Deque<PendingEvent> queueFor(boolean backfillEvent) {
+            return backfillEvent ? backfill : incremental;
+        }
+
+        private boolean isIdle() {
+            return running == 0 && incremental.isEmpty() && backfill.isEmpty();
+        }
+    }
+
+    private static final class PendingEvent {
+
+        private final long workspaceId;
+        private final long connectionId;
+        private final EtlEventType eventType;
+        private final boolean backfill;
+        private final Supplier<CompletableFuture<EventResult>> event;
+        private final Timer.Sample waitSample;
+        private final CompletableFuture<EventResult> result = new CompletableFuture<>();
+        /** Guarded by the scheduler's monitor. */
+        private boolean parked;
+
+        private PendingEvent(long workspaceId, long connectionId, EtlEventType eventType,
+                             boolean backfill,
+                             Supplier<CompletableFuture<EventResult>> event,
+                             Timer.Sample waitSample) {
+            this.workspaceId = workspaceId;
+            this.connectionId = connectionId;
+            this.eventType = eventType;
+            this.backfill = backfill;
+            this.event = event;
+            this.waitSample = waitSample;
+        }
+
+        private String jobClass() {
+            return backfill ? "backfill" : "incremental";
+        }
+    }
+}
@@ -25,6 +25,7 @@ public class IngestOrchestrator {
   private final IngestJobAcquisitionService jobAcquisition;
   private final IngestSyncContextBuilder syncContextBuilder;
   private final IngestJobCompletionCoordinator jobCompletion;
+  private final RawPageReplayService replayService;
 
   /**
    * Same as {@link #processSync(long, boolean)} with {@code rabbitMqRedelivered=false} (tests,
@@ -56,6 +57,10 @@ public class IngestOrchestrator {
 
     try {
       IngestContext context = syncContextBuilder.build(job);
+      if (RawPageReplayService.REPLAY_EVENT_TYPE.equals(job.getEventType())) {
+        replayService.replay(job, context);
+        return;
+      }
       Map<EtlEventType, EventResult> results = dagExecutor.execute(context);
       jobCompletion.completeAfterDag(job, context, results);
     } catch (Exception e) {
@@ -23,7 +23,9 @@ import io.datapulse.common.error.MessageCodes;
 import io.datapulse.etl.api.JobExecutionResponse;
 import io.datapulse.etl.api.JobFilter;
 import io.datapulse.etl.api.JobItemResponse;
+import io.datapulse.etl.api.JobReplayResponse;
 import io.datapulse.etl.api.JobRetryResponse;
+import io.datapulse.etl.api.ReplayRequest;
 import io.datapulse.etl.persistence.JobExecutionRepository;
 import io.datapulse.etl.persistence.JobExecutionRow;
 import io.datapulse.etl.persistence.JobItemRepository;
@@ -118,6 +120,56 @@ public class JobMonitoringService {
         return new JobRetryResponse(newJobId, "Retry job created");
     }
 
+    /**
+     * Queues a {@link RawPageReplayService#REPLAY_EVENT_TYPE} job re-normalizing the connection's
+     * raw pages of {@code request.domains()} captured in {@code [from, to)}. Like any sync it
+     * holds the connection's active-job slot while it runs.
+     */
+    @Transactional
+    public JobReplayResponse requestReplay(long connectionId, long workspaceId,
+                                           ReplayRequest request) {
+        ensureConnectionBelongsToWorkspace(connectionId, workspaceId);
+        if (!request.from().isBefore(request.to())) {
+            throw BadRequestException.of(MessageCodes.JOB_REPLAY_INVALID_RANGE,
+                    request.from(), request.to());
+        }
+
+        connectionStaleJobReconciler.reconcileForDispatch(connectionId);
+        if (jobExecutionRepository.existsActiveForConnection(connectionId)) {
+            throw ConflictException.of(MessageCodes.JOB_ACTIVE_EXISTS, connectionId);
+        }
+
+        long jobId = jobExecutionRepository.insert(connectionId,
+                RawPageReplayService.REPLAY_EVENT_TYPE, buildReplayParamsJson(request));
+
+        outboxService.createEvent(
+                OutboxEventType.ETL_SYNC_EXECUTE,
+                "job_execution",
+                jobId,
+                Map.of("jobExecutionId", jobId,
+                        "connectionId", connectionId,
+                        "trigger", "replay"));
+
+        log.info("Replay job created: jobId={}, connectionId={}, domains={}, from={}, to={}",
+                jobId, connectionId, request.domains(), request.from(), request.to());
+
+        return new JobReplayResponse(jobId, "Replay job created");
+    }
+
+    private String buildReplayParamsJson(ReplayRequest request) {
+        try {
+            ObjectNode root = objectMapper.createObjectNode();
+            var domains = root.putArray("domains");
+            request.domains().stream().sorted().forEach(domain -> domains.add(domain.name()));
+            root.put("from", request.from().toString());
+            root.put("to", request.to().toString());
+            root.put("trigger", "replay");
+            return objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize replay job params", e);
+        }
+    }
+
     private String buildRetryParamsJson(long sourceJobId) {
         try {
             ObjectNode root = objectMapper.createObjectNode();
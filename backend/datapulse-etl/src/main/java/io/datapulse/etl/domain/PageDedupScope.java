@@ -0,0 +1,77 @@
+package io.datapulse.etl.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Opt-in for {@link SubSourceRunner} to skip pages whose bytes match the last successfully
+ * processed page with the same identity. Only for sub-sources whose batch processor is a pure
+ * UPSERT of the page content (dictionaries, snapshots) — never for processors that collect
+ * state for later steps (e.g. product ID lists).
+ *
+ * @param connectionId      marketplace_connection PK
+ * @param event             DAG event of the sub-source
+ * @param sourceId          sub-source id passed to {@link SubSourceRunner#processPages}
+ * @param forceRefresh      process every page regardless of the stored fingerprint
+ * @param dependencyVersion extra input the processor depends on besides page bytes (e.g. a
+ *                          content hash of the offer lookup map, so pages skipped on lookup
+ *                          misses or resolved to a relinked offer are processed again);
+ *                          {@code null} when none
+ */
+public record PageDedupScope(
+        long connectionId,
+        EtlEventType event,
+        String sourceId,
+        boolean forceRefresh,
+        String dependencyVersion
+) {
+
+    private static final String INCREMENTAL_EVENT_TYPE = "INCREMENTAL";
+
+    /**
+     * Scheduled INCREMENTAL jobs deduplicate; FULL_SYNC and MANUAL_SYNC always force a refresh,
+     * so a manual sync is the override that reprocesses every page.
+     */
+    public static PageDedupScope of(IngestContext ctx, EtlEventType event, String sourceId) {
+        return of(ctx, event, sourceId, null);
+    }
+
+    public static PageDedupScope of(IngestContext ctx, EtlEventType event, String sourceId,
+                                    String dependencyVersion) {
+        return new PageDedupScope(ctx.connectionId(), event, sourceId,
+                !INCREMENTAL_EVENT_TYPE.equals(ctx.eventType()), dependencyVersion);
+    }
+
+    /**
+     * Identity of a page across syncs: file name of the S3 key ({@code page-N.json}) plus the
+     * request offset / resume key when the adapter tracks one.
+     */
+    static String pageIdentity(CaptureResult page) {
+        String key = page.s3Key();
+        String identity = key.substring(key.lastIndexOf('/') + 1);
+        if (page.listResumeKey() != null && !page.listResumeKey().isBlank()) {
+            return identity + "|" + page.listResumeKey().trim();
+        }
+        if (page.listRequestOffset() != null) {
+            return identity + "|" + page.listRequestOffset();
+        }
+        return identity;
+    }
+
+    String fingerprint(CaptureResult page) {
+        if (dependencyVersion == null) {
+            return page.contentSha256();
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(page.contentSha256().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '|');
+            digest.update(dependencyVersion.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
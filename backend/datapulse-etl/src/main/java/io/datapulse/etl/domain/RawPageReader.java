@@ -1,17 +1,23 @@
 package io.datapulse.etl.domain;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.datapulse.etl.adapter.s3.RawPageCompression;
 import io.datapulse.etl.config.IngestProperties;
 import io.datapulse.etl.config.S3Properties;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
 import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +28,11 @@ import org.springframework.stereotype.Service;
  * Reads raw JSON pages from S3 using Jackson streaming API.
  * Batch size is controlled by {@code datapulse.etl.ingest.canonical-batch-size}
  * (default 500, ~1.5 MB memory footprint per batch).
+ * <p>
+ * Gzip-compressed objects are decompressed on the fly; the encoding is detected from the
+ * object's magic bytes, so pages stored before compression was enabled read unchanged.
+ * <p>
+ * {@link #readTokens} skips DTO binding altogether for sources with a {@link RecordTokenReader}.
  */
 @Slf4j
 @Service
@@ -32,6 +43,9 @@ public class RawPageReader {
     private final S3Properties s3Properties;
     private final ObjectMapper objectMapper;
     private final IngestProperties ingestProperties;
+    private final MetricsFacade metrics;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     public <T> void readBatched(String s3Key, Class<T> recordType, Consumer<List<T>> batchConsumer) {
         readBatched(s3Key, recordType, ingestProperties.canonicalBatchSize(), batchConsumer);
@@ -39,9 +53,12 @@ public class RawPageReader {
 
     public <T> void readBatched(String s3Key, Class<T> recordType, int batchSize,
                                 Consumer<List<T>> batchConsumer) {
+        Timer.Sample sample = metrics.startTimer();
+        String encoding = null;
         try (InputStream s3Stream = openS3Stream(s3Key);
              JsonParser parser = objectMapper.getFactory().createParser(s3Stream)) {
 
+            encoding = encodingOf(s3Stream);
             skipToArrayContent(parser);
 
             List<T> batch = new ArrayList<>(batchSize);
@@ -65,6 +82,64 @@ public class RawPageReader {
             }
 
             log.debug("Read completed: s3Key={}, totalRecords={}", s3Key, totalRecords);
+            metrics.stopTimer(sample, "etl.raw_page.read.duration",
+                    "encoding", encoding, "mode", "dto");
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read raw page: s3Key=%s".formatted(s3Key), e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read raw page: s3Key=%s".formatted(s3Key), e);
+        }
+    }
+
+    public <B> void readTokens(String s3Key, RecordTokenReader<B> recordReader,
+                               Consumer<List<B>> batchConsumer) {
+        readTokens(s3Key, recordReader, ingestProperties.canonicalBatchSize(), batchConsumer);
+    }
+
+    /**
+     * Token-stream variant of {@link #readBatched}: each record is handed to
+     * {@code recordReader} as parser tokens and lands in one of {@code batchSize} buffers
+     * allocated once per page. The list passed to {@code batchConsumer} is a view over those
+     * buffers and is refilled after the consumer returns — consumers must not retain it.
+     */
+    public <B> void readTokens(String s3Key, RecordTokenReader<B> recordReader, int batchSize,
+                               Consumer<List<B>> batchConsumer) {
+        Timer.Sample sample = metrics.startTimer();
+        String encoding = null;
+        try (InputStream s3Stream = openS3Stream(s3Key);
+             JsonParser parser = objectMapper.getFactory().createParser(s3Stream)) {
+
+            encoding = encodingOf(s3Stream);
+            skipToArrayContent(parser);
+
+            List<B> buffers = new ArrayList<>(batchSize);
+            int filled = 0;
+            int totalRecords = 0;
+
+            while (parser.nextToken() != JsonToken.END_ARRAY && parser.currentToken() != null) {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                    continue;
+                }
+                if (filled == buffers.size()) {
+                    buffers.add(recordReader.newBuffer());
+                }
+                recordReader.read(parser, buffers.get(filled++));
+                totalRecords++;
+
+                if (filled >= batchSize) {
+                    batchConsumer.accept(Collections.unmodifiableList(buffers));
+                    filled = 0;
+                }
+            }
+
+            if (filled > 0) {
+                batchConsumer.accept(Collections.unmodifiableList(buffers.subList(0, filled)));
+            }
+
+            log.debug("Read completed: s3Key={}, totalRecords={}", s3Key, totalRecords);
+            metrics.stopTimer(sample, "etl.raw_page.read.duration",
+                    "encoding", encoding, "mode", "tokens");
 
         } catch (IOException e) {
             throw new UncheckedIOException("Failed to read raw page: s3Key=%s".formatted(s3Key), e);
@@ -108,10 +183,15 @@ public class RawPageReader {
     }
 
     private InputStream openS3Stream(String s3Key) throws Exception {
-        return minioClient.getObject(GetObjectArgs.builder()
+        var stored = new BufferedInputStream(minioClient.getObject(GetObjectArgs.builder()
                 .bucket(s3Properties.rawBucket())
                 .object(s3Key)
-                .build());
+                .build()), BUFFER_SIZE);
+        return RawPageCompression.isGzip(stored) ? new GZIPInputStream(stored, BUFFER_SIZE) : stored;
+    }
+
+    private static String encodingOf(InputStream stream) {
+        return stream instanceof GZIPInputStream ? "gzip" : "identity";
     }
 
     /**
@@ -0,0 +1,361 @@
+package io.datapulse.etl.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.datapulse.etl.persistence.JobExecutionRepository;
+import io.datapulse.etl.persistence.JobExecutionRow;
+import io.datapulse.etl.persistence.JobItemRepository;
+import io.datapulse.etl.persistence.JobItemRow;
+import io.datapulse.platform.etl.PostIngestMaterializationHook;
+import io.datapulse.platform.etl.PostIngestMaterializationResult;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Offline re-normalization of raw pages already captured in S3: runs the normalize→UPSERT half
+ * of the pipeline again (e.g. after a normalizer fix) without calling the marketplace.
+ *
+ * <p>A {@value #REPLAY_EVENT_TYPE} job carries {@code domains}, {@code from} and {@code to} in its
+ * params and selects the connection's job_items of those events captured in {@code [from, to)},
+ * {@value #ITEM_BATCH_SIZE} at a time. Events are replayed in parallel on
+ * {@code etlReplayExecutor}; within an event, source jobs and their sub-sources run one after
+ * another in capture order. A sub-source's pages are read and normalized in parallel on the same
+ * executor but UPSERTed in capture order ({@link SubSourceRunner#replayPages}), so the
+ * last-writer-wins outcome of the original runs is kept. The source jobs' job_item statuses are
+ * left as they are.</p>
+ *
+ * <p>UPSERTs stamp the replay job id on rows whose values changed, so materialization runs once
+ * for this job and rebuilds exactly the corrected rows. Sync state is left alone: a replay is
+ * not a marketplace sync and must not move the incremental window.</p>
+ */
+@Slf4j
+@Service
+public class RawPageReplayService {
+
+  public static final String REPLAY_EVENT_TYPE = "REPLAY";
+
+  /** job_items read per {@link JobItemRepository#findForReplay} call. */
+  static final int ITEM_BATCH_SIZE = 500;
+
+  private final JobExecutionRepository jobExecutionRepository;
+  private final JobItemRepository jobItemRepository;
+  private final EventSourceRegistry sourceRegistry;
+  private final PostIngestMaterializationHook postIngestMaterialization;
+  private final IngestResultReporter resultReporter;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final MetricsFacade metrics;
+  private final Executor executor;
+
+  public RawPageReplayService(JobExecutionRepository jobExecutionRepository,
+                              JobItemRepository jobItemRepository,
+                              EventSourceRegistry sourceRegistry,
+                              PostIngestMaterializationHook postIngestMaterialization,
+                              IngestResultReporter resultReporter,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              MetricsFacade metrics,
+                              @Qualifier("etlReplayExecutor") Executor executor) {
+    this.jobExecutionRepository = jobExecutionRepository;
+    this.jobItemRepository = jobItemRepository;
+    this.sourceRegistry = sourceRegistry;
+    this.postIngestMaterialization = postIngestMaterialization;
+    this.resultReporter = resultReporter;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.metrics = metrics;
+    this.executor = executor;
+  }
+
+  /**
+   * Replays the pages selected by {@code job}'s params and drives the job to its terminal status.
+   * The job must already be IN_PROGRESS.
+   */
+  public void replay(JobExecutionRow job, IngestContext context) {
+    long jobId = job.getId();
+    ReplayParams params = parseParams(job.getParams());
+    Timer.Sample sample = metrics.startTimer();
+
+    List<CompletableFuture<EventReplay>> futures = params.domains().stream()
+        .map(event -> CompletableFuture.supplyAsync(
+            () -> replayEvent(job.getConnectionId(), event, params, context), executor))
+        .toList();
+    Map<EtlEventType, EventReplay> replays = new EnumMap<>(EtlEventType.class);
+    for (CompletableFuture<EventReplay> future : futures) {
+      EventReplay replay = join(future);
+      replays.put(replay.event, replay);
+    }
+
+    int pages = replays.values().stream().mapToInt(replay -> replay.pages).sum();
+    if (pages == 0) {
+      jobExecutionRepository.casStatus(jobId, JobExecutionStatus.IN_PROGRESS,
+          JobExecutionStatus.COMPLETED);
+      log.info("Replay found no pages: jobExecutionId={}, domains={}, from={}, to={}",
+          jobId, params.domains(), params.from(), params.to());
+      return;
+    }
+
+    complete(jobId, buildResults(replays));
+
+    metrics.stopTimer(sample, "etl.replay.duration");
+    Map<EtlEventType, Integer> unsupportedPages = new EnumMap<>(EtlEventType.class);
+    replays.values().stream()
+        .filter(replay -> replay.unsupportedPages > 0)
+        .forEach(replay -> unsupportedPages.put(replay.event, replay.unsupportedPages));
+    log.info("Replay finished: jobExecutionId={}, pages={}, unsupportedPages={}",
+        jobId, pages, unsupportedPages);
+  }
+
+  /**
+   * Pages through one event's job_items and replays each batch: source jobs in capture order,
+   * each job's sub-sources one after another.
+   */
+  private EventReplay replayEvent(long connectionId, EtlEventType event, ReplayParams params,
+                                  IngestContext context) {
+    EventReplay replay = new EventReplay(event);
+    OffsetDateTime afterCapturedAt = params.from();
+    long afterId = 0;
+    List<JobItemRow> batch;
+    do {
+      batch = jobItemRepository.findForReplay(connectionId, event.name(), params.from(),
+          params.to(), afterCapturedAt, afterId, ITEM_BATCH_SIZE);
+      for (List<JobItemRow> sourceJobPages : groupBySourceJob(batch).values()) {
+        groupBySubSource(sourceJobPages).forEach((sourceId, pages) ->
+            replaySubSource(replay, context, sourceId, pages));
+      }
+      if (!batch.isEmpty()) {
+        JobItemRow last = batch.get(batch.size() - 1);
+        afterCapturedAt = last.getCapturedAt();
+        afterId = last.getId();
+      }
+    } while (batch.size() == ITEM_BATCH_SIZE);
+    return replay;
+  }
+
+  private void replaySubSource(EventReplay replay, IngestContext context, String sourceId,
+                               List<JobItemRow> pages) {
+    String event = replay.event.name();
+    replay.pages += pages.size();
+    Optional<ReplayableEventSource> source = resolve(context, replay.event, sourceId);
+    if (source.isEmpty()) {
+      replay.unsupportedPages += pages.size();
+      metrics.incrementCounter("etl.replay.pages", pages.size(),
+          "event", event, "outcome", "unsupported");
+      return;
+    }
+
+    SubSourceResult result = replayPages(source.get(), context, sourceId, pages);
+    int failed = result.status() == EventResultStatus.FAILED
+        ? pages.size()
+        : Math.min(result.errors().size(), pages.size());
+    metrics.incrementCounter("etl.replay.pages", pages.size() - failed,
+        "event", event, "outcome", "replayed");
+    if (failed > 0) {
+      metrics.incrementCounter("etl.replay.pages", failed,
+          "event", event, "outcome", "failed");
+    }
+    replay.perSubSource.computeIfAbsent(sourceId, s -> new ArrayList<>()).add(result);
+  }
+
+  private SubSourceResult replayPages(ReplayableEventSource source, IngestContext context,
+                                      String sourceId, List<JobItemRow> pages) {
+    List<CaptureResult> captured = pages.stream()
+        .map(page -> new CaptureResult(page.getId(), page.getS3Key(),
+            page.getContentSha256(), page.getByteSize()))
+        .toList();
+    try {
+      return source.replay(context, sourceId, captured);
+    } catch (Exception e) {
+      long sourceJobId = pages.get(0).getJobExecutionId();
+      log.error("Replay of sub-source failed: sourceId={}, sourceJobExecutionId={}, pages={}",
+          sourceId, sourceJobId, pages.size(), e);
+      return SubSourceResult.failed(sourceId,
+          "jobExecutionId=%d: %s".formatted(sourceJobId, e.getMessage()));
+    }
+  }
+
+  private static EventReplay join(CompletableFuture<EventReplay> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private Optional<ReplayableEventSource> resolve(IngestContext context, EtlEventType event,
+                                                  String sourceId) {
+    return sourceRegistry.resolve(context.marketplace(), event)
+        .filter(ReplayableEventSource.class::isInstance)
+        .map(ReplayableEventSource.class::cast)
+        .filter(source -> source.replayableSourceIds().contains(sourceId));
+  }
+
+  private void complete(long jobId, Map<EtlEventType, EventResult> results) {
+    JobExecutionStatus ingestStatus = determineStatus(results);
+    String ingestErrorDetails = resultReporter.buildErrorDetails(results);
+
+    if (ingestStatus == JobExecutionStatus.FAILED) {
+      transactionTemplate.executeWithoutResult(tx -> {
+        jobExecutionRepository.casStatus(jobId, JobExecutionStatus.IN_PROGRESS,
+            JobExecutionStatus.FAILED);
+        jobExecutionRepository.updateErrorDetails(jobId, ingestErrorDetails);
+      });
+      return;
+    }
+
+    transactionTemplate.executeWithoutResult(tx -> {
+      jobExecutionRepository.casStatus(jobId, JobExecutionStatus.IN_PROGRESS,
+          JobExecutionStatus.MATERIALIZING);
+      jobExecutionRepository.updateErrorDetails(jobId, ingestErrorDetails);
+    });
+
+    PostIngestMaterializationResult matResult;
+    try {
+      matResult = postIngestMaterialization.afterSuccessfulIngest(jobId);
+    } catch (Exception e) {
+      log.error("Mart materialization failed after replay: jobExecutionId={}", jobId, e);
+      matResult = PostIngestMaterializationResult.fatal(
+          e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+    }
+
+    JobExecutionStatus terminalStatus = matResult.fullySucceeded()
+        ? ingestStatus
+        : JobExecutionStatus.COMPLETED_WITH_ERRORS;
+    String finalErrorDetails =
+        resultReporter.mergeMaterializationIntoErrorDetails(ingestErrorDetails, matResult);
+    transactionTemplate.executeWithoutResult(tx -> {
+      jobExecutionRepository.casStatus(jobId, JobExecutionStatus.MATERIALIZING, terminalStatus);
+      jobExecutionRepository.updateErrorDetails(jobId, finalErrorDetails);
+    });
+  }
+
+  private static Map<EtlEventType, EventResult> buildResults(
+      Map<EtlEventType, EventReplay> replays) {
+    Map<EtlEventType, EventResult> results = new EnumMap<>(EtlEventType.class);
+    for (EventReplay replay : replays.values()) {
+      if (replay.perSubSource.isEmpty()) {
+        results.put(replay.event, EventResult.skipped(replay.event, replay.unsupportedPages > 0
+            ? "No replayable sub-source" : "No captured pages in range"));
+        continue;
+      }
+      List<SubSourceResult> merged = replay.perSubSource.entrySet().stream()
+          .map(e -> merge(e.getKey(), e.getValue()))
+          .toList();
+      results.put(replay.event, EventResult.fromSubSources(replay.event, merged));
+    }
+    return results;
+  }
+
+  /**
+   * Folds the per-call results of one sub-source (one per source job and item batch) into a
+   * single result, the way a regular run would have reported it.
+   */
+  static SubSourceResult merge(String sourceId, List<SubSourceResult> pageResults) {
+    int records = 0;
+    int skipped = 0;
+    List<String> errors = new ArrayList<>();
+    Set<String> unmappedTypes = new TreeSet<>();
+    boolean anyFailed = false;
+    boolean anyPartial = false;
+    boolean allFailed = true;
+    int pages = 0;
+    for (SubSourceResult page : pageResults) {
+      pages += page.pagesProcessed();
+      records += page.recordsProcessed();
+      skipped += page.recordsSkipped();
+      errors.addAll(page.errors());
+      unmappedTypes.addAll(page.unmappedTypeNames());
+      boolean failed = page.status() == EventResultStatus.FAILED;
+      anyFailed |= failed;
+      allFailed &= failed;
+      anyPartial |= page.status() == EventResultStatus.COMPLETED_WITH_ERRORS;
+    }
+
+    EventResultStatus status;
+    if (allFailed) {
+      status = EventResultStatus.FAILED;
+    } else if (anyFailed || anyPartial) {
+      status = EventResultStatus.COMPLETED_WITH_ERRORS;
+    } else {
+      status = EventResultStatus.COMPLETED;
+    }
+    return new SubSourceResult(sourceId, status, null, pages, records, skipped,
+        errors, unmappedTypes);
+  }
+
+  private static JobExecutionStatus determineStatus(Map<EtlEventType, EventResult> results) {
+    boolean allFailed = results.values().stream().allMatch(r -> r.isFailed() || r.isSkipped());
+    if (allFailed) {
+      return JobExecutionStatus.FAILED;
+    }
+    boolean anyDegraded = results.values().stream()
+        .anyMatch(r -> r.isFailed() || r.status() == EventResultStatus.COMPLETED_WITH_ERRORS);
+    return anyDegraded ? JobExecutionStatus.COMPLETED_WITH_ERRORS : JobExecutionStatus.COMPLETED;
+  }
+
+  private static Map<Long, List<JobItemRow>> groupBySourceJob(List<JobItemRow> items) {
+    Map<Long, List<JobItemRow>> byJob = new LinkedHashMap<>();
+    for (JobItemRow item : items) {
+      byJob.computeIfAbsent(item.getJobExecutionId(), id -> new ArrayList<>()).add(item);
+    }
+    return byJob;
+  }
+
+  private static Map<String, List<JobItemRow>> groupBySubSource(List<JobItemRow> pages) {
+    Map<String, List<JobItemRow>> bySubSource = new LinkedHashMap<>();
+    for (JobItemRow page : pages) {
+      bySubSource.computeIfAbsent(page.getSourceId(), id -> new ArrayList<>()).add(page);
+    }
+    return bySubSource;
+  }
+
+  private ReplayParams parseParams(String paramsJson) {
+    try {
+      JsonNode root = objectMapper.readTree(paramsJson);
+      Set<EtlEventType> domains = EnumSet.noneOf(EtlEventType.class);
+      root.path("domains").forEach(node -> domains.add(EtlEventType.valueOf(node.asText())));
+      return new ReplayParams(domains, OffsetDateTime.parse(root.path("from").asText()),
+          OffsetDateTime.parse(root.path("to").asText()));
+    } catch (JsonProcessingException | RuntimeException e) {
+      throw new IllegalStateException("Invalid replay job params: %s".formatted(paramsJson), e);
+    }
+  }
+
+  private record ReplayParams(Set<EtlEventType> domains, OffsetDateTime from, OffsetDateTime to) {}
+
+  /**
+   * Outcome of one event's replay; only touched by the task replaying that event.
+   */
+  private static final class EventReplay {
+
+    private final EtlEventType event;
+    private final Map<String, List<SubSourceResult>> perSubSource = new LinkedHashMap<>();
+    private int pages;
+    private int unsupportedPages;
+
+    private EventReplay(EtlEventType event) {
+      this.event = event;
+    }
+  }
+}
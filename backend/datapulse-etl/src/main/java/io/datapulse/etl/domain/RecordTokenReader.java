@@ -0,0 +1,24 @@
+package io.datapulse.etl.domain;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Normalizes one raw record straight from the Jackson token stream into a reusable buffer,
+ * skipping the provider DTO. Used by {@link RawPageReader#readTokens}.
+ *
+ * @param <B> mutable row buffer type
+ */
+public interface RecordTokenReader<B> {
+
+    B newBuffer();
+
+    /**
+     * Refills {@code buffer} from the record the parser is positioned on.
+     * Called with the parser on the record's {@code START_OBJECT}; must return with it on the
+     * matching {@code END_OBJECT}. Every field of {@code buffer} must be overwritten: it still
+     * holds the record read into it one batch earlier.
+     */
+    void read(JsonParser parser, B buffer) throws IOException;
+}
@@ -0,0 +1,26 @@
+package io.datapulse.etl.domain;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link EventSource} whose sub-sources can re-run normalize→UPSERT over raw pages already
+ * captured in S3, without calling the marketplace ({@link RawPageReplayService}).
+ *
+ * <p>Only sub-sources whose pages are self-contained qualify: normalizing a page must need
+ * nothing but the page itself and state the canonical layer already holds (SKU lookups).</p>
+ */
+public interface ReplayableEventSource extends EventSource {
+
+    /**
+     * {@code job_item.source_id} values {@link #replay} accepts.
+     */
+    Set<String> replayableSourceIds();
+
+    /**
+     * Normalizes and UPSERTs {@code pages} of sub-source {@code sourceId} under
+     * {@code context}'s job, UPSERTing in the given order, without touching their job_items
+     * ({@link SubSourceRunner#replayPages}: normalization may run in parallel and must not write).
+     */
+    SubSourceResult replay(IngestContext context, String sourceId, List<CaptureResult> pages);
+}
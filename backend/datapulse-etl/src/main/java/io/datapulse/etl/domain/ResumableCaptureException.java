@@ -0,0 +1,24 @@
+package io.datapulse.etl.domain;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Capture failed part-way, but the adapter knows where to resume: {@link SubSourceRunner}
+ * processes {@link #getCapturedPages()} and reports the failure with {@link #getResumeToken()}
+ * as the sub-source cursor, instead of failing the event without one.
+ */
+@Getter
+public class ResumableCaptureException extends RuntimeException {
+
+  private final transient List<CaptureResult> capturedPages;
+  private final String resumeToken;
+
+  public ResumableCaptureException(String message, Throwable cause,
+                                   List<CaptureResult> capturedPages, String resumeToken) {
+    super(message, cause);
+    this.capturedPages = List.copyOf(capturedPages);
+    this.resumeToken = resumeToken;
+  }
+}
@@ -1,16 +1,40 @@
 package io.datapulse.etl.domain;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import io.datapulse.etl.config.RetentionProperties;
 import io.datapulse.etl.config.S3Properties;
 import io.datapulse.etl.persistence.JobItemRepository;
+import io.datapulse.etl.persistence.JobItemRepository.StateRunCutoff;
 import io.datapulse.etl.persistence.JobItemRow;
+import io.datapulse.etl.persistence.RetentionProgressRepository;
+import io.datapulse.etl.persistence.RetentionProgressRepository.RetentionCursor;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
 import io.minio.MinioClient;
-import io.minio.RemoveObjectArgs;
-import lombok.RequiredArgsConstructor;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.SetBucketLifecycleArgs;
+import io.minio.messages.DeleteRequest;
+import io.minio.messages.DeleteResult;
+import io.minio.messages.Filter;
+import io.minio.messages.LifecycleConfiguration;
+import io.minio.messages.Status;
+import io.minio.messages.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 /**
@@ -18,107 +42,255 @@ import org.springframework.stereotype.Service;
  * <ul>
  *   <li>Finance (FACT_FINANCE): time-based, 12 months</li>
  *   <li>Flow (SALES_FACT): time-based, 6 months</li>
- *   <li>State (dictionaries, snapshots): keep_count=3 per (connection, event)</li>
+ *   <li>State (dictionaries, snapshots): keep_count=3 runs per (connection, event); the oldest
+ *       kept run of each connection is looked up once per pass</li>
  * </ul>
  * Deletes S3 objects and marks job_item status as EXPIRED.
+ *
+ * <p>Candidates are selected per event through {@code idx_job_item_retention}
+ * ({@code event_type, captured_at, id}) in keyset pages of {@code scan-batch-size}; each page is
+ * deleted with multi-object deletes of {@code delete-batch-size} keys issued in parallel on
+ * {@code etlRetentionExecutor}. The keyset cursor of every pass is persisted after each page
+ * ({@code retention_progress}): a run that exceeds {@code max-run-duration} stops and the next run
+ * resumes where it left off. Keys whose delete failed stay PROCESSED and are retried by the next
+ * pass.</p>
+ *
+ * <p>With {@code lifecycle-rules} enabled the raw bucket additionally gets one expiration rule per
+ * finance and flow event, matching the {@value #EVENT_TAG} tag {@code S3RawStorage} sets at upload
+ * (keys start with the connection id, so there is no per-event key prefix to filter on). The store
+ * then expires pages on its own; the scan only marks their job_items, since deleting a missing key
+ * succeeds. State retention depends on newer runs and cannot be pushed down.</p>
+ *
+ * <p>Metrics: {@code etl.retention.objects_deleted}, {@code .bytes_deleted} and
+ * {@code .delete_failures} counters and {@code .batch} timer per category, {@code .pass} timer per
+ * category and outcome.</p>
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class RetentionService {
 
-    private static final int BATCH_SIZE = 500;
+    public static final String EVENT_TAG = "event";
+
+    private static final OffsetDateTime CURSOR_START = OffsetDateTime.of(
+            1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final int DAYS_PER_MONTH = 31;
+    private static final int MAX_DELETE_BATCH_SIZE = 1000;
 
     private final MinioClient minioClient;
     private final S3Properties s3Properties;
     private final RetentionProperties retentionProperties;
     private final JobItemRepository jobItemRepository;
+    private final RetentionProgressRepository progressRepository;
+    private final Executor retentionExecutor;
+    private final MetricsFacade metrics;
+    private final Clock clock;
 
-    public void runRetention() {
-        int financeExpired = cleanupTimeBased(
-                "raw/%/FACT_FINANCE/%",
-                retentionProperties.financeMonths(),
-                "finance"
-        );
+    public RetentionService(MinioClient minioClient,
+                            S3Properties s3Properties,
+                            RetentionProperties retentionProperties,
+                            JobItemRepository jobItemRepository,
+                            RetentionProgressRepository progressRepository,
+                            @Qualifier("etlRetentionExecutor") Executor retentionExecutor,
+                            MetricsFacade metrics,
+                            Clock clock) {
+        this.minioClient = minioClient;
+        this.s3Properties = s3Properties;
+        this.retentionProperties = retentionProperties;
+        this.jobItemRepository = jobItemRepository;
+        this.progressRepository = progressRepository;
+        this.retentionExecutor = retentionExecutor;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
 
-        int flowExpired = 0;
-        for (EtlEventType event : EtlEventType.flowEvents()) {
-            flowExpired += cleanupTimeBased(
-                    "raw/%/" + event.name() + "/%",
-                    retentionProperties.flowMonths(),
-                    "flow/" + event.name()
-            );
+    public void runRetention() {
+        Instant deadline = clock.instant().plus(retentionProperties.maxRunDuration());
+        if (retentionProperties.lifecycleRules()) {
+            applyLifecycleRules();
         }
 
-        int stateExpired = 0;
-        for (EtlEventType event : EtlEventType.stateEvents()) {
-            stateExpired += cleanupStateKeepCount(
-                    "raw/%/" + event.name() + "/%",
-                    retentionProperties.stateKeepCount(),
-                    "state/" + event.name()
-            );
+        long[] expired = new long[RetentionCategory.values().length];
+        for (EtlEventType event : EtlEventType.values()) {
+            RetentionCategory category = event.retentionCategory();
+            String label = category.name().toLowerCase() + "/" + event.name();
+            PassResult pass = runPass(label, pageSelector(event, category), deadline);
+            expired[category.ordinal()] += pass.expired();
+            if (!pass.finished()) {
+                log.warn("Retention run budget exhausted, resuming next run: category={}, "
+                                + "maxRunDuration={}", label, retentionProperties.maxRunDuration());
+                break;
+            }
         }
 
         log.info("Retention completed: financeExpired={}, flowExpired={}, stateExpired={}",
-                financeExpired, flowExpired, stateExpired);
+                expired[RetentionCategory.FINANCE.ordinal()],
+                expired[RetentionCategory.FLOW.ordinal()],
+                expired[RetentionCategory.STATE.ordinal()]);
     }
 
-    private int cleanupTimeBased(String eventPattern, int months, String label) {
-        OffsetDateTime cutoff = OffsetDateTime.now().minusMonths(months);
-        int totalExpired = 0;
+    private Function<RetentionCursor, List<JobItemRow>> pageSelector(EtlEventType event,
+                                                                     RetentionCategory category) {
+        int batchSize = retentionProperties.scanBatchSize();
+        if (category == RetentionCategory.STATE) {
+            List<StateRunCutoff> cutoffs = jobItemRepository.findStateRunCutoffs(event.name(),
+                    retentionProperties.stateKeepCount());
+            return cursor -> jobItemRepository.findExcessStateItems(event.name(), cutoffs,
+                    cursor.capturedAt(), cursor.id(), batchSize);
+        }
+        int months = category == RetentionCategory.FINANCE
+                ? retentionProperties.financeMonths()
+                : retentionProperties.flowMonths();
+        OffsetDateTime cutoff = OffsetDateTime.now(clock).minusMonths(months);
+        return cursor -> jobItemRepository.findForTimeRetention(event.name(), cutoff,
+                cursor.capturedAt(), cursor.id(), batchSize);
+    }
 
-        List<JobItemRow> batch;
-        do {
-            batch = jobItemRepository.findForTimeRetention(cutoff, eventPattern, BATCH_SIZE);
-            if (batch.isEmpty()) {
+    private PassResult runPass(String label, Function<RetentionCursor, List<JobItemRow>> selector,
+                               Instant deadline) {
+        RetentionCursor cursor = progressRepository.find(label)
+                .orElse(new RetentionCursor(CURSOR_START, 0L));
+        Timer.Sample passSample = metrics.startTimer();
+        long started = System.nanoTime();
+        long expired = 0;
+        long failed = 0;
+
+        while (true) {
+            if (!clock.instant().isBefore(deadline)) {
+                metrics.stopTimer(passSample, "etl.retention.pass",
+                        "category", label, "outcome", "budget_exhausted");
+                return new PassResult(expired, false);
+            }
+            List<JobItemRow> page = selector.apply(cursor);
+            if (page.isEmpty()) {
                 break;
             }
 
-            List<Long> expiredIds = deleteFromS3AndCollectIds(batch, label);
-            jobItemRepository.markExpired(expiredIds);
-            totalExpired += expiredIds.size();
-
-        } while (batch.size() == BATCH_SIZE);
-
-        return totalExpired;
-    }
+            List<Long> deletedIds = deletePage(page, label);
+            jobItemRepository.markExpired(deletedIds);
+            expired += deletedIds.size();
+            failed += page.size() - deletedIds.size();
 
-    private int cleanupStateKeepCount(String eventPattern, int keepCount, String label) {
-        int totalExpired = 0;
+            JobItemRow last = page.get(page.size() - 1);
+            cursor = new RetentionCursor(last.getCapturedAt(), last.getId());
+            progressRepository.save(label, cursor);
 
-        List<JobItemRow> batch;
-        do {
-            batch = jobItemRepository.findExcessStateItems(eventPattern, keepCount, BATCH_SIZE);
-            if (batch.isEmpty()) {
+            if (page.size() < retentionProperties.scanBatchSize()) {
                 break;
             }
+        }
 
-            List<Long> expiredIds = deleteFromS3AndCollectIds(batch, label);
-            jobItemRepository.markExpired(expiredIds);
-            totalExpired += expiredIds.size();
+        progressRepository.clear(label);
+        metrics.stopTimer(passSample, "etl.retention.pass", "category", label,
+                "outcome", "completed");
+        if (expired > 0 || failed > 0) {
+            double seconds = Math.max(Duration.ofNanos(System.nanoTime() - started).toMillis(), 1)
+                    / 1000.0;
+            log.info("Retention pass completed: category={}, expired={}, failed={}, "
+                            + "objectsPerSecond={}",
+                    label, expired, failed, Math.round(expired / seconds));
+        }
+        return new PassResult(expired, true);
+    }
 
-        } while (batch.size() == BATCH_SIZE);
+    /**
+     * Deletes the page's objects in parallel multi-object requests. Returns the ids of the
+     * job_items whose object is gone.
+     */
+    private List<Long> deletePage(List<JobItemRow> page, String label) {
+        Timer.Sample sample = metrics.startTimer();
+        int chunkSize = Math.min(Math.max(1, retentionProperties.deleteBatchSize()),
+                MAX_DELETE_BATCH_SIZE);
+        List<CompletableFuture<Set<String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < page.size(); from += chunkSize) {
+            List<JobItemRow> chunk = page.subList(from, Math.min(from + chunkSize, page.size()));
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> deleteChunk(chunk, label), retentionExecutor));
+        }
+
+        Set<String> failedKeys = new HashSet<>();
+        chunks.forEach(chunk -> failedKeys.addAll(chunk.join()));
+
+        List<Long> deletedIds = new ArrayList<>(page.size());
+        long deletedBytes = 0;
+        for (JobItemRow item : page) {
+            if (!failedKeys.contains(item.getS3Key())) {
+                deletedIds.add(item.getId());
+                deletedBytes += item.getByteSize();
+            }
+        }
 
-        return totalExpired;
+        metrics.stopTimer(sample, "etl.retention.batch", "category", label);
+        metrics.incrementCounter("etl.retention.objects_deleted", deletedIds.size(),
+                "category", label);
+        metrics.incrementCounter("etl.retention.bytes_deleted", deletedBytes, "category", label);
+        if (!failedKeys.isEmpty()) {
+            metrics.incrementCounter("etl.retention.delete_failures", failedKeys.size(),
+                    "category", label);
+        }
+        return deletedIds;
     }
 
-    private List<Long> deleteFromS3AndCollectIds(List<JobItemRow> items, String label) {
-        return items.stream()
-                .filter(item -> deleteS3Object(item.getS3Key(), label))
-                .map(JobItemRow::getId)
+    /**
+     * One DeleteObjects request. Returns the keys that were not deleted; the result iterable is
+     * lazy, the request only runs while it is consumed.
+     */
+    private Set<String> deleteChunk(List<JobItemRow> chunk, String label) {
+        List<DeleteRequest.Object> objects = chunk.stream()
+                .map(item -> new DeleteRequest.Object(item.getS3Key()))
                 .toList();
+        Set<String> failed = new HashSet<>();
+        try {
+            Iterable<Result<DeleteResult.Error>> results = minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(s3Properties.rawBucket())
+                            .objects(objects)
+                            .build());
+            for (Result<DeleteResult.Error> result : results) {
+                DeleteResult.Error error = result.get();
+                failed.add(error.objectName());
+                log.warn("Failed to delete S3 object: s3Key={}, category={}, code={}",
+                        error.objectName(), label, error.code());
+            }
+        } catch (Exception e) {
+            log.error("Multi-object delete failed: category={}, keys={}", label, chunk.size(), e);
+            chunk.forEach(item -> failed.add(item.getS3Key()));
+        }
+        return failed;
     }
 
-    private boolean deleteS3Object(String s3Key, String label) {
+    /**
+     * Replaces the raw bucket's lifecycle configuration with one expiration rule per finance and
+     * flow event. Expiry counts from upload and uses 31-day months, so the store never expires a
+     * page before the scan would.
+     */
+    private void applyLifecycleRules() {
+        List<LifecycleConfiguration.Rule> rules = new ArrayList<>();
+        for (EtlEventType event : EtlEventType.financeEvents()) {
+            rules.add(expirationRule(event, retentionProperties.financeMonths()));
+        }
+        for (EtlEventType event : EtlEventType.flowEvents()) {
+            rules.add(expirationRule(event, retentionProperties.flowMonths()));
+        }
         try {
-            minioClient.removeObject(RemoveObjectArgs.builder()
+            minioClient.setBucketLifecycle(SetBucketLifecycleArgs.builder()
                     .bucket(s3Properties.rawBucket())
-                    .object(s3Key)
+                    .config(new LifecycleConfiguration(rules))
                     .build());
-            return true;
+            log.info("Raw bucket lifecycle rules applied: bucket={}, rules={}",
+                    s3Properties.rawBucket(), rules.size());
         } catch (Exception e) {
-            log.error("Failed to delete S3 object: s3Key={}, category={}", s3Key, label, e);
-            return false;
+            log.warn("Failed to apply raw bucket lifecycle rules: bucket={}",
+                    s3Properties.rawBucket(), e);
         }
     }
+
+    private static LifecycleConfiguration.Rule expirationRule(EtlEventType event, int months) {
+        var expiration = new LifecycleConfiguration.Expiration(
+                (ZonedDateTime) null, months * DAYS_PER_MONTH, null, null);
+        return new LifecycleConfiguration.Rule(Status.ENABLED, null, expiration,
+                new Filter(new Tag(EVENT_TAG, event.name())), "raw-expire-" + event.name(),
+                null, null, null);
+    }
+
+    private record PassResult(long expired, boolean finished) {}
 }
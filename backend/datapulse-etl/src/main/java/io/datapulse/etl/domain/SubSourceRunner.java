@@ -1,12 +1,29 @@
 package io.datapulse.etl.domain;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import io.datapulse.etl.persistence.JobItemRepository;
-import lombok.RequiredArgsConstructor;
+import io.datapulse.etl.config.IngestProperties;
+import io.datapulse.etl.persistence.JobItemWriteBuffer;
+import io.datapulse.etl.persistence.RawPageFingerprintRepository;
+import io.datapulse.etl.persistence.RawPageFingerprintRepository.RawPageFingerprint;
+import io.datapulse.platform.observability.MetricsFacade;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 /**
@@ -15,14 +32,48 @@ import org.springframework.stereotype.Service;
  *
  * <p>This is the "post-capture" processor — adapters handle the API fetch and raw capture,
  * then hand off {@link CaptureResult} pages to this runner for normalization and persistence.</p>
+ *
+ * <p>{@link #streamPages} overlaps the two stages: the adapter captures on the calling thread
+ * and publishes each page through {@link CaptureContext#pageListener()} into a bounded queue,
+ * while a consumer on {@code etlPipelineExecutor} normalizes pages in capture order. Pages are
+ * handled exactly as in {@link #processPages}, so resume tokens and job_item statuses match.</p>
+ *
+ * <p>With a {@link PageDedupScope}, a page whose fingerprint equals the last successfully
+ * processed page of the same identity is marked PROCESSED without reading it from S3
+ * ({@code etl.raw_page_dedup.*} metrics count skipped pages, bytes and records).</p>
+ *
+ * <p>A {@link ResumableCaptureException} from the adapter does not abort the sub-source: pages
+ * captured before it are processed and its resume token becomes the sub-source cursor.</p>
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SubSourceRunner {
 
+    private static final long QUEUE_OFFER_TIMEOUT_MS = 1_000;
+
     private final RawPageReader rawPageReader;
-    private final JobItemRepository jobItemRepository;
+    private final JobItemWriteBuffer jobItemBuffer;
+    private final IngestProperties ingestProperties;
+    private final Executor pipelineExecutor;
+    private final Executor replayExecutor;
+    private final RawPageFingerprintRepository fingerprintRepository;
+    private final MetricsFacade metrics;
+
+    public SubSourceRunner(RawPageReader rawPageReader,
+                           JobItemWriteBuffer jobItemBuffer,
+                           IngestProperties ingestProperties,
+                           @Qualifier("etlPipelineExecutor") Executor pipelineExecutor,
+                           @Qualifier("etlReplayExecutor") Executor replayExecutor,
+                           RawPageFingerprintRepository fingerprintRepository,
+                           MetricsFacade metrics) {
+        this.rawPageReader = rawPageReader;
+        this.jobItemBuffer = jobItemBuffer;
+        this.ingestProperties = ingestProperties;
+        this.pipelineExecutor = pipelineExecutor;
+        this.replayExecutor = replayExecutor;
+        this.fingerprintRepository = fingerprintRepository;
+        this.metrics = metrics;
+    }
 
     /**
      * Processes a list of captured pages through the normalize→UPSERT pipeline.
@@ -38,60 +89,408 @@ public class SubSourceRunner {
                                             List<CaptureResult> capturedPages,
                                             Class<T> recordType,
                                             Consumer<List<T>> batchProcessor) {
-        int totalRecordsProcessed = 0;
-        int totalRecordsSkipped = 0;
-        List<String> errors = new ArrayList<>();
-        String firstFailureResumeToken = null;
+        return processPages(sourceId, capturedPages, recordType, batchProcessor, null);
+    }
+
+    /**
+     * Same as {@link #processPages(String, List, Class, Consumer)}, skipping pages unchanged since
+     * the last successful sync of {@code dedup} (see {@link PageDedupScope} for eligibility).
+     * Pages are still fingerprinted when dedup is disabled or forced off, so the index stays
+     * consistent with the canonical layer.
+     */
+    public <T> SubSourceResult processPages(String sourceId,
+                                            List<CaptureResult> capturedPages,
+                                            Class<T> recordType,
+                                            Consumer<List<T>> batchProcessor,
+                                            PageDedupScope dedup) {
+        return processPages(sourceId, capturedPages, dtoPages(recordType), batchProcessor, dedup);
+    }
+
+    /**
+     * Offline replay of captured pages ({@link RawPageReplayService}): pages are read and each
+     * batch is turned into its UPSERT input by {@code prepare} in parallel on
+     * {@code etlReplayExecutor}, at most {@code replay-pages-in-flight} pages ahead of the oldest
+     * page not yet written; {@code apply} writes the prepared batches on the calling thread in
+     * page order, so the last writer is the one of the original runs. Job_items are left alone,
+     * as they belong to the job that captured them.
+     *
+     * <p>{@code prepare} may run on several threads at once and must not write; {@code apply}
+     * runs on one thread only. A failed {@code prepare} or {@code apply} skips its batch, a failed
+     * read fails its page, as in {@link #processPages}.</p>
+     */
+    public <T, R> SubSourceResult replayPages(String sourceId,
+                                              List<CaptureResult> capturedPages,
+                                              Class<T> recordType,
+                                              Function<List<T>, R> prepare,
+                                              Consumer<R> apply) {
+        return replay(sourceId, capturedPages, dtoPages(recordType), prepare, apply);
+    }
+
+    /**
+     * Same as {@link #replayPages}, reading pages through {@link RawPageReader#readTokens} like
+     * the token-stream {@link #streamPages} variant. The reader's buffers are reused per batch,
+     * so {@code prepare} must copy what {@code apply} needs out of them.
+     */
+    public <B, R> SubSourceResult replayTokenPages(String sourceId,
+                                                   List<CaptureResult> capturedPages,
+                                                   RecordTokenReader<B> recordReader,
+                                                   Function<List<B>, R> prepare,
+                                                   Consumer<R> apply) {
+        return replay(sourceId, capturedPages,
+                (s3Key, consumer) -> rawPageReader.readTokens(s3Key, recordReader, consumer),
+                prepare, apply);
+    }
+
+    private <T> SubSourceResult processPages(String sourceId,
+                                             List<CaptureResult> capturedPages,
+                                             PageBatchReader<T> pageReader,
+                                             Consumer<List<T>> batchProcessor,
+                                             PageDedupScope dedup) {
+        return processPages(sourceId, capturedPages, pageReader, batchProcessor, dedup, true);
+    }
 
+    private <T> SubSourceResult processPages(String sourceId,
+                                             List<CaptureResult> capturedPages,
+                                             PageBatchReader<T> pageReader,
+                                             Consumer<List<T>> batchProcessor,
+                                             PageDedupScope dedup,
+                                             boolean markItems) {
+        var progress = new PageProgress(sourceId, markItems);
+        if (dedup != null && !capturedPages.isEmpty()) {
+            progress.dedup = new PageDedup(dedup);
+        }
         for (CaptureResult page : capturedPages) {
-            try {
-                int[] counts = processOnePage(page, recordType, batchProcessor);
-                totalRecordsProcessed += counts[0];
-                totalRecordsSkipped += counts[1];
-
-                jobItemRepository.updateStatus(page.jobItemId(), JobItemStatus.PROCESSED);
-            } catch (BatchSkipException e) {
-                log.error("Page partially failed (batch skips): sourceId={}, s3Key={}, "
-                        + "processed={}, skipped={}",
-                        sourceId, page.s3Key(), e.getProcessedCount(), e.getSkippedCount());
-                totalRecordsProcessed += e.getProcessedCount();
-                totalRecordsSkipped += e.getSkippedCount();
-                errors.add("Page %s: %s".formatted(page.s3Key(), e.getMessage()));
-                firstFailureResumeToken = captureResumeToken(
-                        firstFailureResumeToken, page);
-                jobItemRepository.updateStatus(page.jobItemId(), JobItemStatus.FAILED);
-            } catch (Exception e) {
-                log.error("Page processing failed: sourceId={}, s3Key={}, error={}",
-                        sourceId, page.s3Key(), e.getMessage(), e);
-                errors.add("Page %s: %s".formatted(page.s3Key(), e.getMessage()));
-                firstFailureResumeToken = captureResumeToken(
-                        firstFailureResumeToken, page);
-                jobItemRepository.updateStatus(page.jobItemId(), JobItemStatus.FAILED);
+            processPage(progress, page, pageReader, batchProcessor);
+        }
+        return progress.toResult();
+    }
+
+    /**
+     * Captures and processes pages concurrently: {@code capture} runs on the calling thread with a
+     * {@link CaptureContext} whose page listener feeds a bounded queue
+     * ({@code capture-pipeline-queue-pages}); normalize→UPSERT drains the queue on
+     * {@code etlPipelineExecutor}. The capturing thread blocks while the queue is full.
+     *
+     * <p>Falls back to capture-all-then-{@link #processPages} when the pipeline is disabled or no
+     * consumer thread is available. If capture fails, pages captured before the failure are still
+     * processed and the capture exception is rethrown afterwards — same event outcome as before.</p>
+     *
+     * @param captureContext context passed to the adapter (listener is attached here)
+     * @param capture        adapter call, e.g. {@code c -> adapter.captureAllPages(c, ...)}
+     */
+    public <T> SubSourceResult streamPages(String sourceId,
+                                           CaptureContext captureContext,
+                                           Function<CaptureContext, List<CaptureResult>> capture,
+                                           Class<T> recordType,
+                                           Consumer<List<T>> batchProcessor) {
+        return streamPages(sourceId, captureContext, capture, dtoPages(recordType), batchProcessor);
+    }
+
+    /**
+     * Same as {@link #streamPages(String, CaptureContext, Function, Class, Consumer)}, reading
+     * pages through {@link RawPageReader#readTokens}: {@code batchProcessor} receives reused
+     * buffers filled by {@code recordReader} and must not keep references past the call.
+     */
+    public <B> SubSourceResult streamPages(String sourceId,
+                                           CaptureContext captureContext,
+                                           Function<CaptureContext, List<CaptureResult>> capture,
+                                           RecordTokenReader<B> recordReader,
+                                           Consumer<List<B>> batchProcessor) {
+        return streamPages(sourceId, captureContext, capture,
+                (s3Key, consumer) -> rawPageReader.readTokens(s3Key, recordReader, consumer),
+                batchProcessor);
+    }
+
+    private <T> SubSourceResult streamPages(String sourceId,
+                                            CaptureContext captureContext,
+                                            Function<CaptureContext, List<CaptureResult>> capture,
+                                            PageBatchReader<T> pageReader,
+                                            Consumer<List<T>> batchProcessor) {
+        if (!ingestProperties.capturePipelineEnabled()) {
+            return captureThenProcess(sourceId, captureContext, capture, pageReader, batchProcessor);
+        }
+
+        BlockingQueue<PipelineItem> queue =
+                new ArrayBlockingQueue<>(Math.max(1, ingestProperties.capturePipelineQueuePages()));
+        var progress = new PageProgress(sourceId, true);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        CompletableFuture<Void> consumer;
+        try {
+            consumer = CompletableFuture.runAsync(
+                    () -> drainQueue(queue, progress, pageReader, batchProcessor, mdc),
+                    pipelineExecutor);
+        } catch (RejectedExecutionException e) {
+            log.info("Capture pipeline saturated, processing sequentially: sourceId={}", sourceId);
+            return captureThenProcess(sourceId, captureContext, capture, pageReader, batchProcessor);
+        }
+
+        RuntimeException captureFailure = null;
+        try {
+            capture.apply(captureContext.withPageListener(
+                    page -> enqueue(queue, new PipelineItem(page), consumer, sourceId)));
+        } catch (RuntimeException e) {
+            captureFailure = e;
+        }
+
+        RuntimeException consumerFailure = null;
+        try {
+            finishQueue(queue, consumer, sourceId);
+            awaitConsumer(consumer, sourceId);
+        } catch (RuntimeException e) {
+            consumerFailure = e;
+        }
+
+        if (captureFailure != null && !(captureFailure instanceof ResumableCaptureException)) {
+            if (consumerFailure != null) {
+                captureFailure.addSuppressed(consumerFailure);
+            }
+            throw captureFailure;
+        }
+        if (consumerFailure != null) {
+            if (captureFailure != null) {
+                consumerFailure.addSuppressed(captureFailure);
             }
+            throw consumerFailure;
         }
+        if (captureFailure instanceof ResumableCaptureException resumable) {
+            progress.failCapture(resumable);
+        }
+        return progress.toResult();
+    }
 
-        if (!errors.isEmpty() && totalRecordsProcessed == 0) {
-            return SubSourceResult.failed(sourceId, errors.get(0), firstFailureResumeToken);
+    /**
+     * Enqueues {@link PipelineItem#END} while the consumer is alive. A consumer that has already
+     * terminated is left to {@link #awaitConsumer}, which reports its own failure.
+     */
+    private static void finishQueue(BlockingQueue<PipelineItem> queue,
+                                    CompletableFuture<Void> consumer, String sourceId) {
+        if (consumer.isDone()) {
+            return;
         }
-        if (!errors.isEmpty() || totalRecordsSkipped > 0) {
-            return SubSourceResult.partial(sourceId, firstFailureResumeToken,
-                    capturedPages.size(), totalRecordsProcessed, totalRecordsSkipped, errors);
+        try {
+            enqueue(queue, PipelineItem.END, consumer, sourceId);
+        } catch (IllegalStateException e) {
+            if (!consumer.isDone()) {
+                throw e;
+            }
         }
+    }
 
-        return SubSourceResult.success(sourceId, capturedPages.size(), totalRecordsProcessed);
+    /**
+     * Sequential fallback of {@link #streamPages}: capture everything, then process. Pages
+     * captured before a {@link ResumableCaptureException} are still processed.
+     */
+    private <T> SubSourceResult captureThenProcess(String sourceId,
+                                                   CaptureContext captureContext,
+                                                   Function<CaptureContext, List<CaptureResult>> capture,
+                                                   PageBatchReader<T> pageReader,
+                                                   Consumer<List<T>> batchProcessor) {
+        List<CaptureResult> pages;
+        ResumableCaptureException captureFailure = null;
+        try {
+            pages = capture.apply(captureContext);
+        } catch (ResumableCaptureException e) {
+            pages = e.getCapturedPages();
+            captureFailure = e;
+        }
+        var progress = new PageProgress(sourceId, true);
+        for (CaptureResult page : pages) {
+            processPage(progress, page, pageReader, batchProcessor);
+        }
+        if (captureFailure != null) {
+            progress.failCapture(captureFailure);
+        }
+        return progress.toResult();
     }
 
-    private static String captureResumeToken(String current, CaptureResult page) {
-        if (current != null) {
-            return current;
+    private <T> void drainQueue(BlockingQueue<PipelineItem> queue, PageProgress progress,
+                                PageBatchReader<T> pageReader, Consumer<List<T>> batchProcessor,
+                                Map<String, String> mdc) {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try {
+            while (true) {
+                PipelineItem item = queue.take();
+                if (item == PipelineItem.END) {
+                    return;
+                }
+                processPage(progress, item.page(), pageReader, batchProcessor);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Capture pipeline interrupted: sourceId=%s".formatted(progress.sourceId), e);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private static void enqueue(BlockingQueue<PipelineItem> queue, PipelineItem item,
+                                CompletableFuture<Void> consumer, String sourceId) {
+        try {
+            while (!queue.offer(item, QUEUE_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (consumer.isDone()) {
+                    throw new IllegalStateException(
+                            "Capture pipeline consumer terminated: sourceId=%s".formatted(sourceId));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Capture pipeline interrupted: sourceId=%s".formatted(sourceId), e);
+        }
+    }
+
+    private static void awaitConsumer(CompletableFuture<Void> consumer, String sourceId) {
+        try {
+            consumer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Capture pipeline interrupted: sourceId=%s".formatted(sourceId), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(
+                    "Capture pipeline consumer failed: sourceId=%s".formatted(sourceId),
+                    e.getCause());
+        }
+    }
+
+    private <T> void processPage(PageProgress progress, CaptureResult page,
+                                 PageBatchReader<T> pageReader, Consumer<List<T>> batchProcessor) {
+        progress.pages++;
+        PageDedup dedup = progress.dedup;
+        if (dedup != null && dedup.isUnchanged(page)) {
+            markStatus(progress, page, JobItemStatus.PROCESSED);
+            return;
         }
+        try {
+            int[] counts = processOnePage(page, pageReader, batchProcessor);
+            progress.recordsProcessed += counts[0];
+            progress.recordsSkipped += counts[1];
+
+            markStatus(progress, page, JobItemStatus.PROCESSED);
+            if (dedup != null) {
+                dedup.remember(page, counts[0]);
+            }
+        } catch (BatchSkipException e) {
+            log.error("Page partially failed (batch skips): sourceId={}, s3Key={}, "
+                    + "processed={}, skipped={}",
+                    progress.sourceId, page.s3Key(), e.getProcessedCount(), e.getSkippedCount());
+            progress.recordsProcessed += e.getProcessedCount();
+            progress.recordsSkipped += e.getSkippedCount();
+            progress.fail(page, e.getMessage());
+            markStatus(progress, page, JobItemStatus.FAILED);
+            if (dedup != null) {
+                dedup.forget(page);
+            }
+        } catch (Exception e) {
+            log.error("Page processing failed: sourceId={}, s3Key={}, error={}",
+                    progress.sourceId, page.s3Key(), e.getMessage(), e);
+            progress.fail(page, e.getMessage());
+            markStatus(progress, page, JobItemStatus.FAILED);
+            if (dedup != null) {
+                dedup.forget(page);
+            }
+        }
+    }
+
+    private void markStatus(PageProgress progress, CaptureResult page, JobItemStatus status) {
+        if (progress.markItems) {
+            jobItemBuffer.markStatus(page.jobItemId(), status);
+        }
+    }
+
+    /**
+     * Keeps the resume token of the first failed page; window-scoped tokens
+     * ({@link DateWindowResume}) keep the first failed page of every window instead.
+     */
+    private static String captureResumeToken(String current, CaptureResult page) {
+        String token = null;
         if (page.listResumeKey() != null && !page.listResumeKey().isBlank()) {
-            return page.listResumeKey().trim();
+            token = page.listResumeKey().trim();
+        } else if (page.listRequestOffset() != null) {
+            token = String.valueOf(page.listRequestOffset());
+        }
+        return DateWindowResume.merge(current, token);
+    }
+
+    private <T, R> SubSourceResult replay(String sourceId, List<CaptureResult> capturedPages,
+                                          PageBatchReader<T> pageReader,
+                                          Function<List<T>, R> prepare, Consumer<R> apply) {
+        var progress = new PageProgress(sourceId, false);
+        int inFlight = Math.max(1, ingestProperties.replayPagesInFlight());
+        ArrayDeque<PreparedPage<R>> window = new ArrayDeque<>();
+        int submitted = 0;
+        for (CaptureResult page : capturedPages) {
+            while (submitted < capturedPages.size() && window.size() < inFlight) {
+                CaptureResult next = capturedPages.get(submitted++);
+                var prepared = new PreparedPage<R>(() -> preparePage(next, pageReader, prepare));
+                window.add(prepared);
+                try {
+                    replayExecutor.execute(prepared::run);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Replay executor saturated, page prepared in order: s3Key={}",
+                            next.s3Key());
+                }
+            }
+            applyPage(progress, page, window.poll().await(), apply);
+        }
+        return progress.toResult();
+    }
+
+    /**
+     * Reads one page and prepares every batch of it; a failed {@code prepare} skips the batch.
+     */
+    private <T, R> PageBatches<R> preparePage(CaptureResult page, PageBatchReader<T> pageReader,
+                                              Function<List<T>, R> prepare) {
+        var batches = new PageBatches<R>();
+        pageReader.read(page.s3Key(), batch -> {
+            try {
+                batches.prepared.add(prepare.apply(batch));
+                batches.sizes.add(batch.size());
+            } catch (Exception e) {
+                log.warn("Batch preparation error: s3Key={}, batchSize={}, error={}",
+                        page.s3Key(), batch.size(), e.getMessage());
+                batches.skipped += batch.size();
+            }
+        });
+        return batches;
+    }
+
+    private <R> void applyPage(PageProgress progress, CaptureResult page,
+                               PreparedPage.Outcome<R> outcome, Consumer<R> apply) {
+        progress.pages++;
+        if (outcome.failure() != null) {
+            Throwable e = outcome.failure();
+            log.error("Page processing failed: sourceId={}, s3Key={}, error={}",
+                    progress.sourceId, page.s3Key(), e.getMessage(), e);
+            progress.fail(page, e.getMessage());
+            return;
+        }
+        PageBatches<R> batches = outcome.batches();
+        int processed = 0;
+        int skipped = batches.skipped;
+        for (int i = 0; i < batches.prepared.size(); i++) {
+            try {
+                apply.accept(batches.prepared.get(i));
+                processed += batches.sizes.get(i);
+            } catch (Exception e) {
+                log.warn("Batch processing error: s3Key={}, batchSize={}, error={}",
+                        page.s3Key(), batches.sizes.get(i), e.getMessage());
+                skipped += batches.sizes.get(i);
+            }
         }
-        if (page.listRequestOffset() != null) {
-            return String.valueOf(page.listRequestOffset());
+        progress.recordsProcessed += processed;
+        progress.recordsSkipped += skipped;
+        if (skipped > 0) {
+            var e = new BatchSkipException(processed, skipped);
+            log.error("Page partially failed (batch skips): sourceId={}, s3Key={}, "
+                    + "processed={}, skipped={}",
+                    progress.sourceId, page.s3Key(), processed, skipped);
+            progress.fail(page, e.getMessage());
         }
-        return null;
     }
 
     /**
@@ -99,11 +498,11 @@ public class SubSourceRunner {
      *
      * @return int[2]: [recordsProcessed, recordsSkipped]
      */
-    private <T> int[] processOnePage(CaptureResult page, Class<T> recordType,
+    private <T> int[] processOnePage(CaptureResult page, PageBatchReader<T> pageReader,
                                      Consumer<List<T>> batchProcessor) {
         int[] counts = {0, 0};
 
-        rawPageReader.readBatched(page.s3Key(), recordType, batch -> {
+        pageReader.read(page.s3Key(), batch -> {
             try {
                 batchProcessor.accept(batch);
                 counts[0] += batch.size();
@@ -120,4 +519,170 @@ public class SubSourceRunner {
 
         return counts;
     }
+
+    private <T> PageBatchReader<T> dtoPages(Class<T> recordType) {
+        return (s3Key, consumer) -> rawPageReader.readBatched(s3Key, recordType, consumer);
+    }
+
+    /**
+     * How a page turns into batches: DTO binding ({@link RawPageReader#readBatched}) or
+     * token-stream normalization ({@link RawPageReader#readTokens}).
+     */
+    @FunctionalInterface
+    private interface PageBatchReader<T> {
+
+        void read(String s3Key, Consumer<List<T>> batchConsumer);
+    }
+
+    /**
+     * Running totals for one sub-source. Only ever touched by one thread at a time
+     * (caller in {@link #processPages}, the consumer in {@link #streamPages}).
+     */
+    private static final class PageProgress {
+
+        private final String sourceId;
+        private final boolean markItems;
+        private final List<String> errors = new ArrayList<>();
+        private int pages;
+        private int recordsProcessed;
+        private int recordsSkipped;
+        private String firstFailureResumeToken;
+        private PageDedup dedup;
+
+        private PageProgress(String sourceId, boolean markItems) {
+            this.sourceId = sourceId;
+            this.markItems = markItems;
+        }
+
+        private void fail(CaptureResult page, String message) {
+            errors.add("Page %s: %s".formatted(page.s3Key(), message));
+            firstFailureResumeToken = captureResumeToken(firstFailureResumeToken, page);
+        }
+
+        private void failCapture(ResumableCaptureException e) {
+            log.warn("Capture failed part-way, resumable: sourceId={}, resumeToken={}, error={}",
+                    sourceId, e.getResumeToken(), e.getMessage());
+            errors.add("Capture: %s".formatted(e.getMessage()));
+            firstFailureResumeToken = DateWindowResume.merge(firstFailureResumeToken,
+                    e.getResumeToken());
+        }
+
+        private SubSourceResult toResult() {
+            if (!errors.isEmpty() && recordsProcessed == 0) {
+                return SubSourceResult.failed(sourceId, errors.get(0), firstFailureResumeToken);
+            }
+            if (!errors.isEmpty() || recordsSkipped > 0) {
+                return SubSourceResult.partial(sourceId, firstFailureResumeToken,
+                        pages, recordsProcessed, recordsSkipped, errors);
+            }
+            return SubSourceResult.success(sourceId, pages, recordsProcessed);
+        }
+    }
+
+    /**
+     * Fingerprints of one sub-source, loaded once per {@link #processPages} call. A failed page
+     * drops its fingerprint: the canonical layer may hold partial writes from it.
+     */
+    private final class PageDedup {
+
+        private final PageDedupScope scope;
+        private final boolean skipEnabled;
+        private final Map<String, RawPageFingerprint> known;
+
+        private PageDedup(PageDedupScope scope) {
+            this.scope = scope;
+            this.skipEnabled = ingestProperties.rawPageDedupEnabled() && !scope.forceRefresh();
+            this.known = fingerprintRepository.findBySource(
+                    scope.connectionId(), scope.event().name(), scope.sourceId());
+        }
+
+        private boolean isUnchanged(CaptureResult page) {
+            if (!skipEnabled) {
+                return false;
+            }
+            RawPageFingerprint previous = known.get(PageDedupScope.pageIdentity(page));
+            if (previous == null || !previous.fingerprint().equals(scope.fingerprint(page))) {
+                return false;
+            }
+            String event = scope.event().name();
+            metrics.incrementCounter("etl.raw_page_dedup.skipped_pages",
+                    "event", event, "source_id", scope.sourceId());
+            metrics.incrementCounter("etl.raw_page_dedup.skipped_bytes", page.byteSize(),
+                    "event", event, "source_id", scope.sourceId());
+            metrics.incrementCounter("etl.raw_page_dedup.skipped_records", previous.recordCount(),
+                    "event", event, "source_id", scope.sourceId());
+            log.debug("Page unchanged since last sync, skipped: sourceId={}, s3Key={}",
+                    scope.sourceId(), page.s3Key());
+            return true;
+        }
+
+        private void remember(CaptureResult page, int recordCount) {
+            String identity = PageDedupScope.pageIdentity(page);
+            var fingerprint = new RawPageFingerprint(scope.fingerprint(page), recordCount);
+            if (fingerprint.equals(known.get(identity))) {
+                return;
+            }
+            fingerprintRepository.upsert(scope.connectionId(), scope.event().name(),
+                    scope.sourceId(), identity, fingerprint, page.jobItemId());
+            known.put(identity, fingerprint);
+        }
+
+        private void forget(CaptureResult page) {
+            String identity = PageDedupScope.pageIdentity(page);
+            if (known.remove(identity) != null) {
+                fingerprintRepository.delete(scope.connectionId(), scope.event().name(),
+                        scope.sourceId(), identity);
+            }
+        }
+    }
+
+    /**
+     * Prepared batches of one replayed page with their record counts.
+     */
+    private static final class PageBatches<R> {
+
+        private final List<R> prepared = new ArrayList<>();
+        private final List<Integer> sizes = new ArrayList<>();
+        private int skipped;
+    }
+
+    /**
+     * Preparation of one replayed page, run by whichever thread claims it first: a replay
+     * executor thread, or the applying thread once the page is next in line. The applying thread
+     * therefore never waits on a page still queued behind busy executor threads.
+     */
+    private static final class PreparedPage<R> {
+
+        private final Supplier<PageBatches<R>> work;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Outcome<R>> outcome = new CompletableFuture<>();
+
+        private PreparedPage(Supplier<PageBatches<R>> work) {
+            this.work = work;
+        }
+
+        private void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                outcome.complete(new Outcome<>(work.get(), null));
+            } catch (Throwable e) {
+                outcome.complete(new Outcome<>(null, e));
+            }
+        }
+
+        private Outcome<R> await() {
+            run();
+            return outcome.join();
+        }
+
+        private record Outcome<R>(PageBatches<R> batches, Throwable failure) {
+        }
+    }
+
+    private record PipelineItem(CaptureResult page) {
+
+        private static final PipelineItem END = new PipelineItem(null);
+    }
 }
@@ -0,0 +1,138 @@
+package io.datapulse.etl.domain;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.datapulse.etl.config.IngestProperties;
+import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the independent sub-sources of one event concurrently on {@code etlExecutor}.
+ *
+ * <p>Tasks are split into lanes: each {@link RateLimitGroup} gets at most
+ * {@code sub-source-concurrency-per-rate-limit-group} lanes and tasks of one lane run
+ * sequentially. Lanes are claimed atomically — the calling thread (itself an
+ * {@code etlExecutor} worker from {@link DagExecutor}) runs every lane no pool thread has
+ * picked up yet, so waiting on nested tasks can never starve the shared pool.</p>
+ *
+ * <p>Results are returned in declaration order, matching the sequential
+ * {@code List<SubSourceResult>} contract of {@link EventSource#execute}. If a task throws, the
+ * remaining tasks still complete and the first exception (declaration order) is rethrown,
+ * so {@link EventRunner} fails the event as before.</p>
+ */
+@Slf4j
+@Service
+public class SubSourceScheduler {
+
+    private final Executor etlExecutor;
+    private final IngestProperties ingestProperties;
+
+    public SubSourceScheduler(@Qualifier("etlExecutor") Executor etlExecutor,
+                              IngestProperties ingestProperties) {
+        this.etlExecutor = etlExecutor;
+        this.ingestProperties = ingestProperties;
+    }
+
+    public List<SubSourceResult> runAll(List<SubSourceTask> tasks) {
+        SubSourceResult[] results = new SubSourceResult[tasks.size()];
+        RuntimeException[] failures = new RuntimeException[tasks.size()];
+        List<Lane> lanes = buildLanes(tasks);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        for (int i = 1; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
+            etlExecutor.execute(() -> runIfUnclaimed(lane, tasks, results, failures, mdc));
+        }
+        for (Lane lane : lanes) {
+            if (lane.claimed.compareAndSet(false, true)) {
+                runLane(lane, tasks, results, failures);
+            }
+        }
+        CompletableFuture.allOf(lanes.stream()
+                        .map(lane -> lane.done)
+                        .toArray(CompletableFuture[]::new))
+                .join();
+
+        for (RuntimeException failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<Lane> buildLanes(List<SubSourceTask> tasks) {
+        int lanesPerGroup = Math.max(1, ingestProperties.subSourceConcurrencyPerRateLimitGroup());
+        Map<RateLimitGroup, List<Lane>> byGroup = new EnumMap<>(RateLimitGroup.class);
+        Map<RateLimitGroup, Integer> assigned = new EnumMap<>(RateLimitGroup.class);
+        List<Lane> lanes = new ArrayList<>();
+
+        for (int i = 0; i < tasks.size(); i++) {
+            RateLimitGroup group = tasks.get(i).rateLimitGroup();
+            List<Lane> groupLanes = byGroup.computeIfAbsent(group, g -> new ArrayList<>());
+            int slot = assigned.merge(group, 1, Integer::sum) - 1;
+            if (groupLanes.size() < lanesPerGroup) {
+                Lane lane = new Lane();
+                groupLanes.add(lane);
+                lanes.add(lane);
+            }
+            groupLanes.get(slot % lanesPerGroup).taskIndexes.add(i);
+        }
+        return lanes;
+    }
+
+    private void runIfUnclaimed(Lane lane, List<SubSourceTask> tasks,
+                                SubSourceResult[] results, RuntimeException[] failures,
+                                Map<String, String> mdc) {
+        if (!lane.claimed.compareAndSet(false, true)) {
+            return;
+        }
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try {
+            runLane(lane, tasks, results, failures);
+        } finally {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    private void runLane(Lane lane, List<SubSourceTask> tasks,
+                         SubSourceResult[] results, RuntimeException[] failures) {
+        try {
+            for (int index : lane.taskIndexes) {
+                SubSourceTask task = tasks.get(index);
+                try {
+                    results[index] = task.body().get();
+                } catch (RuntimeException e) {
+                    log.error("Sub-source failed: sourceId={}, rateLimitGroup={}, error={}",
+                            task.sourceId(), task.rateLimitGroup(), e.getMessage());
+                    failures[index] = e;
+                }
+            }
+        } finally {
+            lane.done.complete(null);
+        }
+    }
+
+    private static final class Lane {
+
+        private final List<Integer> taskIndexes = new ArrayList<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,20 @@
+package io.datapulse.etl.domain;
+
+import java.util.function.Supplier;
+
+import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
+
+/**
+ * Independent sub-source of an {@link EventSource}: capture + normalize + UPSERT that neither
+ * reads nor waits for the output of its sibling sub-sources. Executed by
+ * {@link SubSourceScheduler}, which runs tasks of different rate-limit groups concurrently.
+ *
+ * @param sourceId       adapter {@code sourceId} (used for logging / diagnostics)
+ * @param rateLimitGroup marketplace budget the sub-source fetches from
+ * @param body           runs the sub-source; typically a {@link SubSourceRunner} call
+ */
+public record SubSourceTask(
+        String sourceId,
+        RateLimitGroup rateLimitGroup,
+        Supplier<SubSourceResult> body
+) {}
@@ -13,4 +13,9 @@ public sealed interface CursorExtractor
                 WbCatalogCursorExtractor {
 
     Optional<String> extract(Path tempFile) throws IOException;
+
+    /**
+     * Fresh incremental scanner for one page; yields the same cursor as {@link #extract}.
+     */
+    CursorScanner newScanner();
 }
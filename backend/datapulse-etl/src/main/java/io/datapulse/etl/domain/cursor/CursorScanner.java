@@ -0,0 +1,31 @@
+package io.datapulse.etl.domain.cursor;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Incremental counterpart of {@link CursorExtractor#extract}: fed with the response bytes as
+ * they arrive, so the cursor is known as soon as the body has been streamed, without re-reading
+ * it from disk. One instance per page; not thread-safe.
+ */
+public interface CursorScanner {
+
+    CursorScanner NONE = new CursorScanner() {
+        @Override
+        public void feed(byte[] bytes, int offset, int length) {
+        }
+
+        @Override
+        public Optional<String> finish() {
+            return Optional.empty();
+        }
+    };
+
+    void feed(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * Signals end of the body and returns the same value {@code extract} would have returned
+     * for the concatenated bytes.
+     */
+    Optional<String> finish() throws IOException;
+}
@@ -0,0 +1,66 @@
+package io.datapulse.etl.domain.cursor;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+/**
+ * Runs a {@link JsonTokenMatcher} over Jackson's non-blocking parser. Stops parsing as soon as
+ * the matcher is done, so the rest of a large body costs nothing.
+ */
+final class JsonCursorScanner implements CursorScanner {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonTokenMatcher matcher;
+    private final JsonParser parser;
+    private boolean done;
+
+    JsonCursorScanner(JsonTokenMatcher matcher) {
+        this.matcher = matcher;
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create non-blocking JSON parser", e);
+        }
+    }
+
+    @Override
+    public void feed(byte[] bytes, int offset, int length) throws IOException {
+        if (done || length == 0) {
+            return;
+        }
+        ((ByteArrayFeeder) parser.getNonBlockingInputFeeder())
+                .feedInput(bytes, offset, offset + length);
+        drainAvailable();
+    }
+
+    @Override
+    public Optional<String> finish() throws IOException {
+        if (!done) {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+            drainAvailable();
+            complete();
+        }
+        return matcher.result();
+    }
+
+    private void drainAvailable() throws IOException {
+        JsonToken token;
+        while (!done && (token = parser.nextToken()) != null
+                && token != JsonToken.NOT_AVAILABLE) {
+            if (matcher.onToken(parser, token)) {
+                complete();
+            }
+        }
+    }
+
+    private void complete() throws IOException {
+        done = true;
+        parser.close();
+    }
+}
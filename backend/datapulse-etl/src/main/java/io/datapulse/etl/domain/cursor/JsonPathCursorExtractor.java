@@ -14,7 +14,8 @@ import com.fasterxml.jackson.core.JsonToken;
 /**
  * For metadata cursor endpoints (~5 endpoints: WB Catalog, Ozon Catalog list,
  * Ozon Stocks/Prices/Finance).
- * Parses temp file post-write to extract cursor from a known JSON path.
+ * Parses temp file post-write to extract cursor from a known JSON path, or the response bytes
+ * in flight via {@link #newScanner()}.
  * <p>
  * Supports dot-notation for nested paths, e.g. {@code "result.cursor"} or {@code "cursor"}.
  * Overhead: < 1 ms (streaming parse, stops after finding the field).
@@ -35,32 +36,53 @@ public final class JsonPathCursorExtractor implements CursorExtractor {
         try (InputStream is = new BufferedInputStream(Files.newInputStream(tempFile), BUFFER_SIZE);
              JsonParser parser = JSON_FACTORY.createParser(is)) {
 
-            return findValue(parser, pathSegments, 0);
+            return JsonTokenMatcher.drain(parser, new PathMatcher(pathSegments));
         }
     }
 
-    private Optional<String> findValue(JsonParser parser, String[] segments, int depth) throws IOException {
-        String targetField = segments[depth];
-        boolean isLast = depth == segments.length - 1;
+    @Override
+    public CursorScanner newScanner() {
+        return new JsonCursorScanner(new PathMatcher(pathSegments));
+    }
 
-        while (parser.nextToken() != null) {
-            if (parser.currentToken() == JsonToken.FIELD_NAME
-                    && targetField.equals(parser.currentName())) {
+    /**
+     * Finds the first field named after the current segment at any depth; descends when its
+     * value is an object, gives up when a non-terminal segment holds a scalar.
+     */
+    private static final class PathMatcher implements JsonTokenMatcher {
 
-                parser.nextToken();
+        private final String[] segments;
+        private int depth;
+        private boolean expectValue;
+        private String value;
 
-                if (isLast) {
-                    return Optional.ofNullable(parser.getValueAsString());
-                }
+        PathMatcher(String[] segments) {
+            this.segments = segments;
+        }
 
-                if (parser.currentToken() == JsonToken.START_OBJECT) {
-                    return findValue(parser, segments, depth + 1);
+        @Override
+        public boolean onToken(JsonParser parser, JsonToken token) throws IOException {
+            if (expectValue) {
+                expectValue = false;
+                if (depth == segments.length - 1) {
+                    value = parser.getValueAsString();
+                    return true;
                 }
-
-                return Optional.empty();
+                if (token == JsonToken.START_OBJECT) {
+                    depth++;
+                    return false;
+                }
+                return true;
             }
+            if (token == JsonToken.FIELD_NAME && segments[depth].equals(parser.currentName())) {
+                expectValue = true;
+            }
+            return false;
         }
 
-        return Optional.empty();
+        @Override
+        public Optional<String> result() {
+            return Optional.ofNullable(value);
+        }
     }
 }
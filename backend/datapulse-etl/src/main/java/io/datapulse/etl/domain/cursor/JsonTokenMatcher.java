@@ -0,0 +1,31 @@
+package io.datapulse.etl.domain.cursor;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Token-driven cursor lookup shared by the file-based ({@link #drain}) and the incremental
+ * ({@link JsonCursorScanner}) extraction paths, so both return identical cursors.
+ */
+interface JsonTokenMatcher {
+
+    /**
+     * @return {@code true} once the matcher has its answer and needs no further tokens
+     */
+    boolean onToken(JsonParser parser, JsonToken token) throws IOException;
+
+    Optional<String> result();
+
+    static Optional<String> drain(JsonParser parser, JsonTokenMatcher matcher) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (matcher.onToken(parser, token)) {
+                break;
+            }
+        }
+        return matcher.result();
+    }
+}
@@ -18,4 +18,9 @@ public final class NoCursorExtractor implements CursorExtractor {
     public Optional<String> extract(Path tempFile) {
         return Optional.empty();
     }
+
+    @Override
+    public CursorScanner newScanner() {
+        return CursorScanner.NONE;
+    }
 }
@@ -47,6 +47,38 @@ public final class TailFieldExtractor implements CursorExtractor {
         return findLastMatch(tail);
     }
 
+    /**
+     * Keeps a rolling window of the last {@value #TAIL_SIZE} bytes, which is exactly what
+     * {@link #extract} reads back from the file.
+     */
+    @Override
+    public CursorScanner newScanner() {
+        return new CursorScanner() {
+            private final byte[] ring = new byte[TAIL_SIZE];
+            private long total;
+
+            @Override
+            public void feed(byte[] bytes, int offset, int length) {
+                int skip = Math.max(0, length - TAIL_SIZE);
+                total += skip;
+                for (int i = offset + skip; i < offset + length; i++) {
+                    ring[(int) (total++ % TAIL_SIZE)] = bytes[i];
+                }
+            }
+
+            @Override
+            public Optional<String> finish() {
+                int size = (int) Math.min(TAIL_SIZE, total);
+                byte[] tail = new byte[size];
+                int start = (int) ((total - size) % TAIL_SIZE);
+                for (int i = 0; i < size; i++) {
+                    tail[i] = ring[(start + i) % TAIL_SIZE];
+                }
+                return findLastMatch(new String(tail, StandardCharsets.UTF_8));
+            }
+        };
+    }
+
     private String readTail(Path tempFile) throws IOException {
         try (var raf = new RandomAccessFile(tempFile.toFile(), "r")) {
             long fileSize = raf.length();
@@ -34,43 +34,73 @@ public final class WbCatalogCursorExtractor implements CursorExtractor {
     try (InputStream is = new BufferedInputStream(
         Files.newInputStream(tempFile), BUFFER_SIZE);
          JsonParser parser = JSON_FACTORY.createParser(is)) {
-      return findCursorObject(parser);
+      return JsonTokenMatcher.drain(parser, new CursorObjectMatcher());
     }
   }
 
-  private Optional<String> findCursorObject(JsonParser parser) throws IOException {
-    while (parser.nextToken() != null) {
-      if (parser.currentToken() == JsonToken.FIELD_NAME
-          && "cursor".equals(parser.currentName())) {
-        parser.nextToken();
-        if (parser.currentToken() == JsonToken.START_OBJECT) {
-          return parseCursorFields(parser);
+  @Override
+  public CursorScanner newScanner() {
+    return new JsonCursorScanner(new CursorObjectMatcher());
+  }
+
+  private static final class CursorObjectMatcher implements JsonTokenMatcher {
+
+    private enum State { SEARCH, EXPECT_OBJECT, IN_CURSOR }
+
+    private State state = State.SEARCH;
+    private String pendingField;
+    private String updatedAt = "";
+    private long nmId;
+    private int total;
+    private String result;
+
+    @Override
+    public boolean onToken(JsonParser parser, JsonToken token) throws IOException {
+      switch (state) {
+        case SEARCH -> {
+          if (token == JsonToken.FIELD_NAME && "cursor".equals(parser.currentName())) {
+            state = State.EXPECT_OBJECT;
+          }
+          return false;
+        }
+        case EXPECT_OBJECT -> {
+          if (token != JsonToken.START_OBJECT) {
+            return true;
+          }
+          state = State.IN_CURSOR;
+          return false;
+        }
+        default -> {
+          return onCursorToken(parser, token);
         }
-        return Optional.empty();
       }
     }
-    return Optional.empty();
-  }
-
-  private Optional<String> parseCursorFields(JsonParser parser) throws IOException {
-    String updatedAt = "";
-    long nmId = 0;
-    int total = 0;
 
-    while (parser.nextToken() != JsonToken.END_OBJECT) {
-      if (parser.currentToken() == JsonToken.FIELD_NAME) {
-        String fieldName = parser.currentName();
-        parser.nextToken();
-        switch (fieldName) {
+    private boolean onCursorToken(JsonParser parser, JsonToken token) throws IOException {
+      if (pendingField != null) {
+        switch (pendingField) {
           case "updatedAt" -> updatedAt = parser.getValueAsString("");
           case "nmID" -> nmId = parser.getValueAsLong(0);
           case "total" -> total = parser.getValueAsInt(0);
           default -> { }
         }
+        pendingField = null;
+        return false;
       }
+      if (token == JsonToken.END_OBJECT) {
+        result = updatedAt + "|" + nmId + "|" + total;
+        return true;
+      }
+      if (token == JsonToken.FIELD_NAME) {
+        pendingField = parser.currentName();
+      }
+      return false;
     }
 
-    return Optional.of(updatedAt + "|" + nmId + "|" + total);
+    @Override
+    public Optional<String> result() {
+      return Optional.ofNullable(result);
+    }
   }
 
   /**
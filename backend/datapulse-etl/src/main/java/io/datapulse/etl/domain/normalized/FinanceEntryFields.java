@@ -0,0 +1,58 @@
+package io.datapulse.etl.domain.normalized;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import io.datapulse.etl.domain.FinanceEntryType;
+
+/**
+ * Read view of a normalized finance record, shared by the immutable {@link NormalizedFinanceItem}
+ * (DTO path) and the reusable {@link FinanceRowBuffer} (token-stream path), so SKU/warehouse
+ * resolution and entity mapping are written once for both.
+ */
+public interface FinanceEntryFields {
+
+    String externalEntryId();
+
+    FinanceEntryType entryType();
+
+    String postingId();
+
+    String orderId();
+
+    String sellerSku();
+
+    String marketplaceSku();
+
+    String warehouseExternalId();
+
+    String fulfillmentType();
+
+    BigDecimal revenueAmount();
+
+    BigDecimal marketplaceCommissionAmount();
+
+    BigDecimal acquiringCommissionAmount();
+
+    BigDecimal logisticsCostAmount();
+
+    BigDecimal storageCostAmount();
+
+    BigDecimal penaltiesAmount();
+
+    BigDecimal acceptanceCostAmount();
+
+    BigDecimal marketingCostAmount();
+
+    BigDecimal otherMarketplaceChargesAmount();
+
+    BigDecimal compensationAmount();
+
+    BigDecimal refundAmount();
+
+    BigDecimal netPayout();
+
+    String currency();
+
+    OffsetDateTime entryDate();
+}
@@ -0,0 +1,144 @@
+package io.datapulse.etl.domain.normalized;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+import io.datapulse.etl.domain.FinanceEntryType;
+import io.datapulse.etl.domain.FinanceEntryType.MeasureColumn;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Mutable counterpart of {@link NormalizedFinanceItem} for the token-stream normalizers.
+ * {@link io.datapulse.etl.domain.RawPageReader#readTokens} allocates one buffer per batch slot
+ * and refills it for every record, so a page costs {@code batchSize} buffers instead of a
+ * provider DTO graph plus a normalized record per row.
+ *
+ * <p>Same field semantics and sign convention as {@link NormalizedFinanceItem}.
+ * {@code providerEntryType} carries the raw provider operation name (WB
+ * {@code supplier_oper_name}, Ozon {@code operation_type}) for unmapped-type warnings.</p>
+ *
+ * <p>Also the sink of the per-marketplace finance rules ({@code WbFinanceRules},
+ * {@code OzonFinanceRules}): the DTO normalizers fill a fresh buffer and snapshot it with
+ * {@link #toItem()}, so both paths run the same sign and measure code.</p>
+ */
+@Getter
+@Setter
+@Accessors(fluent = true)
+public class FinanceRowBuffer implements FinanceEntryFields {
+
+    private String externalEntryId;
+    private FinanceEntryType entryType;
+    private String providerEntryType;
+    private String postingId;
+    private String orderId;
+    private String sellerSku;
+    private String marketplaceSku;
+    private String warehouseExternalId;
+    private String fulfillmentType;
+    private BigDecimal revenueAmount;
+    private BigDecimal marketplaceCommissionAmount;
+    private BigDecimal acquiringCommissionAmount;
+    private BigDecimal logisticsCostAmount;
+    private BigDecimal storageCostAmount;
+    private BigDecimal penaltiesAmount;
+    private BigDecimal acceptanceCostAmount;
+    private BigDecimal marketingCostAmount;
+    private BigDecimal otherMarketplaceChargesAmount;
+    private BigDecimal compensationAmount;
+    private BigDecimal refundAmount;
+    private BigDecimal netPayout;
+    private String currency;
+    private OffsetDateTime entryDate;
+
+    /**
+     * Clears identifiers and sets every measure to zero before the buffer is refilled.
+     */
+    public void reset() {
+        externalEntryId = null;
+        entryType = null;
+        providerEntryType = null;
+        postingId = null;
+        orderId = null;
+        sellerSku = null;
+        marketplaceSku = null;
+        warehouseExternalId = null;
+        fulfillmentType = null;
+        currency = null;
+        entryDate = null;
+        clearMeasures();
+    }
+
+    /**
+     * Sets the 12 measure columns back to zero.
+     */
+    public void clearMeasures() {
+        revenueAmount = BigDecimal.ZERO;
+        marketplaceCommissionAmount = BigDecimal.ZERO;
+        acquiringCommissionAmount = BigDecimal.ZERO;
+        logisticsCostAmount = BigDecimal.ZERO;
+        storageCostAmount = BigDecimal.ZERO;
+        penaltiesAmount = BigDecimal.ZERO;
+        acceptanceCostAmount = BigDecimal.ZERO;
+        marketingCostAmount = BigDecimal.ZERO;
+        otherMarketplaceChargesAmount = BigDecimal.ZERO;
+        compensationAmount = BigDecimal.ZERO;
+        refundAmount = BigDecimal.ZERO;
+        netPayout = BigDecimal.ZERO;
+    }
+
+    /**
+     * Adds {@code value} to the measure column {@code column}; {@code null} adds nothing.
+     */
+    public FinanceRowBuffer addTo(MeasureColumn column, BigDecimal value) {
+        if (value == null) {
+            return this;
+        }
+        switch (column) {
+            case REVENUE -> revenueAmount = revenueAmount.add(value);
+            case REFUND -> refundAmount = refundAmount.add(value);
+            case MARKETPLACE_COMMISSION ->
+                    marketplaceCommissionAmount = marketplaceCommissionAmount.add(value);
+            case ACQUIRING -> acquiringCommissionAmount = acquiringCommissionAmount.add(value);
+            case LOGISTICS -> logisticsCostAmount = logisticsCostAmount.add(value);
+            case STORAGE -> storageCostAmount = storageCostAmount.add(value);
+            case PENALTIES -> penaltiesAmount = penaltiesAmount.add(value);
+            case ACCEPTANCE -> acceptanceCostAmount = acceptanceCostAmount.add(value);
+            case MARKETING -> marketingCostAmount = marketingCostAmount.add(value);
+            case COMPENSATION -> compensationAmount = compensationAmount.add(value);
+            case OTHER -> otherMarketplaceChargesAmount = otherMarketplaceChargesAmount.add(value);
+        }
+        return this;
+    }
+
+    /**
+     * Immutable snapshot of the buffer for the DTO path.
+     */
+    public NormalizedFinanceItem toItem() {
+        return new NormalizedFinanceItem(
+                externalEntryId,
+                entryType,
+                postingId,
+                orderId,
+                sellerSku,
+                marketplaceSku,
+                warehouseExternalId,
+                fulfillmentType,
+                revenueAmount,
+                marketplaceCommissionAmount,
+                acquiringCommissionAmount,
+                logisticsCostAmount,
+                storageCostAmount,
+                penaltiesAmount,
+                acceptanceCostAmount,
+                marketingCostAmount,
+                otherMarketplaceChargesAmount,
+                compensationAmount,
+                refundAmount,
+                netPayout,
+                currency,
+                entryDate
+        );
+    }
+}
@@ -41,4 +41,4 @@ public record NormalizedFinanceItem(
         BigDecimal netPayout,
         String currency,
         OffsetDateTime entryDate
-) {}
+) implements FinanceEntryFields {}
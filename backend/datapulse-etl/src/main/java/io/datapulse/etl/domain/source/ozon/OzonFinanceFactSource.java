@@ -3,21 +3,31 @@ package io.datapulse.etl.domain.source.ozon;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import io.datapulse.etl.adapter.ozon.OzonFinanceNormalizer;
 import io.datapulse.etl.adapter.ozon.OzonFinanceReadAdapter;
+import io.datapulse.etl.adapter.ozon.OzonFinanceTokenReader;
 import io.datapulse.etl.adapter.ozon.dto.OzonFinanceTransaction;
+import io.datapulse.etl.config.NormalizerProperties;
 import io.datapulse.etl.domain.CanonicalFinanceNormalizer;
+import io.datapulse.etl.domain.CaptureContext;
 import io.datapulse.etl.domain.CaptureContextFactory;
 import io.datapulse.etl.domain.CaptureResult;
+import io.datapulse.etl.domain.DateWindowResume;
 import io.datapulse.etl.domain.EtlEventType;
 import io.datapulse.etl.domain.EtlSubSourceResume;
-import io.datapulse.etl.domain.EventSource;
+import io.datapulse.etl.domain.FactWindow;
+import io.datapulse.etl.domain.FactWindowPlanner;
 import io.datapulse.etl.domain.FinanceEntryType;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.ReplayableEventSource;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
 import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
+import io.datapulse.etl.persistence.canonical.CanonicalFinanceEntryEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalFinanceEntryUpsertRepository;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
@@ -26,13 +36,16 @@ import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class OzonFinanceFactSource implements EventSource {
+public class OzonFinanceFactSource implements ReplayableEventSource {
 
   private final OzonFinanceReadAdapter adapter;
   private final OzonFinanceNormalizer normalizer;
   private final CanonicalFinanceEntryUpsertRepository repository;
   private final CanonicalFinanceNormalizer financeNormalizer;
   private final SubSourceRunner subSourceRunner;
+  private final OzonFinanceTokenReader tokenReader;
+  private final NormalizerProperties normalizerProperties;
+  private final FactWindowPlanner factWindowPlanner;
 
   @Override
   public MarketplaceType marketplace() {
@@ -50,35 +63,97 @@ public class OzonFinanceFactSource implements EventSource {
     String apiKey = ctx.credentials().get(CredentialKeys.OZON_API_KEY);
 
     var captureCtx = CaptureContextFactory.build(ctx, eventType(), "OzonFinanceReadAdapter");
-    int financePage =
-        EtlSubSourceResume.ozonFinanceStartPage(ctx, eventType(), "OzonFinanceReadAdapter");
-    List<CaptureResult> pages = adapter.captureAllPages(
-        captureCtx, clientId, apiKey, ctx.ozonFactSince(), ctx.ozonFactTo(), financePage);
+    FactWindow window = factWindowPlanner.plan(ctx, eventType(), "OzonFinanceReadAdapter");
+    DateWindowResume resume =
+        EtlSubSourceResume.dateWindows(ctx, eventType(), "OzonFinanceReadAdapter");
+    Set<String> unmappedTypes = ConcurrentHashMap.newKeySet();
+
+    Function<CaptureContext, List<CaptureResult>> capture =
+        c -> adapter.captureAllPages(
+            c, clientId, apiKey, window.since(), window.to(), resume);
+
+    SubSourceResult result = normalizerProperties.tokenStreaming()
+        ? subSourceRunner.streamPages(
+            "OzonFinanceReadAdapter", captureCtx, capture, tokenReader,
+            tokenBatch(ctx, unmappedTypes))
+        : subSourceRunner.streamPages(
+            "OzonFinanceReadAdapter", captureCtx, capture,
+            OzonFinanceTransaction.class,
+            transactionBatch(ctx, unmappedTypes));
+    factWindowPlanner.advance(ctx, eventType(), window, result);
+
+    return List.of(withUnmappedTypes(result, unmappedTypes));
+  }
 
+  @Override
+  public Set<String> replayableSourceIds() {
+    return Set.of("OzonFinanceReadAdapter");
+  }
+
+  @Override
+  public SubSourceResult replay(IngestContext ctx, String sourceId, List<CaptureResult> pages) {
     Set<String> unmappedTypes = ConcurrentHashMap.newKeySet();
+    SubSourceResult result = normalizerProperties.tokenStreaming()
+        ? subSourceRunner.replayTokenPages(sourceId, pages, tokenReader,
+            tokenEntries(ctx, unmappedTypes), repository::batchUpsert)
+        : subSourceRunner.replayPages(sourceId, pages, OzonFinanceTransaction.class,
+            transactionEntries(ctx, unmappedTypes), repository::batchUpsert);
+    return withUnmappedTypes(result, unmappedTypes);
+  }
+
+  private Consumer<List<FinanceRowBuffer>> tokenBatch(IngestContext ctx,
+                                                      Set<String> unmappedTypes) {
+    Function<List<FinanceRowBuffer>, List<CanonicalFinanceEntryEntity>> entries =
+        tokenEntries(ctx, unmappedTypes);
+    return batch -> repository.batchUpsert(entries.apply(batch));
+  }
+
+  private Function<List<FinanceRowBuffer>, List<CanonicalFinanceEntryEntity>> tokenEntries(
+      IngestContext ctx, Set<String> unmappedTypes) {
+    return batch -> {
+      for (FinanceRowBuffer row : batch) {
+        if (row.entryType() == FinanceEntryType.OTHER
+            && row.providerEntryType() != null
+            && !row.providerEntryType().isBlank()) {
+          unmappedTypes.add(row.providerEntryType().trim());
+        }
+      }
+      return financeNormalizer.normalizeBatch(batch, ctx);
+    };
+  }
+
+  private Consumer<List<OzonFinanceTransaction>> transactionBatch(IngestContext ctx,
+                                                                  Set<String> unmappedTypes) {
+    Function<List<OzonFinanceTransaction>, List<CanonicalFinanceEntryEntity>> entries =
+        transactionEntries(ctx, unmappedTypes);
+    return batch -> repository.batchUpsert(entries.apply(batch));
+  }
+
+  private Function<List<OzonFinanceTransaction>, List<CanonicalFinanceEntryEntity>>
+      transactionEntries(IngestContext ctx, Set<String> unmappedTypes) {
+    return batch -> {
+      var normalized = batch.stream()
+          .map(tx -> {
+            NormalizedFinanceItem item = normalizer.normalizeFinanceTransaction(tx);
+            if (item.entryType() == FinanceEntryType.OTHER
+                && tx.operationType() != null
+                && !tx.operationType().isBlank()) {
+              unmappedTypes.add(tx.operationType().trim());
+            }
+            return item;
+          })
+          .toList();
+      return financeNormalizer.normalizeBatch(normalized, ctx);
+    };
+  }
 
-    SubSourceResult result = subSourceRunner.processPages(
-        "OzonFinanceReadAdapter", pages, OzonFinanceTransaction.class,
-        batch -> {
-          var normalized = batch.stream()
-              .map(tx -> {
-                NormalizedFinanceItem item = normalizer.normalizeFinanceTransaction(tx);
-                if (item.entryType() == FinanceEntryType.OTHER
-                    && tx.operationType() != null
-                    && !tx.operationType().isBlank()) {
-                  unmappedTypes.add(tx.operationType().trim());
-                }
-                return item;
-              })
-              .toList();
-          repository.batchUpsert(financeNormalizer.normalizeBatch(normalized, ctx));
-        });
-
-    if (!unmappedTypes.isEmpty()) {
-      return List.of(SubSourceResult.successWithWarnings(
-          result.sourceId(), result.pagesProcessed(),
-          result.recordsProcessed(), unmappedTypes));
+  private static SubSourceResult withUnmappedTypes(SubSourceResult result,
+                                                   Set<String> unmappedTypes) {
+    if (unmappedTypes.isEmpty()) {
+      return result;
     }
-    return List.of(result);
+    return SubSourceResult.successWithWarnings(
+        result.sourceId(), result.pagesProcessed(),
+        result.recordsProcessed(), unmappedTypes);
   }
 }
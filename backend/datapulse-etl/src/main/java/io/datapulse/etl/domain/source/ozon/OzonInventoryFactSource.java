@@ -18,7 +18,8 @@ import io.datapulse.etl.domain.IngestContext;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
 import io.datapulse.etl.persistence.canonical.CanonicalStockCurrentUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuIdMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.etl.persistence.canonical.WarehouseLookupRepository;
 import io.datapulse.etl.persistence.canonical.WarehouseUpsertRepository;
 import io.datapulse.integration.domain.CredentialKeys;
@@ -38,7 +39,7 @@ public class OzonInventoryFactSource implements EventSource {
   private final WarehouseUpsertRepository warehouseUpsertRepository;
   private final CanonicalEntityMapper mapper;
   private final SubSourceRunner subSourceRunner;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
   private final WarehouseLookupRepository warehouseLookup;
 
   @Override
@@ -62,7 +63,7 @@ public class OzonInventoryFactSource implements EventSource {
     List<CaptureResult> pages =
         adapter.captureAllPages(captureCtx, clientId, apiKey, stocksLastId);
 
-    Map<String, Long> offerIdMap = skuLookup.findAllOfferIdsByConnection(ctx.connectionId());
+    SkuIdMap offerIdMap = skuCache.offerIdsByConnection(ctx.connectionId());
     var warehouseIdMap = new java.util.HashMap<>(
         warehouseLookup.findAllIdsByConnection(ctx.connectionId()));
     OffsetDateTime capturedAt = OffsetDateTime.now();
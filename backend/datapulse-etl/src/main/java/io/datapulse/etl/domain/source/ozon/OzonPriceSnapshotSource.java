@@ -2,7 +2,6 @@ package io.datapulse.etl.domain.source.ozon;
 
 import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 import io.datapulse.etl.adapter.ozon.OzonNormalizer;
@@ -15,10 +14,12 @@ import io.datapulse.etl.domain.EtlEventType;
 import io.datapulse.etl.domain.EtlSubSourceResume;
 import io.datapulse.etl.domain.EventSource;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.PageDedupScope;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
 import io.datapulse.etl.persistence.canonical.CanonicalPriceCurrentUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuIdMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
 import lombok.RequiredArgsConstructor;
@@ -35,7 +36,7 @@ public class OzonPriceSnapshotSource implements EventSource {
   private final CanonicalPriceCurrentUpsertRepository repository;
   private final CanonicalEntityMapper mapper;
   private final SubSourceRunner subSourceRunner;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
 
   @Override
   public MarketplaceType marketplace() {
@@ -58,7 +59,7 @@ public class OzonPriceSnapshotSource implements EventSource {
     List<CaptureResult> pages =
         adapter.captureAllPages(captureCtx, clientId, apiKey, pricesLastId);
 
-    Map<String, Long> offerIdMap = skuLookup.findAllOfferIdsByConnection(ctx.connectionId());
+    SkuIdMap offerIdMap = skuCache.offerIdsByConnection(ctx.connectionId());
     OffsetDateTime capturedAt = OffsetDateTime.now();
 
     SubSourceResult result = subSourceRunner.processPages(
@@ -83,7 +84,9 @@ public class OzonPriceSnapshotSource implements EventSource {
           if (!entities.isEmpty()) {
             repository.batchUpsert(entities);
           }
-        });
+        },
+        PageDedupScope.of(ctx, eventType(), "OzonPricesReadAdapter",
+            offerIdMap.contentVersion()));
     return List.of(result);
   }
 }
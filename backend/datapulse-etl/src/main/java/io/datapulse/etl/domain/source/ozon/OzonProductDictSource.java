@@ -18,6 +18,7 @@ import io.datapulse.etl.domain.EtlEventType;
 import io.datapulse.etl.domain.EtlSubSourceResume;
 import io.datapulse.etl.domain.EventSource;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.PageDedupScope;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
 import io.datapulse.etl.domain.normalized.NormalizedCatalogItem;
@@ -28,7 +29,8 @@ import io.datapulse.etl.persistence.canonical.ProductMasterUpsertRepository;
 import io.datapulse.etl.persistence.canonical.ProductMasterUpsertRepository.BrandUpdate;
 import io.datapulse.etl.persistence.canonical.SellerSkuEntity;
 import io.datapulse.etl.persistence.canonical.SellerSkuUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuIdMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
 import lombok.RequiredArgsConstructor;
@@ -43,6 +45,8 @@ import org.springframework.stereotype.Component;
  *       creates product_master → seller_sku → marketplace_offer hierarchy</li>
  *   <li>Attributes (soft dep on #1) → brand enrichment, failure is non-fatal</li>
  * </ol>
+ * Attribute pages are applied on every run, unchanged or not: the brand they carry belongs to
+ * product_master rows that the info sub-source may have just rewritten.
  */
 @Slf4j
 @Component
@@ -58,7 +62,7 @@ public class OzonProductDictSource implements EventSource {
   private final ProductMasterUpsertRepository productMasterRepository;
   private final ProductMasterLookupRepository productMasterLookup;
   private final SellerSkuUpsertRepository sellerSkuRepository;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
   private final MarketplaceOfferUpsertRepository offerRepository;
 
   @Override
@@ -100,7 +104,8 @@ public class OzonProductDictSource implements EventSource {
         infoCtx, clientId, apiKey, productIds, infoBatchStart);
     SubSourceResult infoResult = subSourceRunner.processPages(
         "OzonProductInfoReadAdapter", infoPages, OzonProductInfo.class,
-        batch -> processInfoBatch(batch, ctx));
+        batch -> processInfoBatch(batch, ctx),
+        PageDedupScope.of(ctx, eventType(), "OzonProductInfoReadAdapter"));
     results.add(infoResult);
 
     try {
@@ -159,7 +164,7 @@ public class OzonProductDictSource implements EventSource {
       sellerSkuRepository.batchUpsert(skuEntities);
     }
 
-    Map<String, Long> skuIds = skuLookup.findAllByWorkspace(ctx.workspaceId());
+    SkuIdMap skuIds = skuCache.sellerSkuIdsByWorkspace(ctx.workspaceId());
 
     List<MarketplaceOfferEntity> offerEntities = new ArrayList<>();
     for (NormalizedCatalogItem item : items) {
@@ -2,6 +2,7 @@ package io.datapulse.etl.domain.source.ozon;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import io.datapulse.etl.adapter.ozon.OzonFboOrdersReadAdapter;
 import io.datapulse.etl.adapter.ozon.OzonFbsOrdersReadAdapter;
@@ -13,25 +14,35 @@ import io.datapulse.etl.adapter.ozon.dto.OzonReturnItem;
 import io.datapulse.etl.domain.CanonicalEntityMapper;
 import io.datapulse.etl.domain.CaptureContextFactory;
 import io.datapulse.etl.domain.CaptureResult;
+import io.datapulse.etl.domain.DateWindowResume;
 import io.datapulse.etl.domain.EtlEventType;
 import io.datapulse.etl.domain.EtlSubSourceResume;
-import io.datapulse.etl.domain.EventSource;
+import io.datapulse.etl.domain.FactWindow;
+import io.datapulse.etl.domain.FactWindowPlanner;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.ReplayableEventSource;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
+import io.datapulse.etl.domain.SubSourceScheduler;
+import io.datapulse.etl.domain.SubSourceTask;
+import io.datapulse.etl.persistence.canonical.CanonicalOrderEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalOrderUpsertRepository;
+import io.datapulse.etl.persistence.canonical.CanonicalReturnEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalReturnUpsertRepository;
+import io.datapulse.etl.persistence.canonical.CanonicalSaleEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalSaleUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.OfferSkuMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.etl.persistence.canonical.SkuLookupRepository.OfferSkuIds;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class OzonSalesFactSource implements EventSource {
+public class OzonSalesFactSource implements ReplayableEventSource {
 
     private final OzonFboOrdersReadAdapter fboAdapter;
     private final OzonFbsOrdersReadAdapter fbsAdapter;
@@ -41,8 +52,10 @@ public class OzonSalesFactSource implements EventSource {
     private final CanonicalSaleUpsertRepository saleRepo;
     private final CanonicalReturnUpsertRepository returnRepo;
     private final CanonicalEntityMapper mapper;
-    private final SkuLookupRepository skuLookup;
+    private final SkuResolutionCache skuCache;
     private final SubSourceRunner subSourceRunner;
+    private final SubSourceScheduler subSourceScheduler;
+    private final FactWindowPlanner factWindowPlanner;
 
     @Override
     public MarketplaceType marketplace() {
@@ -58,88 +71,156 @@ public class OzonSalesFactSource implements EventSource {
     public List<SubSourceResult> execute(IngestContext ctx) {
         String clientId = ctx.credentials().get(CredentialKeys.OZON_CLIENT_ID);
         String apiKey = ctx.credentials().get(CredentialKeys.OZON_API_KEY);
-        var since = ctx.ozonFactSince();
-        var to = ctx.ozonFactTo();
-        List<SubSourceResult> results = new ArrayList<>();
 
+        return subSourceScheduler.runAll(List.of(
+                new SubSourceTask("OzonFboOrdersReadAdapter", RateLimitGroup.OZON_DEFAULT,
+                        () -> syncFboOrders(ctx, clientId, apiKey)),
+                new SubSourceTask("OzonFbsOrdersReadAdapter", RateLimitGroup.OZON_DEFAULT,
+                        () -> syncFbsOrders(ctx, clientId, apiKey)),
+                new SubSourceTask("OzonReturnsReadAdapter", RateLimitGroup.OZON_DEFAULT,
+                        () -> syncReturns(ctx, clientId, apiKey))));
+    }
+
+    private SubSourceResult syncFboOrders(IngestContext ctx, String clientId, String apiKey) {
         var fboCtx = CaptureContextFactory.build(ctx, eventType(), "OzonFboOrdersReadAdapter");
-        long fboStart =
-            EtlSubSourceResume.nonNegativeLong(ctx, eventType(), "OzonFboOrdersReadAdapter");
-        List<CaptureResult> fboPages =
-            fboAdapter.captureAllPages(fboCtx, clientId, apiKey, since, to, fboStart);
-        results.add(subSourceRunner.processPages(
-                "OzonFboOrdersReadAdapter", fboPages, OzonFboPosting.class,
-                batch -> processFboBatch(batch, ctx)));
+        FactWindow window = factWindowPlanner.plan(ctx, eventType(), "OzonFboOrdersReadAdapter");
+        DateWindowResume fboResume =
+            EtlSubSourceResume.dateWindows(ctx, eventType(), "OzonFboOrdersReadAdapter");
+        SubSourceResult result = subSourceRunner.streamPages(
+                "OzonFboOrdersReadAdapter", fboCtx,
+                c -> fboAdapter.captureAllPages(
+                        c, clientId, apiKey, window.since(), window.to(), fboResume),
+                OzonFboPosting.class,
+                batch -> processFboBatch(batch, ctx));
+        return factWindowPlanner.advance(ctx, eventType(), window, result);
+    }
 
+    private SubSourceResult syncFbsOrders(IngestContext ctx, String clientId, String apiKey) {
         var fbsCtx = CaptureContextFactory.build(ctx, eventType(), "OzonFbsOrdersReadAdapter");
-        long fbsStart =
-            EtlSubSourceResume.nonNegativeLong(ctx, eventType(), "OzonFbsOrdersReadAdapter");
-        List<CaptureResult> fbsPages =
-            fbsAdapter.captureAllPages(fbsCtx, clientId, apiKey, since, to, fbsStart);
-        results.add(subSourceRunner.processPages(
-                "OzonFbsOrdersReadAdapter", fbsPages, OzonFbsPosting.class,
-                batch -> processFbsBatch(batch, ctx)));
+        FactWindow window = factWindowPlanner.plan(ctx, eventType(), "OzonFbsOrdersReadAdapter");
+        DateWindowResume fbsResume =
+            EtlSubSourceResume.dateWindows(ctx, eventType(), "OzonFbsOrdersReadAdapter");
+        SubSourceResult result = subSourceRunner.streamPages(
+                "OzonFbsOrdersReadAdapter", fbsCtx,
+                c -> fbsAdapter.captureAllPages(
+                        c, clientId, apiKey, window.since(), window.to(), fbsResume),
+                OzonFbsPosting.class,
+                batch -> processFbsBatch(batch, ctx));
+        return factWindowPlanner.advance(ctx, eventType(), window, result);
+    }
 
-        var skuCodeMap = skuLookup.findAllOfferBySellerSkuCode(ctx.workspaceId());
+    private SubSourceResult syncReturns(IngestContext ctx, String clientId, String apiKey) {
+        var skuCodeMap = skuCache.offersBySellerSkuCode(ctx.workspaceId());
 
         var returnsCtx = CaptureContextFactory.build(ctx, eventType(), "OzonReturnsReadAdapter");
+        FactWindow window = factWindowPlanner.plan(ctx, eventType(), "OzonReturnsReadAdapter");
         long returnsStart =
             EtlSubSourceResume.nonNegativeLong(ctx, eventType(), "OzonReturnsReadAdapter");
-        List<CaptureResult> returnsPages =
-            returnsAdapter.captureAllPages(returnsCtx, clientId, apiKey, since, to, returnsStart);
-        results.add(subSourceRunner.processPages(
-                "OzonReturnsReadAdapter", returnsPages, OzonReturnItem.class,
-                batch -> returnRepo.batchUpsert(batch.stream()
-                        .map(item -> {
-                            var norm = normalizer.normalizeReturn(item);
-                            OfferSkuIds ids = norm.sellerSku() != null
-                                    ? skuCodeMap.get(norm.sellerSku()) : null;
-                            return mapper.toReturn(norm, ctx,
-                                    ids != null ? ids.offerId() : null,
-                                    ids != null ? ids.sellerSkuId() : null);
-                        })
-                        .toList())));
-
-        return results;
+        SubSourceResult result = subSourceRunner.streamPages(
+                "OzonReturnsReadAdapter", returnsCtx,
+                c -> returnsAdapter.captureAllPages(
+                        c, clientId, apiKey, window.since(), window.to(), returnsStart),
+                OzonReturnItem.class,
+                batch -> processReturnsBatch(batch, ctx, skuCodeMap));
+        return factWindowPlanner.advance(ctx, eventType(), window, result);
+    }
+
+    @Override
+    public Set<String> replayableSourceIds() {
+        return Set.of("OzonFboOrdersReadAdapter", "OzonFbsOrdersReadAdapter",
+                "OzonReturnsReadAdapter");
+    }
+
+    @Override
+    public SubSourceResult replay(IngestContext ctx, String sourceId, List<CaptureResult> pages) {
+        return switch (sourceId) {
+            case "OzonFboOrdersReadAdapter" -> subSourceRunner.replayPages(
+                    sourceId, pages, OzonFboPosting.class,
+                    batch -> mapFboBatch(batch, ctx), this::upsertPostings);
+            case "OzonFbsOrdersReadAdapter" -> subSourceRunner.replayPages(
+                    sourceId, pages, OzonFbsPosting.class,
+                    batch -> mapFbsBatch(batch, ctx), this::upsertPostings);
+            case "OzonReturnsReadAdapter" -> {
+                var skuCodeMap = skuCache.offersBySellerSkuCode(ctx.workspaceId());
+                yield subSourceRunner.replayPages(sourceId, pages, OzonReturnItem.class,
+                        batch -> mapReturnsBatch(batch, ctx, skuCodeMap), returnRepo::batchUpsert);
+            }
+            default -> throw new IllegalArgumentException(
+                    "Sub-source is not replayable: sourceId=%s".formatted(sourceId));
+        };
+    }
+
+    private void processReturnsBatch(List<OzonReturnItem> batch, IngestContext ctx,
+                                     OfferSkuMap skuCodeMap) {
+        returnRepo.batchUpsert(mapReturnsBatch(batch, ctx, skuCodeMap));
+    }
+
+    private List<CanonicalReturnEntity> mapReturnsBatch(List<OzonReturnItem> batch,
+                                                        IngestContext ctx,
+                                                        OfferSkuMap skuCodeMap) {
+        return batch.stream()
+                .map(item -> {
+                    var norm = normalizer.normalizeReturn(item);
+                    OfferSkuIds ids = norm.sellerSku() != null
+                            ? skuCodeMap.get(norm.sellerSku()) : null;
+                    return mapper.toReturn(norm, ctx,
+                            ids != null ? ids.offerId() : null,
+                            ids != null ? ids.sellerSkuId() : null);
+                })
+                .toList();
     }
 
     private void processFboBatch(List<OzonFboPosting> batch, IngestContext ctx) {
-        List<io.datapulse.etl.persistence.canonical.CanonicalOrderEntity> orders = new ArrayList<>();
-        List<io.datapulse.etl.persistence.canonical.CanonicalSaleEntity> sales = new ArrayList<>();
+        upsertPostings(mapFboBatch(batch, ctx));
+    }
 
+    private MappedPostings mapFboBatch(List<OzonFboPosting> batch, IngestContext ctx) {
+        var mapped = new MappedPostings(new ArrayList<>(), new ArrayList<>());
         for (OzonFboPosting posting : batch) {
             for (var product : posting.products()) {
-                orders.add(mapper.toOrder(normalizer.normalizeFboPosting(posting, product), ctx));
+                mapped.orders().add(
+                        mapper.toOrder(normalizer.normalizeFboPosting(posting, product), ctx));
                 if (normalizer.isDeliveredPosting(posting.status())) {
-                    sales.add(mapper.toSale(normalizer.normalizeFboSale(posting, product), ctx));
+                    mapped.sales().add(
+                            mapper.toSale(normalizer.normalizeFboSale(posting, product), ctx));
                 }
             }
         }
-        if (!orders.isEmpty()) {
-            orderRepo.batchUpsert(orders);
-        }
-        if (!sales.isEmpty()) {
-            saleRepo.batchUpsert(sales);
-        }
+        return mapped;
     }
 
     private void processFbsBatch(List<OzonFbsPosting> batch, IngestContext ctx) {
-        List<io.datapulse.etl.persistence.canonical.CanonicalOrderEntity> orders = new ArrayList<>();
-        List<io.datapulse.etl.persistence.canonical.CanonicalSaleEntity> sales = new ArrayList<>();
+        upsertPostings(mapFbsBatch(batch, ctx));
+    }
 
+    private MappedPostings mapFbsBatch(List<OzonFbsPosting> batch, IngestContext ctx) {
+        var mapped = new MappedPostings(new ArrayList<>(), new ArrayList<>());
         for (OzonFbsPosting posting : batch) {
             for (var product : posting.products()) {
-                orders.add(mapper.toOrder(normalizer.normalizeFbsPosting(posting, product), ctx));
+                mapped.orders().add(
+                        mapper.toOrder(normalizer.normalizeFbsPosting(posting, product), ctx));
                 if (normalizer.isDeliveredPosting(posting.status())) {
-                    sales.add(mapper.toSale(normalizer.normalizeFbsSale(posting, product), ctx));
+                    mapped.sales().add(
+                            mapper.toSale(normalizer.normalizeFbsSale(posting, product), ctx));
                 }
             }
         }
-        if (!orders.isEmpty()) {
-            orderRepo.batchUpsert(orders);
+        return mapped;
+    }
+
+    private void upsertPostings(MappedPostings mapped) {
+        if (!mapped.orders().isEmpty()) {
+            orderRepo.batchUpsert(mapped.orders());
         }
-        if (!sales.isEmpty()) {
-            saleRepo.batchUpsert(sales);
+        if (!mapped.sales().isEmpty()) {
+            saleRepo.batchUpsert(mapped.sales());
         }
     }
+
+    /**
+     * Orders and sales mapped from one batch of postings, written together.
+     */
+    private record MappedPostings(List<CanonicalOrderEntity> orders,
+                                  List<CanonicalSaleEntity> sales) {
+    }
 }
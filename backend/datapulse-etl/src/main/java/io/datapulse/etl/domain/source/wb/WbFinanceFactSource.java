@@ -3,20 +3,29 @@ package io.datapulse.etl.domain.source.wb;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import io.datapulse.etl.adapter.wb.WbFinanceReadAdapter;
+import io.datapulse.etl.adapter.wb.WbFinanceTokenReader;
 import io.datapulse.etl.adapter.wb.WbNormalizer;
 import io.datapulse.etl.adapter.wb.dto.WbFinanceRow;
+import io.datapulse.etl.config.NormalizerProperties;
 import io.datapulse.etl.domain.CanonicalFinanceNormalizer;
+import io.datapulse.etl.domain.CaptureContext;
 import io.datapulse.etl.domain.CaptureContextFactory;
 import io.datapulse.etl.domain.CaptureResult;
 import io.datapulse.etl.domain.EtlEventType;
-import io.datapulse.etl.domain.EventSource;
+import io.datapulse.etl.domain.FactWindow;
+import io.datapulse.etl.domain.FactWindowPlanner;
 import io.datapulse.etl.domain.FinanceEntryType;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.ReplayableEventSource;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
 import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
+import io.datapulse.etl.persistence.canonical.CanonicalFinanceEntryEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalFinanceEntryUpsertRepository;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
@@ -25,13 +34,16 @@ import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class WbFinanceFactSource implements EventSource {
+public class WbFinanceFactSource implements ReplayableEventSource {
 
   private final WbFinanceReadAdapter adapter;
   private final WbNormalizer normalizer;
   private final CanonicalFinanceEntryUpsertRepository repository;
   private final CanonicalFinanceNormalizer financeNormalizer;
   private final SubSourceRunner subSourceRunner;
+  private final WbFinanceTokenReader tokenReader;
+  private final NormalizerProperties normalizerProperties;
+  private final FactWindowPlanner factWindowPlanner;
 
   @Override
   public MarketplaceType marketplace() {
@@ -47,33 +59,93 @@ public class WbFinanceFactSource implements EventSource {
   public List<SubSourceResult> execute(IngestContext ctx) {
     String token = ctx.credentials().get(CredentialKeys.WB_API_TOKEN);
     var captureCtx = CaptureContextFactory.build(ctx, eventType(), "WbFinanceReadAdapter");
-    List<CaptureResult> pages = adapter.captureAllPages(
-        captureCtx, token, ctx.wbFactDateFrom(), ctx.wbFactDateTo());
+    FactWindow window = factWindowPlanner.plan(ctx, eventType(), "WbFinanceReadAdapter");
+    Set<String> unmappedTypes = ConcurrentHashMap.newKeySet();
+
+    Function<CaptureContext, List<CaptureResult>> capture =
+        c -> adapter.captureAllPages(c, token, window.dateFrom(), window.dateTo());
+
+    SubSourceResult result = normalizerProperties.tokenStreaming()
+        ? subSourceRunner.streamPages(
+            "WbFinanceReadAdapter", captureCtx, capture, tokenReader,
+            tokenBatch(ctx, unmappedTypes))
+        : subSourceRunner.streamPages(
+            "WbFinanceReadAdapter", captureCtx, capture,
+            WbFinanceRow.class,
+            rowBatch(ctx, unmappedTypes));
+    factWindowPlanner.advance(ctx, eventType(), window, result);
+
+    return List.of(withUnmappedTypes(result, unmappedTypes));
+  }
 
+  @Override
+  public Set<String> replayableSourceIds() {
+    return Set.of("WbFinanceReadAdapter");
+  }
+
+  @Override
+  public SubSourceResult replay(IngestContext ctx, String sourceId, List<CaptureResult> pages) {
     Set<String> unmappedTypes = ConcurrentHashMap.newKeySet();
+    SubSourceResult result = normalizerProperties.tokenStreaming()
+        ? subSourceRunner.replayTokenPages(sourceId, pages, tokenReader,
+            tokenEntries(ctx, unmappedTypes), repository::batchUpsert)
+        : subSourceRunner.replayPages(sourceId, pages, WbFinanceRow.class,
+            rowEntries(ctx, unmappedTypes), repository::batchUpsert);
+    return withUnmappedTypes(result, unmappedTypes);
+  }
+
+  private Consumer<List<FinanceRowBuffer>> tokenBatch(IngestContext ctx,
+                                                      Set<String> unmappedTypes) {
+    Function<List<FinanceRowBuffer>, List<CanonicalFinanceEntryEntity>> entries =
+        tokenEntries(ctx, unmappedTypes);
+    return batch -> repository.batchUpsert(entries.apply(batch));
+  }
+
+  private Function<List<FinanceRowBuffer>, List<CanonicalFinanceEntryEntity>> tokenEntries(
+      IngestContext ctx, Set<String> unmappedTypes) {
+    return batch -> {
+      for (FinanceRowBuffer row : batch) {
+        if (row.entryType() == FinanceEntryType.OTHER
+            && row.providerEntryType() != null
+            && !row.providerEntryType().isBlank()) {
+          unmappedTypes.add(row.providerEntryType().trim());
+        }
+      }
+      return financeNormalizer.normalizeBatch(batch, ctx);
+    };
+  }
+
+  private Consumer<List<WbFinanceRow>> rowBatch(IngestContext ctx, Set<String> unmappedTypes) {
+    Function<List<WbFinanceRow>, List<CanonicalFinanceEntryEntity>> entries =
+        rowEntries(ctx, unmappedTypes);
+    return batch -> repository.batchUpsert(entries.apply(batch));
+  }
+
+  private Function<List<WbFinanceRow>, List<CanonicalFinanceEntryEntity>> rowEntries(
+      IngestContext ctx, Set<String> unmappedTypes) {
+    return batch -> {
+      var normalized = batch.stream()
+          .map(row -> {
+            NormalizedFinanceItem item = normalizer.normalizeFinance(row);
+            if (item.entryType() == FinanceEntryType.OTHER
+                && row.supplierOperName() != null
+                && !row.supplierOperName().isBlank()) {
+              unmappedTypes.add(row.supplierOperName().trim());
+            }
+            return item;
+          })
+          .toList();
+      return financeNormalizer.normalizeBatch(normalized, ctx);
+    };
+  }
 
-    SubSourceResult result = subSourceRunner.processPages(
-        "WbFinanceReadAdapter", pages, WbFinanceRow.class,
-        batch -> {
-          var normalized = batch.stream()
-              .map(row -> {
-                NormalizedFinanceItem item = normalizer.normalizeFinance(row);
-                if (item.entryType() == FinanceEntryType.OTHER
-                    && row.supplierOperName() != null
-                    && !row.supplierOperName().isBlank()) {
-                  unmappedTypes.add(row.supplierOperName().trim());
-                }
-                return item;
-              })
-              .toList();
-          repository.batchUpsert(financeNormalizer.normalizeBatch(normalized, ctx));
-        });
-
-    if (!unmappedTypes.isEmpty()) {
-      return List.of(SubSourceResult.successWithWarnings(
-          result.sourceId(), result.pagesProcessed(),
-          result.recordsProcessed(), unmappedTypes));
+  private static SubSourceResult withUnmappedTypes(SubSourceResult result,
+                                                   Set<String> unmappedTypes) {
+    if (unmappedTypes.isEmpty()) {
+      return result;
     }
-    return List.of(result);
+    return SubSourceResult.successWithWarnings(
+        result.sourceId(), result.pagesProcessed(),
+        result.recordsProcessed(), unmappedTypes);
   }
 }
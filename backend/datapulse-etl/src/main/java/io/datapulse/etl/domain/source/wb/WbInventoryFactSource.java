@@ -14,10 +14,12 @@ import io.datapulse.etl.domain.CaptureResult;
 import io.datapulse.etl.domain.EtlEventType;
 import io.datapulse.etl.domain.EventSource;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.PageDedupScope;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
 import io.datapulse.etl.persistence.canonical.CanonicalStockCurrentUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuIdMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.etl.persistence.canonical.WarehouseLookupRepository;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
@@ -35,7 +37,7 @@ public class WbInventoryFactSource implements EventSource {
   private final CanonicalStockCurrentUpsertRepository repository;
   private final CanonicalEntityMapper mapper;
   private final SubSourceRunner subSourceRunner;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
   private final WarehouseLookupRepository warehouseLookup;
 
   @Override
@@ -54,7 +56,7 @@ public class WbInventoryFactSource implements EventSource {
     var captureCtx = CaptureContextFactory.build(ctx, eventType(), "WbStocksReadAdapter");
     List<CaptureResult> pages = adapter.captureAllPages(captureCtx, token);
 
-    Map<String, Long> offerIdMap = skuLookup.findAllOfferIdsByConnection(ctx.connectionId());
+    SkuIdMap offerIdMap = skuCache.offerIdsByConnection(ctx.connectionId());
     Map<String, Long> warehouseIdMap = warehouseLookup.findAllIdsByConnection(ctx.connectionId());
     OffsetDateTime capturedAt = OffsetDateTime.now();
 
@@ -87,7 +89,9 @@ public class WbInventoryFactSource implements EventSource {
           if (!entities.isEmpty()) {
             repository.batchUpsert(entities);
           }
-        });
+        },
+        PageDedupScope.of(ctx, eventType(), "WbStocksReadAdapter",
+            offerIdMap.contentVersion() + "/" + Integer.toHexString(warehouseIdMap.hashCode())));
     return List.of(result);
   }
 }
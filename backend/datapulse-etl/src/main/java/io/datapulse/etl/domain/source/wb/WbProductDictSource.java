@@ -13,6 +13,7 @@ import io.datapulse.etl.domain.CaptureResult;
 import io.datapulse.etl.domain.EtlEventType;
 import io.datapulse.etl.domain.EventSource;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.PageDedupScope;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
 import io.datapulse.etl.domain.normalized.NormalizedCatalogItem;
@@ -22,7 +23,8 @@ import io.datapulse.etl.persistence.canonical.ProductMasterLookupRepository;
 import io.datapulse.etl.persistence.canonical.ProductMasterUpsertRepository;
 import io.datapulse.etl.persistence.canonical.SellerSkuEntity;
 import io.datapulse.etl.persistence.canonical.SellerSkuUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuIdMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
 import lombok.RequiredArgsConstructor;
@@ -41,7 +43,7 @@ public class WbProductDictSource implements EventSource {
   private final ProductMasterUpsertRepository productMasterRepository;
   private final ProductMasterLookupRepository productMasterLookup;
   private final SellerSkuUpsertRepository sellerSkuRepository;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
   private final MarketplaceOfferUpsertRepository offerRepository;
 
   @Override
@@ -62,7 +64,8 @@ public class WbProductDictSource implements EventSource {
 
     SubSourceResult result = subSourceRunner.processPages(
         "WbCatalogReadAdapter", pages, WbCatalogCard.class,
-        batch -> processBatch(batch, ctx));
+        batch -> processBatch(batch, ctx),
+        PageDedupScope.of(ctx, eventType(), "WbCatalogReadAdapter"));
     return List.of(result);
   }
 
@@ -90,7 +93,7 @@ public class WbProductDictSource implements EventSource {
       sellerSkuRepository.batchUpsert(skuEntities);
     }
 
-    Map<String, Long> skuIds = skuLookup.findAllByWorkspace(ctx.workspaceId());
+    SkuIdMap skuIds = skuCache.sellerSkuIdsByWorkspace(ctx.workspaceId());
 
     List<MarketplaceOfferEntity> offerEntities = new ArrayList<>();
     for (NormalizedCatalogItem item : items) {
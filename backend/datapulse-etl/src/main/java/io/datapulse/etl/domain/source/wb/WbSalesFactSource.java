@@ -1,8 +1,7 @@
 package io.datapulse.etl.domain.source.wb;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 import io.datapulse.etl.adapter.wb.WbNormalizer;
 import io.datapulse.etl.adapter.wb.WbOrdersReadAdapter;
@@ -13,24 +12,34 @@ import io.datapulse.etl.adapter.wb.dto.WbReturnItem;
 import io.datapulse.etl.adapter.wb.dto.WbSaleItem;
 import io.datapulse.etl.domain.CanonicalEntityMapper;
 import io.datapulse.etl.domain.CaptureContextFactory;
+import io.datapulse.etl.domain.CaptureResult;
 import io.datapulse.etl.domain.EtlEventType;
-import io.datapulse.etl.domain.EventSource;
+import io.datapulse.etl.domain.FactWindow;
+import io.datapulse.etl.domain.FactWindowPlanner;
 import io.datapulse.etl.domain.IngestContext;
+import io.datapulse.etl.domain.ReplayableEventSource;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
+import io.datapulse.etl.domain.SubSourceScheduler;
+import io.datapulse.etl.domain.SubSourceTask;
+import io.datapulse.etl.persistence.canonical.CanonicalOrderEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalOrderUpsertRepository;
+import io.datapulse.etl.persistence.canonical.CanonicalReturnEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalReturnUpsertRepository;
+import io.datapulse.etl.persistence.canonical.CanonicalSaleEntity;
 import io.datapulse.etl.persistence.canonical.CanonicalSaleUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.OfferSkuMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.etl.persistence.canonical.SkuLookupRepository.OfferSkuIds;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class WbSalesFactSource implements EventSource {
+public class WbSalesFactSource implements ReplayableEventSource {
 
     private final WbOrdersReadAdapter ordersAdapter;
     private final WbSalesReadAdapter salesAdapter;
@@ -40,8 +49,10 @@ public class WbSalesFactSource implements EventSource {
     private final CanonicalSaleUpsertRepository saleRepo;
     private final CanonicalReturnUpsertRepository returnRepo;
     private final CanonicalEntityMapper mapper;
-    private final SkuLookupRepository skuLookup;
+    private final SkuResolutionCache skuCache;
     private final SubSourceRunner subSourceRunner;
+    private final SubSourceScheduler subSourceScheduler;
+    private final FactWindowPlanner factWindowPlanner;
 
     @Override
     public MarketplaceType marketplace() {
@@ -56,43 +67,112 @@ public class WbSalesFactSource implements EventSource {
     @Override
     public List<SubSourceResult> execute(IngestContext ctx) {
         String token = ctx.credentials().get(CredentialKeys.WB_API_TOKEN);
-        var dateFrom = ctx.wbFactDateFrom();
-        var dateTo = ctx.wbFactDateTo();
-        List<SubSourceResult> results = new ArrayList<>();
 
+        return subSourceScheduler.runAll(List.of(
+                new SubSourceTask("WbOrdersReadAdapter", RateLimitGroup.WB_STATISTICS,
+                        () -> syncOrders(ctx, token)),
+                new SubSourceTask("WbSalesReadAdapter", RateLimitGroup.WB_STATISTICS,
+                        () -> syncSales(ctx, token)),
+                new SubSourceTask("WbReturnsReadAdapter", RateLimitGroup.WB_ANALYTICS,
+                        () -> syncReturns(ctx, token))));
+    }
+
+    private SubSourceResult syncOrders(IngestContext ctx, String token) {
         var ordersCtx = CaptureContextFactory.build(ctx, eventType(), "WbOrdersReadAdapter");
-        var ordersPages = ordersAdapter.captureAllPages(ordersCtx, token, dateFrom, 0);
-        results.add(subSourceRunner.processPages(
-                "WbOrdersReadAdapter", ordersPages, WbOrderItem.class,
-                batch -> orderRepo.batchUpsert(batch.stream()
-                        .map(item -> mapper.toOrder(normalizer.normalizeOrder(item), ctx))
-                        .toList())));
+        FactWindow window = factWindowPlanner.plan(ctx, eventType(), "WbOrdersReadAdapter");
+        SubSourceResult result = subSourceRunner.streamPages(
+                "WbOrdersReadAdapter", ordersCtx,
+                c -> ordersAdapter.captureAllPages(c, token, window.dateFrom(), 0),
+                WbOrderItem.class,
+                batch -> processOrdersBatch(batch, ctx));
+        return factWindowPlanner.advance(ctx, eventType(), window, result);
+    }
 
+    private SubSourceResult syncSales(IngestContext ctx, String token) {
         var salesCtx = CaptureContextFactory.build(ctx, eventType(), "WbSalesReadAdapter");
-        var salesPages = salesAdapter.captureAllPages(salesCtx, token, dateFrom, 0);
-        results.add(subSourceRunner.processPages(
-                "WbSalesReadAdapter", salesPages, WbSaleItem.class,
-                batch -> saleRepo.batchUpsert(batch.stream()
-                        .map(item -> mapper.toSale(normalizer.normalizeSale(item), ctx))
-                        .toList())));
+        FactWindow window = factWindowPlanner.plan(ctx, eventType(), "WbSalesReadAdapter");
+        SubSourceResult result = subSourceRunner.streamPages(
+                "WbSalesReadAdapter", salesCtx,
+                c -> salesAdapter.captureAllPages(c, token, window.dateFrom(), 0),
+                WbSaleItem.class,
+                batch -> processSalesBatch(batch, ctx));
+        return factWindowPlanner.advance(ctx, eventType(), window, result);
+    }
 
-        var offerSkuMap = skuLookup.findAllOfferWithSkuByWorkspace(ctx.workspaceId());
+    private SubSourceResult syncReturns(IngestContext ctx, String token) {
+        var offerSkuMap = skuCache.offersByMarketplaceSku(ctx.workspaceId());
 
         var returnsCtx = CaptureContextFactory.build(ctx, eventType(), "WbReturnsReadAdapter");
-        var returnsPage = returnsAdapter.capturePage(returnsCtx, token, dateFrom, dateTo);
-        results.add(subSourceRunner.processPages(
+        FactWindow window = factWindowPlanner.plan(ctx, eventType(), "WbReturnsReadAdapter");
+        var returnsPage = returnsAdapter.capturePage(
+                returnsCtx, token, window.dateFrom(), window.dateTo());
+        SubSourceResult result = subSourceRunner.processPages(
                 "WbReturnsReadAdapter", List.of(returnsPage), WbReturnItem.class,
-                batch -> returnRepo.batchUpsert(batch.stream()
-                        .map(item -> {
-                            var norm = normalizer.normalizeReturn(item);
-                            OfferSkuIds ids = norm.marketplaceProductId() != null
-                                    ? offerSkuMap.get(norm.marketplaceProductId()) : null;
-                            return mapper.toReturn(norm, ctx,
-                                    ids != null ? ids.offerId() : null,
-                                    ids != null ? ids.sellerSkuId() : null);
-                        })
-                        .toList())));
-
-        return results;
+                batch -> processReturnsBatch(batch, ctx, offerSkuMap));
+        return factWindowPlanner.advance(ctx, eventType(), window, result);
+    }
+
+    @Override
+    public Set<String> replayableSourceIds() {
+        return Set.of("WbOrdersReadAdapter", "WbSalesReadAdapter", "WbReturnsReadAdapter");
+    }
+
+    @Override
+    public SubSourceResult replay(IngestContext ctx, String sourceId, List<CaptureResult> pages) {
+        return switch (sourceId) {
+            case "WbOrdersReadAdapter" -> subSourceRunner.replayPages(
+                    sourceId, pages, WbOrderItem.class,
+                    batch -> mapOrdersBatch(batch, ctx), orderRepo::batchUpsert);
+            case "WbSalesReadAdapter" -> subSourceRunner.replayPages(
+                    sourceId, pages, WbSaleItem.class,
+                    batch -> mapSalesBatch(batch, ctx), saleRepo::batchUpsert);
+            case "WbReturnsReadAdapter" -> {
+                var offerSkuMap = skuCache.offersByMarketplaceSku(ctx.workspaceId());
+                yield subSourceRunner.replayPages(sourceId, pages, WbReturnItem.class,
+                        batch -> mapReturnsBatch(batch, ctx, offerSkuMap), returnRepo::batchUpsert);
+            }
+            default -> throw new IllegalArgumentException(
+                    "Sub-source is not replayable: sourceId=%s".formatted(sourceId));
+        };
+    }
+
+    private void processOrdersBatch(List<WbOrderItem> batch, IngestContext ctx) {
+        orderRepo.batchUpsert(mapOrdersBatch(batch, ctx));
+    }
+
+    private List<CanonicalOrderEntity> mapOrdersBatch(List<WbOrderItem> batch, IngestContext ctx) {
+        return batch.stream()
+                .map(item -> mapper.toOrder(normalizer.normalizeOrder(item), ctx))
+                .toList();
+    }
+
+    private void processSalesBatch(List<WbSaleItem> batch, IngestContext ctx) {
+        saleRepo.batchUpsert(mapSalesBatch(batch, ctx));
+    }
+
+    private List<CanonicalSaleEntity> mapSalesBatch(List<WbSaleItem> batch, IngestContext ctx) {
+        return batch.stream()
+                .map(item -> mapper.toSale(normalizer.normalizeSale(item), ctx))
+                .toList();
+    }
+
+    private void processReturnsBatch(List<WbReturnItem> batch, IngestContext ctx,
+                                     OfferSkuMap offerSkuMap) {
+        returnRepo.batchUpsert(mapReturnsBatch(batch, ctx, offerSkuMap));
+    }
+
+    private List<CanonicalReturnEntity> mapReturnsBatch(List<WbReturnItem> batch,
+                                                        IngestContext ctx,
+                                                        OfferSkuMap offerSkuMap) {
+        return batch.stream()
+                .map(item -> {
+                    var norm = normalizer.normalizeReturn(item);
+                    OfferSkuIds ids = norm.marketplaceProductId() != null
+                            ? offerSkuMap.get(norm.marketplaceProductId()) : null;
+                    return mapper.toReturn(norm, ctx,
+                            ids != null ? ids.offerId() : null,
+                            ids != null ? ids.sellerSkuId() : null);
+                })
+                .toList();
     }
 }
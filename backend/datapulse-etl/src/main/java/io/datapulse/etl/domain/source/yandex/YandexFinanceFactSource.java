@@ -4,16 +4,19 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import io.datapulse.etl.adapter.yandex.YandexFinanceReportReadAdapter;
 import io.datapulse.etl.adapter.yandex.YandexNormalizer;
 import io.datapulse.etl.adapter.yandex.dto.YandexRealizationReportRow;
 import io.datapulse.etl.adapter.yandex.dto.YandexServicesReportRow;
+import io.datapulse.etl.domain.AsyncEventSource;
 import io.datapulse.etl.domain.CanonicalFinanceNormalizer;
 import io.datapulse.etl.domain.CaptureContextFactory;
 import io.datapulse.etl.domain.EtlEventType;
-import io.datapulse.etl.domain.EventSource;
 import io.datapulse.etl.domain.FinanceEntryType;
 import io.datapulse.etl.domain.IngestContext;
 import io.datapulse.etl.domain.SubSourceResult;
@@ -21,22 +24,23 @@ import io.datapulse.etl.domain.normalized.NormalizedFinanceItem;
 import io.datapulse.etl.persistence.canonical.CanonicalFinanceEntryUpsertRepository;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 /**
  * Yandex FACT_FINANCE: orchestrates two async reports and normalizes into canonical.
  * <ol>
  *   <li>United Marketplace Services — commission/logistics/service fees</li>
- *   <li>Goods Realization — realization data with item-level financials</li>
+ *   <li>Goods Realization — realization data with item-level financials, one report per month</li>
  * </ol>
  * Both reports follow generate → poll → download → parse → normalize → upsert flow.
+ * All reports are requested at once and the ETL thread is returned while Yandex builds them;
+ * normalization runs on {@code etlExecutor} once every report is parsed.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class YandexFinanceFactSource implements EventSource {
+public class YandexFinanceFactSource implements AsyncEventSource {
 
   private static final String SOURCE_ID = "YandexFinanceReportReadAdapter";
   private static final int BATCH_SIZE = 500;
@@ -45,6 +49,20 @@ public class YandexFinanceFactSource implements EventSource {
   private final YandexNormalizer normalizer;
   private final CanonicalFinanceNormalizer financeNormalizer;
   private final CanonicalFinanceEntryUpsertRepository repository;
+  private final Executor etlExecutor;
+
+  public YandexFinanceFactSource(
+      YandexFinanceReportReadAdapter adapter,
+      YandexNormalizer normalizer,
+      CanonicalFinanceNormalizer financeNormalizer,
+      CanonicalFinanceEntryUpsertRepository repository,
+      @Qualifier("etlExecutor") Executor etlExecutor) {
+    this.adapter = adapter;
+    this.normalizer = normalizer;
+    this.financeNormalizer = financeNormalizer;
+    this.repository = repository;
+    this.etlExecutor = etlExecutor;
+  }
 
   @Override
   public MarketplaceType marketplace() {
@@ -57,33 +75,59 @@ public class YandexFinanceFactSource implements EventSource {
   }
 
   @Override
-  public List<SubSourceResult> execute(IngestContext ctx) {
-    String apiKey = ctx.credentials().get(CredentialKeys.YANDEX_API_KEY);
-    YandexMetadata meta = YandexMetadata.parse(ctx.connectionMetadata());
-    LocalDate dateFrom = ctx.wbFactDateFrom();
-    LocalDate dateTo = ctx.wbFactDateTo();
+  public CompletableFuture<List<SubSourceResult>> executeAsync(IngestContext ctx) {
     long connectionId = ctx.connectionId();
+    CompletableFuture<List<YandexServicesReportRow>> servicesReport;
+    List<CompletableFuture<List<YandexRealizationReportRow>>> realizationReports =
+        new ArrayList<>();
+
+    try {
+      String apiKey = ctx.credentials().get(CredentialKeys.YANDEX_API_KEY);
+      YandexMetadata meta = YandexMetadata.parse(ctx.connectionMetadata());
+      LocalDate dateFrom = ctx.wbFactDateFrom();
+      LocalDate dateTo = ctx.wbFactDateTo();
+      var captureCtx = CaptureContextFactory.build(ctx, eventType(), SOURCE_ID);
+
+      servicesReport = adapter.captureServicesReport(
+          apiKey, captureCtx, meta.businessId(), dateFrom, dateTo);
+      for (var month : YandexFinanceReportReadAdapter.splitIntoMonths(dateFrom, dateTo)) {
+        realizationReports.add(adapter.captureRealizationReport(
+            apiKey, captureCtx, meta.businessId(), month.year(), month.month()));
+      }
+    } catch (Exception e) {
+      return CompletableFuture.completedFuture(List.of(failed(connectionId, e)));
+    }
 
+    List<CompletableFuture<?>> reports = new ArrayList<>(realizationReports);
+    reports.add(servicesReport);
+    return CompletableFuture.allOf(reports.toArray(CompletableFuture[]::new))
+        .handleAsync((ignored, error) ->
+            normalizeReports(ctx, servicesReport, realizationReports), etlExecutor);
+  }
+
+  /**
+   * Upserts the services report, then the realization reports, stopping at the first report
+   * that failed — the same order the reports used to be captured in one after another.
+   */
+  private List<SubSourceResult> normalizeReports(
+      IngestContext ctx,
+      CompletableFuture<List<YandexServicesReportRow>> servicesReport,
+      List<CompletableFuture<List<YandexRealizationReportRow>>> realizationReports) {
+    long connectionId = ctx.connectionId();
     Set<String> unmappedTypes = ConcurrentHashMap.newKeySet();
     int totalRecords = 0;
 
     try {
-      var captureCtx = CaptureContextFactory.build(ctx, eventType(), SOURCE_ID);
-
-      List<YandexServicesReportRow> servicesRows = adapter.captureServicesReport(
-          apiKey, connectionId, meta.businessId(), dateFrom, dateTo);
+      List<YandexServicesReportRow> servicesRows = servicesReport.join();
       log.info("Yandex services report captured: connectionId={}, rows={}",
           connectionId, servicesRows.size());
 
       totalRecords += normalizeAndUpsert(
           servicesRows, ctx, unmappedTypes);
 
-      List<YandexFinanceReportReadAdapter.MonthPeriod> months =
-          YandexFinanceReportReadAdapter.splitIntoMonths(dateFrom, dateTo);
       List<YandexRealizationReportRow> realizationRows = new ArrayList<>();
-      for (var month : months) {
-        realizationRows.addAll(adapter.captureRealizationReport(
-            apiKey, connectionId, meta.businessId(), month.year(), month.month()));
+      for (var report : realizationReports) {
+        realizationRows.addAll(report.join());
       }
       log.info("Yandex realization report captured: connectionId={}, rows={}",
           connectionId, realizationRows.size());
@@ -100,12 +144,17 @@ public class YandexFinanceFactSource implements EventSource {
       return List.of(SubSourceResult.success(SOURCE_ID, 1, totalRecords));
 
     } catch (Exception e) {
-      log.error("Yandex finance capture/normalization failed: connectionId={}, error={}",
-          connectionId, e.getMessage(), e);
-      return List.of(SubSourceResult.failed(SOURCE_ID, e.getMessage()));
+      return List.of(failed(connectionId,
+          e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
     }
   }
 
+  private SubSourceResult failed(long connectionId, Throwable e) {
+    log.error("Yandex finance capture/normalization failed: connectionId={}, error={}",
+        connectionId, e.getMessage(), e);
+    return SubSourceResult.failed(SOURCE_ID, e.getMessage());
+  }
+
   private int normalizeAndUpsert(List<YandexServicesReportRow> rows,
       IngestContext ctx, Set<String> unmappedTypes) {
     int processed = 0;
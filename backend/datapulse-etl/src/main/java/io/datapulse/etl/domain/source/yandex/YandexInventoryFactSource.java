@@ -18,7 +18,8 @@ import io.datapulse.etl.domain.IngestContext;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
 import io.datapulse.etl.persistence.canonical.CanonicalStockCurrentUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuIdMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.etl.persistence.canonical.WarehouseLookupRepository;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
@@ -42,7 +43,7 @@ public class YandexInventoryFactSource implements EventSource {
   private final CanonicalEntityMapper mapper;
   private final SubSourceRunner subSourceRunner;
   private final CanonicalStockCurrentUpsertRepository repository;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
   private final WarehouseLookupRepository warehouseLookup;
 
   @Override
@@ -70,7 +71,7 @@ public class YandexInventoryFactSource implements EventSource {
     var captureCtx = CaptureContextFactory.build(ctx, eventType(), SOURCE_ID);
     List<CaptureResult> pages = adapter.captureAllPages(captureCtx, apiKey, campaignIds);
 
-    Map<String, Long> offerIdMap = skuLookup.findAllOfferIdsByConnection(ctx.connectionId());
+    SkuIdMap offerIdMap = skuCache.offerIdsByConnection(ctx.connectionId());
     Map<String, Long> warehouseIdMap = warehouseLookup.findAllIdsByConnection(ctx.connectionId());
     OffsetDateTime capturedAt = OffsetDateTime.now();
 
@@ -83,7 +84,7 @@ public class YandexInventoryFactSource implements EventSource {
   private void processStockBatch(
       List<YandexStockWarehouse> batch,
       IngestContext ctx,
-      Map<String, Long> offerIdMap,
+      SkuIdMap offerIdMap,
       Map<String, Long> warehouseIdMap,
       OffsetDateTime capturedAt) {
 
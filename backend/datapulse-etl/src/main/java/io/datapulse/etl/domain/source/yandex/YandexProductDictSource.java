@@ -26,7 +26,8 @@ import io.datapulse.etl.persistence.canonical.ProductMasterLookupRepository;
 import io.datapulse.etl.persistence.canonical.ProductMasterUpsertRepository;
 import io.datapulse.etl.persistence.canonical.SellerSkuEntity;
 import io.datapulse.etl.persistence.canonical.SellerSkuUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuIdMap;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
 import lombok.RequiredArgsConstructor;
@@ -54,7 +55,7 @@ public class YandexProductDictSource implements EventSource {
   private final ProductMasterUpsertRepository productMasterRepository;
   private final ProductMasterLookupRepository productMasterLookup;
   private final SellerSkuUpsertRepository sellerSkuRepository;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
   private final MarketplaceOfferUpsertRepository offerRepository;
   private final CanonicalPriceCurrentUpsertRepository priceRepository;
 
@@ -105,7 +106,7 @@ public class YandexProductDictSource implements EventSource {
       sellerSkuRepository.batchUpsert(skuEntities);
     }
 
-    Map<String, Long> skuIds = skuLookup.findAllByWorkspace(ctx.workspaceId());
+    SkuIdMap skuIds = skuCache.sellerSkuIdsByWorkspace(ctx.workspaceId());
 
     List<MarketplaceOfferEntity> offerEntities = new ArrayList<>();
     for (NormalizedCatalogItem item : items) {
@@ -131,8 +132,8 @@ public class YandexProductDictSource implements EventSource {
    * Extract and upsert them here to avoid a separate PRICE_SNAPSHOT call.
    */
   private void upsertPricesFromCatalog(List<YandexOfferMapping> batch, IngestContext ctx) {
-    Map<String, Long> offerIdMap =
-        skuLookup.findAllOfferIdsByConnection(ctx.connectionId());
+    SkuIdMap offerIdMap =
+        skuCache.offerIdsByConnection(ctx.connectionId());
     OffsetDateTime capturedAt = OffsetDateTime.now();
 
     List<NormalizedPriceItem> priceItems = normalizer.normalizePrices(batch);
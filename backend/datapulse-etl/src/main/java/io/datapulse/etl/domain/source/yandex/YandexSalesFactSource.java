@@ -16,12 +16,15 @@ import io.datapulse.etl.domain.EventSource;
 import io.datapulse.etl.domain.IngestContext;
 import io.datapulse.etl.domain.SubSourceResult;
 import io.datapulse.etl.domain.SubSourceRunner;
+import io.datapulse.etl.domain.SubSourceScheduler;
+import io.datapulse.etl.domain.SubSourceTask;
 import io.datapulse.etl.persistence.canonical.CanonicalOrderUpsertRepository;
 import io.datapulse.etl.persistence.canonical.CanonicalReturnUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.etl.persistence.canonical.SkuLookupRepository.OfferSkuIds;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -32,7 +35,8 @@ import org.springframework.stereotype.Component;
  *   <li>Orders — business-level endpoint (all campaigns in one call)</li>
  *   <li>Returns — campaign-level fan-out (per campaign from metadata)</li>
  * </ol>
- * Date range uses {@code wbFactDateFrom/To} (both are {@code LocalDate}).
+ * Date range uses {@code wbFactDateFrom/To} (both are {@code LocalDate}). Orders and returns use
+ * different rate-limit groups and run concurrently via {@link SubSourceScheduler}.
  */
 @Slf4j
 @Component
@@ -47,9 +51,10 @@ public class YandexSalesFactSource implements EventSource {
   private final YandexNormalizer normalizer;
   private final CanonicalEntityMapper mapper;
   private final SubSourceRunner subSourceRunner;
+  private final SubSourceScheduler subSourceScheduler;
   private final CanonicalOrderUpsertRepository orderRepo;
   private final CanonicalReturnUpsertRepository returnRepo;
-  private final SkuLookupRepository skuLookup;
+  private final SkuResolutionCache skuCache;
 
   @Override
   public MarketplaceType marketplace() {
@@ -65,37 +70,46 @@ public class YandexSalesFactSource implements EventSource {
   public List<SubSourceResult> execute(IngestContext ctx) {
     String apiKey = ctx.credentials().get(CredentialKeys.YANDEX_API_KEY);
     YandexMetadata meta = YandexMetadata.parse(ctx.connectionMetadata());
-    var dateFrom = ctx.wbFactDateFrom();
-    var dateTo = ctx.wbFactDateTo();
-    List<SubSourceResult> results = new ArrayList<>();
+    List<SubSourceTask> tasks = new ArrayList<>();
 
+    tasks.add(new SubSourceTask(ORDERS_SOURCE_ID, RateLimitGroup.YANDEX_ORDERS,
+        () -> syncOrders(ctx, apiKey, meta)));
+
+    List<Long> campaignIds = meta.campaignIds();
+    if (campaignIds.isEmpty()) {
+      log.warn("No Yandex campaigns in metadata, skipping returns: connectionId={}",
+          ctx.connectionId());
+    } else {
+      tasks.add(new SubSourceTask(RETURNS_SOURCE_ID, RateLimitGroup.YANDEX_DEFAULT,
+          () -> syncReturns(ctx, apiKey, campaignIds)));
+    }
+
+    return subSourceScheduler.runAll(tasks);
+  }
+
+  private SubSourceResult syncOrders(IngestContext ctx, String apiKey, YandexMetadata meta) {
     var ordersCtx = CaptureContextFactory.build(ctx, eventType(), ORDERS_SOURCE_ID);
     List<CaptureResult> orderPages = ordersAdapter.captureAllPages(
-        ordersCtx, apiKey, meta.businessId(), dateFrom, dateTo);
+        ordersCtx, apiKey, meta.businessId(), ctx.wbFactDateFrom(), ctx.wbFactDateTo());
 
-    results.add(subSourceRunner.processPages(
+    return subSourceRunner.processPages(
         ORDERS_SOURCE_ID, orderPages, YandexOrder.class,
         batch -> {
           var normalized = normalizer.normalizeOrders(batch);
           orderRepo.batchUpsert(normalized.stream()
               .map(item -> mapper.toOrder(item, ctx))
               .toList());
-        }));
-
-    List<Long> campaignIds = meta.campaignIds();
-    if (campaignIds.isEmpty()) {
-      log.warn("No Yandex campaigns in metadata, skipping returns: connectionId={}",
-          ctx.connectionId());
-      return results;
-    }
+        });
+  }
 
-    var skuCodeMap = skuLookup.findAllOfferBySellerSkuCode(ctx.workspaceId());
+  private SubSourceResult syncReturns(IngestContext ctx, String apiKey, List<Long> campaignIds) {
+    var skuCodeMap = skuCache.offersBySellerSkuCode(ctx.workspaceId());
 
     var returnsCtx = CaptureContextFactory.build(ctx, eventType(), RETURNS_SOURCE_ID);
     List<CaptureResult> returnPages = returnsAdapter.captureAllPages(
-        returnsCtx, apiKey, campaignIds, dateFrom, dateTo);
+        returnsCtx, apiKey, campaignIds, ctx.wbFactDateFrom(), ctx.wbFactDateTo());
 
-    results.add(subSourceRunner.processPages(
+    return subSourceRunner.processPages(
         RETURNS_SOURCE_ID, returnPages, YandexReturn.class,
         batch -> {
           var normalized = normalizer.normalizeReturns(batch);
@@ -108,8 +122,6 @@ public class YandexSalesFactSource implements EventSource {
                     ids != null ? ids.sellerSkuId() : null);
               })
               .toList());
-        }));
-
-    return results;
+        });
   }
 }
@@ -0,0 +1,80 @@
+package io.datapulse.etl.persistence;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per fact sub-source high-water mark ({@code connection, event, source}): end of the last fully
+ * captured and UPSERTed fact range, plus when the last settlement sweep ran. Lives next to the
+ * per-job {@code job_execution.checkpoint}, but survives across jobs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FactSyncWatermarkRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    private static final String FIND = """
+            SELECT high_water_mark, last_settlement_at
+            FROM fact_sync_watermark
+            WHERE connection_id = :connectionId
+              AND event_type = :eventType
+              AND source_id = :sourceId
+            """;
+
+    /**
+     * A delta run keeps the previous {@code last_settlement_at}; marks never move backwards.
+     */
+    private static final String UPSERT = """
+            INSERT INTO fact_sync_watermark (connection_id, event_type, source_id, high_water_mark,
+                                             last_settlement_at, job_execution_id, updated_at)
+            VALUES (:connectionId, :eventType, :sourceId, :highWaterMark,
+                    :settlementAt, :jobExecutionId, now())
+            ON CONFLICT (connection_id, event_type, source_id) DO UPDATE SET
+                high_water_mark = GREATEST(fact_sync_watermark.high_water_mark,
+                                           EXCLUDED.high_water_mark),
+                last_settlement_at = COALESCE(EXCLUDED.last_settlement_at,
+                                              fact_sync_watermark.last_settlement_at),
+                job_execution_id = EXCLUDED.job_execution_id,
+                updated_at = now()
+            """;
+
+    public Optional<FactSyncWatermark> find(long connectionId, String eventType, String sourceId) {
+        List<FactSyncWatermark> rows = jdbc.query(FIND,
+                sourceParams(connectionId, eventType, sourceId),
+                (rs, rowNum) -> new FactSyncWatermark(
+                        rs.getObject("high_water_mark", OffsetDateTime.class),
+                        rs.getObject("last_settlement_at", OffsetDateTime.class)));
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * @param settlementAt end of a settlement sweep, {@code null} for a delta run
+     */
+    public void advance(long connectionId, String eventType, String sourceId,
+                        OffsetDateTime highWaterMark, OffsetDateTime settlementAt,
+                        long jobExecutionId) {
+        jdbc.update(UPSERT, sourceParams(connectionId, eventType, sourceId)
+                .addValue("highWaterMark", highWaterMark)
+                .addValue("settlementAt", settlementAt)
+                .addValue("jobExecutionId", jobExecutionId));
+    }
+
+    private static MapSqlParameterSource sourceParams(long connectionId, String eventType,
+                                                      String sourceId) {
+        return new MapSqlParameterSource()
+                .addValue("connectionId", connectionId)
+                .addValue("eventType", eventType)
+                .addValue("sourceId", sourceId);
+    }
+
+    public record FactSyncWatermark(OffsetDateTime highWaterMark,
+                                    OffsetDateTime lastSettlementAt) {}
+}
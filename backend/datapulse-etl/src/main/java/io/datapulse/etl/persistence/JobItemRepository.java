@@ -22,9 +22,11 @@ public class JobItemRepository {
 
     private static final String INSERT = """
             INSERT INTO job_item (job_execution_id, request_id, source_id, page_number,
-                                  s3_key, record_count, content_sha256, byte_size, status, captured_at)
+                                  s3_key, event_type, record_count, content_sha256, byte_size, status,
+                                  captured_at)
             VALUES (:jobExecutionId, :requestId, :sourceId, :pageNumber,
-                    :s3Key, :recordCount, :contentSha256, :byteSize, :status, now())
+                    :s3Key, split_part(:s3Key, '/', 3), :recordCount, :contentSha256, :byteSize,
+                    :status, now())
             """;
 
     private static final String UPDATE_STATUS = """
@@ -34,6 +36,27 @@ public class JobItemRepository {
             WHERE id = :id
             """;
 
+    private static final String NEXT_IDS = """
+            SELECT nextval(pg_get_serial_sequence('job_item', 'id'))
+            FROM generate_series(1, :count)
+            """;
+
+    private static final String INSERT_WITH_ID = """
+            INSERT INTO job_item (id, job_execution_id, request_id, source_id, page_number,
+                                  s3_key, event_type, record_count, content_sha256, byte_size,
+                                  status, captured_at, processed_at)
+            VALUES (:id, :jobExecutionId, :requestId, :sourceId, :pageNumber,
+                    :s3Key, split_part(:s3Key, '/', 3), :recordCount, :contentSha256, :byteSize,
+                    :status, now(), CASE WHEN :status IN ('PROCESSED', 'FAILED') THEN now() END)
+            """;
+
+    private static final String UPDATE_STATUS_ALL = """
+            UPDATE job_item
+            SET status = :status,
+                processed_at = CASE WHEN :status IN ('PROCESSED', 'FAILED') THEN now() ELSE processed_at END
+            WHERE id IN (:ids)
+            """;
+
     private static final String MARK_EXPIRED = """
             UPDATE job_item SET status = 'EXPIRED' WHERE id IN (:ids)
             """;
@@ -47,36 +70,84 @@ public class JobItemRepository {
             ORDER BY page_number
             """;
 
+    /**
+     * Keyset page over {@code idx_job_item_retention}: {@code (captured_at, id)} strictly after
+     * the cursor, so rows whose S3 delete failed are not selected again in the same pass.
+     */
     private static final String FIND_FOR_TIME_RETENTION = """
             SELECT id, job_execution_id, request_id, source_id, page_number,
                    s3_key, record_count, content_sha256, byte_size, status,
                    captured_at, processed_at
             FROM job_item
             WHERE status = 'PROCESSED'
+              AND event_type = :eventType
               AND captured_at < :before
-              AND s3_key LIKE :eventPattern
-            ORDER BY captured_at
+              AND (captured_at, id) > (:afterCapturedAt, :afterId)
+            ORDER BY captured_at, id
             LIMIT :batchSize
             """;
 
-    private static final String FIND_EXCESS_STATE_ITEMS = """
-            WITH ranked AS (
-                SELECT ji.id, ji.s3_key, ji.request_id, ji.captured_at,
-                       DENSE_RANK() OVER (
-                           PARTITION BY SPLIT_PART(ji.s3_key, '/', 2)
-                           ORDER BY ji.captured_at DESC
+    /**
+     * Oldest of the newest {@code keepCount} runs (job executions) per connection, for connections
+     * with at least that many. Connections are the second segment of raw/{connectionId}/....
+     */
+    private static final String FIND_STATE_RUN_CUTOFFS = """
+            SELECT connection_key, min(job_execution_id) AS oldest_kept_run_id
+            FROM (
+                SELECT connection_key, job_execution_id,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY connection_key
+                           ORDER BY job_execution_id DESC
                        ) AS run_rank
-                FROM job_item ji
-                WHERE ji.status = 'PROCESSED'
-                  AND ji.s3_key LIKE :eventPattern
-            )
-            SELECT r.id, ji.job_execution_id, ji.request_id, ji.source_id, ji.page_number,
+                FROM (
+                    SELECT DISTINCT SPLIT_PART(s3_key, '/', 2) AS connection_key, job_execution_id
+                    FROM job_item
+                    WHERE status = 'PROCESSED'
+                      AND event_type = :eventType
+                ) runs
+            ) ranked
+            WHERE run_rank <= :keepCount
+            GROUP BY connection_key
+            HAVING count(*) = :keepCount
+            """;
+
+    /**
+     * Keyset page of items older than their connection's cutoff
+     * ({@link #findStateRunCutoffs}), over {@code idx_job_item_retention}.
+     */
+    private static final String FIND_EXCESS_STATE_ITEMS = """
+            SELECT ji.id, ji.job_execution_id, ji.request_id, ji.source_id, ji.page_number,
                    ji.s3_key, ji.record_count, ji.content_sha256, ji.byte_size, ji.status,
                    ji.captured_at, ji.processed_at
-            FROM ranked r
-            JOIN job_item ji ON ji.id = r.id
-            WHERE r.run_rank > :keepCount
-            ORDER BY r.captured_at
+            FROM job_item ji
+            JOIN (VALUES :cutoffs) AS c (connection_key, oldest_kept_run_id)
+              ON c.connection_key = SPLIT_PART(ji.s3_key, '/', 2)
+            WHERE ji.status = 'PROCESSED'
+              AND ji.event_type = :eventType
+              AND ji.job_execution_id < c.oldest_kept_run_id
+              AND (ji.captured_at, ji.id) > (:afterCapturedAt, :afterId)
+            ORDER BY ji.captured_at, ji.id
+            LIMIT :batchSize
+            """;
+
+    /**
+     * One batch of a connection's pages of one event still in S3, in capture order, after the
+     * keyset cursor {@code (afterCapturedAt, afterId)}. Walks the connection's jobs
+     * ({@code idx_job_execution_connection_id}) and their items ({@code idx_job_item_execution_id}).
+     */
+    private static final String FIND_FOR_REPLAY = """
+            SELECT ji.id, ji.job_execution_id, ji.request_id, ji.source_id, ji.page_number,
+                   ji.s3_key, ji.record_count, ji.content_sha256, ji.byte_size, ji.status,
+                   ji.captured_at, ji.processed_at
+            FROM job_item ji
+            JOIN job_execution je ON je.id = ji.job_execution_id
+            WHERE je.connection_id = :connectionId
+              AND ji.event_type = :eventType
+              AND ji.captured_at >= :from
+              AND ji.captured_at < :to
+              AND ji.status <> 'EXPIRED'
+              AND (ji.captured_at, ji.id) > (:afterCapturedAt, :afterId)
+            ORDER BY ji.captured_at, ji.id
             LIMIT :batchSize
             """;
 
@@ -101,6 +172,45 @@ public class JobItemRepository {
         jdbc.update(UPDATE_STATUS, Map.of("id", id, "status", status.name()));
     }
 
+    /**
+     * Reserves {@code count} ids from the job_item sequence for rows inserted later through
+     * {@link #insertAll}.
+     */
+    public List<Long> nextIds(int count) {
+        return jdbc.queryForList(NEXT_IDS, Map.of("count", count), Long.class);
+    }
+
+    /**
+     * Inserts rows that already carry their id (from {@link #nextIds}) and current status, in one
+     * JDBC batch. {@code captured_at} is the database clock at the insert, as in {@link #insert}.
+     */
+    public void insertAll(List<JobItemRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] params = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("id", row.getId())
+                        .addValue("jobExecutionId", row.getJobExecutionId())
+                        .addValue("requestId", row.getRequestId())
+                        .addValue("sourceId", row.getSourceId())
+                        .addValue("pageNumber", row.getPageNumber())
+                        .addValue("s3Key", row.getS3Key())
+                        .addValue("recordCount", row.getRecordCount())
+                        .addValue("contentSha256", row.getContentSha256())
+                        .addValue("byteSize", row.getByteSize())
+                        .addValue("status", row.getStatus()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbc.batchUpdate(INSERT_WITH_ID, params);
+    }
+
+    public void updateStatuses(JobItemStatus status, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbc.update(UPDATE_STATUS_ALL, Map.of("ids", ids, "status", status.name()));
+    }
+
     public void markExpired(List<Long> ids) {
         if (ids.isEmpty()) {
             return;
@@ -113,18 +223,59 @@ public class JobItemRepository {
                 Map.of("jobExecutionId", jobExecutionId), this::mapRow);
     }
 
-    public List<JobItemRow> findForTimeRetention(OffsetDateTime before, String eventPattern, int batchSize) {
+    public List<JobItemRow> findForTimeRetention(String eventType, OffsetDateTime before,
+                                                 OffsetDateTime afterCapturedAt, long afterId,
+                                                 int batchSize) {
         return jdbc.query(FIND_FOR_TIME_RETENTION, Map.of(
+                "eventType", eventType,
                 "before", before,
-                "eventPattern", eventPattern,
+                "afterCapturedAt", afterCapturedAt,
+                "afterId", afterId,
                 "batchSize", batchSize
         ), this::mapRow);
     }
 
-    public List<JobItemRow> findExcessStateItems(String eventPattern, int keepCount, int batchSize) {
+    /**
+     * Per connection, the oldest run that state retention keeps for {@code eventType}: every
+     * PROCESSED item of an older run of that connection is excess. Computed once per pass.
+     */
+    public List<StateRunCutoff> findStateRunCutoffs(String eventType, int keepCount) {
+        return jdbc.query(FIND_STATE_RUN_CUTOFFS, Map.of(
+                "eventType", eventType,
+                "keepCount", keepCount
+        ), (rs, rowNum) -> new StateRunCutoff(
+                rs.getString("connection_key"), rs.getLong("oldest_kept_run_id")));
+    }
+
+    public List<JobItemRow> findExcessStateItems(String eventType, List<StateRunCutoff> cutoffs,
+                                                 OffsetDateTime afterCapturedAt, long afterId,
+                                                 int batchSize) {
+        if (cutoffs.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> values = cutoffs.stream()
+                .map(cutoff -> new Object[]{cutoff.connectionKey(), cutoff.oldestKeptRunId()})
+                .toList();
         return jdbc.query(FIND_EXCESS_STATE_ITEMS, Map.of(
-                "eventPattern", eventPattern,
-                "keepCount", keepCount,
+                "eventType", eventType,
+                "cutoffs", values,
+                "afterCapturedAt", afterCapturedAt,
+                "afterId", afterId,
+                "batchSize", batchSize
+        ), this::mapRow);
+    }
+
+    public List<JobItemRow> findForReplay(long connectionId, String eventType,
+                                          OffsetDateTime from, OffsetDateTime to,
+                                          OffsetDateTime afterCapturedAt, long afterId,
+                                          int batchSize) {
+        return jdbc.query(FIND_FOR_REPLAY, Map.of(
+                "connectionId", connectionId,
+                "eventType", eventType,
+                "from", from,
+                "to", to,
+                "afterCapturedAt", afterCapturedAt,
+                "afterId", afterId,
                 "batchSize", batchSize
         ), this::mapRow);
     }
@@ -145,4 +296,10 @@ public class JobItemRepository {
                 .processedAt(rs.getObject("processed_at", OffsetDateTime.class))
                 .build();
     }
+
+    /**
+     * @param connectionKey    connection segment of the raw S3 key
+     * @param oldestKeptRunId  items of older runs of the connection are excess
+     */
+    public record StateRunCutoff(String connectionKey, long oldestKeptRunId) {}
 }
@@ -0,0 +1,376 @@
+package io.datapulse.etl.persistence;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.datapulse.etl.config.JobItemBufferProperties;
+import io.datapulse.etl.domain.JobItemStatus;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer for job_item bookkeeping: page inserts ({@link #register}) and status
+ * transitions ({@link #markStatus}) are collected and written together instead of one round trip
+ * per page.
+ *
+ * <p>Ids are reserved from the job_item sequence in blocks, so {@link #register} returns the id
+ * of a row that is not written yet. A status change of a row still waiting for its insert is
+ * folded into that insert; other changes are grouped by status into one {@code UPDATE ... IN}
+ * per status, keeping only the last status per id.</p>
+ *
+ * <p>Flushes happen when {@code max-pending} operations are buffered (on the writing thread),
+ * every {@code flush-interval}, at the end of every event ({@link #flush}, called by
+ * {@link io.datapulse.etl.domain.EventRunner}) and on shutdown. One flush runs at a time and
+ * writes inserts before status changes in a single transaction, so a status change is never
+ * applied before its row exists, and everything an event wrote is committed before its result
+ * reaches the checkpoint.</p>
+ *
+ * <p>When the batch fails, every operation is retried in its own transaction, so one bad row
+ * does not hold back the rest of the instance's bookkeeping. Operations failing with a transient
+ * error are put back and the flush rethrows (the database is likely unavailable). An operation
+ * rejected with a non-transient error (e.g. a constraint violation) is put back up to
+ * {@code max-attempts} times; it does not fail the flush, which would fail every event on the
+ * instance. After that an insert is parked: kept out of the batch, retried on its own at every
+ * flush and counted by gauge {@code etl.job_item_buffer.rejected}, because without its row the
+ * page's S3 object is invisible to retention and replay. A rejected status change is dropped
+ * and logged, its row already exists. {@code captured_at} is set by the database on insert.</p>
+ */
+@Slf4j
+@Service
+public class JobItemWriteBuffer {
+
+    private final JobItemRepository repository;
+    private final JobItemBufferProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final MetricsFacade metrics;
+
+    /** Guards the pending maps; never held while writing. */
+    private final Object pendingLock = new Object();
+    /** Serializes flushes, so operations reach the database in the order they were swapped out. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Deque<Long> reservedIds = new ArrayDeque<>();
+
+    private Map<Long, JobItemRow> pendingInserts = new LinkedHashMap<>();
+    private Map<Long, JobItemStatus> pendingStatuses = new LinkedHashMap<>();
+    /** Inserts rejected {@code max-attempts} times, see the class comment. */
+    private final Map<Long, JobItemRow> rejectedInserts = new LinkedHashMap<>();
+    /** Non-transient failures per job_item id; touched only under {@link #flushLock}. */
+    private final Map<Long, Integer> rejections = new HashMap<>();
+
+    public JobItemWriteBuffer(JobItemRepository repository,
+                              JobItemBufferProperties properties,
+                              TransactionTemplate transactionTemplate,
+                              MetricsFacade metrics) {
+        this.repository = repository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.metrics = metrics;
+        metrics.gauge("etl.job_item_buffer.pending", this::pendingCount);
+        metrics.gauge("etl.job_item_buffer.rejected", this::rejectedCount);
+    }
+
+    /**
+     * Buffers the insert of a captured page ({@code CAPTURED}) and returns its job_item id.
+     */
+    public long register(JobItemRow row) {
+        if (!properties.enabled()) {
+            return repository.insert(row);
+        }
+        row.setId(nextId());
+        row.setStatus(JobItemStatus.CAPTURED.name());
+        boolean full;
+        synchronized (pendingLock) {
+            pendingInserts.put(row.getId(), row);
+            full = pendingSize() >= properties.maxPending();
+        }
+        if (full) {
+            flush("size");
+        }
+        return row.getId();
+    }
+
+    public void markStatus(long id, JobItemStatus status) {
+        if (!properties.enabled()) {
+            repository.updateStatus(id, status);
+            return;
+        }
+        boolean full;
+        synchronized (pendingLock) {
+            JobItemRow pendingInsert = pendingInserts.getOrDefault(id, rejectedInserts.get(id));
+            if (pendingInsert != null) {
+                pendingInsert.setStatus(status.name());
+            } else {
+                pendingStatuses.remove(id);
+                pendingStatuses.put(id, status);
+            }
+            full = pendingSize() >= properties.maxPending();
+        }
+        if (full) {
+            flush("size");
+        }
+    }
+
+    /**
+     * Writes everything buffered so far, including operations of other jobs; returns once it is
+     * committed.
+     */
+    public void flush() {
+        flush("event");
+    }
+
+    @Scheduled(fixedDelayString = "${datapulse.etl.job-item-buffer.flush-interval:PT1S}")
+    void flushPeriodically() {
+        try {
+            flush("time");
+        } catch (RuntimeException e) {
+            log.warn("Periodic job_item flush failed, will retry: error={}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush("shutdown");
+        } catch (RuntimeException e) {
+            log.error("job_item flush on shutdown failed: error={}", e.getMessage(), e);
+        }
+    }
+
+    private void flush(String trigger) {
+        flushLock.lock();
+        try {
+            retryRejected();
+            Map<Long, JobItemRow> inserts;
+            Map<Long, JobItemStatus> statuses;
+            synchronized (pendingLock) {
+                if (pendingInserts.isEmpty() && pendingStatuses.isEmpty()) {
+                    return;
+                }
+                inserts = pendingInserts;
+                statuses = pendingStatuses;
+                pendingInserts = new LinkedHashMap<>();
+                pendingStatuses = new LinkedHashMap<>();
+            }
+
+            Timer.Sample sample = metrics.startTimer();
+            try {
+                write(inserts, statuses);
+            } catch (RuntimeException e) {
+                metrics.incrementCounter("etl.job_item_buffer.flush_failures", "trigger", trigger);
+                log.warn("job_item batch flush failed, writing operations one by one: trigger={}, "
+                        + "inserts={}, statusChanges={}, error={}",
+                        trigger, inserts.size(), statuses.size(), e.getMessage());
+                writeOneByOne(inserts, statuses);
+                return;
+            }
+            rejections.clear();
+            metrics.stopTimer(sample, "etl.job_item_buffer.flush", "trigger", trigger);
+            metrics.incrementCounter("etl.job_item_buffer.written", inserts.size(), "op", "insert");
+            metrics.incrementCounter("etl.job_item_buffer.written", statuses.size(), "op", "status");
+            log.debug("job_item buffer flushed: trigger={}, inserts={}, statusChanges={}",
+                    trigger, inserts.size(), statuses.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Map<Long, JobItemRow> inserts, Map<Long, JobItemStatus> statuses) {
+        Map<JobItemStatus, List<Long>> idsByStatus = new EnumMap<>(JobItemStatus.class);
+        statuses.forEach((id, status) ->
+                idsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(id));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            repository.insertAll(List.copyOf(inserts.values()));
+            idsByStatus.forEach(repository::updateStatuses);
+        });
+    }
+
+    /**
+     * Writes the operations of a failed batch in their own transactions, inserts first. Failed
+     * operations are put back (or parked or dropped, see the class comment); rethrows the first transient
+     * failure once every operation has been tried.
+     */
+    private void writeOneByOne(Map<Long, JobItemRow> inserts, Map<Long, JobItemStatus> statuses) {
+        Map<Long, JobItemRow> failedInserts = new LinkedHashMap<>();
+        Map<Long, JobItemStatus> failedStatuses = new LinkedHashMap<>();
+        RuntimeException transientFailure = null;
+        int parked = 0;
+
+        for (JobItemRow row : inserts.values()) {
+            RuntimeException failure = tryWrite(() -> repository.insertAll(List.of(row)));
+            if (failure == null) {
+                continue;
+            }
+            if (keep(row.getId(), "insert", failure)) {
+                failedInserts.put(row.getId(), row);
+                transientFailure = firstTransient(transientFailure, failure);
+            } else {
+                park(row, failure);
+                parked++;
+            }
+        }
+        for (Map.Entry<Long, JobItemStatus> change : statuses.entrySet()) {
+            RuntimeException failure = tryWrite(
+                    () -> repository.updateStatuses(change.getValue(), List.of(change.getKey())));
+            if (failure != null && keep(change.getKey(), "status", failure)) {
+                failedStatuses.put(change.getKey(), change.getValue());
+                transientFailure = firstTransient(transientFailure, failure);
+            }
+        }
+
+        int written = inserts.size() + statuses.size() - failedInserts.size()
+                - failedStatuses.size() - parked;
+        metrics.incrementCounter("etl.job_item_buffer.written", written, "op", "one_by_one");
+        requeue(failedInserts, failedStatuses);
+        if (transientFailure != null) {
+            throw transientFailure;
+        }
+    }
+
+    private RuntimeException tryWrite(Runnable write) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> write.run());
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Whether a failed operation goes back into the buffer; counts non-transient rejections up to
+     * {@code max-attempts}. Past that a status change is dropped here, an insert is left to
+     * {@link #park}.
+     */
+    private boolean keep(long id, String op, RuntimeException failure) {
+        if (!(failure instanceof NonTransientDataAccessException)) {
+            return true;
+        }
+        int attempts = rejections.merge(id, 1, Integer::sum);
+        if (attempts < properties.maxAttempts()) {
+            log.warn("job_item {} rejected, will retry: id={}, attempt={}, error={}",
+                    op, id, attempts, failure.getMessage());
+            return true;
+        }
+        rejections.remove(id);
+        if ("status".equals(op)) {
+            metrics.incrementCounter("etl.job_item_buffer.dropped", "op", op);
+            log.error("job_item status dropped after {} rejections: id={}, error={}",
+                    attempts, id, failure.getMessage(), failure);
+        }
+        return false;
+    }
+
+    private void park(JobItemRow row, RuntimeException failure) {
+        synchronized (pendingLock) {
+            rejectedInserts.put(row.getId(), row);
+        }
+        log.error("job_item insert rejected {} times, parked and retried on every flush: id={}, "
+                        + "jobExecutionId={}, s3Key={}, error={}",
+                properties.maxAttempts(), row.getId(), row.getJobExecutionId(), row.getS3Key(),
+                failure.getMessage(), failure);
+    }
+
+    /**
+     * Retries every parked insert in its own transaction; a row that fails again stays parked.
+     * Runs before the pending operations are swapped out, so a status change buffered for a row
+     * written here is applied by the same flush.
+     */
+    private void retryRejected() {
+        List<JobItemRow> parked;
+        synchronized (pendingLock) {
+            if (rejectedInserts.isEmpty()) {
+                return;
+            }
+            parked = List.copyOf(rejectedInserts.values());
+            rejectedInserts.clear();
+        }
+        for (JobItemRow row : parked) {
+            RuntimeException failure = tryWrite(() -> repository.insertAll(List.of(row)));
+            if (failure == null) {
+                log.info("Parked job_item written: id={}, s3Key={}", row.getId(), row.getS3Key());
+                continue;
+            }
+            synchronized (pendingLock) {
+                JobItemStatus status = pendingStatuses.remove(row.getId());
+                if (status != null) {
+                    row.setStatus(status.name());
+                }
+                rejectedInserts.put(row.getId(), row);
+            }
+        }
+    }
+
+    private static RuntimeException firstTransient(RuntimeException first,
+                                                   RuntimeException failure) {
+        if (first != null || failure instanceof NonTransientDataAccessException) {
+            return first;
+        }
+        return failure;
+    }
+
+    /**
+     * Puts failed operations back in front of those buffered meanwhile; a status change that
+     * arrived during the flush still wins over the failed one.
+     */
+    private void requeue(Map<Long, JobItemRow> inserts, Map<Long, JobItemStatus> statuses) {
+        if (inserts.isEmpty() && statuses.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLock) {
+            Map<Long, JobItemRow> mergedInserts = new LinkedHashMap<>(inserts);
+            mergedInserts.putAll(pendingInserts);
+            Map<Long, JobItemStatus> mergedStatuses = new LinkedHashMap<>(statuses);
+            pendingStatuses.forEach((id, status) -> {
+                JobItemRow row = mergedInserts.get(id);
+                if (row != null) {
+                    row.setStatus(status.name());
+                } else {
+                    mergedStatuses.remove(id);
+                    mergedStatuses.put(id, status);
+                }
+            });
+            pendingInserts = mergedInserts;
+            pendingStatuses = mergedStatuses;
+        }
+    }
+
+    private long nextId() {
+        synchronized (reservedIds) {
+            if (reservedIds.isEmpty()) {
+                reservedIds.addAll(repository.nextIds(Math.max(1, properties.maxPending())));
+            }
+            return reservedIds.poll();
+        }
+    }
+
+    /** Caller holds {@link #pendingLock}. */
+    private int pendingSize() {
+        return pendingInserts.size() + pendingStatuses.size();
+    }
+
+    private int pendingCount() {
+        synchronized (pendingLock) {
+            return pendingSize();
+        }
+    }
+
+    private int rejectedCount() {
+        synchronized (pendingLock) {
+            return rejectedInserts.size();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.datapulse.etl.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Last successfully processed fingerprint per raw page identity
+ * ({@code connection, event, source, page}). Used to skip normalize/UPSERT for pages whose
+ * bytes did not change since the previous sync.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RawPageFingerprintRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    private static final String FIND_BY_SOURCE = """
+            SELECT page_identity, fingerprint, record_count
+            FROM raw_page_fingerprint
+            WHERE connection_id = :connectionId
+              AND event_type = :eventType
+              AND source_id = :sourceId
+            """;
+
+    private static final String UPSERT = """
+            INSERT INTO raw_page_fingerprint (connection_id, event_type, source_id, page_identity,
+                                              fingerprint, record_count, job_item_id, updated_at)
+            VALUES (:connectionId, :eventType, :sourceId, :pageIdentity,
+                    :fingerprint, :recordCount, :jobItemId, now())
+            ON CONFLICT (connection_id, event_type, source_id, page_identity) DO UPDATE SET
+                fingerprint = EXCLUDED.fingerprint,
+                record_count = EXCLUDED.record_count,
+                job_item_id = EXCLUDED.job_item_id,
+                updated_at = now()
+            """;
+
+    private static final String DELETE = """
+            DELETE FROM raw_page_fingerprint
+            WHERE connection_id = :connectionId
+              AND event_type = :eventType
+              AND source_id = :sourceId
+              AND page_identity = :pageIdentity
+            """;
+
+    public Map<String, RawPageFingerprint> findBySource(long connectionId, String eventType,
+                                                        String sourceId) {
+        Map<String, RawPageFingerprint> result = new HashMap<>();
+        jdbc.query(FIND_BY_SOURCE, sourceParams(connectionId, eventType, sourceId), rs -> {
+            result.put(rs.getString("page_identity"), new RawPageFingerprint(
+                    rs.getString("fingerprint"), rs.getInt("record_count")));
+        });
+        return result;
+    }
+
+    public void upsert(long connectionId, String eventType, String sourceId, String pageIdentity,
+                       RawPageFingerprint fingerprint, long jobItemId) {
+        jdbc.update(UPSERT, sourceParams(connectionId, eventType, sourceId)
+                .addValue("pageIdentity", pageIdentity)
+                .addValue("fingerprint", fingerprint.fingerprint())
+                .addValue("recordCount", fingerprint.recordCount())
+                .addValue("jobItemId", jobItemId));
+    }
+
+    public void delete(long connectionId, String eventType, String sourceId, String pageIdentity) {
+        jdbc.update(DELETE, sourceParams(connectionId, eventType, sourceId)
+                .addValue("pageIdentity", pageIdentity));
+    }
+
+    private static MapSqlParameterSource sourceParams(long connectionId, String eventType,
+                                                      String sourceId) {
+        return new MapSqlParameterSource()
+                .addValue("connectionId", connectionId)
+                .addValue("eventType", eventType)
+                .addValue("sourceId", sourceId);
+    }
+
+    public record RawPageFingerprint(String fingerprint, int recordCount) {
+    }
+}
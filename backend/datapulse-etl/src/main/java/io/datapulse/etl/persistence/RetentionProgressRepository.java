@@ -0,0 +1,66 @@
+package io.datapulse.etl.persistence;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keyset cursor of an unfinished retention pass per category ({@code finance/FACT_FINANCE},
+ * {@code state/PRODUCT_DICT}, ...). A run that hits its time budget leaves the cursor behind and
+ * the next run continues from it; a finished pass clears it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RetentionProgressRepository {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    private static final String FIND = """
+            SELECT cursor_captured_at, cursor_id
+            FROM retention_progress
+            WHERE category = :category
+            """;
+
+    private static final String UPSERT = """
+            INSERT INTO retention_progress (category, cursor_captured_at, cursor_id, updated_at)
+            VALUES (:category, :capturedAt, :id, now())
+            ON CONFLICT (category) DO UPDATE SET
+                cursor_captured_at = EXCLUDED.cursor_captured_at,
+                cursor_id = EXCLUDED.cursor_id,
+                updated_at = now()
+            """;
+
+    private static final String DELETE = """
+            DELETE FROM retention_progress WHERE category = :category
+            """;
+
+    public Optional<RetentionCursor> find(String category) {
+        List<RetentionCursor> rows = jdbc.query(FIND, Map.of("category", category),
+                (rs, rowNum) -> new RetentionCursor(
+                        rs.getObject("cursor_captured_at", OffsetDateTime.class),
+                        rs.getLong("cursor_id")));
+        return rows.stream().findFirst();
+    }
+
+    public void save(String category, RetentionCursor cursor) {
+        jdbc.update(UPSERT, Map.of(
+                "category", category,
+                "capturedAt", cursor.capturedAt(),
+                "id", cursor.id()));
+    }
+
+    public void clear(String category) {
+        jdbc.update(DELETE, Map.of("category", category));
+    }
+
+    /**
+     * Last {@code (captured_at, id)} a pass has handled; the next page starts strictly after it.
+     */
+    public record RetentionCursor(OffsetDateTime capturedAt, long id) {}
+}
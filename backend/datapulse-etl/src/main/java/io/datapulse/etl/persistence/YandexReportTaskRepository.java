@@ -0,0 +1,114 @@
+package io.datapulse.etl.persistence;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Yandex async reports requested per connection and report key (report type + period), so a
+ * capture interrupted by a restart or a failed job polls the report already being built instead
+ * of generating a new one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class YandexReportTaskRepository {
+
+    public static final String STATUS_GENERATING = "GENERATING";
+    public static final String STATUS_READY = "READY";
+    public static final String STATUS_CONSUMED = "CONSUMED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    private static final String FIND_RESUMABLE = """
+            SELECT report_id, status, file_url
+            FROM yandex_report_task
+            WHERE connection_id = :connectionId
+              AND report_key = :reportKey
+              AND status IN ('GENERATING', 'READY')
+              AND created_at >= :createdAfter
+            """;
+
+    private static final String UPSERT_GENERATED = """
+            INSERT INTO yandex_report_task (connection_id, report_key, report_id, status,
+                                            job_execution_id, created_at, updated_at)
+            VALUES (:connectionId, :reportKey, :reportId, 'GENERATING',
+                    :jobExecutionId, now(), now())
+            ON CONFLICT (connection_id, report_key) DO UPDATE SET
+                report_id = EXCLUDED.report_id,
+                status = 'GENERATING',
+                file_url = NULL,
+                job_execution_id = EXCLUDED.job_execution_id,
+                created_at = now(),
+                updated_at = now()
+            """;
+
+    private static final String MARK_READY = """
+            UPDATE yandex_report_task
+            SET status = 'READY', file_url = :fileUrl, updated_at = now()
+            WHERE connection_id = :connectionId
+              AND report_key = :reportKey
+              AND report_id = :reportId
+            """;
+
+    private static final String FINISH = """
+            UPDATE yandex_report_task
+            SET status = :status, updated_at = now()
+            WHERE connection_id = :connectionId
+              AND report_key = :reportKey
+              AND report_id = :reportId
+            """;
+
+    public Optional<ReportTask> findResumable(long connectionId, String reportKey,
+                                              OffsetDateTime createdAfter) {
+        List<ReportTask> rows = jdbc.query(FIND_RESUMABLE,
+                keyParams(connectionId, reportKey).addValue("createdAfter", createdAfter),
+                (rs, rowNum) -> new ReportTask(
+                        rs.getString("report_id"),
+                        rs.getString("status"),
+                        rs.getString("file_url")));
+        return rows.stream().findFirst();
+    }
+
+    public void saveGenerated(long connectionId, String reportKey, String reportId,
+                              long jobExecutionId) {
+        jdbc.update(UPSERT_GENERATED, keyParams(connectionId, reportKey)
+                .addValue("reportId", reportId)
+                .addValue("jobExecutionId", jobExecutionId));
+    }
+
+    public void markReady(long connectionId, String reportKey, String reportId, String fileUrl) {
+        jdbc.update(MARK_READY, keyParams(connectionId, reportKey)
+                .addValue("reportId", reportId)
+                .addValue("fileUrl", fileUrl));
+    }
+
+    /**
+     * @param status {@link #STATUS_CONSUMED} or {@link #STATUS_FAILED}; either way the next
+     *               capture of the key generates a new report
+     */
+    public void finish(long connectionId, String reportKey, String reportId, String status) {
+        jdbc.update(FINISH, keyParams(connectionId, reportKey)
+                .addValue("reportId", reportId)
+                .addValue("status", status));
+    }
+
+    private static MapSqlParameterSource keyParams(long connectionId, String reportKey) {
+        return new MapSqlParameterSource()
+                .addValue("connectionId", connectionId)
+                .addValue("reportKey", reportKey);
+    }
+
+    public record ReportTask(String reportId, String status, String fileUrl) {
+
+        public boolean isReady() {
+            return STATUS_READY.equals(status) && fileUrl != null && !fileUrl.isBlank();
+        }
+    }
+}
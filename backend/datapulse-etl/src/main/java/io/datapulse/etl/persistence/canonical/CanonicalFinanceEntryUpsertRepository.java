@@ -13,10 +13,11 @@ import lombok.RequiredArgsConstructor;
 public class CanonicalFinanceEntryUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final CanonicalBulkWriter bulkWriter;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
-    private static final String UPSERT = """
+    private static final String INSERT = """
             INSERT INTO canonical_finance_entry (workspace_id, connection_id, source_platform,
                                                  external_entry_id, entry_type, posting_id,
                                                  order_id, seller_sku_id, warehouse_id,
@@ -30,6 +31,9 @@ public class CanonicalFinanceEntryUpsertRepository {
                                                  fulfillment_type,
                                                  job_execution_id, created_at, updated_at)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+            """;
+
+    private static final String ON_CONFLICT = """
             ON CONFLICT (workspace_id, source_platform, external_entry_id) DO UPDATE SET
                 connection_id = EXCLUDED.connection_id,
                 entry_type = EXCLUDED.entry_type,
@@ -82,8 +86,42 @@ public class CanonicalFinanceEntryUpsertRepository {
                    EXCLUDED.fulfillment_type)
             """;
 
+    private static final String UPSERT = INSERT + ON_CONFLICT;
+
+    private static final CopyMergeSpec<CanonicalFinanceEntryEntity> COPY_SPEC = new CopyMergeSpec<>(
+            "canonical_finance_entry",
+            List.of("workspace_id", "source_platform", "external_entry_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("workspace_id", CanonicalFinanceEntryEntity::getWorkspaceId),
+                    new CopyMergeSpec.Column<>("connection_id", CanonicalFinanceEntryEntity::getConnectionId),
+                    new CopyMergeSpec.Column<>("source_platform", CanonicalFinanceEntryEntity::getSourcePlatform),
+                    new CopyMergeSpec.Column<>("external_entry_id", CanonicalFinanceEntryEntity::getExternalEntryId),
+                    new CopyMergeSpec.Column<>("entry_type", CanonicalFinanceEntryEntity::getEntryType),
+                    new CopyMergeSpec.Column<>("posting_id", CanonicalFinanceEntryEntity::getPostingId),
+                    new CopyMergeSpec.Column<>("order_id", CanonicalFinanceEntryEntity::getOrderId),
+                    new CopyMergeSpec.Column<>("seller_sku_id", CanonicalFinanceEntryEntity::getSellerSkuId),
+                    new CopyMergeSpec.Column<>("warehouse_id", CanonicalFinanceEntryEntity::getWarehouseId),
+                    new CopyMergeSpec.Column<>("revenue_amount", CanonicalFinanceEntryEntity::getRevenueAmount),
+                    new CopyMergeSpec.Column<>("marketplace_commission_amount", CanonicalFinanceEntryEntity::getMarketplaceCommissionAmount),
+                    new CopyMergeSpec.Column<>("acquiring_commission_amount", CanonicalFinanceEntryEntity::getAcquiringCommissionAmount),
+                    new CopyMergeSpec.Column<>("logistics_cost_amount", CanonicalFinanceEntryEntity::getLogisticsCostAmount),
+                    new CopyMergeSpec.Column<>("storage_cost_amount", CanonicalFinanceEntryEntity::getStorageCostAmount),
+                    new CopyMergeSpec.Column<>("penalties_amount", CanonicalFinanceEntryEntity::getPenaltiesAmount),
+                    new CopyMergeSpec.Column<>("acceptance_cost_amount", CanonicalFinanceEntryEntity::getAcceptanceCostAmount),
+                    new CopyMergeSpec.Column<>("marketing_cost_amount", CanonicalFinanceEntryEntity::getMarketingCostAmount),
+                    new CopyMergeSpec.Column<>("other_marketplace_charges_amount", CanonicalFinanceEntryEntity::getOtherMarketplaceChargesAmount),
+                    new CopyMergeSpec.Column<>("compensation_amount", CanonicalFinanceEntryEntity::getCompensationAmount),
+                    new CopyMergeSpec.Column<>("refund_amount", CanonicalFinanceEntryEntity::getRefundAmount),
+                    new CopyMergeSpec.Column<>("net_payout", CanonicalFinanceEntryEntity::getNetPayout),
+                    new CopyMergeSpec.Column<>("currency", CanonicalFinanceEntryEntity::getCurrency),
+                    new CopyMergeSpec.Column<>("entry_date", CanonicalFinanceEntryEntity::getEntryDate),
+                    new CopyMergeSpec.Column<>("attribution_level", CanonicalFinanceEntryEntity::getAttributionLevel),
+                    new CopyMergeSpec.Column<>("fulfillment_type", CanonicalFinanceEntryEntity::getFulfillmentType),
+                    new CopyMergeSpec.Column<>("job_execution_id", CanonicalFinanceEntryEntity::getJobExecutionId)),
+            ON_CONFLICT);
+
     public void batchUpsert(List<CanonicalFinanceEntryEntity> entities) {
-        jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
+        bulkWriter.write(COPY_SPEC, entities, () -> jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
                 (ps, e) -> {
                     ps.setLong(1, e.getWorkspaceId());
                     ps.setLong(2, e.getConnectionId());
@@ -111,6 +149,6 @@ public class CanonicalFinanceEntryUpsertRepository {
                     ps.setString(24, e.getAttributionLevel());
                     ps.setString(25, e.getFulfillmentType());
                     ps.setLong(26, e.getJobExecutionId());
-                });
+                }));
     }
 }
@@ -13,16 +13,20 @@ import lombok.RequiredArgsConstructor;
 public class CanonicalOrderUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final CanonicalBulkWriter bulkWriter;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
-    private static final String UPSERT = """
+    private static final String INSERT = """
             INSERT INTO canonical_order (workspace_id, connection_id, source_platform,
                                          external_order_id, marketplace_offer_id, order_date,
                                          quantity, price_per_unit, total_amount, currency,
                                          status, fulfillment_type, region,
                                          job_execution_id, created_at, updated_at)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+            """;
+
+    private static final String ON_CONFLICT = """
             ON CONFLICT (workspace_id, source_platform, external_order_id) DO UPDATE SET
                 connection_id = EXCLUDED.connection_id,
                 marketplace_offer_id = EXCLUDED.marketplace_offer_id,
@@ -49,8 +53,30 @@ public class CanonicalOrderUpsertRepository {
                    EXCLUDED.fulfillment_type, EXCLUDED.region)
             """;
 
+    private static final String UPSERT = INSERT + ON_CONFLICT;
+
+    private static final CopyMergeSpec<CanonicalOrderEntity> COPY_SPEC = new CopyMergeSpec<>(
+            "canonical_order",
+            List.of("workspace_id", "source_platform", "external_order_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("workspace_id", CanonicalOrderEntity::getWorkspaceId),
+                    new CopyMergeSpec.Column<>("connection_id", CanonicalOrderEntity::getConnectionId),
+                    new CopyMergeSpec.Column<>("source_platform", CanonicalOrderEntity::getSourcePlatform),
+                    new CopyMergeSpec.Column<>("external_order_id", CanonicalOrderEntity::getExternalOrderId),
+                    new CopyMergeSpec.Column<>("marketplace_offer_id", CanonicalOrderEntity::getMarketplaceOfferId),
+                    new CopyMergeSpec.Column<>("order_date", CanonicalOrderEntity::getOrderDate),
+                    new CopyMergeSpec.Column<>("quantity", CanonicalOrderEntity::getQuantity),
+                    new CopyMergeSpec.Column<>("price_per_unit", CanonicalOrderEntity::getPricePerUnit),
+                    new CopyMergeSpec.Column<>("total_amount", CanonicalOrderEntity::getTotalAmount),
+                    new CopyMergeSpec.Column<>("currency", CanonicalOrderEntity::getCurrency),
+                    new CopyMergeSpec.Column<>("status", CanonicalOrderEntity::getStatus),
+                    new CopyMergeSpec.Column<>("fulfillment_type", CanonicalOrderEntity::getFulfillmentType),
+                    new CopyMergeSpec.Column<>("region", CanonicalOrderEntity::getRegion),
+                    new CopyMergeSpec.Column<>("job_execution_id", CanonicalOrderEntity::getJobExecutionId)),
+            ON_CONFLICT);
+
     public void batchUpsert(List<CanonicalOrderEntity> entities) {
-        jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
+        bulkWriter.write(COPY_SPEC, entities, () -> jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
                 (ps, e) -> {
                     ps.setLong(1, e.getWorkspaceId());
                     ps.setLong(2, e.getConnectionId());
@@ -66,6 +92,6 @@ public class CanonicalOrderUpsertRepository {
                     ps.setString(12, e.getFulfillmentType());
                     ps.setString(13, e.getRegion());
                     ps.setLong(14, e.getJobExecutionId());
-                });
+                }));
     }
 }
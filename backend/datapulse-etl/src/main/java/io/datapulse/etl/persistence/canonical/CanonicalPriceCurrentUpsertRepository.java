@@ -13,14 +13,18 @@ import lombok.RequiredArgsConstructor;
 public class CanonicalPriceCurrentUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final CanonicalBulkWriter bulkWriter;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
-    private static final String UPSERT = """
+    private static final String INSERT = """
             INSERT INTO canonical_price_current (marketplace_offer_id, price, discount_price, discount_pct,
                                                  currency, min_price, max_price,
                                                  job_execution_id, captured_at, updated_at)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now())
+            """;
+
+    private static final String ON_CONFLICT = """
             ON CONFLICT (marketplace_offer_id) DO UPDATE SET
                 price = EXCLUDED.price,
                 discount_price = EXCLUDED.discount_price,
@@ -40,8 +44,26 @@ public class CanonicalPriceCurrentUpsertRepository {
                    EXCLUDED.min_price, EXCLUDED.max_price)
             """;
 
+    private static final String UPSERT = INSERT + ON_CONFLICT;
+
+    private static final CopyMergeSpec<CanonicalPriceCurrentEntity> COPY_SPEC = new CopyMergeSpec<>(
+            "canonical_price_current",
+            List.of("marketplace_offer_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("marketplace_offer_id", CanonicalPriceCurrentEntity::getMarketplaceOfferId),
+                    new CopyMergeSpec.Column<>("price", CanonicalPriceCurrentEntity::getPrice),
+                    new CopyMergeSpec.Column<>("discount_price", CanonicalPriceCurrentEntity::getDiscountPrice),
+                    new CopyMergeSpec.Column<>("discount_pct", CanonicalPriceCurrentEntity::getDiscountPct),
+                    new CopyMergeSpec.Column<>("currency", CanonicalPriceCurrentEntity::getCurrency),
+                    new CopyMergeSpec.Column<>("min_price", CanonicalPriceCurrentEntity::getMinPrice),
+                    new CopyMergeSpec.Column<>("max_price", CanonicalPriceCurrentEntity::getMaxPrice),
+                    new CopyMergeSpec.Column<>("job_execution_id", CanonicalPriceCurrentEntity::getJobExecutionId),
+                    new CopyMergeSpec.Column<>("captured_at", CanonicalPriceCurrentEntity::getCapturedAt)),
+            ON_CONFLICT,
+            List.of("updated_at"));
+
     public void batchUpsert(List<CanonicalPriceCurrentEntity> entities) {
-        jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
+        bulkWriter.write(COPY_SPEC, entities, () -> jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
                 (ps, e) -> {
                     ps.setLong(1, e.getMarketplaceOfferId());
                     ps.setBigDecimal(2, e.getPrice());
@@ -52,6 +74,6 @@ public class CanonicalPriceCurrentUpsertRepository {
                     ps.setBigDecimal(7, e.getMaxPrice());
                     ps.setLong(8, e.getJobExecutionId());
                     ps.setTimestamp(9, Timestamp.from(e.getCapturedAt().toInstant()));
-                });
+                }));
     }
 }
@@ -19,10 +19,11 @@ import lombok.RequiredArgsConstructor;
 public class CanonicalPromoProductUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final CanonicalBulkWriter bulkWriter;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
-    private static final String UPSERT = """
+    private static final String INSERT = """
             INSERT INTO canonical_promo_product (canonical_promo_campaign_id, marketplace_offer_id,
                                                  participation_status, required_price, current_price,
                                                  max_promo_price, max_discount_pct,
@@ -31,6 +32,9 @@ public class CanonicalPromoProductUpsertRepository {
                                                  job_execution_id, synced_at,
                                                  created_at, updated_at)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+            """;
+
+    private static final String ON_CONFLICT = """
             ON CONFLICT (canonical_promo_campaign_id, marketplace_offer_id) DO UPDATE SET
                 participation_status = EXCLUDED.participation_status,
                 required_price = EXCLUDED.required_price,
@@ -57,8 +61,29 @@ public class CanonicalPromoProductUpsertRepository {
                    EXCLUDED.participation_decision_source)
             """;
 
+    private static final String UPSERT = INSERT + ON_CONFLICT;
+
+    private static final CopyMergeSpec<CanonicalPromoProductEntity> COPY_SPEC = new CopyMergeSpec<>(
+            "canonical_promo_product",
+            List.of("canonical_promo_campaign_id", "marketplace_offer_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("canonical_promo_campaign_id", CanonicalPromoProductEntity::getCanonicalPromoCampaignId),
+                    new CopyMergeSpec.Column<>("marketplace_offer_id", CanonicalPromoProductEntity::getMarketplaceOfferId),
+                    new CopyMergeSpec.Column<>("participation_status", CanonicalPromoProductEntity::getParticipationStatus),
+                    new CopyMergeSpec.Column<>("required_price", CanonicalPromoProductEntity::getRequiredPrice),
+                    new CopyMergeSpec.Column<>("current_price", CanonicalPromoProductEntity::getCurrentPrice),
+                    new CopyMergeSpec.Column<>("max_promo_price", CanonicalPromoProductEntity::getMaxPromoPrice),
+                    new CopyMergeSpec.Column<>("max_discount_pct", CanonicalPromoProductEntity::getMaxDiscountPct),
+                    new CopyMergeSpec.Column<>("min_stock_required", CanonicalPromoProductEntity::getMinStockRequired),
+                    new CopyMergeSpec.Column<>("stock_available", CanonicalPromoProductEntity::getStockAvailable),
+                    new CopyMergeSpec.Column<>("add_mode", CanonicalPromoProductEntity::getAddMode),
+                    new CopyMergeSpec.Column<>("participation_decision_source", CanonicalPromoProductEntity::getParticipationDecisionSource),
+                    new CopyMergeSpec.Column<>("job_execution_id", CanonicalPromoProductEntity::getJobExecutionId),
+                    new CopyMergeSpec.Column<>("synced_at", CanonicalPromoProductEntity::getSyncedAt)),
+            ON_CONFLICT);
+
     public void batchUpsert(List<CanonicalPromoProductEntity> entities) {
-        jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
+        bulkWriter.write(COPY_SPEC, entities, () -> jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
                 (ps, e) -> {
                     ps.setLong(1, e.getCanonicalPromoCampaignId());
                     ps.setLong(2, e.getMarketplaceOfferId());
@@ -73,6 +98,6 @@ public class CanonicalPromoProductUpsertRepository {
                     ps.setString(11, e.getParticipationDecisionSource());
                     ps.setLong(12, e.getJobExecutionId());
                     ps.setObject(13, e.getSyncedAt() != null ? Timestamp.from(e.getSyncedAt().toInstant()) : null);
-                });
+                }));
     }
 }
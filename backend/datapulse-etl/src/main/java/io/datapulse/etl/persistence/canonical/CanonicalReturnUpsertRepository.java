@@ -13,10 +13,11 @@ import lombok.RequiredArgsConstructor;
 public class CanonicalReturnUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final CanonicalBulkWriter bulkWriter;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
-    private static final String UPSERT = """
+    private static final String INSERT = """
             INSERT INTO canonical_return (workspace_id, connection_id, source_platform,
                                           external_return_id, canonical_order_id,
                                           marketplace_offer_id, seller_sku_id,
@@ -24,6 +25,9 @@ public class CanonicalReturnUpsertRepository {
                                           quantity, status, currency, fulfillment_type,
                                           job_execution_id, created_at, updated_at)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+            """;
+
+    private static final String ON_CONFLICT = """
             ON CONFLICT (workspace_id, source_platform, external_return_id) DO UPDATE SET
                 connection_id = EXCLUDED.connection_id,
                 canonical_order_id = EXCLUDED.canonical_order_id,
@@ -53,8 +57,31 @@ public class CanonicalReturnUpsertRepository {
                    EXCLUDED.fulfillment_type)
             """;
 
+    private static final String UPSERT = INSERT + ON_CONFLICT;
+
+    private static final CopyMergeSpec<CanonicalReturnEntity> COPY_SPEC = new CopyMergeSpec<>(
+            "canonical_return",
+            List.of("workspace_id", "source_platform", "external_return_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("workspace_id", CanonicalReturnEntity::getWorkspaceId),
+                    new CopyMergeSpec.Column<>("connection_id", CanonicalReturnEntity::getConnectionId),
+                    new CopyMergeSpec.Column<>("source_platform", CanonicalReturnEntity::getSourcePlatform),
+                    new CopyMergeSpec.Column<>("external_return_id", CanonicalReturnEntity::getExternalReturnId),
+                    new CopyMergeSpec.Column<>("canonical_order_id", CanonicalReturnEntity::getCanonicalOrderId),
+                    new CopyMergeSpec.Column<>("marketplace_offer_id", CanonicalReturnEntity::getMarketplaceOfferId),
+                    new CopyMergeSpec.Column<>("seller_sku_id", CanonicalReturnEntity::getSellerSkuId),
+                    new CopyMergeSpec.Column<>("return_date", CanonicalReturnEntity::getReturnDate),
+                    new CopyMergeSpec.Column<>("return_amount", CanonicalReturnEntity::getReturnAmount),
+                    new CopyMergeSpec.Column<>("return_reason", CanonicalReturnEntity::getReturnReason),
+                    new CopyMergeSpec.Column<>("quantity", CanonicalReturnEntity::getQuantity),
+                    new CopyMergeSpec.Column<>("status", CanonicalReturnEntity::getStatus),
+                    new CopyMergeSpec.Column<>("currency", CanonicalReturnEntity::getCurrency),
+                    new CopyMergeSpec.Column<>("fulfillment_type", CanonicalReturnEntity::getFulfillmentType),
+                    new CopyMergeSpec.Column<>("job_execution_id", CanonicalReturnEntity::getJobExecutionId)),
+            ON_CONFLICT);
+
     public void batchUpsert(List<CanonicalReturnEntity> entities) {
-        jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
+        bulkWriter.write(COPY_SPEC, entities, () -> jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
                 (ps, e) -> {
                     ps.setLong(1, e.getWorkspaceId());
                     ps.setLong(2, e.getConnectionId());
@@ -71,6 +98,6 @@ public class CanonicalReturnUpsertRepository {
                     ps.setString(13, e.getCurrency());
                     ps.setString(14, e.getFulfillmentType());
                     ps.setLong(15, e.getJobExecutionId());
-                });
+                }));
     }
 }
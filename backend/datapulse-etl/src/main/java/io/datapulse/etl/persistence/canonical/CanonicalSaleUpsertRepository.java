@@ -13,16 +13,20 @@ import lombok.RequiredArgsConstructor;
 public class CanonicalSaleUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final CanonicalBulkWriter bulkWriter;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
-    private static final String UPSERT = """
+    private static final String INSERT = """
             INSERT INTO canonical_sale (workspace_id, connection_id, source_platform,
                                         external_sale_id, canonical_order_id, marketplace_offer_id,
                                         posting_id, seller_sku_id, sale_date, sale_amount,
                                         commission, quantity, currency, fulfillment_type,
                                         job_execution_id, created_at, updated_at)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+            """;
+
+    private static final String ON_CONFLICT = """
             ON CONFLICT (workspace_id, source_platform, external_sale_id) DO UPDATE SET
                 connection_id = EXCLUDED.connection_id,
                 canonical_order_id = EXCLUDED.canonical_order_id,
@@ -52,8 +56,31 @@ public class CanonicalSaleUpsertRepository {
                    EXCLUDED.fulfillment_type)
             """;
 
+    private static final String UPSERT = INSERT + ON_CONFLICT;
+
+    private static final CopyMergeSpec<CanonicalSaleEntity> COPY_SPEC = new CopyMergeSpec<>(
+            "canonical_sale",
+            List.of("workspace_id", "source_platform", "external_sale_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("workspace_id", CanonicalSaleEntity::getWorkspaceId),
+                    new CopyMergeSpec.Column<>("connection_id", CanonicalSaleEntity::getConnectionId),
+                    new CopyMergeSpec.Column<>("source_platform", CanonicalSaleEntity::getSourcePlatform),
+                    new CopyMergeSpec.Column<>("external_sale_id", CanonicalSaleEntity::getExternalSaleId),
+                    new CopyMergeSpec.Column<>("canonical_order_id", CanonicalSaleEntity::getCanonicalOrderId),
+                    new CopyMergeSpec.Column<>("marketplace_offer_id", CanonicalSaleEntity::getMarketplaceOfferId),
+                    new CopyMergeSpec.Column<>("posting_id", CanonicalSaleEntity::getPostingId),
+                    new CopyMergeSpec.Column<>("seller_sku_id", CanonicalSaleEntity::getSellerSkuId),
+                    new CopyMergeSpec.Column<>("sale_date", CanonicalSaleEntity::getSaleDate),
+                    new CopyMergeSpec.Column<>("sale_amount", CanonicalSaleEntity::getSaleAmount),
+                    new CopyMergeSpec.Column<>("commission", CanonicalSaleEntity::getCommission),
+                    new CopyMergeSpec.Column<>("quantity", CanonicalSaleEntity::getQuantity),
+                    new CopyMergeSpec.Column<>("currency", CanonicalSaleEntity::getCurrency),
+                    new CopyMergeSpec.Column<>("fulfillment_type", CanonicalSaleEntity::getFulfillmentType),
+                    new CopyMergeSpec.Column<>("job_execution_id", CanonicalSaleEntity::getJobExecutionId)),
+            ON_CONFLICT);
+
     public void batchUpsert(List<CanonicalSaleEntity> entities) {
-        jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
+        bulkWriter.write(COPY_SPEC, entities, () -> jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
                 (ps, e) -> {
                     ps.setLong(1, e.getWorkspaceId());
                     ps.setLong(2, e.getConnectionId());
@@ -70,6 +97,6 @@ public class CanonicalSaleUpsertRepository {
                     ps.setString(13, e.getCurrency());
                     ps.setString(14, e.getFulfillmentType());
                     ps.setLong(15, e.getJobExecutionId());
-                });
+                }));
     }
 }
@@ -13,14 +13,18 @@ import lombok.RequiredArgsConstructor;
 public class CanonicalStockCurrentUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final CanonicalBulkWriter bulkWriter;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
-    private static final String UPSERT = """
+    private static final String INSERT = """
             INSERT INTO canonical_stock_current (marketplace_offer_id, warehouse_id,
                                                  available, reserved,
                                                  job_execution_id, captured_at, updated_at)
             VALUES (?, ?, ?, ?, ?, ?, now())
+            """;
+
+    private static final String ON_CONFLICT = """
             ON CONFLICT (marketplace_offer_id, warehouse_id) DO UPDATE SET
                 available = EXCLUDED.available,
                 reserved = EXCLUDED.reserved,
@@ -31,8 +35,23 @@ public class CanonicalStockCurrentUpsertRepository {
                 IS DISTINCT FROM (EXCLUDED.available, EXCLUDED.reserved)
             """;
 
+    private static final String UPSERT = INSERT + ON_CONFLICT;
+
+    private static final CopyMergeSpec<CanonicalStockCurrentEntity> COPY_SPEC = new CopyMergeSpec<>(
+            "canonical_stock_current",
+            List.of("marketplace_offer_id", "warehouse_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("marketplace_offer_id", CanonicalStockCurrentEntity::getMarketplaceOfferId),
+                    new CopyMergeSpec.Column<>("warehouse_id", CanonicalStockCurrentEntity::getWarehouseId),
+                    new CopyMergeSpec.Column<>("available", CanonicalStockCurrentEntity::getAvailable),
+                    new CopyMergeSpec.Column<>("reserved", CanonicalStockCurrentEntity::getReserved),
+                    new CopyMergeSpec.Column<>("job_execution_id", CanonicalStockCurrentEntity::getJobExecutionId),
+                    new CopyMergeSpec.Column<>("captured_at", CanonicalStockCurrentEntity::getCapturedAt)),
+            ON_CONFLICT,
+            List.of("updated_at"));
+
     public void batchUpsert(List<CanonicalStockCurrentEntity> entities) {
-        jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
+        bulkWriter.write(COPY_SPEC, entities, () -> jdbc.batchUpdate(UPSERT, entities, DEFAULT_BATCH_SIZE,
                 (ps, e) -> {
                     ps.setLong(1, e.getMarketplaceOfferId());
                     ps.setLong(2, e.getWarehouseId());
@@ -40,6 +59,6 @@ public class CanonicalStockCurrentUpsertRepository {
                     ps.setInt(4, e.getReserved());
                     ps.setLong(5, e.getJobExecutionId());
                     ps.setTimestamp(6, Timestamp.from(e.getCapturedAt().toInstant()));
-                });
+                }));
     }
 }
@@ -0,0 +1,174 @@
+package io.datapulse.etl.persistence.canonical;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Open-addressing {@code String → long[width]} hash table with the values inlined into one
+ * primitive array: no {@code Map.Entry}, no boxed {@code Long}, no per-row value objects.
+ * Roughly {@code 8 * (width + 1)} bytes of table overhead per slot on top of the key strings,
+ * versus ~100 bytes per entry for {@code HashMap<String, Long>}.
+ * <p>
+ * Guarded by a read/write lock: lookups from concurrent sub-sources run in parallel, patches
+ * from upsert repositories are exclusive.
+ */
+final class CompactSkuTable {
+
+    static final long ABSENT = Long.MIN_VALUE;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final int width;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private String[] keys;
+    private long[] values;
+    private int size;
+
+    CompactSkuTable(int width, int expectedSize) {
+        this.width = width;
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new String[capacity];
+        this.values = new long[capacity * width];
+    }
+
+    /**
+     * @return value in {@code column}, or {@link #ABSENT}
+     */
+    long get(String key, int column) {
+        if (key == null) {
+            return ABSENT;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(keys, key);
+            return keys[slot] == null ? ABSENT : values[slot * width + column];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return copy of the row for {@code key} read under one lock, {@code null} when absent
+     */
+    long[] getRow(String key) {
+        if (key == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(keys, key);
+            if (keys[slot] == null) {
+                return null;
+            }
+            long[] row = new long[width];
+            System.arraycopy(values, slot * width, row, 0, width);
+            return row;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the first row per key, matching the previous
+     * {@code toMap((existing, replacement) -> existing)} semantics of the full loads.
+     */
+    void putIfAbsent(String key, long... row) {
+        write(key, row, false);
+    }
+
+    /**
+     * Sets the row for {@code key}, replacing an existing one: a patch carries the row as
+     * it is now stored.
+     */
+    void put(String key, long... row) {
+        write(key, row, true);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Order-independent hash of every key and row: equal for equal contents whatever the
+     * insertion order, and changes when a row is added or relinked.
+     */
+    long contentHash() {
+        lock.readLock().lock();
+        try {
+            long hash = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == null) {
+                    continue;
+                }
+                long entry = mix(keys[slot].hashCode());
+                for (int column = 0; column < width; column++) {
+                    entry = mix(entry ^ values[slot * width + column]);
+                }
+                hash += entry;
+            }
+            return hash;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(String key, long[] row, boolean replace) {
+        if (key == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > keys.length * LOAD_FACTOR) {
+                resize();
+            }
+            int slot = find(keys, key);
+            if (keys[slot] != null) {
+                if (replace) {
+                    System.arraycopy(row, 0, values, slot * width, width);
+                }
+                return;
+            }
+            keys[slot] = key;
+            size++;
+            System.arraycopy(row, 0, values, slot * width, width);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new String[oldKeys.length << 1];
+        values = new long[keys.length * width];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                System.arraycopy(oldValues, i * width, values, slot * width, width);
+            }
+        }
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int find(String[] table, String key) {
+        int mask = table.length - 1;
+        int h = key.hashCode();
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (table[slot] != null && !table[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
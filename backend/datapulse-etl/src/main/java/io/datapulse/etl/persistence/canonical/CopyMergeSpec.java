@@ -0,0 +1,71 @@
+package io.datapulse.etl.persistence.canonical;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Describes how {@link CanonicalBulkWriter} stages and merges one canonical table.
+ *
+ * @param table        target canonical table
+ * @param conflictKeys columns of the table's ON CONFLICT target, in the same order
+ * @param columns      inserted columns (without the {@code nowColumns})
+ * @param onConflict   the repository's own {@code ON CONFLICT ... DO UPDATE ... WHERE ...} clause
+ * @param nowColumns   columns inserted as {@code now()}, e.g. {@code created_at, updated_at}
+ */
+public record CopyMergeSpec<E>(
+        String table,
+        List<String> conflictKeys,
+        List<Column<E>> columns,
+        String onConflict,
+        List<String> nowColumns
+) {
+
+    static final String SEQ_COLUMN = "copy_seq";
+
+    /**
+     * Spec of a table stamped with both {@code created_at} and {@code updated_at} on insert.
+     */
+    public CopyMergeSpec(String table, List<String> conflictKeys, List<Column<E>> columns,
+                         String onConflict) {
+        this(table, conflictKeys, columns, onConflict, List.of("created_at", "updated_at"));
+    }
+
+    public String stagingTable() {
+        return "copy_stage_" + table;
+    }
+
+    /**
+     * Session-local staging table with the target's column types but none of its constraints;
+     * {@code copy_seq} keeps input order so the last duplicate of a key wins, as in a JDBC batch.
+     */
+    String createStagingSql() {
+        return "CREATE TEMP TABLE IF NOT EXISTS %s AS SELECT %s, 0::bigint AS %s FROM %s WITH NO DATA"
+                .formatted(stagingTable(), columnList(), SEQ_COLUMN, table);
+    }
+
+    String copySql() {
+        return "COPY %s (%s, %s) FROM STDIN WITH (FORMAT csv)"
+                .formatted(stagingTable(), columnList(), SEQ_COLUMN);
+    }
+
+    String mergeSql() {
+        String keys = String.join(", ", conflictKeys);
+        String nowValues = nowColumns.stream().map(c -> "now()").collect(Collectors.joining(", "));
+        return """
+                INSERT INTO %s (%s, %s)
+                SELECT DISTINCT ON (%s) %s, %s
+                FROM %s
+                ORDER BY %s, %s DESC
+                """.formatted(table, columnList(), String.join(", ", nowColumns), keys, columnList(),
+                        nowValues, stagingTable(), keys, SEQ_COLUMN)
+                + onConflict;
+    }
+
+    private String columnList() {
+        return columns.stream().map(Column::name).collect(Collectors.joining(", "));
+    }
+
+    public record Column<E>(String name, Function<E, Object> value) {
+    }
+}
@@ -13,12 +13,15 @@ import lombok.RequiredArgsConstructor;
  * <p>Used by {@code WbProductDictSource} and {@code OzonProductDictSource}
  * as the third step of the product hierarchy upsert:
  * product_master → seller_sku → marketplace_offer.</p>
+ *
+ * <p>Written rows are patched into {@link SkuResolutionCache} right after the batch.</p>
  */
 @Repository
 @RequiredArgsConstructor
 public class MarketplaceOfferUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final SkuResolutionCache skuCache;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
@@ -65,5 +68,6 @@ public class MarketplaceOfferUpsertRepository {
                     ps.setString(10, e.getImageUrl());
                     ps.setLong(11, e.getJobExecutionId());
                 });
+        skuCache.onOffersWritten(entities);
     }
 }
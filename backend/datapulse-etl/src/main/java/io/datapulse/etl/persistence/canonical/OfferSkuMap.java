@@ -0,0 +1,28 @@
+package io.datapulse.etl.persistence.canonical;
+
+import io.datapulse.etl.persistence.canonical.SkuLookupRepository.OfferSkuIds;
+
+/**
+ * Read view of a cached {@code key → (marketplace_offer.id, seller_sku.id)} mapping
+ * (see {@link SkuResolutionCache}). Live, like {@link SkuIdMap}.
+ */
+public final class OfferSkuMap {
+
+    private final CompactSkuTable table;
+
+    OfferSkuMap(CompactSkuTable table) {
+        this.table = table;
+    }
+
+    /**
+     * @return ids for {@code key}, {@code null} when unknown
+     */
+    public OfferSkuIds get(String key) {
+        long[] row = table.getRow(key);
+        return row == null ? null : new OfferSkuIds(row[0], row[1]);
+    }
+
+    public int size() {
+        return table.size();
+    }
+}
@@ -15,17 +15,21 @@ public class ProductMasterUpsertRepository {
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
+    /**
+     * A catalog without a brand (Ozon product info, whose brand comes from the attributes
+     * sub-source) keeps the brand already stored.
+     */
     private static final String UPSERT = """
             INSERT INTO product_master (workspace_id, external_code, name, brand,
                                         job_execution_id, created_at, updated_at)
             VALUES (?, ?, ?, ?, ?, now(), now())
             ON CONFLICT (workspace_id, external_code) DO UPDATE SET
                 name = EXCLUDED.name,
-                brand = EXCLUDED.brand,
+                brand = COALESCE(EXCLUDED.brand, product_master.brand),
                 job_execution_id = EXCLUDED.job_execution_id,
                 updated_at = now()
             WHERE (product_master.name, product_master.brand)
-                IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.brand)
+                IS DISTINCT FROM (EXCLUDED.name, COALESCE(EXCLUDED.brand, product_master.brand))
             """;
 
     private static final String UPDATE_BRAND = """
@@ -13,12 +13,15 @@ import lombok.RequiredArgsConstructor;
  * <p>Used by {@code WbProductDictSource} and {@code OzonProductDictSource}
  * as the second step of the product hierarchy upsert:
  * product_master → seller_sku → marketplace_offer.</p>
+ *
+ * <p>Written rows are patched into {@link SkuResolutionCache} right after the batch.</p>
  */
 @Repository
 @RequiredArgsConstructor
 public class SellerSkuUpsertRepository {
 
     private final JdbcTemplate jdbc;
+    private final SkuResolutionCache skuCache;
 
     private static final int DEFAULT_BATCH_SIZE = 500;
 
@@ -42,5 +45,6 @@ public class SellerSkuUpsertRepository {
                     ps.setString(3, e.getBarcode());
                     ps.setLong(4, e.getJobExecutionId());
                 });
+        skuCache.onSellerSkusWritten(entities);
     }
 }
@@ -0,0 +1,34 @@
+package io.datapulse.etl.persistence.canonical;
+
+/**
+ * Read view of a cached {@code key → id} mapping (see {@link SkuResolutionCache}). Live: rows
+ * written by the upsert repositories after the view was obtained are visible through it.
+ */
+public final class SkuIdMap {
+
+    private final CompactSkuTable table;
+
+    SkuIdMap(CompactSkuTable table) {
+        this.table = table;
+    }
+
+    /**
+     * @return id for {@code key}, {@code null} when unknown
+     */
+    public Long get(String key) {
+        long id = table.get(key, 0);
+        return id == CompactSkuTable.ABSENT ? null : id;
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Version of the current contents, for {@link io.datapulse.etl.domain.PageDedupScope}: changes
+     * whenever a key is added or its id changes, unlike {@link #size()}.
+     */
+    public String contentVersion() {
+        return Long.toHexString(table.contentHash());
+    }
+}
@@ -1,10 +1,11 @@
 package io.datapulse.etl.persistence.canonical;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import lombok.RequiredArgsConstructor;
@@ -12,12 +13,16 @@ import lombok.RequiredArgsConstructor;
 /**
  * Read-only lookups for resolving provider SKU identifiers to {@code seller_sku.id}.
  * Used by canonical finance normalizer to populate {@code canonical_finance_entry.seller_sku_id}.
+ * <p>
+ * Whole-mapping loads stream straight into {@link CompactSkuTable}s owned by
+ * {@link SkuResolutionCache}; sources go through the cache, never through these loaders.
  */
 @Repository
 @RequiredArgsConstructor
 public class SkuLookupRepository {
 
     private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
 
     private static final String FIND_BY_MARKETPLACE_SKU = """
             SELECT mo.seller_sku_id
@@ -58,6 +63,22 @@ public class SkuLookupRepository {
               AND mo.seller_sku_id IS NOT NULL
             """;
 
+    private static final String FIND_WRITTEN_OFFERS = """
+            SELECT mo.marketplace_sku, mo.id, mo.seller_sku_id, ss.sku_code,
+                   mo.marketplace_connection_id, mc.workspace_id
+            FROM marketplace_offer mo
+            JOIN seller_sku ss ON mo.seller_sku_id = ss.id
+            JOIN marketplace_connection mc ON mo.marketplace_connection_id = mc.id
+            WHERE (mo.seller_sku_id, mo.marketplace_type, mo.marketplace_sku) IN (:keys)
+            """;
+
+    private static final String FIND_WRITTEN_SELLER_SKUS = """
+            SELECT ss.sku_code, ss.id, pm.workspace_id
+            FROM seller_sku ss
+            JOIN product_master pm ON ss.product_master_id = pm.id
+            WHERE (ss.product_master_id, ss.sku_code) IN (:keys)
+            """;
+
     private static final String FIND_ALL_OFFER_BY_SKU_CODE = """
             SELECT ss.sku_code, mo.id AS offer_id, ss.id AS seller_sku_id
             FROM marketplace_offer mo
@@ -67,68 +88,96 @@ public class SkuLookupRepository {
               AND mo.seller_sku_id IS NOT NULL
             """;
 
+    public record OfferSkuIds(long offerId, long sellerSkuId) {}
+
     /**
-     * Batch lookup: returns all seller_sku records for a workspace.
-     *
-     * @return Map of sku_code → seller_sku.id
+     * A marketplace_offer row as stored after an upsert, with every key the
+     * {@link SkuResolutionCache} indexes it by.
      */
-    public Map<String, Long> findAllByWorkspace(long workspaceId) {
-        return jdbc.query(FIND_ALL_BY_WORKSPACE,
-                        (rs, rowNum) -> Map.entry(
-                                rs.getString("sku_code"),
-                                rs.getLong("id")),
-                        workspaceId)
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    record WrittenOffer(String marketplaceSku, long offerId, long sellerSkuId, String skuCode,
+                        long connectionId, long workspaceId) {}
+
+    record WrittenSellerSku(String skuCode, long sellerSkuId, long workspaceId) {}
+
+    /**
+     * sku_code → seller_sku.id for a workspace, streamed into {@code target}.
+     */
+    void loadSellerSkuIds(long workspaceId, CompactSkuTable target) {
+        jdbc.query(FIND_ALL_BY_WORKSPACE,
+                rs -> {
+                    target.putIfAbsent(rs.getString("sku_code"), rs.getLong("id"));
+                },
+                workspaceId);
     }
 
     /**
-     * Batch lookup: returns marketplace_sku → marketplace_offer.id for a connection.
+     * marketplace_sku → marketplace_offer.id for a connection.
      * Used by stock/price sources to resolve marketplace_offer_id before upsert.
      */
-    public Map<String, Long> findAllOfferIdsByConnection(long connectionId) {
-        return jdbc.query(FIND_ALL_OFFER_IDS_BY_CONNECTION,
-                        (rs, rowNum) -> Map.entry(
-                                rs.getString("marketplace_sku"),
-                                rs.getLong("id")),
-                        connectionId)
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-                        (existing, replacement) -> existing));
+    void loadOfferIdsByConnection(long connectionId, CompactSkuTable target) {
+        jdbc.query(FIND_ALL_OFFER_IDS_BY_CONNECTION,
+                rs -> {
+                    target.putIfAbsent(rs.getString("marketplace_sku"), rs.getLong("id"));
+                },
+                connectionId);
     }
 
-    public record OfferSkuIds(long offerId, long sellerSkuId) {}
-
     /**
-     * Batch lookup: marketplace_sku → (marketplace_offer.id, seller_sku_id) for a workspace.
+     * marketplace_sku → (marketplace_offer.id, seller_sku_id) for a workspace.
      * Workspace-scoped (not connection-scoped) so that product resolution survives
      * connection re-creation and works across multiple connections.
      */
-    public Map<String, OfferSkuIds> findAllOfferWithSkuByWorkspace(long workspaceId) {
-        return jdbc.query(FIND_ALL_OFFER_WITH_SKU_BY_WORKSPACE,
-                        (rs, rowNum) -> Map.entry(
-                                rs.getString("marketplace_sku"),
-                                new OfferSkuIds(rs.getLong("id"), rs.getLong("seller_sku_id"))),
-                        workspaceId)
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-                        (existing, replacement) -> existing));
+    void loadOffersByMarketplaceSku(long workspaceId, CompactSkuTable target) {
+        jdbc.query(FIND_ALL_OFFER_WITH_SKU_BY_WORKSPACE,
+                rs -> {
+                    target.putIfAbsent(rs.getString("marketplace_sku"),
+                            rs.getLong("id"), rs.getLong("seller_sku_id"));
+                },
+                workspaceId);
     }
 
     /**
-     * Batch lookup: sku_code → (marketplace_offer.id, seller_sku.id) for a workspace.
+     * sku_code → (marketplace_offer.id, seller_sku.id) for a workspace.
      * Used by Ozon/Yandex return sources where the return API provides seller SKU
      * (offer_id / shopSku) rather than marketplace SKU.
      */
-    public Map<String, OfferSkuIds> findAllOfferBySellerSkuCode(long workspaceId) {
-        return jdbc.query(FIND_ALL_OFFER_BY_SKU_CODE,
-                        (rs, rowNum) -> Map.entry(
-                                rs.getString("sku_code"),
-                                new OfferSkuIds(rs.getLong("offer_id"), rs.getLong("seller_sku_id"))),
-                        workspaceId)
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-                        (existing, replacement) -> existing));
+    void loadOffersBySellerSkuCode(long workspaceId, CompactSkuTable target) {
+        jdbc.query(FIND_ALL_OFFER_BY_SKU_CODE,
+                rs -> {
+                    target.putIfAbsent(rs.getString("sku_code"),
+                            rs.getLong("offer_id"), rs.getLong("seller_sku_id"));
+                },
+                workspaceId);
+    }
+
+    /**
+     * Reads back just-upserted offers by their conflict key (unique index), so the cache can be
+     * patched without reloading whole mappings.
+     */
+    List<WrittenOffer> findWrittenOffers(List<MarketplaceOfferEntity> written) {
+        List<Object[]> keys = written.stream()
+                .map(e -> new Object[] {
+                        e.getSellerSkuId(), e.getMarketplaceType(), e.getMarketplaceSku()})
+                .toList();
+        return namedJdbc.query(FIND_WRITTEN_OFFERS, Map.of("keys", keys),
+                (rs, rowNum) -> new WrittenOffer(
+                        rs.getString("marketplace_sku"),
+                        rs.getLong("id"),
+                        rs.getLong("seller_sku_id"),
+                        rs.getString("sku_code"),
+                        rs.getLong("marketplace_connection_id"),
+                        rs.getLong("workspace_id")));
+    }
+
+    List<WrittenSellerSku> findWrittenSellerSkus(List<SellerSkuEntity> written) {
+        List<Object[]> keys = written.stream()
+                .map(e -> new Object[] {e.getProductMasterId(), e.getSkuCode()})
+                .toList();
+        return namedJdbc.query(FIND_WRITTEN_SELLER_SKUS, Map.of("keys", keys),
+                (rs, rowNum) -> new WrittenSellerSku(
+                        rs.getString("sku_code"),
+                        rs.getLong("id"),
+                        rs.getLong("workspace_id")));
     }
 
     /**
@@ -0,0 +1,298 @@
+package io.datapulse.etl.persistence.canonical;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.datapulse.etl.config.SkuCacheProperties;
+import io.datapulse.etl.persistence.canonical.SkuLookupRepository.WrittenOffer;
+import io.datapulse.etl.persistence.canonical.SkuLookupRepository.WrittenSellerSku;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-wide cache of the workspace/connection SKU resolution mappings that every source used
+ * to reload per event execution (400k-offer workspaces: a multi-second query and tens of MB of
+ * boxed {@code HashMap} garbage per source per sync).
+ * <ul>
+ *   <li>Storage: {@link CompactSkuTable}, primitive values, filled straight from the
+ *       {@code ResultSet}.</li>
+ *   <li>Freshness: {@link SellerSkuUpsertRepository} and {@link MarketplaceOfferUpsertRepository}
+ *       report every written batch; the written rows are read back by their unique key and
+ *       patched into the cached mappings, so a product-dict batch sees the ids it just created.
+ *       Writes from other instances are picked up by the {@code max-age} reload.</li>
+ *   <li>Bound: total keys across mappings ({@code max-entries}), LRU eviction per mapping.</li>
+ * </ul>
+ * Metrics: {@code etl.sku_cache.requests} (result=hit|miss), {@code etl.sku_cache.load.duration},
+ * {@code etl.sku_cache.patched_rows}, {@code etl.sku_cache.evictions}, gauges
+ * {@code etl.sku_cache.entries} and {@code etl.sku_cache.mappings}.
+ */
+@Slf4j
+@Component
+public class SkuResolutionCache {
+
+    private static final int PATCH_CHUNK = 500;
+    private static final int LOAD_LOCK_STRIPES = 64;
+
+    enum View {
+        SELLER_SKU_BY_WORKSPACE(1),
+        OFFER_ID_BY_CONNECTION(1),
+        OFFER_BY_MARKETPLACE_SKU(2),
+        OFFER_BY_SELLER_SKU_CODE(2);
+
+        private final int width;
+
+        View(int width) {
+            this.width = width;
+        }
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private record Key(View view, long scopeId) {}
+
+    @FunctionalInterface
+    private interface Loader {
+
+        void load(long scopeId, CompactSkuTable target);
+    }
+
+    private static final class Entry {
+
+        private final CompactSkuTable table;
+        private final long loadedAtNanos;
+        private int accountedSize;
+
+        private Entry(CompactSkuTable table, long loadedAtNanos) {
+            this.table = table;
+            this.loadedAtNanos = loadedAtNanos;
+            this.accountedSize = table.size();
+        }
+    }
+
+    private final SkuLookupRepository repository;
+    private final SkuCacheProperties properties;
+    private final MetricsFacade metrics;
+
+    /** Access-ordered for LRU eviction; guarded by itself. */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    /** Striped by key: one load per mapping at a time, without a lock object per key ever seen. */
+    private final Object[] loadLocks = new Object[LOAD_LOCK_STRIPES];
+    private long totalEntries;
+
+    public SkuResolutionCache(SkuLookupRepository repository, SkuCacheProperties properties,
+                              MetricsFacade metrics) {
+        this.repository = repository;
+        this.properties = properties;
+        this.metrics = metrics;
+        for (int i = 0; i < loadLocks.length; i++) {
+            loadLocks[i] = new Object();
+        }
+        metrics.gauge("etl.sku_cache.entries", this::totalEntries);
+        metrics.gauge("etl.sku_cache.mappings", this::mappingCount);
+    }
+
+    /**
+     * sku_code → seller_sku.id for a workspace.
+     */
+    public SkuIdMap sellerSkuIdsByWorkspace(long workspaceId) {
+        return new SkuIdMap(table(View.SELLER_SKU_BY_WORKSPACE, workspaceId,
+                repository::loadSellerSkuIds));
+    }
+
+    /**
+     * marketplace_sku → marketplace_offer.id for a connection.
+     */
+    public SkuIdMap offerIdsByConnection(long connectionId) {
+        return new SkuIdMap(table(View.OFFER_ID_BY_CONNECTION, connectionId,
+                repository::loadOfferIdsByConnection));
+    }
+
+    /**
+     * marketplace_sku → (marketplace_offer.id, seller_sku_id) for a workspace.
+     */
+    public OfferSkuMap offersByMarketplaceSku(long workspaceId) {
+        return new OfferSkuMap(table(View.OFFER_BY_MARKETPLACE_SKU, workspaceId,
+                repository::loadOffersByMarketplaceSku));
+    }
+
+    /**
+     * sku_code → (marketplace_offer.id, seller_sku.id) for a workspace.
+     */
+    public OfferSkuMap offersBySellerSkuCode(long workspaceId) {
+        return new OfferSkuMap(table(View.OFFER_BY_SELLER_SKU_CODE, workspaceId,
+                repository::loadOffersBySellerSkuCode));
+    }
+
+    /**
+     * Patches freshly upserted seller_sku rows into cached workspace mappings.
+     */
+    public void onSellerSkusWritten(List<SellerSkuEntity> written) {
+        if (written.isEmpty() || !isCaching(View.SELLER_SKU_BY_WORKSPACE)) {
+            return;
+        }
+        int rows = 0;
+        for (int from = 0; from < written.size(); from += PATCH_CHUNK) {
+            List<SellerSkuEntity> chunk =
+                    written.subList(from, Math.min(written.size(), from + PATCH_CHUNK));
+            for (WrittenSellerSku row : repository.findWrittenSellerSkus(chunk)) {
+                patch(new Key(View.SELLER_SKU_BY_WORKSPACE, row.workspaceId()),
+                        row.skuCode(), row.sellerSkuId());
+                rows++;
+            }
+        }
+        metrics.incrementCounter("etl.sku_cache.patched_rows", rows, "table", "seller_sku");
+    }
+
+    /**
+     * Patches freshly upserted marketplace_offer rows into every cached offer mapping.
+     */
+    public void onOffersWritten(List<MarketplaceOfferEntity> written) {
+        if (written.isEmpty() || !isCaching(View.OFFER_ID_BY_CONNECTION,
+                View.OFFER_BY_MARKETPLACE_SKU, View.OFFER_BY_SELLER_SKU_CODE)) {
+            return;
+        }
+        int rows = 0;
+        for (int from = 0; from < written.size(); from += PATCH_CHUNK) {
+            List<MarketplaceOfferEntity> chunk =
+                    written.subList(from, Math.min(written.size(), from + PATCH_CHUNK));
+            for (WrittenOffer row : repository.findWrittenOffers(chunk)) {
+                patch(new Key(View.OFFER_ID_BY_CONNECTION, row.connectionId()),
+                        row.marketplaceSku(), row.offerId());
+                patch(new Key(View.OFFER_BY_MARKETPLACE_SKU, row.workspaceId()),
+                        row.marketplaceSku(), row.offerId(), row.sellerSkuId());
+                patch(new Key(View.OFFER_BY_SELLER_SKU_CODE, row.workspaceId()),
+                        row.skuCode(), row.offerId(), row.sellerSkuId());
+                rows++;
+            }
+        }
+        metrics.incrementCounter("etl.sku_cache.patched_rows", rows, "table", "marketplace_offer");
+    }
+
+    private CompactSkuTable table(View view, long scopeId, Loader loader) {
+        if (!properties.enabled()) {
+            return load(view, scopeId, loader);
+        }
+        Key key = new Key(view, scopeId);
+        Entry entry = lookup(key);
+        if (entry == null) {
+            synchronized (loadLocks[Math.floorMod(key.hashCode(), loadLocks.length)]) {
+                entry = lookup(key);
+                if (entry == null) {
+                    metrics.incrementCounter("etl.sku_cache.requests",
+                            "view", view.tag(), "result", "miss");
+                    CompactSkuTable table = load(view, scopeId, loader);
+                    admit(key, new Entry(table, System.nanoTime()));
+                    return table;
+                }
+            }
+        }
+        metrics.incrementCounter("etl.sku_cache.requests", "view", view.tag(), "result", "hit");
+        return entry.table;
+    }
+
+    private CompactSkuTable load(View view, long scopeId, Loader loader) {
+        var table = new CompactSkuTable(view.width, 1024);
+        Timer.Sample sample = metrics.startTimer();
+        loader.load(scopeId, table);
+        metrics.stopTimer(sample, "etl.sku_cache.load.duration", "view", view.tag());
+        log.debug("SKU mapping loaded: view={}, scopeId={}, size={}", view, scopeId, table.size());
+        return table;
+    }
+
+    private Entry lookup(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null
+                    && System.nanoTime() - entry.loadedAtNanos > properties.maxAge().toNanos()) {
+                entries.remove(key);
+                totalEntries -= entry.accountedSize;
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void admit(Key key, Entry entry) {
+        if (entry.accountedSize > properties.maxEntries()) {
+            log.warn("SKU mapping larger than cache bound, not cached: view={}, scopeId={}, size={}",
+                    key.view(), key.scopeId(), entry.accountedSize);
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalEntries -= previous.accountedSize;
+            }
+            totalEntries += entry.accountedSize;
+            evictOverBound(key);
+        }
+    }
+
+    private void patch(Key key, String mapKey, long... row) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return;
+        }
+        entry.table.put(mapKey, row);
+        synchronized (entries) {
+            if (entries.get(key) == entry) {
+                int size = entry.table.size();
+                totalEntries += size - entry.accountedSize;
+                entry.accountedSize = size;
+                evictOverBound(key);
+            }
+        }
+    }
+
+    /** Caller holds the {@code entries} lock. */
+    private void evictOverBound(Key keep) {
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (totalEntries > properties.maxEntries() && eldest.hasNext()) {
+            Map.Entry<Key, Entry> candidate = eldest.next();
+            if (candidate.getKey().equals(keep)) {
+                continue;
+            }
+            eldest.remove();
+            totalEntries -= candidate.getValue().accountedSize;
+            metrics.incrementCounter("etl.sku_cache.evictions",
+                    "view", candidate.getKey().view().tag());
+        }
+    }
+
+    private boolean isCaching(View... views) {
+        if (!properties.enabled()) {
+            return false;
+        }
+        synchronized (entries) {
+            for (Key key : entries.keySet()) {
+                for (View view : views) {
+                    if (key.view() == view) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private long totalEntries() {
+        synchronized (entries) {
+            return totalEntries;
+        }
+    }
+
+    private int mappingCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.datapulse.etl.scheduling;
 import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Comparator;
 import java.util.List;
 
 import io.datapulse.integration.persistence.MarketplaceSyncStateEntity;
@@ -17,6 +18,8 @@ import org.springframework.stereotype.Component;
  * Scheduled sync dispatcher. Runs every minute (configurable), scans
  * {@code marketplace_sync_state} for connections due for sync, delegates
  * dispatch to {@link SyncDispatcher} (separate bean for correct {@code @Transactional} proxy).
+ * Most overdue connections are dispatched first; fairness between running jobs is enforced
+ * later by {@link io.datapulse.etl.domain.FairShareEventScheduler}.
  *
  * <p>Distributed lock via ShedLock prevents duplicate execution
  * across multiple API instances.</p>
@@ -46,6 +49,8 @@ public class SyncScheduler {
     log.info("Found {} eligible sync states", eligible.size());
 
     eligible.stream()
+        .sorted(Comparator.comparing(MarketplaceSyncStateEntity::getNextScheduledAt,
+            Comparator.nullsFirst(Comparator.naturalOrder())))
         .map(MarketplaceSyncStateEntity::getMarketplaceConnectionId)
         .distinct()
         .forEach(syncDispatcher::dispatchIfNotActive);
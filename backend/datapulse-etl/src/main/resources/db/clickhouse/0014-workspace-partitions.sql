@@ -0,0 +1,155 @@
+-- Partition the re-materialized tables by workspace_id (plus the existing period, if any)
+-- so that one workspace can be rebuilt into staging and swapped in with REPLACE PARTITION
+-- (MaterializationJdbc.workspaceMaterializeWithReplace) without touching other tenants.
+-- ORDER BY keys are unchanged. Data is copied, no re-materialization is needed.
+-- fact_advertising is written by ETL directly and keeps its partitioning.
+
+-- === dim tables ===
+
+DROP TABLE IF EXISTS dim_product_repartitioned;
+CREATE TABLE dim_product_repartitioned AS dim_product
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, product_id);
+INSERT INTO dim_product_repartitioned SELECT * FROM dim_product;
+EXCHANGE TABLES dim_product AND dim_product_repartitioned;
+DROP TABLE dim_product_repartitioned;
+
+DROP TABLE IF EXISTS dim_warehouse_repartitioned;
+CREATE TABLE dim_warehouse_repartitioned AS dim_warehouse
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, marketplace_type, warehouse_id);
+INSERT INTO dim_warehouse_repartitioned SELECT * FROM dim_warehouse;
+EXCHANGE TABLES dim_warehouse AND dim_warehouse_repartitioned;
+DROP TABLE dim_warehouse_repartitioned;
+
+DROP TABLE IF EXISTS dim_category_repartitioned;
+CREATE TABLE dim_category_repartitioned AS dim_category
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, marketplace_type, category_id);
+INSERT INTO dim_category_repartitioned SELECT * FROM dim_category;
+EXCHANGE TABLES dim_category AND dim_category_repartitioned;
+DROP TABLE dim_category_repartitioned;
+
+DROP TABLE IF EXISTS dim_advertising_campaign_repartitioned;
+CREATE TABLE dim_advertising_campaign_repartitioned AS dim_advertising_campaign
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, campaign_id);
+INSERT INTO dim_advertising_campaign_repartitioned SELECT * FROM dim_advertising_campaign;
+EXCHANGE TABLES dim_advertising_campaign AND dim_advertising_campaign_repartitioned;
+DROP TABLE dim_advertising_campaign_repartitioned;
+
+-- === fact tables ===
+
+DROP TABLE IF EXISTS fact_finance_repartitioned;
+CREATE TABLE fact_finance_repartitioned AS fact_finance
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(finance_date))
+ORDER BY (workspace_id, source_platform, entry_id);
+INSERT INTO fact_finance_repartitioned SELECT * FROM fact_finance;
+EXCHANGE TABLES fact_finance AND fact_finance_repartitioned;
+DROP TABLE fact_finance_repartitioned;
+
+DROP TABLE IF EXISTS fact_sales_repartitioned;
+CREATE TABLE fact_sales_repartitioned AS fact_sales
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(sale_date))
+ORDER BY (workspace_id, source_platform, sale_id);
+INSERT INTO fact_sales_repartitioned SELECT * FROM fact_sales;
+EXCHANGE TABLES fact_sales AND fact_sales_repartitioned;
+DROP TABLE fact_sales_repartitioned;
+
+DROP TABLE IF EXISTS fact_orders_repartitioned;
+CREATE TABLE fact_orders_repartitioned AS fact_orders
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(order_date))
+ORDER BY (workspace_id, source_platform, order_id_pk);
+INSERT INTO fact_orders_repartitioned SELECT * FROM fact_orders;
+EXCHANGE TABLES fact_orders AND fact_orders_repartitioned;
+DROP TABLE fact_orders_repartitioned;
+
+DROP TABLE IF EXISTS fact_returns_repartitioned;
+CREATE TABLE fact_returns_repartitioned AS fact_returns
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(return_date))
+ORDER BY (workspace_id, source_platform, return_id);
+INSERT INTO fact_returns_repartitioned SELECT * FROM fact_returns;
+EXCHANGE TABLES fact_returns AND fact_returns_repartitioned;
+DROP TABLE fact_returns_repartitioned;
+
+DROP TABLE IF EXISTS fact_price_snapshot_repartitioned;
+CREATE TABLE fact_price_snapshot_repartitioned AS fact_price_snapshot
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(captured_date))
+ORDER BY (workspace_id, product_id, captured_at);
+INSERT INTO fact_price_snapshot_repartitioned SELECT * FROM fact_price_snapshot;
+EXCHANGE TABLES fact_price_snapshot AND fact_price_snapshot_repartitioned;
+DROP TABLE fact_price_snapshot_repartitioned;
+
+DROP TABLE IF EXISTS fact_inventory_snapshot_repartitioned;
+CREATE TABLE fact_inventory_snapshot_repartitioned AS fact_inventory_snapshot
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(captured_date))
+ORDER BY (workspace_id, product_id, warehouse_id, captured_at);
+INSERT INTO fact_inventory_snapshot_repartitioned SELECT * FROM fact_inventory_snapshot;
+EXCHANGE TABLES fact_inventory_snapshot AND fact_inventory_snapshot_repartitioned;
+DROP TABLE fact_inventory_snapshot_repartitioned;
+
+DROP TABLE IF EXISTS fact_product_cost_repartitioned;
+CREATE TABLE fact_product_cost_repartitioned AS fact_product_cost
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, seller_sku_id, valid_from);
+INSERT INTO fact_product_cost_repartitioned SELECT * FROM fact_product_cost;
+EXCHANGE TABLES fact_product_cost AND fact_product_cost_repartitioned;
+DROP TABLE fact_product_cost_repartitioned;
+
+-- === mart tables ===
+
+DROP TABLE IF EXISTS mart_posting_pnl_repartitioned;
+CREATE TABLE mart_posting_pnl_repartitioned AS mart_posting_pnl
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(finance_date))
+ORDER BY (workspace_id, source_platform, posting_id);
+INSERT INTO mart_posting_pnl_repartitioned SELECT * FROM mart_posting_pnl;
+EXCHANGE TABLES mart_posting_pnl AND mart_posting_pnl_repartitioned;
+DROP TABLE mart_posting_pnl_repartitioned;
+
+DROP TABLE IF EXISTS mart_product_pnl_repartitioned;
+CREATE TABLE mart_product_pnl_repartitioned AS mart_product_pnl
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, period)
+ORDER BY (workspace_id, source_platform, seller_sku_id, period, attribution_level);
+INSERT INTO mart_product_pnl_repartitioned SELECT * FROM mart_product_pnl;
+EXCHANGE TABLES mart_product_pnl AND mart_product_pnl_repartitioned;
+DROP TABLE mart_product_pnl_repartitioned;
+
+DROP TABLE IF EXISTS mart_inventory_analysis_repartitioned;
+CREATE TABLE mart_inventory_analysis_repartitioned AS mart_inventory_analysis
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYYYYMM(analysis_date))
+ORDER BY (workspace_id, product_id, warehouse_id, analysis_date);
+INSERT INTO mart_inventory_analysis_repartitioned SELECT * FROM mart_inventory_analysis;
+EXCHANGE TABLES mart_inventory_analysis AND mart_inventory_analysis_repartitioned;
+DROP TABLE mart_inventory_analysis_repartitioned;
+
+DROP TABLE IF EXISTS mart_returns_analysis_repartitioned;
+CREATE TABLE mart_returns_analysis_repartitioned AS mart_returns_analysis
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, period)
+ORDER BY (workspace_id, source_platform, seller_sku_id, period);
+INSERT INTO mart_returns_analysis_repartitioned SELECT * FROM mart_returns_analysis;
+EXCHANGE TABLES mart_returns_analysis AND mart_returns_analysis_repartitioned;
+DROP TABLE mart_returns_analysis_repartitioned;
+
+DROP TABLE IF EXISTS mart_advertising_product_repartitioned;
+CREATE TABLE mart_advertising_product_repartitioned AS mart_advertising_product
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, toYear(toDate(toString(period) || '01', 'yyyyMMdd')))
+ORDER BY (workspace_id, source_platform, marketplace_sku, period);
+INSERT INTO mart_advertising_product_repartitioned SELECT * FROM mart_advertising_product;
+EXCHANGE TABLES mart_advertising_product AND mart_advertising_product_repartitioned;
+DROP TABLE mart_advertising_product_repartitioned;
@@ -0,0 +1,28 @@
+-- Partition the P&L marts by the scope of an incremental slice, (workspace_id, source_platform),
+-- as mart_pnl_trend. An incremental run recomputes the affected (workspace, platform, month)
+-- slices into staging, copies the scope's other months over from the live table and swaps the
+-- scope in with REPLACE PARTITION (MaterializationJdbc.replacePartitions). Every partition then
+-- holds exactly one version of each row and the marts are read without FINAL. Jobs of different
+-- platforms of the same workspace write disjoint partitions.
+-- No month in the key: one partition per tenant and platform keeps the part count flat as
+-- history grows, and an all-tenant insert stays within a few partitions per tenant.
+-- Data is copied through FINAL, which drops the duplicates left by the previous
+-- insert + lightweight delete path. No re-materialization is needed.
+
+DROP TABLE IF EXISTS mart_posting_pnl_repartitioned;
+CREATE TABLE mart_posting_pnl_repartitioned AS mart_posting_pnl
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, source_platform)
+ORDER BY (workspace_id, source_platform, posting_id);
+INSERT INTO mart_posting_pnl_repartitioned SELECT * FROM mart_posting_pnl FINAL;
+EXCHANGE TABLES mart_posting_pnl AND mart_posting_pnl_repartitioned;
+DROP TABLE mart_posting_pnl_repartitioned;
+
+DROP TABLE IF EXISTS mart_product_pnl_repartitioned;
+CREATE TABLE mart_product_pnl_repartitioned AS mart_product_pnl
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, source_platform)
+ORDER BY (workspace_id, source_platform, seller_sku_id, period, attribution_level);
+INSERT INTO mart_product_pnl_repartitioned SELECT * FROM mart_product_pnl FINAL;
+EXCHANGE TABLES mart_product_pnl AND mart_product_pnl_repartitioned;
+DROP TABLE mart_product_pnl_repartitioned;
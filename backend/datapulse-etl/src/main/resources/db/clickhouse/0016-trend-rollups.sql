@@ -0,0 +1,108 @@
+-- Trend rollups at DAY / WEEK / MONTH grain, read by the P&L and returns trend endpoints
+-- instead of the row-level marts and facts (TrendRollupPlanner picks the coarsest grain that
+-- can answer a request). Maintained by MartPnlTrendMaterializer and
+-- MartReturnsTrendMaterializer; filled here once so trends do not go empty until the next full
+-- re-materialization. bucket is the first day of the bucket; weeks start on Sunday
+-- (toStartOfWeek mode 0).
+
+-- mart_pnl_trend: DAY and WEEK from mart_posting_pnl, MONTH from mart_product_pnl
+-- (the monthly trend includes advertising, the daily and weekly ones do not).
+-- costs_amount is the signed sum of the eight marketplace cost columns.
+CREATE TABLE IF NOT EXISTS mart_pnl_trend (
+    workspace_id        UInt32,
+    source_platform     LowCardinality(String),
+    grain               LowCardinality(String),
+    bucket              Date,
+    revenue_amount      Decimal(38, 2),
+    costs_amount        Decimal(38, 2),
+    net_cogs            Nullable(Decimal(38, 2)),
+    advertising_cost    Nullable(Decimal(38, 2)),
+    full_pnl            Nullable(Decimal(38, 2)),
+    ver                 UInt64
+) ENGINE = ReplacingMergeTree(ver)
+PARTITION BY (workspace_id, source_platform)
+ORDER BY (workspace_id, grain, source_platform, bucket);
+
+-- mart_returns_trend: DAY / WEEK / MONTH from fact_returns + fact_sales
+CREATE TABLE IF NOT EXISTS mart_returns_trend (
+    workspace_id        UInt32,
+    source_platform     LowCardinality(String),
+    grain               LowCardinality(String),
+    bucket              Date,
+    return_quantity     Int64,
+    sale_quantity       Int64,
+    ver                 UInt64
+) ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, grain, source_platform, bucket);
+
+-- === initial fill ===
+
+INSERT INTO mart_pnl_trend
+SELECT
+    workspace_id,
+    source_platform,
+    grain,
+    bucket,
+    sum(revenue_amount) AS revenue_amount,
+    sum(marketplace_commission_amount) + sum(acquiring_commission_amount)
+        + sum(logistics_cost_amount) + sum(storage_cost_amount)
+        + sum(penalties_amount) + sum(marketing_cost_amount)
+        + sum(acceptance_cost_amount) + sum(other_marketplace_charges_amount) AS costs_amount,
+    sum(net_cogs) AS net_cogs,
+    toDecimal64(0, 2) AS advertising_cost,
+    sum(revenue_amount)
+        + sum(marketplace_commission_amount) + sum(acquiring_commission_amount)
+        + sum(logistics_cost_amount) + sum(storage_cost_amount)
+        + sum(penalties_amount) + sum(marketing_cost_amount)
+        + sum(acceptance_cost_amount) + sum(other_marketplace_charges_amount)
+        + sum(compensation_amount) + sum(refund_amount)
+        - coalesce(sum(net_cogs), toDecimal64(0, 2)) AS full_pnl,
+    toUInt64(toUnixTimestamp64Milli(now64())) AS ver
+FROM mart_posting_pnl
+ARRAY JOIN
+    ['DAY', 'WEEK'] AS grain,
+    [finance_date, toStartOfWeek(finance_date)] AS bucket
+GROUP BY workspace_id, source_platform, grain, bucket;
+
+INSERT INTO mart_pnl_trend
+SELECT
+    workspace_id,
+    source_platform,
+    'MONTH' AS grain,
+    makeDate(intDiv(period, 100), modulo(period, 100), 1) AS bucket,
+    sum(revenue_amount) AS revenue_amount,
+    sum(marketplace_commission_amount) + sum(acquiring_commission_amount)
+        + sum(logistics_cost_amount) + sum(storage_cost_amount)
+        + sum(penalties_amount) + sum(marketing_cost_amount)
+        + sum(acceptance_cost_amount) + sum(other_marketplace_charges_amount) AS costs_amount,
+    sum(net_cogs) AS net_cogs,
+    sum(advertising_cost) AS advertising_cost,
+    sum(full_pnl) AS full_pnl,
+    toUInt64(toUnixTimestamp64Milli(now64())) AS ver
+FROM mart_product_pnl
+GROUP BY workspace_id, source_platform, period;
+
+INSERT INTO mart_returns_trend
+SELECT
+    workspace_id,
+    source_platform,
+    grain,
+    bucket,
+    sum(return_quantity) AS return_quantity,
+    sum(sale_quantity) AS sale_quantity,
+    toUInt64(toUnixTimestamp64Milli(now64())) AS ver
+FROM (
+    SELECT workspace_id, source_platform, return_date AS day,
+           toInt64(quantity) AS return_quantity, toInt64(0) AS sale_quantity
+    FROM fact_returns
+    UNION ALL
+    SELECT workspace_id, source_platform, sale_date AS day,
+           toInt64(0) AS return_quantity, toInt64(quantity) AS sale_quantity
+    FROM fact_sales
+)
+ARRAY JOIN
+    ['DAY', 'WEEK', 'MONTH'] AS grain,
+    [day, toStartOfWeek(day), toStartOfMonth(day)] AS bucket
+GROUP BY workspace_id, source_platform, grain, bucket
+SETTINGS final = 1;
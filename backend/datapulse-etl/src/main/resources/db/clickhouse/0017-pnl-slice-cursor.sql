@@ -0,0 +1,5 @@
+-- Slice cursor of the incremental P&L marts (PnlSliceResolver): fact rows with ver past it,
+-- minus change-feed-overlap, are the changes the marts have not seen yet. Seeded at migration
+-- time, since everything before it was applied by the job-scoped resolution it replaces.
+INSERT INTO materialization_watermark (table_name, last_materialized_at, ver)
+VALUES ('pnl_slices', now64(3), toUInt64(toUnixTimestamp64Milli(now64(3))));
@@ -0,0 +1,101 @@
+-- Partition facts and the non-slice marts by workspace_id alone. The (workspace_id, month)
+-- key of 0014 multiplied the partition count by the months of history: every all-tenant
+-- insert (full re-materialization, this copy) spanned more partitions than
+-- max_partitions_per_insert_block allows and left many small parts per insert. One partition
+-- per tenant is what workspace re-materialization (REPLACE PARTITION) needs, and a row whose
+-- date changes no longer moves to another partition, so ReplacingMergeTree dedups it.
+-- The P&L slice marts (0015) keep (workspace_id, source_platform): incremental runs replace
+-- whole (workspace, platform) scopes. ORDER BY keys are unchanged.
+-- One all-tenant insert still writes one partition per tenant (and platform for the P&L marts),
+-- so those inserts, the copies below included (ClickHouseMigrationRunner), lift
+-- max_partitions_per_insert_block per statement (ClickHouseStatements.NO_PARTITION_LIMIT).
+--
+-- STOP MATERIALIZATION ON EVERY INSTANCE BEFORE DEPLOYING: rows written into a table between
+-- its copy and the EXCHANGE stay in the old table and are dropped with it. Disable the
+-- schedulers (or scale the workers to zero) until this migration is applied, or run a
+-- full re-materialization afterwards.
+
+-- === fact tables ===
+
+DROP TABLE IF EXISTS fact_finance_repartitioned;
+CREATE TABLE fact_finance_repartitioned AS fact_finance
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, entry_id);
+INSERT INTO fact_finance_repartitioned SELECT * FROM fact_finance;
+EXCHANGE TABLES fact_finance AND fact_finance_repartitioned;
+DROP TABLE fact_finance_repartitioned;
+
+DROP TABLE IF EXISTS fact_sales_repartitioned;
+CREATE TABLE fact_sales_repartitioned AS fact_sales
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, sale_id);
+INSERT INTO fact_sales_repartitioned SELECT * FROM fact_sales;
+EXCHANGE TABLES fact_sales AND fact_sales_repartitioned;
+DROP TABLE fact_sales_repartitioned;
+
+DROP TABLE IF EXISTS fact_orders_repartitioned;
+CREATE TABLE fact_orders_repartitioned AS fact_orders
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, order_id_pk);
+INSERT INTO fact_orders_repartitioned SELECT * FROM fact_orders;
+EXCHANGE TABLES fact_orders AND fact_orders_repartitioned;
+DROP TABLE fact_orders_repartitioned;
+
+DROP TABLE IF EXISTS fact_returns_repartitioned;
+CREATE TABLE fact_returns_repartitioned AS fact_returns
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, return_id);
+INSERT INTO fact_returns_repartitioned SELECT * FROM fact_returns;
+EXCHANGE TABLES fact_returns AND fact_returns_repartitioned;
+DROP TABLE fact_returns_repartitioned;
+
+DROP TABLE IF EXISTS fact_price_snapshot_repartitioned;
+CREATE TABLE fact_price_snapshot_repartitioned AS fact_price_snapshot
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, product_id, captured_at);
+INSERT INTO fact_price_snapshot_repartitioned SELECT * FROM fact_price_snapshot;
+EXCHANGE TABLES fact_price_snapshot AND fact_price_snapshot_repartitioned;
+DROP TABLE fact_price_snapshot_repartitioned;
+
+DROP TABLE IF EXISTS fact_inventory_snapshot_repartitioned;
+CREATE TABLE fact_inventory_snapshot_repartitioned AS fact_inventory_snapshot
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, product_id, warehouse_id, captured_at);
+INSERT INTO fact_inventory_snapshot_repartitioned SELECT * FROM fact_inventory_snapshot;
+EXCHANGE TABLES fact_inventory_snapshot AND fact_inventory_snapshot_repartitioned;
+DROP TABLE fact_inventory_snapshot_repartitioned;
+
+-- === mart tables ===
+
+DROP TABLE IF EXISTS mart_inventory_analysis_repartitioned;
+CREATE TABLE mart_inventory_analysis_repartitioned AS mart_inventory_analysis
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, product_id, warehouse_id, analysis_date);
+INSERT INTO mart_inventory_analysis_repartitioned SELECT * FROM mart_inventory_analysis;
+EXCHANGE TABLES mart_inventory_analysis AND mart_inventory_analysis_repartitioned;
+DROP TABLE mart_inventory_analysis_repartitioned;
+
+DROP TABLE IF EXISTS mart_returns_analysis_repartitioned;
+CREATE TABLE mart_returns_analysis_repartitioned AS mart_returns_analysis
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, seller_sku_id, period);
+INSERT INTO mart_returns_analysis_repartitioned SELECT * FROM mart_returns_analysis;
+EXCHANGE TABLES mart_returns_analysis AND mart_returns_analysis_repartitioned;
+DROP TABLE mart_returns_analysis_repartitioned;
+
+DROP TABLE IF EXISTS mart_advertising_product_repartitioned;
+CREATE TABLE mart_advertising_product_repartitioned AS mart_advertising_product
+ENGINE = ReplacingMergeTree(ver)
+PARTITION BY workspace_id
+ORDER BY (workspace_id, source_platform, marketplace_sku, period);
+INSERT INTO mart_advertising_product_repartitioned SELECT * FROM mart_advertising_product;
+EXCHANGE TABLES mart_advertising_product AND mart_advertising_product_repartitioned;
+DROP TABLE mart_advertising_product_repartitioned;
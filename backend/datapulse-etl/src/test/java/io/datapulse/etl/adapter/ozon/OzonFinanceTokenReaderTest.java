@@ -0,0 +1,123 @@
+package io.datapulse.etl.adapter.ozon;
+
+import static io.datapulse.etl.domain.normalized.FinanceEntryAssertions.assertSameEntry;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.datapulse.etl.adapter.ozon.dto.OzonFinanceTransaction;
+import io.datapulse.etl.domain.FinanceEntryType;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class OzonFinanceTokenReaderTest {
+
+  private static final String TRANSACTIONS = """
+      [
+        {"services": [
+           {"name": "MarketplaceServiceItemDirectFlowLogistic", "price": -50.5},
+           {"name": "MarketplaceRedistributionOfAcquiringOperation", "price": -12.01},
+           {"name": "MarketplaceServiceBrandCommission", "price": -3},
+           {"name": "SomeUnknownService", "price": -1.25},
+           {"name": "MarketplaceServiceItemDelivToCustomer", "price": null}],
+         "operation_id": 9001, "operation_type": "OperationAgentDeliveredToCustomer",
+         "operation_date": "2024-03-01 12:30:00", "operation_type_name": "Доставка покупателю",
+         "accruals_for_sale": 2500.00, "sale_commission": -375.00, "amount": 2058.24,
+         "type": "orders",
+         "posting": {"delivery_schema": "fbo", "order_date": "2024-02-27 10:00:00",
+                     "posting_number": "87621408-0010-1", "warehouse_id": 123},
+         "items": [{"name": "Product A", "sku": 111}, {"name": "Product B", "sku": 222}]},
+        {"operation_id": 9002, "operation_type": "ClientReturnAgentOperation",
+         "operation_date": "2024-03-02 08:00:00", "accruals_for_sale": -500,
+         "sale_commission": 50, "amount": -450,
+         "posting": {"delivery_schema": "FBS", "posting_number": "1234-5678", "warehouse_id": 0},
+         "services": [], "items": [{"sku": "333"}]},
+        {"operation_id": 9003, "operation_type": "MarketplaceRedistributionOfAcquiringOperation",
+         "operation_date": "2024-03-03 09:00:00", "accruals_for_sale": 0, "sale_commission": 0,
+         "amount": -12.34, "posting": null,
+         "services": [{"name": "MarketplaceServiceItemDirectFlowLogistic", "price": -99}],
+         "items": []},
+        {"operation_id": 9004, "operation_type": "OperationMarketplaceCostPerClick",
+         "operation_date": "2024-03-04 10:00:00", "amount": "-99.9",
+         "posting": {"posting_number": "123456", "delivery_schema": "  "}},
+        {"operation_id": 9005, "operation_type": "SomethingNew",
+         "operation_date": "2024-03-05 11:00:00", "amount": 10, "posting": {},
+         "extra": {"services": [{"name": "x", "price": 1}]}},
+        {"operation_id": 9006, "operation_type": "OperationAgentStornoDeliveredToCustomer",
+         "operation_date": "2024-03-06 12:00:00", "accruals_for_sale": -100.5,
+         "sale_commission": 15.07, "amount": -85.43, "services": null,
+         "posting": {"posting_number": "87621408-0010-2", "warehouse_id": "77"}}
+      ]
+      """;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final OzonFinanceNormalizer normalizer = new OzonFinanceNormalizer();
+  private final OzonFinanceTokenReader reader = new OzonFinanceTokenReader();
+
+  @Nested
+  @DisplayName("read()")
+  class Read {
+
+    @Test
+    void should_matchDtoPath_for_everyTransaction_when_bufferReused() throws IOException {
+      List<OzonFinanceTransaction> transactions =
+          objectMapper.readValue(TRANSACTIONS, new TypeReference<>() {});
+      FinanceRowBuffer buffer = reader.newBuffer();
+
+      try (JsonParser parser = objectMapper.getFactory().createParser(TRANSACTIONS)) {
+        assertThat(parser.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+        for (OzonFinanceTransaction tx : transactions) {
+          assertThat(parser.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+          reader.read(parser, buffer);
+          assertThat(parser.currentToken()).isEqualTo(JsonToken.END_OBJECT);
+
+          assertSameEntry(buffer, normalizer.normalizeFinanceTransaction(tx));
+        }
+        assertThat(parser.nextToken()).isEqualTo(JsonToken.END_ARRAY);
+      }
+    }
+
+    @Test
+    void should_applyServices_when_theyPrecedeOperationType() throws IOException {
+      FinanceRowBuffer row = readTransaction(0);
+
+      assertThat(row.entryType()).isEqualTo(FinanceEntryType.SALE_ACCRUAL);
+      assertThat(row.revenueAmount()).isEqualByComparingTo("2500.00");
+      assertThat(row.marketplaceCommissionAmount()).isEqualByComparingTo("-378.00");
+      assertThat(row.logisticsCostAmount()).isEqualByComparingTo("-50.5");
+      assertThat(row.acquiringCommissionAmount()).isEqualByComparingTo("-12.01");
+      assertThat(row.marketplaceSku()).isEqualTo("111");
+    }
+
+    @Test
+    void should_discardServices_when_operationIsStandalone() throws IOException {
+      FinanceRowBuffer row = readTransaction(2);
+
+      assertThat(row.entryType()).isEqualTo(FinanceEntryType.ACQUIRING);
+      assertThat(row.acquiringCommissionAmount()).isEqualByComparingTo("-12.34");
+      assertThat(row.logisticsCostAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+      assertThat(row.postingId()).isNull();
+      assertThat(row.fulfillmentType()).isNull();
+    }
+  }
+
+  private FinanceRowBuffer readTransaction(int index) throws IOException {
+    FinanceRowBuffer buffer = reader.newBuffer();
+    try (JsonParser parser = objectMapper.getFactory().createParser(TRANSACTIONS)) {
+      parser.nextToken();
+      for (int i = 0; i <= index; i++) {
+        parser.nextToken();
+        reader.read(parser, buffer);
+      }
+    }
+    return buffer;
+  }
+}
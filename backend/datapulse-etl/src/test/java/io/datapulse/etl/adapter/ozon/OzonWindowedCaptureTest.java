@@ -0,0 +1,125 @@
+package io.datapulse.etl.adapter.ozon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import io.datapulse.etl.config.CaptureWindowProperties;
+import io.datapulse.etl.domain.CaptureContext;
+import io.datapulse.etl.domain.CaptureResult;
+import io.datapulse.etl.domain.DateWindowResume;
+import io.datapulse.etl.domain.EtlEventType;
+import io.datapulse.etl.domain.ResumableCaptureException;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class OzonWindowedCaptureTest {
+
+  private static final OffsetDateTime START = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0,
+      ZoneOffset.UTC);
+
+  private final Executor threadPerTask = task -> new Thread(task).start();
+  private final CaptureContext context =
+      new CaptureContext(1L, 9L, EtlEventType.FACT_FINANCE, "OzonFinanceReadAdapter", "req");
+
+  @Test
+  void should_captureWindowsConcurrently_and_returnPagesInWindowOrder() {
+    OzonWindowedCapture capture = windowedCapture(3);
+    CountDownLatch allStarted = new CountDownLatch(3);
+
+    List<CaptureResult> pages = capture.captureAll(context, windows(3), DateWindowResume.NONE,
+        "1", (ctx, window, start, index, count) -> {
+          allStarted.countDown();
+          await(allStarted);
+          return List.of(page(ctx, index, ctx.requestId()));
+        });
+
+    assertThat(pages).extracting(CaptureResult::s3Key)
+        .containsExactly("req-w0", "req-w1", "req-w2");
+    assertThat(pages).extracting(CaptureResult::listResumeKey)
+        .containsExactly("w0/3:1", "w1/3:1", "w2/3:1");
+  }
+
+  @Test
+  void should_skipCompletedWindows_and_resumeFailedOnes_when_resumeGiven() {
+    OzonWindowedCapture capture = windowedCapture(2);
+    List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    capture.captureAll(context, windows(3), DateWindowResume.parse("w1/3:4"), "1",
+        (ctx, window, start, index, count) -> {
+          started.add(index + ":" + start);
+          return List.of();
+        });
+
+    assertThat(started).containsExactly("1:4");
+  }
+
+  @Test
+  void should_throwResumable_with_failedWindowPosition_when_windowFails() {
+    OzonWindowedCapture capture = windowedCapture(3);
+
+    assertThatThrownBy(() -> capture.captureAll(context, windows(3), DateWindowResume.NONE, "1",
+        (ctx, window, start, index, count) -> {
+          page(ctx, index, ctx.requestId() + "-p1");
+          if (index == 1) {
+            throw new IllegalStateException("API error");
+          }
+          return List.of();
+        }))
+        .isInstanceOfSatisfying(ResumableCaptureException.class, e -> {
+          assertThat(e.getResumeToken()).isEqualTo("w1/3:1");
+          assertThat(e.getCapturedPages()).extracting(CaptureResult::s3Key)
+              .containsExactly("req-w0-p1", "req-w1-p1", "req-w2-p1");
+        });
+  }
+
+  @Test
+  void should_captureDirectly_when_singleWindow() {
+    OzonWindowedCapture capture = windowedCapture(3);
+    List<String> requestIds = new ArrayList<>();
+
+    capture.captureAll(context, windows(1), DateWindowResume.parse("5"), "1",
+        (ctx, window, start, index, count) -> {
+          requestIds.add(ctx.requestId() + ":" + start);
+          return List.of();
+        });
+
+    assertThat(requestIds).containsExactly("req:5");
+  }
+
+  private OzonWindowedCapture windowedCapture(int concurrency) {
+    return new OzonWindowedCapture(threadPerTask, new CaptureWindowProperties(concurrency),
+        new MetricsFacade(new SimpleMeterRegistry()));
+  }
+
+  private static List<OzonDateWindows.Window> windows(int count) {
+    return OzonDateWindows.split(START, START.plusDays(28L * count), 28);
+  }
+
+  /**
+   * Simulates the adapter publishing a captured page for API page 1.
+   */
+  private static CaptureResult page(CaptureContext ctx, int index, String s3Key) {
+    CaptureResult page = new CaptureResult(index, s3Key, "sha256", 10L, null, "1");
+    ctx.pageListener().onPageCaptured(page);
+    return page;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package io.datapulse.etl.adapter.s3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class RawPageCompressionTest {
+
+  @Test
+  void should_detectGzip_without_consumingBytes() throws IOException {
+    byte[] gzipped = gzip("[{\"id\":1}]");
+    var in = new BufferedInputStream(new ByteArrayInputStream(gzipped));
+
+    assertThat(RawPageCompression.isGzip(in)).isTrue();
+    assertThat(in.readAllBytes()).isEqualTo(gzipped);
+  }
+
+  @Test
+  void should_treatLegacyJson_asUncompressed() throws IOException {
+    var in = new BufferedInputStream(new ByteArrayInputStream(
+        "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(RawPageCompression.isGzip(in)).isFalse();
+    assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("[{\"id\":1}]");
+  }
+
+  @Test
+  void should_treatEmptyObject_asUncompressed() throws IOException {
+    var in = new BufferedInputStream(new ByteArrayInputStream(new byte[0]));
+
+    assertThat(RawPageCompression.isGzip(in)).isFalse();
+  }
+
+  private static byte[] gzip(String text) throws IOException {
+    var out = new ByteArrayOutputStream();
+    try (var gzip = new GZIPOutputStream(out)) {
+      gzip.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,98 @@
+package io.datapulse.etl.adapter.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+
+import io.datapulse.etl.adapter.s3.RawPageCompression;
+import io.datapulse.etl.adapter.s3.S3RawStorage;
+import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.etl.domain.CaptureContext;
+import io.datapulse.etl.domain.CaptureResult;
+import io.datapulse.etl.domain.EtlEventType;
+import io.datapulse.etl.domain.PageCaptureResult;
+import io.datapulse.etl.domain.cursor.CursorScanner;
+import io.datapulse.etl.domain.cursor.NoCursorExtractor;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingPageCaptureTest {
+
+  private static final CaptureContext CONTEXT =
+      new CaptureContext(1L, 9L, EtlEventType.SALES_FACT, "src", "req");
+  private static final String KEY = "raw/9/SALES_FACT/src/req/page-2.json";
+
+  @Mock private StreamingResponseWriter responseWriter;
+  @Mock private StreamingUploadWriter uploadWriter;
+  @Mock private S3RawStorage s3RawStorage;
+
+  private final Flux<DataBuffer> body = Flux.empty();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void should_registerStreamedPage_without_tempFile() {
+    when(s3RawStorage.buildS3Key(CONTEXT, 2)).thenReturn(KEY);
+    when(uploadWriter.writeToS3(body, KEY, CursorScanner.NONE, "req", 2))
+        .thenReturn(new StreamedUploadResult("sha", 500, 120, "c-3"));
+    CaptureResult registered = new CaptureResult(11L, KEY, "sha", 500);
+    when(s3RawStorage.registerPage(CONTEXT, KEY, "sha", 500, 2, null, null))
+        .thenReturn(registered);
+
+    PageCaptureResult page = capture(RawCaptureMode.STREAMING)
+        .capture(body, CONTEXT, 2, NoCursorExtractor.INSTANCE);
+
+    assertThat(page.captureResult()).isEqualTo(registered);
+    assertThat(page.cursor()).isEqualTo("c-3");
+    verify(responseWriter, never()).writeToTempFile(any(), any(), eq(2));
+  }
+
+  @Test
+  void should_fallBackToTempFile_when_streamingUploadFails() {
+    when(s3RawStorage.buildS3Key(CONTEXT, 2)).thenReturn(KEY);
+    when(uploadWriter.writeToS3(body, KEY, CursorScanner.NONE, "req", 2))
+        .thenThrow(new StreamingUploadException("s3 down", new RuntimeException()));
+    var written = new TempFileWriteResult(Path.of("/tmp/none.json"), "sha", 500);
+    when(responseWriter.writeToTempFile(body, "req", 2)).thenReturn(written);
+    CaptureResult registered = new CaptureResult(12L, KEY, "sha", 500);
+    when(s3RawStorage.captureFromFile(written, CONTEXT, 2, null, null)).thenReturn(registered);
+
+    PageCaptureResult page = capture(RawCaptureMode.STREAMING)
+        .capture(body, CONTEXT, 2, NoCursorExtractor.INSTANCE);
+
+    assertThat(page.captureResult()).isEqualTo(registered);
+    assertThat(registry.get("etl.raw_page.capture.fallbacks").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void should_throwEmptyResponse_when_streamedBodyEmpty() {
+    when(s3RawStorage.buildS3Key(CONTEXT, 2)).thenReturn(KEY);
+    when(uploadWriter.writeToS3(body, KEY, CursorScanner.NONE, "req", 2))
+        .thenReturn(new StreamedUploadResult(null, 0, 0, null));
+
+    assertThatThrownBy(() -> capture(RawCaptureMode.STREAMING)
+        .capture(body, CONTEXT, 2, NoCursorExtractor.INSTANCE))
+        .isInstanceOf(EmptyResponseException.class);
+    verify(s3RawStorage, never()).registerPage(any(), any(), any(), eq(0L), eq(2), any(), any());
+  }
+
+  private StreamingPageCapture capture(RawCaptureMode mode) {
+    var properties = new EtlProperties("/tmp", RawPageCompression.GZIP, mode,
+        DataSize.ofMegabytes(5));
+    return new StreamingPageCapture(responseWriter, uploadWriter, s3RawStorage, properties,
+        new MetricsFacade(registry));
+  }
+}
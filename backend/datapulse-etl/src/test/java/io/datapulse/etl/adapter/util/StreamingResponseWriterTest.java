@@ -0,0 +1,81 @@
+package io.datapulse.etl.adapter.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import io.datapulse.etl.adapter.s3.RawPageCompression;
+import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+class StreamingResponseWriterTest {
+
+  private static final String BODY = "{\"data\":[" + "{\"id\":1,\"name\":\"item\"},".repeat(500)
+      + "{\"id\":2}]}";
+
+  @TempDir Path tempDir;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void should_teeGzipCopy_when_compressionEnabled() throws IOException {
+    var writer = writer(RawPageCompression.GZIP);
+
+    TempFileWriteResult result = writer.writeToTempFile(body(), "req", 1);
+
+    assertThat(Files.readString(result.path())).isEqualTo(BODY);
+    assertThat(result.byteSize()).isEqualTo(BODY.getBytes(StandardCharsets.UTF_8).length);
+    assertThat(result.compressedSize()).isPositive().isLessThan(result.byteSize());
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(result.compressedPath()))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+    assertThat(registry.get("etl.raw_page.compression.ratio").summary().mean())
+        .isGreaterThan(1.0);
+  }
+
+  @Test
+  void should_writePlainFileOnly_when_compressionDisabled() throws IOException {
+    var writer = writer(RawPageCompression.NONE);
+
+    TempFileWriteResult result = writer.writeToTempFile(body(), "req", 1);
+
+    assertThat(Files.readString(result.path())).isEqualTo(BODY);
+    assertThat(result.compressedPath()).isNull();
+  }
+
+  @Test
+  void should_hashPlainBytes_regardlessOfCompression() {
+    String gzipSha = writer(RawPageCompression.GZIP).writeToTempFile(body(), "a", 1).sha256();
+    String plainSha = writer(RawPageCompression.NONE).writeToTempFile(body(), "b", 1).sha256();
+
+    assertThat(gzipSha).isEqualTo(plainSha);
+  }
+
+  private StreamingResponseWriter writer(RawPageCompression compression) {
+    return new StreamingResponseWriter(
+        new EtlProperties(tempDir.toString(), compression,
+            RawCaptureMode.TEMP_FILE, DataSize.ofMegabytes(5)), new MetricsFacade(registry));
+  }
+
+  private static Flux<DataBuffer> body() {
+    byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+    int half = bytes.length / 2;
+    var factory = DefaultDataBufferFactory.sharedInstance;
+    return Flux.just(
+        factory.wrap(Arrays.copyOfRange(bytes, 0, half)),
+        factory.wrap(Arrays.copyOfRange(bytes, half, bytes.length)));
+  }
+}
@@ -0,0 +1,153 @@
+package io.datapulse.etl.adapter.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import io.datapulse.etl.adapter.s3.RawPageCompression;
+import io.datapulse.etl.adapter.s3.S3RawStorage;
+import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.etl.domain.cursor.JsonPathCursorExtractor;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingUploadWriterTest {
+
+  private static final String BODY = "{\"result\":{\"cursor\":\"next-7\"},\"items\":["
+      + "{\"sku\":\"A-1\",\"qty\":3},".repeat(2_000) + "{\"sku\":\"Z\"}]}";
+
+  @Mock private S3RawStorage s3RawStorage;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  void should_uploadPlainBody_and_extractCursorInSamePass() throws Exception {
+    AtomicReference<byte[]> uploaded = captureUpload(RawPageCompression.NONE);
+
+    StreamedUploadResult result = writer(RawPageCompression.NONE).writeToS3(
+        body(BODY), "raw/key", new JsonPathCursorExtractor("result.cursor").newScanner(),
+        "req", 0);
+
+    assertThat(new String(uploaded.get(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    assertThat(result.cursor()).isEqualTo("next-7");
+    assertThat(result.byteSize()).isEqualTo(BODY.length());
+    assertThat(result.uploadedSize()).isEqualTo(BODY.length());
+    assertThat(result.sha256()).isEqualTo(sha256(BODY));
+  }
+
+  @Test
+  void should_uploadGzip_when_compressionEnabled() throws Exception {
+    AtomicReference<byte[]> uploaded = captureUpload(RawPageCompression.GZIP);
+
+    StreamedUploadResult result = writer(RawPageCompression.GZIP).writeToS3(
+        body(BODY), "raw/key", new JsonPathCursorExtractor("result.cursor").newScanner(),
+        "req", 0);
+
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(uploaded.get()))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+    assertThat(result.uploadedSize()).isEqualTo(uploaded.get().length)
+        .isLessThan(result.byteSize());
+    assertThat(result.sha256()).isEqualTo(sha256(BODY));
+    assertThat(registry.get("etl.raw_page.compression.ratio").summary().count()).isEqualTo(1);
+  }
+
+  @Test
+  void should_keepGzipHeader_when_firstBufferEmpty() throws Exception {
+    AtomicReference<byte[]> uploaded = captureUpload(RawPageCompression.GZIP);
+    Flux<DataBuffer> body = Flux.<DataBuffer>just(
+            DefaultDataBufferFactory.sharedInstance.wrap(new byte[0]))
+        .concatWith(body(BODY));
+
+    StreamedUploadResult result = writer(RawPageCompression.GZIP).writeToS3(
+        body, "raw/key", new JsonPathCursorExtractor("result.cursor").newScanner(), "req", 0);
+
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(uploaded.get()))) {
+      assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+    assertThat(result.uploadedSize()).isEqualTo(uploaded.get().length);
+    assertThat(result.cursor()).isEqualTo("next-7");
+  }
+
+  @Test
+  void should_skipUpload_when_bodyEmpty() {
+    StreamedUploadResult result = writer(RawPageCompression.GZIP).writeToS3(
+        Flux.empty(), "raw/key", new JsonPathCursorExtractor("cursor").newScanner(), "req", 3);
+
+    assertThat(result.byteSize()).isZero();
+    verifyNoInteractions(s3RawStorage);
+  }
+
+  @Test
+  void should_throwStreamingUploadException_when_s3Fails() throws Exception {
+    doAnswer(invocation -> {
+      invocation.getArgument(1, InputStream.class).readNBytes(100);
+      throw new IOException("connection reset by S3");
+    }).when(s3RawStorage).uploadStream(eq("raw/key"), any(), eq(RawPageCompression.NONE));
+
+    assertThatThrownBy(() -> writer(RawPageCompression.NONE).writeToS3(
+        body(BODY), "raw/key", new JsonPathCursorExtractor("cursor").newScanner(), "req", 0))
+        .isInstanceOf(StreamingUploadException.class);
+  }
+
+  @Test
+  void should_notOfferFallback_when_bodyFails() {
+    Flux<DataBuffer> broken = body("{\"items\":[1,2,")
+        .concatWith(Flux.error(new IllegalStateException("connection closed by marketplace")));
+
+    assertThatThrownBy(() -> writer(RawPageCompression.NONE).writeToS3(
+        broken, "raw/key", new JsonPathCursorExtractor("cursor").newScanner(), "req", 0))
+        .isNotInstanceOf(StreamingUploadException.class)
+        .hasRootCauseMessage("connection closed by marketplace");
+  }
+
+  private AtomicReference<byte[]> captureUpload(RawPageCompression compression) throws Exception {
+    AtomicReference<byte[]> uploaded = new AtomicReference<>();
+    doAnswer(invocation -> {
+      uploaded.set(invocation.getArgument(1, InputStream.class).readAllBytes());
+      return null;
+    }).when(s3RawStorage).uploadStream(eq("raw/key"), any(), eq(compression));
+    return uploaded;
+  }
+
+  private StreamingUploadWriter writer(RawPageCompression compression) {
+    var properties = new EtlProperties("/tmp", compression, RawCaptureMode.STREAMING,
+        DataSize.ofMegabytes(5));
+    return new StreamingUploadWriter(properties, s3RawStorage, new MetricsFacade(registry));
+  }
+
+  private static Flux<DataBuffer> body(String content) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    var factory = DefaultDataBufferFactory.sharedInstance;
+    return Flux.range(0, (bytes.length + 4095) / 4096)
+        .map(i -> factory.wrap(Arrays.copyOfRange(
+            bytes, i * 4096, Math.min(bytes.length, (i + 1) * 4096))));
+  }
+
+  private static String sha256(String content) throws Exception {
+    return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+        .digest(content.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,109 @@
+package io.datapulse.etl.adapter.wb;
+
+import static io.datapulse.etl.domain.normalized.FinanceEntryAssertions.assertSameEntry;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.datapulse.etl.adapter.wb.dto.WbFinanceRow;
+import io.datapulse.etl.domain.FinanceEntryType;
+import io.datapulse.etl.domain.normalized.FinanceRowBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class WbFinanceTokenReaderTest {
+
+  private static final String ROWS = """
+      [
+        {"realizationreport_id": 77, "rrd_id": 1001, "rr_dt": "2024-03-01",
+         "sale_dt": "2024-02-28T10:15:00", "srid": "srid-1", "nm_id": 555001,
+         "sa_name": "VC-1", "barcode": "460000001", "doc_type_name": "Продажа",
+         "supplier_oper_name": "Продажа", "quantity": 1, "retail_price": 1500,
+         "retail_price_withdisc_rub": 1234.50, "ppvz_for_pay": 1000.10,
+         "ppvz_sales_commission": 150.25, "cashback_commission_change": 3.5,
+         "delivery_rub": 80, "rebill_logistic_cost": 12.30, "acquiring_fee": 20.1,
+         "storage_fee": 0, "penalty": 0, "acceptance": 0, "deduction": 5,
+         "cashback_amount": 1, "cashback_discount": 2, "loyalty_discount": 0.5,
+         "installment_cofinancing_amount": 0.25, "additional_payment": 0,
+         "seller_promo_discount": 7, "currency_name": "руб", "ppvz_office_id": 507,
+         "office_name": "Коледино", "order_uid": "order-1", "srv_dbs": false, "kiz": null},
+        {"rrd_id": 1002, "rr_dt": "2024-03-02", "sale_dt": "", "srid": "srid-2",
+         "nm_id": 555002, "sa_name": "VC-2", "doc_type_name": "Возврат",
+         "supplier_oper_name": "Возврат", "retail_price_withdisc_rub": 999.99,
+         "ppvz_for_pay": -899.99, "ppvz_sales_commission": -100, "delivery_rub": 50,
+         "currency_name": "руб", "ppvz_office_id": null, "order_uid": "order-2",
+         "srv_dbs": true},
+        {"rrd_id": 1003, "rr_dt": "2024-03-03T00:00:00Z", "supplier_oper_name": "Логистика",
+         "delivery_rub": "45.5", "rebill_logistic_cost": null},
+        {"rrd_id": 1004, "rr_dt": "2024-03-04", "nm_id": 555004,
+         "supplier_oper_name": "Новая операция", "penalty": 300,
+         "extra": {"nested": [1, 2, {"rrd_id": 9999, "penalty": 1}]}, "storage_fee": 12.75}
+      ]
+      """;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final WbNormalizer normalizer = new WbNormalizer(objectMapper);
+  private final WbFinanceTokenReader reader = new WbFinanceTokenReader();
+
+  @Nested
+  @DisplayName("read()")
+  class Read {
+
+    @Test
+    void should_matchDtoPath_for_everyRow_when_bufferReused() throws IOException {
+      List<WbFinanceRow> rows = objectMapper.readValue(ROWS, new TypeReference<>() {});
+      FinanceRowBuffer buffer = reader.newBuffer();
+
+      try (JsonParser parser = objectMapper.getFactory().createParser(ROWS)) {
+        assertThat(parser.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+        for (WbFinanceRow row : rows) {
+          assertThat(parser.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+          reader.read(parser, buffer);
+          assertThat(parser.currentToken()).isEqualTo(JsonToken.END_OBJECT);
+
+          assertSameEntry(buffer, normalizer.normalizeFinance(row));
+        }
+        assertThat(parser.nextToken()).isEqualTo(JsonToken.END_ARRAY);
+      }
+    }
+
+    @Test
+    void should_routeRetailPriceToRefund_when_docTypeIsReturn() throws IOException {
+      FinanceRowBuffer row = readRow(1);
+
+      assertThat(row.revenueAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+      assertThat(row.refundAmount()).isEqualByComparingTo("-999.99");
+      assertThat(row.fulfillmentType()).isEqualTo("DBS");
+      assertThat(row.warehouseExternalId()).isNull();
+    }
+
+    @Test
+    void should_keepProviderEntryType_when_operNameUnmapped() throws IOException {
+      FinanceRowBuffer row = readRow(3);
+
+      assertThat(row.entryType()).isEqualTo(FinanceEntryType.OTHER);
+      assertThat(row.providerEntryType()).isEqualTo("Новая операция");
+      assertThat(row.externalEntryId()).isEqualTo("1004");
+      assertThat(row.penaltiesAmount()).isEqualByComparingTo("-300");
+    }
+  }
+
+  private FinanceRowBuffer readRow(int index) throws IOException {
+    FinanceRowBuffer buffer = reader.newBuffer();
+    try (JsonParser parser = objectMapper.getFactory().createParser(ROWS)) {
+      parser.nextToken();
+      for (int i = 0; i <= index; i++) {
+        parser.nextToken();
+        reader.read(parser, buffer);
+      }
+    }
+    return buffer;
+  }
+}
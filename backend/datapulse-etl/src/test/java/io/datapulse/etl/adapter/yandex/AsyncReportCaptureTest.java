@@ -0,0 +1,277 @@
+package io.datapulse.etl.adapter.yandex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.datapulse.etl.adapter.yandex.dto.YandexServicesReportRow;
+import io.datapulse.etl.config.EtlProperties;
+import io.datapulse.etl.config.YandexReportProperties;
+import io.datapulse.etl.persistence.YandexReportTaskRepository;
+import io.datapulse.etl.persistence.YandexReportTaskRepository.ReportTask;
+import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncReportCaptureTest {
+
+  private static final long CONNECTION_ID = 7L;
+  private static final String PATH = "/v2/reports/goods-realization/generate";
+  private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+  @Mock private YandexApiCaller apiCaller;
+  @Mock private YandexReportTaskRepository taskRepository;
+  @Mock private ScheduledExecutorService scheduler;
+
+  /** Timers handed to the scheduler, with their delay; fired by the test in order. */
+  private final List<ScheduledStep> scheduled = new ArrayList<>();
+  private final List<Runnable> etlTasks = new ArrayList<>();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private AsyncReportCapture capture;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(scheduler.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS)))
+        .thenAnswer(inv -> {
+          scheduled.add(new ScheduledStep(inv.getArgument(0), inv.getArgument(1)));
+          return null;
+        });
+  }
+
+  private AsyncReportCapture capture(int maxInFlightPerConnection) {
+    var properties = new YandexReportProperties(Duration.ofSeconds(5), Duration.ofSeconds(5),
+        Duration.ofSeconds(30), Duration.ofMinutes(10), maxInFlightPerConnection,
+        Duration.ofHours(3), 1);
+    return new AsyncReportCapture(apiCaller, WebClient.builder(), new ObjectMapper(),
+        new EtlProperties("/tmp", null, null, null), properties, taskRepository, scheduler,
+        etlTasks::add, new MetricsFacade(registry), Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Nested
+  @DisplayName("captureReport()")
+  class CaptureReport {
+
+    @Test
+    void should_persistReportAndPollAfterInitialWait_when_noResumableReport() {
+      capture = capture(4);
+      when(taskRepository.findResumable(eq(CONNECTION_ID), eq("key-1"), any()))
+          .thenReturn(Optional.empty());
+      when(apiCaller.post(eq(PATH), eq(CONNECTION_ID), eq(RateLimitGroup.YANDEX_REPORTS),
+          eq("api-key"), any()))
+          .thenAnswer(inv -> body("{\"result\":{\"reportId\":\"r-1\"}}"));
+      when(apiCaller.get("/v2/reports/info/r-1", CONNECTION_ID, RateLimitGroup.YANDEX_REPORTS,
+          "api-key"))
+          .thenAnswer(inv -> body("{\"result\":{\"status\":\"PENDING\"}}"));
+
+      CompletableFuture<List<YandexServicesReportRow>> result = start("key-1");
+      runNext();
+
+      verify(taskRepository).saveGenerated(CONNECTION_ID, "key-1", "r-1", 1L);
+      assertThat(scheduled).singleElement()
+          .extracting(ScheduledStep::delayMillis).isEqualTo(5_000L);
+
+      runNext();
+      runNext();
+
+      // pending polls back off: 5s, then 10s
+      assertThat(scheduled).singleElement()
+          .extracting(ScheduledStep::delayMillis).isEqualTo(10_000L);
+      assertThat(result).isNotDone();
+    }
+
+    @Test
+    void should_callApiOnEtlExecutor_when_pollDelayElapses() {
+      capture = capture(4);
+      when(taskRepository.findResumable(eq(CONNECTION_ID), eq("key-1"), any()))
+          .thenReturn(Optional.empty());
+      when(apiCaller.post(eq(PATH), eq(CONNECTION_ID), eq(RateLimitGroup.YANDEX_REPORTS),
+          eq("api-key"), any()))
+          .thenAnswer(inv -> body("{\"result\":{\"reportId\":\"r-1\"}}"));
+
+      start("key-1");
+      assertThat(scheduled).isEmpty();
+      runNext();
+
+      // the scheduler thread only hands the poll over, it never calls the API itself
+      scheduled.remove(0).step().run();
+
+      verify(apiCaller, never()).get(anyString(), anyLong(), any(), anyString());
+      assertThat(etlTasks).hasSize(1);
+    }
+
+    @Test
+    void should_rescheduleStep_when_stepExecutorSaturated() {
+      var properties = new YandexReportProperties(Duration.ofSeconds(5), Duration.ofSeconds(5),
+          Duration.ofSeconds(30), Duration.ofMinutes(10), 4, Duration.ofHours(3), 1);
+      AtomicBoolean saturated = new AtomicBoolean(true);
+      capture = new AsyncReportCapture(apiCaller, WebClient.builder(), new ObjectMapper(),
+          new EtlProperties("/tmp", null, null, null), properties, taskRepository, scheduler,
+          task -> {
+            if (saturated.getAndSet(false)) {
+              throw new RejectedExecutionException("saturated");
+            }
+            etlTasks.add(task);
+          },
+          new MetricsFacade(registry), Clock.fixed(NOW, ZoneOffset.UTC));
+      when(taskRepository.findResumable(eq(CONNECTION_ID), eq("key-1"), any()))
+          .thenReturn(Optional.of(new ReportTask("r-9", "GENERATING", null)));
+      when(apiCaller.get("/v2/reports/info/r-9", CONNECTION_ID, RateLimitGroup.YANDEX_REPORTS,
+          "api-key"))
+          .thenAnswer(inv -> body("{\"result\":{\"status\":\"FAILED\"}}"));
+
+      CompletableFuture<List<YandexServicesReportRow>> result = start("key-1");
+
+      assertThat(result).isNotDone();
+      assertThat(etlTasks).isEmpty();
+      assertThat(scheduled).singleElement()
+          .extracting(ScheduledStep::delayMillis).isEqualTo(5_000L);
+      assertThat(registry.get("etl.yandex_report.step_rejected").counter().count())
+          .isEqualTo(1.0);
+
+      runNext();
+
+      assertThat(result).isCompletedExceptionally();
+    }
+
+    @Test
+    void should_pollExistingReport_when_generatingReportResumable() {
+      capture = capture(4);
+      when(taskRepository.findResumable(eq(CONNECTION_ID), eq("key-1"), any()))
+          .thenReturn(Optional.of(new ReportTask("r-9", "GENERATING", null)));
+      when(apiCaller.get("/v2/reports/info/r-9", CONNECTION_ID, RateLimitGroup.YANDEX_REPORTS,
+          "api-key"))
+          .thenAnswer(inv -> body("{\"result\":{\"status\":\"FAILED\"}}"));
+
+      CompletableFuture<List<YandexServicesReportRow>> result = start("key-1");
+      runNext();
+
+      verify(apiCaller, never()).post(anyString(), anyLong(), any(), anyString(), any());
+      verify(taskRepository).finish(CONNECTION_ID, "key-1", "r-9",
+          YandexReportTaskRepository.STATUS_FAILED);
+      assertThat(result).isCompletedExceptionally();
+      assertThat(registry.get("etl.yandex_report.resumed").tag("status", "generating")
+          .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_downloadOnEtlExecutor_when_reportDone() {
+      capture = capture(4);
+      when(taskRepository.findResumable(eq(CONNECTION_ID), eq("key-1"), any()))
+          .thenReturn(Optional.of(new ReportTask("r-9", "GENERATING", null)));
+      when(apiCaller.get("/v2/reports/info/r-9", CONNECTION_ID, RateLimitGroup.YANDEX_REPORTS,
+          "api-key"))
+          .thenAnswer(inv -> body(
+              "{\"result\":{\"status\":\"DONE\",\"file\":\"https://files/r-9.json\"}}"));
+
+      start("key-1");
+      runNext();
+
+      verify(taskRepository).markReady(CONNECTION_ID, "key-1", "r-9", "https://files/r-9.json");
+      assertThat(etlTasks).hasSize(1);
+      assertThat(scheduled).isEmpty();
+    }
+
+    @Test
+    void should_queueReportWithoutThread_when_connectionAtCapacity() {
+      capture = capture(1);
+      when(taskRepository.findResumable(eq(CONNECTION_ID), anyString(), any()))
+          .thenReturn(Optional.of(new ReportTask("r-9", "GENERATING", null)));
+      when(apiCaller.get("/v2/reports/info/r-9", CONNECTION_ID, RateLimitGroup.YANDEX_REPORTS,
+          "api-key"))
+          .thenAnswer(inv -> body("{\"result\":{\"status\":\"FAILED\"}}"));
+
+      CompletableFuture<List<YandexServicesReportRow>> first = start("key-1");
+      CompletableFuture<List<YandexServicesReportRow>> second = start("key-2");
+
+      assertThat(etlTasks).hasSize(1);
+      assertThat(registry.get("etl.yandex_report.in_flight").gauge().value()).isEqualTo(1.0);
+
+      runNext();
+
+      assertThat(first).isCompletedExceptionally();
+      assertThat(second).isNotDone();
+      assertThat(etlTasks).hasSize(1);
+
+      runNext();
+
+      assertThat(second).isCompletedExceptionally();
+      assertThat(registry.get("etl.yandex_report.in_flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_failAndKeepReportResumable_when_pollTimeoutReached() {
+      var properties = new YandexReportProperties(Duration.ofSeconds(5), Duration.ofSeconds(5),
+          Duration.ofSeconds(30), Duration.ofSeconds(4), 4, Duration.ofHours(3), 1);
+      capture = new AsyncReportCapture(apiCaller, WebClient.builder(), new ObjectMapper(),
+          new EtlProperties("/tmp", null, null, null), properties, taskRepository, scheduler,
+          etlTasks::add, new MetricsFacade(registry), Clock.fixed(NOW, ZoneOffset.UTC));
+      when(taskRepository.findResumable(eq(CONNECTION_ID), eq("key-1"), any()))
+          .thenReturn(Optional.of(new ReportTask("r-9", "GENERATING", null)));
+      when(apiCaller.get("/v2/reports/info/r-9", CONNECTION_ID, RateLimitGroup.YANDEX_REPORTS,
+          "api-key"))
+          .thenAnswer(inv -> body("{\"result\":{\"status\":\"GENERATING\"}}"));
+
+      CompletableFuture<List<YandexServicesReportRow>> result = start("key-1");
+      runNext();
+
+      assertThat(result).isCompletedExceptionally();
+      verify(taskRepository, never()).finish(anyLong(), anyString(), anyString(), anyString());
+    }
+  }
+
+  private CompletableFuture<List<YandexServicesReportRow>> start(String reportKey) {
+    return capture.captureReport(new AsyncReportCapture.ReportRequest(PATH,
+            Map.of("businessId", 1L), reportKey, "api-key", CONNECTION_ID, 1L),
+        YandexServicesReportRow.class);
+  }
+
+  /** Runs the next step on the etl executor, firing the next timer first when none is queued. */
+  private void runNext() {
+    if (etlTasks.isEmpty()) {
+      scheduled.remove(0).step().run();
+    }
+    etlTasks.remove(0).run();
+  }
+
+  private static Flux<DataBuffer> body(String json) {
+    return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(
+        json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private record ScheduledStep(Runnable step, long delayMillis) {}
+}
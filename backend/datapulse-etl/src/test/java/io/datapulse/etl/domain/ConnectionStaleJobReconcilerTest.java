@@ -49,7 +49,12 @@ class ConnectionStaleJobReconcilerTest {
             Duration.ofMinutes(15),
             Duration.ofHours(1),
             PostIngestMaterializationMode.SYNC,
-            Duration.ofMinutes(15));
+            Duration.ofMinutes(15),
+            true,
+            4,
+            1,
+            true,
+            4);
     reconciler =
         new ConnectionStaleJobReconciler(
             jobExecutionRepository, props, ingestResultReporter, clock);
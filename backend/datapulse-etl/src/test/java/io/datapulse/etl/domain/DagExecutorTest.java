@@ -10,14 +10,19 @@ import static org.mockito.Mockito.when;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import io.datapulse.etl.config.FairSchedulerProperties;
 import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +34,10 @@ class DagExecutorTest {
 
   @BeforeEach
   void setUp() {
-    dagExecutor = new DagExecutor(eventRunner, Runnable::run);
+    var scheduler = new FairShareEventScheduler(Runnable::run,
+        new FairSchedulerProperties(true, 8, 3, 6, 4, Map.of()),
+        new MetricsFacade(new SimpleMeterRegistry()));
+    dagExecutor = new DagExecutor(eventRunner, scheduler);
   }
 
   @Nested
@@ -38,11 +46,11 @@ class DagExecutorTest {
 
     @Test
     void should_executeAllEventsInDag_when_allSucceed() {
-      when(eventRunner.run(any(EtlEventType.class), any(IngestContext.class)))
-          .thenAnswer(inv -> {
+      when(eventRunner.runAsync(any(EtlEventType.class), any(IngestContext.class)))
+          .thenAnswer(async(inv -> {
             EtlEventType type = inv.getArgument(0);
             return EventResult.completed(type, List.of());
-          });
+          }));
 
       Map<EtlEventType, EventResult> results = dagExecutor.execute(buildContext());
 
@@ -55,14 +63,14 @@ class DagExecutorTest {
 
     @Test
     void should_skipEvent_when_hardDependencyFailed() {
-      when(eventRunner.run(any(EtlEventType.class), any(IngestContext.class)))
-          .thenAnswer(inv -> {
+      when(eventRunner.runAsync(any(EtlEventType.class), any(IngestContext.class)))
+          .thenAnswer(async(inv -> {
             EtlEventType type = inv.getArgument(0);
             if (type == EtlEventType.CATEGORY_DICT) {
               return EventResult.failed(type, List.of(SubSourceResult.failed("cat", "err")));
             }
             return EventResult.completed(type, List.of());
-          });
+          }));
 
       Map<EtlEventType, EventResult> results = dagExecutor.execute(buildContext());
 
@@ -72,21 +80,21 @@ class DagExecutorTest {
 
     @Test
     void should_runEvent_when_softDependencyFailed() {
-      when(eventRunner.run(any(EtlEventType.class), any(IngestContext.class)))
-          .thenAnswer(inv -> {
+      when(eventRunner.runAsync(any(EtlEventType.class), any(IngestContext.class)))
+          .thenAnswer(async(inv -> {
             EtlEventType type = inv.getArgument(0);
             if (type == EtlEventType.SALES_FACT) {
               return EventResult.failed(type,
                   List.of(SubSourceResult.failed("sales", "timeout")));
             }
             return EventResult.completed(type, List.of());
-          });
+          }));
 
       Map<EtlEventType, EventResult> results = dagExecutor.execute(buildContext());
 
       assertThat(results.get(EtlEventType.FACT_FINANCE).status())
           .isNotEqualTo(EventResultStatus.SKIPPED);
-      verify(eventRunner).run(eq(EtlEventType.FACT_FINANCE), any());
+      verify(eventRunner).runAsync(eq(EtlEventType.FACT_FINANCE), any());
     }
 
     @Test
@@ -100,29 +108,29 @@ class DagExecutorTest {
           Map.of("apiToken", "test"), "FULL_SYNC",
           EnumSet.allOf(EtlEventType.class), checkpoint);
 
-      when(eventRunner.run(any(EtlEventType.class), any(IngestContext.class)))
-          .thenAnswer(inv -> {
+      when(eventRunner.runAsync(any(EtlEventType.class), any(IngestContext.class)))
+          .thenAnswer(async(inv -> {
             EtlEventType type = inv.getArgument(0);
             return EventResult.completed(type, List.of());
-          });
+          }));
 
       Map<EtlEventType, EventResult> results = dagExecutor.execute(context);
 
-      verify(eventRunner, never()).run(eq(EtlEventType.CATEGORY_DICT), any());
+      verify(eventRunner, never()).runAsync(eq(EtlEventType.CATEGORY_DICT), any());
       assertThat(results.get(EtlEventType.CATEGORY_DICT).status())
           .isEqualTo(EventResultStatus.COMPLETED);
     }
 
     @Test
     void should_cascadeSkip_when_hardDependencySkipped() {
-      when(eventRunner.run(any(EtlEventType.class), any(IngestContext.class)))
-          .thenAnswer(inv -> {
+      when(eventRunner.runAsync(any(EtlEventType.class), any(IngestContext.class)))
+          .thenAnswer(async(inv -> {
             EtlEventType type = inv.getArgument(0);
             if (type == EtlEventType.CATEGORY_DICT) {
               return EventResult.failed(type, List.of(SubSourceResult.failed("cat", "err")));
             }
             return EventResult.completed(type, List.of());
-          });
+          }));
 
       Map<EtlEventType, EventResult> results = dagExecutor.execute(buildContext());
 
@@ -135,6 +143,10 @@ class DagExecutorTest {
     }
   }
 
+  private static Answer<CompletableFuture<EventResult>> async(Answer<EventResult> answer) {
+    return inv -> CompletableFuture.completedFuture(answer.answer(inv));
+  }
+
   private IngestContext buildContext() {
     return IngestContextFixtures.any(
         1L, 100L, 1L, MarketplaceType.WB,
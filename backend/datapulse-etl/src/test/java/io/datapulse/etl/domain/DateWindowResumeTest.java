@@ -0,0 +1,86 @@
+package io.datapulse.etl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class DateWindowResumeTest {
+
+  @Nested
+  @DisplayName("parse()")
+  class Parse {
+
+    @Test
+    void should_runAllWindowsFromStart_when_tokenMissing() {
+      DateWindowResume resume = DateWindowResume.parse(null);
+
+      assertThat(resume).isSameAs(DateWindowResume.NONE);
+      assertThat(resume.skips(0)).isFalse();
+      assertThat(resume.startFor(0)).isNull();
+    }
+
+    @Test
+    void should_resumeEachRecordedWindow_and_skipOthers_when_tokenScoped() {
+      DateWindowResume resume = DateWindowResume.parse("w1/4:5,w3/4:2");
+
+      assertThat(resume.skips(0)).isTrue();
+      assertThat(resume.skips(1)).isFalse();
+      assertThat(resume.skips(2)).isTrue();
+      assertThat(resume.startFor(1)).isEqualTo("5");
+      assertThat(resume.startFor(3)).isEqualTo("2");
+      assertThat(resume.startFor(0)).isNull();
+    }
+
+    @Test
+    void should_runWindowsBeyondRecordedCount_when_rangeGrew() {
+      DateWindowResume resume = DateWindowResume.parse("w1/2:5");
+
+      assertThat(resume.skips(0)).isTrue();
+      assertThat(resume.skips(2)).isFalse();
+      assertThat(resume.startFor(2)).isNull();
+    }
+
+    @Test
+    void should_resumeFirstWindowOnly_when_tokenPlain() {
+      DateWindowResume resume = DateWindowResume.parse("7");
+
+      assertThat(resume.startFor(0)).isEqualTo("7");
+      assertThat(resume.startFor(1)).isNull();
+      assertThat(resume.skips(1)).isFalse();
+    }
+
+    @Test
+    void should_ignoreToken_when_entryMalformed() {
+      assertThat(DateWindowResume.parse("w1/4:5,w9/4:1")).isSameAs(DateWindowResume.NONE);
+    }
+  }
+
+  @Nested
+  @DisplayName("merge()")
+  class Merge {
+
+    @Test
+    void should_keepFirstPositionPerWindow_when_bothScoped() {
+      String merged = DateWindowResume.merge("w1/4:5", "w1/4:8,w2/4:3");
+
+      assertThat(merged).isEqualTo("w1/4:5,w2/4:3");
+    }
+
+    @Test
+    void should_keepCurrent_when_tokenPlain() {
+      assertThat(DateWindowResume.merge("1000", "2000")).isEqualTo("1000");
+      assertThat(DateWindowResume.merge(null, "2000")).isEqualTo("2000");
+    }
+
+    @Test
+    void should_roundTripScopedToken() {
+      String token = DateWindowResume.scopedToken(2, 3, "40");
+
+      assertThat(token).isEqualTo("w2/3:40");
+      assertThat(DateWindowResume.isScoped(token)).isTrue();
+      assertThat(DateWindowResume.parse(token).startFor(2)).isEqualTo("40");
+    }
+  }
+}
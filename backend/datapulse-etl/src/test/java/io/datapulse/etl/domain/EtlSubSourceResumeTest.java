@@ -49,6 +49,17 @@ class EtlSubSourceResumeTest {
         .isEqualTo(5);
   }
 
+  @Test
+  void dateWindows_readsJsonBranch() {
+    String json = "{\"o\":{\"OzonFinanceReadAdapter\":\"w2/5:3\"}}";
+    DateWindowResume resume = EtlSubSourceResume.dateWindows(
+        ctxWithCursor(EtlEventType.FACT_FINANCE, json),
+        EtlEventType.FACT_FINANCE, "OzonFinanceReadAdapter");
+
+    assertThat(resume.startFor(2)).isEqualTo("3");
+    assertThat(resume.skips(0)).isTrue();
+  }
+
   @Test
   void ozonProductInfoStartBatchIndex_defaults() {
     assertThat(EtlSubSourceResume.ozonProductInfoStartBatchIndex(
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import io.datapulse.etl.persistence.JobItemWriteBuffer;
 import io.datapulse.integration.domain.MarketplaceType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -23,6 +24,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class EventRunnerTest {
 
   @Mock private EventSourceRegistry registry;
+  @Mock private JobItemWriteBuffer jobItemBuffer;
   @InjectMocks private EventRunner eventRunner;
 
   @Nested
@@ -0,0 +1,166 @@
+package io.datapulse.etl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.datapulse.etl.config.FactWindowProperties;
+import io.datapulse.etl.config.IngestProperties;
+import io.datapulse.etl.persistence.FactSyncWatermarkRepository;
+import io.datapulse.etl.persistence.FactSyncWatermarkRepository.FactSyncWatermark;
+import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class FactWindowPlannerTest {
+
+  private static final String SOURCE = "OzonFboOrdersReadAdapter";
+  private static final OffsetDateTime TO = IngestContextFixtures.OZON_FACT_TO;
+
+  @Mock private FactSyncWatermarkRepository watermarkRepository;
+  @Mock private IngestProperties ingestProperties;
+
+  private FactWindowPlanner planner;
+
+  @BeforeEach
+  void setUp() {
+    planner = new FactWindowPlanner(watermarkRepository,
+        new FactWindowProperties(true, Duration.ofDays(1)), ingestProperties,
+        new MetricsFacade(new SimpleMeterRegistry()), Clock.system(ZoneOffset.UTC));
+  }
+
+  @Nested
+  @DisplayName("plan()")
+  class Plan {
+
+    @Test
+    void should_useJobWindow_when_notIncremental() {
+      when(ingestProperties.incrementalFactLookbackDays()).thenReturn(30);
+
+      FactWindow window = planner.plan(context("FULL_SYNC"), EtlEventType.SALES_FACT, SOURCE);
+
+      assertThat(window.mode()).isEqualTo(FactWindow.Mode.JOB);
+      assertThat(window.since()).isEqualTo(IngestContextFixtures.OZON_FACT_SINCE);
+      assertThat(window.settles()).isTrue();
+      verify(watermarkRepository, never()).find(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void should_useJobWindow_when_noWatermarkYet() {
+      when(ingestProperties.incrementalFactLookbackDays()).thenReturn(30);
+      when(watermarkRepository.find(7L, "SALES_FACT", SOURCE)).thenReturn(Optional.empty());
+
+      FactWindow window = planner.plan(context("INCREMENTAL"), EtlEventType.SALES_FACT, SOURCE);
+
+      assertThat(window.mode()).isEqualTo(FactWindow.Mode.JOB);
+      assertThat(window.dateFrom()).isEqualTo(IngestContextFixtures.WB_FACT_DATE_FROM);
+    }
+
+    @Test
+    void should_fetchFromWatermarkMinusOverlap_when_settledRecently() {
+      when(ingestProperties.incrementalFactLookbackDays()).thenReturn(30);
+      when(ingestProperties.factSyncOverlap()).thenReturn(Duration.ofHours(1));
+      when(watermarkRepository.find(7L, "SALES_FACT", SOURCE)).thenReturn(Optional.of(
+          new FactSyncWatermark(TO.minusHours(6), TO.minusHours(12))));
+
+      FactWindow window = planner.plan(context("INCREMENTAL"), EtlEventType.SALES_FACT, SOURCE);
+
+      assertThat(window.mode()).isEqualTo(FactWindow.Mode.DELTA);
+      assertThat(window.since()).isEqualTo(TO.minusHours(7));
+      assertThat(window.to()).isEqualTo(TO);
+      assertThat(window.dateFrom()).isEqualTo(LocalDate.of(2024, 5, 31));
+      assertThat(window.settles()).isFalse();
+    }
+
+    @Test
+    void should_capDeltaAtLookback_when_watermarkVeryOld() {
+      when(ingestProperties.incrementalFactLookbackDays()).thenReturn(30);
+      when(ingestProperties.factSyncOverlap()).thenReturn(Duration.ofHours(1));
+      when(watermarkRepository.find(7L, "SALES_FACT", SOURCE)).thenReturn(Optional.of(
+          new FactSyncWatermark(TO.minusDays(90), TO.minusHours(1))));
+
+      FactWindow window = planner.plan(context("INCREMENTAL"), EtlEventType.SALES_FACT, SOURCE);
+
+      assertThat(window.since()).isEqualTo(TO.minusDays(30));
+    }
+
+    @Test
+    void should_sweepWholeLookback_when_settlementDue() {
+      when(ingestProperties.incrementalFactLookbackDays()).thenReturn(30);
+      when(watermarkRepository.find(7L, "SALES_FACT", SOURCE)).thenReturn(Optional.of(
+          new FactSyncWatermark(TO.minusHours(6), TO.minusDays(2))));
+
+      FactWindow window = planner.plan(context("INCREMENTAL"), EtlEventType.SALES_FACT, SOURCE);
+
+      assertThat(window.mode()).isEqualTo(FactWindow.Mode.SETTLEMENT);
+      assertThat(window.since()).isEqualTo(TO.minusDays(30));
+      assertThat(window.settles()).isTrue();
+    }
+  }
+
+  @Nested
+  @DisplayName("advance()")
+  class Advance {
+
+    private final FactWindow delta = new FactWindow(TO.minusHours(7), TO,
+        LocalDate.of(2024, 5, 31), LocalDate.of(2024, 6, 1), FactWindow.Mode.DELTA, false);
+
+    @Test
+    void should_moveWatermark_when_subSourceCompleted() {
+      planner.advance(context("INCREMENTAL"), EtlEventType.SALES_FACT, delta,
+          SubSourceResult.success(SOURCE, 2, 10));
+
+      verify(watermarkRepository).advance(7L, "SALES_FACT", SOURCE, TO, null, 1L);
+    }
+
+    @Test
+    void should_recordSettlement_when_windowSettles() {
+      FactWindow sweep = new FactWindow(TO.minusDays(30), TO, LocalDate.of(2024, 5, 2),
+          LocalDate.of(2024, 6, 1), FactWindow.Mode.SETTLEMENT, true);
+
+      planner.advance(context("INCREMENTAL"), EtlEventType.SALES_FACT, sweep,
+          SubSourceResult.success(SOURCE, 2, 10));
+
+      verify(watermarkRepository).advance(7L, "SALES_FACT", SOURCE, TO, TO, 1L);
+    }
+
+    @Test
+    void should_keepWatermark_when_subSourcePartial() {
+      SubSourceResult partial = SubSourceResult.partial(SOURCE, "100", 2, 5, 1, List.of("err"));
+
+      SubSourceResult result = planner.advance(context("INCREMENTAL"), EtlEventType.SALES_FACT,
+          delta, partial);
+
+      assertThat(result).isSameAs(partial);
+      verify(watermarkRepository, never()).advance(anyLong(), anyString(), anyString(), any(),
+          any(), anyLong());
+    }
+  }
+
+  private static IngestContext context(String jobType) {
+    return IngestContextFixtures.any(1L, 7L, 3L, MarketplaceType.OZON, Map.of(), jobType,
+        EnumSet.allOf(EtlEventType.class), Map.of());
+  }
+}
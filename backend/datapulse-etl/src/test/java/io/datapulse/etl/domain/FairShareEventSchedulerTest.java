@@ -0,0 +1,163 @@
+package io.datapulse.etl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.datapulse.etl.config.FairSchedulerProperties;
+import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class FairShareEventSchedulerTest {
+
+  /** Holds submitted tasks until the test runs them, so admission order is observable. */
+  private final Queue<Runnable> pending = new ArrayDeque<>();
+  private final Executor manual = pending::add;
+  private final List<String> started = new ArrayList<>();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Nested
+  @DisplayName("submit()")
+  class Submit {
+
+    @Test
+    void should_admitIncrementalBeforeBackfill_when_slotFrees() {
+      FairShareEventScheduler scheduler = scheduler(1, 3, 1, 1, Map.of());
+
+      CompletableFuture<EventResult> first = submit(scheduler, 10L, 1L, "FULL_SYNC",
+          EtlEventType.CATEGORY_DICT);
+      CompletableFuture<EventResult> backfill = submit(scheduler, 10L, 1L, "FULL_SYNC",
+          EtlEventType.PRODUCT_DICT);
+      CompletableFuture<EventResult> incremental = submit(scheduler, 20L, 2L, "INCREMENTAL",
+          EtlEventType.SALES_FACT);
+
+      runNext();
+      runNext();
+      runNext();
+
+      assertThat(started).containsExactly("1:CATEGORY_DICT", "2:SALES_FACT", "1:PRODUCT_DICT");
+      assertThat(first).isCompleted();
+      assertThat(backfill).isCompleted();
+      assertThat(incremental).isCompleted();
+    }
+
+    @Test
+    void should_keepSlotsForIncremental_when_backfillCapReached() {
+      FairShareEventScheduler scheduler = scheduler(3, 3, 1, 1, Map.of());
+
+      submit(scheduler, 10L, 1L, "FULL_SYNC", EtlEventType.CATEGORY_DICT);
+      submit(scheduler, 10L, 1L, "FULL_SYNC", EtlEventType.PRODUCT_DICT);
+      submit(scheduler, 20L, 2L, "INCREMENTAL", EtlEventType.SALES_FACT);
+
+      assertThat(pending).hasSize(2);
+      assertThat(registry.get("etl.fair_scheduler.queue_depth").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_limitInFlightPerConnection() {
+      FairShareEventScheduler scheduler = scheduler(4, 1, 4, 1, Map.of());
+
+      submit(scheduler, 10L, 1L, "INCREMENTAL", EtlEventType.CATEGORY_DICT);
+      submit(scheduler, 10L, 1L, "INCREMENTAL", EtlEventType.PRODUCT_DICT);
+      submit(scheduler, 10L, 2L, "INCREMENTAL", EtlEventType.SALES_FACT);
+
+      assertThat(pending).hasSize(2);
+      runNext();
+      runNext();
+      runNext();
+
+      assertThat(started).containsExactly("1:CATEGORY_DICT", "2:SALES_FACT", "1:PRODUCT_DICT");
+    }
+
+    @Test
+    void should_shareSlotsByWorkspaceWeight() {
+      FairShareEventScheduler scheduler = scheduler(1, 8, 1, 1, Map.of(20L, 2));
+
+      submit(scheduler, 10L, 1L, "INCREMENTAL", EtlEventType.CATEGORY_DICT);
+      for (int i = 0; i < 3; i++) {
+        submit(scheduler, 10L, 1L, "INCREMENTAL", EtlEventType.PRODUCT_DICT);
+        submit(scheduler, 20L, 2L, "INCREMENTAL", EtlEventType.SALES_FACT);
+      }
+      for (int i = 0; i < 7; i++) {
+        runNext();
+      }
+
+      // weight 2: workspace 20 is charged half per event, so it runs two for each of 10's
+      assertThat(started).containsExactly(
+          "1:CATEGORY_DICT", "2:SALES_FACT", "2:SALES_FACT", "1:PRODUCT_DICT",
+          "2:SALES_FACT", "1:PRODUCT_DICT", "1:PRODUCT_DICT");
+      assertThat(registry.get("etl.fair_scheduler.dispatched")
+          .tag("workspace_id", "20").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void should_parkAsyncEvent_when_itReturnsBeforeFinishing() {
+      FairShareEventScheduler scheduler = scheduler(1, 3, 1, 1, Map.of());
+      CompletableFuture<EventResult> report = new CompletableFuture<>();
+
+      CompletableFuture<EventResult> parked = scheduler.submitAsync(context(10L, 1L, "FULL_SYNC"),
+          EtlEventType.FACT_FINANCE, () -> report);
+      submit(scheduler, 20L, 2L, "FULL_SYNC", EtlEventType.CATEGORY_DICT);
+
+      runNext();
+
+      assertThat(pending).hasSize(1);
+      assertThat(registry.get("etl.fair_scheduler.parked").gauge().value()).isEqualTo(1.0);
+      assertThat(registry.get("etl.fair_scheduler.in_flight").gauge().value()).isEqualTo(1.0);
+
+      report.complete(EventResult.completed(EtlEventType.FACT_FINANCE, List.of()));
+
+      assertThat(parked).isCompleted();
+      assertThat(registry.get("etl.fair_scheduler.parked").gauge().value()).isEqualTo(0.0);
+    }
+
+    @Test
+    void should_submitDirectly_when_disabled() {
+      FairShareEventScheduler scheduler = new FairShareEventScheduler(manual,
+          new FairSchedulerProperties(false, 1, 1, 1, 4, Map.of()), new MetricsFacade(registry));
+
+      submit(scheduler, 10L, 1L, "FULL_SYNC", EtlEventType.CATEGORY_DICT);
+      submit(scheduler, 10L, 1L, "FULL_SYNC", EtlEventType.PRODUCT_DICT);
+
+      assertThat(pending).hasSize(2);
+    }
+  }
+
+  private FairShareEventScheduler scheduler(int maxInFlight, int perConnection, int maxBackfill,
+                                            int backfillCost, Map<Long, Integer> weights) {
+    return new FairShareEventScheduler(manual,
+        new FairSchedulerProperties(true, maxInFlight, perConnection, maxBackfill, backfillCost,
+            weights),
+        new MetricsFacade(registry));
+  }
+
+  private CompletableFuture<EventResult> submit(FairShareEventScheduler scheduler,
+                                                long workspaceId, long connectionId,
+                                                String jobType, EtlEventType event) {
+    return scheduler.submit(context(workspaceId, connectionId, jobType), event, () -> {
+      started.add(connectionId + ":" + event);
+      return EventResult.completed(event, List.of());
+    });
+  }
+
+  private static IngestContext context(long workspaceId, long connectionId, String jobType) {
+    return IngestContextFixtures.any(
+        1L, connectionId, workspaceId, MarketplaceType.WB, Map.of(), jobType,
+        EnumSet.allOf(EtlEventType.class), Map.of());
+  }
+
+  private void runNext() {
+    pending.remove().run();
+  }
+}
@@ -60,6 +60,7 @@ class IngestOrchestratorTest {
   @Mock private MarketplaceSyncStateRepository marketplaceSyncStateRepository;
   @Mock private MarketplaceConnectionRepository marketplaceConnectionRepository;
   @Mock private org.springframework.context.ApplicationEventPublisher eventPublisher;
+  @Mock private RawPageReplayService replayService;
 
   private IngestOrchestrator orchestrator;
 
@@ -72,7 +73,12 @@ class IngestOrchestratorTest {
       Duration.ofMinutes(15),
       Duration.ofHours(1),
       PostIngestMaterializationMode.SYNC,
-      Duration.ofMinutes(15));
+      Duration.ofMinutes(15),
+      true,
+      4,
+      1,
+      true,
+      4);
 
   private final Clock ingestClock =
       Clock.fixed(Instant.parse("2024-06-15T12:00:00Z"), ZoneOffset.UTC);
@@ -109,7 +115,8 @@ class IngestOrchestratorTest {
         resultReporter,
         acquisition,
         contextBuilder,
-        completion);
+        completion,
+        replayService);
 
     lenient().doAnswer(inv -> {
       Consumer<TransactionStatus> action = inv.getArgument(0);
@@ -151,6 +158,24 @@ class IngestOrchestratorTest {
       verify(postIngestMaterialization).afterSuccessfulIngest(1L);
     }
 
+    @Test
+    void should_routeToReplay_and_skipDag_when_replayJob() {
+      JobExecutionRow job = buildJob(1L, "PENDING");
+      job.setEventType(RawPageReplayService.REPLAY_EVENT_TYPE);
+      job.setParams("{\"domains\":[\"FACT_FINANCE\"]}");
+      when(jobExecutionRepository.findById(1L)).thenReturn(Optional.of(job));
+      when(jobExecutionRepository.casStatus(1L, JobExecutionStatus.PENDING,
+          JobExecutionStatus.IN_PROGRESS)).thenReturn(true);
+      when(credentialResolver.resolve(100L)).thenReturn(buildCredentials());
+      when(checkpointManager.parse(any())).thenReturn(Map.of());
+
+      orchestrator.processSync(1L);
+
+      verify(replayService).replay(eq(job), any());
+      verify(dagExecutor, never()).execute(any());
+      verify(resultReporter, never()).recordSuccessfulTerminalSync(any(), anyLong(), any());
+    }
+
     @Test
     void should_completeWithErrors_when_materializationFailsAfterCleanIngest() {
       JobExecutionRow job = buildJob(1L, "PENDING");
@@ -402,7 +427,12 @@ class IngestOrchestratorTest {
           Duration.ofMinutes(15),
           Duration.ofHours(1),
           PostIngestMaterializationMode.ASYNC_OUTBOX,
-          Duration.ofMinutes(15));
+          Duration.ofMinutes(15),
+          true,
+          4,
+          1,
+          true,
+          4);
       IngestJobAcquisitionService acquisition =
           new IngestJobAcquisitionService(jobExecutionRepository, asyncProps, ingestClock);
       IngestSyncContextBuilder contextBuilder =
@@ -430,7 +460,8 @@ class IngestOrchestratorTest {
           resultReporter,
           acquisition,
           contextBuilder,
-          completion);
+          completion,
+          replayService);
     }
 
     @Test
@@ -60,7 +60,12 @@ class IngestResultReporterReconcileTest {
             Duration.ofMinutes(15),
             Duration.ofHours(1),
             PostIngestMaterializationMode.SYNC,
-            Duration.ofMinutes(15));
+            Duration.ofMinutes(15),
+            true,
+            4,
+            1,
+            true,
+            4);
     Clock clock = Clock.fixed(Instant.parse("2024-06-15T12:00:00Z"), ZoneOffset.UTC);
     reporter =
         new IngestResultReporter(
@@ -52,7 +52,12 @@ class IngestSyncContextBuilderTest {
       Duration.ofMinutes(15),
       Duration.ofHours(1),
       PostIngestMaterializationMode.SYNC,
-      Duration.ofMinutes(15));
+      Duration.ofMinutes(15),
+      true,
+      4,
+      1,
+      true,
+      4);
 
   private IngestSyncContextBuilder builder;
 
@@ -0,0 +1,49 @@
+package io.datapulse.etl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class PageDedupScopeTest {
+
+  private static final String S3_KEY = "raw/9/PRICE_SNAPSHOT/WbPricesReadAdapter/req-1/page-3.json";
+
+  @Test
+  void should_useContentSha_when_noDependencyVersion() {
+    var page = new CaptureResult(1L, S3_KEY, "abc", 10L);
+
+    assertThat(scope(null).fingerprint(page)).isEqualTo("abc");
+  }
+
+  @Test
+  void should_changeFingerprint_when_dependencyVersionChanges() {
+    var page = new CaptureResult(1L, S3_KEY, "abc", 10L);
+
+    assertThat(scope("100").fingerprint(page))
+        .hasSize(64)
+        .isNotEqualTo("abc")
+        .isNotEqualTo(scope("101").fingerprint(page));
+  }
+
+  @Test
+  void should_ignoreRequestId_in_pageIdentity() {
+    var first = new CaptureResult(1L, S3_KEY, "abc", 10L);
+    var next = new CaptureResult(2L, S3_KEY.replace("req-1", "req-2"), "abc", 10L);
+
+    assertThat(PageDedupScope.pageIdentity(first))
+        .isEqualTo(PageDedupScope.pageIdentity(next))
+        .isEqualTo("page-3.json");
+  }
+
+  @Test
+  void should_includeResumeKey_in_pageIdentity() {
+    var page = new CaptureResult(1L, S3_KEY, "abc", 10L, null, " 1200 ");
+
+    assertThat(PageDedupScope.pageIdentity(page)).isEqualTo("page-3.json|1200");
+  }
+
+  private static PageDedupScope scope(String dependencyVersion) {
+    return new PageDedupScope(
+        9L, EtlEventType.PRICE_SNAPSHOT, "WbPricesReadAdapter", false, dependencyVersion);
+  }
+}
@@ -0,0 +1,272 @@
+package io.datapulse.etl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.datapulse.etl.persistence.JobExecutionRepository;
+import io.datapulse.etl.persistence.JobExecutionRow;
+import io.datapulse.etl.persistence.JobItemRepository;
+import io.datapulse.etl.persistence.JobItemRow;
+import io.datapulse.integration.domain.MarketplaceType;
+import io.datapulse.platform.etl.PostIngestMaterializationHook;
+import io.datapulse.platform.etl.PostIngestMaterializationResult;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class RawPageReplayServiceTest {
+
+  private static final OffsetDateTime FROM = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+  private static final OffsetDateTime TO = OffsetDateTime.parse("2025-02-01T00:00:00Z");
+  private static final String PARAMS =
+      "{\"domains\":[\"FACT_FINANCE\",\"SALES_FACT\"],\"from\":\"2025-01-01T00:00Z\","
+          + "\"to\":\"2025-02-01T00:00Z\",\"trigger\":\"replay\"}";
+
+  @Mock private JobExecutionRepository jobExecutionRepository;
+  @Mock private JobItemRepository jobItemRepository;
+  @Mock private EventSourceRegistry sourceRegistry;
+  @Mock private PostIngestMaterializationHook postIngestMaterialization;
+  @Mock private IngestResultReporter resultReporter;
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private ReplayableEventSource financeSource;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private RawPageReplayService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new RawPageReplayService(jobExecutionRepository, jobItemRepository, sourceRegistry,
+        postIngestMaterialization, resultReporter, transactionTemplate,
+        new ObjectMapper(), new MetricsFacade(registry), Runnable::run);
+
+    lenient().doAnswer(inv -> {
+      Consumer<TransactionStatus> action = inv.getArgument(0);
+      action.accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+    lenient().when(resultReporter.buildErrorDetails(any())).thenReturn("{}");
+    lenient().when(resultReporter.mergeMaterializationIntoErrorDetails(anyString(), any()))
+        .thenAnswer(inv -> inv.getArgument(0));
+    lenient().when(sourceRegistry.resolve(MarketplaceType.OZON, EtlEventType.FACT_FINANCE))
+        .thenReturn(Optional.of(financeSource));
+    lenient().when(financeSource.replayableSourceIds())
+        .thenReturn(Set.of("OzonFinanceReadAdapter"));
+  }
+
+  @Nested
+  @DisplayName("replay()")
+  class Replay {
+
+    @Test
+    void should_replayEachSourceJobsPagesInOneCall_and_materializeOnce() {
+      stubItems("FACT_FINANCE", List.of(
+          page(1L, 11L, "FACT_FINANCE", "OzonFinanceReadAdapter"),
+          page(2L, 11L, "FACT_FINANCE", "OzonFinanceReadAdapter"),
+          page(3L, 12L, "FACT_FINANCE", "OzonFinanceReadAdapter")));
+      stubItems("SALES_FACT", List.of());
+      when(financeSource.replay(any(), eq("OzonFinanceReadAdapter"), any()))
+          .thenAnswer(inv -> {
+            List<CaptureResult> pages = inv.getArgument(2);
+            return SubSourceResult.success("OzonFinanceReadAdapter", pages.size(),
+                10 * pages.size());
+          });
+      when(postIngestMaterialization.afterSuccessfulIngest(77L))
+          .thenReturn(PostIngestMaterializationResult.ok());
+
+      service.replay(replayJob(), context());
+
+      ArgumentCaptor<List<CaptureResult>> pages = pagesCaptor();
+      InOrder order = inOrder(financeSource, postIngestMaterialization);
+      order.verify(financeSource, times(2))
+          .replay(any(), eq("OzonFinanceReadAdapter"), pages.capture());
+      order.verify(postIngestMaterialization).afterSuccessfulIngest(77L);
+      assertThat(pages.getAllValues())
+          .map(call -> call.stream().map(CaptureResult::jobItemId).toList())
+          .containsExactly(List.of(1L, 2L), List.of(3L));
+
+      Map<EtlEventType, EventResult> results = resultsCaptor();
+      SubSourceResult finance = results.get(EtlEventType.FACT_FINANCE).subSourceResults().get(0);
+      assertThat(finance.pagesProcessed()).isEqualTo(3);
+      assertThat(finance.recordsProcessed()).isEqualTo(30);
+      assertThat(results.get(EtlEventType.SALES_FACT).isSkipped()).isTrue();
+      verify(jobExecutionRepository).casStatus(
+          77L, JobExecutionStatus.MATERIALIZING, JobExecutionStatus.COMPLETED);
+      verify(resultReporter, never()).recordSuccessfulTerminalSync(any(), anyLong(), any());
+    }
+
+    @Test
+    void should_readItemsInKeysetBatches_when_eventHasMorePagesThanOneBatch() {
+      OffsetDateTime lastCapturedAt = FROM.plusHours(5);
+      List<JobItemRow> fullBatch = LongStream
+          .rangeClosed(1, RawPageReplayService.ITEM_BATCH_SIZE)
+          .mapToObj(id -> page(id, 11L, "FACT_FINANCE", "OzonFinanceReadAdapter"))
+          .toList();
+      fullBatch.get(fullBatch.size() - 1).setCapturedAt(lastCapturedAt);
+      when(jobItemRepository.findForReplay(100L, "FACT_FINANCE", FROM, TO, FROM, 0L,
+          RawPageReplayService.ITEM_BATCH_SIZE)).thenReturn(fullBatch);
+      when(jobItemRepository.findForReplay(100L, "FACT_FINANCE", FROM, TO, lastCapturedAt,
+          (long) RawPageReplayService.ITEM_BATCH_SIZE, RawPageReplayService.ITEM_BATCH_SIZE))
+          .thenReturn(List.of(page(1000L, 11L, "FACT_FINANCE", "OzonFinanceReadAdapter")));
+      stubItems("SALES_FACT", List.of());
+      when(financeSource.replay(any(), any(), any()))
+          .thenReturn(SubSourceResult.success("OzonFinanceReadAdapter", 1, 10));
+      when(postIngestMaterialization.afterSuccessfulIngest(77L))
+          .thenReturn(PostIngestMaterializationResult.ok());
+
+      service.replay(replayJob(), context());
+
+      verify(financeSource, times(2)).replay(any(), any(), any());
+      assertThat(registry.get("etl.replay.pages").tag("outcome", "replayed")
+          .counter().count()).isEqualTo(RawPageReplayService.ITEM_BATCH_SIZE + 1.0);
+    }
+
+    @Test
+    void should_countUnsupportedPages_and_failJob_when_nothingReplayable() {
+      stubItems("FACT_FINANCE", List.of());
+      stubItems("SALES_FACT", List.of(page(1L, 11L, "SALES_FACT", "OzonFboPostingsReadAdapter")));
+
+      service.replay(replayJob(), context());
+
+      verify(postIngestMaterialization, never()).afterSuccessfulIngest(anyLong());
+      verify(jobExecutionRepository).casStatus(
+          77L, JobExecutionStatus.IN_PROGRESS, JobExecutionStatus.FAILED);
+      assertThat(registry.get("etl.replay.pages").tag("outcome", "unsupported")
+          .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_completeWithErrors_when_oneSourceJobFails() {
+      stubItems("FACT_FINANCE", List.of(
+          page(1L, 11L, "FACT_FINANCE", "OzonFinanceReadAdapter"),
+          page(2L, 12L, "FACT_FINANCE", "OzonFinanceReadAdapter")));
+      stubItems("SALES_FACT", List.of());
+      when(financeSource.replay(any(), any(), any()))
+          .thenReturn(SubSourceResult.success("OzonFinanceReadAdapter", 1, 10))
+          .thenThrow(new IllegalStateException("corrupt page"));
+      when(postIngestMaterialization.afterSuccessfulIngest(77L))
+          .thenReturn(PostIngestMaterializationResult.ok());
+
+      service.replay(replayJob(), context());
+
+      verify(jobExecutionRepository).casStatus(
+          77L, JobExecutionStatus.MATERIALIZING, JobExecutionStatus.COMPLETED_WITH_ERRORS);
+      assertThat(registry.get("etl.replay.pages").tag("outcome", "failed")
+          .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_completeImmediately_when_noPagesInRange() {
+      stubItems("FACT_FINANCE", List.of());
+      stubItems("SALES_FACT", List.of());
+
+      service.replay(replayJob(), context());
+
+      verify(jobExecutionRepository).casStatus(
+          77L, JobExecutionStatus.IN_PROGRESS, JobExecutionStatus.COMPLETED);
+      verify(postIngestMaterialization, never()).afterSuccessfulIngest(anyLong());
+    }
+  }
+
+  @Nested
+  @DisplayName("merge()")
+  class Merge {
+
+    @Test
+    void should_failSubSource_only_when_allPagesFailed() {
+      SubSourceResult merged = RawPageReplayService.merge("src", List.of(
+          SubSourceResult.failed("src", "a"), SubSourceResult.failed("src", "b")));
+
+      assertThat(merged.status()).isEqualTo(EventResultStatus.FAILED);
+      assertThat(merged.errors()).containsExactly("a", "b");
+    }
+
+    @Test
+    void should_sumRecords_and_unionUnmappedTypes() {
+      SubSourceResult merged = RawPageReplayService.merge("src", List.of(
+          SubSourceResult.successWithWarnings("src", 1, 5, Set.of("X")),
+          SubSourceResult.successWithWarnings("src", 1, 7, Set.of("Y"))));
+
+      assertThat(merged.status()).isEqualTo(EventResultStatus.COMPLETED);
+      assertThat(merged.pagesProcessed()).isEqualTo(2);
+      assertThat(merged.recordsProcessed()).isEqualTo(12);
+      assertThat(merged.unmappedTypeNames()).containsExactlyInAnyOrder("X", "Y");
+    }
+  }
+
+  private void stubItems(String event, List<JobItemRow> items) {
+    when(jobItemRepository.findForReplay(100L, event, FROM, TO, FROM, 0L,
+        RawPageReplayService.ITEM_BATCH_SIZE)).thenReturn(items);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ArgumentCaptor<List<CaptureResult>> pagesCaptor() {
+    return ArgumentCaptor.forClass(List.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<EtlEventType, EventResult> resultsCaptor() {
+    ArgumentCaptor<Map<EtlEventType, EventResult>> captor = ArgumentCaptor.forClass(Map.class);
+    verify(resultReporter).buildErrorDetails(captor.capture());
+    return captor.getValue();
+  }
+
+  private static JobExecutionRow replayJob() {
+    return JobExecutionRow.builder()
+        .id(77L)
+        .connectionId(100L)
+        .eventType(RawPageReplayService.REPLAY_EVENT_TYPE)
+        .status("IN_PROGRESS")
+        .params(PARAMS)
+        .build();
+  }
+
+  private static IngestContext context() {
+    return IngestContextFixtures.any(77L, 100L, 1L, MarketplaceType.OZON, Map.of(),
+        RawPageReplayService.REPLAY_EVENT_TYPE,
+        EnumSet.of(EtlEventType.FACT_FINANCE, EtlEventType.SALES_FACT), Map.of());
+  }
+
+  private static JobItemRow page(long id, long jobExecutionId, String event, String sourceId) {
+    return JobItemRow.builder()
+        .id(id)
+        .jobExecutionId(jobExecutionId)
+        .sourceId(sourceId)
+        .s3Key("raw/100/%s/%s/req/page-%d.json".formatted(event, sourceId, id))
+        .contentSha256("sha-" + id)
+        .byteSize(100L)
+        .status("PROCESSED")
+        .build();
+  }
+}
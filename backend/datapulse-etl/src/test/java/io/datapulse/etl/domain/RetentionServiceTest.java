@@ -0,0 +1,192 @@
+package io.datapulse.etl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import io.datapulse.etl.config.RetentionProperties;
+import io.datapulse.etl.config.S3Properties;
+import io.datapulse.etl.persistence.JobItemRepository;
+import io.datapulse.etl.persistence.JobItemRepository.StateRunCutoff;
+import io.datapulse.etl.persistence.JobItemRow;
+import io.datapulse.etl.persistence.RetentionProgressRepository;
+import io.datapulse.etl.persistence.RetentionProgressRepository.RetentionCursor;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.SetBucketLifecycleArgs;
+import io.minio.messages.DeleteResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T03:00:00Z");
+  private static final OffsetDateTime OLD = OffsetDateTime.parse("2024-01-10T10:00:00Z");
+
+  @Mock private MinioClient minioClient;
+  @Mock private JobItemRepository jobItemRepository;
+  @Mock private RetentionProgressRepository progressRepository;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Nested
+  @DisplayName("runRetention()")
+  class RunRetention {
+
+    @Test
+    void should_deleteInMultiObjectBatches_andMarkExpired() {
+      // other events query with their own type and get the default empty page
+      lenient().when(jobItemRepository.findForTimeRetention(eq("FACT_FINANCE"), any(), any(), anyLong(),
+          anyInt())).thenReturn(List.of(item(1L), item(2L), item(3L)));
+      when(minioClient.removeObjects(any())).thenReturn(List.of());
+
+      service(2, Duration.ofMinutes(50), false).runRetention();
+
+      ArgumentCaptor<RemoveObjectsArgs> args = ArgumentCaptor.forClass(RemoveObjectsArgs.class);
+      verify(minioClient, times(2)).removeObjects(args.capture());
+      assertThat(args.getAllValues()).allSatisfy(a -> assertThat(a.bucket()).isEqualTo("raw"));
+      verify(jobItemRepository).markExpired(List.of(1L, 2L, 3L));
+      verify(progressRepository).save("finance/FACT_FINANCE", new RetentionCursor(OLD, 3L));
+      verify(progressRepository).clear("finance/FACT_FINANCE");
+      assertThat(registry.get("etl.retention.objects_deleted")
+          .tag("category", "finance/FACT_FINANCE").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void should_keepItemPending_when_deleteReportsError() {
+      lenient().when(jobItemRepository.findForTimeRetention(eq("SALES_FACT"), any(), any(), anyLong(),
+          anyInt())).thenReturn(List.of(item(1L), item(2L)));
+      DeleteResult.Error error = mock(DeleteResult.Error.class);
+      when(error.objectName()).thenReturn(key(2L));
+      when(minioClient.removeObjects(any())).thenReturn(List.of(new Result<>(error)));
+
+      service(1000, Duration.ofMinutes(50), false).runRetention();
+
+      verify(jobItemRepository).markExpired(List.of(1L));
+      assertThat(registry.get("etl.retention.delete_failures")
+          .tag("category", "flow/SALES_FACT").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void should_selectStateItemsByEventType_fromPersistedCursor() {
+      RetentionCursor cursor = new RetentionCursor(OLD, 42L);
+      List<StateRunCutoff> cutoffs = List.of(new StateRunCutoff("7", 100L));
+      lenient().when(progressRepository.find("state/PRODUCT_DICT")).thenReturn(Optional.of(cursor));
+      lenient().when(jobItemRepository.findStateRunCutoffs("PRODUCT_DICT", 3)).thenReturn(cutoffs);
+
+      service(1000, Duration.ofMinutes(50), false).runRetention();
+
+      verify(jobItemRepository).findExcessStateItems("PRODUCT_DICT", cutoffs, OLD, 42L, 5000);
+      verify(progressRepository).clear("state/PRODUCT_DICT");
+    }
+
+    @Test
+    void should_lookUpStateCutoffsOnce_when_passSpansSeveralPages() {
+      List<StateRunCutoff> cutoffs = List.of(new StateRunCutoff("7", 100L));
+      lenient().when(jobItemRepository.findStateRunCutoffs("PRODUCT_DICT", 3)).thenReturn(cutoffs);
+      lenient().when(jobItemRepository.findExcessStateItems(eq("PRODUCT_DICT"), eq(cutoffs), any(),
+          anyLong(), anyInt()))
+          .thenReturn(fullPage(1L))
+          .thenReturn(fullPage(5001L))
+          .thenReturn(List.of());
+      when(minioClient.removeObjects(any())).thenReturn(List.of());
+
+      service(1000, Duration.ofMinutes(50), false).runRetention();
+
+      verify(jobItemRepository, times(1)).findStateRunCutoffs("PRODUCT_DICT", 3);
+      verify(jobItemRepository, times(3)).findExcessStateItems(eq("PRODUCT_DICT"), eq(cutoffs),
+          any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void should_stopAndKeepCursor_when_budgetExhausted() {
+      service(1000, Duration.ZERO, false).runRetention();
+
+      verify(jobItemRepository, never()).findForTimeRetention(anyString(), any(), any(),
+          anyLong(), anyInt());
+      verify(jobItemRepository, never()).findExcessStateItems(anyString(), anyList(), any(),
+          anyLong(), anyInt());
+      verify(progressRepository, never()).clear(anyString());
+    }
+
+    @Test
+    void should_installLifecycleRules_when_enabled() throws Exception {
+      service(1000, Duration.ofMinutes(50), true).runRetention();
+
+      ArgumentCaptor<SetBucketLifecycleArgs> args =
+          ArgumentCaptor.forClass(SetBucketLifecycleArgs.class);
+      verify(minioClient).setBucketLifecycle(args.capture());
+      assertThat(args.getValue().config().rules())
+          .extracting(rule -> rule.id(), rule -> rule.expiration().days(),
+              rule -> rule.filter().tag().value())
+          .contains(
+              tuple("raw-expire-FACT_FINANCE", 12 * 31, "FACT_FINANCE"),
+              tuple("raw-expire-SALES_FACT", 6 * 31, "SALES_FACT"));
+    }
+
+    @Test
+    void should_notTouchLifecycle_when_disabled() throws Exception {
+      service(1000, Duration.ofMinutes(50), false).runRetention();
+
+      verify(minioClient, never()).setBucketLifecycle(any());
+    }
+  }
+
+  private RetentionService service(int deleteBatchSize, Duration maxRunDuration,
+                                   boolean lifecycleRules) {
+    return new RetentionService(minioClient, new S3Properties("http://s3", "a", "s", "raw"),
+        new RetentionProperties(12, 6, 3, 5000, deleteBatchSize, maxRunDuration, lifecycleRules),
+        jobItemRepository, progressRepository, Runnable::run,
+        new MetricsFacade(registry), Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  /** A scan page of 5000 items (the scan batch size) with consecutive ids from {@code firstId}. */
+  private static List<JobItemRow> fullPage(long firstId) {
+    return LongStream.range(firstId, firstId + 5000)
+        .mapToObj(RetentionServiceTest::item)
+        .toList();
+  }
+
+  private static JobItemRow item(long id) {
+    return JobItemRow.builder()
+        .id(id)
+        .s3Key(key(id))
+        .byteSize(100L)
+        .status("PROCESSED")
+        .capturedAt(OLD)
+        .build();
+  }
+
+  private static String key(long id) {
+    return "raw/7/EVENT/source/req/page-" + id + ".json";
+  }
+}
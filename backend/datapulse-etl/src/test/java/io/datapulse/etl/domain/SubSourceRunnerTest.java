@@ -1,17 +1,35 @@
 package io.datapulse.etl.domain;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
-import io.datapulse.etl.persistence.JobItemRepository;
+import io.datapulse.etl.config.IngestProperties;
+import io.datapulse.etl.persistence.JobItemWriteBuffer;
+import io.datapulse.etl.persistence.RawPageFingerprintRepository;
+import io.datapulse.etl.persistence.RawPageFingerprintRepository.RawPageFingerprint;
+import io.datapulse.platform.observability.MetricsFacade;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -24,7 +42,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class SubSourceRunnerTest {
 
   @Mock private RawPageReader rawPageReader;
-  @Mock private JobItemRepository jobItemRepository;
+  @Mock private JobItemWriteBuffer jobItemBuffer;
+  @Mock private RawPageFingerprintRepository fingerprintRepository;
+  @Mock private MetricsFacade metrics;
   @InjectMocks private SubSourceRunner runner;
 
   @Nested
@@ -118,7 +138,7 @@ class SubSourceRunnerTest {
 
       runner.processPages("TestSource", pages, String.class, batch -> {});
 
-      verify(jobItemRepository).updateStatus(10L, JobItemStatus.PROCESSED);
+      verify(jobItemBuffer).markStatus(10L, JobItemStatus.PROCESSED);
     }
 
     @Test
@@ -131,7 +151,7 @@ class SubSourceRunnerTest {
 
       runner.processPages("TestSource", pages, String.class, batch -> {});
 
-      verify(jobItemRepository).updateStatus(10L, JobItemStatus.FAILED);
+      verify(jobItemBuffer).markStatus(10L, JobItemStatus.FAILED);
     }
 
     @Test
@@ -149,7 +169,7 @@ class SubSourceRunnerTest {
       assertThat(result.lastCursor()).isEqualTo("500");
       assertThat(result.errors()).hasSize(1);
 
-      verify(jobItemRepository).updateStatus(10L, JobItemStatus.FAILED);
+      verify(jobItemBuffer).markStatus(10L, JobItemStatus.FAILED);
     }
 
     @Test
@@ -172,7 +192,418 @@ class SubSourceRunnerTest {
       assertThat(result.recordsProcessed()).isEqualTo(2);
       assertThat(result.recordsSkipped()).isEqualTo(1);
 
-      verify(jobItemRepository).updateStatus(10L, JobItemStatus.FAILED);
+      verify(jobItemBuffer).markStatus(10L, JobItemStatus.FAILED);
+    }
+  }
+
+  @Nested
+  @DisplayName("replayPages()")
+  class ReplayPages {
+
+    private final CaptureResult page1 = new CaptureResult(10L, "s3://bucket/key1", "sha256", 1024L);
+    private final CaptureResult page2 = new CaptureResult(11L, "s3://bucket/key2", "sha256", 1024L);
+
+    @Mock private IngestProperties ingestProperties;
+
+    private SubSourceRunner replayRunner(Executor replayExecutor) {
+      when(ingestProperties.replayPagesInFlight()).thenReturn(2);
+      return new SubSourceRunner(rawPageReader, jobItemBuffer, ingestProperties, Runnable::run,
+          replayExecutor, fingerprintRepository, metrics);
+    }
+
+    @Test
+    void should_processPagesInOrder_without_touchingJobItems() {
+      stubReadBatched("s3://bucket/key1", List.of("r1", "r2"));
+      doThrow(new RuntimeException("Read error"))
+          .when(rawPageReader).readBatched(eq("s3://bucket/key2"), eq(String.class), any());
+      List<String> seen = new ArrayList<>();
+
+      SubSourceResult result = replayRunner(Runnable::run).replayPages(
+          "TestSource", List.of(page1, page2), String.class, batch -> batch, seen::addAll);
+
+      assertThat(seen).containsExactly("r1", "r2");
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED_WITH_ERRORS);
+      assertThat(result.pagesProcessed()).isEqualTo(2);
+      verify(jobItemBuffer, never()).markStatus(anyLong(), any());
+    }
+
+    @Test
+    void should_applyInPageOrder_when_laterPagePreparedFirst() {
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+      stubReadBatched("s3://bucket/key2", List.of("r2"));
+      CountDownLatch secondPrepared = new CountDownLatch(1);
+      List<String> prepared = Collections.synchronizedList(new ArrayList<>());
+      List<String> applied = new ArrayList<>();
+
+      SubSourceResult result = replayRunner(task -> new Thread(task).start()).replayPages(
+          "TestSource", List.of(page1, page2), String.class,
+          batch -> {
+            if (batch.contains("r1")) {
+              awaitQuietly(secondPrepared);
+            }
+            prepared.addAll(batch);
+            if (batch.contains("r2")) {
+              secondPrepared.countDown();
+            }
+            return batch;
+          },
+          applied::addAll);
+
+      assertThat(prepared).containsExactly("r2", "r1");
+      assertThat(applied).containsExactly("r1", "r2");
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED);
+      assertThat(result.recordsProcessed()).isEqualTo(2);
+    }
+
+    @Test
+    void should_preparePageOnApplyingThread_when_executorNeverRunsIt() {
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+      stubReadBatched("s3://bucket/key2", List.of("r2"));
+      List<String> applied = new ArrayList<>();
+
+      SubSourceResult result = replayRunner(task -> { }).replayPages(
+          "TestSource", List.of(page1, page2), String.class, batch -> batch, applied::addAll);
+
+      assertThat(applied).containsExactly("r1", "r2");
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED);
+    }
+
+    @Test
+    void should_failPage_when_applyFailsForBatch() {
+      stubReadBatchedTwoBatches("s3://bucket/key1", List.of("r1"), List.of("r2", "r3"));
+
+      SubSourceResult result = replayRunner(Runnable::run).replayPages(
+          "TestSource", List.of(page1), String.class, batch -> batch,
+          batch -> {
+            if (batch.size() > 1) {
+              throw new RuntimeException("UPSERT failed");
+            }
+          });
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED_WITH_ERRORS);
+      assertThat(result.recordsProcessed()).isEqualTo(1);
+      assertThat(result.recordsSkipped()).isEqualTo(2);
+      assertThat(result.errors()).singleElement().asString()
+          .contains("Batch processing partially failed: processed=1, skipped=2");
+    }
+  }
+
+  @Nested
+  @DisplayName("processPages() with PageDedupScope")
+  class PageDedup {
+
+    private final CaptureResult page =
+        new CaptureResult(7L, "raw/9/PRODUCT_DICT/WbCatalogReadAdapter/req/page-1.json",
+            "abc", 4096L);
+
+    @Mock private IngestProperties ingestProperties;
+
+    private SubSourceRunner dedupRunner;
+
+    @BeforeEach
+    void setUp() {
+      dedupRunner = new SubSourceRunner(rawPageReader, jobItemBuffer, ingestProperties,
+          Runnable::run, Runnable::run, fingerprintRepository, metrics);
+      when(ingestProperties.rawPageDedupEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void should_markProcessedWithoutReading_when_fingerprintUnchanged() {
+      stubKnown(Map.of("page-1.json", new RawPageFingerprint("abc", 12)));
+
+      SubSourceResult result = dedupRunner.processPages(
+          "WbCatalogReadAdapter", List.of(page), String.class, batch -> {}, scope(false));
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED);
+      assertThat(result.pagesProcessed()).isEqualTo(1);
+      verify(rawPageReader, never()).readBatched(anyString(), eq(String.class), any());
+      verify(jobItemBuffer).markStatus(7L, JobItemStatus.PROCESSED);
+      verify(metrics).incrementCounter("etl.raw_page_dedup.skipped_bytes", 4096.0,
+          "event", "PRODUCT_DICT", "source_id", "WbCatalogReadAdapter");
+      verify(metrics).incrementCounter("etl.raw_page_dedup.skipped_records", 12.0,
+          "event", "PRODUCT_DICT", "source_id", "WbCatalogReadAdapter");
+    }
+
+    @Test
+    void should_processAndRemember_when_fingerprintChanged() {
+      stubKnown(Map.of("page-1.json", new RawPageFingerprint("old", 12)));
+      stubReadBatched(page.s3Key(), List.of("r1", "r2"));
+
+      SubSourceResult result = dedupRunner.processPages(
+          "WbCatalogReadAdapter", List.of(page), String.class, batch -> {}, scope(false));
+
+      assertThat(result.recordsProcessed()).isEqualTo(2);
+      verify(fingerprintRepository).upsert(9L, "PRODUCT_DICT", "WbCatalogReadAdapter",
+          "page-1.json", new RawPageFingerprint("abc", 2), 7L);
+    }
+
+    @Test
+    void should_processUnchangedPage_when_forceRefresh() {
+      stubKnown(Map.of("page-1.json", new RawPageFingerprint("abc", 1)));
+      stubReadBatched(page.s3Key(), List.of("r1"));
+
+      SubSourceResult result = dedupRunner.processPages(
+          "WbCatalogReadAdapter", List.of(page), String.class, batch -> {}, scope(true));
+
+      assertThat(result.recordsProcessed()).isEqualTo(1);
+      verify(fingerprintRepository, never()).upsert(
+          any(Long.class), anyString(), anyString(), anyString(), any(), any(Long.class));
+    }
+
+    @Test
+    void should_forgetFingerprint_when_pageFails() {
+      stubKnown(Map.of("page-1.json", new RawPageFingerprint("old", 3)));
+      stubReadBatched(page.s3Key(), List.of("r1"));
+
+      dedupRunner.processPages("WbCatalogReadAdapter", List.of(page), String.class,
+          batch -> { throw new RuntimeException("UPSERT error"); }, scope(false));
+
+      verify(fingerprintRepository).delete(9L, "PRODUCT_DICT", "WbCatalogReadAdapter",
+          "page-1.json");
+    }
+
+    private PageDedupScope scope(boolean forceRefresh) {
+      return new PageDedupScope(
+          9L, EtlEventType.PRODUCT_DICT, "WbCatalogReadAdapter", forceRefresh, null);
+    }
+
+    private void stubKnown(Map<String, RawPageFingerprint> known) {
+      when(fingerprintRepository.findBySource(9L, "PRODUCT_DICT", "WbCatalogReadAdapter"))
+          .thenReturn(new HashMap<>(known));
+    }
+  }
+
+  @Nested
+  @DisplayName("streamPages()")
+  class StreamPages {
+
+    private final CaptureContext captureContext =
+        new CaptureContext(1L, 9L, EtlEventType.SALES_FACT, "TestSource", "req");
+    private final Executor threadPerTask = task -> new Thread(task).start();
+
+    @Mock private IngestProperties ingestProperties;
+
+    private SubSourceRunner streamingRunner(Executor executor) {
+      return new SubSourceRunner(rawPageReader, jobItemBuffer, ingestProperties, executor,
+          Runnable::run, fingerprintRepository, metrics);
+    }
+
+    @Test
+    void should_processPage_before_captureCompletes() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(true);
+      when(ingestProperties.capturePipelineQueuePages()).thenReturn(1);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L);
+      CaptureResult page2 = new CaptureResult(2L, "s3://bucket/key2", "sha256", 2048L);
+      stubReadBatched("s3://bucket/key1", List.of("r1", "r2"));
+      stubReadBatched("s3://bucket/key2", List.of("r3"));
+      CountDownLatch firstPageProcessed = new CountDownLatch(1);
+
+      SubSourceResult result = streamingRunner(threadPerTask).streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            ctx.pageListener().onPageCaptured(page1);
+            awaitLatch(firstPageProcessed);
+            ctx.pageListener().onPageCaptured(page2);
+            return List.of(page1, page2);
+          },
+          String.class,
+          batch -> firstPageProcessed.countDown());
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED);
+      assertThat(result.pagesProcessed()).isEqualTo(2);
+      assertThat(result.recordsProcessed()).isEqualTo(3);
+      verify(jobItemBuffer).markStatus(1L, JobItemStatus.PROCESSED);
+      verify(jobItemBuffer).markStatus(2L, JobItemStatus.PROCESSED);
+    }
+
+    @Test
+    void should_keepFirstFailureResumeToken_when_pageFails() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(true);
+      when(ingestProperties.capturePipelineQueuePages()).thenReturn(4);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L, 0L, null);
+      CaptureResult page2 = new CaptureResult(2L, "s3://bucket/key2", "sha256", 1024L, 1000L, null);
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+      doThrow(new RuntimeException("S3 error"))
+          .when(rawPageReader).readBatched(eq("s3://bucket/key2"), eq(String.class), any());
+
+      SubSourceResult result = streamingRunner(threadPerTask).streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            ctx.pageListener().onPageCaptured(page1);
+            ctx.pageListener().onPageCaptured(page2);
+            return List.of(page1, page2);
+          },
+          String.class,
+          batch -> {});
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED_WITH_ERRORS);
+      assertThat(result.lastCursor()).isEqualTo("1000");
+      verify(jobItemBuffer).markStatus(2L, JobItemStatus.FAILED);
+    }
+
+    @Test
+    void should_processCapturedPages_and_rethrow_when_captureFails() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(true);
+      when(ingestProperties.capturePipelineQueuePages()).thenReturn(4);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L);
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+      SubSourceRunner streaming = streamingRunner(threadPerTask);
+
+      assertThatThrownBy(() -> streaming.streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            ctx.pageListener().onPageCaptured(page1);
+            throw new IllegalStateException("API error");
+          },
+          String.class,
+          batch -> {}))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessage("API error");
+
+      verify(jobItemBuffer).markStatus(1L, JobItemStatus.PROCESSED);
+    }
+
+    @Test
+    void should_rethrowCaptureFailure_when_consumerAlsoDied() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(true);
+      when(ingestProperties.capturePipelineQueuePages()).thenReturn(1);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L);
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+      doThrow(new IllegalStateException("job_item buffer closed"))
+          .when(jobItemBuffer).markStatus(eq(1L), any());
+      SubSourceRunner streaming = streamingRunner(threadPerTask);
+
+      assertThatThrownBy(() -> streaming.streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            ctx.pageListener().onPageCaptured(page1);
+            throw new IllegalStateException("API error");
+          },
+          String.class,
+          batch -> {}))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessage("API error")
+          .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+    }
+
+    @Test
+    void should_returnResumeToken_when_captureFailsResumably() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(true);
+      when(ingestProperties.capturePipelineQueuePages()).thenReturn(4);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L,
+          null, "w0/2:1");
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+
+      SubSourceResult result = streamingRunner(threadPerTask).streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            ctx.pageListener().onPageCaptured(page1);
+            throw new ResumableCaptureException("window 2 failed",
+                new IllegalStateException("API error"), List.of(page1), "w1/2:3");
+          },
+          String.class,
+          batch -> {});
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED_WITH_ERRORS);
+      assertThat(result.recordsProcessed()).isEqualTo(1);
+      assertThat(result.lastCursor()).isEqualTo("w1/2:3");
+      verify(jobItemBuffer).markStatus(1L, JobItemStatus.PROCESSED);
+    }
+
+    @Test
+    void should_processCapturedPages_when_captureFailsResumably_and_pipelineDisabled() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(false);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L);
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+
+      SubSourceResult result = streamingRunner(threadPerTask).streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            throw new ResumableCaptureException("window 1 failed",
+                new IllegalStateException("API error"), List.of(page1), "w0/2:4");
+          },
+          String.class,
+          batch -> {});
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED_WITH_ERRORS);
+      assertThat(result.lastCursor()).isEqualTo("w0/2:4");
+      verify(jobItemBuffer).markStatus(1L, JobItemStatus.PROCESSED);
+    }
+
+    @Test
+    void should_processAfterCapture_when_pipelineDisabled() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(false);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L);
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+      List<CapturedPageListener> listeners = new ArrayList<>();
+
+      SubSourceResult result = streamingRunner(threadPerTask).streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            listeners.add(ctx.pageListener());
+            return List.of(page1);
+          },
+          String.class,
+          batch -> {});
+
+      assertThat(result.recordsProcessed()).isEqualTo(1);
+      assertThat(listeners).containsExactly(CapturedPageListener.NONE);
+    }
+
+    @Test
+    void should_processAfterCapture_when_pipelineExecutorRejects() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(true);
+      when(ingestProperties.capturePipelineQueuePages()).thenReturn(4);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L);
+      stubReadBatched("s3://bucket/key1", List.of("r1"));
+      Executor rejecting = task -> {
+        throw new RejectedExecutionException("saturated");
+      };
+
+      SubSourceResult result = streamingRunner(rejecting).streamPages(
+          "TestSource", captureContext, ctx -> List.of(page1), String.class, batch -> {});
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED);
+      assertThat(result.recordsProcessed()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked") // safe: test stub casting generic Consumer
+    void should_readThroughTokenReader_when_recordReaderGiven() {
+      when(ingestProperties.capturePipelineEnabled()).thenReturn(true);
+      when(ingestProperties.capturePipelineQueuePages()).thenReturn(4);
+      CaptureResult page1 = new CaptureResult(1L, "s3://bucket/key1", "sha256", 1024L);
+      RecordTokenReader<StringBuilder> recordReader = mock(RecordTokenReader.class);
+      doAnswer(inv -> {
+        Consumer<List<StringBuilder>> consumer = inv.getArgument(2);
+        consumer.accept(List.of(new StringBuilder("r1"), new StringBuilder("r2")));
+        return null;
+      }).when(rawPageReader).readTokens(eq("s3://bucket/key1"), eq(recordReader), any());
+      List<String> seen = new ArrayList<>();
+
+      SubSourceResult result = streamingRunner(threadPerTask).streamPages(
+          "TestSource", captureContext,
+          ctx -> {
+            ctx.pageListener().onPageCaptured(page1);
+            return List.of(page1);
+          },
+          recordReader,
+          batch -> batch.forEach(row -> seen.add(row.toString())));
+
+      assertThat(result.status()).isEqualTo(EventResultStatus.COMPLETED);
+      assertThat(result.recordsProcessed()).isEqualTo(2);
+      assertThat(seen).containsExactly("r1", "r2");
+      verify(rawPageReader, never()).readBatched(anyString(), any(), any());
+      verify(jobItemBuffer).markStatus(1L, JobItemStatus.PROCESSED);
+    }
+
+    private void awaitLatch(CountDownLatch latch) {
+      try {
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
     }
   }
 
@@ -196,4 +627,12 @@ class SubSourceRunnerTest {
       return null;
     }).when(rawPageReader).readBatched(eq(s3Key), eq(String.class), any());
   }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 }
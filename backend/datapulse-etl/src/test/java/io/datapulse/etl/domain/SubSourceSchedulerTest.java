@@ -0,0 +1,154 @@
+package io.datapulse.etl.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.datapulse.etl.config.IngestProperties;
+import io.datapulse.integration.domain.ratelimit.RateLimitGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SubSourceSchedulerTest {
+
+  @Mock private IngestProperties ingestProperties;
+
+  private ExecutorService executor;
+  private SubSourceScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(2);
+    scheduler = new SubSourceScheduler(executor, ingestProperties);
+    when(ingestProperties.subSourceConcurrencyPerRateLimitGroup()).thenReturn(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void should_returnResultsInDeclarationOrder() {
+    List<SubSourceResult> results = scheduler.runAll(List.of(
+        task("A", RateLimitGroup.WB_STATISTICS, () -> sleepThenSucceed("A", 50)),
+        task("B", RateLimitGroup.WB_ANALYTICS, () -> SubSourceResult.success("B", 1, 1)),
+        task("C", RateLimitGroup.WB_STATISTICS, () -> SubSourceResult.success("C", 1, 1))));
+
+    assertThat(results).extracting(SubSourceResult::sourceId).containsExactly("A", "B", "C");
+  }
+
+  @Test
+  void should_runDifferentRateLimitGroupsConcurrently() {
+    CountDownLatch bothStarted = new CountDownLatch(2);
+
+    List<SubSourceResult> results = scheduler.runAll(List.of(
+        task("A", RateLimitGroup.YANDEX_ORDERS, () -> awaitPeer(bothStarted, "A")),
+        task("B", RateLimitGroup.YANDEX_DEFAULT, () -> awaitPeer(bothStarted, "B"))));
+
+    assertThat(results).allMatch(SubSourceResult::isSuccess);
+  }
+
+  @Test
+  void should_runSameRateLimitGroupSequentially() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    scheduler.runAll(List.of(
+        task("A", RateLimitGroup.OZON_DEFAULT, () -> track(running, maxRunning, "A")),
+        task("B", RateLimitGroup.OZON_DEFAULT, () -> track(running, maxRunning, "B")),
+        task("C", RateLimitGroup.OZON_DEFAULT, () -> track(running, maxRunning, "C"))));
+
+    assertThat(maxRunning.get()).isEqualTo(1);
+  }
+
+  @Test
+  void should_completeOtherTasks_and_rethrowFirstFailure() {
+    AtomicInteger completed = new AtomicInteger();
+
+    assertThatThrownBy(() -> scheduler.runAll(List.of(
+        task("A", RateLimitGroup.WB_STATISTICS, () -> {
+          throw new IllegalStateException("API down");
+        }),
+        task("B", RateLimitGroup.WB_ANALYTICS, () -> {
+          completed.incrementAndGet();
+          return SubSourceResult.success("B", 1, 1);
+        }))))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("API down");
+
+    assertThat(completed.get()).isEqualTo(1);
+  }
+
+  @Test
+  void should_notDeadlock_when_poolThreadsAreBusy() {
+    ExecutorService saturated = Executors.newSingleThreadExecutor();
+    CountDownLatch release = new CountDownLatch(1);
+    saturated.execute(() -> awaitQuietly(release));
+    try {
+      SubSourceScheduler busy = new SubSourceScheduler(saturated, ingestProperties);
+
+      List<SubSourceResult> results = busy.runAll(List.of(
+          task("A", RateLimitGroup.WB_STATISTICS, () -> SubSourceResult.success("A", 1, 1)),
+          task("B", RateLimitGroup.WB_ANALYTICS, () -> SubSourceResult.success("B", 1, 1))));
+
+      assertThat(results).hasSize(2);
+    } finally {
+      release.countDown();
+      saturated.shutdownNow();
+    }
+  }
+
+  private static SubSourceTask task(String id, RateLimitGroup group,
+                                    Supplier<SubSourceResult> body) {
+    return new SubSourceTask(id, group, body);
+  }
+
+  private static SubSourceResult sleepThenSucceed(String id, long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return SubSourceResult.success(id, 1, 1);
+  }
+
+  private static SubSourceResult awaitPeer(CountDownLatch latch, String id) {
+    latch.countDown();
+    try {
+      assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return SubSourceResult.success(id, 1, 1);
+  }
+
+  private static SubSourceResult track(AtomicInteger running, AtomicInteger maxRunning,
+                                       String id) {
+    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+    SubSourceResult result = sleepThenSucceed(id, 20);
+    running.decrementAndGet();
+    return result;
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
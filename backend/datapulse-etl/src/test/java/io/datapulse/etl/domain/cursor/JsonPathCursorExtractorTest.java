@@ -3,13 +3,17 @@ package io.datapulse.etl.domain.cursor;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class JsonPathCursorExtractorTest {
 
@@ -66,9 +70,52 @@ class JsonPathCursorExtractorTest {
     }
   }
 
+  @Nested
+  @DisplayName("newScanner()")
+  class Scanner {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 64, 8192})
+    void should_matchExtract_regardlessOfChunking(int chunk) throws IOException {
+      String json = """
+          {"result":{"items":[{"cursor":"inner"}],"cursor":"abc\\"123"},"last_id":"42"}""";
+
+      for (String path : new String[] {"result.cursor", "cursor", "last_id", "missing", "a.b"}) {
+        var extractor = new JsonPathCursorExtractor(path);
+        assertThat(scanInChunks(extractor.newScanner(), json, chunk))
+            .as(path)
+            .isEqualTo(extractor.extract(writeJson(json)));
+      }
+    }
+
+    @Test
+    void should_stopParsing_when_cursorFound() throws IOException {
+      var scanner = new JsonPathCursorExtractor("cursor").newScanner();
+
+      assertThat(scanInChunks(scanner, "{\"cursor\":\"found\",\"data\":[} not json", 4))
+          .hasValue("found");
+    }
+
+    @Test
+    void should_returnNumericCursor_asString() throws IOException {
+      var scanner = new JsonPathCursorExtractor("result.page_count").newScanner();
+
+      assertThat(scanInChunks(scanner, "{\"result\":{\"page_count\":17}}", 5)).hasValue("17");
+    }
+  }
+
   private Path writeJson(String content) throws IOException {
     Path file = tempDir.resolve("response.json");
     Files.writeString(file, content);
     return file;
   }
+
+  private static Optional<String> scanInChunks(CursorScanner scanner, String content, int chunk)
+      throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    for (int offset = 0; offset < bytes.length; offset += chunk) {
+      scanner.feed(bytes, offset, Math.min(chunk, bytes.length - offset));
+    }
+    return scanner.finish();
+  }
 }
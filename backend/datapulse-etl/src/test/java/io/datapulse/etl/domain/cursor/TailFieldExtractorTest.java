@@ -3,8 +3,10 @@ package io.datapulse.etl.domain.cursor;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -93,9 +95,47 @@ class TailFieldExtractorTest {
     }
   }
 
+  @Nested
+  @DisplayName("newScanner()")
+  class Scanner {
+
+    @Test
+    void should_matchExtract_when_bodyLargerThanTail() throws IOException {
+      var extractor = TailFieldExtractor.wbRrdId();
+      StringBuilder body = new StringBuilder("[");
+      for (int i = 1; i <= 5_000; i++) {
+        body.append("{\"rrd_id\": ").append(i).append(", \"amount\": 10},");
+      }
+      String content = body.append("{\"amount\": 0}]").toString();
+
+      for (int chunk : new int[] {1, 7, 4096, 40_000, content.length()}) {
+        assertThat(scanInChunks(extractor.newScanner(), content, chunk))
+            .as("chunk %d", chunk)
+            .hasValue("5000")
+            .isEqualTo(extractor.extract(writeContent(content)));
+      }
+    }
+
+    @Test
+    void should_returnEmpty_when_fieldNotFound() throws IOException {
+      var scanner = TailFieldExtractor.wbLastChangeDate().newScanner();
+
+      assertThat(scanInChunks(scanner, "[{\"amount\": 10}]", 3)).isEmpty();
+    }
+  }
+
   private Path writeContent(String content) throws IOException {
     Path file = tempDir.resolve("finance.json");
     Files.writeString(file, content);
     return file;
   }
+
+  private static Optional<String> scanInChunks(CursorScanner scanner, String content, int chunk)
+      throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    for (int offset = 0; offset < bytes.length; offset += chunk) {
+      scanner.feed(bytes, offset, Math.min(chunk, bytes.length - offset));
+    }
+    return scanner.finish();
+  }
 }
@@ -3,8 +3,10 @@ package io.datapulse.etl.domain.cursor;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 import io.datapulse.etl.domain.cursor.WbCatalogCursorExtractor.WbCatalogCursor;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,26 @@ class WbCatalogCursorExtractorTest {
 
   @TempDir Path tempDir;
 
+  @Test
+  void scannerMatchesExtract_acrossChunkBoundaries() throws IOException {
+    String json = """
+        {"cards":[{"nmID":1,"sizes":[]}],"cursor":{"updatedAt":"2025-12-16T17:40:20Z","nmID":274849,"total":100}}""";
+    Path file = tempDir.resolve("response.json");
+    Files.writeString(file, json);
+
+    for (int chunk : new int[] {1, 5, 1024}) {
+      assertThat(scanInChunks(WbCatalogCursorExtractor.INSTANCE.newScanner(), json, chunk))
+          .hasValue("2025-12-16T17:40:20Z|274849|100")
+          .isEqualTo(WbCatalogCursorExtractor.INSTANCE.extract(file));
+    }
+  }
+
+  @Test
+  void scannerReturnsEmpty_whenNoCursorObject() throws IOException {
+    assertThat(scanInChunks(WbCatalogCursorExtractor.INSTANCE.newScanner(),
+        "{\"cards\":[],\"cursor\":null}", 4)).isEmpty();
+  }
+
   @Test
   void extractsAllThreeFields() throws IOException {
     Path file = tempDir.resolve("response.json");
@@ -86,4 +108,13 @@ class WbCatalogCursorExtractorTest {
     WbCatalogCursor cursor = WbCatalogCursorExtractor.parse(result.get());
     assertThat(cursor.total()).isEqualTo(1);
   }
+
+  private static Optional<String> scanInChunks(CursorScanner scanner, String content, int chunk)
+      throws IOException {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    for (int offset = 0; offset < bytes.length; offset += chunk) {
+      scanner.feed(bytes, offset, Math.min(chunk, bytes.length - offset));
+    }
+    return scanner.finish();
+  }
 }
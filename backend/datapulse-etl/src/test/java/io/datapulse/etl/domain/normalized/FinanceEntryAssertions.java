@@ -0,0 +1,66 @@
+package io.datapulse.etl.domain.normalized;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+import org.assertj.core.api.SoftAssertions;
+
+/**
+ * Field-by-field comparison of two {@link FinanceEntryFields}, used by the token-stream vs DTO
+ * equivalence tests. Amounts compare by value: the paths may sum the same operands in a
+ * different order, which can differ in scale but never in value.
+ */
+public final class FinanceEntryAssertions {
+
+  private FinanceEntryAssertions() {
+  }
+
+  public static void assertSameEntry(FinanceEntryFields actual, FinanceEntryFields expected) {
+    var softly = new SoftAssertions();
+    text(softly, "externalEntryId", actual, expected, FinanceEntryFields::externalEntryId);
+    softly.assertThat(actual.entryType()).as("entryType").isEqualTo(expected.entryType());
+    text(softly, "postingId", actual, expected, FinanceEntryFields::postingId);
+    text(softly, "orderId", actual, expected, FinanceEntryFields::orderId);
+    text(softly, "sellerSku", actual, expected, FinanceEntryFields::sellerSku);
+    text(softly, "marketplaceSku", actual, expected, FinanceEntryFields::marketplaceSku);
+    text(softly, "warehouseExternalId", actual, expected,
+        FinanceEntryFields::warehouseExternalId);
+    text(softly, "fulfillmentType", actual, expected, FinanceEntryFields::fulfillmentType);
+    amount(softly, "revenueAmount", actual, expected, FinanceEntryFields::revenueAmount);
+    amount(softly, "marketplaceCommissionAmount", actual, expected,
+        FinanceEntryFields::marketplaceCommissionAmount);
+    amount(softly, "acquiringCommissionAmount", actual, expected,
+        FinanceEntryFields::acquiringCommissionAmount);
+    amount(softly, "logisticsCostAmount", actual, expected,
+        FinanceEntryFields::logisticsCostAmount);
+    amount(softly, "storageCostAmount", actual, expected, FinanceEntryFields::storageCostAmount);
+    amount(softly, "penaltiesAmount", actual, expected, FinanceEntryFields::penaltiesAmount);
+    amount(softly, "acceptanceCostAmount", actual, expected,
+        FinanceEntryFields::acceptanceCostAmount);
+    amount(softly, "marketingCostAmount", actual, expected,
+        FinanceEntryFields::marketingCostAmount);
+    amount(softly, "otherMarketplaceChargesAmount", actual, expected,
+        FinanceEntryFields::otherMarketplaceChargesAmount);
+    amount(softly, "compensationAmount", actual, expected, FinanceEntryFields::compensationAmount);
+    amount(softly, "refundAmount", actual, expected, FinanceEntryFields::refundAmount);
+    amount(softly, "netPayout", actual, expected, FinanceEntryFields::netPayout);
+    text(softly, "currency", actual, expected, FinanceEntryFields::currency);
+    softly.assertThat(actual.entryDate()).as("entryDate").isEqualTo(expected.entryDate());
+    softly.assertAll();
+  }
+
+  private static void text(SoftAssertions softly, String field, FinanceEntryFields actual,
+                           FinanceEntryFields expected, Function<FinanceEntryFields, String> getter) {
+    softly.assertThat(getter.apply(actual)).as(field).isEqualTo(getter.apply(expected));
+  }
+
+  private static void amount(SoftAssertions softly, String field, FinanceEntryFields actual,
+                             FinanceEntryFields expected,
+                             Function<FinanceEntryFields, BigDecimal> getter) {
+    BigDecimal expectedValue = getter.apply(expected);
+    assertThat(expectedValue).as(field + " (DTO path)").isNotNull();
+    softly.assertThat(getter.apply(actual)).as(field).isEqualByComparingTo(expectedValue);
+  }
+}
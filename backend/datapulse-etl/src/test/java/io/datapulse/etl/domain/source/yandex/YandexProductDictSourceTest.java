@@ -29,7 +29,7 @@ import io.datapulse.etl.persistence.canonical.MarketplaceOfferUpsertRepository;
 import io.datapulse.etl.persistence.canonical.ProductMasterLookupRepository;
 import io.datapulse.etl.persistence.canonical.ProductMasterUpsertRepository;
 import io.datapulse.etl.persistence.canonical.SellerSkuUpsertRepository;
-import io.datapulse.etl.persistence.canonical.SkuLookupRepository;
+import io.datapulse.etl.persistence.canonical.SkuResolutionCache;
 import io.datapulse.integration.domain.CredentialKeys;
 import io.datapulse.integration.domain.MarketplaceType;
 import org.junit.jupiter.api.DisplayName;
@@ -50,7 +50,7 @@ class YandexProductDictSourceTest {
   @Mock ProductMasterUpsertRepository productMasterRepository;
   @Mock ProductMasterLookupRepository productMasterLookup;
   @Mock SellerSkuUpsertRepository sellerSkuRepository;
-  @Mock SkuLookupRepository skuLookup;
+  @Mock SkuResolutionCache skuCache;
   @Mock MarketplaceOfferUpsertRepository offerRepository;
   @Mock CanonicalPriceCurrentUpsertRepository priceRepository;
 
@@ -0,0 +1,249 @@
+package io.datapulse.etl.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.datapulse.etl.config.JobItemBufferProperties;
+import io.datapulse.etl.domain.JobItemStatus;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class JobItemWriteBufferTest {
+
+  @Mock private JobItemRepository repository;
+  @Mock private TransactionTemplate transactionTemplate;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @BeforeEach
+  void setUp() {
+    lenient().doAnswer(inv -> {
+      Consumer<TransactionStatus> callback = inv.getArgument(0);
+      callback.accept(null);
+      return null;
+    }).when(transactionTemplate).executeWithoutResult(any());
+  }
+
+  @Nested
+  @DisplayName("register() / markStatus()")
+  class Buffering {
+
+    @Test
+    void should_foldStatusIntoInsert_when_rowNotWrittenYet() {
+      when(repository.nextIds(anyInt())).thenReturn(List.of(101L, 102L));
+      JobItemWriteBuffer buffer = buffer(10);
+
+      long first = buffer.register(row("page-1"));
+      long second = buffer.register(row("page-2"));
+      buffer.markStatus(first, JobItemStatus.PROCESSED);
+      buffer.flush();
+
+      assertThat(first).isEqualTo(101L);
+      assertThat(second).isEqualTo(102L);
+      List<JobItemRow> inserted = capturedInserts();
+      assertThat(inserted).extracting(JobItemRow::getStatus)
+          .containsExactly("PROCESSED", "CAPTURED");
+      verify(repository, never()).updateStatuses(any(), any());
+    }
+
+    @Test
+    void should_groupStatusChangesByStatus_keepingLastPerId() {
+      JobItemWriteBuffer buffer = buffer(10);
+
+      buffer.markStatus(1L, JobItemStatus.PROCESSED);
+      buffer.markStatus(2L, JobItemStatus.PROCESSED);
+      buffer.markStatus(1L, JobItemStatus.FAILED);
+      buffer.flush();
+
+      verify(repository).updateStatuses(JobItemStatus.PROCESSED, List.of(2L));
+      verify(repository).updateStatuses(JobItemStatus.FAILED, List.of(1L));
+    }
+
+    @Test
+    void should_writeInsertsBeforeStatusChanges() {
+      when(repository.nextIds(anyInt())).thenReturn(List.of(101L));
+      JobItemWriteBuffer buffer = buffer(10);
+
+      buffer.markStatus(5L, JobItemStatus.PROCESSED);
+      buffer.register(row("page-1"));
+      buffer.flush();
+
+      InOrder order = inOrder(repository);
+      order.verify(repository).insertAll(any());
+      order.verify(repository).updateStatuses(JobItemStatus.PROCESSED, List.of(5L));
+    }
+
+    @Test
+    void should_flushOnWritingThread_when_maxPendingReached() {
+      JobItemWriteBuffer buffer = buffer(2);
+
+      buffer.markStatus(1L, JobItemStatus.PROCESSED);
+      verify(repository, never()).updateStatuses(any(), any());
+
+      buffer.markStatus(2L, JobItemStatus.PROCESSED);
+
+      verify(repository).updateStatuses(JobItemStatus.PROCESSED, List.of(1L, 2L));
+      assertThat(registry.get("etl.job_item_buffer.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_writeImmediately_when_disabled() {
+      when(repository.insert(any())).thenReturn(9L);
+      JobItemWriteBuffer buffer = new JobItemWriteBuffer(repository,
+          new JobItemBufferProperties(false, 10, Duration.ofSeconds(1), 3), transactionTemplate,
+          new MetricsFacade(registry));
+
+      assertThat(buffer.register(row("page-1"))).isEqualTo(9L);
+      buffer.markStatus(9L, JobItemStatus.PROCESSED);
+
+      verify(repository).updateStatus(9L, JobItemStatus.PROCESSED);
+      verify(repository, never()).nextIds(anyInt());
+    }
+  }
+
+  @Nested
+  @DisplayName("flush()")
+  class Flush {
+
+    @Test
+    void should_keepOperations_when_flushFails() {
+      when(repository.nextIds(anyInt())).thenReturn(List.of(101L));
+      JobItemWriteBuffer buffer = buffer(10);
+      buffer.register(row("page-1"));
+      // the batch and the one-by-one retry both fail
+      doThrow(new IllegalStateException("db down"))
+          .doThrow(new IllegalStateException("db down"))
+          .doNothing()
+          .when(repository).insertAll(any());
+
+      assertThatThrownBy(buffer::flush).hasMessage("db down");
+      buffer.markStatus(101L, JobItemStatus.PROCESSED);
+      buffer.flush();
+
+      ArgumentCaptor<List<JobItemRow>> captor = insertCaptor();
+      verify(repository, times(3)).insertAll(captor.capture());
+      assertThat(captor.getValue()).singleElement()
+          .extracting(JobItemRow::getStatus).isEqualTo("PROCESSED");
+    }
+
+    @Test
+    void should_writeOtherRows_andParkRejectedRow_afterMaxAttempts() {
+      when(repository.nextIds(anyInt())).thenReturn(List.of(101L, 102L));
+      JobItemWriteBuffer buffer = buffer(10);
+      buffer.register(row("page-1"));
+      buffer.register(row("poison"));
+      doAnswer(inv -> {
+        List<JobItemRow> rows = inv.getArgument(0);
+        if (rows.stream().anyMatch(r -> r.getRequestId().equals("poison"))) {
+          throw new DataIntegrityViolationException("fk violation");
+        }
+        return null;
+      }).when(repository).insertAll(any());
+
+      buffer.flush();
+      buffer.flush();
+      buffer.flush();
+
+      ArgumentCaptor<List<JobItemRow>> captor = insertCaptor();
+      // flush 1: batch, page-1, poison; flushes 2-3: batch and poison again, then parked
+      verify(repository, times(7)).insertAll(captor.capture());
+      assertThat(captor.getAllValues())
+          .filteredOn(rows -> rows.size() == 1 && rows.get(0).getId() == 101L)
+          .hasSize(1);
+      assertThat(registry.get("etl.job_item_buffer.rejected").gauge().value()).isEqualTo(1);
+      assertThat(registry.get("etl.job_item_buffer.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_retryParkedRow_withLatestStatus_onEveryFlush() {
+      when(repository.nextIds(anyInt())).thenReturn(List.of(101L));
+      JobItemWriteBuffer buffer = buffer(10);
+      long id = buffer.register(row("page-1"));
+      doThrow(new DataIntegrityViolationException("fk violation"))
+          .doThrow(new DataIntegrityViolationException("fk violation"))
+          .doThrow(new DataIntegrityViolationException("fk violation"))
+          .doThrow(new DataIntegrityViolationException("fk violation"))
+          .doThrow(new DataIntegrityViolationException("fk violation"))
+          .doThrow(new DataIntegrityViolationException("fk violation"))
+          .doNothing()
+          .when(repository).insertAll(any());
+
+      buffer.flush();
+      buffer.flush();
+      buffer.flush();
+      buffer.markStatus(id, JobItemStatus.PROCESSED);
+      buffer.flush();
+
+      ArgumentCaptor<List<JobItemRow>> captor = insertCaptor();
+      // flushes 1-3: batch and the row on its own; flush 4: the parked row
+      verify(repository, times(7)).insertAll(captor.capture());
+      assertThat(captor.getValue()).singleElement()
+          .extracting(JobItemRow::getStatus).isEqualTo("PROCESSED");
+      verify(repository, never()).updateStatuses(any(), any());
+      assertThat(registry.get("etl.job_item_buffer.rejected").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_doNothing_when_bufferEmpty() {
+      buffer(10).flush();
+
+      verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+  }
+
+  private JobItemWriteBuffer buffer(int maxPending) {
+    return new JobItemWriteBuffer(repository,
+        new JobItemBufferProperties(true, maxPending, Duration.ofSeconds(1), 3), transactionTemplate,
+        new MetricsFacade(registry));
+  }
+
+  private List<JobItemRow> capturedInserts() {
+    ArgumentCaptor<List<JobItemRow>> captor = insertCaptor();
+    verify(repository).insertAll(captor.capture());
+    return captor.getValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ArgumentCaptor<List<JobItemRow>> insertCaptor() {
+    return ArgumentCaptor.forClass(List.class);
+  }
+
+  private static JobItemRow row(String requestId) {
+    return JobItemRow.builder()
+        .jobExecutionId(1L)
+        .requestId(requestId)
+        .sourceId("source")
+        .pageNumber(1)
+        .s3Key("raw/1/" + requestId)
+        .contentSha256("sha")
+        .byteSize(10L)
+        .build();
+  }
+}
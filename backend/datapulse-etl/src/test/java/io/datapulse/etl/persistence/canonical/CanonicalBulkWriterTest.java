@@ -0,0 +1,174 @@
+package io.datapulse.etl.persistence.canonical;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.datapulse.etl.config.CanonicalWriteProperties;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class CanonicalBulkWriterTest {
+
+    private static final CopyMergeSpec<Row> SPEC = new CopyMergeSpec<>(
+            "canonical_order",
+            List.of("workspace_id", "external_order_id"),
+            List.of(
+                    new CopyMergeSpec.Column<>("workspace_id", Row::workspaceId),
+                    new CopyMergeSpec.Column<>("external_order_id", Row::externalId),
+                    new CopyMergeSpec.Column<>("total_amount", Row::amount),
+                    new CopyMergeSpec.Column<>("order_date", Row::date)),
+            """
+            ON CONFLICT (workspace_id, external_order_id) DO NOTHING
+            """);
+
+    @Mock private JdbcTemplate jdbc;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Nested
+    @DisplayName("write")
+    class Write {
+
+        @Test
+        void should_runBatchPath_when_tableNotOptedIn() {
+            var writer = writer(Set.of("canonical_sale"));
+            var batchCalls = new AtomicInteger();
+
+            writer.write(SPEC, List.of(row("A")), batchCalls::incrementAndGet);
+
+            assertThat(batchCalls).hasValue(1);
+            verifyNoInteractions(jdbc);
+            assertThat(registry.get("etl.canonical_upsert.duration")
+                    .tag("table", "canonical_order").tag("mode", "batch").timer().count())
+                    .isEqualTo(1);
+        }
+
+        @Test
+        void should_useCopyPath_when_tableOptedIn() {
+            var writer = writer(Set.of("canonical_order"));
+            var batchCalls = new AtomicInteger();
+
+            writer.write(SPEC, List.of(row("A")), batchCalls::incrementAndGet);
+
+            assertThat(batchCalls).hasValue(0);
+            verify(jdbc).execute(any(ConnectionCallback.class));
+            assertThat(registry.get("etl.canonical_upsert.duration")
+                    .tag("mode", "copy").timer().count()).isEqualTo(1);
+        }
+
+        @Test
+        void should_doNothing_when_batchEmpty() {
+            var writer = writer(Set.of("canonical_order"));
+            var batchCalls = new AtomicInteger();
+
+            writer.write(SPEC, List.of(), batchCalls::incrementAndGet);
+
+            assertThat(batchCalls).hasValue(0);
+            verify(jdbc, never()).execute(any(ConnectionCallback.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV encoding")
+    class CsvEncoding {
+
+        @Test
+        void should_writeNullAsEmptyField_and_quoteStrings() {
+            var out = new StringBuilder();
+            CanonicalBulkWriter.appendRow(out, SPEC,
+                    new Row(7L, "say \"hi\", ok", null,
+                            OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 0, ZoneOffset.ofHours(3))),
+                    42);
+
+            assertThat(out).hasToString(
+                    "7,\"say \"\"hi\"\", ok\",,\"2025-03-01T10:00+03:00\",42\n");
+        }
+
+        @Test
+        void should_keepEmptyStringDistinctFromNull() {
+            var out = new StringBuilder();
+            CanonicalBulkWriter.appendCsv(out, "");
+
+            assertThat(out).hasToString("\"\"");
+        }
+
+        @Test
+        void should_writeBigDecimalWithoutExponent() {
+            var out = new StringBuilder();
+            CanonicalBulkWriter.appendCsv(out, new BigDecimal("1E+3"));
+
+            assertThat(out).hasToString("1000");
+        }
+    }
+
+    @Nested
+    @DisplayName("merge SQL")
+    class MergeSql {
+
+        @Test
+        void should_dedupeByConflictKeys_keepingLastRow_and_reuseOnConflictClause() {
+            String sql = SPEC.mergeSql();
+
+            assertThat(sql)
+                    .contains("INSERT INTO canonical_order (workspace_id, external_order_id, "
+                            + "total_amount, order_date, created_at, updated_at)")
+                    .contains("SELECT DISTINCT ON (workspace_id, external_order_id)")
+                    .contains("FROM copy_stage_canonical_order")
+                    .contains("ORDER BY workspace_id, external_order_id, copy_seq DESC")
+                    .endsWith("ON CONFLICT (workspace_id, external_order_id) DO NOTHING\n");
+        }
+
+        @Test
+        void should_insertOnlyGivenNowColumns_when_tableHasNoCreatedAt() {
+            var spec = new CopyMergeSpec<Row>("canonical_stock_current",
+                    List.of("workspace_id"),
+                    List.of(new CopyMergeSpec.Column<>("workspace_id", Row::workspaceId)),
+                    "ON CONFLICT (workspace_id) DO NOTHING\n",
+                    List.of("updated_at"));
+
+            assertThat(spec.mergeSql())
+                    .contains("INSERT INTO canonical_stock_current (workspace_id, updated_at)")
+                    .contains("SELECT DISTINCT ON (workspace_id) workspace_id, now()\n");
+        }
+
+        @Test
+        void should_createConstraintFreeStagingTable() {
+            assertThat(SPEC.createStagingSql()).isEqualTo(
+                    "CREATE TEMP TABLE IF NOT EXISTS copy_stage_canonical_order AS SELECT "
+                            + "workspace_id, external_order_id, total_amount, order_date, "
+                            + "0::bigint AS copy_seq FROM canonical_order WITH NO DATA");
+        }
+    }
+
+    private CanonicalBulkWriter writer(Set<String> copyTables) {
+        return new CanonicalBulkWriter(jdbc, new CanonicalWriteProperties(copyTables),
+                new MetricsFacade(registry));
+    }
+
+    private static Row row(String externalId) {
+        return new Row(1L, externalId, BigDecimal.TEN, OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    private record Row(Long workspaceId, String externalId, BigDecimal amount,
+                       OffsetDateTime date) {
+    }
+}
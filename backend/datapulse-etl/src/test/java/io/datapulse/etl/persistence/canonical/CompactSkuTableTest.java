@@ -0,0 +1,88 @@
+package io.datapulse.etl.persistence.canonical;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CompactSkuTableTest {
+
+    @Test
+    void should_resolveEveryKey_after_growingPastInitialCapacity() {
+        var table = new CompactSkuTable(2, 16);
+
+        for (int i = 0; i < 50_000; i++) {
+            table.putIfAbsent("SKU-" + i, i, 1_000_000L + i);
+        }
+
+        assertThat(table.size()).isEqualTo(50_000);
+        assertThat(table.get("SKU-0", 0)).isZero();
+        assertThat(table.getRow("SKU-49999")).containsExactly(49_999L, 1_049_999L);
+        assertThat(table.get("SKU-50000", 0)).isEqualTo(CompactSkuTable.ABSENT);
+    }
+
+    @Test
+    void should_keepFirstRow_when_keyRepeats() {
+        var table = new CompactSkuTable(1, 16);
+
+        table.putIfAbsent("A", 1L);
+        table.putIfAbsent("A", 2L);
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.get("A", 0)).isEqualTo(1L);
+    }
+
+    @Test
+    void should_replaceRow_when_put() {
+        var table = new CompactSkuTable(2, 16);
+
+        table.putIfAbsent("A", 1L, 10L);
+        table.put("A", 1L, 20L);
+        table.put("B", 2L, 30L);
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getRow("A")).containsExactly(1L, 20L);
+        assertThat(table.getRow("B")).containsExactly(2L, 30L);
+    }
+
+    @Test
+    void should_hashContentRegardlessOfInsertionOrder() {
+        var first = new CompactSkuTable(1, 16);
+        first.putIfAbsent("A", 1L);
+        first.putIfAbsent("B", 2L);
+        var second = new CompactSkuTable(1, 16);
+        second.putIfAbsent("B", 2L);
+        second.putIfAbsent("A", 1L);
+
+        assertThat(second.contentHash()).isEqualTo(first.contentHash());
+
+        second.put("A", 3L);
+
+        assertThat(second.size()).isEqualTo(first.size());
+        assertThat(second.contentHash()).isNotEqualTo(first.contentHash());
+    }
+
+    @Test
+    void should_ignoreNullKeys() {
+        var table = new CompactSkuTable(1, 16);
+
+        table.putIfAbsent(null, 1L);
+
+        assertThat(table.size()).isZero();
+        assertThat(table.get(null, 0)).isEqualTo(CompactSkuTable.ABSENT);
+        assertThat(table.getRow(null)).isNull();
+    }
+
+    @Test
+    void should_exposeViews_withNullForMisses() {
+        var ids = new CompactSkuTable(1, 16);
+        ids.putIfAbsent("sku", 7L);
+        var offers = new CompactSkuTable(2, 16);
+        offers.putIfAbsent("sku", 7L, 9L);
+
+        assertThat(new SkuIdMap(ids).get("sku")).isEqualTo(7L);
+        assertThat(new SkuIdMap(ids).get("other")).isNull();
+        assertThat(new OfferSkuMap(offers).get("sku"))
+                .isEqualTo(new SkuLookupRepository.OfferSkuIds(7L, 9L));
+        assertThat(new OfferSkuMap(offers).get("other")).isNull();
+    }
+}
@@ -0,0 +1,177 @@
+package io.datapulse.etl.persistence.canonical;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import io.datapulse.etl.config.SkuCacheProperties;
+import io.datapulse.etl.persistence.canonical.SkuLookupRepository.OfferSkuIds;
+import io.datapulse.etl.persistence.canonical.SkuLookupRepository.WrittenOffer;
+import io.datapulse.etl.persistence.canonical.SkuLookupRepository.WrittenSellerSku;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SkuResolutionCacheTest {
+
+    @Mock private SkuLookupRepository repository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Nested
+    @DisplayName("lookups")
+    class Lookups {
+
+        @Test
+        void should_loadOnce_and_serveHitsFromMemory() {
+            stubOfferIds(10L, "111", 1L);
+            SkuResolutionCache cache = cache(new SkuCacheProperties(true, 1_000, Duration.ofHours(1)));
+
+            assertThat(cache.offerIdsByConnection(10L).get("111")).isEqualTo(1L);
+            assertThat(cache.offerIdsByConnection(10L).get("111")).isEqualTo(1L);
+
+            verify(repository, times(1)).loadOfferIdsByConnection(eq(10L), any());
+            assertThat(requests("hit")).isEqualTo(1);
+            assertThat(requests("miss")).isEqualTo(1);
+            assertThat(registry.get("etl.sku_cache.entries").gauge().value()).isEqualTo(1);
+        }
+
+        @Test
+        void should_reload_when_olderThanMaxAge() {
+            stubOfferIds(10L, "111", 1L);
+            SkuResolutionCache cache = cache(new SkuCacheProperties(true, 1_000, Duration.ZERO));
+
+            cache.offerIdsByConnection(10L);
+            cache.offerIdsByConnection(10L);
+
+            verify(repository, times(2)).loadOfferIdsByConnection(eq(10L), any());
+        }
+
+        @Test
+        void should_loadEveryTime_when_disabled() {
+            stubOfferIds(10L, "111", 1L);
+            SkuResolutionCache cache = cache(new SkuCacheProperties(false, 1_000, Duration.ofHours(1)));
+
+            cache.offerIdsByConnection(10L);
+            cache.offerIdsByConnection(10L);
+
+            verify(repository, times(2)).loadOfferIdsByConnection(eq(10L), any());
+        }
+
+        @Test
+        void should_evictLeastRecentlyUsed_when_overBound() {
+            doAnswer(inv -> {
+                CompactSkuTable target = inv.getArgument(1);
+                for (int i = 0; i < 3; i++) {
+                    target.putIfAbsent("sku-" + i, i);
+                }
+                return null;
+            }).when(repository).loadOfferIdsByConnection(anyLong(), any());
+            SkuResolutionCache cache = cache(new SkuCacheProperties(true, 5, Duration.ofHours(1)));
+
+            cache.offerIdsByConnection(1L);
+            cache.offerIdsByConnection(2L);
+            cache.offerIdsByConnection(2L);
+            cache.offerIdsByConnection(1L);
+
+            verify(repository, times(2)).loadOfferIdsByConnection(eq(1L), any());
+            verify(repository, times(1)).loadOfferIdsByConnection(eq(2L), any());
+            assertThat(registry.get("etl.sku_cache.evictions").counter().count()).isEqualTo(2);
+            assertThat(registry.get("etl.sku_cache.entries").gauge().value()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    @DisplayName("write patches")
+    class WritePatches {
+
+        @Test
+        void should_patchWrittenOffers_intoEveryCachedOfferMapping() {
+            stubOfferIds(10L, "111", 1L);
+            SkuResolutionCache cache = cache(new SkuCacheProperties(true, 1_000, Duration.ofHours(1)));
+            SkuIdMap byConnection = cache.offerIdsByConnection(10L);
+            OfferSkuMap bySkuCode = cache.offersBySellerSkuCode(5L);
+            var entity = new MarketplaceOfferEntity();
+            when(repository.findWrittenOffers(List.of(entity))).thenReturn(List.of(
+                    new WrittenOffer("222", 2L, 20L, "ART-2", 10L, 5L)));
+
+            cache.onOffersWritten(List.of(entity));
+
+            assertThat(byConnection.get("222")).isEqualTo(2L);
+            assertThat(byConnection.get("111")).isEqualTo(1L);
+            assertThat(bySkuCode.get("ART-2")).isEqualTo(new OfferSkuIds(2L, 20L));
+            assertThat(cache.offerIdsByConnection(10L).size()).isEqualTo(2);
+        }
+
+        @Test
+        void should_replaceCachedRow_when_offerRelinked() {
+            SkuResolutionCache cache = cache(new SkuCacheProperties(true, 1_000, Duration.ofHours(1)));
+            doAnswer(inv -> {
+                inv.<CompactSkuTable>getArgument(1).putIfAbsent("ART-1", 1L, 10L);
+                return null;
+            }).when(repository).loadOffersBySellerSkuCode(eq(5L), any());
+            OfferSkuMap bySkuCode = cache.offersBySellerSkuCode(5L);
+            var entity = new MarketplaceOfferEntity();
+            when(repository.findWrittenOffers(List.of(entity))).thenReturn(List.of(
+                    new WrittenOffer("111", 1L, 11L, "ART-1", 10L, 5L)));
+
+            cache.onOffersWritten(List.of(entity));
+
+            assertThat(bySkuCode.get("ART-1")).isEqualTo(new OfferSkuIds(1L, 11L));
+        }
+
+        @Test
+        void should_patchSellerSkus_forTheirWorkspaceOnly() {
+            SkuResolutionCache cache = cache(new SkuCacheProperties(true, 1_000, Duration.ofHours(1)));
+            SkuIdMap workspace5 = cache.sellerSkuIdsByWorkspace(5L);
+            var entity = new SellerSkuEntity();
+            when(repository.findWrittenSellerSkus(List.of(entity))).thenReturn(List.of(
+                    new WrittenSellerSku("ART-1", 31L, 5L),
+                    new WrittenSellerSku("ART-9", 39L, 6L)));
+
+            cache.onSellerSkusWritten(List.of(entity));
+
+            assertThat(workspace5.get("ART-1")).isEqualTo(31L);
+            assertThat(workspace5.get("ART-9")).isNull();
+        }
+
+        @Test
+        void should_skipReadBack_when_nothingCached() {
+            SkuResolutionCache cache = cache(new SkuCacheProperties(true, 1_000, Duration.ofHours(1)));
+
+            cache.onOffersWritten(List.of(new MarketplaceOfferEntity()));
+
+            verify(repository, never()).findWrittenOffers(any());
+        }
+    }
+
+    private void stubOfferIds(long connectionId, String sku, long offerId) {
+        doAnswer(inv -> {
+            inv.<CompactSkuTable>getArgument(1).putIfAbsent(sku, offerId);
+            return null;
+        }).when(repository).loadOfferIdsByConnection(eq(connectionId), any());
+    }
+
+    private double requests(String result) {
+        return registry.get("etl.sku_cache.requests").tag("result", result).counter().count();
+    }
+
+    private SkuResolutionCache cache(SkuCacheProperties properties) {
+        return new SkuResolutionCache(repository, properties, new MetricsFacade(registry));
+    }
+}
@@ -0,0 +1,102 @@
+package io.datapulse.platform.clickhouse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.clickhouse.client.api.Client;
+import com.clickhouse.client.api.insert.InsertResponse;
+import com.clickhouse.client.api.insert.InsertSettings;
+import com.clickhouse.data.ClickHouseFormat;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared ClickHouse bulk write path: streams rows as RowBinary over the HTTP client, encoding each
+ * row straight into the request body with a {@link RowBinaryEncoder}, instead of binding them as
+ * {@code ?} parameters of a JDBC batch.
+ *
+ * <p>One call is one INSERT statement. With {@code datapulse.clickhouse.bulk.async-insert} the
+ * server may merge it with other small inserts into one part; see
+ * {@link ClickHouseBulkProperties}.</p>
+ */
+@Slf4j
+@Component
+public class ClickHouseBulkInserter {
+
+    private final Client client;
+    private final ClickHouseBulkProperties properties;
+    private final MetricsFacade metrics;
+
+    public ClickHouseBulkInserter(@Qualifier("clickhouseClient") Client client,
+                                  ClickHouseBulkProperties properties,
+                                  MetricsFacade metrics) {
+        this.client = client;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Inserts {@code rows} into {@code table}. {@code encoder} must write exactly the
+     * {@code columns}, in order, with their ClickHouse types. {@code rows} may be iterated again
+     * if the client retries the request.
+     *
+     * @return number of rows sent
+     */
+    public <T> long insert(String table, List<String> columns, Iterable<? extends T> rows,
+                           RowBinaryEncoder<? super T> encoder) {
+        return insert(table, columns, rows, encoder, Map.of());
+    }
+
+    /**
+     * Same as {@link #insert(String, List, Iterable, RowBinaryEncoder)}, with extra ClickHouse
+     * server settings for this INSERT only (e.g. {@code max_partitions_per_insert_block}).
+     */
+    public <T> long insert(String table, List<String> columns, Iterable<? extends T> rows,
+                           RowBinaryEncoder<? super T> encoder, Map<String, String> serverSettings) {
+        Timer.Sample sample = metrics.startTimer();
+        long[] sent = new long[1];
+
+        try (InsertResponse response = client.insert(table, columns, out -> {
+                    sent[0] = 0;
+                    RowBinaryWriter writer = new RowBinaryWriter(out, properties.bufferSize());
+                    for (T row : rows) {
+                        encoder.encode(row, writer);
+                        sent[0]++;
+                    }
+                    writer.flush();
+                }, ClickHouseFormat.RowBinary, insertSettings(serverSettings))
+                .get(properties.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.debug("Bulk insert: table={}, rows={}, writtenBytes={}",
+                    table, sent[0], response.getWrittenBytes());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during bulk insert into " + table, e);
+        } catch (ExecutionException | TimeoutException e) {
+            metrics.incrementCounter("clickhouse.bulk_insert.failures", "table", table);
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new IllegalStateException(
+                    "Bulk insert into %s failed: %s".formatted(table, cause.getMessage()), cause);
+        }
+
+        metrics.stopTimer(sample, "clickhouse.bulk_insert.duration", "table", table);
+        metrics.incrementCounter("clickhouse.bulk_insert.rows", sent[0], "table", table);
+        return sent[0];
+    }
+
+    private InsertSettings insertSettings(Map<String, String> serverSettings) {
+        InsertSettings settings = new InsertSettings();
+        serverSettings.forEach(settings::serverSetting);
+        if (properties.asyncInsert()) {
+            settings.serverSetting("async_insert", "1");
+            settings.serverSetting("wait_for_async_insert",
+                    properties.waitForAsyncInsert() ? "1" : "0");
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,25 @@
+package io.datapulse.platform.clickhouse;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * RowBinary bulk inserts ({@link ClickHouseBulkInserter}).
+ *
+ * @param asyncInsert        send inserts with {@code async_insert=1}: the server buffers small
+ *                           inserts and flushes them as one part instead of one part per insert
+ * @param waitForAsyncInsert with {@code asyncInsert}, acknowledge only after the buffer was
+ *                           flushed to the table. Turning it off trades error visibility and
+ *                           read-after-write for latency
+ * @param bufferSize         bytes encoded in memory before they are handed to the HTTP stream
+ * @param timeout            upper bound for a single insert, streaming included
+ */
+@ConfigurationProperties(prefix = "datapulse.clickhouse.bulk")
+public record ClickHouseBulkProperties(
+        @DefaultValue("false") boolean asyncInsert,
+        @DefaultValue("true") boolean waitForAsyncInsert,
+        @DefaultValue("65536") int bufferSize,
+        @DefaultValue("10m") Duration timeout
+) {}
@@ -0,0 +1,63 @@
+package io.datapulse.platform.clickhouse;
+
+import java.net.URI;
+
+import com.clickhouse.client.api.Client;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP client for {@link ClickHouseBulkInserter}, pointed at the same server and database as the
+ * {@code clickhouseJdbcTemplate} ({@code datapulse.clickhouse.url} is a JDBC URL).
+ */
+@Configuration
+@EnableConfigurationProperties(ClickHouseBulkProperties.class)
+public class ClickHouseClientConfig {
+
+    @Bean(name = "clickhouseClient", destroyMethod = "close")
+    public Client clickhouseClient(
+            @Value("${datapulse.clickhouse.url}") String url,
+            @Value("${datapulse.clickhouse.username}") String username,
+            @Value("${datapulse.clickhouse.password:}") String password) {
+        ClickHouseEndpoint endpoint = ClickHouseEndpoint.fromJdbcUrl(url);
+        return new Client.Builder()
+                .addEndpoint(endpoint.httpUrl())
+                .setDefaultDatabase(endpoint.database())
+                .setUsername(username)
+                .setPassword(password)
+                .compressClientRequest(true)
+                .build();
+    }
+
+    /**
+     * {@code jdbc:clickhouse://host:port/db?…} (also {@code jdbc:ch:} and an explicit
+     * {@code http(s)} scheme) split into the HTTP endpoint and database.
+     */
+    record ClickHouseEndpoint(String httpUrl, String database) {
+
+        static ClickHouseEndpoint fromJdbcUrl(String jdbcUrl) {
+            String rest = jdbcUrl;
+            for (String prefix : new String[] {"jdbc:", "clickhouse:", "ch:"}) {
+                if (rest.startsWith(prefix)) {
+                    rest = rest.substring(prefix.length());
+                }
+            }
+            if (rest.startsWith("//")) {
+                rest = "http:" + rest;
+            }
+
+            URI uri = URI.create(rest);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("Unsupported ClickHouse URL: " + jdbcUrl);
+            }
+            boolean https = "https".equalsIgnoreCase(uri.getScheme());
+            int port = uri.getPort() > 0 ? uri.getPort() : (https ? 8443 : 8123);
+            String path = uri.getPath() == null ? "" : uri.getPath().replaceFirst("^/", "");
+            return new ClickHouseEndpoint(
+                    (https ? "https" : "http") + "://" + uri.getHost() + ":" + port,
+                    path.isEmpty() ? "default" : path);
+        }
+    }
+}
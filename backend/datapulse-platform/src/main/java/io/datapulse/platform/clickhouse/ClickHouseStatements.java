@@ -0,0 +1,67 @@
+package io.datapulse.platform.clickhouse;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import com.clickhouse.jdbc.StatementImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.StatementCallback;
+
+/**
+ * Statements sent through a ClickHouse {@link JdbcTemplate} with server settings of their own.
+ * The JDBC driver's statement parser rejects an inline {@code INSERT ... SETTINGS} clause, so the
+ * settings are put on the statement's query settings and travel as request parameters of that
+ * one query; the connection keeps the server defaults.
+ */
+public final class ClickHouseStatements {
+
+    /**
+     * Lifts the per-insert partition limit (default 100) for one all-tenant
+     * {@code INSERT ... SELECT}, which writes one partition per workspace. Everything else keeps
+     * the limit, so an insert that unexpectedly spans many partitions still fails.
+     */
+    public static final Map<String, String> NO_PARTITION_LIMIT =
+            Map.of("max_partitions_per_insert_block", "0");
+
+    private ClickHouseStatements() {
+    }
+
+    /**
+     * Executes {@code sql} with {@code serverSettings} applied to this statement only.
+     */
+    public static void execute(JdbcTemplate ch, String sql, Map<String, String> serverSettings) {
+        ch.execute((StatementCallback<Void>) statement -> {
+            applySettings(statement, serverSettings);
+            statement.execute(sql);
+            return null;
+        });
+    }
+
+    /**
+     * Sends {@code rows} as one JDBC batch of {@code sql} with {@code serverSettings} applied to
+     * this statement only.
+     */
+    public static <T> void batchUpdate(JdbcTemplate ch, String sql, List<T> rows,
+                                       ParameterizedPreparedStatementSetter<T> setter,
+                                       Map<String, String> serverSettings) {
+        ch.execute(sql, (PreparedStatementCallback<Void>) ps -> {
+            applySettings(ps, serverSettings);
+            for (T row : rows) {
+                setter.setValues(ps, row);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return null;
+        });
+    }
+
+    private static void applySettings(Statement statement, Map<String, String> serverSettings)
+            throws SQLException {
+        StatementImpl clickhouse = statement.unwrap(StatementImpl.class);
+        serverSettings.forEach(clickhouse.getLocalSettings()::serverSetting);
+    }
+}
@@ -0,0 +1,12 @@
+package io.datapulse.platform.clickhouse;
+
+import java.io.IOException;
+
+/**
+ * Writes one row's columns, in the order of the insert's column list, in ClickHouse RowBinary.
+ */
+@FunctionalInterface
+public interface RowBinaryEncoder<T> {
+
+    void encode(T row, RowBinaryWriter out) throws IOException;
+}
@@ -0,0 +1,288 @@
+package io.datapulse.platform.clickhouse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Buffered encoder of ClickHouse
+ * <a href="https://clickhouse.com/docs/en/interfaces/formats#rowbinary">RowBinary</a> values.
+ *
+ * <p>Every column type has its own primitive writer, so values go straight from the source row
+ * into the byte buffer: no {@code PreparedStatement} parameter boxing and no intermediate
+ * {@code byte[]} per string. Integers are little-endian, strings are a LEB128 byte length
+ * followed by UTF-8, {@code Nullable(T)} is a null byte ({@code 1} = NULL) followed by the value
+ * when present. {@code LowCardinality(T)} is encoded as {@code T}.</p>
+ *
+ * <p>{@code null} passed for a non-{@code Nullable} string or decimal column is written as the
+ * type's default ({@code ''}, {@code 0}), as ClickHouse's {@code input_format_null_as_default}
+ * did for the JDBC inserts this replaces.</p>
+ *
+ * <p>Not thread-safe; one writer per insert stream.</p>
+ */
+public final class RowBinaryWriter {
+
+    private static final int MAX_UINT16 = 0xFFFF;
+    private static final long MAX_UINT32 = 0xFFFF_FFFFL;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    public RowBinaryWriter(OutputStream out, int bufferSize) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize must be at least 16: " + bufferSize);
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public void writeUInt8(int value) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBool(boolean value) throws IOException {
+        writeUInt8(value ? 1 : 0);
+    }
+
+    public void writeUInt16(int value) throws IOException {
+        ensure(2);
+        buffer[position++] = (byte) value;
+        buffer[position++] = (byte) (value >>> 8);
+    }
+
+    public void writeInt32(int value) throws IOException {
+        ensure(4);
+        buffer[position++] = (byte) value;
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 24);
+    }
+
+    /**
+     * {@code UInt32}: the low 32 bits of {@code value}, which must be in {@code [0, 2^32)}.
+     */
+    public void writeUInt32(long value) throws IOException {
+        if (value < 0 || value > MAX_UINT32) {
+            throw new IllegalArgumentException("UInt32 out of range: " + value);
+        }
+        writeInt32((int) value);
+    }
+
+    public void writeInt64(long value) throws IOException {
+        ensure(8);
+        for (int shift = 0; shift < 64; shift += 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * {@code UInt64} with the same bit pattern as {@link #writeInt64}; ids and versions here are
+     * never negative.
+     */
+    public void writeUInt64(long value) throws IOException {
+        writeInt64(value);
+    }
+
+    public void writeFloat32(float value) throws IOException {
+        writeInt32(Float.floatToIntBits(value));
+    }
+
+    public void writeFloat64(double value) throws IOException {
+        writeInt64(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * {@code Decimal(P, scale)} with {@code P <= 18}: the unscaled value as Int64. Values with more
+     * fraction digits are rounded half-up.
+     */
+    public void writeDecimal64(BigDecimal value, int scale) throws IOException {
+        if (value == null) {
+            writeInt64(0);
+            return;
+        }
+        BigDecimal scaled = value.scale() == scale
+                ? value
+                : value.setScale(scale, RoundingMode.HALF_UP);
+        writeInt64(scaled.unscaledValue().longValueExact());
+    }
+
+    /**
+     * {@code Date}: days since 1970-01-01 as UInt16. Dates outside 1970-01-01..2149-06-06 are
+     * clamped to the nearest end, as ClickHouse does for out-of-range text input; throwing here
+     * would abort the whole insert stream mid-way (e.g. on a {@code 9999-12-31} "open" end date).
+     */
+    public void writeDate(LocalDate value) throws IOException {
+        writeUInt16((int) Math.min(Math.max(value.toEpochDay(), 0), MAX_UINT16));
+    }
+
+    /**
+     * {@code DateTime}: seconds since the epoch as UInt32. The column's time zone only affects how
+     * ClickHouse renders the value, not what is stored.
+     */
+    public void writeDateTime(Instant value) throws IOException {
+        writeUInt32(value.getEpochSecond());
+    }
+
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarUInt(0);
+            return;
+        }
+        int length = value.length();
+        int byteLength = utf8Length(value);
+        writeVarUInt(byteLength);
+        if (byteLength == length) {
+            // one byte per char: ASCII, apart from unpaired surrogates
+            writeAscii(value);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            ensure(4);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >>> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >>> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate: same replacement String.getBytes(UTF_8) uses
+                buffer[position++] = (byte) '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >>> 12));
+                buffer[position++] = (byte) (0x80 | ((c >>> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Writes the {@code Nullable} marker for {@code value}; the caller writes the value itself
+     * when this returns {@code true}.
+     */
+    public boolean writeNullMarker(Object value) throws IOException {
+        writeUInt8(value == null ? 1 : 0);
+        return value != null;
+    }
+
+    public void writeNullableString(String value) throws IOException {
+        if (writeNullMarker(value)) {
+            writeString(value);
+        }
+    }
+
+    public void writeNullableInt32(Number value) throws IOException {
+        if (writeNullMarker(value)) {
+            writeInt32(value.intValue());
+        }
+    }
+
+    public void writeNullableUInt32(Number value) throws IOException {
+        if (writeNullMarker(value)) {
+            writeUInt32(value.longValue());
+        }
+    }
+
+    public void writeNullableUInt64(Number value) throws IOException {
+        if (writeNullMarker(value)) {
+            writeUInt64(value.longValue());
+        }
+    }
+
+    public void writeNullableDecimal64(BigDecimal value, int scale) throws IOException {
+        if (writeNullMarker(value)) {
+            writeDecimal64(value, scale);
+        }
+    }
+
+    public void writeNullableDate(LocalDate value) throws IOException {
+        if (writeNullMarker(value)) {
+            writeDate(value);
+        }
+    }
+
+    public void writeNullableDateTime(Instant value) throws IOException {
+        if (writeNullMarker(value)) {
+            writeDateTime(value);
+        }
+    }
+
+    /**
+     * Hands the buffered bytes to the underlying stream and flushes it.
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void writeVarUInt(int value) throws IOException {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeAscii(String value) throws IOException {
+        int length = value.length();
+        int offset = 0;
+        while (offset < length) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int chunk = Math.min(length - offset, buffer.length - position);
+            for (int i = 0; i < chunk; i++) {
+                char c = value.charAt(offset + i);
+                buffer[position++] = c < 0x80 ? (byte) c : (byte) '?';
+            }
+            offset += chunk;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // two chars, four bytes
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 
 @Slf4j
@@ -21,6 +22,75 @@ public class AsyncConfig implements AsyncConfigurer {
         return buildExecutor("etl-", 4, 8, 50);
     }
 
+    /**
+     * Steps of Yandex async reports (generate, poll, download), handed over by the report timer.
+     * Abort-on-reject: a rejected step is rescheduled on the timer, never run on its thread.
+     */
+    @Bean("etlReportStepExecutor")
+    public TaskExecutor etlReportStepExecutor() {
+        return buildExecutor("etl-report-", 2, 8, 32, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Consumers of pipelined capture→normalize (one per running sub-source). No queue and
+     * abort-on-reject: a rejected pipeline falls back to sequential processing instead of
+     * running the consumer on the capturing thread, which would deadlock on the page queue.
+     */
+    @Bean("etlPipelineExecutor")
+    public TaskExecutor etlPipelineExecutor() {
+        return buildExecutor("etl-pipeline-", 2, 8, 0, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Extra date windows of a windowed marketplace capture. Abort-on-reject: the capturing
+     * thread always works through windows itself, a rejected worker only lowers concurrency.
+     */
+    @Bean("etlWindowExecutor")
+    public TaskExecutor etlWindowExecutor() {
+        return buildExecutor("etl-window-", 2, 8, 0, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Parallel multi-object deletes of raw layer retention. Caller-runs: the retention thread
+     * deletes a batch itself when all workers are busy.
+     */
+    @Bean("etlRetentionExecutor")
+    public TaskExecutor etlRetentionExecutor() {
+        return buildExecutor("etl-retention-", 4, 4, 16);
+    }
+
+    /**
+     * Offline raw-page replay: one task per event type, plus read-and-normalize tasks for the
+     * pages of a sub-source, which the event task then UPSERTs in capture order. Caller-runs:
+     * the submitting thread takes the task itself when the queue is full; an event task also
+     * prepares a queued page itself once it is next in line.
+     */
+    @Bean("etlReplayExecutor")
+    public TaskExecutor etlReplayExecutor() {
+        return buildExecutor("etl-replay-", 4, 4, 32);
+    }
+
+    /**
+     * ClickHouse insert side of the analytics PostgreSQL → ClickHouse transfer, one per running
+     * fact materialization. Abort-on-reject: a rejected transfer reads and inserts on the
+     * materializing thread instead.
+     */
+    @Bean("analyticsTransferExecutor")
+    public TaskExecutor analyticsTransferExecutor() {
+        return buildExecutor("analytics-transfer-", 2, 8, 0, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Independent nodes of the analytics materialization graph. Abort-on-reject: a rejected node
+     * runs on the scheduling thread; the number of nodes in flight across all runs, inline ones
+     * included, is capped by {@code datapulse.materialization.max-concurrent-nodes}.
+     */
+    @Bean("analyticsMaterializationExecutor")
+    public TaskExecutor analyticsMaterializationExecutor() {
+        return buildExecutor("analytics-materialize-", 4, 8, 0,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
     @Bean("pricingExecutor")
     public TaskExecutor pricingExecutor() {
         return buildExecutor("pricing-", 2, 5, 50);
@@ -53,12 +123,19 @@ public class AsyncConfig implements AsyncConfigurer {
     }
 
     private ThreadPoolTaskExecutor buildExecutor(String prefix, int coreSize, int maxSize, int queueCapacity) {
+        return buildExecutor(prefix, coreSize, maxSize, queueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private ThreadPoolTaskExecutor buildExecutor(String prefix, int coreSize, int maxSize,
+                                                 int queueCapacity,
+                                                 RejectedExecutionHandler rejectedExecutionHandler) {
         var executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(coreSize);
         executor.setMaxPoolSize(maxSize);
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix(prefix);
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
         executor.initialize();
         return executor;
     }
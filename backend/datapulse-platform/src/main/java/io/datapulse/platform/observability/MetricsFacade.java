@@ -1,5 +1,6 @@
 package io.datapulse.platform.observability;
 
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
@@ -30,6 +31,10 @@ public class MetricsFacade {
         meterRegistry.counter(name, tags).increment();
     }
 
+    public void incrementCounter(String name, double amount, String... tags) {
+        meterRegistry.counter(name, tags).increment(amount);
+    }
+
     public void recordDuration(String name, Duration duration, String... tags) {
         Timer.builder(name)
                 .tags(tags)
@@ -37,6 +42,13 @@ public class MetricsFacade {
                 .record(duration);
     }
 
+    public void recordSummary(String name, double amount, String... tags) {
+        DistributionSummary.builder(name)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(amount);
+    }
+
     public void gauge(String name, Supplier<Number> valueSupplier, String... tags) {
         Gauge.builder(name, valueSupplier)
                 .tags(Tags.of(tags))
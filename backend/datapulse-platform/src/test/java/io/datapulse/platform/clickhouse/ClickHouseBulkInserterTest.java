@@ -0,0 +1,140 @@
+package io.datapulse.platform.clickhouse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.clickhouse.client.api.Client;
+import com.clickhouse.client.api.DataStreamWriter;
+import com.clickhouse.client.api.insert.InsertResponse;
+import com.clickhouse.client.api.insert.InsertSettings;
+import com.clickhouse.data.ClickHouseFormat;
+import io.datapulse.platform.observability.MetricsFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ClickHouseBulkInserter")
+class ClickHouseBulkInserterTest {
+
+  private static final List<String> COLUMNS = List.of("id", "name");
+  private static final String SERVER_SETTING_PREFIX = "clickhouse_setting_";
+
+  @Mock private Client client;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private ClickHouseBulkInserter inserter(boolean asyncInsert, boolean waitForAsyncInsert) {
+    return new ClickHouseBulkInserter(client,
+        new ClickHouseBulkProperties(asyncInsert, waitForAsyncInsert, 64, Duration.ofSeconds(5)),
+        new MetricsFacade(registry));
+  }
+
+  private ArgumentCaptor<DataStreamWriter> stubInsert(ArgumentCaptor<InsertSettings> settings) {
+    ArgumentCaptor<DataStreamWriter> writer = ArgumentCaptor.forClass(DataStreamWriter.class);
+    when(client.insert(eq("t"), anyList(), writer.capture(), eq(ClickHouseFormat.RowBinary),
+        settings.capture()))
+        .thenAnswer(invocation -> {
+          invocation.<DataStreamWriter>getArgument(2).onOutput(new ByteArrayOutputStream());
+          return CompletableFuture.completedFuture(mock(InsertResponse.class));
+        });
+    return writer;
+  }
+
+  @Test
+  @DisplayName("should stream every row through the encoder as RowBinary")
+  void should_encodeRows_when_insert() throws Exception {
+    ArgumentCaptor<InsertSettings> settings = ArgumentCaptor.forClass(InsertSettings.class);
+    ArgumentCaptor<DataStreamWriter> writer = stubInsert(settings);
+
+    long sent = inserter(false, true).insert("t", COLUMNS, List.of(1L, 2L),
+        (Long id, RowBinaryWriter out) -> {
+          out.writeUInt64(id);
+          out.writeString("n" + id);
+        });
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    writer.getValue().onOutput(body);
+    assertThat(sent).isEqualTo(2);
+    assertThat(body.toByteArray()).containsExactly(
+        1, 0, 0, 0, 0, 0, 0, 0, 2, 'n', '1',
+        2, 0, 0, 0, 0, 0, 0, 0, 2, 'n', '2');
+    assertThat(registry.get("clickhouse.bulk_insert.rows").tag("table", "t").counter().count())
+        .isEqualTo(2.0);
+  }
+
+  @Test
+  @DisplayName("should not send async insert settings by default")
+  void should_omitAsyncSettings_when_disabled() {
+    ArgumentCaptor<InsertSettings> settings = ArgumentCaptor.forClass(InsertSettings.class);
+    stubInsert(settings);
+
+    inserter(false, true).insert("t", COLUMNS, List.of(1L), (Long id, RowBinaryWriter out) -> {});
+
+    assertThat(serverSettings(settings.getValue())).doesNotContainKey("async_insert");
+  }
+
+  @Test
+  @DisplayName("should send async_insert and wait_for_async_insert when enabled")
+  void should_sendAsyncSettings_when_enabled() {
+    ArgumentCaptor<InsertSettings> settings = ArgumentCaptor.forClass(InsertSettings.class);
+    stubInsert(settings);
+
+    inserter(true, false).insert("t", COLUMNS, List.of(1L), (Long id, RowBinaryWriter out) -> {});
+
+    assertThat(serverSettings(settings.getValue()))
+        .containsEntry("async_insert", "1")
+        .containsEntry("wait_for_async_insert", "0");
+  }
+
+  @Test
+  @DisplayName("should send per-call server settings with the insert")
+  void should_sendServerSettings_when_givenPerCall() {
+    ArgumentCaptor<InsertSettings> settings = ArgumentCaptor.forClass(InsertSettings.class);
+    stubInsert(settings);
+
+    inserter(false, true).insert("t", COLUMNS, List.of(1L), (Long id, RowBinaryWriter out) -> {},
+        Map.of("max_partitions_per_insert_block", "0"));
+
+    assertThat(serverSettings(settings.getValue()))
+        .containsEntry("max_partitions_per_insert_block", "0");
+  }
+
+  @Test
+  @DisplayName("should wrap server failure and count it")
+  void should_throwIllegalState_when_insertFails() {
+    when(client.insert(eq("t"), anyList(), any(DataStreamWriter.class),
+        eq(ClickHouseFormat.RowBinary), any(InsertSettings.class)))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Code: 27")));
+
+    assertThatThrownBy(() -> inserter(false, true)
+        .insert("t", COLUMNS, List.of(1L), (Long id, RowBinaryWriter out) -> {}))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Code: 27");
+    assertThat(registry.get("clickhouse.bulk_insert.failures").tag("table", "t").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  private static Map<String, Object> serverSettings(InsertSettings settings) {
+    Map<String, Object> result = new HashMap<>();
+    settings.getAllSettings().forEach((key, value) ->
+        result.put(key.replaceFirst("^" + SERVER_SETTING_PREFIX, ""), value));
+    return result;
+  }
+}
@@ -0,0 +1,47 @@
+package io.datapulse.platform.clickhouse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.datapulse.platform.clickhouse.ClickHouseClientConfig.ClickHouseEndpoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ClickHouseClientConfig.ClickHouseEndpoint")
+class ClickHouseClientConfigTest {
+
+  @Test
+  @DisplayName("should split JDBC URL into HTTP endpoint and database")
+  void should_parseJdbcUrl() {
+    ClickHouseEndpoint endpoint =
+        ClickHouseEndpoint.fromJdbcUrl("jdbc:clickhouse://ch.local:8123/datapulse?ssl=false");
+
+    assertThat(endpoint.httpUrl()).isEqualTo("http://ch.local:8123");
+    assertThat(endpoint.database()).isEqualTo("datapulse");
+  }
+
+  @Test
+  @DisplayName("should keep https scheme and default its port")
+  void should_defaultHttpsPort_when_httpsWithoutPort() {
+    ClickHouseEndpoint endpoint = ClickHouseEndpoint.fromJdbcUrl("jdbc:ch:https://ch.cloud/analytics");
+
+    assertThat(endpoint.httpUrl()).isEqualTo("https://ch.cloud:8443");
+    assertThat(endpoint.database()).isEqualTo("analytics");
+  }
+
+  @Test
+  @DisplayName("should fall back to default database and port 8123")
+  void should_useDefaults_when_noPortOrDatabase() {
+    ClickHouseEndpoint endpoint = ClickHouseEndpoint.fromJdbcUrl("jdbc:clickhouse://localhost");
+
+    assertThat(endpoint.httpUrl()).isEqualTo("http://localhost:8123");
+    assertThat(endpoint.database()).isEqualTo("default");
+  }
+
+  @Test
+  @DisplayName("should reject URL without host")
+  void should_throw_when_noHost() {
+    assertThatThrownBy(() -> ClickHouseEndpoint.fromJdbcUrl("jdbc:clickhouse:datapulse"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
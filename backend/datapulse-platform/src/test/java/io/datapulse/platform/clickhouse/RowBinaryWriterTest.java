@@ -0,0 +1,195 @@
+package io.datapulse.platform.clickhouse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("RowBinaryWriter")
+class RowBinaryWriterTest {
+
+  private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+  private final RowBinaryWriter writer = new RowBinaryWriter(sink, 16);
+
+  private byte[] written() throws IOException {
+    writer.flush();
+    return sink.toByteArray();
+  }
+
+  private static byte[] littleEndian(int capacity, Consumer<ByteBuffer> fill) {
+    ByteBuffer buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    fill.accept(buffer);
+    return buffer.array();
+  }
+
+  @Nested
+  @DisplayName("numbers")
+  class Numbers {
+
+    @Test
+    @DisplayName("should write integers little-endian")
+    void should_writeLittleEndian_when_integers() throws IOException {
+      writer.writeUInt16(0xABCD);
+      writer.writeInt32(-2);
+      writer.writeUInt32(4_000_000_000L);
+      writer.writeInt64(0x0102030405060708L);
+
+      assertThat(written()).containsExactly(littleEndian(18, b -> b
+          .putShort((short) 0xABCD)
+          .putInt(-2)
+          .putInt((int) 4_000_000_000L)
+          .putLong(0x0102030405060708L)));
+    }
+
+    @Test
+    @DisplayName("should reject UInt32 outside [0, 2^32)")
+    void should_throw_when_uint32OutOfRange() {
+      assertThatThrownBy(() -> writer.writeUInt32(-1))
+          .isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> writer.writeUInt32(1L << 32))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should write floats as IEEE 754 bits")
+    void should_writeIeeeBits_when_floats() throws IOException {
+      writer.writeFloat32(1.5f);
+      writer.writeFloat64(-0.25);
+
+      assertThat(written()).containsExactly(littleEndian(12, b -> b
+          .putFloat(1.5f)
+          .putDouble(-0.25)));
+    }
+
+    @Test
+    @DisplayName("should write decimal as unscaled Int64 rounded half-up")
+    void should_writeUnscaled_when_decimal() throws IOException {
+      writer.writeDecimal64(new BigDecimal("12.34"), 2);
+      writer.writeDecimal64(new BigDecimal("-0.005"), 2);
+      writer.writeDecimal64(new BigDecimal("7"), 2);
+      writer.writeDecimal64(null, 2);
+
+      assertThat(written()).containsExactly(littleEndian(32, b -> b
+          .putLong(1234)
+          .putLong(-1)
+          .putLong(700)
+          .putLong(0)));
+    }
+  }
+
+  @Nested
+  @DisplayName("dates")
+  class Dates {
+
+    @Test
+    @DisplayName("should write Date as UInt16 days and DateTime as UInt32 seconds")
+    void should_writeEpochUnits_when_dateAndDateTime() throws IOException {
+      writer.writeDate(LocalDate.of(2025, 3, 1));
+      writer.writeDateTime(Instant.parse("2025-03-01T10:15:30.900Z"));
+
+      long days = LocalDate.of(2025, 3, 1).toEpochDay();
+      long seconds = Instant.parse("2025-03-01T10:15:30Z").getEpochSecond();
+      assertThat(written()).containsExactly(littleEndian(6, b -> b
+          .putShort((short) days)
+          .putInt((int) seconds)));
+    }
+
+    @Test
+    @DisplayName("should clamp dates outside the Date range to its ends")
+    void should_clamp_when_dateOutOfRange() throws IOException {
+      writer.writeDate(LocalDate.of(1969, 12, 31));
+      writer.writeDate(LocalDate.of(9999, 12, 31));
+
+      assertThat(written()).containsExactly(littleEndian(4, b -> b
+          .putShort((short) 0)
+          .putShort((short) 0xFFFF)));
+    }
+  }
+
+  @Nested
+  @DisplayName("strings")
+  class Strings {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "SKU-42", "Кроссовки беговые", "€ 5 🚀", "\uD800x"})
+    @DisplayName("should write varint length and the same bytes as String.getBytes(UTF_8)")
+    void should_matchJdkUtf8_when_string(String value) throws IOException {
+      writer.writeString(value);
+
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      byte[] bytes = written();
+      assertThat(bytes[0]).isEqualTo((byte) utf8.length);
+      assertThat(bytes).hasSize(utf8.length + 1);
+      assertThat(Arrays.copyOfRange(bytes, 1, bytes.length)).containsExactly(utf8);
+      assertThat(RowBinaryWriter.utf8Length(value)).isEqualTo(utf8.length);
+    }
+
+    @Test
+    @DisplayName("should use a multi-byte varint for long strings spilling the buffer")
+    void should_spillBuffer_when_stringLongerThanBuffer() throws IOException {
+      String value = "a".repeat(300);
+
+      writer.writeString(value);
+
+      byte[] bytes = written();
+      assertThat(bytes[0]).isEqualTo((byte) (0x80 | (300 & 0x7F)));
+      assertThat(bytes[1]).isEqualTo((byte) (300 >>> 7));
+      assertThat(new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_8)).isEqualTo(value);
+    }
+
+    @Test
+    @DisplayName("should write null as empty string in non-nullable column")
+    void should_writeEmpty_when_nullString() throws IOException {
+      writer.writeString(null);
+
+      assertThat(written()).containsExactly(0);
+    }
+  }
+
+  @Nested
+  @DisplayName("nullable")
+  class Nullable {
+
+    @Test
+    @DisplayName("should write marker 1 and no value for null")
+    void should_writeOnlyMarker_when_null() throws IOException {
+      writer.writeNullableString(null);
+      writer.writeNullableUInt64(null);
+      writer.writeNullableDecimal64(null, 2);
+      writer.writeNullableDate(null);
+
+      assertThat(written()).containsExactly(1, 1, 1, 1);
+    }
+
+    @Test
+    @DisplayName("should write marker 0 followed by the value for non-null")
+    void should_writeMarkerAndValue_when_present() throws IOException {
+      writer.writeNullableUInt32(7);
+      writer.writeNullableString("x");
+
+      assertThat(written()).containsExactly(0, 7, 0, 0, 0, 0, 1, 'x');
+    }
+  }
+
+  @Test
+  @DisplayName("should reject buffers smaller than 16 bytes")
+  void should_throw_when_bufferTooSmall() {
+    assertThatThrownBy(() -> new RowBinaryWriter(sink, 8))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}